@@ -0,0 +1,1420 @@
+package com.biz.sccba.sqlanalyzer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分析器运行配置
+ * - 执行计划缓存（spring.analyzer.plan-cache）
+ * - 执行计划回退检测（spring.analyzer.plan-regression）
+ * - 基准测试（spring.analyzer.benchmark）
+ * - 负载回放（spring.analyzer.replay）
+ * - 索引变更前后对比验证（spring.analyzer.index-verification）
+ * - 语句摘要采集（spring.analyzer.digest-collector）
+ * - 慢查询日志解析（spring.analyzer.slow-log）
+ * - 锁等待采样（spring.analyzer.lock-sampler）
+ * - InnoDB 引擎指标采样（spring.analyzer.engine-metrics）
+ * - 索引使用计数跟踪（spring.analyzer.index-usage）
+ * - 缓冲池驻留分析（spring.analyzer.buffer-pool-residency）
+ * - 统计信息健康检查（spring.analyzer.stats-health）
+ * - Mapper 批量扫描（spring.analyzer.mapper-scan）
+ * - Mapper 文件监听（spring.analyzer.mapper-watch）
+ * - 动态 SQL 场景枚举（spring.analyzer.dynamic-sql）
+ * - DML 写放大分析（spring.analyzer.dml-analysis）
+ * - N+1 嵌套查询检测（spring.analyzer.nested-select）
+ * - foreach IN 列表规模分析（spring.analyzer.foreach-scaling）
+ * - Mapper 运行时设置审计（spring.analyzer.mapper-audit）
+ * - 开启定时任务（缓存清理、计划快照等后台任务）
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({
+    AnalyzerConfig.PlanCacheProperties.class,
+    AnalyzerConfig.PlanRegressionProperties.class,
+    AnalyzerConfig.BenchmarkProperties.class,
+    AnalyzerConfig.ReplayProperties.class,
+    AnalyzerConfig.IndexVerificationProperties.class,
+    AnalyzerConfig.DigestCollectorProperties.class,
+    AnalyzerConfig.SlowLogProperties.class,
+    AnalyzerConfig.LockSamplerProperties.class,
+    AnalyzerConfig.EngineMetricsProperties.class,
+    AnalyzerConfig.IndexUsageProperties.class,
+    AnalyzerConfig.BufferPoolResidencyProperties.class,
+    AnalyzerConfig.StatsHealthProperties.class,
+    AnalyzerConfig.MapperScanProperties.class,
+    AnalyzerConfig.MapperWatchProperties.class,
+    AnalyzerConfig.DynamicSqlScenarioProperties.class,
+    AnalyzerConfig.DmlAnalysisProperties.class,
+    AnalyzerConfig.NestedSelectProperties.class,
+    AnalyzerConfig.ForeachScalingProperties.class,
+    AnalyzerConfig.MapperAuditProperties.class
+})
+public class AnalyzerConfig {
+
+    /**
+     * 执行计划缓存配置属性类
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.plan-cache")
+    public static class PlanCacheProperties {
+        /**
+         * 是否启用执行计划缓存
+         */
+        private Boolean enabled = true;
+
+        /**
+         * 缓存条目最长保留时间（按创建时间计算，单位：天），到期后重新 EXPLAIN
+         */
+        private Integer maxAgeDays = 7;
+
+        /**
+         * 最多保留的缓存条目数，超出时淘汰最久未访问的条目
+         */
+        private Integer maxEntries = 10000;
+
+        /**
+         * Schema 版本在内存中的缓存时间（毫秒），过期后重新读取 INFORMATION_SCHEMA
+         */
+        private Long schemaVersionTtlMs = 60000L;
+
+        /**
+         * 清理任务执行间隔（毫秒）
+         */
+        private Long retentionIntervalMs = 3600000L;
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Integer getMaxAgeDays() {
+            return maxAgeDays;
+        }
+
+        public void setMaxAgeDays(Integer maxAgeDays) {
+            this.maxAgeDays = maxAgeDays;
+        }
+
+        public Integer getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(Integer maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Long getSchemaVersionTtlMs() {
+            return schemaVersionTtlMs;
+        }
+
+        public void setSchemaVersionTtlMs(Long schemaVersionTtlMs) {
+            this.schemaVersionTtlMs = schemaVersionTtlMs;
+        }
+
+        public Long getRetentionIntervalMs() {
+            return retentionIntervalMs;
+        }
+
+        public void setRetentionIntervalMs(Long retentionIntervalMs) {
+            this.retentionIntervalMs = retentionIntervalMs;
+        }
+    }
+
+    /**
+     * 执行计划回退检测配置属性类
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.plan-regression")
+    public static class PlanRegressionProperties {
+        /**
+         * 是否启用定时快照（DDL 后快照和手动检测不受此开关影响）
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 定时快照间隔（毫秒）
+         */
+        private Long intervalMs = 86400000L;
+
+        /**
+         * 定时快照的数据源列表
+         */
+        private List<String> datasources = new ArrayList<>();
+
+        /**
+         * 跨环境对比的数据源对，格式为 "基准:对比"，如 "mysql-primary:mysql-secondary"
+         */
+        private List<String> comparePairs = new ArrayList<>();
+
+        /**
+         * 估算行数跳变倍数阈值
+         */
+        private Double rowJumpRatio = 10.0;
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Long getIntervalMs() {
+            return intervalMs;
+        }
+
+        public void setIntervalMs(Long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+
+        public List<String> getDatasources() {
+            return datasources;
+        }
+
+        public void setDatasources(List<String> datasources) {
+            this.datasources = datasources;
+        }
+
+        public List<String> getComparePairs() {
+            return comparePairs;
+        }
+
+        public void setComparePairs(List<String> comparePairs) {
+            this.comparePairs = comparePairs;
+        }
+
+        public Double getRowJumpRatio() {
+            return rowJumpRatio;
+        }
+
+        public void setRowJumpRatio(Double rowJumpRatio) {
+            this.rowJumpRatio = rowJumpRatio;
+        }
+    }
+
+    /**
+     * 基准测试配置属性类（真实执行，仅在开启 safety.allow-execution 的数据源上可用）
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.benchmark")
+    public static class BenchmarkProperties {
+        /**
+         * 每次基准测试生成的参数组数
+         */
+        private Integer parameterSets = 10;
+
+        /**
+         * 预热执行次数（不计入统计）
+         */
+        private Integer warmupIterations = 20;
+
+        /**
+         * 计入统计的执行次数
+         */
+        private Integer iterations = 200;
+
+        /**
+         * 并发执行的连接数
+         */
+        private Integer concurrency = 4;
+
+        /**
+         * 单次基准测试允许的最大执行次数
+         */
+        private Integer maxIterations = 10000;
+
+        /**
+         * 单次基准测试允许的最大并发数
+         */
+        private Integer maxConcurrency = 32;
+
+        public Integer getParameterSets() {
+            return parameterSets;
+        }
+
+        public void setParameterSets(Integer parameterSets) {
+            this.parameterSets = parameterSets;
+        }
+
+        public Integer getWarmupIterations() {
+            return warmupIterations;
+        }
+
+        public void setWarmupIterations(Integer warmupIterations) {
+            this.warmupIterations = warmupIterations;
+        }
+
+        public Integer getIterations() {
+            return iterations;
+        }
+
+        public void setIterations(Integer iterations) {
+            this.iterations = iterations;
+        }
+
+        public Integer getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(Integer concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public Integer getMaxIterations() {
+            return maxIterations;
+        }
+
+        public void setMaxIterations(Integer maxIterations) {
+            this.maxIterations = maxIterations;
+        }
+
+        public Integer getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(Integer maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+    }
+
+    /**
+     * 负载回放配置属性类（真实执行，目标 QPS 与并发受数据源 safety 限制）
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.replay")
+    public static class ReplayProperties {
+        /**
+         * 起始目标 QPS
+         */
+        private Integer startQps = 10;
+
+        /**
+         * 每一阶梯增加的 QPS
+         */
+        private Integer stepQps = 10;
+
+        /**
+         * 最多阶梯数
+         */
+        private Integer maxSteps = 10;
+
+        /**
+         * 每一阶梯持续时间（秒）
+         */
+        private Integer stepDurationSeconds = 30;
+
+        /**
+         * 每条语句预先生成的参数组数
+         */
+        private Integer parameterSetsPerQuery = 5;
+
+        /**
+         * p99 延迟超过第一阶梯该倍数时视为拐点
+         */
+        private Double kneeLatencyFactor = 3.0;
+
+        /**
+         * 实际吞吐低于目标 QPS 该比例时视为拐点
+         */
+        private Double kneeThroughputRatio = 0.9;
+
+        public Integer getStartQps() {
+            return startQps;
+        }
+
+        public void setStartQps(Integer startQps) {
+            this.startQps = startQps;
+        }
+
+        public Integer getStepQps() {
+            return stepQps;
+        }
+
+        public void setStepQps(Integer stepQps) {
+            this.stepQps = stepQps;
+        }
+
+        public Integer getMaxSteps() {
+            return maxSteps;
+        }
+
+        public void setMaxSteps(Integer maxSteps) {
+            this.maxSteps = maxSteps;
+        }
+
+        public Integer getStepDurationSeconds() {
+            return stepDurationSeconds;
+        }
+
+        public void setStepDurationSeconds(Integer stepDurationSeconds) {
+            this.stepDurationSeconds = stepDurationSeconds;
+        }
+
+        public Integer getParameterSetsPerQuery() {
+            return parameterSetsPerQuery;
+        }
+
+        public void setParameterSetsPerQuery(Integer parameterSetsPerQuery) {
+            this.parameterSetsPerQuery = parameterSetsPerQuery;
+        }
+
+        public Double getKneeLatencyFactor() {
+            return kneeLatencyFactor;
+        }
+
+        public void setKneeLatencyFactor(Double kneeLatencyFactor) {
+            this.kneeLatencyFactor = kneeLatencyFactor;
+        }
+
+        public Double getKneeThroughputRatio() {
+            return kneeThroughputRatio;
+        }
+
+        public void setKneeThroughputRatio(Double kneeThroughputRatio) {
+            this.kneeThroughputRatio = kneeThroughputRatio;
+        }
+    }
+
+    /**
+     * 索引变更验证配置属性类
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.index-verification")
+    public static class IndexVerificationProperties {
+        /**
+         * 每条语句计入统计的执行次数
+         */
+        private Integer iterations = 50;
+
+        /**
+         * 每条语句的预热次数
+         */
+        private Integer warmupIterations = 5;
+
+        /**
+         * 执行并发数（单连接测量更稳定）
+         */
+        private Integer concurrency = 1;
+
+        /**
+         * 每条语句的参数组数
+         */
+        private Integer parameterSets = 5;
+
+        /**
+         * 读、写语句各自最多测量的条数
+         */
+        private Integer maxStatements = 10;
+
+        /**
+         * 读语句 p95 至少改善该比例（%）才视为有效
+         */
+        private Double minReadImprovementPct = 10.0;
+
+        /**
+         * 读语句 p95 最多允许恶化的比例（%），任何一条读语句超过时结论为 HARMFUL
+         */
+        private Double maxReadRegressionPct = 20.0;
+
+        /**
+         * 写语句 p95 最多允许恶化的比例（%）
+         */
+        private Double maxWriteRegressionPct = 30.0;
+
+        public Integer getIterations() {
+            return iterations;
+        }
+
+        public void setIterations(Integer iterations) {
+            this.iterations = iterations;
+        }
+
+        public Integer getWarmupIterations() {
+            return warmupIterations;
+        }
+
+        public void setWarmupIterations(Integer warmupIterations) {
+            this.warmupIterations = warmupIterations;
+        }
+
+        public Integer getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(Integer concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public Integer getParameterSets() {
+            return parameterSets;
+        }
+
+        public void setParameterSets(Integer parameterSets) {
+            this.parameterSets = parameterSets;
+        }
+
+        public Integer getMaxStatements() {
+            return maxStatements;
+        }
+
+        public void setMaxStatements(Integer maxStatements) {
+            this.maxStatements = maxStatements;
+        }
+
+        public Double getMinReadImprovementPct() {
+            return minReadImprovementPct;
+        }
+
+        public void setMinReadImprovementPct(Double minReadImprovementPct) {
+            this.minReadImprovementPct = minReadImprovementPct;
+        }
+
+        public Double getMaxReadRegressionPct() {
+            return maxReadRegressionPct;
+        }
+
+        public void setMaxReadRegressionPct(Double maxReadRegressionPct) {
+            this.maxReadRegressionPct = maxReadRegressionPct;
+        }
+
+        public Double getMaxWriteRegressionPct() {
+            return maxWriteRegressionPct;
+        }
+
+        public void setMaxWriteRegressionPct(Double maxWriteRegressionPct) {
+            this.maxWriteRegressionPct = maxWriteRegressionPct;
+        }
+    }
+
+    /**
+     * performance_schema 语句摘要采集配置属性类
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.digest-collector")
+    public static class DigestCollectorProperties {
+        /**
+         * 是否启用定时采集
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 采集间隔（毫秒）
+         */
+        private Long intervalMs = 300000L;
+
+        /**
+         * 采集的数据源
+         */
+        private List<String> datasources = new ArrayList<>();
+
+        /**
+         * 默认返回的问题语句数
+         */
+        private Integer topN = 20;
+
+        /**
+         * 区间统计保留天数
+         */
+        private Integer retentionDays = 14;
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Long getIntervalMs() {
+            return intervalMs;
+        }
+
+        public void setIntervalMs(Long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+
+        public List<String> getDatasources() {
+            return datasources;
+        }
+
+        public void setDatasources(List<String> datasources) {
+            this.datasources = datasources;
+        }
+
+        public Integer getTopN() {
+            return topN;
+        }
+
+        public void setTopN(Integer topN) {
+            this.topN = topN;
+        }
+
+        public Integer getRetentionDays() {
+            return retentionDays;
+        }
+
+        public void setRetentionDays(Integer retentionDays) {
+            this.retentionDays = retentionDays;
+        }
+    }
+
+    /**
+     * 慢查询日志解析配置
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.slow-log")
+    public static class SlowLogProperties {
+        /**
+         * 每个分块的大小（MB），单个分块会整体映射到内存
+         */
+        private Integer chunkSizeMb = 64;
+
+        /**
+         * 解析线程数（0 表示 CPU 核数）
+         */
+        private Integer parallelism = 0;
+
+        /**
+         * 内存中最多保留的语句指纹数，超出后新指纹只计入溢出条数
+         */
+        private Integer maxFingerprints = 5000;
+
+        /**
+         * 按总耗时写入待分析队列的指纹数
+         */
+        private Integer topN = 50;
+
+        /**
+         * 允许读取的慢日志目录（防止通过工具读取任意文件）
+         */
+        private List<String> allowedDirectories = new ArrayList<>(List.of("/var/log/mysql"));
+
+        public Integer getChunkSizeMb() {
+            return chunkSizeMb;
+        }
+
+        public void setChunkSizeMb(Integer chunkSizeMb) {
+            this.chunkSizeMb = chunkSizeMb;
+        }
+
+        public Integer getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(Integer parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public Integer getMaxFingerprints() {
+            return maxFingerprints;
+        }
+
+        public void setMaxFingerprints(Integer maxFingerprints) {
+            this.maxFingerprints = maxFingerprints;
+        }
+
+        public Integer getTopN() {
+            return topN;
+        }
+
+        public void setTopN(Integer topN) {
+            this.topN = topN;
+        }
+
+        public List<String> getAllowedDirectories() {
+            return allowedDirectories;
+        }
+
+        public void setAllowedDirectories(List<String> allowedDirectories) {
+            this.allowedDirectories = allowedDirectories;
+        }
+    }
+
+    /**
+     * 锁等待采样配置属性类
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.lock-sampler")
+    public static class LockSamplerProperties {
+        /**
+         * 是否启用定时采样
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 采样间隔（毫秒）
+         */
+        private Long intervalMs = 10000L;
+
+        /**
+         * 采样的数据源
+         */
+        private List<String> datasources = new ArrayList<>();
+
+        /**
+         * 每次采样最多读取的等待关系数（限制采样开销）
+         */
+        private Integer maxWaitsPerSample = 200;
+
+        /**
+         * 默认返回的热点数
+         */
+        private Integer topN = 20;
+
+        /**
+         * 采样明细保留天数
+         */
+        private Integer retentionDays = 7;
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Long getIntervalMs() {
+            return intervalMs;
+        }
+
+        public void setIntervalMs(Long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+
+        public List<String> getDatasources() {
+            return datasources;
+        }
+
+        public void setDatasources(List<String> datasources) {
+            this.datasources = datasources;
+        }
+
+        public Integer getMaxWaitsPerSample() {
+            return maxWaitsPerSample;
+        }
+
+        public void setMaxWaitsPerSample(Integer maxWaitsPerSample) {
+            this.maxWaitsPerSample = maxWaitsPerSample;
+        }
+
+        public Integer getTopN() {
+            return topN;
+        }
+
+        public void setTopN(Integer topN) {
+            this.topN = topN;
+        }
+
+        public Integer getRetentionDays() {
+            return retentionDays;
+        }
+
+        public void setRetentionDays(Integer retentionDays) {
+            this.retentionDays = retentionDays;
+        }
+    }
+
+    /**
+     * InnoDB 引擎指标采样配置属性类
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.engine-metrics")
+    public static class EngineMetricsProperties {
+        /**
+         * 是否启用定时采样
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 采样间隔（毫秒）
+         */
+        private Long intervalMs = 10000L;
+
+        /**
+         * 采样的数据源
+         */
+        private List<String> datasources = new ArrayList<>();
+
+        /**
+         * 每个数据源保留的采样点数（默认 10 秒间隔下约 12 小时）
+         */
+        private Integer capacity = 4320;
+
+        /**
+         * 评估当前引擎压力时使用的时间窗口（秒）
+         */
+        private Integer pressureWindowSeconds = 300;
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Long getIntervalMs() {
+            return intervalMs;
+        }
+
+        public void setIntervalMs(Long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+
+        public List<String> getDatasources() {
+            return datasources;
+        }
+
+        public void setDatasources(List<String> datasources) {
+            this.datasources = datasources;
+        }
+
+        public Integer getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(Integer capacity) {
+            this.capacity = capacity;
+        }
+
+        public Integer getPressureWindowSeconds() {
+            return pressureWindowSeconds;
+        }
+
+        public void setPressureWindowSeconds(Integer pressureWindowSeconds) {
+            this.pressureWindowSeconds = pressureWindowSeconds;
+        }
+    }
+
+    /**
+     * 索引使用计数跟踪配置属性类
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.index-usage")
+    public static class IndexUsageProperties {
+        /**
+         * 是否启用定时快照
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 快照间隔（毫秒）
+         */
+        private Long intervalMs = 3600000L;
+
+        /**
+         * 跟踪的数据源
+         */
+        private List<String> datasources = new ArrayList<>();
+
+        /**
+         * 确认索引未使用所需的最短观察期（天），应覆盖周期性任务
+         */
+        private Integer minObservationDays = 14;
+
+        /**
+         * 读取量占数据源全部索引读取量超过该比例时视为热点索引
+         */
+        private Double hotReadShare = 0.05;
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Long getIntervalMs() {
+            return intervalMs;
+        }
+
+        public void setIntervalMs(Long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+
+        public List<String> getDatasources() {
+            return datasources;
+        }
+
+        public void setDatasources(List<String> datasources) {
+            this.datasources = datasources;
+        }
+
+        public Integer getMinObservationDays() {
+            return minObservationDays;
+        }
+
+        public void setMinObservationDays(Integer minObservationDays) {
+            this.minObservationDays = minObservationDays;
+        }
+
+        public Double getHotReadShare() {
+            return hotReadShare;
+        }
+
+        public void setHotReadShare(Double hotReadShare) {
+            this.hotReadShare = hotReadShare;
+        }
+    }
+
+    /**
+     * 缓冲池驻留分析配置属性类
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.buffer-pool-residency")
+    public static class BufferPoolResidencyProperties {
+        /**
+         * INNODB_CACHED_INDEXES 不可用时是否允许扫描 INNODB_BUFFER_PAGE
+         */
+        private Boolean allowBufferPageScan = true;
+
+        /**
+         * 同一数据源两次 INNODB_BUFFER_PAGE 扫描的最短间隔（秒）
+         */
+        private Integer minScanIntervalSeconds = 600;
+
+        /**
+         * 驻留结果缓存时间（秒）
+         */
+        private Integer cacheTtlSeconds = 300;
+
+        public Boolean getAllowBufferPageScan() {
+            return allowBufferPageScan;
+        }
+
+        public void setAllowBufferPageScan(Boolean allowBufferPageScan) {
+            this.allowBufferPageScan = allowBufferPageScan;
+        }
+
+        public Integer getMinScanIntervalSeconds() {
+            return minScanIntervalSeconds;
+        }
+
+        public void setMinScanIntervalSeconds(Integer minScanIntervalSeconds) {
+            this.minScanIntervalSeconds = minScanIntervalSeconds;
+        }
+
+        public Integer getCacheTtlSeconds() {
+            return cacheTtlSeconds;
+        }
+
+        public void setCacheTtlSeconds(Integer cacheTtlSeconds) {
+            this.cacheTtlSeconds = cacheTtlSeconds;
+        }
+    }
+
+    /**
+     * 优化器统计信息健康检查配置
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.stats-health")
+    public static class StatsHealthProperties {
+        /**
+         * 统计行数与实测行数偏差超过该倍数时告警
+         */
+        private Double rowDriftRatio = 2.0;
+
+        /**
+         * 上次统计以来修改的行数占比超过该值时告警（InnoDB 自动重新统计的阈值为 10%）
+         */
+        private Double modifiedRatio = 0.1;
+
+        /**
+         * 统计信息超过该天数未更新且期间有修改时提示
+         */
+        private Integer staleDays = 7;
+
+        /**
+         * 索引首列不同值数估算与实测值偏差超过该倍数时告警
+         */
+        private Double ndvDriftRatio = 3.0;
+
+        /**
+         * 实测行数时最多计数的行数，超过时只得到下界；统计行数不超过该值的表才实测索引首列不同值数
+         */
+        private Long maxCountRows = 1000000L;
+
+        /**
+         * 大表中估算不同值数不超过该值的索引首列也实测（可走松散索引扫描，开销小）
+         */
+        private Long looseScanMaxDistinct = 10000L;
+
+        /**
+         * 单条实测语句的超时时间（秒）
+         */
+        private Integer queryTimeoutSeconds = 10;
+
+        /**
+         * 未指定表时最多检查的表数（按估算行数从大到小）
+         */
+        private Integer maxTables = 50;
+
+        public Double getRowDriftRatio() {
+            return rowDriftRatio;
+        }
+
+        public void setRowDriftRatio(Double rowDriftRatio) {
+            this.rowDriftRatio = rowDriftRatio;
+        }
+
+        public Double getModifiedRatio() {
+            return modifiedRatio;
+        }
+
+        public void setModifiedRatio(Double modifiedRatio) {
+            this.modifiedRatio = modifiedRatio;
+        }
+
+        public Integer getStaleDays() {
+            return staleDays;
+        }
+
+        public void setStaleDays(Integer staleDays) {
+            this.staleDays = staleDays;
+        }
+
+        public Double getNdvDriftRatio() {
+            return ndvDriftRatio;
+        }
+
+        public void setNdvDriftRatio(Double ndvDriftRatio) {
+            this.ndvDriftRatio = ndvDriftRatio;
+        }
+
+        public Long getMaxCountRows() {
+            return maxCountRows;
+        }
+
+        public void setMaxCountRows(Long maxCountRows) {
+            this.maxCountRows = maxCountRows;
+        }
+
+        public Long getLooseScanMaxDistinct() {
+            return looseScanMaxDistinct;
+        }
+
+        public void setLooseScanMaxDistinct(Long looseScanMaxDistinct) {
+            this.looseScanMaxDistinct = looseScanMaxDistinct;
+        }
+
+        public Integer getQueryTimeoutSeconds() {
+            return queryTimeoutSeconds;
+        }
+
+        public void setQueryTimeoutSeconds(Integer queryTimeoutSeconds) {
+            this.queryTimeoutSeconds = queryTimeoutSeconds;
+        }
+
+        public Integer getMaxTables() {
+            return maxTables;
+        }
+
+        public void setMaxTables(Integer maxTables) {
+            this.maxTables = maxTables;
+        }
+    }
+
+    /**
+     * Mapper 批量扫描配置
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.mapper-scan")
+    public static class MapperScanProperties {
+        /**
+         * 并行度（0 表示按 CPU 核数）
+         */
+        private Integer parallelism = 0;
+
+        /**
+         * JDBC 批量写入的每批行数
+         */
+        private Integer batchSize = 500;
+
+        /**
+         * 允许扫描的目录（目录、XML 和 jar 都必须位于这些目录下）
+         */
+        private List<String> allowedDirectories = new ArrayList<>();
+
+        public Integer getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(Integer parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public List<String> getAllowedDirectories() {
+            return allowedDirectories;
+        }
+
+        public void setAllowedDirectories(List<String> allowedDirectories) {
+            this.allowedDirectories = allowedDirectories;
+        }
+    }
+
+    /**
+     * Mapper 文件监听配置
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.mapper-watch")
+    public static class MapperWatchProperties {
+        /**
+         * 是否启用文件监听
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 监听的 Mapper 根目录（递归监听子目录）
+         */
+        private List<String> roots = new ArrayList<>();
+
+        /**
+         * 变更事件去抖时间（毫秒），编辑器保存时往往连续产生多个事件
+         */
+        private Long debounceMs = 500L;
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getRoots() {
+            return roots;
+        }
+
+        public void setRoots(List<String> roots) {
+            this.roots = roots;
+        }
+
+        public Long getDebounceMs() {
+            return debounceMs;
+        }
+
+        public void setDebounceMs(Long debounceMs) {
+            this.debounceMs = debounceMs;
+        }
+    }
+
+    /**
+     * 动态 SQL 场景枚举配置
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.dynamic-sql")
+    public static class DynamicSqlScenarioProperties {
+        /**
+         * 组合空间不超过该值时全部枚举，否则使用两两组合覆盖
+         */
+        private Integer maxExhaustive = 256;
+
+        /**
+         * 每个语句最多 EXPLAIN 的不同场景数（按 SQL 指纹去重后）
+         */
+        private Integer maxScenarios = 200;
+
+        /**
+         * foreach "多个元素"取值展开的元素个数
+         */
+        private Integer foreachItems = 5;
+
+        /**
+         * 并行 EXPLAIN 数
+         */
+        private Integer parallelism = 4;
+
+        public Integer getMaxExhaustive() {
+            return maxExhaustive;
+        }
+
+        public void setMaxExhaustive(Integer maxExhaustive) {
+            this.maxExhaustive = maxExhaustive;
+        }
+
+        public Integer getMaxScenarios() {
+            return maxScenarios;
+        }
+
+        public void setMaxScenarios(Integer maxScenarios) {
+            this.maxScenarios = maxScenarios;
+        }
+
+        public Integer getForeachItems() {
+            return foreachItems;
+        }
+
+        public void setForeachItems(Integer foreachItems) {
+            this.foreachItems = foreachItems;
+        }
+
+        public Integer getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(Integer parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    /**
+     * DML 写放大分析配置
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.dml-analysis")
+    public static class DmlAnalysisProperties {
+        /**
+         * 每次分析（命名空间或新增索引的写代价）最多 EXPLAIN 的写语句数
+         */
+        private Integer maxStatements = 200;
+
+        /**
+         * 二级索引数达到该值时提示插入/删除的写放大
+         */
+        private Integer indexCountWarning = 5;
+
+        /**
+         * 单次执行估算修改行数达到该值时提示分批
+         */
+        private Long largeRowsAffected = 10000L;
+
+        public Integer getMaxStatements() {
+            return maxStatements;
+        }
+
+        public void setMaxStatements(Integer maxStatements) {
+            this.maxStatements = maxStatements;
+        }
+
+        public Integer getIndexCountWarning() {
+            return indexCountWarning;
+        }
+
+        public void setIndexCountWarning(Integer indexCountWarning) {
+            this.indexCountWarning = indexCountWarning;
+        }
+
+        public Long getLargeRowsAffected() {
+            return largeRowsAffected;
+        }
+
+        public void setLargeRowsAffected(Long largeRowsAffected) {
+            this.largeRowsAffected = largeRowsAffected;
+        }
+    }
+
+    /**
+     * MyBatis 嵌套查询（N+1）检测配置
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.nested-select")
+    public static class NestedSelectProperties {
+        /**
+         * 没有数据源或 EXPLAIN 失败时假设的父查询返回行数
+         */
+        private Integer defaultParentRows = 100;
+
+        /**
+         * 没有表统计时假设的 collection 每次返回行数
+         */
+        private Integer defaultCollectionSize = 10;
+
+        /**
+         * 单次数据库往返耗时（毫秒），用于估算节省时间
+         */
+        private Double roundTripMs = 0.5;
+
+        /**
+         * 两步批量加载时每个 IN 列表的键数
+         */
+        private Integer batchSize = 500;
+
+        /**
+         * JOIN 后结果行数超过父记录数的该倍数时改为推荐批量加载
+         */
+        private Integer joinRowAmplificationLimit = 20;
+
+        public Integer getDefaultParentRows() {
+            return defaultParentRows;
+        }
+
+        public void setDefaultParentRows(Integer defaultParentRows) {
+            this.defaultParentRows = defaultParentRows;
+        }
+
+        public Integer getDefaultCollectionSize() {
+            return defaultCollectionSize;
+        }
+
+        public void setDefaultCollectionSize(Integer defaultCollectionSize) {
+            this.defaultCollectionSize = defaultCollectionSize;
+        }
+
+        public Double getRoundTripMs() {
+            return roundTripMs;
+        }
+
+        public void setRoundTripMs(Double roundTripMs) {
+            this.roundTripMs = roundTripMs;
+        }
+
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Integer getJoinRowAmplificationLimit() {
+            return joinRowAmplificationLimit;
+        }
+
+        public void setJoinRowAmplificationLimit(Integer joinRowAmplificationLimit) {
+            this.joinRowAmplificationLimit = joinRowAmplificationLimit;
+        }
+    }
+
+    /**
+     * foreach IN 列表 / 多行 VALUES 规模分析配置
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.foreach-scaling")
+    public static class ForeachScalingProperties {
+        /**
+         * 渲染的 foreach 元素个数（另外会加入 eq_range_index_dive_limit 两侧的规模）
+         */
+        private List<Integer> sizes = new ArrayList<>(List.of(1, 10, 200, 5000));
+
+        /**
+         * 每元素估算扫描行数超过基准的倍数视为退化
+         */
+        private Double rowsDegradationFactor = 3.0;
+
+        /**
+         * 每元素耗时超过已测最小值的倍数视为退化
+         */
+        private Double latencyDegradationFactor = 3.0;
+
+        /**
+         * 每个规模基准测试的预热次数
+         */
+        private Integer benchmarkWarmup = 3;
+
+        /**
+         * 每个规模基准测试的执行次数
+         */
+        private Integer benchmarkIterations = 20;
+
+        public List<Integer> getSizes() {
+            return sizes;
+        }
+
+        public void setSizes(List<Integer> sizes) {
+            this.sizes = sizes;
+        }
+
+        public Double getRowsDegradationFactor() {
+            return rowsDegradationFactor;
+        }
+
+        public void setRowsDegradationFactor(Double rowsDegradationFactor) {
+            this.rowsDegradationFactor = rowsDegradationFactor;
+        }
+
+        public Double getLatencyDegradationFactor() {
+            return latencyDegradationFactor;
+        }
+
+        public void setLatencyDegradationFactor(Double latencyDegradationFactor) {
+            this.latencyDegradationFactor = latencyDegradationFactor;
+        }
+
+        public Integer getBenchmarkWarmup() {
+            return benchmarkWarmup;
+        }
+
+        public void setBenchmarkWarmup(Integer benchmarkWarmup) {
+            this.benchmarkWarmup = benchmarkWarmup;
+        }
+
+        public Integer getBenchmarkIterations() {
+            return benchmarkIterations;
+        }
+
+        public void setBenchmarkIterations(Integer benchmarkIterations) {
+            this.benchmarkIterations = benchmarkIterations;
+        }
+    }
+
+    /**
+     * Mapper 运行时设置审计配置
+     */
+    @ConfigurationProperties(prefix = "spring.analyzer.mapper-audit")
+    public static class MapperAuditProperties {
+        /**
+         * 估算返回行数达到该值的查询视为大结果集
+         */
+        private Long largeResultRows = 10000L;
+
+        /**
+         * 每小时执行次数达到该值的语句视为高频语句
+         */
+        private Double hotExecutionsPerHour = 3600.0;
+
+        /**
+         * 统计执行频率时使用最近多少小时的语句摘要
+         */
+        private Integer digestWindowHours = 24;
+
+        /**
+         * 单次数据库往返耗时（毫秒），用于估算批量写入节省的时间
+         */
+        private Double roundTripMs = 0.5;
+
+        /**
+         * 估算 BATCH 执行器收益时假设的每批行数
+         */
+        private Integer batchSize = 500;
+
+        public Long getLargeResultRows() {
+            return largeResultRows;
+        }
+
+        public void setLargeResultRows(Long largeResultRows) {
+            this.largeResultRows = largeResultRows;
+        }
+
+        public Double getHotExecutionsPerHour() {
+            return hotExecutionsPerHour;
+        }
+
+        public void setHotExecutionsPerHour(Double hotExecutionsPerHour) {
+            this.hotExecutionsPerHour = hotExecutionsPerHour;
+        }
+
+        public Integer getDigestWindowHours() {
+            return digestWindowHours;
+        }
+
+        public void setDigestWindowHours(Integer digestWindowHours) {
+            this.digestWindowHours = digestWindowHours;
+        }
+
+        public Double getRoundTripMs() {
+            return roundTripMs;
+        }
+
+        public void setRoundTripMs(Double roundTripMs) {
+            this.roundTripMs = roundTripMs;
+        }
+
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+}
@@ -34,6 +34,11 @@ public class DataSourceConfigModel {
      */
     private HikariConfig hikari = new HikariConfig();
 
+    /**
+     * 执行安全限制（真实执行 SQL 的功能需遵守）
+     */
+    private SafetyConfig safety = new SafetyConfig();
+
     public String getName() {
         return name;
     }
@@ -82,6 +87,14 @@ public class DataSourceConfigModel {
         this.hikari = hikari;
     }
 
+    public SafetyConfig getSafety() {
+        return safety;
+    }
+
+    public void setSafety(SafetyConfig safety) {
+        this.safety = safety;
+    }
+
     /**
      * HikariCP 配置
      */
@@ -164,4 +177,62 @@ public class DataSourceConfigModel {
             this.leakDetectionThreshold = leakDetectionThreshold;
         }
     }
+
+    /**
+     * 执行安全配置
+     * EXPLAIN 只读取执行计划，不受此限制；EXPLAIN ANALYZE 等会真实执行语句的功能必须显式开启
+     */
+    public static class SafetyConfig {
+        /**
+         * 是否允许真实执行语句（仅应在测试环境开启）
+         */
+        private Boolean allowExecution = false;
+
+        /**
+         * 语句执行超时时间（毫秒）
+         */
+        private Long statementTimeoutMs = 30000L;
+
+        /**
+         * 压测（负载回放）允许的最大目标 QPS
+         */
+        private Integer maxQps = 100;
+
+        /**
+         * 基准测试与负载回放允许的最大并发执行数
+         */
+        private Integer maxConcurrency = 16;
+
+        public Boolean getAllowExecution() {
+            return allowExecution;
+        }
+
+        public void setAllowExecution(Boolean allowExecution) {
+            this.allowExecution = allowExecution;
+        }
+
+        public Long getStatementTimeoutMs() {
+            return statementTimeoutMs;
+        }
+
+        public void setStatementTimeoutMs(Long statementTimeoutMs) {
+            this.statementTimeoutMs = statementTimeoutMs;
+        }
+
+        public Integer getMaxQps() {
+            return maxQps;
+        }
+
+        public void setMaxQps(Integer maxQps) {
+            this.maxQps = maxQps;
+        }
+
+        public Integer getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(Integer maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+    }
 }
@@ -0,0 +1,160 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 基准测试结果
+ * 记录一条语句在某个数据源上真实执行的延迟分位数、扫描行数和错误率，供优化建议引用实测数据
+ */
+@Entity
+@Table(name = "sql_benchmark_result",
+    indexes = {
+        @Index(name = "idx_benchmark_digest", columnList = "sql_digest, datasource_name, created_at"),
+        @Index(name = "idx_benchmark_query", columnList = "query_id")
+    })
+@Data
+public class BenchmarkResult {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 对应的 ParsedSqlQuery ID（直接传入 SQL 时为空）
+     */
+    @Column(name = "query_id")
+    private Long queryId;
+
+    /**
+     * Mapper ID（格式：namespace.statementId）
+     */
+    @Column(length = 700)
+    private String mapperId;
+
+    /**
+     * 数据源（或测试环境）名称
+     */
+    @Column(name = "datasource_name", nullable = false, length = 100)
+    private String datasourceName;
+
+    /**
+     * SQL 摘要（去除字面量后的哈希，同一语句不同参数摘要相同）
+     */
+    @Column(name = "sql_digest", nullable = false, length = 64)
+    private String sqlDigest;
+
+    /**
+     * 原始 SQL（占位符为 ?）
+     */
+    @Column(columnDefinition = "TEXT")
+    private String sqlText;
+
+    /**
+     * 实际使用的参数组数
+     */
+    private Integer parameterSets;
+
+    /**
+     * 预热执行次数
+     */
+    private Integer warmupIterations;
+
+    /**
+     * 计入统计的执行次数
+     */
+    private Integer iterations;
+
+    /**
+     * 并发数
+     */
+    private Integer concurrency;
+
+    /**
+     * 成功次数
+     */
+    private Long successCount;
+
+    /**
+     * 失败次数
+     */
+    private Long errorCount;
+
+    /**
+     * 错误率（0 ~ 1）
+     */
+    private Double errorRate;
+
+    /**
+     * 延迟中位数（毫秒）
+     */
+    private Double p50Ms;
+
+    /**
+     * 95 分位延迟（毫秒）
+     */
+    private Double p95Ms;
+
+    /**
+     * 99 分位延迟（毫秒）
+     */
+    private Double p99Ms;
+
+    /**
+     * 最大延迟（毫秒）
+     */
+    private Double maxMs;
+
+    /**
+     * 平均延迟（毫秒）
+     */
+    private Double meanMs;
+
+    /**
+     * 吞吐量（次/秒）
+     */
+    private Double throughputQps;
+
+    /**
+     * 平均扫描行数（来自 performance_schema，不可用时为空）
+     */
+    private Double avgRowsExamined;
+
+    /**
+     * 平均返回（或影响）行数
+     */
+    private Double avgRowsReturned;
+
+    /**
+     * 语句是否为写操作（写操作每次执行后回滚）
+     */
+    private Boolean writeStatement;
+
+    /**
+     * 延迟直方图（HdrHistogram 压缩编码的 Base64，单位：微秒），用于后续合并或对比分布
+     */
+    @Column(columnDefinition = "TEXT")
+    private String histogram;
+
+    /**
+     * 首个错误信息
+     */
+    @Column(length = 1000)
+    private String sampleError;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -167,6 +167,21 @@ public class ExecutionPlan {
     @JsonIgnore
     private String dataReadPerJoin;
 
+    // ========== EXPLAIN ANALYZE 字段 ==========
+
+    /**
+     * EXPLAIN ANALYZE 原始 TREE 输出
+     */
+    @Transient
+    @JsonIgnore
+    private String analyzeTreeText;
+
+    /**
+     * EXPLAIN ANALYZE 解析后的迭代器树（包含实际耗时、行数和循环次数）
+     */
+    @Transient
+    private PlanTreeNode analyzeTree;
+
     /**
      * 创建时间
      */
@@ -430,6 +445,44 @@ public class ExecutionPlan {
             sb.append("执行计划信息不可用\n\n");
         }
 
+        // EXPLAIN ANALYZE 实际执行信息
+        if (analyzeTree != null) {
+            sb.append("## 实际执行（EXPLAIN ANALYZE）\n\n");
+            sb.append("| 迭代器 | 估算行数 | 实际行数 | 循环次数 | 实际耗时(ms) | 估算偏差 |\n");
+            sb.append("|--------|----------|----------|----------|--------------|----------|\n");
+            for (PlanTreeNode node : analyzeTree.flatten()) {
+                sb.append("| ").append("  ".repeat(node.getDepth())).append(node.getDescription().replace("|", "\\|"))
+                  .append(" | ").append(node.getEstimatedRows() != null ? node.getEstimatedRows() : "-")
+                  .append(" | ").append(node.isNeverExecuted() ? "未执行" : (node.getActualRows() != null ? node.getActualRows() : "-"))
+                  .append(" | ").append(node.getLoops() != null ? node.getLoops() : "-")
+                  .append(" | ").append(node.getActualLastRowMs() != null ? node.getActualLastRowMs() : "-")
+                  .append(" | ");
+                Double ratio = node.getRowEstimateRatio();
+                if (ratio != null) {
+                    sb.append(String.format("%.1fx", ratio));
+                    if (node.isMisestimated()) {
+                        sb.append(" ⚠️");
+                    }
+                } else {
+                    sb.append("-");
+                }
+                sb.append(" |\n");
+            }
+            sb.append("\n");
+
+            java.util.List<PlanTreeNode> misestimated = analyzeTree.findMisestimatedNodes();
+            if (!misestimated.isEmpty()) {
+                sb.append("### 估算失真节点\n\n");
+                for (PlanTreeNode node : misestimated) {
+                    sb.append("- ").append(node.getDescription())
+                      .append("：估算 ").append(node.getEstimatedRows())
+                      .append(" 行，实际 ").append(node.getActualRows())
+                      .append(" 行（偏差 ").append(String.format("%.1f", node.getRowEstimateRatio())).append(" 倍）\n");
+                }
+                sb.append("\n");
+            }
+        }
+
         // 原始JSON（可选展示）
         if (rawJson != null && !rawJson.isEmpty()) {
             sb.append("---\n\n");
@@ -593,6 +646,12 @@ public class ExecutionPlan {
     public String getDataReadPerJoin() { return dataReadPerJoin; }
     public void setDataReadPerJoin(String dataReadPerJoin) { this.dataReadPerJoin = dataReadPerJoin; }
 
+    public String getAnalyzeTreeText() { return analyzeTreeText; }
+    public void setAnalyzeTreeText(String analyzeTreeText) { this.analyzeTreeText = analyzeTreeText; }
+
+    public PlanTreeNode getAnalyzeTree() { return analyzeTree; }
+    public void setAnalyzeTree(PlanTreeNode analyzeTree) { this.analyzeTree = analyzeTree; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
@@ -0,0 +1,62 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 执行计划内容（去重存储）
+ * 相同的执行计划 JSON 只保存一份，以内容 SHA-256 为唯一键，JSON 经 GZIP 压缩后存储
+ */
+@Entity
+@Table(name = "sql_execution_plan_blob",
+    indexes = {
+        @Index(name = "uk_plan_blob_hash", columnList = "content_hash", unique = true)
+    })
+@Data
+public class ExecutionPlanBlob {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 执行计划 JSON 的 SHA-256 摘要
+     */
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    /**
+     * GZIP 压缩后的执行计划 JSON
+     */
+    @Lob
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] compressedJson;
+
+    /**
+     * 原始 JSON 字节数
+     */
+    @Column(nullable = false)
+    private Integer rawSize;
+
+    /**
+     * 压缩后字节数
+     */
+    @Column(nullable = false)
+    private Integer compressedSize;
+
+    /**
+     * 创建时间
+     */
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,91 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 执行计划缓存条目
+ * 以 (SQL 文本摘要, 数据源, Schema 版本) 为唯一键，计划内容通过内容摘要引用 {@link ExecutionPlanBlob}
+ */
+@Entity
+@Table(name = "sql_execution_plan_cache",
+    indexes = {
+        @Index(name = "uk_plan_cache_key", columnList = "sql_hash, datasource_name, schema_version", unique = true),
+        @Index(name = "idx_plan_cache_digest", columnList = "sql_digest"),
+        @Index(name = "idx_plan_cache_accessed", columnList = "last_accessed_at")
+    })
+@Data
+public class ExecutionPlanCacheEntry {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * SQL 文本摘要（保留字面量，区分具体语句）
+     */
+    @Column(name = "sql_hash", nullable = false, length = 64)
+    private String sqlHash;
+
+    /**
+     * SQL 指纹摘要（去掉字面量，用于按语句形态聚合）
+     */
+    @Column(name = "sql_digest", nullable = false, length = 64)
+    private String sqlDigest;
+
+    /**
+     * 数据源名称
+     */
+    @Column(name = "datasource_name", nullable = false, length = 100)
+    private String datasourceName;
+
+    /**
+     * Schema 版本（涉及表的列和索引定义摘要）
+     */
+    @Column(name = "schema_version", nullable = false, length = 64)
+    private String schemaVersion;
+
+    /**
+     * 执行计划内容摘要（引用 sql_execution_plan_blob.content_hash）
+     */
+    @Column(name = "plan_content_hash", nullable = false, length = 64)
+    private String planContentHash;
+
+    /**
+     * SQL 语句（仅用于排查，不参与查询）
+     */
+    @Column(columnDefinition = "TEXT")
+    private String sqlText;
+
+    /**
+     * 命中次数
+     */
+    @Column(nullable = false)
+    private Long hitCount = 0L;
+
+    /**
+     * 创建时间
+     */
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * 最后访问时间
+     */
+    @Column(name = "last_accessed_at", nullable = false)
+    private LocalDateTime lastAccessedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        createdAt = now;
+        if (lastAccessedAt == null) {
+            lastAccessedAt = now;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 索引使用计数
+ * 跨快照、跨实例重启累计每个索引的读写次数（performance_schema 的计数器在实例重启后清零）
+ */
+@Entity
+@Table(name = "sql_index_usage_counter",
+    uniqueConstraints = @UniqueConstraint(name = "uk_index_usage",
+        columnNames = {"datasource_name", "schema_name", "table_name", "index_name"}))
+@Data
+public class IndexUsageCounter {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 数据源名称
+     */
+    @Column(name = "datasource_name", nullable = false, length = 100)
+    private String datasourceName;
+
+    /**
+     * 库名
+     */
+    @Column(name = "schema_name", nullable = false, length = 100)
+    private String schemaName;
+
+    /**
+     * 表名
+     */
+    @Column(name = "table_name", nullable = false, length = 100)
+    private String tableName;
+
+    /**
+     * 索引名（空字符串表示不经过索引的访问，即全表扫描和插入）
+     */
+    @Column(name = "index_name", nullable = false, length = 100)
+    private String indexName;
+
+    /**
+     * 是否为主键或唯一索引
+     */
+    private Boolean primaryOrUnique;
+
+    /**
+     * 上一次快照的原始 COUNT_READ
+     */
+    private Long rawReads;
+
+    /**
+     * 上一次快照的原始 COUNT_WRITE
+     */
+    private Long rawWrites;
+
+    /**
+     * 上一次快照的原始 COUNT_FETCH
+     */
+    private Long rawFetches;
+
+    /**
+     * 观察期内累计读取次数
+     */
+    private Long totalReads;
+
+    /**
+     * 观察期内累计写入次数
+     */
+    private Long totalWrites;
+
+    /**
+     * 观察期内累计读取行数
+     */
+    private Long totalFetches;
+
+    /**
+     * 开始跟踪的时间
+     */
+    private LocalDateTime trackingSince;
+
+    /**
+     * 最近一次快照时间
+     */
+    private LocalDateTime lastSnapshotAt;
+
+    /**
+     * 最近一次观察到读取的快照时间
+     */
+    private LocalDateTime lastReadAt;
+
+    /**
+     * 上一次快照时实例的启动时间（用于识别重启）
+     */
+    private LocalDateTime serverStartedAt;
+
+    /**
+     * 观察期内识别到的计数器清零次数
+     */
+    private Integer counterResets;
+
+    /**
+     * 最近一次快照时 sys.schema_unused_indexes 是否将其列为未使用（自实例启动以来）
+     */
+    private Boolean unusedSinceServerStart;
+}
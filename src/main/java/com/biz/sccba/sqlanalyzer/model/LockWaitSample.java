@@ -0,0 +1,159 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 锁等待采样明细
+ * 每次采样中的每条等待关系（等待事务 → 阻塞事务）保存一行
+ */
+@Entity
+@Table(name = "sql_lock_wait_sample",
+    indexes = {
+        @Index(name = "idx_lock_wait_ds_time", columnList = "datasource_name, sampled_at"),
+        @Index(name = "idx_lock_wait_blocking_digest", columnList = "blocking_digest"),
+        @Index(name = "idx_lock_wait_waiting_digest", columnList = "waiting_digest")
+    })
+@Data
+public class LockWaitSample {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 数据源名称
+     */
+    @Column(name = "datasource_name", nullable = false, length = 100)
+    private String datasourceName;
+
+    /**
+     * 采样时间（同一次采样的各行相同）
+     */
+    @Column(name = "sampled_at", nullable = false)
+    private LocalDateTime sampledAt;
+
+    /**
+     * 等待的事务 ID
+     */
+    @Column(length = 30)
+    private String waitingTrxId;
+
+    /**
+     * 阻塞的事务 ID
+     */
+    @Column(length = 30)
+    private String blockingTrxId;
+
+    /**
+     * 等待锁所在的库
+     */
+    @Column(length = 100)
+    private String objectSchema;
+
+    /**
+     * 等待锁所在的表
+     */
+    @Column(length = 100)
+    private String objectName;
+
+    /**
+     * 等待锁所在的索引
+     */
+    @Column(length = 100)
+    private String indexName;
+
+    /**
+     * 锁类型（TABLE / RECORD）
+     */
+    @Column(length = 20)
+    private String lockType;
+
+    /**
+     * 请求的锁模式（如 X,REC_NOT_GAP、X,GAP）
+     */
+    @Column(length = 50)
+    private String lockMode;
+
+    /**
+     * 被锁的记录（索引键值）
+     */
+    @Column(length = 500)
+    private String lockData;
+
+    /**
+     * 已等待时长（秒）
+     */
+    private Long waitSeconds;
+
+    /**
+     * 等待事务正在执行的语句
+     */
+    @Column(columnDefinition = "TEXT")
+    private String waitingSql;
+
+    /**
+     * 等待语句的指纹
+     */
+    @Column(name = "waiting_digest", length = 64)
+    private String waitingDigest;
+
+    /**
+     * 阻塞事务正在执行或最后执行的语句
+     */
+    @Column(columnDefinition = "TEXT")
+    private String blockingSql;
+
+    /**
+     * 阻塞语句的指纹
+     */
+    @Column(name = "blocking_digest", length = 64)
+    private String blockingDigest;
+
+    /**
+     * 阻塞语句关联的 ParsedSqlQuery ID
+     */
+    private Long blockingQueryId;
+
+    /**
+     * 阻塞语句关联的 Mapper ID（格式：namespace.statementId）
+     */
+    @Column(length = 700)
+    private String blockingMapperId;
+
+    /**
+     * 等待语句关联的 Mapper ID
+     */
+    @Column(length = 700)
+    private String waitingMapperId;
+
+    /**
+     * 阻塞事务已运行时长（秒）
+     */
+    private Long blockingTrxAgeSeconds;
+
+    /**
+     * 阻塞事务持有的行锁数
+     */
+    private Long blockingRowsLocked;
+
+    /**
+     * 阻塞事务是否为阻塞链源头
+     */
+    private Boolean rootBlocker;
+
+    /**
+     * 阻塞事务直接或间接阻塞的事务数
+     */
+    private Integer blockedCount;
+
+    /**
+     * 是否处于等待环（死锁）中
+     */
+    private Boolean inCycle;
+}
@@ -0,0 +1,53 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mapper 源文件内容哈希
+ * 批量扫描时内容未变化（且引用的片段也未变化）的 Mapper 直接跳过
+ */
+@Entity
+@Table(name = "mapper_source_hash")
+@Data
+public class MapperSourceHash {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Mapper 命名空间
+     */
+    @Column(name = "mapper_namespace", nullable = false, unique = true, length = 500)
+    private String mapperNamespace;
+
+    /**
+     * 源文件位置（文件路径，或 "jar路径!/条目名"）
+     */
+    @Column(nullable = false, length = 1000)
+    private String location;
+
+    /**
+     * 内容的 SHA-256
+     */
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    /**
+     * 解析出的语句数
+     */
+    @Column(name = "statement_count")
+    private Integer statementCount;
+
+    /**
+     * 扫描时间
+     */
+    @Column(name = "scanned_at", nullable = false)
+    private LocalDateTime scannedAt;
+}
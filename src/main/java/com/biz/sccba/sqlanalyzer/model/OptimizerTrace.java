@@ -0,0 +1,105 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 优化器跟踪（OPTIMIZER_TRACE）解析结果
+ *
+ * 只保留判断索引选择所需的部分：范围分析、各表候选访问路径和连接顺序搜索，
+ * 并生成"索引 X 因成本 A > B 被放弃"形式的摘要
+ */
+@Data
+@NoArgsConstructor
+public class OptimizerTrace {
+
+    /**
+     * 全表扫描成本（来自 range_analysis.table_scan）
+     */
+    private List<TableScan> tableScans = new ArrayList<>();
+
+    /**
+     * 范围扫描候选（来自 range_analysis 的 potential_range_indexes / range_scan_alternatives）
+     */
+    private List<RangeAlternative> rangeAlternatives = new ArrayList<>();
+
+    /**
+     * 候选访问路径（来自 best_access_path.considered_access_paths）
+     */
+    private List<AccessPath> accessPaths = new ArrayList<>();
+
+    /**
+     * 连接顺序搜索中评估过的部分计划（来自 considered_execution_plans）
+     */
+    private List<JoinStep> joinSteps = new ArrayList<>();
+
+    /**
+     * 摘要
+     */
+    private List<String> summary = new ArrayList<>();
+
+    /**
+     * 因超出 optimizer_trace_max_mem_size 被截断的字节数
+     */
+    private Long missingBytesBeyondMaxMemSize;
+
+    /**
+     * 全表扫描成本
+     */
+    @Data
+    @NoArgsConstructor
+    public static class TableScan {
+        private String table;
+        private Double rows;
+        private Double cost;
+    }
+
+    /**
+     * 范围扫描候选
+     */
+    @Data
+    @NoArgsConstructor
+    public static class RangeAlternative {
+        private String table;
+        private String index;
+        private List<String> ranges = new ArrayList<>();
+        private Double rows;
+        private Double cost;
+        private boolean usable = true;
+        private boolean chosen;
+        private String cause;
+    }
+
+    /**
+     * 候选访问路径
+     */
+    @Data
+    @NoArgsConstructor
+    public static class AccessPath {
+        private String table;
+        private List<String> planPrefix = new ArrayList<>();
+        private String accessType;
+        private String index;
+        private Double rows;
+        private Double cost;
+        private boolean chosen;
+        private String cause;
+    }
+
+    /**
+     * 连接顺序搜索中的一个部分计划
+     */
+    @Data
+    @NoArgsConstructor
+    public static class JoinStep {
+        private List<String> planPrefix = new ArrayList<>();
+        private String table;
+        private Double rowsForPlan;
+        private Double costForPlan;
+        private Boolean chosen;
+        private String prunedReason;
+    }
+}
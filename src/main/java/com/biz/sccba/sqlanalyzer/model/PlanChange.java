@@ -0,0 +1,39 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+/**
+ * 两个执行计划之间的一项结构差异
+ *
+ * @param severity 严重程度
+ * @param changeType 变化类型（ACCESS_TYPE_CHANGED、INDEX_CHANGED、ROWS_ESTIMATE_JUMP 等）
+ * @param tableName 涉及的表（别名），计划级变化时为 null
+ * @param before 基准计划中的值
+ * @param after 当前计划中的值
+ * @param description 中文描述
+ */
+public record PlanChange(
+    Severity severity,
+    String changeType,
+    String tableName,
+    String before,
+    String after,
+    String description
+) {
+
+    /**
+     * 严重程度
+     */
+    public enum Severity {
+        /**
+         * 高：退化为全表扫描、丢失索引、估算行数剧增
+         */
+        HIGH,
+        /**
+         * 中：访问类型变差、索引选择变化、连接顺序变化
+         */
+        MEDIUM,
+        /**
+         * 低：计划改善或仅表集合变化
+         */
+        LOW
+    }
+}
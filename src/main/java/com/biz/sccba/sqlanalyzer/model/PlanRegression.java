@@ -0,0 +1,117 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 执行计划回退记录
+ * - TIME：同一数据源上相邻两次快照之间的计划变化
+ * - ENVIRONMENT：同一查询在两个环境之间的计划差异
+ */
+@Entity
+@Table(name = "sql_plan_regression",
+    indexes = {
+        @Index(name = "idx_plan_regression_query", columnList = "query_id, created_at"),
+        @Index(name = "idx_plan_regression_severity", columnList = "severity, created_at")
+    })
+@Data
+public class PlanRegression {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 对应的 ParsedSqlQuery ID
+     */
+    @Column(name = "query_id", nullable = false)
+    private Long queryId;
+
+    /**
+     * Mapper ID（格式：namespace.statementId）
+     */
+    @Column(length = 700)
+    private String mapperId;
+
+    /**
+     * 对比类型：TIME, ENVIRONMENT
+     */
+    @Column(nullable = false, length = 20)
+    private String comparisonType;
+
+    /**
+     * 基准数据源
+     */
+    @Column(nullable = false, length = 100)
+    private String baselineDatasource;
+
+    /**
+     * 当前（对比）数据源
+     */
+    @Column(nullable = false, length = 100)
+    private String currentDatasource;
+
+    /**
+     * 基准快照 ID
+     */
+    @Column
+    private Long baselineSnapshotId;
+
+    /**
+     * 当前快照 ID
+     */
+    @Column
+    private Long currentSnapshotId;
+
+    /**
+     * 严重程度：HIGH, MEDIUM, LOW
+     */
+    @Column(nullable = false, length = 10)
+    private String severity;
+
+    /**
+     * 变化类型
+     */
+    @Column(nullable = false, length = 50)
+    private String changeType;
+
+    /**
+     * 涉及的表
+     */
+    @Column(length = 200)
+    private String tableName;
+
+    /**
+     * 基准值
+     */
+    @Column(length = 1000)
+    private String beforeValue;
+
+    /**
+     * 当前值
+     */
+    @Column(length = 1000)
+    private String afterValue;
+
+    /**
+     * 描述
+     */
+    @Column(length = 2000)
+    private String description;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
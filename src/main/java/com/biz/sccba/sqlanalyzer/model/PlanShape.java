@@ -0,0 +1,214 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.*;
+
+/**
+ * 执行计划结构摘要
+ *
+ * 从 EXPLAIN FORMAT=JSON 中按连接顺序提取每个表的访问方式、所选索引和估算行数，
+ * 用于在不同时间点、不同环境之间做结构化对比
+ */
+@Data
+@NoArgsConstructor
+public class PlanShape {
+
+    /**
+     * 访问类型从好到差的顺序（MySQL 文档中 EXPLAIN join types 的顺序）
+     */
+    private static final List<String> ACCESS_TYPE_ORDER = List.of(
+        "system", "const", "eq_ref", "ref", "fulltext", "ref_or_null", "index_merge",
+        "unique_subquery", "index_subquery", "range", "index", "all"
+    );
+
+    /**
+     * 按连接顺序排列的表访问信息
+     */
+    private List<TableAccess> tables = new ArrayList<>();
+
+    /**
+     * 单个表的访问信息
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TableAccess {
+        private String tableName;
+        private String accessType;
+        private String key;
+        private Long rowsExaminedPerScan;
+    }
+
+    /**
+     * 从执行计划 JSON 提取结构摘要
+     */
+    public static PlanShape fromRawJson(String rawJson) {
+        PlanShape shape = new PlanShape();
+        if (rawJson == null || rawJson.isBlank()) {
+            return shape;
+        }
+        try {
+            collect(new ObjectMapper().readTree(rawJson), shape.tables);
+        } catch (Exception e) {
+            // 解析失败时返回空结构
+        }
+        return shape;
+    }
+
+    private static void collect(JsonNode node, List<TableAccess> tables) {
+        if (node == null) {
+            return;
+        }
+        if (node.isArray()) {
+            for (JsonNode child : node) {
+                collect(child, tables);
+            }
+            return;
+        }
+        if (!node.isObject()) {
+            return;
+        }
+        if (node.has("table_name") && node.has("access_type")) {
+            tables.add(new TableAccess(
+                node.get("table_name").asText(),
+                node.get("access_type").asText(),
+                node.has("key") ? node.get("key").asText() : null,
+                node.has("rows_examined_per_scan") ? node.get("rows_examined_per_scan").asLong() : null
+            ));
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isContainerNode()) {
+                collect(field.getValue(), tables);
+            }
+        }
+    }
+
+    /**
+     * 结构签名（表、访问类型、索引），签名相同即视为同一计划
+     */
+    @JsonIgnore
+    public String getSignature() {
+        StringBuilder signature = new StringBuilder();
+        for (TableAccess table : tables) {
+            signature.append(table.getTableName()).append(':')
+                .append(table.getAccessType()).append(':')
+                .append(table.getKey()).append(';');
+        }
+        return signature.toString();
+    }
+
+    /**
+     * 与基准计划做结构对比
+     *
+     * @param baseline 基准计划（上一次快照或另一个环境）
+     * @param rowJumpRatio 估算行数变化超过该倍数时视为跳变，超过其 10 倍为高严重度
+     * @return 差异列表，按严重程度排序
+     */
+    public List<PlanChange> diff(PlanShape baseline, double rowJumpRatio) {
+        List<PlanChange> changes = new ArrayList<>();
+        Map<String, TableAccess> before = indexByTable(baseline.getTables());
+        Map<String, TableAccess> after = indexByTable(tables);
+
+        for (String table : before.keySet()) {
+            if (!after.containsKey(table)) {
+                changes.add(new PlanChange(PlanChange.Severity.LOW, "TABLE_REMOVED", table,
+                    table, null, "表 " + table + " 不再出现在执行计划中"));
+            }
+        }
+        for (String table : after.keySet()) {
+            if (!before.containsKey(table)) {
+                changes.add(new PlanChange(PlanChange.Severity.LOW, "TABLE_ADDED", table,
+                    null, table, "表 " + table + " 新出现在执行计划中"));
+            }
+        }
+
+        List<String> beforeOrder = before.keySet().stream().filter(after::containsKey).toList();
+        List<String> afterOrder = after.keySet().stream().filter(before::containsKey).toList();
+        if (!beforeOrder.equals(afterOrder)) {
+            changes.add(new PlanChange(PlanChange.Severity.MEDIUM, "JOIN_ORDER_CHANGED", null,
+                String.join(" -> ", beforeOrder), String.join(" -> ", afterOrder), "连接顺序发生变化"));
+        }
+
+        for (String table : afterOrder) {
+            compareTable(table, before.get(table), after.get(table), rowJumpRatio, changes);
+        }
+
+        changes.sort(Comparator.comparing(PlanChange::severity));
+        return changes;
+    }
+
+    private void compareTable(String table, TableAccess before, TableAccess after,
+                              double rowJumpRatio, List<PlanChange> changes) {
+        String beforeAccess = normalizeAccessType(before.getAccessType());
+        String afterAccess = normalizeAccessType(after.getAccessType());
+        if (!Objects.equals(beforeAccess, afterAccess)) {
+            int beforeRank = ACCESS_TYPE_ORDER.indexOf(beforeAccess);
+            int afterRank = ACCESS_TYPE_ORDER.indexOf(afterAccess);
+            PlanChange.Severity severity;
+            if (afterRank > beforeRank) {
+                severity = "all".equals(afterAccess) ? PlanChange.Severity.HIGH : PlanChange.Severity.MEDIUM;
+            } else {
+                severity = PlanChange.Severity.LOW;
+            }
+            changes.add(new PlanChange(severity, "ACCESS_TYPE_CHANGED", table,
+                before.getAccessType(), after.getAccessType(),
+                String.format("表 %s 的访问类型从 %s 变为 %s%s", table, before.getAccessType(), after.getAccessType(),
+                    afterRank > beforeRank ? "（变差）" : "（改善）")));
+        }
+
+        if (!Objects.equals(before.getKey(), after.getKey())) {
+            if (after.getKey() == null) {
+                changes.add(new PlanChange(PlanChange.Severity.HIGH, "INDEX_LOST", table,
+                    before.getKey(), null, String.format("表 %s 不再使用索引 %s", table, before.getKey())));
+            } else {
+                changes.add(new PlanChange(before.getKey() == null ? PlanChange.Severity.LOW : PlanChange.Severity.MEDIUM,
+                    "INDEX_CHANGED", table, before.getKey(), after.getKey(),
+                    String.format("表 %s 的索引选择从 %s 变为 %s", table, before.getKey(), after.getKey())));
+            }
+        }
+
+        Long beforeRows = before.getRowsExaminedPerScan();
+        Long afterRows = after.getRowsExaminedPerScan();
+        if (beforeRows != null && afterRows != null) {
+            double ratio = (double) Math.max(afterRows, 1L) / Math.max(beforeRows, 1L);
+            if (ratio >= rowJumpRatio) {
+                changes.add(new PlanChange(
+                    ratio >= rowJumpRatio * 10 ? PlanChange.Severity.HIGH : PlanChange.Severity.MEDIUM,
+                    "ROWS_ESTIMATE_JUMP", table, String.valueOf(beforeRows), String.valueOf(afterRows),
+                    String.format("表 %s 的估算扫描行数从 %d 增至 %d（%.1f 倍）", table, beforeRows, afterRows, ratio)));
+            } else if (ratio <= 1.0 / rowJumpRatio) {
+                changes.add(new PlanChange(PlanChange.Severity.LOW, "ROWS_ESTIMATE_DROP", table,
+                    String.valueOf(beforeRows), String.valueOf(afterRows),
+                    String.format("表 %s 的估算扫描行数从 %d 降至 %d", table, beforeRows, afterRows)));
+            }
+        }
+    }
+
+    private static String normalizeAccessType(String accessType) {
+        return accessType == null ? null : accessType.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 按表名建立有序映射（同名表多次出现时追加序号）
+     */
+    private static LinkedHashMap<String, TableAccess> indexByTable(List<TableAccess> tables) {
+        LinkedHashMap<String, TableAccess> result = new LinkedHashMap<>();
+        for (TableAccess table : tables) {
+            String name = table.getTableName();
+            int suffix = 1;
+            while (result.containsKey(name)) {
+                name = table.getTableName() + "#" + (++suffix);
+            }
+            result.put(name, table);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 执行计划快照
+ * 定时或在分析器执行 DDL 后为每条已解析的查询记录一次执行计划，用于检测计划回退
+ */
+@Entity
+@Table(name = "sql_plan_snapshot",
+    indexes = {
+        @Index(name = "idx_plan_snapshot_query", columnList = "query_id, datasource_name, created_at")
+    })
+@Data
+public class PlanSnapshot {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 对应的 ParsedSqlQuery ID
+     */
+    @Column(name = "query_id", nullable = false)
+    private Long queryId;
+
+    /**
+     * Mapper ID（格式：namespace.statementId）
+     */
+    @Column(length = 700)
+    private String mapperId;
+
+    /**
+     * 数据源（或测试环境）名称
+     */
+    @Column(name = "datasource_name", nullable = false, length = 100)
+    private String datasourceName;
+
+    /**
+     * 执行 EXPLAIN 时使用的完整 SQL（同一查询的后续快照复用，保证参数一致）
+     */
+    @Column(columnDefinition = "TEXT")
+    private String filledSql;
+
+    /**
+     * 执行计划内容摘要（引用 sql_execution_plan_blob.content_hash）
+     */
+    @Column(name = "plan_content_hash", length = 64)
+    private String planContentHash;
+
+    /**
+     * 计划结构签名
+     */
+    @Column(length = 2000)
+    private String shapeSignature;
+
+    /**
+     * 计划结构摘要（PlanShape JSON）
+     */
+    @Column(columnDefinition = "TEXT")
+    private String shapeJson;
+
+    /**
+     * 触发方式：SCHEDULED, DDL, MANUAL
+     */
+    @Column(nullable = false, length = 20)
+    private String triggerType;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,193 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * EXPLAIN ANALYZE（FORMAT=TREE）迭代器节点
+ *
+ * 每个节点对应 TREE 输出中的一行 "-> ..."，同时记录优化器估算值和实际执行值，
+ * 用于识别估算行数与实际行数严重偏离的节点（坏执行计划最直接的信号）
+ */
+@Data
+@NoArgsConstructor
+public class PlanTreeNode {
+
+    /**
+     * 估算行数与实际行数偏离超过该倍数时视为估算失真
+     */
+    public static final double MISESTIMATE_RATIO = 10.0;
+
+    private static final String NUMBER = "[0-9]+(?:\\.[0-9]+)?(?:e[+-]?[0-9]+)?";
+
+    private static final Pattern LINE_PATTERN = Pattern.compile(
+        "^(\\s*)->\\s*(.*?)" +
+        "(?:\\s+\\(cost=(" + NUMBER + ")(?:\\.\\.(" + NUMBER + "))?\\s+rows=(" + NUMBER + ")\\))?" +
+        "(?:\\s+\\(actual time=(" + NUMBER + ")\\.\\.(" + NUMBER + ")\\s+rows=(" + NUMBER + ")\\s+loops=(" + NUMBER + ")\\))?" +
+        "(\\s+\\(never executed\\))?\\s*$"
+    );
+
+    /**
+     * 迭代器描述（如 "Table scan on t_order"、"Index lookup on u using idx_status (status='A')"）
+     */
+    private String description;
+
+    /**
+     * 节点深度（根节点为 0）
+     */
+    private int depth;
+
+    /**
+     * 估算成本（cost=a..b 时取 b，即读取全部行的成本）
+     */
+    private Double estimatedCost;
+
+    /**
+     * 估算行数（每次循环）
+     */
+    private Double estimatedRows;
+
+    /**
+     * 返回首行的实际耗时（毫秒）
+     */
+    private Double actualFirstRowMs;
+
+    /**
+     * 返回全部行的实际耗时（毫秒）
+     */
+    private Double actualLastRowMs;
+
+    /**
+     * 实际行数（每次循环的平均值）
+     */
+    private Double actualRows;
+
+    /**
+     * 实际循环次数
+     */
+    private Long loops;
+
+    /**
+     * 节点是否从未被执行
+     */
+    private boolean neverExecuted;
+
+    /**
+     * 子节点
+     */
+    private List<PlanTreeNode> children = new ArrayList<>();
+
+    /**
+     * 估算行数与实际行数的偏离倍数（两者都至少按 1 行计算），缺少任一值时返回 null
+     */
+    public Double getRowEstimateRatio() {
+        if (estimatedRows == null || actualRows == null || neverExecuted) {
+            return null;
+        }
+        double estimated = Math.max(estimatedRows, 1.0);
+        double actual = Math.max(actualRows, 1.0);
+        return Math.max(estimated, actual) / Math.min(estimated, actual);
+    }
+
+    /**
+     * 估算行数与实际行数是否偏离超过 {@link #MISESTIMATE_RATIO} 倍
+     */
+    public boolean isMisestimated() {
+        Double ratio = getRowEstimateRatio();
+        return ratio != null && ratio > MISESTIMATE_RATIO;
+    }
+
+    /**
+     * 按先序遍历展开整棵树
+     */
+    public List<PlanTreeNode> flatten() {
+        List<PlanTreeNode> nodes = new ArrayList<>();
+        collect(this, nodes);
+        return nodes;
+    }
+
+    /**
+     * 查找估算失真的节点
+     */
+    public List<PlanTreeNode> findMisestimatedNodes() {
+        return flatten().stream().filter(PlanTreeNode::isMisestimated).toList();
+    }
+
+    private static void collect(PlanTreeNode node, List<PlanTreeNode> nodes) {
+        nodes.add(node);
+        for (PlanTreeNode child : node.getChildren()) {
+            collect(child, nodes);
+        }
+    }
+
+    /**
+     * 解析 EXPLAIN ANALYZE 的 TREE 文本输出
+     *
+     * @param treeText TREE 格式文本
+     * @return 根节点，无法解析时返回 null
+     */
+    public static PlanTreeNode parse(String treeText) {
+        if (treeText == null || treeText.isBlank()) {
+            return null;
+        }
+
+        PlanTreeNode root = null;
+        Deque<PlanTreeNode> stack = new ArrayDeque<>();
+        PlanTreeNode last = null;
+
+        for (String line : treeText.split("\\r?\\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            Matcher matcher = LINE_PATTERN.matcher(line);
+            if (!matcher.matches()) {
+                // 非 "->" 开头的行是上一节点描述的续行
+                if (last != null) {
+                    last.setDescription(last.getDescription() + " " + line.trim());
+                }
+                continue;
+            }
+
+            PlanTreeNode node = new PlanTreeNode();
+            node.setDepth(matcher.group(1).length() / 4);
+            node.setDescription(matcher.group(2).trim());
+            if (matcher.group(3) != null) {
+                String totalCost = matcher.group(4) != null ? matcher.group(4) : matcher.group(3);
+                node.setEstimatedCost(Double.parseDouble(totalCost));
+                node.setEstimatedRows(Double.parseDouble(matcher.group(5)));
+            }
+            if (matcher.group(6) != null) {
+                node.setActualFirstRowMs(Double.parseDouble(matcher.group(6)));
+                node.setActualLastRowMs(Double.parseDouble(matcher.group(7)));
+                node.setActualRows(Double.parseDouble(matcher.group(8)));
+                node.setLoops((long) Double.parseDouble(matcher.group(9)));
+            }
+            node.setNeverExecuted(matcher.group(10) != null);
+
+            while (!stack.isEmpty() && stack.peek().getDepth() >= node.getDepth()) {
+                stack.pop();
+            }
+            if (stack.isEmpty()) {
+                if (root == null) {
+                    root = node;
+                } else {
+                    // 多个顶层节点时挂到第一个根节点下
+                    root.getChildren().add(node);
+                }
+            } else {
+                stack.peek().getChildren().add(node);
+            }
+            stack.push(node);
+            last = node;
+        }
+
+        return root;
+    }
+}
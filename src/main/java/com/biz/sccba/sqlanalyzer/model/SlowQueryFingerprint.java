@@ -0,0 +1,131 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 慢查询指纹（待分析队列）
+ * 解析慢查询日志后，按总耗时排名靠前的语句指纹写入该表，等待逐条分析
+ */
+@Entity
+@Table(name = "sql_slow_query_fingerprint",
+    uniqueConstraints = @UniqueConstraint(name = "uk_slow_fingerprint", columnNames = {"source_name", "fingerprint"}),
+    indexes = @Index(name = "idx_slow_fingerprint_status", columnList = "status"))
+@Data
+public class SlowQueryFingerprint {
+
+    /**
+     * 分析状态
+     */
+    public enum Status {
+        PENDING,
+        ANALYZED,
+        IGNORED
+    }
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 日志来源（如实例名）
+     */
+    @Column(name = "source_name", nullable = false, length = 100)
+    private String sourceName;
+
+    /**
+     * 语句指纹（规范化 SQL 的 SHA-256）
+     */
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    /**
+     * 规范化的语句
+     */
+    @Column(columnDefinition = "TEXT")
+    private String normalizedSql;
+
+    /**
+     * 样例语句（第一次出现的原文）
+     */
+    @Column(columnDefinition = "TEXT")
+    private String sampleSql;
+
+    /**
+     * 关联的 ParsedSqlQuery ID（未匹配到时为空）
+     */
+    private Long queryId;
+
+    /**
+     * 关联的 Mapper ID（格式：namespace.statementId）
+     */
+    @Column(length = 700)
+    private String mapperId;
+
+    /**
+     * 累计出现次数
+     */
+    private Long execCount;
+
+    /**
+     * 累计 Query_time（毫秒）
+     */
+    private Double totalQueryTimeMs;
+
+    /**
+     * 最近一次解析的 Query_time P50（毫秒）
+     */
+    private Double p50QueryTimeMs;
+
+    /**
+     * 最近一次解析的 Query_time P95（毫秒）
+     */
+    private Double p95QueryTimeMs;
+
+    /**
+     * 最近一次解析的 Query_time P99（毫秒）
+     */
+    private Double p99QueryTimeMs;
+
+    /**
+     * Query_time 最大值（毫秒）
+     */
+    private Double maxQueryTimeMs;
+
+    /**
+     * 最近一次解析的 Lock_time P95（毫秒）
+     */
+    private Double p95LockTimeMs;
+
+    /**
+     * 累计扫描行数
+     */
+    private Long rowsExamined;
+
+    /**
+     * 累计返回行数
+     */
+    private Long rowsSent;
+
+    /**
+     * 分析状态
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    /**
+     * 最近一次写入时间
+     */
+    private LocalDateTime ingestedAt;
+
+    /**
+     * 分析完成时间
+     */
+    private LocalDateTime analyzedAt;
+}
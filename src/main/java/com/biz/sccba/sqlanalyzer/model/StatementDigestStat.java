@@ -0,0 +1,123 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 语句摘要区间统计
+ * 两次采集 performance_schema.events_statements_summary_by_digest 之间的增量
+ */
+@Entity
+@Table(name = "sql_digest_stat",
+    indexes = {
+        @Index(name = "idx_digest_stat_ds_time", columnList = "datasource_name, interval_end"),
+        @Index(name = "idx_digest_stat_digest", columnList = "digest")
+    })
+@Data
+public class StatementDigestStat {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 数据源名称
+     */
+    @Column(name = "datasource_name", nullable = false, length = 100)
+    private String datasourceName;
+
+    /**
+     * 库名（SCHEMA_NAME）
+     */
+    @Column(length = 100)
+    private String schemaName;
+
+    /**
+     * MySQL 语句摘要（DIGEST）
+     */
+    @Column(nullable = false, length = 64)
+    private String digest;
+
+    /**
+     * 规范化的语句文本（DIGEST_TEXT）
+     */
+    @Column(columnDefinition = "TEXT")
+    private String digestText;
+
+    /**
+     * 关联的 ParsedSqlQuery ID（未匹配到时为空）
+     */
+    private Long queryId;
+
+    /**
+     * 关联的 Mapper ID（格式：namespace.statementId）
+     */
+    @Column(length = 700)
+    private String mapperId;
+
+    /**
+     * 区间开始时间（上一次采集时间）
+     */
+    private LocalDateTime intervalStart;
+
+    /**
+     * 区间结束时间（本次采集时间）
+     */
+    @Column(name = "interval_end", nullable = false)
+    private LocalDateTime intervalEnd;
+
+    /**
+     * 区间内执行次数
+     */
+    private Long execCount;
+
+    /**
+     * 区间内总耗时（毫秒）
+     */
+    private Double totalLatencyMs;
+
+    /**
+     * 区间内扫描行数
+     */
+    private Long rowsExamined;
+
+    /**
+     * 区间内返回行数
+     */
+    private Long rowsSent;
+
+    /**
+     * 区间内创建的内存临时表数
+     */
+    private Long tmpTables;
+
+    /**
+     * 区间内创建的磁盘临时表数
+     */
+    private Long tmpDiskTables;
+
+    /**
+     * 区间内未使用索引的执行次数
+     */
+    private Long noIndexUsed;
+
+    /**
+     * 区间内没有合适索引的执行次数
+     */
+    private Long noGoodIndexUsed;
+
+    /**
+     * 区间内排序归并次数
+     */
+    private Long sortMergePasses;
+
+    /**
+     * 区间内出错次数
+     */
+    private Long errors;
+}
@@ -0,0 +1,64 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor;
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * 语句与表（列）的关联
+ * 解析 Mapper 时由 {@link SqlTableUsageExtractor} 生成，每条语句每张表一条 REFERENCE 记录，
+ * 另外每个出现在过滤、连接、排序、分组位置的列各一条记录
+ */
+@Entity
+@Table(name = "statement_table_usage",
+    indexes = {
+        @Index(name = "idx_table_usage_table_column", columnList = "table_name, column_name, role"),
+        @Index(name = "idx_table_usage_query", columnList = "query_id"),
+        @Index(name = "idx_table_usage_namespace", columnList = "mapper_namespace")
+    })
+@Data
+public class StatementTableUsage {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 关联的 ParsedSqlQuery ID
+     */
+    @Column(name = "query_id", nullable = false)
+    private Long queryId;
+
+    /**
+     * Mapper 命名空间
+     */
+    @Column(name = "mapper_namespace", nullable = false, length = 500)
+    private String mapperNamespace;
+
+    /**
+     * 语句ID
+     */
+    @Column(name = "statement_id", nullable = false, length = 200)
+    private String statementId;
+
+    /**
+     * 表名（小写）
+     */
+    @Column(name = "table_name", nullable = false, length = 128)
+    private String tableName;
+
+    /**
+     * 列名（小写），REFERENCE 记录为空
+     */
+    @Column(name = "column_name", length = 128)
+    private String columnName;
+
+    /**
+     * 使用方式：REFERENCE / FILTER / JOIN / ORDER / GROUP
+     */
+    @Column(nullable = false, length = 20)
+    private String role;
+}
@@ -42,6 +42,11 @@ public class DdlConfirmationRequest {
      */
     private Map<String, Object> metadata;
 
+    /**
+     * 测试环境上的前后对比验证结果（未验证时为空）
+     */
+    private IndexVerificationReport verification;
+
     // Getters and Setters
     public String getSessionId() { return sessionId; }
     public void setSessionId(String sessionId) { this.sessionId = sessionId; }
@@ -64,6 +69,9 @@ public class DdlConfirmationRequest {
     public Map<String, Object> getMetadata() { return metadata; }
     public void setMetadata(Map<String, Object> metadata) { this.metadata = metadata; }
 
+    public IndexVerificationReport getVerification() { return verification; }
+    public void setVerification(IndexVerificationReport verification) { this.verification = verification; }
+
     /**
      * DDL 操作类型
      */
@@ -86,6 +94,7 @@ public class DdlConfirmationRequest {
         private String impactAnalysis;
         private String rollbackStatement;
         private Map<String, Object> metadata;
+        private IndexVerificationReport verification;
 
         public Builder sessionId(String sessionId) { this.sessionId = sessionId; return this; }
         public Builder ddlStatement(String ddlStatement) { this.ddlStatement = ddlStatement; return this; }
@@ -94,6 +103,7 @@ public class DdlConfirmationRequest {
         public Builder impactAnalysis(String impactAnalysis) { this.impactAnalysis = impactAnalysis; return this; }
         public Builder rollbackStatement(String rollbackStatement) { this.rollbackStatement = rollbackStatement; return this; }
         public Builder metadata(Map<String, Object> metadata) { this.metadata = metadata; return this; }
+        public Builder verification(IndexVerificationReport verification) { this.verification = verification; return this; }
 
         public DdlConfirmationRequest build() {
             DdlConfirmationRequest request = new DdlConfirmationRequest();
@@ -104,6 +114,7 @@ public class DdlConfirmationRequest {
             request.setImpactAnalysis(impactAnalysis);
             request.setRollbackStatement(rollbackStatement);
             request.setMetadata(metadata != null ? metadata : new HashMap<>());
+            request.setVerification(verification);
             return request;
         }
     }
@@ -0,0 +1,124 @@
+package com.biz.sccba.sqlanalyzer.model.agent;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 索引变更的前后对比验证报告
+ * 在测试环境上先测量受影响语句，再创建索引并重新测量，用实测数据代替"SELECT 性能提升"这类推测
+ */
+@Data
+@NoArgsConstructor
+public class IndexVerificationReport {
+
+    /**
+     * 验证结论
+     */
+    public enum Verdict {
+        /**
+         * 读语句明显变快且写代价在允许范围内
+         */
+        BENEFICIAL,
+        /**
+         * 读语句没有明显变快或写代价过高
+         */
+        NOT_BENEFICIAL,
+        /**
+         * 有读语句明显变慢（如优化器改选了新索引）
+         */
+        HARMFUL,
+        /**
+         * 没有可测量的语句或测量失败
+         */
+        INCONCLUSIVE
+    }
+
+    /**
+     * 验证所用的测试环境
+     */
+    private String datasourceName;
+
+    /**
+     * 被验证的 DDL
+     */
+    private String ddl;
+
+    /**
+     * 结论
+     */
+    private Verdict verdict;
+
+    /**
+     * 验证结束后测试环境上的索引是否已回滚
+     */
+    private boolean rolledBack;
+
+    /**
+     * 读语句前后对比
+     */
+    private List<StatementComparison> reads = new ArrayList<>();
+
+    /**
+     * 同表写语句前后对比
+     */
+    private List<StatementComparison> writes = new ArrayList<>();
+
+    /**
+     * 读语句 p95 延迟的最大改善比例（%，正数表示变快）
+     */
+    private Double bestReadImprovementPct;
+
+    /**
+     * 读语句 p95 延迟的最大恶化比例（%，正数表示变慢）
+     */
+    private Double worstReadRegressionPct;
+
+    /**
+     * 写语句 p95 延迟的最大恶化比例（%，正数表示变慢）
+     */
+    private Double worstWriteRegressionPct;
+
+    /**
+     * 按写放大模型估算：同表写语句各执行一次，因新索引多写的索引记录数
+     */
+    private Double estimatedExtraIndexWrites;
+
+    /**
+     * 写放大模型估算的说明（与实测的写语句对比互为补充，覆盖测试环境上无法测量的写语句）
+     */
+    private String writeCostEstimate;
+
+    /**
+     * 结论摘要（用作确认请求的影响分析）
+     */
+    private String summary;
+
+    /**
+     * 警告
+     */
+    private List<String> warnings = new ArrayList<>();
+
+    /**
+     * 单条语句的前后对比
+     */
+    @Data
+    @NoArgsConstructor
+    public static class StatementComparison {
+        private Long queryId;
+        private String mapperId;
+        private Double beforeP50Ms;
+        private Double afterP50Ms;
+        private Double beforeP95Ms;
+        private Double afterP95Ms;
+        private Double beforeRowsExamined;
+        private Double afterRowsExamined;
+
+        /**
+         * p95 延迟变化比例（%，负数表示变快）
+         */
+        private Double p95ChangePct;
+    }
+}
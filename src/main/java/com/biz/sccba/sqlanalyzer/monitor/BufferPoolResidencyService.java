@@ -0,0 +1,325 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.ExecutionPlan;
+import com.biz.sccba.sqlanalyzer.model.PlanShape;
+import com.biz.sccba.sqlanalyzer.service.SqlExecutionPlanService;
+import com.biz.sccba.sqlanalyzer.service.TestEnvironmentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 缓冲池驻留分析
+ *
+ * 估算每个索引有多少页驻留在 InnoDB 缓冲池中，与 mysql.innodb_index_stats 中的索引总页数对比，
+ * 判断大表索引的工作集是否装得进内存，并找出执行计划所选索引大部分不在内存中的语句。
+ *
+ * 驻留页数的来源：
+ * - 优先使用 information_schema.INNODB_CACHED_INDEXES（InnoDB 实时维护的计数，开销很小）
+ * - 不可用时扫描 information_schema.INNODB_BUFFER_PAGE：该表会遍历整个缓冲池并持有缓冲池锁，
+ *   因此全局同时只允许一次扫描、同一数据源两次扫描之间有最短间隔，并缓存扫描结果
+ */
+@Service
+public class BufferPoolResidencyService {
+
+    private static final String CACHED_INDEXES_SQL = """
+        SELECT t.NAME AS table_name, i.NAME AS index_name, c.N_CACHED_PAGES AS pages
+        FROM information_schema.INNODB_CACHED_INDEXES c
+        JOIN information_schema.INNODB_INDEXES i ON i.INDEX_ID = c.INDEX_ID
+        JOIN information_schema.INNODB_TABLES t ON t.TABLE_ID = i.TABLE_ID
+        WHERE t.NAME LIKE ?
+        """;
+
+    private static final String BUFFER_PAGE_SQL = """
+        SELECT TABLE_NAME AS table_name, INDEX_NAME AS index_name, COUNT(*) AS pages
+        FROM information_schema.INNODB_BUFFER_PAGE
+        WHERE TABLE_NAME LIKE ? AND INDEX_NAME IS NOT NULL
+        GROUP BY TABLE_NAME, INDEX_NAME
+        """;
+
+    private static final String INDEX_STATS_SQL = """
+        SELECT table_name, index_name, stat_name, stat_value
+        FROM mysql.innodb_index_stats
+        WHERE database_name = ? AND stat_name IN ('size', 'n_leaf_pages')
+        """;
+
+    private static final String TABLE_STATS_SQL = """
+        SELECT table_name, n_rows FROM mysql.innodb_table_stats WHERE database_name = ?
+        """;
+
+    /**
+     * 全局同时只允许一次 INNODB_BUFFER_PAGE 扫描
+     */
+    private final Semaphore bufferPageScan = new Semaphore(1);
+
+    private final Map<String, Long> lastBufferPageScanAt = new ConcurrentHashMap<>();
+    private final Map<String, ResidencyReport> cache = new ConcurrentHashMap<>();
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private SqlExecutionPlanService sqlExecutionPlanService;
+
+    @Autowired
+    private AnalyzerConfig.BufferPoolResidencyProperties properties;
+
+    /**
+     * 一个库的索引驻留情况
+     *
+     * @param datasourceName 数据源名称
+     * @param schemaName 库名
+     * @param source 驻留页数来源：INNODB_CACHED_INDEXES / INNODB_BUFFER_PAGE
+     * @param sampledAt 采样时间
+     * @param bufferPoolPages 缓冲池总页数
+     * @param indexes 各索引的驻留情况
+     * @param tableRows 表名 -> 估算行数
+     * @param warnings 警告
+     */
+    public record ResidencyReport(
+        String datasourceName,
+        String schemaName,
+        String source,
+        LocalDateTime sampledAt,
+        Long bufferPoolPages,
+        List<IndexResidency> indexes,
+        Map<String, Long> tableRows,
+        List<String> warnings
+    ) {}
+
+    /**
+     * 执行计划中一个表访问的驻留情况
+     *
+     * @param alias 执行计划中的表名（可能是别名）
+     * @param residency 所选索引的驻留情况
+     * @param accessType 访问类型
+     * @param rowsExamined 估算扫描行数
+     * @param pagesTouched 估算访问的叶子页数
+     * @param estimatedPhysicalReads 估算物理读页数
+     * @param cold 所选索引是否大部分不在内存中
+     */
+    public record AccessResidency(
+        String alias,
+        IndexResidency residency,
+        String accessType,
+        Long rowsExamined,
+        long pagesTouched,
+        double estimatedPhysicalReads,
+        boolean cold
+    ) {}
+
+    /**
+     * 语句的驻留检查结果
+     *
+     * @param sql 语句
+     * @param source 驻留页数来源
+     * @param accesses 各表访问
+     * @param coldAccess 是否有表访问所选索引大部分不在内存中
+     * @param findings 结论
+     */
+    public record StatementResidency(
+        String sql,
+        String source,
+        List<AccessResidency> accesses,
+        boolean coldAccess,
+        List<String> findings
+    ) {}
+
+    /**
+     * 查询库中各索引的驻留情况
+     *
+     * @param datasourceName 数据源名称
+     * @param schemaName 库名（为空时取连接的当前库）
+     * @param tables 只返回这些表（为空时返回全部）
+     * @param refresh 是否忽略缓存重新采样
+     */
+    public ResidencyReport getResidency(String datasourceName, String schemaName, Collection<String> tables, boolean refresh) {
+        JdbcTemplate jdbcTemplate = testEnvironmentService.getJdbcTemplate(datasourceName);
+        String schema = schemaName != null && !schemaName.isBlank()
+            ? schemaName : jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+        String cacheKey = datasourceName + "/" + schema;
+
+        ResidencyReport cached = cache.get(cacheKey);
+        boolean fresh = cached != null
+            && cached.sampledAt().plusSeconds(properties.getCacheTtlSeconds()).isAfter(LocalDateTime.now());
+        ResidencyReport report = fresh && !refresh ? cached : sample(jdbcTemplate, datasourceName, schema, cached);
+        cache.put(cacheKey, report);
+        return filter(report, tables);
+    }
+
+    /**
+     * 检查语句执行计划所选索引的驻留情况
+     */
+    public StatementResidency checkStatement(String datasourceName, String sql) {
+        ExecutionPlan plan = sqlExecutionPlanService.getExecutionPlan(sql, datasourceName);
+        PlanShape shape = PlanShape.fromRawJson(plan != null ? plan.getRawJson() : null);
+        List<String> sqlTables = sqlExecutionPlanService.parseTableNames(sql);
+        ResidencyReport report = getResidency(datasourceName, null, null, false);
+        Map<String, String> aliases = sqlExecutionPlanService.resolveTableAliases(sql);
+
+        List<AccessResidency> accesses = new ArrayList<>();
+        List<String> findings = new ArrayList<>(report.warnings());
+        for (PlanShape.TableAccess access : shape.getTables()) {
+            String key = "ALL".equalsIgnoreCase(access.getAccessType()) ? "PRIMARY" : access.getKey();
+            if (key == null) {
+                continue;
+            }
+            IndexResidency residency = findResidency(report, aliases.get(access.getTableName().toLowerCase()), sqlTables, key);
+            if (residency == null) {
+                findings.add("未找到 " + access.getTableName() + "." + key + " 的驻留统计");
+                continue;
+            }
+            long rows = access.getRowsExaminedPerScan() != null ? access.getRowsExaminedPerScan() : 1;
+            long tableRows = report.tableRows().getOrDefault(residency.tableName().toLowerCase(), 0L);
+            long pagesTouched = residency.estimatePagesTouched(rows, tableRows);
+            double physicalReads = residency.estimatePhysicalReads(rows, tableRows);
+            boolean cold = "COLD".equals(residency.temperature());
+            accesses.add(new AccessResidency(access.getTableName(), residency, access.getAccessType(), rows,
+                pagesTouched, physicalReads, cold));
+            if (cold) {
+                findings.add(String.format("%s 使用的索引 %s 只有 %.1f%% 驻留在缓冲池（%.0f / %.0f MB），预计每次执行约 %.0f 次物理读",
+                    residency.tableName(), residency.indexName(), residency.residentRatio() * 100,
+                    residency.residentMb(), residency.totalMb(), physicalReads));
+            } else if (physicalReads > 100) {
+                findings.add(String.format("%s.%s 预计每次执行访问 %d 个叶子页，其中约 %.0f 页需要从磁盘读取",
+                    residency.tableName(), residency.indexName(), pagesTouched, physicalReads));
+            }
+        }
+        return new StatementResidency(sql, report.source(), accesses, accesses.stream().anyMatch(AccessResidency::cold), findings);
+    }
+
+    /**
+     * 采样一次；INNODB_BUFFER_PAGE 扫描受限时返回上一次结果并附带警告
+     */
+    private ResidencyReport sample(JdbcTemplate jdbcTemplate, String datasourceName, String schema, ResidencyReport previous) {
+        List<String> warnings = new ArrayList<>();
+        Map<String, Long> resident = new HashMap<>();
+        String source = "INNODB_CACHED_INDEXES";
+        try {
+            jdbcTemplate.query(CACHED_INDEXES_SQL, rs -> {
+                resident.merge(key(IndexResidency.normalizeTableName(rs.getString("table_name")), rs.getString("index_name")),
+                    rs.getLong("pages"), Long::sum);
+            }, schema + "/%");
+        } catch (Exception e) {
+            source = "INNODB_BUFFER_PAGE";
+            if (!Boolean.TRUE.equals(properties.getAllowBufferPageScan())) {
+                throw new IllegalStateException("INNODB_CACHED_INDEXES 不可用，且未允许扫描 INNODB_BUFFER_PAGE");
+            }
+            String throttled = scanBufferPages(jdbcTemplate, datasourceName, schema, resident);
+            if (throttled != null) {
+                if (previous != null) {
+                    List<String> previousWarnings = new ArrayList<>(previous.warnings());
+                    previousWarnings.add(throttled + "，返回 " + previous.sampledAt() + " 的结果");
+                    return new ResidencyReport(previous.datasourceName(), previous.schemaName(), previous.source(),
+                        previous.sampledAt(), previous.bufferPoolPages(), previous.indexes(), previous.tableRows(), previousWarnings);
+                }
+                throw new IllegalStateException(throttled);
+            }
+        }
+
+        Integer pageSize = jdbcTemplate.queryForObject("SELECT @@innodb_page_size", Integer.class);
+        Long poolPages = null;
+        try {
+            poolPages = jdbcTemplate.query("SHOW GLOBAL STATUS LIKE 'Innodb_buffer_pool_pages_total'",
+                rs -> rs.next() ? Long.parseLong(rs.getString("Value")) : null);
+        } catch (Exception e) {
+            warnings.add("读取缓冲池总页数失败：" + e.getMessage());
+        }
+
+        Map<String, long[]> sizes = new HashMap<>();
+        Map<String, Long> tableRows = new HashMap<>();
+        try {
+            jdbcTemplate.query(INDEX_STATS_SQL, rs -> {
+                long[] size = sizes.computeIfAbsent(key(IndexResidency.normalizeTableName(rs.getString("table_name")), rs.getString("index_name")),
+                    k -> new long[2]);
+                // 分区表每个分区一行，累加
+                size["size".equals(rs.getString("stat_name")) ? 0 : 1] += rs.getLong("stat_value");
+            }, schema);
+            jdbcTemplate.query(TABLE_STATS_SQL, rs -> {
+                tableRows.merge(IndexResidency.normalizeTableName(rs.getString("table_name")).toLowerCase(), rs.getLong("n_rows"), Long::sum);
+            }, schema);
+        } catch (Exception e) {
+            warnings.add("读取 mysql.innodb_index_stats 失败（需要 mysql 库的查询权限），无法计算驻留比例：" + e.getMessage());
+        }
+
+        Set<String> keys = new TreeSet<>(sizes.keySet());
+        keys.addAll(resident.keySet());
+        List<IndexResidency> indexes = new ArrayList<>();
+        for (String key : keys) {
+            String[] parts = key.split("\u0000", 2);
+            long[] size = sizes.getOrDefault(key, new long[2]);
+            indexes.add(new IndexResidency(parts[0], parts[1], resident.getOrDefault(key, 0L), size[0], size[1],
+                pageSize != null ? pageSize : 16384));
+        }
+        indexes.sort(Comparator.comparingLong(IndexResidency::totalPages).reversed());
+
+        System.out.println("[BufferPoolResidencyService] 采样完成，数据源：" + datasourceName + "，库：" + schema
+            + "，来源：" + source + "，索引：" + indexes.size());
+        return new ResidencyReport(datasourceName, schema, source, LocalDateTime.now(), poolPages, indexes, tableRows, warnings);
+    }
+
+    /**
+     * 扫描 INNODB_BUFFER_PAGE
+     *
+     * @return 被限流时返回原因，否则返回 null
+     */
+    private String scanBufferPages(JdbcTemplate jdbcTemplate, String datasourceName, String schema, Map<String, Long> resident) {
+        Long last = lastBufferPageScanAt.get(datasourceName);
+        long intervalMs = properties.getMinScanIntervalSeconds() * 1000L;
+        if (last != null && System.currentTimeMillis() - last < intervalMs) {
+            return "距上次扫描 INNODB_BUFFER_PAGE 不足 " + properties.getMinScanIntervalSeconds() + " 秒";
+        }
+        if (!bufferPageScan.tryAcquire()) {
+            return "已有 INNODB_BUFFER_PAGE 扫描正在进行";
+        }
+        try {
+            lastBufferPageScanAt.put(datasourceName, System.currentTimeMillis());
+            System.out.println("[BufferPoolResidencyService] 扫描 INNODB_BUFFER_PAGE，数据源：" + datasourceName);
+            jdbcTemplate.query(BUFFER_PAGE_SQL, rs -> {
+                resident.merge(key(IndexResidency.normalizeTableName(rs.getString("table_name")), rs.getString("index_name")),
+                    rs.getLong("pages"), Long::sum);
+            }, "`" + schema + "`.%");
+            return null;
+        } finally {
+            bufferPageScan.release();
+        }
+    }
+
+    private static ResidencyReport filter(ResidencyReport report, Collection<String> tables) {
+        if (tables == null || tables.isEmpty()) {
+            return report;
+        }
+        Set<String> wanted = new HashSet<>();
+        tables.forEach(t -> wanted.add(t.toLowerCase()));
+        return new ResidencyReport(report.datasourceName(), report.schemaName(), report.source(), report.sampledAt(),
+            report.bufferPoolPages(),
+            report.indexes().stream().filter(i -> wanted.contains(i.tableName().toLowerCase())).toList(),
+            report.tableRows(), report.warnings());
+    }
+
+    private static IndexResidency findResidency(ResidencyReport report, String table, List<String> sqlTables, String index) {
+        if (table != null) {
+            for (IndexResidency residency : report.indexes()) {
+                if (residency.tableName().equalsIgnoreCase(table) && residency.indexName().equalsIgnoreCase(index)) {
+                    return residency;
+                }
+            }
+        }
+        // 别名无法解析时，在语句涉及的表中按索引名唯一匹配
+        List<IndexResidency> candidates = report.indexes().stream()
+            .filter(r -> r.indexName().equalsIgnoreCase(index))
+            .filter(r -> sqlTables.stream().anyMatch(t -> t.equalsIgnoreCase(r.tableName())))
+            .toList();
+        return candidates.size() == 1 ? candidates.get(0) : null;
+    }
+
+    private static String key(String table, String index) {
+        return table + "\u0000" + index;
+    }
+}
@@ -0,0 +1,69 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+/**
+ * events_statements_summary_by_digest 中一个摘要的累计计数器
+ *
+ * @param execCount 执行次数（COUNT_STAR）
+ * @param totalLatencyUs 总耗时（微秒，由 SUM_TIMER_WAIT 皮秒换算）
+ * @param rowsExamined 扫描行数
+ * @param rowsSent 返回行数
+ * @param tmpTables 创建的内存临时表数
+ * @param tmpDiskTables 创建的磁盘临时表数
+ * @param noIndexUsed 未使用索引的执行次数
+ * @param noGoodIndexUsed 没有合适索引的执行次数
+ * @param sortMergePasses 排序归并次数
+ * @param errors 出错次数
+ */
+public record DigestCounters(
+    long execCount,
+    long totalLatencyUs,
+    long rowsExamined,
+    long rowsSent,
+    long tmpTables,
+    long tmpDiskTables,
+    long noIndexUsed,
+    long noGoodIndexUsed,
+    long sortMergePasses,
+    long errors
+) {
+
+    /**
+     * 计算与上一次快照的差值
+     * 计数器变小说明摘要表被清空（TRUNCATE 或实例重启），此时当前值就是区间内的增量
+     */
+    public DigestCounters minus(DigestCounters previous) {
+        if (previous == null || execCount < previous.execCount || totalLatencyUs < previous.totalLatencyUs) {
+            return this;
+        }
+        return new DigestCounters(
+            execCount - previous.execCount,
+            totalLatencyUs - previous.totalLatencyUs,
+            Math.max(0, rowsExamined - previous.rowsExamined),
+            Math.max(0, rowsSent - previous.rowsSent),
+            Math.max(0, tmpTables - previous.tmpTables),
+            Math.max(0, tmpDiskTables - previous.tmpDiskTables),
+            Math.max(0, noIndexUsed - previous.noIndexUsed),
+            Math.max(0, noGoodIndexUsed - previous.noGoodIndexUsed),
+            Math.max(0, sortMergePasses - previous.sortMergePasses),
+            Math.max(0, errors - previous.errors)
+        );
+    }
+
+    /**
+     * 累加两个区间的计数
+     */
+    public DigestCounters plus(DigestCounters other) {
+        return new DigestCounters(
+            execCount + other.execCount,
+            totalLatencyUs + other.totalLatencyUs,
+            rowsExamined + other.rowsExamined,
+            rowsSent + other.rowsSent,
+            tmpTables + other.tmpTables,
+            tmpDiskTables + other.tmpDiskTables,
+            noIndexUsed + other.noIndexUsed,
+            noGoodIndexUsed + other.noGoodIndexUsed,
+            sortMergePasses + other.sortMergePasses,
+            errors + other.errors
+        );
+    }
+}
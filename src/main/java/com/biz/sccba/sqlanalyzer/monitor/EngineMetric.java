@@ -0,0 +1,208 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import java.util.Map;
+
+/**
+ * InnoDB 引擎压力指标
+ *
+ * 每个指标由相邻两次采样的计数器（SHOW GLOBAL STATUS、INNODB_METRICS、SHOW ENGINE INNODB STATUS 解析结果）推导：
+ * 累计计数器取差值除以间隔得到速率，瞬时值（如历史链表长度）直接取当前值。
+ * 缺少所需计数器时返回 NaN
+ */
+public enum EngineMetric {
+
+    /**
+     * 缓冲池命中率（区间内逻辑读中不需要读磁盘的比例）
+     */
+    BUFFER_POOL_HIT_RATIO {
+        @Override
+        double derive(Map<String, Long> previous, Map<String, Long> current, double seconds) {
+            double requests = delta(previous, current, "Innodb_buffer_pool_read_requests");
+            double reads = delta(previous, current, "Innodb_buffer_pool_reads");
+            if (Double.isNaN(requests) || Double.isNaN(reads)) {
+                return Double.NaN;
+            }
+            return requests > 0 ? Math.max(0, 1 - reads / requests) : 1.0;
+        }
+    },
+
+    /**
+     * 每秒从磁盘读入的页数
+     */
+    PAGES_READ_PER_SEC {
+        @Override
+        double derive(Map<String, Long> previous, Map<String, Long> current, double seconds) {
+            return rate(previous, current, "Innodb_pages_read", seconds);
+        }
+    },
+
+    /**
+     * 每秒写出的页数
+     */
+    PAGES_WRITTEN_PER_SEC {
+        @Override
+        double derive(Map<String, Long> previous, Map<String, Long> current, double seconds) {
+            return rate(previous, current, "Innodb_pages_written", seconds);
+        }
+    },
+
+    /**
+     * 脏页比例
+     */
+    DIRTY_PAGES_RATIO {
+        @Override
+        double derive(Map<String, Long> previous, Map<String, Long> current, double seconds) {
+            Long dirty = current.get("Innodb_buffer_pool_pages_dirty");
+            Long total = current.get("Innodb_buffer_pool_pages_total");
+            return dirty != null && total != null && total > 0 ? (double) dirty / total : Double.NaN;
+        }
+    },
+
+    /**
+     * 每秒读取的行数
+     */
+    ROWS_READ_PER_SEC {
+        @Override
+        double derive(Map<String, Long> previous, Map<String, Long> current, double seconds) {
+            return rate(previous, current, "Innodb_rows_read", seconds);
+        }
+    },
+
+    /**
+     * 每秒发生的行锁等待次数
+     */
+    ROW_LOCK_WAITS_PER_SEC {
+        @Override
+        double derive(Map<String, Long> previous, Map<String, Long> current, double seconds) {
+            return rate(previous, current, "Innodb_row_lock_waits", seconds);
+        }
+    },
+
+    /**
+     * 区间内平均每次行锁等待的时长（毫秒）
+     */
+    ROW_LOCK_WAIT_AVG_MS {
+        @Override
+        double derive(Map<String, Long> previous, Map<String, Long> current, double seconds) {
+            double waits = delta(previous, current, "Innodb_row_lock_waits");
+            double time = delta(previous, current, "Innodb_row_lock_time");
+            if (Double.isNaN(waits) || Double.isNaN(time)) {
+                return Double.NaN;
+            }
+            return waits > 0 ? time / waits : 0;
+        }
+    },
+
+    /**
+     * 当前正在等待行锁的数量
+     */
+    ROW_LOCK_CURRENT_WAITS {
+        @Override
+        double derive(Map<String, Long> previous, Map<String, Long> current, double seconds) {
+            return gauge(current, "Innodb_row_lock_current_waits");
+        }
+    },
+
+    /**
+     * Undo 历史链表长度（未被 purge 的旧版本数，过长说明有长事务或 purge 跟不上）
+     */
+    HISTORY_LIST_LENGTH {
+        @Override
+        double derive(Map<String, Long> previous, Map<String, Long> current, double seconds) {
+            double metric = gauge(current, "trx_rseg_history_len");
+            return Double.isNaN(metric) ? gauge(current, InnoDBStatusParser.HISTORY_LIST_LENGTH) : metric;
+        }
+    },
+
+    /**
+     * 每秒写入 redo log 的字节数
+     */
+    LOG_BYTES_WRITTEN_PER_SEC {
+        @Override
+        double derive(Map<String, Long> previous, Map<String, Long> current, double seconds) {
+            return rate(previous, current, "Innodb_os_log_written", seconds);
+        }
+    },
+
+    /**
+     * 每秒因 log buffer 不足而等待的次数
+     */
+    LOG_WAITS_PER_SEC {
+        @Override
+        double derive(Map<String, Long> previous, Map<String, Long> current, double seconds) {
+            return rate(previous, current, "Innodb_log_waits", seconds);
+        }
+    },
+
+    /**
+     * Checkpoint age 占 redo log 容量的比例（越接近 1 越容易触发同步刷脏）
+     */
+    CHECKPOINT_AGE_RATIO {
+        @Override
+        double derive(Map<String, Long> previous, Map<String, Long> current, double seconds) {
+            Long lsn = current.get(InnoDBStatusParser.LOG_SEQUENCE_NUMBER);
+            Long checkpoint = current.get(InnoDBStatusParser.LAST_CHECKPOINT);
+            Long capacity = current.get(REDO_LOG_CAPACITY);
+            if (lsn == null || checkpoint == null || capacity == null || capacity <= 0) {
+                return Double.NaN;
+            }
+            return (double) (lsn - checkpoint) / capacity;
+        }
+    },
+
+    /**
+     * 正在运行的线程数
+     */
+    THREADS_RUNNING {
+        @Override
+        double derive(Map<String, Long> previous, Map<String, Long> current, double seconds) {
+            return gauge(current, "Threads_running");
+        }
+    };
+
+    /**
+     * redo log 总容量（字节）在计数器中的键，由采样器根据系统变量填入
+     */
+    public static final String REDO_LOG_CAPACITY = "redo_log_capacity";
+
+    /**
+     * 由相邻两次采样推导指标值
+     *
+     * @param previous 上一次的计数器
+     * @param current 本次的计数器
+     * @param seconds 两次采样间隔（秒）
+     */
+    abstract double derive(Map<String, Long> previous, Map<String, Long> current, double seconds);
+
+    /**
+     * 推导全部指标，按枚举顺序返回
+     */
+    public static double[] deriveAll(Map<String, Long> previous, Map<String, Long> current, double seconds) {
+        EngineMetric[] metrics = values();
+        double[] result = new double[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            result[i] = metrics[i].derive(previous, current, seconds);
+        }
+        return result;
+    }
+
+    private static double delta(Map<String, Long> previous, Map<String, Long> current, String name) {
+        Long before = previous.get(name);
+        Long after = current.get(name);
+        if (before == null || after == null) {
+            return Double.NaN;
+        }
+        // 计数器回退说明实例重启或执行了 FLUSH STATUS，本区间按 0 计
+        return Math.max(0, after - before);
+    }
+
+    private static double rate(Map<String, Long> previous, Map<String, Long> current, String name, double seconds) {
+        double delta = delta(previous, current, name);
+        return Double.isNaN(delta) || seconds <= 0 ? Double.NaN : delta / seconds;
+    }
+
+    private static double gauge(Map<String, Long> current, String name) {
+        Long value = current.get(name);
+        return value != null ? value : Double.NaN;
+    }
+}
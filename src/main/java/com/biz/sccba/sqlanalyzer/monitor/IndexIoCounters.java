@@ -0,0 +1,35 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+/**
+ * table_io_waits_summary_by_index_usage 中一个索引的累计计数器
+ *
+ * @param reads 通过该索引读取的次数（COUNT_READ）
+ * @param writes 通过该索引定位后写入的次数（COUNT_WRITE）
+ * @param fetches 读取的行数（COUNT_FETCH）
+ */
+public record IndexIoCounters(long reads, long writes, long fetches) {
+
+    public static final IndexIoCounters ZERO = new IndexIoCounters(0, 0, 0);
+
+    /**
+     * 计算与上一次快照的差值
+     * 实例重启或计数器变小（TRUNCATE 了汇总表）时计数器从 0 重新开始，当前值就是增量
+     *
+     * @param previous 上一次快照的原始计数器
+     * @param restarted 两次快照之间实例是否重启过
+     */
+    public IndexIoCounters since(IndexIoCounters previous, boolean restarted) {
+        if (previous == null || restarted
+                || reads < previous.reads || writes < previous.writes || fetches < previous.fetches) {
+            return this;
+        }
+        return new IndexIoCounters(reads - previous.reads, writes - previous.writes, fetches - previous.fetches);
+    }
+
+    /**
+     * 累加
+     */
+    public IndexIoCounters plus(IndexIoCounters other) {
+        return new IndexIoCounters(reads + other.reads, writes + other.writes, fetches + other.fetches);
+    }
+}
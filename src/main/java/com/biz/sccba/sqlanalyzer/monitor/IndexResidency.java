@@ -0,0 +1,114 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 单个索引在缓冲池中的驻留情况
+ *
+ * @param tableName 表名
+ * @param indexName 索引名
+ * @param residentPages 驻留在缓冲池中的页数
+ * @param totalPages 索引总页数（mysql.innodb_index_stats 的 size）
+ * @param leafPages 叶子页数（mysql.innodb_index_stats 的 n_leaf_pages）
+ * @param pageSize 页大小（字节）
+ */
+public record IndexResidency(
+    String tableName,
+    String indexName,
+    long residentPages,
+    long totalPages,
+    long leafPages,
+    int pageSize
+) {
+
+    /**
+     * 驻留比例低于该值视为冷索引
+     */
+    public static final double COLD_RATIO = 0.2;
+
+    /**
+     * 驻留比例高于该值视为热索引
+     */
+    public static final double HOT_RATIO = 0.8;
+
+    /**
+     * 驻留比例（0 ~ 1），缺少总页数时返回 null
+     */
+    @JsonProperty
+    public Double residentRatio() {
+        return totalPages > 0 ? Math.min(1.0, (double) residentPages / totalPages) : null;
+    }
+
+    @JsonProperty
+    public double residentMb() {
+        return residentPages * (double) pageSize / (1024 * 1024);
+    }
+
+    @JsonProperty
+    public double totalMb() {
+        return totalPages * (double) pageSize / (1024 * 1024);
+    }
+
+    /**
+     * 冷热程度：HOT / WARM / COLD，缺少统计时为 UNKNOWN
+     */
+    @JsonProperty
+    public String temperature() {
+        Double ratio = residentRatio();
+        if (ratio == null) {
+            return "UNKNOWN";
+        }
+        return ratio >= HOT_RATIO ? "HOT" : ratio < COLD_RATIO ? "COLD" : "WARM";
+    }
+
+    /**
+     * 估算一次访问需要读取的叶子页数：扫描行数 ÷ 每个叶子页的行数，至少 1 页，不超过叶子页总数
+     *
+     * @param rowsExamined 估算扫描行数
+     * @param tableRows 表的估算总行数
+     */
+    public long estimatePagesTouched(long rowsExamined, long tableRows) {
+        if (leafPages <= 0 || tableRows <= 0) {
+            return 1;
+        }
+        double rowsPerPage = Math.max(1.0, (double) tableRows / leafPages);
+        return Math.max(1, Math.min(leafPages, (long) Math.ceil(rowsExamined / rowsPerPage)));
+    }
+
+    /**
+     * 按驻留比例估算一次访问的物理读页数（假设访问的页在索引中均匀分布）
+     */
+    public double estimatePhysicalReads(long rowsExamined, long tableRows) {
+        Double ratio = residentRatio();
+        return estimatePagesTouched(rowsExamined, tableRows) * (1 - (ratio != null ? ratio : 0));
+    }
+
+    /**
+     * 统一表名格式：去掉库名、反引号和分区后缀
+     * （INNODB_TABLES 中为 db/t#p#p0，INNODB_BUFFER_PAGE 中为带反引号的 db.t 加分区注释）
+     */
+    public static String normalizeTableName(String raw) {
+        String name = raw;
+        int comment = name.indexOf(" /*");
+        if (comment >= 0) {
+            name = name.substring(0, comment);
+        }
+        int partition = name.indexOf("#p#");
+        if (partition < 0) {
+            partition = name.indexOf("#P#");
+        }
+        if (partition >= 0) {
+            name = name.substring(0, partition);
+        }
+        int slash = name.indexOf('/');
+        if (slash >= 0) {
+            name = name.substring(slash + 1);
+        } else {
+            int dot = name.indexOf("`.`");
+            if (dot >= 0) {
+                name = name.substring(dot + 2);
+            }
+        }
+        return name.replace("`", "");
+    }
+}
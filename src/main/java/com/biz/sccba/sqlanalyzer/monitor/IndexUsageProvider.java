@@ -0,0 +1,303 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.IndexUsageCounter;
+import com.biz.sccba.sqlanalyzer.repository.IndexUsageCounterRepository;
+import com.biz.sccba.sqlanalyzer.service.TestEnvironmentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 索引使用计数提供者
+ *
+ * 定时读取 performance_schema.table_io_waits_summary_by_index_usage，与上一次快照相减后累加到
+ * sql_index_usage_counter 中，实例重启（通过 Uptime 推算的启动时间变化识别）或计数器变小时以当前值为增量，
+ * 因此累计值覆盖整个观察期而不只是本次实例启动以来。
+ * 再结合 sys.schema_unused_indexes 和 INFORMATION_SCHEMA.STATISTICS，判定每个索引在整个负载下是否真正未使用或是热点
+ */
+@Service
+public class IndexUsageProvider {
+
+    private static final String SYSTEM_SCHEMAS = "('mysql', 'performance_schema', 'information_schema', 'sys')";
+
+    private static final String IO_SQL = """
+        SELECT OBJECT_SCHEMA, OBJECT_NAME, INDEX_NAME, COUNT_READ, COUNT_WRITE, COUNT_FETCH
+        FROM performance_schema.table_io_waits_summary_by_index_usage
+        WHERE OBJECT_TYPE = 'TABLE' AND OBJECT_SCHEMA NOT IN
+        """ + SYSTEM_SCHEMAS;
+
+    private static final String INDEX_SQL = """
+        SELECT TABLE_SCHEMA, TABLE_NAME, INDEX_NAME, MIN(NON_UNIQUE) AS NON_UNIQUE
+        FROM INFORMATION_SCHEMA.STATISTICS
+        WHERE TABLE_SCHEMA NOT IN
+        """ + SYSTEM_SCHEMAS + " GROUP BY TABLE_SCHEMA, TABLE_NAME, INDEX_NAME";
+
+    private static final String UNUSED_SQL = "SELECT object_schema, object_name, index_name FROM sys.schema_unused_indexes";
+
+    /**
+     * 推算的实例启动时间偏差超过该值时视为重启
+     */
+    private static final Duration RESTART_TOLERANCE = Duration.ofMinutes(1);
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private IndexUsageCounterRepository counterRepository;
+
+    @Autowired
+    private AnalyzerConfig.IndexUsageProperties properties;
+
+    /**
+     * 单个索引的使用情况
+     *
+     * @param schemaName 库名
+     * @param tableName 表名
+     * @param indexName 索引名
+     * @param primaryOrUnique 是否为主键或唯一索引
+     * @param reads 观察期内累计读取次数
+     * @param writes 观察期内累计写入次数
+     * @param fetches 观察期内累计读取行数
+     * @param readShare 读取量占数据源全部索引读取量的比例
+     * @param tableWrites 观察期内该表的行写入次数（每个二级索引都要为此付出维护代价）
+     * @param observedDays 观察期（天）
+     * @param lastReadAt 最近一次观察到读取的时间
+     * @param unusedSinceServerStart sys.schema_unused_indexes 是否将其列为未使用
+     * @param status 使用状态
+     * @param evidence 判定依据
+     */
+    public record IndexUsage(
+        String schemaName,
+        String tableName,
+        String indexName,
+        boolean primaryOrUnique,
+        long reads,
+        long writes,
+        long fetches,
+        double readShare,
+        long tableWrites,
+        double observedDays,
+        LocalDateTime lastReadAt,
+        Boolean unusedSinceServerStart,
+        IndexUsageStatus status,
+        String evidence
+    ) {}
+
+    /**
+     * 快照结果
+     *
+     * @param indexes 跟踪的索引数
+     * @param restarted 自上一次快照以来实例是否重启过
+     * @param removed 已不存在而被移除的索引数
+     */
+    public record SnapshotResult(int indexes, boolean restarted, int removed) {}
+
+    /**
+     * 定时快照
+     */
+    @Scheduled(fixedDelayString = "${spring.analyzer.index-usage.interval-ms:3600000}",
+        initialDelayString = "${spring.analyzer.index-usage.interval-ms:3600000}")
+    public void scheduledSnapshot() {
+        if (!Boolean.TRUE.equals(properties.getEnabled())) {
+            return;
+        }
+        for (String datasourceName : properties.getDatasources()) {
+            try {
+                snapshot(datasourceName);
+            } catch (Exception e) {
+                System.err.println("[IndexUsageProvider] 快照失败，数据源：" + datasourceName + "，错误：" + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 读取一次计数器并累加到观察期总量
+     */
+    public synchronized SnapshotResult snapshot(String datasourceName) {
+        JdbcTemplate jdbcTemplate = testEnvironmentService.getJdbcTemplate(datasourceName);
+        LocalDateTime now = LocalDateTime.now();
+        Long uptime = jdbcTemplate.query("SHOW GLOBAL STATUS LIKE 'Uptime'",
+            rs -> rs.next() ? Long.parseLong(rs.getString("Value")) : null);
+        LocalDateTime serverStartedAt = uptime != null ? now.minusSeconds(uptime) : null;
+
+        Map<String, IndexUsageCounter> existing = new HashMap<>();
+        for (IndexUsageCounter counter : counterRepository.findByDatasourceName(datasourceName)) {
+            existing.put(key(counter.getSchemaName(), counter.getTableName(), counter.getIndexName()), counter);
+        }
+
+        // 当前存在的索引（含尚未被访问、因而不在 performance_schema 中的索引）
+        Map<String, IndexUsageCounter> current = new LinkedHashMap<>();
+        jdbcTemplate.query(INDEX_SQL, rs -> {
+            String key = key(rs.getString("TABLE_SCHEMA"), rs.getString("TABLE_NAME"), rs.getString("INDEX_NAME"));
+            IndexUsageCounter counter = existing.containsKey(key) ? existing.get(key)
+                : newCounter(datasourceName, rs.getString("TABLE_SCHEMA"), rs.getString("TABLE_NAME"), rs.getString("INDEX_NAME"), now);
+            counter.setPrimaryOrUnique(rs.getInt("NON_UNIQUE") == 0);
+            current.put(key, counter);
+        });
+
+        Map<String, IndexIoCounters> raw = new HashMap<>();
+        jdbcTemplate.query(IO_SQL, rs -> {
+            String indexName = rs.getString("INDEX_NAME");
+            String key = key(rs.getString("OBJECT_SCHEMA"), rs.getString("OBJECT_NAME"), indexName != null ? indexName : "");
+            raw.put(key, new IndexIoCounters(rs.getLong("COUNT_READ"), rs.getLong("COUNT_WRITE"), rs.getLong("COUNT_FETCH")));
+            if (indexName == null && !current.containsKey(key)) {
+                IndexUsageCounter tableAccess = existing.containsKey(key) ? existing.get(key)
+                    : newCounter(datasourceName, rs.getString("OBJECT_SCHEMA"), rs.getString("OBJECT_NAME"), "", now);
+                tableAccess.setPrimaryOrUnique(false);
+                current.put(key, tableAccess);
+            }
+        });
+
+        Set<String> unusedPerSys = new HashSet<>();
+        try {
+            jdbcTemplate.query(UNUSED_SQL, rs -> {
+                unusedPerSys.add(key(rs.getString("object_schema"), rs.getString("object_name"), rs.getString("index_name")));
+            });
+        } catch (Exception e) {
+            System.err.println("[IndexUsageProvider] 读取 sys.schema_unused_indexes 失败（sys 库不可用？）：" + e.getMessage());
+        }
+
+        boolean anyRestart = false;
+        for (Map.Entry<String, IndexUsageCounter> entry : current.entrySet()) {
+            IndexUsageCounter counter = entry.getValue();
+            boolean restarted = counter.getServerStartedAt() != null && serverStartedAt != null
+                && Duration.between(counter.getServerStartedAt(), serverStartedAt).abs().compareTo(RESTART_TOLERANCE) > 0;
+            anyRestart |= restarted;
+
+            IndexIoCounters currentRaw = raw.getOrDefault(entry.getKey(), IndexIoCounters.ZERO);
+            IndexIoCounters previous = counter.getRawReads() != null
+                ? new IndexIoCounters(counter.getRawReads(), counter.getRawWrites(), counter.getRawFetches()) : null;
+            IndexIoCounters delta = currentRaw.since(previous, restarted);
+            if (previous != null && (restarted || currentRaw.reads() < previous.reads())) {
+                counter.setCounterResets(counter.getCounterResets() + 1);
+            }
+
+            counter.setTotalReads(counter.getTotalReads() + delta.reads());
+            counter.setTotalWrites(counter.getTotalWrites() + delta.writes());
+            counter.setTotalFetches(counter.getTotalFetches() + delta.fetches());
+            counter.setRawReads(currentRaw.reads());
+            counter.setRawWrites(currentRaw.writes());
+            counter.setRawFetches(currentRaw.fetches());
+            if (delta.reads() > 0) {
+                counter.setLastReadAt(now);
+            }
+            counter.setLastSnapshotAt(now);
+            counter.setServerStartedAt(serverStartedAt);
+            counter.setUnusedSinceServerStart(counter.getIndexName().isEmpty() ? null : unusedPerSys.contains(entry.getKey()));
+        }
+        counterRepository.saveAll(current.values());
+
+        // 已删除的索引不再跟踪
+        List<IndexUsageCounter> removed = existing.entrySet().stream()
+            .filter(entry -> !current.containsKey(entry.getKey()))
+            .map(Map.Entry::getValue)
+            .toList();
+        counterRepository.deleteAll(removed);
+
+        System.out.println("[IndexUsageProvider] 快照完成，数据源：" + datasourceName + "，索引：" + current.size()
+            + (anyRestart ? "，检测到实例重启" : ""));
+        return new SnapshotResult(current.size(), anyRestart, removed.size());
+    }
+
+    /**
+     * 查询索引使用情况
+     *
+     * @param datasourceName 数据源名称
+     * @param schemaName 库名（为空时不过滤）
+     * @param tableName 表名（为空时不过滤）
+     */
+    public List<IndexUsage> getUsage(String datasourceName, String schemaName, String tableName) {
+        List<IndexUsageCounter> counters = counterRepository.findByDatasourceName(datasourceName);
+        long totalReads = counters.stream()
+            .filter(c -> !c.getIndexName().isEmpty())
+            .mapToLong(IndexUsageCounter::getTotalReads)
+            .sum();
+        Map<String, Long> tableWrites = new HashMap<>();
+        for (IndexUsageCounter counter : counters) {
+            tableWrites.merge(counter.getSchemaName() + "." + counter.getTableName(), counter.getTotalWrites(), Long::sum);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        return counters.stream()
+            .filter(c -> !c.getIndexName().isEmpty())
+            .filter(c -> schemaName == null || schemaName.equalsIgnoreCase(c.getSchemaName()))
+            .filter(c -> tableName == null || tableName.equalsIgnoreCase(c.getTableName()))
+            .map(c -> toUsage(c, totalReads, tableWrites.getOrDefault(c.getSchemaName() + "." + c.getTableName(), 0L), now))
+            .sorted(Comparator.comparing(IndexUsage::status).thenComparing(Comparator.comparingLong(IndexUsage::reads).reversed()))
+            .toList();
+    }
+
+    /**
+     * 查询当前库中某张表的索引使用情况
+     * 只读取已有的计数，不触发快照（快照覆盖整个实例，由定时任务或 get_index_usage 的 refresh 完成）；
+     * 数据源还没有任何计数时返回空列表
+     */
+    public List<IndexUsage> getTableUsage(String datasourceName, String tableName) {
+        if (!counterRepository.existsByDatasourceName(datasourceName)) {
+            return List.of();
+        }
+        String schema = testEnvironmentService.getJdbcTemplate(datasourceName).queryForObject("SELECT DATABASE()", String.class);
+        return getUsage(datasourceName, schema, tableName);
+    }
+
+    private IndexUsage toUsage(IndexUsageCounter counter, long totalReads, long tableWrites, LocalDateTime now) {
+        double observedDays = Duration.between(counter.getTrackingSince(), now).toMinutes() / 1440.0;
+        double readShare = totalReads > 0 ? (double) counter.getTotalReads() / totalReads : 0;
+        boolean constraint = Boolean.TRUE.equals(counter.getPrimaryOrUnique());
+        IndexUsageStatus status = IndexUsageStatus.classify(constraint, counter.getTotalReads(), observedDays, readShare,
+            properties.getMinObservationDays(), properties.getHotReadShare());
+
+        String evidence = switch (status) {
+            case UNUSED -> String.format("%.1f 天内读取 0 次，期间该表写入 %d 次，每次写入都要维护该索引", observedDays, tableWrites);
+            case UNUSED_UNCONFIRMED -> String.format("已观察 %.1f 天读取 0 次，需观察满 %d 天才能确认",
+                observedDays, properties.getMinObservationDays());
+            case HOT -> String.format("%.1f 天内读取 %d 次，占全部索引读取的 %.1f%%", observedDays, counter.getTotalReads(), readShare * 100);
+            case USED -> String.format("%.1f 天内读取 %d 次", observedDays, counter.getTotalReads());
+            case CONSTRAINT -> "主键或唯一索引，承担约束作用";
+        };
+        if (counter.getCounterResets() != null && counter.getCounterResets() > 0) {
+            evidence += "（期间计数器清零 " + counter.getCounterResets() + " 次，已跨重启累计）";
+        }
+
+        return new IndexUsage(
+            counter.getSchemaName(),
+            counter.getTableName(),
+            counter.getIndexName(),
+            constraint,
+            counter.getTotalReads(),
+            counter.getTotalWrites(),
+            counter.getTotalFetches(),
+            readShare,
+            tableWrites,
+            observedDays,
+            counter.getLastReadAt(),
+            counter.getUnusedSinceServerStart(),
+            status,
+            evidence
+        );
+    }
+
+    private static IndexUsageCounter newCounter(String datasourceName, String schema, String table, String index, LocalDateTime now) {
+        IndexUsageCounter counter = new IndexUsageCounter();
+        counter.setDatasourceName(datasourceName);
+        counter.setSchemaName(schema);
+        counter.setTableName(table);
+        counter.setIndexName(index);
+        counter.setTotalReads(0L);
+        counter.setTotalWrites(0L);
+        counter.setTotalFetches(0L);
+        counter.setCounterResets(0);
+        counter.setTrackingSince(now);
+        return counter;
+    }
+
+    private static String key(String schema, String table, String index) {
+        return schema + "." + table + "." + index;
+    }
+}
@@ -0,0 +1,53 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+/**
+ * 基于整个负载的实际读写计数得出的索引使用状态
+ */
+public enum IndexUsageStatus {
+
+    /**
+     * 观察期足够长且没有任何读取，可以考虑删除
+     */
+    UNUSED,
+
+    /**
+     * 目前没有读取，但观察期还不够长（可能是月末、年终等周期性语句才会用到）
+     */
+    UNUSED_UNCONFIRMED,
+
+    /**
+     * 读取量占整个数据源索引读取量的比例较高
+     */
+    HOT,
+
+    /**
+     * 有读取
+     */
+    USED,
+
+    /**
+     * 主键或唯一索引：即使没有读取也承担约束作用，不能作为删除候选
+     */
+    CONSTRAINT;
+
+    /**
+     * 判定索引状态
+     *
+     * @param primaryOrUnique 是否为主键或唯一索引
+     * @param reads 观察期内的累计读取次数
+     * @param observedDays 观察期（天）
+     * @param readShare 读取量占数据源全部索引读取量的比例
+     * @param minObservationDays 确认未使用所需的最短观察期（天）
+     * @param hotReadShare 判定为热点的读取占比
+     */
+    public static IndexUsageStatus classify(boolean primaryOrUnique, long reads, double observedDays, double readShare,
+                                            double minObservationDays, double hotReadShare) {
+        if (reads > 0) {
+            return readShare >= hotReadShare ? HOT : USED;
+        }
+        if (primaryOrUnique) {
+            return CONSTRAINT;
+        }
+        return observedDays >= minObservationDays ? UNUSED : UNUSED_UNCONFIRMED;
+    }
+}
@@ -0,0 +1,268 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.service.TestEnvironmentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * InnoDB 引擎指标采样器
+ *
+ * 定时读取 SHOW GLOBAL STATUS、information_schema.INNODB_METRICS 和 SHOW ENGINE INNODB STATUS，
+ * 与上一次的计数器相减推导出缓冲池命中率、页读写速率、行锁等待、历史链表长度、redo 写入压力等指标，
+ * 保存在每个数据源一个的环形时间序列中（只在内存中，不落库），
+ * 供 InnoDB 专家把语句的执行计划与当前引擎压力关联起来
+ */
+@Service
+public class InnoDBMetricsSampler {
+
+    private static final List<String> STATUS_VARIABLES = List.of(
+        "Innodb_buffer_pool_read_requests", "Innodb_buffer_pool_reads",
+        "Innodb_buffer_pool_pages_dirty", "Innodb_buffer_pool_pages_total",
+        "Innodb_pages_read", "Innodb_pages_written", "Innodb_rows_read",
+        "Innodb_row_lock_waits", "Innodb_row_lock_time", "Innodb_row_lock_current_waits",
+        "Innodb_os_log_written", "Innodb_log_waits", "Threads_running");
+
+    private static final String STATUS_SQL = "SHOW GLOBAL STATUS WHERE Variable_name IN ("
+        + String.join(",", Collections.nCopies(STATUS_VARIABLES.size(), "?")) + ")";
+
+    private static final String INNODB_METRICS_SQL = """
+        SELECT NAME, COUNT FROM information_schema.INNODB_METRICS
+        WHERE STATUS = 'enabled' AND NAME IN ('trx_rseg_history_len')
+        """;
+
+    private static final double LOW_HIT_RATIO = 0.95;
+    private static final double HIGH_DIRTY_RATIO = 0.75;
+    private static final double HIGH_CHECKPOINT_AGE_RATIO = 0.75;
+    private static final double HIGH_HISTORY_LIST_LENGTH = 100_000;
+    private static final double HIGH_ROW_LOCK_WAIT_AVG_MS = 50;
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private AnalyzerConfig.EngineMetricsProperties properties;
+
+    private final Map<String, MetricRingBuffer> series = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Long>> previousCounters = new ConcurrentHashMap<>();
+    private final Map<String, Long> previousSampledAt = new ConcurrentHashMap<>();
+    private final Map<String, Long> redoLogCapacity = new ConcurrentHashMap<>();
+
+    /**
+     * 当前引擎压力
+     *
+     * @param datasourceName 数据源名称
+     * @param windowSeconds 统计窗口（秒）
+     * @param metrics 各指标在窗口内的统计（没有数据的指标不返回）
+     * @param signals 压力信号说明
+     */
+    public record EnginePressure(
+        String datasourceName,
+        int windowSeconds,
+        Map<String, MetricRingBuffer.Summary> metrics,
+        List<String> signals
+    ) {
+        public Double latest(EngineMetric metric) {
+            MetricRingBuffer.Summary summary = metrics.get(metric.name());
+            return summary != null ? summary.latest() : null;
+        }
+
+        public Double avg(EngineMetric metric) {
+            MetricRingBuffer.Summary summary = metrics.get(metric.name());
+            return summary != null ? summary.avg() : null;
+        }
+    }
+
+    /**
+     * 时间序列中的一个采样点
+     *
+     * @param timestampMs 采样时间（毫秒）
+     * @param values 指标名 -> 值
+     */
+    public record SeriesPoint(long timestampMs, Map<String, Double> values) {}
+
+    /**
+     * 定时采样
+     */
+    @Scheduled(fixedDelayString = "${spring.analyzer.engine-metrics.interval-ms:10000}",
+        initialDelayString = "${spring.analyzer.engine-metrics.interval-ms:10000}")
+    public void scheduledSample() {
+        if (!Boolean.TRUE.equals(properties.getEnabled())) {
+            return;
+        }
+        for (String datasourceName : properties.getDatasources()) {
+            try {
+                sample(datasourceName);
+            } catch (Exception e) {
+                System.err.println("[InnoDBMetricsSampler] 采样失败，数据源：" + datasourceName + "，错误：" + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 采样一次；第一次采样只记录计数器，不产生采样点
+     *
+     * @return 本次推导的指标值，第一次采样返回 null
+     */
+    public double[] sample(String datasourceName) {
+        JdbcTemplate jdbcTemplate = testEnvironmentService.getJdbcTemplate(datasourceName);
+        long now = System.currentTimeMillis();
+        Map<String, Long> counters = readCounters(jdbcTemplate, datasourceName);
+
+        Map<String, Long> previous = previousCounters.put(datasourceName, counters);
+        Long previousAt = previousSampledAt.put(datasourceName, now);
+        if (previous == null || previousAt == null) {
+            return null;
+        }
+
+        double[] values = EngineMetric.deriveAll(previous, counters, (now - previousAt) / 1000.0);
+        series.computeIfAbsent(datasourceName, k -> new MetricRingBuffer(properties.getCapacity(), EngineMetric.values().length))
+            .add(now, values);
+        return values;
+    }
+
+    /**
+     * 返回最近若干分钟的时间序列
+     */
+    public List<SeriesPoint> getSeries(String datasourceName, int minutes) {
+        MetricRingBuffer buffer = series.get(datasourceName);
+        if (buffer == null) {
+            return List.of();
+        }
+        EngineMetric[] metrics = EngineMetric.values();
+        return buffer.since(System.currentTimeMillis() - minutes * 60_000L).stream()
+            .map(point -> {
+                Map<String, Double> values = new LinkedHashMap<>();
+                for (EngineMetric metric : metrics) {
+                    double value = point.values()[metric.ordinal()];
+                    if (!Double.isNaN(value)) {
+                        values.put(metric.name(), value);
+                    }
+                }
+                return new SeriesPoint(point.timestampMs(), values);
+            })
+            .toList();
+    }
+
+    /**
+     * 评估当前引擎压力（最近 pressure-window-seconds 内的统计），没有采样数据时返回 null
+     */
+    public EnginePressure getPressure(String datasourceName) {
+        MetricRingBuffer buffer = series.get(datasourceName);
+        if (buffer == null || buffer.size() == 0) {
+            return null;
+        }
+        int windowSeconds = properties.getPressureWindowSeconds();
+        long since = System.currentTimeMillis() - windowSeconds * 1000L;
+        Map<String, MetricRingBuffer.Summary> metrics = new LinkedHashMap<>();
+        for (EngineMetric metric : EngineMetric.values()) {
+            MetricRingBuffer.Summary summary = buffer.summarize(metric.ordinal(), since);
+            if (summary != null) {
+                metrics.put(metric.name(), summary);
+            }
+        }
+        EnginePressure pressure = new EnginePressure(datasourceName, windowSeconds, metrics, new ArrayList<>());
+        pressure.signals().addAll(detectSignals(pressure));
+        return pressure;
+    }
+
+    private static List<String> detectSignals(EnginePressure pressure) {
+        List<String> signals = new ArrayList<>();
+        Double hitRatio = pressure.avg(EngineMetric.BUFFER_POOL_HIT_RATIO);
+        if (hitRatio != null && hitRatio < LOW_HIT_RATIO) {
+            signals.add(String.format("缓冲池命中率偏低 (%.2f%%)，大量逻辑读需要读磁盘", hitRatio * 100));
+        }
+        Double dirty = pressure.latest(EngineMetric.DIRTY_PAGES_RATIO);
+        if (dirty != null && dirty > HIGH_DIRTY_RATIO) {
+            signals.add(String.format("脏页比例较高 (%.0f%%)，后台刷脏压力大", dirty * 100));
+        }
+        Double checkpointAge = pressure.latest(EngineMetric.CHECKPOINT_AGE_RATIO);
+        if (checkpointAge != null && checkpointAge > HIGH_CHECKPOINT_AGE_RATIO) {
+            signals.add(String.format("checkpoint age 已占 redo log 容量的 %.0f%%，可能触发同步刷脏", checkpointAge * 100));
+        }
+        Double logWaits = pressure.avg(EngineMetric.LOG_WAITS_PER_SEC);
+        if (logWaits != null && logWaits > 0) {
+            signals.add("出现 log buffer 等待，redo 写入压力大，可考虑增大 innodb_log_buffer_size");
+        }
+        Double history = pressure.latest(EngineMetric.HISTORY_LIST_LENGTH);
+        if (history != null && history > HIGH_HISTORY_LIST_LENGTH) {
+            signals.add(String.format("历史链表长度较高 (%.0f)，存在长事务或 purge 跟不上，一致性读需要遍历更多旧版本", history));
+        }
+        Double lockWaitMs = pressure.avg(EngineMetric.ROW_LOCK_WAIT_AVG_MS);
+        Double lockWaits = pressure.avg(EngineMetric.ROW_LOCK_WAITS_PER_SEC);
+        if (lockWaitMs != null && lockWaits != null && lockWaits > 0 && lockWaitMs > HIGH_ROW_LOCK_WAIT_AVG_MS) {
+            signals.add(String.format("行锁等待频繁 (%.1f 次/秒，平均 %.0f ms)", lockWaits, lockWaitMs));
+        }
+        return signals;
+    }
+
+    /**
+     * 读取一次全部计数器
+     */
+    private Map<String, Long> readCounters(JdbcTemplate jdbcTemplate, String datasourceName) {
+        Map<String, Long> counters = new HashMap<>();
+        jdbcTemplate.query(STATUS_SQL, rs -> {
+            Long value = parseLong(rs.getString("Value"));
+            if (value != null) {
+                counters.put(rs.getString("Variable_name"), value);
+            }
+        }, STATUS_VARIABLES.toArray());
+
+        try {
+            jdbcTemplate.query(INNODB_METRICS_SQL, rs -> {
+                counters.put(rs.getString("NAME"), rs.getLong("COUNT"));
+            });
+        } catch (Exception e) {
+            // INNODB_METRICS 不可用时由 SHOW ENGINE INNODB STATUS 补充历史链表长度
+        }
+
+        try {
+            List<String> status = jdbcTemplate.query("SHOW ENGINE INNODB STATUS", (rs, rowNum) -> rs.getString("Status"));
+            if (!status.isEmpty()) {
+                counters.putAll(InnoDBStatusParser.parse(status.get(0)));
+            }
+        } catch (Exception e) {
+            // 需要 PROCESS 权限，没有权限时缺少 checkpoint 相关指标
+        }
+
+        Long capacity = redoLogCapacity.computeIfAbsent(datasourceName, k -> readRedoLogCapacity(jdbcTemplate));
+        if (capacity > 0) {
+            counters.put(EngineMetric.REDO_LOG_CAPACITY, capacity);
+        }
+        return counters;
+    }
+
+    /**
+     * redo log 容量：8.0.30 起为 innodb_redo_log_capacity，之前为 innodb_log_file_size × innodb_log_files_in_group
+     */
+    private static long readRedoLogCapacity(JdbcTemplate jdbcTemplate) {
+        try {
+            Long capacity = jdbcTemplate.queryForObject("SELECT @@innodb_redo_log_capacity", Long.class);
+            if (capacity != null) {
+                return capacity;
+            }
+        } catch (Exception e) {
+            // 旧版本没有该变量
+        }
+        try {
+            Long capacity = jdbcTemplate.queryForObject(
+                "SELECT @@innodb_log_file_size * @@innodb_log_files_in_group", Long.class);
+            return capacity != null ? capacity : 0L;
+        } catch (Exception e) {
+            return 0L;
+        }
+    }
+
+    private static Long parseLong(String value) {
+        try {
+            return value != null ? Long.parseLong(value.trim()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SHOW ENGINE INNODB STATUS 文本解析
+ * 只提取 SHOW GLOBAL STATUS 中没有的值：历史链表长度、LSN 和 checkpoint 位置
+ */
+public final class InnoDBStatusParser {
+
+    public static final String HISTORY_LIST_LENGTH = "status.history_list_length";
+    public static final String LOG_SEQUENCE_NUMBER = "status.log_sequence_number";
+    public static final String LAST_CHECKPOINT = "status.last_checkpoint";
+
+    private static final Pattern HISTORY = Pattern.compile("History list length\\s+(\\d+)");
+    private static final Pattern LSN = Pattern.compile("Log sequence number\\s+(\\d+)");
+    private static final Pattern CHECKPOINT = Pattern.compile("Last checkpoint at\\s+(\\d+)");
+
+    private InnoDBStatusParser() {
+    }
+
+    /**
+     * 解析 SHOW ENGINE INNODB STATUS 的 Status 列
+     *
+     * @return 解析出的值，缺少的项不放入结果
+     */
+    public static Map<String, Long> parse(String status) {
+        Map<String, Long> values = new HashMap<>();
+        if (status == null) {
+            return values;
+        }
+        put(values, HISTORY_LIST_LENGTH, HISTORY.matcher(status));
+        put(values, LOG_SEQUENCE_NUMBER, LSN.matcher(status));
+        put(values, LAST_CHECKPOINT, CHECKPOINT.matcher(status));
+        return values;
+    }
+
+    private static void put(Map<String, Long> values, String key, Matcher matcher) {
+        if (matcher.find()) {
+            values.put(key, Long.parseLong(matcher.group(1)));
+        }
+    }
+}
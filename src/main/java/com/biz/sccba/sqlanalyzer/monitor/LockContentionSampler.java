@@ -0,0 +1,361 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.LockWaitSample;
+import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.repository.LockWaitSampleRepository;
+import com.biz.sccba.sqlanalyzer.service.StatementDigestMatcher;
+import com.biz.sccba.sqlanalyzer.service.TestEnvironmentService;
+import com.biz.sccba.sqlanalyzer.util.SqlDigestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 锁等待采样器
+ *
+ * 定时读取 performance_schema.data_lock_waits / data_locks、information_schema.innodb_trx
+ * 以及 performance_schema.threads（即 processlist），每次采样构建一张锁等待图，
+ * 保存每条等待关系及其热点行、阻塞语句，再按时间窗口汇总热点行、表、索引和阻塞语句
+ *
+ * 为了能在生产环境持续运行：
+ * - 每次采样先只查 data_lock_waits（没有等待时为空表，开销可忽略），没有等待就直接返回
+ * - data_locks 只按等待关系中的锁 ID 精确查找，不扫描全部锁
+ * - innodb_trx 和 threads 只查等待关系涉及的事务和线程
+ * - 每次采样读取的等待关系数受 max-waits-per-sample 限制
+ */
+@Service
+public class LockContentionSampler {
+
+    private static final String WAITS_SQL = """
+        SELECT w.REQUESTING_ENGINE_TRANSACTION_ID AS waiting_trx_id,
+               w.BLOCKING_ENGINE_TRANSACTION_ID AS blocking_trx_id,
+               l.OBJECT_SCHEMA, l.OBJECT_NAME, l.INDEX_NAME, l.LOCK_TYPE, l.LOCK_MODE, l.LOCK_DATA
+        FROM performance_schema.data_lock_waits w
+        JOIN performance_schema.data_locks l ON l.ENGINE_LOCK_ID = w.REQUESTING_ENGINE_LOCK_ID
+        LIMIT ?
+        """;
+
+    private static final String TRX_SQL = """
+        SELECT trx_id, trx_mysql_thread_id, trx_query, trx_rows_locked,
+               TIMESTAMPDIFF(SECOND, trx_started, NOW()) AS trx_age_seconds,
+               TIMESTAMPDIFF(SECOND, trx_wait_started, NOW()) AS wait_seconds
+        FROM information_schema.innodb_trx
+        WHERE trx_id IN (%s)
+        """;
+
+    /**
+     * 阻塞事务经常处于空闲状态（trx_query 为空），此时取线程最近执行的语句
+     */
+    private static final String THREAD_SQL = """
+        SELECT t.PROCESSLIST_ID, COALESCE(t.PROCESSLIST_INFO, s.SQL_TEXT) AS sql_text
+        FROM performance_schema.threads t
+        LEFT JOIN performance_schema.events_statements_current s ON s.THREAD_ID = t.THREAD_ID
+        WHERE t.PROCESSLIST_ID IN (%s)
+        """;
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private StatementDigestMatcher statementDigestMatcher;
+
+    @Autowired
+    private LockWaitSampleRepository lockWaitSampleRepository;
+
+    @Autowired
+    private AnalyzerConfig.LockSamplerProperties properties;
+
+    /**
+     * 单次采样结果
+     *
+     * @param waits 等待关系数
+     * @param rootBlockers 阻塞链源头事务
+     * @param cycles 等待环（死锁）
+     * @param samples 保存的采样明细
+     */
+    public record SampleResult(int waits, List<String> rootBlockers, List<List<String>> cycles, List<LockWaitSample> samples) {}
+
+    /**
+     * 热点（行、表或索引）
+     *
+     * @param key 热点标识
+     * @param waitSamples 出现在多少条等待采样中（与等待持续时间成正比）
+     * @param maxWaitSeconds 观察到的最长等待（秒）
+     */
+    public record Hotspot(String key, long waitSamples, long maxWaitSeconds) {}
+
+    /**
+     * 阻塞语句
+     *
+     * @param blockingDigest 阻塞语句指纹
+     * @param sql 阻塞语句样例
+     * @param mapperId 关联的 Mapper ID
+     * @param queryId 关联的 ParsedSqlQuery ID
+     * @param waitSamples 造成的等待采样数
+     * @param rootBlockerSamples 作为阻塞链源头的采样数
+     * @param maxBlockedCount 同一时刻最多阻塞的事务数
+     * @param maxTrxAgeSeconds 阻塞事务最长运行时长（秒）
+     * @param waitingMapperIds 被它阻塞的 Mapper 语句
+     */
+    public record Blocker(
+        String blockingDigest,
+        String sql,
+        String mapperId,
+        Long queryId,
+        long waitSamples,
+        long rootBlockerSamples,
+        int maxBlockedCount,
+        long maxTrxAgeSeconds,
+        Set<String> waitingMapperIds
+    ) {}
+
+    /**
+     * 锁争用汇总
+     *
+     * @param sampleCount 出现等待的采样次数
+     * @param waitSamples 等待关系采样总数
+     * @param deadlockSamples 出现等待环的采样次数
+     * @param hotRows 热点行
+     * @param hotTables 热点表
+     * @param hotIndexes 热点索引
+     * @param blockers 阻塞语句
+     */
+    public record ContentionReport(
+        long sampleCount,
+        long waitSamples,
+        long deadlockSamples,
+        List<Hotspot> hotRows,
+        List<Hotspot> hotTables,
+        List<Hotspot> hotIndexes,
+        List<Blocker> blockers
+    ) {}
+
+    /**
+     * 定时采样并清理过期数据
+     */
+    @Scheduled(fixedDelayString = "${spring.analyzer.lock-sampler.interval-ms:10000}",
+        initialDelayString = "${spring.analyzer.lock-sampler.interval-ms:10000}")
+    public void scheduledSample() {
+        if (!Boolean.TRUE.equals(properties.getEnabled())) {
+            return;
+        }
+        for (String datasourceName : properties.getDatasources()) {
+            try {
+                sample(datasourceName);
+            } catch (Exception e) {
+                System.err.println("[LockContentionSampler] 采样失败，数据源：" + datasourceName + "，错误：" + e.getMessage());
+            }
+        }
+        lockWaitSampleRepository.deleteBySampledAtBefore(LocalDateTime.now().minusDays(properties.getRetentionDays()));
+    }
+
+    /**
+     * 采样一次当前的锁等待
+     */
+    public SampleResult sample(String datasourceName) {
+        JdbcTemplate jdbcTemplate = testEnvironmentService.getJdbcTemplate(datasourceName);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<LockWaitSample> samples = jdbcTemplate.query(WAITS_SQL, (rs, rowNum) -> {
+            LockWaitSample sample = new LockWaitSample();
+            sample.setDatasourceName(datasourceName);
+            sample.setSampledAt(now);
+            sample.setWaitingTrxId(rs.getString("waiting_trx_id"));
+            sample.setBlockingTrxId(rs.getString("blocking_trx_id"));
+            sample.setObjectSchema(rs.getString("OBJECT_SCHEMA"));
+            sample.setObjectName(rs.getString("OBJECT_NAME"));
+            sample.setIndexName(rs.getString("INDEX_NAME"));
+            sample.setLockType(rs.getString("LOCK_TYPE"));
+            sample.setLockMode(rs.getString("LOCK_MODE"));
+            sample.setLockData(truncate(rs.getString("LOCK_DATA"), 500));
+            return sample;
+        }, properties.getMaxWaitsPerSample());
+        if (samples.isEmpty()) {
+            return new SampleResult(0, List.of(), List.of(), List.of());
+        }
+
+        LockWaitGraph graph = LockWaitGraph.of(samples.stream()
+            .map(s -> new LockWaitGraph.Edge(s.getWaitingTrxId(), s.getBlockingTrxId()))
+            .toList());
+        Set<String> roots = new HashSet<>(graph.rootBlockers());
+        Set<String> inCycle = graph.trxInCycles();
+
+        Map<String, TrxInfo> transactions = loadTransactions(jdbcTemplate, samples);
+        for (LockWaitSample sample : samples) {
+            TrxInfo waiting = transactions.get(sample.getWaitingTrxId());
+            TrxInfo blocking = transactions.get(sample.getBlockingTrxId());
+            if (waiting != null) {
+                sample.setWaitSeconds(waiting.waitSeconds());
+                sample.setWaitingSql(waiting.sql());
+                sample.setWaitingDigest(waiting.sql() != null ? SqlDigestUtils.digest(waiting.sql()) : null);
+                ParsedSqlQuery query = statementDigestMatcher.match(waiting.sql());
+                sample.setWaitingMapperId(query != null ? query.getMapperNamespace() + "." + query.getStatementId() : null);
+            }
+            if (blocking != null) {
+                sample.setBlockingSql(blocking.sql());
+                sample.setBlockingDigest(blocking.sql() != null ? SqlDigestUtils.digest(blocking.sql()) : null);
+                sample.setBlockingTrxAgeSeconds(blocking.ageSeconds());
+                sample.setBlockingRowsLocked(blocking.rowsLocked());
+                ParsedSqlQuery query = statementDigestMatcher.match(blocking.sql());
+                if (query != null) {
+                    sample.setBlockingQueryId(query.getId());
+                    sample.setBlockingMapperId(query.getMapperNamespace() + "." + query.getStatementId());
+                }
+            }
+            sample.setRootBlocker(roots.contains(sample.getBlockingTrxId()));
+            sample.setBlockedCount(graph.blockedCount(sample.getBlockingTrxId()));
+            sample.setInCycle(inCycle.contains(sample.getWaitingTrxId()) && inCycle.contains(sample.getBlockingTrxId()));
+        }
+        lockWaitSampleRepository.saveAll(samples);
+
+        System.out.println("[LockContentionSampler] 数据源：" + datasourceName + "，等待关系：" + samples.size()
+            + "，阻塞源头：" + roots.size() + "，等待环：" + graph.cycles().size());
+        return new SampleResult(samples.size(), graph.rootBlockers(), graph.cycles(), samples);
+    }
+
+    /**
+     * 汇总最近若干小时的锁争用
+     *
+     * @param datasourceName 数据源名称
+     * @param hours 最近多少小时
+     * @param limit 每类热点返回条数（为空时使用 top-n 配置）
+     */
+    public ContentionReport getContentionReport(String datasourceName, int hours, Integer limit) {
+        List<LockWaitSample> samples = lockWaitSampleRepository.findByDatasourceNameAndSampledAtAfter(
+            datasourceName, LocalDateTime.now().minusHours(hours));
+        int top = limit != null && limit > 0 ? limit : properties.getTopN();
+
+        long sampleCount = samples.stream().map(LockWaitSample::getSampledAt).distinct().count();
+        long deadlockSamples = samples.stream()
+            .filter(s -> Boolean.TRUE.equals(s.getInCycle()))
+            .map(LockWaitSample::getSampledAt).distinct().count();
+
+        return new ContentionReport(
+            sampleCount,
+            samples.size(),
+            deadlockSamples,
+            hotspots(samples, s -> s.getLockData() != null
+                ? tableKey(s) + "." + s.getIndexName() + "(" + s.getLockData() + ")" : null, top),
+            hotspots(samples, LockContentionSampler::tableKey, top),
+            hotspots(samples, s -> s.getIndexName() != null ? tableKey(s) + "." + s.getIndexName() : null, top),
+            blockers(samples, top)
+        );
+    }
+
+    /**
+     * 根据实际观察到的锁等待评估语句的锁争用风险
+     *
+     * @return HIGH（作为阻塞方出现过）、MEDIUM（作为等待方出现过），没有观察记录时返回 null
+     */
+    public String observedLockRisk(String datasourceName, String sql, int hours) {
+        String digest = SqlDigestUtils.digest(sql);
+        LocalDateTime after = LocalDateTime.now().minusHours(hours);
+        if (lockWaitSampleRepository.countByDatasourceNameAndBlockingDigestAndSampledAtAfter(datasourceName, digest, after) > 0) {
+            return "HIGH";
+        }
+        if (lockWaitSampleRepository.countByDatasourceNameAndWaitingDigestAndSampledAtAfter(datasourceName, digest, after) > 0) {
+            return "MEDIUM";
+        }
+        return null;
+    }
+
+    private record TrxInfo(Long threadId, String sql, Long rowsLocked, Long ageSeconds, Long waitSeconds) {}
+
+    /**
+     * 查询等待关系涉及的事务，空闲事务补充线程最近执行的语句
+     */
+    private Map<String, TrxInfo> loadTransactions(JdbcTemplate jdbcTemplate, List<LockWaitSample> samples) {
+        Set<String> trxIds = new LinkedHashSet<>();
+        for (LockWaitSample sample : samples) {
+            trxIds.add(sample.getWaitingTrxId());
+            trxIds.add(sample.getBlockingTrxId());
+        }
+        Map<String, TrxInfo> transactions = new HashMap<>();
+        jdbcTemplate.query(String.format(TRX_SQL, placeholders(trxIds.size())), rs -> {
+            transactions.put(rs.getString("trx_id"), new TrxInfo(
+                rs.getObject("trx_mysql_thread_id") != null ? rs.getLong("trx_mysql_thread_id") : null,
+                rs.getString("trx_query"),
+                rs.getLong("trx_rows_locked"),
+                rs.getLong("trx_age_seconds"),
+                rs.getObject("wait_seconds") != null ? rs.getLong("wait_seconds") : null));
+        }, trxIds.toArray());
+
+        List<Long> idleThreads = transactions.values().stream()
+            .filter(trx -> trx.sql() == null && trx.threadId() != null)
+            .map(TrxInfo::threadId)
+            .toList();
+        if (!idleThreads.isEmpty()) {
+            Map<Long, String> lastSql = new HashMap<>();
+            jdbcTemplate.query(String.format(THREAD_SQL, placeholders(idleThreads.size())), rs -> {
+                lastSql.putIfAbsent(rs.getLong("PROCESSLIST_ID"), rs.getString("sql_text"));
+            }, idleThreads.toArray());
+            transactions.replaceAll((id, trx) -> trx.sql() == null && trx.threadId() != null
+                ? new TrxInfo(trx.threadId(), lastSql.get(trx.threadId()), trx.rowsLocked(), trx.ageSeconds(), trx.waitSeconds())
+                : trx);
+        }
+        return transactions;
+    }
+
+    private static List<Hotspot> hotspots(List<LockWaitSample> samples, Function<LockWaitSample, String> key, int limit) {
+        Map<String, long[]> counters = new HashMap<>();
+        for (LockWaitSample sample : samples) {
+            String value = key.apply(sample);
+            if (value == null) {
+                continue;
+            }
+            long[] counter = counters.computeIfAbsent(value, k -> new long[2]);
+            counter[0]++;
+            counter[1] = Math.max(counter[1], sample.getWaitSeconds() != null ? sample.getWaitSeconds() : 0);
+        }
+        return counters.entrySet().stream()
+            .map(e -> new Hotspot(e.getKey(), e.getValue()[0], e.getValue()[1]))
+            .sorted(Comparator.comparingLong(Hotspot::waitSamples).reversed())
+            .limit(limit)
+            .toList();
+    }
+
+    private static List<Blocker> blockers(List<LockWaitSample> samples, int limit) {
+        Map<String, List<LockWaitSample>> byDigest = samples.stream()
+            .filter(s -> s.getBlockingDigest() != null)
+            .collect(Collectors.groupingBy(LockWaitSample::getBlockingDigest));
+        return byDigest.entrySet().stream()
+            .map(entry -> {
+                List<LockWaitSample> group = entry.getValue();
+                LockWaitSample first = group.get(0);
+                return new Blocker(
+                    entry.getKey(),
+                    first.getBlockingSql(),
+                    first.getBlockingMapperId(),
+                    first.getBlockingQueryId(),
+                    group.size(),
+                    group.stream().filter(s -> Boolean.TRUE.equals(s.getRootBlocker())).count(),
+                    group.stream().mapToInt(s -> s.getBlockedCount() != null ? s.getBlockedCount() : 0).max().orElse(0),
+                    group.stream().mapToLong(s -> s.getBlockingTrxAgeSeconds() != null ? s.getBlockingTrxAgeSeconds() : 0).max().orElse(0),
+                    group.stream().map(LockWaitSample::getWaitingMapperId).filter(Objects::nonNull)
+                        .collect(Collectors.toCollection(TreeSet::new))
+                );
+            })
+            .sorted(Comparator.comparingLong(Blocker::waitSamples).reversed())
+            .limit(limit)
+            .toList();
+    }
+
+    private static String tableKey(LockWaitSample sample) {
+        return sample.getObjectSchema() + "." + sample.getObjectName();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
@@ -0,0 +1,112 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import java.util.*;
+
+/**
+ * 锁等待图（wait-for graph）
+ *
+ * 节点是事务，边 A → B 表示事务 A 在等待事务 B 持有的锁。
+ * 用于找出阻塞链的源头（自身不在等待、却阻塞了其他事务的事务）和等待环（死锁）
+ */
+public final class LockWaitGraph {
+
+    /**
+     * 等待边
+     *
+     * @param waiting 等待的事务
+     * @param blocking 持有锁的事务
+     */
+    public record Edge(String waiting, String blocking) {
+    }
+
+    private final Map<String, Set<String>> blockedBy = new LinkedHashMap<>();
+    private final Map<String, Set<String>> waitedOnBy = new LinkedHashMap<>();
+
+    private LockWaitGraph() {
+    }
+
+    public static LockWaitGraph of(Collection<Edge> edges) {
+        LockWaitGraph graph = new LockWaitGraph();
+        for (Edge edge : edges) {
+            graph.blockedBy.computeIfAbsent(edge.waiting(), k -> new LinkedHashSet<>()).add(edge.blocking());
+            graph.waitedOnBy.computeIfAbsent(edge.blocking(), k -> new LinkedHashSet<>()).add(edge.waiting());
+        }
+        return graph;
+    }
+
+    /**
+     * 阻塞链源头：阻塞了其他事务、自身却没有在等待的事务
+     */
+    public List<String> rootBlockers() {
+        return waitedOnBy.keySet().stream().filter(trx -> !blockedBy.containsKey(trx)).toList();
+    }
+
+    /**
+     * 直接或间接等待该事务的事务数
+     */
+    public int blockedCount(String trx) {
+        Set<String> visited = new HashSet<>();
+        Deque<String> stack = new ArrayDeque<>(waitedOnBy.getOrDefault(trx, Set.of()));
+        while (!stack.isEmpty()) {
+            String current = stack.pop();
+            if (!current.equals(trx) && visited.add(current)) {
+                stack.addAll(waitedOnBy.getOrDefault(current, Set.of()));
+            }
+        }
+        return visited.size();
+    }
+
+    /**
+     * 从该事务出发的最长等待链长度（没有等待时为 0）
+     */
+    public int waitDepth(String trx) {
+        return waitDepth(trx, new HashSet<>());
+    }
+
+    private int waitDepth(String trx, Set<String> path) {
+        if (!path.add(trx)) {
+            return 0;
+        }
+        int depth = 0;
+        for (String blocking : blockedBy.getOrDefault(trx, Set.of())) {
+            depth = Math.max(depth, 1 + waitDepth(blocking, path));
+        }
+        path.remove(trx);
+        return depth;
+    }
+
+    /**
+     * 等待环（每个环只返回一次，从环中字典序最小的事务开始）
+     * InnoDB 会很快选出牺牲者回滚，采样中出现环说明死锁正在发生
+     */
+    public List<List<String>> cycles() {
+        Set<List<String>> cycles = new LinkedHashSet<>();
+        for (String start : blockedBy.keySet()) {
+            findCycles(start, start, new ArrayList<>(List.of(start)), cycles);
+        }
+        return new ArrayList<>(cycles);
+    }
+
+    private void findCycles(String start, String current, List<String> path, Set<List<String>> cycles) {
+        for (String next : blockedBy.getOrDefault(current, Set.of())) {
+            if (next.equals(start)) {
+                if (path.stream().min(String::compareTo).orElseThrow().equals(start)) {
+                    cycles.add(List.copyOf(path));
+                }
+            } else if (!path.contains(next) && next.compareTo(start) > 0) {
+                path.add(next);
+                findCycles(start, next, path, cycles);
+                path.remove(path.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * 处于某个等待环中的事务
+     */
+    public Set<String> trxInCycles() {
+        Set<String> result = new HashSet<>();
+        cycles().forEach(result::addAll);
+        return result;
+    }
+}
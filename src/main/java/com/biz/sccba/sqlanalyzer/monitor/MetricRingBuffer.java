@@ -0,0 +1,120 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 定长环形时间序列
+ *
+ * 按列存储（一个 long[] 时间戳 + 每个指标一个 double[]），不为每个采样点创建对象，
+ * 写满后覆盖最旧的采样点。单写多读，读写方法都加锁，采样频率下开销可忽略
+ */
+public final class MetricRingBuffer {
+
+    private final long[] timestamps;
+    private final double[][] values;
+    private int next;
+    private int size;
+
+    /**
+     * 一个采样点
+     *
+     * @param timestampMs 采样时间（毫秒）
+     * @param values 指标值，按列顺序
+     */
+    public record Point(long timestampMs, double[] values) {
+    }
+
+    /**
+     * 单个指标在时间窗口内的统计（忽略 NaN）
+     *
+     * @param latest 最新值
+     * @param avg 平均值
+     * @param max 最大值
+     * @param min 最小值
+     * @param points 有效采样点数
+     */
+    public record Summary(double latest, double avg, double max, double min, int points) {
+    }
+
+    public MetricRingBuffer(int capacity, int metricCount) {
+        if (capacity <= 0 || metricCount <= 0) {
+            throw new IllegalArgumentException("capacity 和 metricCount 必须大于 0");
+        }
+        this.timestamps = new long[capacity];
+        this.values = new double[metricCount][capacity];
+    }
+
+    /**
+     * 追加一个采样点
+     */
+    public synchronized void add(long timestampMs, double[] point) {
+        if (point.length != values.length) {
+            throw new IllegalArgumentException("指标数不匹配: " + point.length + " != " + values.length);
+        }
+        timestamps[next] = timestampMs;
+        for (int metric = 0; metric < values.length; metric++) {
+            values[metric][next] = point[metric];
+        }
+        next = (next + 1) % timestamps.length;
+        size = Math.min(size + 1, timestamps.length);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return timestamps.length;
+    }
+
+    /**
+     * 按时间顺序返回 sinceMs 之后（含）的采样点
+     */
+    public synchronized List<Point> since(long sinceMs) {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int index = physical(i);
+            if (timestamps[index] >= sinceMs) {
+                double[] point = new double[values.length];
+                for (int metric = 0; metric < values.length; metric++) {
+                    point[metric] = values[metric][index];
+                }
+                points.add(new Point(timestamps[index], point));
+            }
+        }
+        return points;
+    }
+
+    /**
+     * 统计某个指标在 sinceMs 之后（含）的值，没有有效值时返回 null
+     */
+    public synchronized Summary summarize(int metric, long sinceMs) {
+        double latest = Double.NaN;
+        double sum = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        double min = Double.POSITIVE_INFINITY;
+        int points = 0;
+        for (int i = 0; i < size; i++) {
+            int index = physical(i);
+            double value = values[metric][index];
+            if (timestamps[index] < sinceMs || Double.isNaN(value)) {
+                continue;
+            }
+            latest = value;
+            sum += value;
+            max = Math.max(max, value);
+            min = Math.min(min, value);
+            points++;
+        }
+        return points == 0 ? null : new Summary(latest, sum / points, max, min, points);
+    }
+
+    /**
+     * 第 i 旧的采样点在数组中的位置
+     */
+    private int physical(int i) {
+        int oldest = size < timestamps.length ? 0 : next;
+        return (oldest + i) % timestamps.length;
+    }
+}
@@ -0,0 +1,430 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.ExecutionPlan;
+import com.biz.sccba.sqlanalyzer.model.PlanShape;
+import com.biz.sccba.sqlanalyzer.model.PlanTreeNode;
+import com.biz.sccba.sqlanalyzer.service.SqlExecutionPlanService;
+import com.biz.sccba.sqlanalyzer.service.TestEnvironmentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 优化器统计信息健康检查
+ *
+ * 很多坏执行计划来自过期的持久化统计信息。本服务读取 mysql.innodb_table_stats、innodb_index_stats
+ * （n_rows、n_diff_pfx、last_update、sample_size），与以下实测值对比：
+ * - 有上限的 COUNT(*)（超过上限时只得到下界）
+ * - 索引首列的 COUNT(DISTINCT)（只对小表或不同值很少、可走松散索引扫描的列执行）
+ * - INNODB_TABLESTATS.MODIFIED_COUNTER：上次统计以来 DML 修改的行数
+ * 并把 EXPLAIN ANALYZE 的估算行数与实际行数对比，区分统计信息问题和数据倾斜问题
+ */
+@Service
+public class OptimizerStatsHealthService {
+
+    private static final String TABLE_STATS_SQL = """
+        SELECT table_name, n_rows, last_update FROM mysql.innodb_table_stats
+        WHERE database_name = ? AND (table_name = ? OR table_name LIKE ?)
+        """;
+
+    private static final String INDEX_STATS_SQL = """
+        SELECT index_name, stat_name, stat_value, sample_size
+        FROM mysql.innodb_index_stats
+        WHERE database_name = ? AND table_name = ? AND stat_name IN ('n_diff_pfx01', 'n_leaf_pages')
+        """;
+
+    private static final String INDEX_COLUMNS_SQL = """
+        SELECT INDEX_NAME, NON_UNIQUE, COLUMN_NAME, SEQ_IN_INDEX, SUB_PART, NULLABLE
+        FROM information_schema.STATISTICS
+        WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ?
+        ORDER BY INDEX_NAME, SEQ_IN_INDEX
+        """;
+
+    private static final String MODIFIED_COUNTER_SQL = """
+        SELECT SUM(MODIFIED_COUNTER) FROM information_schema.INNODB_TABLESTATS
+        WHERE NAME = ? OR NAME LIKE ?
+        """;
+
+    private static final String LARGEST_TABLES_SQL = """
+        SELECT TABLE_NAME FROM information_schema.TABLES
+        WHERE TABLE_SCHEMA = ? AND ENGINE = 'InnoDB' AND TABLE_TYPE = 'BASE TABLE'
+        ORDER BY TABLE_ROWS DESC
+        LIMIT ?
+        """;
+
+    /**
+     * EXPLAIN ANALYZE 迭代器描述中的表名（如 "Index lookup on u using idx_user"）
+     */
+    private static final Pattern NODE_TABLE_PATTERN = Pattern.compile("\\bon\\s+`?(\\w+)`?(?:\\s+using\\s+`?(\\w+)`?)?");
+
+    private static final Pattern SAMPLE_PAGES_OPTION = Pattern.compile("(?i)stats_sample_pages=(\\d+)");
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private SqlExecutionPlanService sqlExecutionPlanService;
+
+    @Autowired
+    private AnalyzerConfig.StatsHealthProperties properties;
+
+    /**
+     * 一个表的检查结果
+     *
+     * @param tableName 表名
+     * @param stats 表级统计信息与实测值
+     * @param indexes 各索引的统计信息与实测值
+     * @param partitioned 是否分区表（分区表只检查表级统计）
+     * @param issues 发现的问题
+     */
+    public record TableHealth(
+        String tableName,
+        StatsHealthEvaluator.TableStats stats,
+        List<StatsHealthEvaluator.IndexStats> indexes,
+        boolean partitioned,
+        List<StatsHealthEvaluator.Issue> issues
+    ) {}
+
+    /**
+     * 检查报告
+     *
+     * @param datasourceName 数据源名称
+     * @param schemaName 库名
+     * @param checkedAt 检查时间
+     * @param tables 各表结果
+     * @param issues 全部问题（按严重程度排序）
+     * @param recommendations 去重后的建议语句
+     * @param warnings 警告
+     */
+    public record HealthReport(
+        String datasourceName,
+        String schemaName,
+        LocalDateTime checkedAt,
+        List<TableHealth> tables,
+        List<StatsHealthEvaluator.Issue> issues,
+        List<String> recommendations,
+        List<String> warnings
+    ) {}
+
+    /**
+     * 一处估算行数偏差
+     *
+     * @param node 迭代器描述或执行计划中的表访问
+     * @param tableName 对应的表
+     * @param estimatedRows 估算行数
+     * @param actualRows 实际行数（或实测表行数）
+     * @param ratio 偏差倍数
+     * @param statsSuspect 该表统计信息是否存在问题
+     * @param explanation 原因判断和建议
+     */
+    public record EstimateDrift(
+        String node,
+        String tableName,
+        double estimatedRows,
+        double actualRows,
+        double ratio,
+        boolean statsSuspect,
+        String explanation
+    ) {}
+
+    /**
+     * 语句的统计信息检查结果
+     *
+     * @param sql 语句
+     * @param analyzed 是否使用了 EXPLAIN ANALYZE 的实际行数
+     * @param estimateDrifts 估算行数偏差
+     * @param issues 语句涉及表的统计信息问题
+     * @param recommendations 去重后的建议语句
+     * @param warnings 警告
+     */
+    public record StatementHealth(
+        String sql,
+        boolean analyzed,
+        List<EstimateDrift> estimateDrifts,
+        List<StatsHealthEvaluator.Issue> issues,
+        List<String> recommendations,
+        List<String> warnings
+    ) {}
+
+    /**
+     * 检查库中表的统计信息
+     *
+     * @param datasourceName 数据源名称
+     * @param schemaName 库名（为空时取连接的当前库）
+     * @param tables 要检查的表（为空时按估算行数检查最大的 maxTables 个表）
+     */
+    public HealthReport check(String datasourceName, String schemaName, Collection<String> tables) {
+        JdbcTemplate jdbcTemplate = testEnvironmentService.getJdbcTemplate(datasourceName);
+        String schema = schemaName != null && !schemaName.isBlank()
+            ? schemaName : jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+
+        // 实测语句使用独立的 JdbcTemplate 设置超时，避免影响共享实例
+        JdbcTemplate measureTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        measureTemplate.setQueryTimeout(properties.getQueryTimeoutSeconds());
+
+        List<String> warnings = new ArrayList<>();
+        List<String> tableNames = tables != null && !tables.isEmpty()
+            ? new ArrayList<>(tables)
+            : jdbcTemplate.queryForList(LARGEST_TABLES_SQL, String.class, schema, properties.getMaxTables());
+
+        int defaultSamplePages = 20;
+        boolean defaultAutoRecalc = true;
+        try {
+            Map<String, Object> globals = jdbcTemplate.queryForMap(
+                "SELECT @@innodb_stats_persistent_sample_pages AS sample_pages, @@innodb_stats_auto_recalc AS auto_recalc");
+            defaultSamplePages = ((Number) globals.get("sample_pages")).intValue();
+            defaultAutoRecalc = ((Number) globals.get("auto_recalc")).intValue() != 0;
+        } catch (Exception e) {
+            warnings.add("读取统计信息全局参数失败，按默认值判断：" + e.getMessage());
+        }
+
+        StatsHealthEvaluator.Thresholds thresholds = thresholds();
+        LocalDateTime now = LocalDateTime.now();
+        List<TableHealth> results = new ArrayList<>();
+        List<StatsHealthEvaluator.Issue> issues = new ArrayList<>();
+        for (String table : tableNames) {
+            try {
+                TableHealth health = checkTable(jdbcTemplate, measureTemplate, schema, table,
+                    defaultSamplePages, defaultAutoRecalc, thresholds, now, warnings);
+                results.add(health);
+                issues.addAll(health.issues());
+            } catch (Exception e) {
+                warnings.add("检查表 " + table + " 失败：" + e.getMessage());
+            }
+        }
+        issues.sort(Comparator.comparing(StatsHealthEvaluator.Issue::severity));
+
+        System.out.println("[OptimizerStatsHealthService] 统计信息检查完成，数据源：" + datasourceName + "，库：" + schema
+            + "，表：" + results.size() + "，问题：" + issues.size());
+        return new HealthReport(datasourceName, schema, now, results, issues, recommendations(issues), warnings);
+    }
+
+    /**
+     * 检查语句涉及表的统计信息，并对比估算行数与实际行数
+     *
+     * 数据源开启了 safety.allow-execution 且语句为查询时使用 EXPLAIN ANALYZE 的实际行数；
+     * 否则把全表扫描的估算行数与实测表行数对比
+     */
+    public StatementHealth checkStatement(String datasourceName, String sql) {
+        List<String> sqlTables = sqlExecutionPlanService.parseTableNames(sql);
+        Map<String, String> aliases = sqlExecutionPlanService.resolveTableAliases(sql);
+        HealthReport report = check(datasourceName, null, sqlTables);
+        List<String> warnings = new ArrayList<>(report.warnings());
+
+        Map<String, TableHealth> byTable = new HashMap<>();
+        report.tables().forEach(t -> byTable.put(t.tableName().toLowerCase(), t));
+
+        List<EstimateDrift> drifts = new ArrayList<>();
+        boolean analyzed = false;
+        try {
+            ExecutionPlan plan = sqlExecutionPlanService.getExecutionPlanWithAnalyze(sql, datasourceName);
+            if (plan.getAnalyzeTree() != null) {
+                analyzed = true;
+                for (PlanTreeNode node : plan.getAnalyzeTree().findMisestimatedNodes()) {
+                    Matcher matcher = NODE_TABLE_PATTERN.matcher(node.getDescription());
+                    String table = matcher.find() ? aliases.get(matcher.group(1).toLowerCase()) : null;
+                    drifts.add(explain(node.getDescription(), table != null ? byTable.get(table) : null,
+                        node.getEstimatedRows(), node.getActualRows(), node.getRowEstimateRatio()));
+                }
+            }
+        } catch (RuntimeException e) {
+            warnings.add("未执行 EXPLAIN ANALYZE（" + e.getMessage() + "），只对比全表扫描的估算行数与实测行数");
+        }
+
+        if (!analyzed) {
+            ExecutionPlan plan = sqlExecutionPlanService.getExecutionPlan(sql, datasourceName);
+            PlanShape shape = PlanShape.fromRawJson(plan != null ? plan.getRawJson() : null);
+            for (PlanShape.TableAccess access : shape.getTables()) {
+                String table = aliases.get(access.getTableName().toLowerCase());
+                TableHealth health = table != null ? byTable.get(table) : null;
+                if (!"ALL".equalsIgnoreCase(access.getAccessType()) || health == null
+                    || access.getRowsExaminedPerScan() == null || health.stats().measuredRows() == null
+                    || !health.stats().measuredExact()) {
+                    continue;
+                }
+                long estimated = access.getRowsExaminedPerScan();
+                long measured = health.stats().measuredRows();
+                double ratio = StatsHealthEvaluator.drift(estimated, measured);
+                if (ratio > properties.getRowDriftRatio()) {
+                    drifts.add(explain("Table scan on " + access.getTableName(), health, (double) estimated, (double) measured, ratio));
+                }
+            }
+        }
+
+        List<StatsHealthEvaluator.Issue> issues = report.issues();
+        List<String> recommendations = new ArrayList<>(recommendations(issues));
+        drifts.stream().filter(d -> !d.statsSuspect() && d.tableName() != null).findAny()
+            .ifPresent(d -> recommendations.add("为估算失真的过滤列建立直方图：ANALYZE TABLE `" + d.tableName()
+                + "` UPDATE HISTOGRAM ON <列名> WITH 64 BUCKETS"));
+        return new StatementHealth(sql, analyzed, drifts, issues, recommendations, warnings);
+    }
+
+    private TableHealth checkTable(JdbcTemplate jdbcTemplate, JdbcTemplate measureTemplate, String schema, String table,
+                                   int defaultSamplePages, boolean defaultAutoRecalc,
+                                   StatsHealthEvaluator.Thresholds thresholds, LocalDateTime now, List<String> warnings) {
+        // 分区表每个分区一行（table#p#partition），累加行数、取最早的更新时间
+        Long[] statsRows = {null};
+        LocalDateTime[] lastUpdate = {null};
+        boolean[] partitioned = {false};
+        jdbcTemplate.query(TABLE_STATS_SQL, rs -> {
+            statsRows[0] = (statsRows[0] != null ? statsRows[0] : 0L) + rs.getLong("n_rows");
+            Timestamp updated = rs.getTimestamp("last_update");
+            if (updated != null && (lastUpdate[0] == null || updated.toLocalDateTime().isBefore(lastUpdate[0]))) {
+                lastUpdate[0] = updated.toLocalDateTime();
+            }
+            partitioned[0] |= rs.getString("table_name").contains("#");
+        }, schema, table, table + "#p#%");
+
+        int samplePages = defaultSamplePages;
+        boolean autoRecalc = defaultAutoRecalc;
+        String options = jdbcTemplate.query(
+            "SELECT CREATE_OPTIONS FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ?",
+            rs -> rs.next() ? rs.getString(1) : null, schema, table);
+        if (options != null) {
+            Matcher matcher = SAMPLE_PAGES_OPTION.matcher(options);
+            if (matcher.find()) {
+                samplePages = Integer.parseInt(matcher.group(1));
+            }
+            String lower = options.toLowerCase();
+            if (lower.contains("stats_auto_recalc=0")) {
+                autoRecalc = false;
+            } else if (lower.contains("stats_auto_recalc=1")) {
+                autoRecalc = true;
+            }
+        }
+
+        Long modifiedRows = null;
+        try {
+            // 只有已打开过的表才在 INNODB_TABLESTATS 中
+            modifiedRows = jdbcTemplate.queryForObject(MODIFIED_COUNTER_SQL, Long.class,
+                schema + "/" + table, schema + "/" + table + "#p#%");
+        } catch (Exception e) {
+            warnings.add("读取 " + table + " 的修改计数失败：" + e.getMessage());
+        }
+
+        Long measuredRows = null;
+        boolean measuredExact = false;
+        long cap = properties.getMaxCountRows();
+        try {
+            measuredRows = measureTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT 1 FROM " + quote(schema) + "." + quote(table) + " LIMIT ?) x", Long.class, cap);
+            measuredExact = measuredRows != null && measuredRows < cap;
+        } catch (Exception e) {
+            warnings.add("实测 " + table + " 行数失败：" + e.getMessage());
+        }
+
+        StatsHealthEvaluator.TableStats stats = new StatsHealthEvaluator.TableStats(table, statsRows[0], lastUpdate[0],
+            measuredRows, measuredExact, modifiedRows, autoRecalc, samplePages);
+        List<StatsHealthEvaluator.IndexStats> indexes = statsRows[0] != null && !partitioned[0]
+            ? collectIndexStats(jdbcTemplate, measureTemplate, schema, table, statsRows[0], warnings)
+            : List.of();
+        return new TableHealth(table, stats, indexes, partitioned[0],
+            StatsHealthEvaluator.evaluate(stats, indexes, thresholds, now));
+    }
+
+    /**
+     * 读取索引统计信息，并对开销可控的索引首列实测不同值数
+     */
+    private List<StatsHealthEvaluator.IndexStats> collectIndexStats(JdbcTemplate jdbcTemplate, JdbcTemplate measureTemplate,
+                                                                    String schema, String table, long statsRows,
+                                                                    List<String> warnings) {
+        // 索引名 -> [首列不同值数, 采样页数, 叶子页数]
+        Map<String, long[]> stats = new LinkedHashMap<>();
+        jdbcTemplate.query(INDEX_STATS_SQL, rs -> {
+            long[] values = stats.computeIfAbsent(rs.getString("index_name"), k -> new long[3]);
+            if ("n_diff_pfx01".equals(rs.getString("stat_name"))) {
+                values[0] = rs.getLong("stat_value");
+                values[1] = rs.getLong("sample_size");
+            } else {
+                values[2] = rs.getLong("stat_value");
+            }
+        }, schema, table);
+
+        Map<String, IndexColumns> columns = new HashMap<>();
+        jdbcTemplate.query(INDEX_COLUMNS_SQL, rs -> {
+            IndexColumns index = columns.computeIfAbsent(rs.getString("INDEX_NAME"), k -> new IndexColumns());
+            index.count++;
+            index.unique = rs.getInt("NON_UNIQUE") == 0;
+            if (rs.getInt("SEQ_IN_INDEX") == 1) {
+                index.leadingColumn = rs.getString("COLUMN_NAME");
+                index.prefix = rs.getObject("SUB_PART") != null;
+                index.nullable = "YES".equals(rs.getString("NULLABLE"));
+            }
+        }, schema, table);
+
+        Map<String, Long> distinctByColumn = new HashMap<>();
+        List<StatsHealthEvaluator.IndexStats> result = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : stats.entrySet()) {
+            IndexColumns index = columns.get(entry.getKey());
+            // 函数索引、前缀索引的首列不是完整列值，无法直接实测
+            if (index == null || index.leadingColumn == null || index.prefix) {
+                continue;
+            }
+            long[] values = entry.getValue();
+            boolean impliedByRows = index.unique && index.count == 1 && !index.nullable;
+            Long measured = null;
+            if (!impliedByRows && (statsRows <= properties.getMaxCountRows() || values[0] <= properties.getLooseScanMaxDistinct())) {
+                measured = distinctByColumn.get(index.leadingColumn);
+                if (measured == null) {
+                    try {
+                        measured = measureTemplate.queryForObject("SELECT COUNT(DISTINCT " + quote(index.leadingColumn)
+                            + ") FROM " + quote(schema) + "." + quote(table), Long.class);
+                        distinctByColumn.put(index.leadingColumn, measured);
+                    } catch (Exception e) {
+                        warnings.add("实测 " + table + "." + index.leadingColumn + " 不同值数失败：" + e.getMessage());
+                    }
+                }
+            }
+            result.add(new StatsHealthEvaluator.IndexStats(entry.getKey(), index.leadingColumn,
+                index.unique && !index.nullable, index.count, values[0], values[1], values[2], measured));
+        }
+        return result;
+    }
+
+    private EstimateDrift explain(String node, TableHealth health, Double estimated, Double actual, Double ratio) {
+        String tableName = health != null ? health.tableName() : null;
+        boolean statsSuspect = health != null && !health.issues().isEmpty();
+        String explanation;
+        if (health == null) {
+            explanation = "无法确定对应的表，请结合执行计划人工判断";
+        } else if (statsSuspect) {
+            explanation = "该表统计信息存在问题（" + health.issues().get(0).detail() + "），先执行 "
+                + health.issues().get(0).recommendation() + " 再复查执行计划";
+        } else {
+            explanation = "该表统计信息与实测值一致，估算偏差更可能来自数据倾斜或列之间的相关性，考虑为过滤列建立直方图";
+        }
+        return new EstimateDrift(node, tableName, estimated != null ? estimated : 0, actual != null ? actual : 0,
+            ratio != null ? ratio : 0, statsSuspect, explanation);
+    }
+
+    private StatsHealthEvaluator.Thresholds thresholds() {
+        return new StatsHealthEvaluator.Thresholds(properties.getRowDriftRatio(), properties.getModifiedRatio(),
+            properties.getStaleDays(), properties.getNdvDriftRatio());
+    }
+
+    private static List<String> recommendations(List<StatsHealthEvaluator.Issue> issues) {
+        return issues.stream().map(StatsHealthEvaluator.Issue::recommendation).distinct().toList();
+    }
+
+    private static String quote(String identifier) {
+        return "`" + identifier.replace("`", "``") + "`";
+    }
+
+    /**
+     * 索引列信息
+     */
+    private static class IndexColumns {
+        private String leadingColumn;
+        private int count;
+        private boolean unique;
+        private boolean prefix;
+        private boolean nullable;
+    }
+}
@@ -0,0 +1,249 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import com.biz.sccba.sqlanalyzer.util.LogHistogram;
+import com.biz.sccba.sqlanalyzer.util.SqlDigestUtils;
+
+import java.util.*;
+
+/**
+ * 慢日志按语句指纹聚合
+ *
+ * 内存有上限：指纹数达到 maxFingerprints 后，新出现的指纹只计入溢出计数，
+ * 每个指纹的分位数使用紧凑的对数分桶直方图
+ *
+ * SqlDigestUtils.normalize 由多次正则替换组成，逐条调用会成为解析瓶颈，
+ * 因此先用单次扫描去掉字面量得到形态键，同一形态键只规范化一次
+ */
+public final class SlowLogAggregator {
+
+    /**
+     * 保存的样例 SQL 最大长度
+     */
+    private static final int MAX_SAMPLE_LENGTH = 4096;
+
+    private final int maxFingerprints;
+    private final Map<String, FingerprintStats> stats = new HashMap<>();
+    private final Map<String, String> normalizedByShape = new HashMap<>();
+    private long entries;
+    private long overflowEntries;
+
+    public SlowLogAggregator(int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    /**
+     * 单个指纹的统计
+     */
+    public static final class FingerprintStats {
+        private final String normalizedSql;
+        private final String sampleSql;
+        private long count;
+        private double totalQueryTime;
+        private double totalLockTime;
+        private long rowsExamined;
+        private long rowsSent;
+        private final LogHistogram queryTimeUs = new LogHistogram();
+        private final LogHistogram lockTimeUs = new LogHistogram();
+
+        FingerprintStats(String normalizedSql, String sampleSql) {
+            this.normalizedSql = normalizedSql;
+            this.sampleSql = sampleSql.length() > MAX_SAMPLE_LENGTH ? sampleSql.substring(0, MAX_SAMPLE_LENGTH) : sampleSql;
+        }
+
+        void add(SlowLogParser.SlowLogEntry entry) {
+            count++;
+            totalQueryTime += entry.queryTime();
+            totalLockTime += entry.lockTime();
+            rowsExamined += entry.rowsExamined();
+            rowsSent += entry.rowsSent();
+            queryTimeUs.record(Math.round(entry.queryTime() * 1_000_000));
+            lockTimeUs.record(Math.round(entry.lockTime() * 1_000_000));
+        }
+
+        void merge(FingerprintStats other) {
+            count += other.count;
+            totalQueryTime += other.totalQueryTime;
+            totalLockTime += other.totalLockTime;
+            rowsExamined += other.rowsExamined;
+            rowsSent += other.rowsSent;
+            queryTimeUs.add(other.queryTimeUs);
+            lockTimeUs.add(other.lockTimeUs);
+        }
+
+        public String getFingerprint() {
+            return SqlDigestUtils.sha256Hex(normalizedSql);
+        }
+
+        public String getNormalizedSql() {
+            return normalizedSql;
+        }
+
+        public String getSampleSql() {
+            return sampleSql;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getTotalQueryTime() {
+            return totalQueryTime;
+        }
+
+        public double getTotalLockTime() {
+            return totalLockTime;
+        }
+
+        public long getRowsExamined() {
+            return rowsExamined;
+        }
+
+        public long getRowsSent() {
+            return rowsSent;
+        }
+
+        /**
+         * Query_time 分位数（毫秒）
+         */
+        public double queryTimeMs(double percentile) {
+            return queryTimeUs.valueAtPercentile(percentile) / 1000.0;
+        }
+
+        /**
+         * Lock_time 分位数（毫秒）
+         */
+        public double lockTimeMs(double percentile) {
+            return lockTimeUs.valueAtPercentile(percentile) / 1000.0;
+        }
+
+        public double maxQueryTimeMs() {
+            return queryTimeUs.getMaxValue() / 1000.0;
+        }
+    }
+
+    /**
+     * 加入一条慢日志
+     */
+    public void add(SlowLogParser.SlowLogEntry entry) {
+        entries++;
+        String normalized = normalize(entry.sql());
+        FingerprintStats fingerprint = stats.get(normalized);
+        if (fingerprint == null) {
+            if (stats.size() >= maxFingerprints) {
+                overflowEntries++;
+                return;
+            }
+            fingerprint = new FingerprintStats(normalized, entry.sql());
+            stats.put(normalized, fingerprint);
+        }
+        fingerprint.add(entry);
+    }
+
+    private String normalize(String sql) {
+        String shape = shapeKey(sql);
+        String normalized = normalizedByShape.get(shape);
+        if (normalized == null) {
+            normalized = SqlDigestUtils.normalize(sql);
+            // 形态键缓存同样受限，超过上限后直接规范化
+            if (normalizedByShape.size() < maxFingerprints * 4) {
+                normalizedByShape.put(shape, normalized);
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * 单次扫描生成形态键：引号字面量和独立的数字替换为 ?，空白合并为一个空格
+     * 形态键相同的语句规范化结果一定相同
+     */
+    static String shapeKey(String sql) {
+        StringBuilder key = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"') {
+                i++;
+                while (i < length) {
+                    char inner = sql.charAt(i);
+                    if (inner == '\\') {
+                        i += 2;
+                    } else if (inner == c) {
+                        i++;
+                        if (i < length && sql.charAt(i) == c) {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        i++;
+                    }
+                }
+                key.append('?');
+            } else if (Character.isDigit(c) && (i == 0 || !isWordChar(sql.charAt(i - 1)))) {
+                int start = i;
+                while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                // 以数字开头的标识符（如 1st_col）保留原文
+                key.append(i < length && isWordChar(sql.charAt(i)) ? sql.substring(start, i) : "?");
+            } else if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                key.append(' ');
+            } else {
+                key.append(c);
+                i++;
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '`' || c == '.';
+    }
+
+    /**
+     * 合并另一个聚合结果（如另一个分块的结果）
+     */
+    public void merge(SlowLogAggregator other) {
+        entries += other.entries;
+        overflowEntries += other.overflowEntries;
+        for (Map.Entry<String, FingerprintStats> entry : other.stats.entrySet()) {
+            FingerprintStats existing = stats.get(entry.getKey());
+            if (existing != null) {
+                existing.merge(entry.getValue());
+            } else if (stats.size() < maxFingerprints) {
+                stats.put(entry.getKey(), entry.getValue());
+            } else {
+                overflowEntries += entry.getValue().getCount();
+            }
+        }
+    }
+
+    /**
+     * 按总 Query_time 降序返回前 n 个指纹
+     */
+    public List<FingerprintStats> top(int n) {
+        return stats.values().stream()
+            .sorted(Comparator.comparingDouble(FingerprintStats::getTotalQueryTime).reversed())
+            .limit(n)
+            .toList();
+    }
+
+    public int getFingerprintCount() {
+        return stats.size();
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * 因指纹数达到上限而未单独统计的条数
+     */
+    public long getOverflowEntries() {
+        return overflowEntries;
+    }
+}
@@ -0,0 +1,180 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.model.SlowQueryFingerprint;
+import com.biz.sccba.sqlanalyzer.repository.SlowQueryFingerprintRepository;
+import com.biz.sccba.sqlanalyzer.service.StatementDigestMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * 慢查询日志导入服务
+ *
+ * 用 SlowLogParser 并行解析一个或多个慢日志文件（可为 GB 级），按语句指纹聚合后，
+ * 把总耗时排名靠前的指纹写入待分析队列（sql_slow_query_fingerprint），
+ * 同一来源的同一指纹多次导入时累加次数与耗时，分位数取最近一次导入的值
+ */
+@Service
+public class SlowLogIngestionService {
+
+    @Autowired
+    private StatementDigestMatcher statementDigestMatcher;
+
+    @Autowired
+    private SlowQueryFingerprintRepository fingerprintRepository;
+
+    @Autowired
+    private AnalyzerConfig.SlowLogProperties properties;
+
+    /**
+     * 导入结果
+     *
+     * @param files 解析的文件数
+     * @param chunks 分块数
+     * @param bytes 解析的字节数
+     * @param entries 慢日志条数
+     * @param fingerprints 不同指纹数
+     * @param overflowEntries 因指纹数达到上限而未单独统计的条数
+     * @param elapsedMs 解析耗时（毫秒）
+     * @param gigabytesPerSecond 解析吞吐（GB/s）
+     * @param queued 写入队列的指纹
+     */
+    public record IngestionReport(
+        int files,
+        int chunks,
+        long bytes,
+        long entries,
+        int fingerprints,
+        long overflowEntries,
+        double elapsedMs,
+        double gigabytesPerSecond,
+        List<SlowQueryFingerprint> queued
+    ) {}
+
+    /**
+     * 解析慢日志并写入待分析队列
+     *
+     * @param paths 慢日志文件或目录（目录取其中的全部文件）
+     * @param sourceName 日志来源
+     * @param topN 写入队列的指纹数（为空时使用配置）
+     */
+    public IngestionReport ingest(List<String> paths, String sourceName, Integer topN) throws IOException, InterruptedException {
+        List<Path> files = resolveFiles(paths);
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("没有找到慢日志文件");
+        }
+
+        int parallelism = properties.getParallelism() != null && properties.getParallelism() > 0
+            ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+        SlowLogParser.ParseResult result = SlowLogParser.parseFiles(files,
+            properties.getChunkSizeMb() * 1024L * 1024L, parallelism, properties.getMaxFingerprints());
+        SlowLogAggregator aggregator = result.aggregator();
+        System.out.println("[SlowLogIngestionService] 解析完成，文件：" + files.size() + "，条数：" + aggregator.getEntries()
+            + "，指纹：" + aggregator.getFingerprintCount()
+            + String.format("，吞吐：%.2f GB/s", result.gigabytesPerSecond()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<SlowQueryFingerprint> queued = new ArrayList<>();
+        for (SlowLogAggregator.FingerprintStats stats : aggregator.top(topN != null && topN > 0 ? topN : properties.getTopN())) {
+            SlowQueryFingerprint fingerprint = fingerprintRepository
+                .findBySourceNameAndFingerprint(sourceName, stats.getFingerprint())
+                .orElseGet(() -> newFingerprint(sourceName, stats));
+            fingerprint.setExecCount(nz(fingerprint.getExecCount()) + stats.getCount());
+            fingerprint.setTotalQueryTimeMs(nz(fingerprint.getTotalQueryTimeMs()) + stats.getTotalQueryTime() * 1000);
+            fingerprint.setP50QueryTimeMs(stats.queryTimeMs(50));
+            fingerprint.setP95QueryTimeMs(stats.queryTimeMs(95));
+            fingerprint.setP99QueryTimeMs(stats.queryTimeMs(99));
+            fingerprint.setMaxQueryTimeMs(Math.max(nz(fingerprint.getMaxQueryTimeMs()), stats.maxQueryTimeMs()));
+            fingerprint.setP95LockTimeMs(stats.lockTimeMs(95));
+            fingerprint.setRowsExamined(nz(fingerprint.getRowsExamined()) + stats.getRowsExamined());
+            fingerprint.setRowsSent(nz(fingerprint.getRowsSent()) + stats.getRowsSent());
+            fingerprint.setIngestedAt(now);
+            queued.add(fingerprint);
+        }
+        fingerprintRepository.saveAll(queued);
+
+        return new IngestionReport(result.files(), result.chunks(), result.bytes(), aggregator.getEntries(),
+            aggregator.getFingerprintCount(), aggregator.getOverflowEntries(), result.elapsedNanos() / 1_000_000.0,
+            result.gigabytesPerSecond(), queued);
+    }
+
+    /**
+     * 查询待分析队列
+     *
+     * @param status 状态（为空时取 PENDING）
+     * @param limit 返回条数
+     */
+    public List<SlowQueryFingerprint> getQueue(SlowQueryFingerprint.Status status, int limit) {
+        return fingerprintRepository.findByStatusOrderByTotalQueryTimeMsDesc(
+            status != null ? status : SlowQueryFingerprint.Status.PENDING, PageRequest.of(0, Math.max(1, limit)));
+    }
+
+    /**
+     * 更新队列中指纹的状态
+     */
+    public SlowQueryFingerprint updateStatus(Long id, SlowQueryFingerprint.Status status) {
+        SlowQueryFingerprint fingerprint = fingerprintRepository.findById(id)
+            .orElseThrow(() -> new IllegalArgumentException("慢查询指纹不存在: " + id));
+        fingerprint.setStatus(status);
+        fingerprint.setAnalyzedAt(status == SlowQueryFingerprint.Status.PENDING ? null : LocalDateTime.now());
+        return fingerprintRepository.save(fingerprint);
+    }
+
+    /**
+     * 解析文件列表，只允许读取配置目录下的文件
+     */
+    private List<Path> resolveFiles(List<String> paths) throws IOException {
+        List<Path> allowed = new ArrayList<>();
+        for (String directory : properties.getAllowedDirectories()) {
+            Path path = Path.of(directory);
+            allowed.add(Files.exists(path) ? path.toRealPath() : path.toAbsolutePath().normalize());
+        }
+
+        List<Path> files = new ArrayList<>();
+        for (String value : paths) {
+            Path path = Path.of(value.trim()).toRealPath();
+            if (allowed.stream().noneMatch(path::startsWith)) {
+                throw new IllegalArgumentException("不允许读取该路径: " + value + "，允许的目录: " + properties.getAllowedDirectories());
+            }
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> children = Files.list(path)) {
+                    children.filter(Files::isRegularFile).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+        }
+        return files;
+    }
+
+    private SlowQueryFingerprint newFingerprint(String sourceName, SlowLogAggregator.FingerprintStats stats) {
+        SlowQueryFingerprint fingerprint = new SlowQueryFingerprint();
+        fingerprint.setSourceName(sourceName);
+        fingerprint.setFingerprint(stats.getFingerprint());
+        fingerprint.setNormalizedSql(stats.getNormalizedSql());
+        fingerprint.setSampleSql(stats.getSampleSql());
+        ParsedSqlQuery query = statementDigestMatcher.match(stats.getSampleSql());
+        if (query != null) {
+            fingerprint.setQueryId(query.getId());
+            fingerprint.setMapperId(query.getMapperNamespace() + "." + query.getStatementId());
+        }
+        return fingerprint;
+    }
+
+    private static long nz(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static double nz(Double value) {
+        return value != null ? value : 0.0;
+    }
+}
@@ -0,0 +1,295 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * MySQL 慢查询日志解析器
+ *
+ * 文件通过 FileChannel.map 映射到内存，按块并行解析，不把整个文件读入堆：
+ * - 每个文件按 chunkSize 切块，块的起点对齐到下一个 "# User@Host:" 行，保证每条记录完整落在一个块内
+ * - 所有文件的所有块提交到同一个线程池，每个块产出独立的聚合结果，完成后合并
+ *
+ * 每条记录的格式：
+ * <pre>
+ * # Time: 2024-01-01T00:00:00.123456Z
+ * # User@Host: app[app] @ 10.0.0.1 []  Id: 8
+ * # Query_time: 2.000201  Lock_time: 0.000010 Rows_sent: 1  Rows_examined: 100000
+ * SET timestamp=1700000000;
+ * SELECT ...;
+ * </pre>
+ */
+public final class SlowLogParser {
+
+    /**
+     * 默认分块大小：64MB
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private static final byte[] USER_HOST = "# User@Host:".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] TIME = "# Time:".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] QUERY_TIME = "# Query_time:".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] SET_TIMESTAMP = "SET timestamp=".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] USE = "use ".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] TCP_PORT = "Tcp port:".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] TIME_HEADER = "Time ".getBytes(StandardCharsets.ISO_8859_1);
+
+    /**
+     * 对齐块边界时每次向后查找的窗口大小
+     */
+    private static final int BOUNDARY_WINDOW = 1024 * 1024;
+
+    private SlowLogParser() {
+    }
+
+    /**
+     * 一条慢日志
+     *
+     * @param queryTime Query_time（秒）
+     * @param lockTime Lock_time（秒）
+     * @param rowsSent Rows_sent
+     * @param rowsExamined Rows_examined
+     * @param sql 语句文本（不含 SET timestamp 和 use）
+     */
+    public record SlowLogEntry(double queryTime, double lockTime, long rowsSent, long rowsExamined, String sql) {
+    }
+
+    /**
+     * 解析结果
+     *
+     * @param aggregator 按指纹的聚合结果
+     * @param bytes 解析的字节数
+     * @param files 文件数
+     * @param chunks 分块数
+     * @param elapsedNanos 耗时（纳秒）
+     */
+    public record ParseResult(SlowLogAggregator aggregator, long bytes, int files, int chunks, long elapsedNanos) {
+
+        /**
+         * 解析吞吐（GB/s）
+         */
+        public double gigabytesPerSecond() {
+            return elapsedNanos > 0 ? bytes / (double) elapsedNanos : 0;
+        }
+    }
+
+    /**
+     * 并行解析多个慢日志文件
+     *
+     * @param files 文件列表
+     * @param chunkSize 分块大小（字节）
+     * @param parallelism 并行度
+     * @param maxFingerprints 每个聚合结果最多保留的指纹数
+     */
+    public static ParseResult parseFiles(List<Path> files, long chunkSize, int parallelism, int maxFingerprints)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        List<FileChannel> channels = new ArrayList<>();
+        try {
+            List<Future<SlowLogAggregator>> futures = new ArrayList<>();
+            long bytes = 0;
+            for (Path file : files) {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                channels.add(channel);
+                long size = channel.size();
+                bytes += size;
+                for (long[] chunk : split(channel, size, chunkSize)) {
+                    futures.add(executor.submit(() -> {
+                        SlowLogAggregator aggregator = new SlowLogAggregator(maxFingerprints);
+                        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+                        parse(buffer, aggregator::add);
+                        return aggregator;
+                    }));
+                }
+            }
+
+            SlowLogAggregator result = new SlowLogAggregator(maxFingerprints);
+            for (Future<SlowLogAggregator> future : futures) {
+                try {
+                    result.merge(future.get());
+                } catch (ExecutionException e) {
+                    throw new IOException("解析慢日志失败：" + e.getCause().getMessage(), e.getCause());
+                }
+            }
+            return new ParseResult(result, bytes, files.size(), futures.size(), System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * 把文件切成若干块，除第一个块外，每个块都从 "# User@Host:" 行开始
+     *
+     * @return 每个块的 [起点, 终点)
+     */
+    static List<long[]> split(FileChannel channel, long size, long chunkSize) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        // 单个块按 MappedByteBuffer 映射，不能超过 2GB
+        long step = Math.max(1, Math.min(chunkSize, Integer.MAX_VALUE));
+        long start = 0;
+        while (start < size) {
+            long nominalEnd = start + step;
+            long end = nominalEnd >= size ? size : findEntryStart(channel, nominalEnd, size);
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("慢日志中存在超过 2GB 的单条记录，无法分块");
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * 从 from 开始查找第一个 "# User@Host:" 行的起点，找不到时返回文件大小
+     */
+    private static long findEntryStart(FileChannel channel, long from, long size) throws IOException {
+        long position = from;
+        while (position < size) {
+            int length = (int) Math.min(BOUNDARY_WINDOW + USER_HOST.length, size - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i + USER_HOST.length <= length; i++) {
+                boolean lineStart = position + i == 0 || (i > 0 ? window.get(i - 1) == '\n' : previousIsNewline(channel, position));
+                if (lineStart && startsWith(window, i, length, USER_HOST)) {
+                    return position + i;
+                }
+            }
+            position += BOUNDARY_WINDOW;
+        }
+        return size;
+    }
+
+    private static boolean previousIsNewline(FileChannel channel, long position) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        channel.read(one, position - 1);
+        return one.get(0) == '\n';
+    }
+
+    /**
+     * 解析缓冲区 [position, limit) 中的记录
+     */
+    public static void parse(ByteBuffer buffer, Consumer<SlowLogEntry> consumer) {
+        int limit = buffer.limit();
+        int lineStart = buffer.position();
+
+        boolean inEntry = false;
+        double queryTime = 0;
+        double lockTime = 0;
+        long rowsSent = 0;
+        long rowsExamined = 0;
+        StringBuilder sql = new StringBuilder();
+
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+
+            if (buffer.get(lineStart) == '#') {
+                if (startsWith(buffer, lineStart, contentEnd, USER_HOST) || startsWith(buffer, lineStart, contentEnd, TIME)) {
+                    if (inEntry) {
+                        emit(consumer, queryTime, lockTime, rowsSent, rowsExamined, sql);
+                        inEntry = false;
+                    }
+                } else if (startsWith(buffer, lineStart, contentEnd, QUERY_TIME)) {
+                    if (inEntry) {
+                        emit(consumer, queryTime, lockTime, rowsSent, rowsExamined, sql);
+                    }
+                    String line = ascii(buffer, lineStart, contentEnd);
+                    queryTime = doubleField(line, "Query_time:");
+                    lockTime = doubleField(line, "Lock_time:");
+                    rowsSent = (long) doubleField(line, "Rows_sent:");
+                    rowsExamined = (long) doubleField(line, "Rows_examined:");
+                    sql.setLength(0);
+                    inEntry = true;
+                }
+                // 其他 # 开头的行（如 log_slow_extra 的附加字段）忽略
+            } else if (inEntry && contentEnd > lineStart && !isSessionOrHeaderLine(buffer, lineStart, contentEnd)) {
+                if (!sql.isEmpty()) {
+                    sql.append('\n');
+                }
+                sql.append(utf8(buffer, lineStart, contentEnd));
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (inEntry) {
+            emit(consumer, queryTime, lockTime, rowsSent, rowsExamined, sql);
+        }
+    }
+
+    private static void emit(Consumer<SlowLogEntry> consumer, double queryTime, double lockTime,
+                             long rowsSent, long rowsExamined, StringBuilder sql) {
+        if (sql.isEmpty()) {
+            return;
+        }
+        consumer.accept(new SlowLogEntry(queryTime, lockTime, rowsSent, rowsExamined, sql.toString()));
+    }
+
+    /**
+     * SET timestamp、use 语句以及实例重启时写入的文件头不属于被记录的语句
+     */
+    private static boolean isSessionOrHeaderLine(ByteBuffer buffer, int start, int end) {
+        if (startsWith(buffer, start, end, SET_TIMESTAMP) || startsWith(buffer, start, end, TCP_PORT)) {
+            return true;
+        }
+        if (startsWith(buffer, start, end, USE) && buffer.get(end - 1) == ';' && end - start < 200) {
+            return true;
+        }
+        String head = ascii(buffer, start, Math.min(end, start + 200));
+        return (startsWith(buffer, start, end, TIME_HEADER) && head.contains("Id Command"))
+            || head.contains(", Version: ") && head.endsWith("started with:");
+    }
+
+    private static double doubleField(String line, String name) {
+        int index = line.indexOf(name);
+        if (index < 0) {
+            return 0;
+        }
+        int start = index + name.length();
+        while (start < line.length() && line.charAt(start) == ' ') {
+            start++;
+        }
+        int end = start;
+        while (end < line.length() && (Character.isDigit(line.charAt(end)) || line.charAt(end) == '.')) {
+            end++;
+        }
+        return end > start ? Double.parseDouble(line.substring(start, end)) : 0;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String ascii(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static String utf8(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,276 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.model.StatementDigestStat;
+import com.biz.sccba.sqlanalyzer.repository.StatementDigestStatRepository;
+import com.biz.sccba.sqlanalyzer.service.StatementDigestMatcher;
+import com.biz.sccba.sqlanalyzer.service.TestEnvironmentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * performance_schema 语句摘要采集器
+ *
+ * MySQL 在 events_statements_summary_by_digest 中按语句形态累计了执行次数、耗时、扫描行数等指标。
+ * 采集器定时读取该表，与上一次快照相减得到区间增量并保存，按区间增量排序找出最"伤"的语句，
+ * 再通过 {@link StatementDigestMatcher} 把 DIGEST_TEXT 关联到已解析的 Mapper 语句
+ *
+ * 上一次快照只保存在内存中，应用启动后的第一次采集只建立基线
+ */
+@Service
+public class StatementDigestCollector {
+
+    /**
+     * 排序方式
+     */
+    public enum OrderBy {
+        TOTAL_LATENCY,
+        EXEC_COUNT,
+        ROWS_EXAMINED,
+        TMP_DISK_TABLES,
+        NO_INDEX_USED
+    }
+
+    /**
+     * SUM_TIMER_WAIT 是 BIGINT UNSIGNED 皮秒，长期运行的实例会超出 long 范围，在 SQL 中先换算为微秒
+     */
+    private static final String DIGEST_SQL = """
+        SELECT SCHEMA_NAME, DIGEST, DIGEST_TEXT, COUNT_STAR, SUM_TIMER_WAIT DIV 1000000 AS SUM_TIMER_WAIT_US,
+               SUM_ROWS_EXAMINED, SUM_ROWS_SENT, SUM_CREATED_TMP_TABLES, SUM_CREATED_TMP_DISK_TABLES,
+               SUM_NO_INDEX_USED, SUM_NO_GOOD_INDEX_USED, SUM_SORT_MERGE_PASSES, SUM_ERRORS
+        FROM performance_schema.events_statements_summary_by_digest
+        WHERE DIGEST IS NOT NULL
+          AND (SCHEMA_NAME IS NULL OR SCHEMA_NAME NOT IN ('performance_schema', 'information_schema', 'mysql', 'sys'))
+        """;
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private StatementDigestMatcher statementDigestMatcher;
+
+    @Autowired
+    private StatementDigestStatRepository digestStatRepository;
+
+    @Autowired
+    private AnalyzerConfig.DigestCollectorProperties properties;
+
+    /**
+     * 数据源 -> (库名 + 摘要 -> 上一次的累计计数)
+     */
+    private final Map<String, Map<String, DigestCounters>> previousSnapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 数据源 -> 上一次采集时间
+     */
+    private final Map<String, LocalDateTime> previousCollectedAt = new ConcurrentHashMap<>();
+
+    /**
+     * 问题语句（多个区间累加后的结果）
+     *
+     * @param schemaName 库名
+     * @param digest MySQL 摘要
+     * @param digestText 规范化语句
+     * @param mapperId 关联的 Mapper ID
+     * @param queryId 关联的 ParsedSqlQuery ID
+     * @param execCount 执行次数
+     * @param totalLatencyMs 总耗时（毫秒）
+     * @param avgLatencyMs 平均耗时（毫秒）
+     * @param rowsExamined 扫描行数
+     * @param rowsSent 返回行数
+     * @param examinedPerSent 每返回一行扫描的行数
+     * @param tmpDiskTables 磁盘临时表数
+     * @param noIndexUsed 未使用索引的执行次数
+     * @param noIndexUsedRatio 未使用索引的执行比例
+     * @param errors 出错次数
+     */
+    public record TopStatement(
+        String schemaName,
+        String digest,
+        String digestText,
+        String mapperId,
+        Long queryId,
+        long execCount,
+        double totalLatencyMs,
+        double avgLatencyMs,
+        long rowsExamined,
+        long rowsSent,
+        Double examinedPerSent,
+        long tmpDiskTables,
+        long noIndexUsed,
+        double noIndexUsedRatio,
+        long errors
+    ) {}
+
+    /**
+     * 定时采集并清理过期数据
+     */
+    @Scheduled(fixedDelayString = "${spring.analyzer.digest-collector.interval-ms:300000}",
+        initialDelayString = "${spring.analyzer.digest-collector.interval-ms:300000}")
+    public void scheduledCollect() {
+        if (!Boolean.TRUE.equals(properties.getEnabled())) {
+            return;
+        }
+        for (String datasourceName : properties.getDatasources()) {
+            try {
+                collect(datasourceName);
+            } catch (Exception e) {
+                System.err.println("[StatementDigestCollector] 采集失败，数据源：" + datasourceName + "，错误：" + e.getMessage());
+            }
+        }
+        int deleted = digestStatRepository.deleteByIntervalEndBefore(
+            LocalDateTime.now().minusDays(properties.getRetentionDays()));
+        if (deleted > 0) {
+            System.out.println("[StatementDigestCollector] 清理过期区间统计：" + deleted + " 条");
+        }
+    }
+
+    /**
+     * 采集一次并保存与上一次快照的增量
+     *
+     * @return 本次保存的区间统计条数（首次采集只建立基线，返回 0）
+     */
+    public int collect(String datasourceName) {
+        JdbcTemplate jdbcTemplate = testEnvironmentService.getJdbcTemplate(datasourceName);
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<String, DigestCounters> current = new HashMap<>();
+        Map<String, String[]> texts = new HashMap<>();
+        jdbcTemplate.query(DIGEST_SQL, rs -> {
+            String schema = rs.getString("SCHEMA_NAME");
+            String digest = rs.getString("DIGEST");
+            String key = schema + "/" + digest;
+            current.put(key, new DigestCounters(
+                rs.getLong("COUNT_STAR"),
+                rs.getLong("SUM_TIMER_WAIT_US"),
+                rs.getLong("SUM_ROWS_EXAMINED"),
+                rs.getLong("SUM_ROWS_SENT"),
+                rs.getLong("SUM_CREATED_TMP_TABLES"),
+                rs.getLong("SUM_CREATED_TMP_DISK_TABLES"),
+                rs.getLong("SUM_NO_INDEX_USED"),
+                rs.getLong("SUM_NO_GOOD_INDEX_USED"),
+                rs.getLong("SUM_SORT_MERGE_PASSES"),
+                rs.getLong("SUM_ERRORS")));
+            texts.put(key, new String[]{schema, digest, rs.getString("DIGEST_TEXT")});
+        });
+
+        Map<String, DigestCounters> previous = previousSnapshots.put(datasourceName, current);
+        LocalDateTime intervalStart = previousCollectedAt.put(datasourceName, now);
+        if (previous == null) {
+            System.out.println("[StatementDigestCollector] 建立基线，数据源：" + datasourceName + "，摘要数：" + current.size());
+            return 0;
+        }
+
+        List<StatementDigestStat> stats = new ArrayList<>();
+        for (Map.Entry<String, DigestCounters> entry : current.entrySet()) {
+            DigestCounters delta = entry.getValue().minus(previous.get(entry.getKey()));
+            if (delta.execCount() <= 0) {
+                continue;
+            }
+            String[] text = texts.get(entry.getKey());
+            ParsedSqlQuery query = text[2] != null ? statementDigestMatcher.match(text[2]) : null;
+
+            StatementDigestStat stat = new StatementDigestStat();
+            stat.setDatasourceName(datasourceName);
+            stat.setSchemaName(text[0]);
+            stat.setDigest(text[1]);
+            stat.setDigestText(text[2]);
+            stat.setQueryId(query != null ? query.getId() : null);
+            stat.setMapperId(query != null ? query.getMapperNamespace() + "." + query.getStatementId() : null);
+            stat.setIntervalStart(intervalStart);
+            stat.setIntervalEnd(now);
+            stat.setExecCount(delta.execCount());
+            stat.setTotalLatencyMs(delta.totalLatencyUs() / 1000.0);
+            stat.setRowsExamined(delta.rowsExamined());
+            stat.setRowsSent(delta.rowsSent());
+            stat.setTmpTables(delta.tmpTables());
+            stat.setTmpDiskTables(delta.tmpDiskTables());
+            stat.setNoIndexUsed(delta.noIndexUsed());
+            stat.setNoGoodIndexUsed(delta.noGoodIndexUsed());
+            stat.setSortMergePasses(delta.sortMergePasses());
+            stat.setErrors(delta.errors());
+            stats.add(stat);
+        }
+        digestStatRepository.saveAll(stats);
+
+        System.out.println("[StatementDigestCollector] 采集完成，数据源：" + datasourceName + "，活跃摘要：" + stats.size());
+        return stats.size();
+    }
+
+    /**
+     * 按最近若干小时的累计增量排序，返回问题语句
+     *
+     * @param datasourceName 数据源名称
+     * @param hours 最近多少小时
+     * @param orderBy 排序方式
+     * @param limit 返回条数（为空时使用 top-n 配置）
+     */
+    public List<TopStatement> getTopStatements(String datasourceName, int hours, OrderBy orderBy, Integer limit) {
+        List<StatementDigestStat> stats = digestStatRepository.findByDatasourceNameAndIntervalEndAfter(
+            datasourceName, LocalDateTime.now().minusHours(hours));
+
+        Map<String, DigestCounters> totals = new LinkedHashMap<>();
+        Map<String, StatementDigestStat> latest = new HashMap<>();
+        for (StatementDigestStat stat : stats) {
+            String key = stat.getSchemaName() + "/" + stat.getDigest();
+            DigestCounters counters = new DigestCounters(
+                nz(stat.getExecCount()), Math.round(nz(stat.getTotalLatencyMs()) * 1_000_000_000.0),
+                nz(stat.getRowsExamined()), nz(stat.getRowsSent()), nz(stat.getTmpTables()),
+                nz(stat.getTmpDiskTables()), nz(stat.getNoIndexUsed()), nz(stat.getNoGoodIndexUsed()),
+                nz(stat.getSortMergePasses()), nz(stat.getErrors()));
+            totals.merge(key, counters, DigestCounters::plus);
+            latest.merge(key, stat, (a, b) -> b.getIntervalEnd().isAfter(a.getIntervalEnd()) ? b : a);
+        }
+
+        Comparator<TopStatement> comparator = switch (orderBy != null ? orderBy : OrderBy.TOTAL_LATENCY) {
+            case TOTAL_LATENCY -> Comparator.comparingDouble(TopStatement::totalLatencyMs);
+            case EXEC_COUNT -> Comparator.comparingLong(TopStatement::execCount);
+            case ROWS_EXAMINED -> Comparator.comparingLong(TopStatement::rowsExamined);
+            case TMP_DISK_TABLES -> Comparator.comparingLong(TopStatement::tmpDiskTables);
+            case NO_INDEX_USED -> Comparator.comparingLong(TopStatement::noIndexUsed);
+        };
+
+        return totals.entrySet().stream()
+            .map(entry -> toTopStatement(latest.get(entry.getKey()), entry.getValue()))
+            .sorted(comparator.reversed())
+            .limit(limit != null && limit > 0 ? limit : properties.getTopN())
+            .toList();
+    }
+
+    private TopStatement toTopStatement(StatementDigestStat stat, DigestCounters counters) {
+        double totalMs = counters.totalLatencyUs() / 1000.0;
+        long exec = Math.max(1, counters.execCount());
+        return new TopStatement(
+            stat.getSchemaName(),
+            stat.getDigest(),
+            stat.getDigestText(),
+            stat.getMapperId(),
+            stat.getQueryId(),
+            counters.execCount(),
+            totalMs,
+            totalMs / exec,
+            counters.rowsExamined(),
+            counters.rowsSent(),
+            counters.rowsSent() > 0 ? (double) counters.rowsExamined() / counters.rowsSent() : null,
+            counters.tmpDiskTables(),
+            counters.noIndexUsed(),
+            (double) counters.noIndexUsed() / exec,
+            counters.errors()
+        );
+    }
+
+    private static long nz(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static double nz(Double value) {
+        return value != null ? value : 0.0;
+    }
+}
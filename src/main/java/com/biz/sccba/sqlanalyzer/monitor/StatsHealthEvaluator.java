@@ -0,0 +1,221 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 优化器统计信息健康度判定
+ *
+ * 把 mysql.innodb_table_stats / innodb_index_stats 中的持久化统计信息与实测值、
+ * 上次统计以来的修改行数对比，找出过期或偏差过大的统计信息，并给出 ANALYZE TABLE
+ * 或调整 STATS_SAMPLE_PAGES 的建议。本类只做判定，不访问数据库
+ */
+public final class StatsHealthEvaluator {
+
+    /**
+     * 偏差超过该倍数时定为高严重度
+     */
+    private static final double HIGH_DRIFT_RATIO = 10.0;
+
+    /**
+     * 建议的最小采样页数
+     */
+    private static final long MIN_SUGGESTED_SAMPLE_PAGES = 64;
+
+    private StatsHealthEvaluator() {
+    }
+
+    /**
+     * 严重程度
+     */
+    public enum Severity {
+        HIGH,
+        MEDIUM,
+        LOW
+    }
+
+    /**
+     * 判定阈值
+     *
+     * @param rowDriftRatio 统计行数与实测行数偏差超过该倍数时告警
+     * @param modifiedRatio 上次统计以来修改的行数占比超过该值时告警
+     * @param staleDays 统计信息超过该天数未更新且期间有修改时提示
+     * @param ndvDriftRatio 索引首列不同值数（n_diff_pfx01）与实测值偏差超过该倍数时告警
+     */
+    public record Thresholds(double rowDriftRatio, double modifiedRatio, int staleDays, double ndvDriftRatio) {}
+
+    /**
+     * 表级统计信息与实测值
+     *
+     * @param tableName 表名
+     * @param statsRows innodb_table_stats.n_rows，没有持久化统计信息时为 null
+     * @param lastUpdate innodb_table_stats.last_update
+     * @param measuredRows 实测行数，未测量时为 null
+     * @param measuredExact 实测行数是否精确（计数达到上限时只是下界）
+     * @param modifiedRows 上次统计以来修改的行数（INNODB_TABLESTATS.MODIFIED_COUNTER），未知时为 null
+     * @param autoRecalc 是否开启 STATS_AUTO_RECALC
+     * @param samplePages 统计采样页数（STATS_SAMPLE_PAGES）
+     */
+    public record TableStats(
+        String tableName,
+        Long statsRows,
+        LocalDateTime lastUpdate,
+        Long measuredRows,
+        boolean measuredExact,
+        Long modifiedRows,
+        boolean autoRecalc,
+        int samplePages
+    ) {}
+
+    /**
+     * 索引统计信息与实测值
+     *
+     * @param indexName 索引名
+     * @param leadingColumn 首列
+     * @param unique 是否唯一
+     * @param columnCount 索引列数
+     * @param leadingDistinct 首列不同值数估算（n_diff_pfx01）
+     * @param sampledPages 统计时采样的叶子页数（sample_size）
+     * @param leafPages 叶子页数（n_leaf_pages）
+     * @param measuredDistinct 首列实测不同值数，未测量时为 null
+     */
+    public record IndexStats(
+        String indexName,
+        String leadingColumn,
+        boolean unique,
+        int columnCount,
+        long leadingDistinct,
+        long sampledPages,
+        long leafPages,
+        Long measuredDistinct
+    ) {}
+
+    /**
+     * 一项统计信息问题
+     *
+     * @param severity 严重程度
+     * @param kind 问题类型（NO_PERSISTENT_STATS、ROW_COUNT_DRIFT、MODIFIED_SINCE_ANALYZE、STALE_STATS、NDV_DRIFT）
+     * @param tableName 表名
+     * @param indexName 索引名，表级问题时为 null
+     * @param detail 中文描述
+     * @param recommendation 建议执行的语句或操作
+     */
+    public record Issue(
+        Severity severity,
+        String kind,
+        String tableName,
+        String indexName,
+        String detail,
+        String recommendation
+    ) {}
+
+    /**
+     * 两个值之间的偏差倍数（两者都至少按 1 计算）
+     */
+    public static double drift(long a, long b) {
+        double x = Math.max(a, 1);
+        double y = Math.max(b, 1);
+        return Math.max(x, y) / Math.min(x, y);
+    }
+
+    /**
+     * 判定一个表及其索引的统计信息问题，按严重程度排序
+     */
+    public static List<Issue> evaluate(TableStats table, List<IndexStats> indexes, Thresholds thresholds, LocalDateTime now) {
+        List<Issue> issues = new ArrayList<>();
+        String name = table.tableName();
+        String analyze = "ANALYZE TABLE `" + name + "`";
+
+        if (table.statsRows() == null) {
+            issues.add(new Issue(Severity.MEDIUM, "NO_PERSISTENT_STATS", name, null,
+                "没有持久化统计信息，优化器每次打开表时临时采样，执行计划可能在重启后变化",
+                analyze + "；如关闭了持久化统计，执行 ALTER TABLE `" + name + "` STATS_PERSISTENT=1"));
+            return issues;
+        }
+
+        long statsRows = table.statsRows();
+        boolean rowsSuspect = false;
+        if (table.measuredRows() != null) {
+            long measured = table.measuredRows();
+            double ratio = drift(statsRows, measured);
+            // 计数达到上限时实测值只是下界，只能判断统计值偏小
+            boolean drifted = table.measuredExact() ? ratio > thresholds.rowDriftRatio()
+                : measured > statsRows * thresholds.rowDriftRatio();
+            if (drifted) {
+                rowsSuspect = true;
+                issues.add(new Issue(ratio >= HIGH_DRIFT_RATIO ? Severity.HIGH : Severity.MEDIUM, "ROW_COUNT_DRIFT", name, null,
+                    String.format("统计行数 %d，实测%s %d 行（偏差 %.1f 倍），基于行数的代价估算都会失真",
+                        statsRows, table.measuredExact() ? "" : "至少", measured, ratio),
+                    analyze));
+            }
+        }
+
+        if (table.modifiedRows() != null) {
+            double modifiedShare = (double) table.modifiedRows() / Math.max(statsRows, 1);
+            if (modifiedShare > thresholds.modifiedRatio()) {
+                rowsSuspect = true;
+                if (table.autoRecalc()) {
+                    issues.add(new Issue(Severity.MEDIUM, "MODIFIED_SINCE_ANALYZE", name, null,
+                        String.format("上次统计以来已修改 %d 行（占 %.1f%%），超过自动重新统计阈值但统计信息尚未更新",
+                            table.modifiedRows(), modifiedShare * 100),
+                        analyze));
+                } else {
+                    issues.add(new Issue(Severity.HIGH, "MODIFIED_SINCE_ANALYZE", name, null,
+                        String.format("已关闭 STATS_AUTO_RECALC，上次统计以来已修改 %d 行（占 %.1f%%）",
+                            table.modifiedRows(), modifiedShare * 100),
+                        analyze + "，并在批量变更后的作业中固定执行；或 ALTER TABLE `" + name + "` STATS_AUTO_RECALC=1"));
+                }
+            }
+        }
+
+        if (!rowsSuspect && table.lastUpdate() != null) {
+            long days = Duration.between(table.lastUpdate(), now).toDays();
+            boolean modifiedSince = table.modifiedRows() == null
+                || table.modifiedRows() > statsRows * thresholds.modifiedRatio() / 10;
+            if (days > thresholds.staleDays() && modifiedSince) {
+                issues.add(new Issue(Severity.LOW, "STALE_STATS", name, null,
+                    table.modifiedRows() != null
+                        ? String.format("统计信息已 %d 天未更新，期间修改 %d 行", days, table.modifiedRows())
+                        : String.format("统计信息已 %d 天未更新", days),
+                    analyze));
+            }
+        }
+
+        for (IndexStats index : indexes) {
+            Long expected = index.measuredDistinct();
+            // 单列唯一索引首列的不同值数就是行数
+            if (expected == null && index.unique() && index.columnCount() == 1
+                && table.measuredRows() != null && table.measuredExact()) {
+                expected = table.measuredRows();
+            }
+            if (expected == null) {
+                continue;
+            }
+            double ratio = drift(index.leadingDistinct(), expected);
+            if (ratio <= thresholds.ndvDriftRatio()) {
+                continue;
+            }
+            String recommendation;
+            if (rowsSuspect) {
+                recommendation = analyze + " 后复查";
+            } else if (index.sampledPages() > 0 && index.sampledPages() < index.leafPages()) {
+                long suggested = Math.min(index.leafPages(),
+                    Math.max(Math.max(table.samplePages(), index.sampledPages()) * 4, MIN_SUGGESTED_SAMPLE_PAGES));
+                recommendation = "ALTER TABLE `" + name + "` STATS_SAMPLE_PAGES=" + suggested + "; " + analyze;
+            } else {
+                recommendation = analyze;
+            }
+            issues.add(new Issue(ratio >= HIGH_DRIFT_RATIO ? Severity.HIGH : Severity.MEDIUM, "NDV_DRIFT", name, index.indexName(),
+                String.format("索引 %s 首列 %s 的不同值数估算为 %d，实测 %d（偏差 %.1f 倍，采样 %d / %d 个叶子页），索引选择性判断会失真",
+                    index.indexName(), index.leadingColumn(), index.leadingDistinct(), expected, ratio,
+                    index.sampledPages(), index.leafPages()),
+                recommendation));
+        }
+
+        issues.sort(Comparator.comparing(Issue::severity));
+        return issues;
+    }
+}
@@ -0,0 +1,30 @@
+package com.biz.sccba.sqlanalyzer.repository;
+
+import com.biz.sccba.sqlanalyzer.model.BenchmarkResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 基准测试结果 Repository
+ */
+@Repository
+public interface BenchmarkResultRepository extends JpaRepository<BenchmarkResult, Long> {
+
+    /**
+     * 查找语句在指定数据源上的最近一次基准测试结果
+     */
+    Optional<BenchmarkResult> findFirstBySqlDigestAndDatasourceNameOrderByCreatedAtDesc(String sqlDigest, String datasourceName);
+
+    /**
+     * 查找语句的基准测试历史
+     */
+    List<BenchmarkResult> findBySqlDigestOrderByCreatedAtDesc(String sqlDigest);
+
+    /**
+     * 查找已解析查询的基准测试历史
+     */
+    List<BenchmarkResult> findByQueryIdOrderByCreatedAtDesc(Long queryId);
+}
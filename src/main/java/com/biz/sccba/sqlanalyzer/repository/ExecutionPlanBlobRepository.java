@@ -0,0 +1,32 @@
+package com.biz.sccba.sqlanalyzer.repository;
+
+import com.biz.sccba.sqlanalyzer.model.ExecutionPlanBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * 执行计划内容 Repository
+ */
+@Repository
+public interface ExecutionPlanBlobRepository extends JpaRepository<ExecutionPlanBlob, Long> {
+
+    /**
+     * 按内容摘要查找（走唯一索引 uk_plan_blob_hash）
+     */
+    Optional<ExecutionPlanBlob> findByContentHash(String contentHash);
+
+    /**
+     * 删除没有被任何缓存条目或计划快照引用的计划内容
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ExecutionPlanBlob b WHERE NOT EXISTS "
+        + "(SELECT 1 FROM ExecutionPlanCacheEntry e WHERE e.planContentHash = b.contentHash) "
+        + "AND NOT EXISTS (SELECT 1 FROM PlanSnapshot s WHERE s.planContentHash = b.contentHash)")
+    int deleteOrphans();
+}
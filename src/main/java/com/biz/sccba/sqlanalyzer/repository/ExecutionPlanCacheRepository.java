@@ -0,0 +1,71 @@
+package com.biz.sccba.sqlanalyzer.repository;
+
+import com.biz.sccba.sqlanalyzer.model.ExecutionPlanCacheEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 执行计划缓存 Repository
+ */
+@Repository
+public interface ExecutionPlanCacheRepository extends JpaRepository<ExecutionPlanCacheEntry, Long> {
+
+    /**
+     * 按缓存键查找（走唯一索引 uk_plan_cache_key）
+     */
+    Optional<ExecutionPlanCacheEntry> findBySqlHashAndDatasourceNameAndSchemaVersion(
+        String sqlHash, String datasourceName, String schemaVersion);
+
+    /**
+     * 按 SQL 指纹查找所有缓存条目
+     */
+    List<ExecutionPlanCacheEntry> findBySqlDigest(String sqlDigest);
+
+    /**
+     * 记录一次命中
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ExecutionPlanCacheEntry e SET e.hitCount = e.hitCount + 1, e.lastAccessedAt = :now WHERE e.id = :id")
+    int recordHit(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * 删除创建时间早于指定时间的条目
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ExecutionPlanCacheEntry e WHERE e.createdAt < :cutoff")
+    int deleteByCreatedAtBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * 删除指定数据源的所有条目
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ExecutionPlanCacheEntry e WHERE e.datasourceName = :datasourceName")
+    int deleteByDatasourceName(@Param("datasourceName") String datasourceName);
+
+    /**
+     * 删除指定 SQL 指纹的所有条目
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ExecutionPlanCacheEntry e WHERE e.sqlDigest IN :digests")
+    int deleteBySqlDigestIn(@Param("digests") Collection<String> digests);
+
+    /**
+     * 按最后访问时间升序查询条目 ID（用于按容量淘汰）
+     */
+    @Query("SELECT e.id FROM ExecutionPlanCacheEntry e ORDER BY e.lastAccessedAt ASC")
+    List<Long> findIdsOrderByLastAccessedAtAsc(Pageable pageable);
+}
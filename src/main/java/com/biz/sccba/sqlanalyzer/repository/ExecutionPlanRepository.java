@@ -14,11 +14,17 @@ public interface ExecutionPlanRepository extends JpaRepository<ExecutionPlan, Lo
 
     /**
      * 根据原始 SQL 查找执行计划
+     *
+     * @deprecated 按未建索引的 TEXT 列匹配，改用 {@link ExecutionPlanCacheRepository} 按摘要查找
      */
+    @Deprecated
     List<ExecutionPlan> findByOriginalSql(String originalSql);
 
     /**
      * 根据填充后的 SQL 查找执行计划
+     *
+     * @deprecated 按未建索引的 TEXT 列匹配，改用 {@link ExecutionPlanCacheRepository} 按摘要查找
      */
+    @Deprecated
     List<ExecutionPlan> findByFilledSql(String filledSql);
 }
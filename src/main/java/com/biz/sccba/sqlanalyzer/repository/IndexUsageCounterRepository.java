@@ -0,0 +1,24 @@
+package com.biz.sccba.sqlanalyzer.repository;
+
+import com.biz.sccba.sqlanalyzer.model.IndexUsageCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 索引使用计数 Repository
+ */
+@Repository
+public interface IndexUsageCounterRepository extends JpaRepository<IndexUsageCounter, Long> {
+
+    /**
+     * 查找数据源的全部计数
+     */
+    List<IndexUsageCounter> findByDatasourceName(String datasourceName);
+
+    /**
+     * 判断数据源是否已有计数
+     */
+    boolean existsByDatasourceName(String datasourceName);
+}
@@ -0,0 +1,42 @@
+package com.biz.sccba.sqlanalyzer.repository;
+
+import com.biz.sccba.sqlanalyzer.model.LockWaitSample;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 锁等待采样明细 Repository
+ */
+@Repository
+public interface LockWaitSampleRepository extends JpaRepository<LockWaitSample, Long> {
+
+    /**
+     * 查找数据源在指定时间之后的采样明细
+     */
+    List<LockWaitSample> findByDatasourceNameAndSampledAtAfter(String datasourceName, LocalDateTime after);
+
+    /**
+     * 统计语句作为阻塞方出现的次数
+     */
+    long countByDatasourceNameAndBlockingDigestAndSampledAtAfter(String datasourceName, String blockingDigest, LocalDateTime after);
+
+    /**
+     * 统计语句作为等待方出现的次数
+     */
+    long countByDatasourceNameAndWaitingDigestAndSampledAtAfter(String datasourceName, String waitingDigest, LocalDateTime after);
+
+    /**
+     * 删除过期的采样明细
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM LockWaitSample s WHERE s.sampledAt < :before")
+    int deleteBySampledAtBefore(@Param("before") LocalDateTime before);
+}
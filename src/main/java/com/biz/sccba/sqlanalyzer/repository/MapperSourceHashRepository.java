@@ -0,0 +1,12 @@
+package com.biz.sccba.sqlanalyzer.repository;
+
+import com.biz.sccba.sqlanalyzer.model.MapperSourceHash;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Mapper 源文件内容哈希 Repository
+ */
+@Repository
+public interface MapperSourceHashRepository extends JpaRepository<MapperSourceHash, Long> {
+}
@@ -1,6 +1,7 @@
 package com.biz.sccba.sqlanalyzer.repository;
 
 import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,10 +13,19 @@ import java.util.List;
 public interface ParsedSqlQueryRepository extends JpaRepository<ParsedSqlQuery, Long> {
     
     /**
-     * 根据表名查找相关SQL查询
+     * 根据表名查找相关SQL查询（按 statement_table_usage 精确匹配表名）
+     * 表名可带库名和反引号，按提取时的规则规范化后再匹配
      */
-    @Query("SELECT p FROM ParsedSqlQuery p WHERE p.tableName LIKE %:tableName%")
-    List<ParsedSqlQuery> findByTableName(@Param("tableName") String tableName);
+    default List<ParsedSqlQuery> findByTableName(String tableName) {
+        return findByNormalizedTableName(SqlTableUsageExtractor.normalizeName(tableName));
+    }
+
+    /**
+     * 按已规范化的表名（小写、无库名和反引号）查找相关SQL查询
+     */
+    @Query("SELECT p FROM ParsedSqlQuery p WHERE p.id IN "
+        + "(SELECT u.queryId FROM StatementTableUsage u WHERE u.tableName = :tableName AND u.role = 'REFERENCE')")
+    List<ParsedSqlQuery> findByNormalizedTableName(@Param("tableName") String tableName);
 
     /**
      * 根据Mapper命名空间查找
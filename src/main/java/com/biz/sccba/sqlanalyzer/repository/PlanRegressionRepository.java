@@ -0,0 +1,30 @@
+package com.biz.sccba.sqlanalyzer.repository;
+
+import com.biz.sccba.sqlanalyzer.model.PlanRegression;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 执行计划回退记录 Repository
+ */
+@Repository
+public interface PlanRegressionRepository extends JpaRepository<PlanRegression, Long> {
+
+    /**
+     * 查询指定时间之后的回退记录
+     */
+    List<PlanRegression> findByCreatedAtAfterOrderByCreatedAtDesc(LocalDateTime since);
+
+    /**
+     * 查询指定时间之后、指定严重程度的回退记录
+     */
+    List<PlanRegression> findBySeverityAndCreatedAtAfterOrderByCreatedAtDesc(String severity, LocalDateTime since);
+
+    /**
+     * 查询某条查询的回退记录
+     */
+    List<PlanRegression> findByQueryIdOrderByCreatedAtDesc(Long queryId);
+}
@@ -0,0 +1,25 @@
+package com.biz.sccba.sqlanalyzer.repository;
+
+import com.biz.sccba.sqlanalyzer.model.PlanSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 执行计划快照 Repository
+ */
+@Repository
+public interface PlanSnapshotRepository extends JpaRepository<PlanSnapshot, Long> {
+
+    /**
+     * 查找查询在指定数据源上的最近一次快照
+     */
+    Optional<PlanSnapshot> findFirstByQueryIdAndDatasourceNameOrderByCreatedAtDesc(Long queryId, String datasourceName);
+
+    /**
+     * 查找查询在指定数据源上的快照历史
+     */
+    List<PlanSnapshot> findByQueryIdAndDatasourceNameOrderByCreatedAtDesc(Long queryId, String datasourceName);
+}
@@ -0,0 +1,26 @@
+package com.biz.sccba.sqlanalyzer.repository;
+
+import com.biz.sccba.sqlanalyzer.model.SlowQueryFingerprint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 慢查询指纹 Repository
+ */
+@Repository
+public interface SlowQueryFingerprintRepository extends JpaRepository<SlowQueryFingerprint, Long> {
+
+    /**
+     * 按来源和指纹查找
+     */
+    Optional<SlowQueryFingerprint> findBySourceNameAndFingerprint(String sourceName, String fingerprint);
+
+    /**
+     * 按状态查找，按累计耗时降序
+     */
+    List<SlowQueryFingerprint> findByStatusOrderByTotalQueryTimeMsDesc(SlowQueryFingerprint.Status status, Pageable pageable);
+}
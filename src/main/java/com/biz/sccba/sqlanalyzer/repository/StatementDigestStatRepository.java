@@ -0,0 +1,37 @@
+package com.biz.sccba.sqlanalyzer.repository;
+
+import com.biz.sccba.sqlanalyzer.model.StatementDigestStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 语句摘要区间统计 Repository
+ */
+@Repository
+public interface StatementDigestStatRepository extends JpaRepository<StatementDigestStat, Long> {
+
+    /**
+     * 查找数据源在指定时间之后的区间统计
+     */
+    List<StatementDigestStat> findByDatasourceNameAndIntervalEndAfter(String datasourceName, LocalDateTime after);
+
+    /**
+     * 查找某个摘要的区间统计历史
+     */
+    List<StatementDigestStat> findByDatasourceNameAndDigestOrderByIntervalEndAsc(String datasourceName, String digest);
+
+    /**
+     * 删除过期的区间统计
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StatementDigestStat s WHERE s.intervalEnd < :before")
+    int deleteByIntervalEndBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,12 @@
+package com.biz.sccba.sqlanalyzer.repository;
+
+import com.biz.sccba.sqlanalyzer.model.StatementTableUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 语句与表（列）关联 Repository
+ */
+@Repository
+public interface StatementTableUsageRepository extends JpaRepository<StatementTableUsage, Long> {
+}
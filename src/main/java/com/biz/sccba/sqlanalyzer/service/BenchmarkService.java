@@ -0,0 +1,396 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.data.DataSourceConfigModel;
+import com.biz.sccba.sqlanalyzer.model.BenchmarkResult;
+import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.repository.BenchmarkResultRepository;
+import com.biz.sccba.sqlanalyzer.repository.ParsedSqlQueryRepository;
+import com.biz.sccba.sqlanalyzer.util.SqlDigestUtils;
+import com.biz.sccba.sqlanalyzer.util.SqlStatementClassifier;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.nio.ByteBuffer;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基准测试服务
+ *
+ * 分析器的其他功能只看执行计划，本服务真实执行语句并测量代价：
+ * - 用 SqlFillerService 生成多组参数，轮流使用
+ * - 先预热，再以指定并发数执行指定次数，每个连接记录到独立的 HdrHistogram，结束后合并
+ * - 每次执行后从 performance_schema 读取扫描行数（不可用时跳过）
+ * - 写语句在事务中执行并在每次执行后回滚，不修改测试数据
+ *
+ * 仅允许在开启了 safety.allow-execution 的数据源上运行，单条语句受 safety.statement-timeout-ms 限制，
+ * 并发数不超过 safety.max-concurrency
+ */
+@Service
+public class BenchmarkService {
+
+    /**
+     * 直方图精度（有效数字位数）
+     */
+    private static final int HISTOGRAM_PRECISION = 3;
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private SqlFillerService sqlFillerService;
+
+    @Autowired
+    private SqlExecutionPlanService sqlExecutionPlanService;
+
+    @Autowired
+    private ParsedSqlQueryRepository parsedSqlQueryRepository;
+
+    @Autowired
+    private BenchmarkResultRepository benchmarkResultRepository;
+
+    @Autowired
+    private AnalyzerConfig.BenchmarkProperties properties;
+
+    /**
+     * 基准测试参数，为 null 的项使用 spring.analyzer.benchmark 中的默认值
+     *
+     * @param parameterSets 参数组数
+     * @param warmupIterations 预热次数
+     * @param iterations 计入统计的执行次数
+     * @param concurrency 并发数
+     */
+    public record BenchmarkOptions(
+        Integer parameterSets,
+        Integer warmupIterations,
+        Integer iterations,
+        Integer concurrency
+    ) {}
+
+    /**
+     * 基准测试报告
+     *
+     * @param result 已保存的测试结果
+     * @param warnings 警告
+     */
+    public record BenchmarkReport(
+        BenchmarkResult result,
+        List<String> warnings
+    ) {}
+
+    /**
+     * 单个连接的执行统计
+     */
+    private static class WorkerStats {
+        final Histogram histogram = new Histogram(HISTOGRAM_PRECISION);
+        long successCount;
+        long errorCount;
+        long rowsReturned;
+        long rowsExamined;
+        long rowsExaminedSamples;
+        String firstError;
+        String rowsExaminedWarning;
+    }
+
+    /**
+     * 对已解析的查询执行基准测试
+     */
+    public BenchmarkReport benchmarkQuery(Long queryId, String datasourceName, BenchmarkOptions options) {
+        ParsedSqlQuery query = parsedSqlQueryRepository.findById(queryId)
+            .orElseThrow(() -> new IllegalArgumentException("未找到查询：" + queryId));
+        return benchmark(query.getSql(), datasourceName, options, query);
+    }
+
+    /**
+     * 对 SQL 执行基准测试
+     */
+    public BenchmarkReport benchmarkSql(String sql, String datasourceName, BenchmarkOptions options) {
+        return benchmark(sql, datasourceName, options, null);
+    }
+
+    /**
+     * 查询语句的基准测试历史
+     */
+    public List<BenchmarkResult> getResults(String sql) {
+        return benchmarkResultRepository.findBySqlDigestOrderByCreatedAtDesc(SqlDigestUtils.digest(sql));
+    }
+
+    /**
+     * 查询语句在指定数据源上的最近一次基准测试结果
+     */
+    public Optional<BenchmarkResult> getLatestResult(String sql, String datasourceName) {
+        return benchmarkResultRepository.findFirstBySqlDigestAndDatasourceNameOrderByCreatedAtDesc(
+            SqlDigestUtils.digest(sql), datasourceName);
+    }
+
+    private BenchmarkReport benchmark(String sql, String datasourceName, BenchmarkOptions options, ParsedSqlQuery query) {
+        // 安全配置与执行用的连接池来自同一个数据源解析（名称为空时直接拒绝）
+        DataSourceConfigModel.SafetyConfig safety = testEnvironmentService.getSafetyConfig(datasourceName);
+        if (!Boolean.TRUE.equals(safety.getAllowExecution())) {
+            throw new IllegalStateException("数据源 '" + datasourceName + "' 未开启 safety.allow-execution，不允许执行基准测试");
+        }
+        // WITH ... UPDATE/DELETE 按主语句归为写语句，在事务中执行后回滚
+        boolean write = SqlStatementClassifier.isWriteStatement(sql);
+
+        List<String> warnings = new ArrayList<>();
+        int parameterSets = resolve(options != null ? options.parameterSets() : null, properties.getParameterSets(), 1, 1000);
+        int warmup = resolve(options != null ? options.warmupIterations() : null, properties.getWarmupIterations(), 0, properties.getMaxIterations());
+        int iterations = resolve(options != null ? options.iterations() : null, properties.getIterations(), 1, properties.getMaxIterations());
+        int concurrency = resolve(options != null ? options.concurrency() : null, properties.getConcurrency(), 1, properties.getMaxConcurrency());
+        if (safety.getMaxConcurrency() != null && concurrency > safety.getMaxConcurrency()) {
+            warnings.add(String.format("并发数 %d 超过数据源限制 safety.max-concurrency=%d，已降低", concurrency, safety.getMaxConcurrency()));
+            concurrency = Math.max(1, safety.getMaxConcurrency());
+        }
+
+        System.out.println("[BenchmarkService] 开始基准测试，datasource=" + datasourceName
+            + ", iterations=" + iterations + ", concurrency=" + concurrency + ", write=" + write);
+
+        List<String> statements = generateStatements(sql, datasourceName, parameterSets, warnings);
+        DataSource dataSource = testEnvironmentService.getJdbcTemplate(datasourceName).getDataSource();
+        int timeoutSeconds = (int) Math.max(1, ((safety.getStatementTimeoutMs() != null ? safety.getStatementTimeoutMs() : 30000L) + 999) / 1000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<WorkerStats> workers;
+        long elapsedNanos;
+        try {
+            if (warmup > 0) {
+                runPhase(executor, dataSource, statements, warmup, concurrency, timeoutSeconds, write, false);
+            }
+            long start = System.nanoTime();
+            workers = runPhase(executor, dataSource, statements, iterations, concurrency, timeoutSeconds, write, true);
+            elapsedNanos = System.nanoTime() - start;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("基准测试被中断");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BenchmarkResult result = summarize(workers, elapsedNanos, warnings);
+        result.setQueryId(query != null ? query.getId() : null);
+        result.setMapperId(query != null ? query.getMapperNamespace() + "." + query.getStatementId() : null);
+        result.setDatasourceName(datasourceName);
+        result.setSqlDigest(SqlDigestUtils.digest(sql));
+        result.setSqlText(sql);
+        result.setParameterSets(statements.size());
+        result.setWarmupIterations(warmup);
+        result.setIterations(iterations);
+        result.setConcurrency(concurrency);
+        result.setWriteStatement(write);
+        BenchmarkResult saved = benchmarkResultRepository.save(result);
+
+        System.out.println(String.format("[BenchmarkService] 基准测试完成，p50=%.3fms, p99=%.3fms, 错误率=%.2f%%",
+            saved.getP50Ms(), saved.getP99Ms(), saved.getErrorRate() * 100));
+        return new BenchmarkReport(saved, warnings);
+    }
+
+    /**
+     * 生成填充参数后的语句（去重），没有占位符时直接使用原 SQL
+     */
+    private List<String> generateStatements(String sql, String datasourceName, int parameterSets, List<String> warnings) {
+        if (!sql.contains("?")) {
+            return List.of(sql);
+        }
+        List<String> tables = sqlExecutionPlanService.parseTableNames(sql);
+        Set<String> statements = new LinkedHashSet<>();
+        for (int i = 0; i < parameterSets; i++) {
+            SqlFillerService.FillResult fill = sqlFillerService.fillSql(datasourceName, sql, tables, "基准测试 #" + (i + 1));
+            if (fill.filledSql() == null || fill.filledSql().equals(sql)) {
+                fill.warnings().stream().findFirst().ifPresent(warnings::add);
+                continue;
+            }
+            statements.add(fill.filledSql());
+        }
+        if (statements.isEmpty()) {
+            throw new IllegalStateException("无法为 SQL 生成参数，请检查涉及的表是否存在：" + tables);
+        }
+        if (statements.size() < parameterSets) {
+            warnings.add(String.format("请求 %d 组参数，去重后实际使用 %d 组", parameterSets, statements.size()));
+        }
+        return new ArrayList<>(statements);
+    }
+
+    /**
+     * 以指定并发数执行 total 次，各连接从共享计数器领取执行序号
+     */
+    private List<WorkerStats> runPhase(ExecutorService executor, DataSource dataSource, List<String> statements,
+                                       int total, int concurrency, int timeoutSeconds, boolean write,
+                                       boolean measure) throws InterruptedException {
+        AtomicInteger counter = new AtomicInteger();
+        List<Future<WorkerStats>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(executor.submit(() ->
+                runWorker(dataSource, statements, counter, total, timeoutSeconds, write, measure)));
+        }
+        List<WorkerStats> results = new ArrayList<>();
+        for (Future<WorkerStats> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("基准测试执行失败：" + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private WorkerStats runWorker(DataSource dataSource, List<String> statements, AtomicInteger counter,
+                                  int total, int timeoutSeconds, boolean write, boolean measure) throws SQLException {
+        WorkerStats stats = new WorkerStats();
+        try (Connection connection = dataSource.getConnection()) {
+            Long threadId = measure ? lookupThreadId(connection, stats) : null;
+            if (write) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                int index;
+                while ((index = counter.getAndIncrement()) < total) {
+                    String sql = statements.get(index % statements.size());
+                    try (Statement statement = connection.createStatement()) {
+                        statement.setQueryTimeout(timeoutSeconds);
+                        long start = System.nanoTime();
+                        long rows = 0;
+                        if (statement.execute(sql)) {
+                            try (ResultSet rs = statement.getResultSet()) {
+                                while (rs.next()) {
+                                    rows++;
+                                }
+                            }
+                        } else {
+                            rows = Math.max(0, statement.getUpdateCount());
+                        }
+                        long micros = (System.nanoTime() - start) / 1000;
+                        if (measure) {
+                            stats.histogram.recordValue(Math.max(1, micros));
+                            stats.successCount++;
+                            stats.rowsReturned += rows;
+                            // 回滚前读取，保证 history 中最后一条是被测语句
+                            if (threadId != null) {
+                                threadId = readRowsExamined(connection, threadId, stats);
+                            }
+                        }
+                    } catch (SQLException e) {
+                        if (measure) {
+                            stats.errorCount++;
+                            if (stats.firstError == null) {
+                                stats.firstError = e.getMessage();
+                            }
+                        }
+                    } finally {
+                        if (write) {
+                            connection.rollback();
+                        }
+                    }
+                }
+            } finally {
+                if (write) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 查询当前连接在 performance_schema 中的线程 ID，不可用时返回 null
+     */
+    private Long lookupThreadId(Connection connection, WorkerStats stats) {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                 "SELECT THREAD_ID FROM performance_schema.threads WHERE PROCESSLIST_ID = CONNECTION_ID()")) {
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+            stats.rowsExaminedWarning = "performance_schema 中未找到当前连接，无法统计扫描行数";
+        } catch (SQLException e) {
+            stats.rowsExaminedWarning = "performance_schema 不可用，无法统计扫描行数：" + e.getMessage();
+        }
+        return null;
+    }
+
+    /**
+     * 读取当前连接最近一条已完成语句的扫描行数，失败时返回 null 以停止后续读取
+     */
+    private Long readRowsExamined(Connection connection, Long threadId, WorkerStats stats) {
+        try (PreparedStatement statement = connection.prepareStatement(
+                 "SELECT ROWS_EXAMINED FROM performance_schema.events_statements_history " +
+                 "WHERE THREAD_ID = ? ORDER BY EVENT_ID DESC LIMIT 1")) {
+            statement.setLong(1, threadId);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (rs.next()) {
+                    stats.rowsExamined += rs.getLong(1);
+                    stats.rowsExaminedSamples++;
+                }
+            }
+            return threadId;
+        } catch (SQLException e) {
+            stats.rowsExaminedWarning = "读取 events_statements_history 失败，无法统计扫描行数：" + e.getMessage();
+            return null;
+        }
+    }
+
+    /**
+     * 合并各连接的统计
+     */
+    private BenchmarkResult summarize(List<WorkerStats> workers, long elapsedNanos, List<String> warnings) {
+        Histogram histogram = new Histogram(HISTOGRAM_PRECISION);
+        long success = 0;
+        long errors = 0;
+        long rowsReturned = 0;
+        long rowsExamined = 0;
+        long rowsExaminedSamples = 0;
+        String firstError = null;
+        for (WorkerStats worker : workers) {
+            histogram.add(worker.histogram);
+            success += worker.successCount;
+            errors += worker.errorCount;
+            rowsReturned += worker.rowsReturned;
+            rowsExamined += worker.rowsExamined;
+            rowsExaminedSamples += worker.rowsExaminedSamples;
+            if (firstError == null) {
+                firstError = worker.firstError;
+            }
+            if (worker.rowsExaminedWarning != null && !warnings.contains(worker.rowsExaminedWarning)) {
+                warnings.add(worker.rowsExaminedWarning);
+            }
+        }
+
+        BenchmarkResult result = new BenchmarkResult();
+        result.setSuccessCount(success);
+        result.setErrorCount(errors);
+        result.setErrorRate(success + errors > 0 ? (double) errors / (success + errors) : 0.0);
+        result.setP50Ms(toMs(histogram.getValueAtPercentile(50.0)));
+        result.setP95Ms(toMs(histogram.getValueAtPercentile(95.0)));
+        result.setP99Ms(toMs(histogram.getValueAtPercentile(99.0)));
+        result.setMaxMs(toMs(histogram.getMaxValue()));
+        result.setMeanMs(histogram.getTotalCount() > 0 ? histogram.getMean() / 1000.0 : 0.0);
+        result.setThroughputQps(elapsedNanos > 0 ? (success + errors) * 1_000_000_000.0 / elapsedNanos : 0.0);
+        result.setAvgRowsReturned(success > 0 ? (double) rowsReturned / success : null);
+        result.setAvgRowsExamined(rowsExaminedSamples > 0 ? (double) rowsExamined / rowsExaminedSamples : null);
+        result.setSampleError(firstError != null && firstError.length() > 1000 ? firstError.substring(0, 1000) : firstError);
+        result.setHistogram(encode(histogram));
+        if (errors > 0) {
+            warnings.add(String.format("%d 次执行失败，首个错误：%s", errors, firstError));
+        }
+        return result;
+    }
+
+    private String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private double toMs(long micros) {
+        return micros / 1000.0;
+    }
+
+    private int resolve(Integer requested, Integer configured, int min, int max) {
+        int value = requested != null ? requested : (configured != null ? configured : min);
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -89,6 +89,23 @@ public class DataSourceManagerService {
             .collect(Collectors.toList());
     }
 
+    /**
+     * 获取数据源的执行安全配置
+     * 未配置时返回默认配置（不允许真实执行）；必须显式指定数据源名称，
+     * 避免安全配置和实际执行的连接来自不同的数据源
+     */
+    public DataSourceConfigModel.SafetyConfig getSafetyConfig(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("数据源名称不能为空");
+        }
+        return dataSourceConfigs.stream()
+            .filter(config -> name.equals(config.getName()))
+            .map(DataSourceConfigModel::getSafety)
+            .filter(safety -> safety != null)
+            .findFirst()
+            .orElseGet(DataSourceConfigModel.SafetyConfig::new);
+    }
+
     /**
      * 检查数据源是否存在
      */
@@ -0,0 +1,387 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.ExecutionPlan;
+import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.repository.ParsedSqlQueryRepository;
+import com.biz.sccba.sqlanalyzer.util.DmlWriteModel;
+import com.biz.sccba.sqlanalyzer.util.DmlWriteModel.DmlShape;
+import com.biz.sccba.sqlanalyzer.util.DmlWriteModel.Estimate;
+import com.biz.sccba.sqlanalyzer.util.DmlWriteModel.IndexDef;
+import com.biz.sccba.sqlanalyzer.util.DmlWriteModel.Kind;
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * DML 语句分析：估算写放大
+ *
+ * 对 INSERT / UPDATE / DELETE 语句：用 EXPLAIN 估算扫描和修改的行数，结合表上的索引
+ * 计算每修改一行要维护的索引记录数（见 {@link DmlWriteModel}），并识别更新索引列、
+ * WHERE 条件无索引等问题；也可以估算新增一个索引会给同表写语句带来多少额外写入，
+ * 与该索引对读语句的收益放在一起比较
+ */
+@Service
+public class DmlAnalysisService {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private SqlExecutionPlanService sqlExecutionPlanService;
+
+    @Autowired
+    private SqlFillerService sqlFillerService;
+
+    @Autowired
+    private ParsedSqlQueryRepository parsedSqlQueryRepository;
+
+    @Autowired
+    private StatementTableIndex statementTableIndex;
+
+    @Autowired
+    private AnalyzerConfig.DmlAnalysisProperties properties;
+
+    /**
+     * 问题
+     *
+     * @param code 问题类型：NO_WHERE、NON_INDEXED_WHERE、UPDATES_PRIMARY_KEY、UPDATES_INDEXED_COLUMN、
+     *             MANY_INDEXES、UNIQUE_CHECKS、LARGE_WRITE、SCAN_AMPLIFICATION
+     * @param detail 说明
+     */
+    public record Finding(String code, String detail) {
+    }
+
+    /**
+     * 单条 DML 语句的写放大分析
+     *
+     * @param queryId 已解析语句的 ID（直接分析 SQL 时为空）
+     * @param mapperId namespace.statementId
+     * @param kind 语句类型
+     * @param table 目标表
+     * @param sql 原始 SQL
+     * @param filledSql 填充参数后用于 EXPLAIN 的 SQL
+     * @param accessType 目标表的访问类型
+     * @param key 目标表使用的索引
+     * @param rowsExamined 估算扫描（并加锁）的行数
+     * @param rowsAffected 估算修改的行数
+     * @param estimate 每行写代价
+     * @param totalIndexWrites 一次执行写入的索引记录数
+     * @param scanAmplification 每修改一行扫描的行数
+     * @param findings 发现的问题
+     * @param error 分析失败原因
+     */
+    public record DmlReport(Long queryId, String mapperId, Kind kind, String table, String sql, String filledSql,
+                            String accessType, String key, Double rowsExamined, Double rowsAffected,
+                            Estimate estimate, Double totalIndexWrites, Double scanAmplification,
+                            List<Finding> findings, String error) {
+    }
+
+    /**
+     * 命名空间下全部写语句的分析（按一次执行写入的索引记录数降序）
+     */
+    public record NamespaceReport(String namespace, String datasourceName, int statements, List<DmlReport> reports) {
+    }
+
+    /**
+     * 新增索引给单条写语句带来的额外写入
+     *
+     * @param currentWritesPerRow 当前每行写入的索引记录数（有唯一键冲突分支时取较大值）
+     * @param extraWritesPerRow 新增索引后每行多写的索引记录数
+     * @param extraWrites 一次执行多写的索引记录数
+     */
+    public record StatementWriteCost(Long queryId, String mapperId, Kind kind, Double rowsAffected,
+                                     int currentWritesPerRow, int extraWritesPerRow, Double extraWrites) {
+    }
+
+    /**
+     * 新增索引的写代价
+     *
+     * @param table 表名
+     * @param columns 索引列
+     * @param statements 同表写语句的额外写入（只含受影响的语句）
+     * @param writeStatements 同表写语句数
+     * @param currentIndexWrites 同表写语句各执行一次当前写入的索引记录数
+     * @param extraIndexWrites 同表写语句各执行一次多写的索引记录数
+     * @param summary 摘要
+     */
+    public record IndexWriteCost(String table, List<String> columns, List<StatementWriteCost> statements,
+                                 int writeStatements, double currentIndexWrites, double extraIndexWrites, String summary) {
+    }
+
+    /**
+     * 分析一条 DML 语句
+     */
+    public DmlReport analyzeSql(String datasourceName, String sql) {
+        JdbcTemplate jdbcTemplate = testEnvironmentService.getJdbcTemplate(datasourceName);
+        return analyze(datasourceName, jdbcTemplate, null, null, sql, new HashMap<>());
+    }
+
+    /**
+     * 分析已解析语句
+     */
+    public DmlReport analyzeQuery(String datasourceName, Long queryId) {
+        ParsedSqlQuery query = parsedSqlQueryRepository.findById(queryId)
+            .orElseThrow(() -> new IllegalArgumentException("查询不存在: id=" + queryId));
+        JdbcTemplate jdbcTemplate = testEnvironmentService.getJdbcTemplate(datasourceName);
+        return analyze(datasourceName, jdbcTemplate, query.getId(),
+            query.getMapperNamespace() + "." + query.getStatementId(), query.getSql(), new HashMap<>());
+    }
+
+    /**
+     * 分析命名空间下的全部写语句
+     */
+    public NamespaceReport analyzeNamespace(String datasourceName, String namespace) {
+        JdbcTemplate jdbcTemplate = testEnvironmentService.getJdbcTemplate(datasourceName);
+        Map<String, List<IndexDef>> indexCache = new HashMap<>();
+        List<DmlReport> reports = new ArrayList<>();
+        for (ParsedSqlQuery query : parsedSqlQueryRepository.findByMapperNamespace(namespace)) {
+            if (DmlWriteModel.parse(query.getSql()) == null) {
+                continue;
+            }
+            if (reports.size() >= properties.getMaxStatements()) {
+                break;
+            }
+            reports.add(analyze(datasourceName, jdbcTemplate, query.getId(),
+                query.getMapperNamespace() + "." + query.getStatementId(), query.getSql(), indexCache));
+        }
+        reports.sort(Comparator.comparing((DmlReport r) -> r.totalIndexWrites() != null ? r.totalIndexWrites() : 0.0)
+            .reversed());
+        System.out.println("[DmlAnalysisService] 命名空间写语句分析完成：" + namespace + "，语句数：" + reports.size());
+        return new NamespaceReport(namespace, datasourceName, reports.size(), reports);
+    }
+
+    /**
+     * 估算新增索引给同表写语句带来的额外写入
+     *
+     * @param datasourceName 数据源
+     * @param tableName 表名
+     * @param columns 新索引的列
+     */
+    public IndexWriteCost proposedIndexCost(String datasourceName, String tableName, List<String> columns) {
+        JdbcTemplate jdbcTemplate = testEnvironmentService.getJdbcTemplate(datasourceName);
+        String table = SqlTableUsageExtractor.normalizeName(tableName);
+        List<String> indexColumns = columns.stream().map(c -> c.trim().replace("`", "").toLowerCase(Locale.ROOT)).toList();
+        Map<String, List<IndexDef>> indexCache = new HashMap<>();
+
+        List<StatementWriteCost> costs = new ArrayList<>();
+        int writeStatements = 0;
+        double current = 0;
+        double extra = 0;
+        for (ParsedSqlQuery query : statementTableIndex.findQueries(table)) {
+            DmlShape shape = DmlWriteModel.parse(query.getSql());
+            if (shape == null || !shape.table().equals(table)) {
+                continue;
+            }
+            if (writeStatements >= properties.getMaxStatements()) {
+                break;
+            }
+            writeStatements++;
+            DmlReport report = analyze(datasourceName, jdbcTemplate, query.getId(),
+                query.getMapperNamespace() + "." + query.getStatementId(), query.getSql(), indexCache);
+            if (report.estimate() == null) {
+                continue;
+            }
+            double rows = report.rowsAffected() != null ? report.rowsAffected() : 1.0;
+            current += rows * report.estimate().worstWritesPerRow();
+            int extraPerRow = DmlWriteModel.extraWritesPerRow(shape, indexColumns, indexCache.get(table));
+            if (extraPerRow == 0) {
+                continue;
+            }
+            extra += rows * extraPerRow;
+            costs.add(new StatementWriteCost(report.queryId(), report.mapperId(), shape.kind(), report.rowsAffected(),
+                report.estimate().worstWritesPerRow(), extraPerRow, rows * extraPerRow));
+        }
+        costs.sort(Comparator.comparing(StatementWriteCost::extraWrites).reversed());
+
+        String summary;
+        if (writeStatements == 0) {
+            summary = "表 " + table + " 上没有已解析的写语句，新增索引不会增加已知写语句的维护代价";
+        } else {
+            summary = String.format("新增索引 (%s) 后，表 %s 上 %d 条写语句中有 %d 条需要维护该索引，"
+                    + "各执行一次约多写 %.0f 条索引记录（当前 %.0f 条，增加 %.1f%%）",
+                String.join(", ", indexColumns), table, writeStatements, costs.size(), extra, current,
+                current > 0 ? extra * 100.0 / current : 0.0);
+        }
+        return new IndexWriteCost(table, indexColumns, costs, writeStatements, current, extra, summary);
+    }
+
+    private DmlReport analyze(String datasourceName, JdbcTemplate jdbcTemplate, Long queryId, String mapperId,
+                              String sql, Map<String, List<IndexDef>> indexCache) {
+        DmlShape shape = DmlWriteModel.parse(sql);
+        if (shape == null) {
+            return new DmlReport(queryId, mapperId, null, null, sql, null, null, null, null, null, null, null, null,
+                List.of(), "不是 INSERT / REPLACE / UPDATE / DELETE 语句");
+        }
+        String filledSql = sql;
+        try {
+            List<IndexDef> indexes = indexCache.computeIfAbsent(shape.table(), t -> loadIndexes(jdbcTemplate, t));
+            Estimate estimate = DmlWriteModel.estimate(shape, indexes);
+
+            String accessType = null;
+            String key = null;
+            Double rowsExamined;
+            Double rowsAffected;
+            if ((shape.kind() == Kind.INSERT || shape.kind() == Kind.REPLACE) && !shape.insertSelect()) {
+                rowsExamined = 0.0;
+                rowsAffected = (double) Math.max(1, shape.valueRows());
+            } else {
+                if (filledSql.indexOf('?') >= 0) {
+                    filledSql = sqlFillerService.fillSql(datasourceName, sql,
+                        sqlExecutionPlanService.parseTableNames(sql), mapperId).filledSql();
+                }
+                ExecutionPlan plan = sqlExecutionPlanService.getExecutionPlanUncached(filledSql, jdbcTemplate);
+                JsonNode target = targetAccess(plan != null ? plan.getRawJson() : null, shape.insertSelect());
+                if (target != null) {
+                    accessType = target.path("access_type").asText(null);
+                    key = target.path("key").asText(null);
+                    rowsExamined = target.path("rows_examined_per_scan").asDouble(0);
+                    double filtered = target.has("filtered") ? target.path("filtered").asDouble(100) : 100;
+                    rowsAffected = shape.insertSelect() ? rowsExamined : Math.max(rowsExamined > 0 ? 1 : 0,
+                        rowsExamined * filtered / 100);
+                } else {
+                    rowsExamined = tableRows(jdbcTemplate, shape.table());
+                    rowsAffected = rowsExamined;
+                }
+            }
+            double totalIndexWrites = rowsAffected * estimate.indexWritesPerRow();
+            Double scanAmplification = rowsAffected > 0 ? rowsExamined / rowsAffected : null;
+            List<Finding> findings = findings(shape, estimate, accessType, rowsExamined, rowsAffected, scanAmplification);
+            return new DmlReport(queryId, mapperId, shape.kind(), shape.table(), sql, filledSql, accessType, key,
+                rowsExamined, rowsAffected, estimate, totalIndexWrites, scanAmplification, findings, null);
+        } catch (Exception e) {
+            System.err.println("[DmlAnalysisService] 分析失败：" + (mapperId != null ? mapperId : sql) + "，错误：" + e.getMessage());
+            return new DmlReport(queryId, mapperId, shape.kind(), shape.table(), sql, filledSql, null, null, null, null,
+                null, null, null, List.of(), e.getMessage());
+        }
+    }
+
+    private List<Finding> findings(DmlShape shape, Estimate estimate, String accessType, double rowsExamined,
+                                   double rowsAffected, Double scanAmplification) {
+        List<Finding> findings = new ArrayList<>();
+        boolean modifying = shape.kind() == Kind.UPDATE || shape.kind() == Kind.DELETE;
+        if (modifying && !shape.hasWhere()) {
+            findings.add(new Finding("NO_WHERE", String.format("%s 没有 WHERE 条件，会修改整张表（约 %.0f 行）",
+                shape.kind(), rowsAffected)));
+        } else if (modifying && ("ALL".equalsIgnoreCase(accessType) || !estimate.whereUsesIndex())) {
+            findings.add(new Finding("NON_INDEXED_WHERE", String.format(
+                "WHERE 条件列 %s 没有可用索引%s，执行时扫描并锁定约 %.0f 行，并发写入时容易锁等待",
+                shape.whereColumns(), accessType != null ? "（access_type=" + accessType + "）" : "", rowsExamined)));
+        }
+        if (estimate.primaryKeyUpdated()) {
+            findings.add(new Finding("UPDATES_PRIMARY_KEY", String.format(
+                "更新了主键列，行在聚簇索引中移动，全部 %d 个二级索引都要删除并重新插入", estimate.secondaryIndexes())));
+        } else if (!estimate.updatedIndexedColumns().isEmpty()) {
+            List<String> indexes = estimate.maintainedIndexes().subList(1, estimate.maintainedIndexes().size());
+            findings.add(new Finding("UPDATES_INDEXED_COLUMN", String.format(
+                "更新了索引列 %s，每行需要在索引 %s 中删除旧记录并插入新记录（每行共写 %d 条索引记录）",
+                estimate.updatedIndexedColumns(), indexes, estimate.indexWritesPerRow())));
+        }
+        if (shape.kind() != Kind.UPDATE && estimate.secondaryIndexes() >= properties.getIndexCountWarning()) {
+            findings.add(new Finding("MANY_INDEXES", String.format(
+                "表 %s 有 %d 个二级索引，每%s一行要写 %d 条索引记录", shape.table(), estimate.secondaryIndexes(),
+                shape.kind() == Kind.DELETE ? "删除" : "插入", estimate.indexWritesPerRow())));
+        }
+        if (estimate.conflictWritesPerRow() != null) {
+            findings.add(new Finding("CONFLICT_WRITES", String.format(
+                "唯一键冲突时%s，每行写 %d 条索引记录（不冲突时 %d 条）",
+                shape.kind() == Kind.REPLACE ? "先删除旧行再插入新行" : "改为更新列 " + shape.upsertColumns(),
+                estimate.conflictWritesPerRow(), estimate.indexWritesPerRow())));
+        }
+        if ((shape.kind() == Kind.INSERT || shape.kind() == Kind.REPLACE) && estimate.uniqueChecksPerRow() > 0) {
+            findings.add(new Finding("UNIQUE_CHECKS", String.format(
+                "有 %d 个唯一二级索引，每插入一行都要读取索引页检查唯一性，无法使用 change buffer",
+                estimate.uniqueChecksPerRow())));
+        }
+        if (rowsAffected >= properties.getLargeRowsAffected()) {
+            findings.add(new Finding("LARGE_WRITE", String.format(
+                "单次执行约修改 %.0f 行、写 %.0f 条索引记录，大事务会放大 undo/redo 和锁持有时间，建议分批",
+                rowsAffected, rowsAffected * estimate.indexWritesPerRow())));
+        }
+        if (scanAmplification != null && scanAmplification >= 10 && rowsExamined >= 1000) {
+            findings.add(new Finding("SCAN_AMPLIFICATION", String.format(
+                "每修改 1 行需要扫描 %.0f 行（扫描 %.0f 行，修改 %.0f 行）", scanAmplification, rowsExamined, rowsAffected)));
+        }
+        return findings;
+    }
+
+    /**
+     * 执行计划中被修改的表：优先取标记了 update / delete 的表，否则取第一个表
+     * （INSERT ... SELECT 时取 SELECT 部分的第一个表）
+     */
+    private JsonNode targetAccess(String rawJson, boolean insertSelect) {
+        if (rawJson == null || rawJson.isBlank()) {
+            return null;
+        }
+        try {
+            List<JsonNode> tables = new ArrayList<>();
+            collectTables(objectMapper.readTree(rawJson), tables);
+            if (!insertSelect) {
+                for (JsonNode table : tables) {
+                    if (table.path("update").asBoolean(false) || table.path("delete").asBoolean(false)) {
+                        return table;
+                    }
+                }
+            }
+            return tables.stream().filter(t -> t.has("access_type")).findFirst().orElse(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void collectTables(JsonNode node, List<JsonNode> tables) {
+        if (node == null) {
+            return;
+        }
+        if (node.isArray()) {
+            node.forEach(child -> collectTables(child, tables));
+            return;
+        }
+        if (!node.isObject()) {
+            return;
+        }
+        if (node.has("table_name")) {
+            tables.add(node);
+        }
+        node.fields().forEachRemaining(field -> {
+            if (field.getValue().isContainerNode()) {
+                collectTables(field.getValue(), tables);
+            }
+        });
+    }
+
+    private List<IndexDef> loadIndexes(JdbcTemplate jdbcTemplate, String table) {
+        Map<String, List<String>> columns = new LinkedHashMap<>();
+        Map<String, Boolean> unique = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT INDEX_NAME, COLUMN_NAME, NON_UNIQUE
+                FROM information_schema.STATISTICS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?
+                ORDER BY INDEX_NAME, SEQ_IN_INDEX
+                """,
+            rs -> {
+                String name = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                columns.computeIfAbsent(name, n -> new ArrayList<>())
+                    .add(column != null ? column.toLowerCase(Locale.ROOT) : "");
+                unique.put(name, rs.getInt("NON_UNIQUE") == 0);
+            }, table);
+        List<IndexDef> indexes = new ArrayList<>();
+        columns.forEach((name, cols) -> indexes.add(new IndexDef(name, unique.get(name), cols)));
+        return indexes;
+    }
+
+    private double tableRows(JdbcTemplate jdbcTemplate, String table) {
+        List<Long> rows = jdbcTemplate.queryForList(
+            "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+            Long.class, table);
+        return rows.isEmpty() || rows.get(0) == null ? 0 : rows.get(0);
+    }
+}
@@ -0,0 +1,430 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * 动态 SQL 分支组合枚举
+ *
+ * 把语句中的 &lt;if&gt;、&lt;choose&gt;、&lt;foreach&gt; 看作取值有限的"决策点"
+ * （if：不满足/满足；choose：每个 when 和 otherwise；foreach：1 个元素/多个元素），
+ * &lt;where&gt;、&lt;set&gt;、&lt;trim&gt; 按 MyBatis 的规则处理首尾的 AND/OR 和逗号，
+ * &lt;include&gt; 展开为引用的片段。组合空间不大时全部枚举，否则用两两组合覆盖（pairwise）
+ * 缩减：保证任意两个决策点的任意取值组合至少出现一次，组合数随决策点数量近似对数增长
+ */
+public final class DynamicSqlEnumerator {
+
+    private static final Pattern HASH_PLACEHOLDER = Pattern.compile("#\\{[^}]*}");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * 决策点类型
+     */
+    public enum DecisionKind {
+        IF, CHOOSE, FOREACH
+    }
+
+    /**
+     * 决策点
+     *
+     * @param index 序号
+     * @param kind 类型
+     * @param label 描述（test 表达式或 foreach 的集合名）
+     * @param options 各取值的描述
+     */
+    public record Decision(
+        int index,
+        DecisionKind kind,
+        String label,
+        List<String> options
+    ) {}
+
+    private sealed interface Part permits Text, IfPart, ChoosePart, TrimPart, ForeachPart {}
+
+    private record Text(String text) implements Part {}
+
+    private record IfPart(int decision, List<Part> children) implements Part {}
+
+    private record ChoosePart(int decision, List<List<Part>> branches) implements Part {}
+
+    private record TrimPart(String prefix, String suffix, List<String> prefixOverrides,
+                            List<String> suffixOverrides, List<Part> children) implements Part {}
+
+    private record ForeachPart(int decision, String open, String close, String separator,
+                               List<Part> children) implements Part {}
+
+    private final List<Decision> decisions = new ArrayList<>();
+
+    private final List<Part> parts;
+
+    private final int foreachItems;
+
+    private DynamicSqlEnumerator(Element statement, Function<String, Element> includeResolver, int foreachItems) {
+        this.foreachItems = Math.max(2, foreachItems);
+        this.parts = compile(statement, includeResolver, new HashSet<>());
+    }
+
+    /**
+     * 编译语句
+     *
+     * @param statement &lt;select&gt;/&lt;update&gt;/&lt;insert&gt;/&lt;delete&gt; 元素
+     * @param includeResolver refid -> &lt;sql&gt; 片段（找不到时返回 null）
+     * @param foreachItems foreach "多个元素"取值展开的元素个数
+     */
+    public static DynamicSqlEnumerator compile(Element statement, Function<String, Element> includeResolver, int foreachItems) {
+        return new DynamicSqlEnumerator(statement, includeResolver, foreachItems);
+    }
+
+    public List<Decision> getDecisions() {
+        return Collections.unmodifiableList(decisions);
+    }
+
+    /**
+     * 组合空间大小（各决策点取值数之积，超过 long 范围时返回 Long.MAX_VALUE）
+     */
+    public long spaceSize() {
+        long size = 1;
+        for (Decision decision : decisions) {
+            if (size > Long.MAX_VALUE / decision.options().size()) {
+                return Long.MAX_VALUE;
+            }
+            size *= decision.options().size();
+        }
+        return size;
+    }
+
+    /**
+     * 生成待评估的组合：空间不超过 maxExhaustive 时全部枚举，否则两两组合覆盖；
+     * 两种方式都包含"全部取第一个值"和"全部取最后一个值"两个极端组合
+     */
+    public List<int[]> plan(int maxExhaustive) {
+        List<Integer> counts = decisions.stream().map(d -> d.options().size()).toList();
+        return spaceSize() <= maxExhaustive ? cartesian(counts) : pairwise(counts);
+    }
+
+    /**
+     * 是否会使用两两组合覆盖
+     */
+    public boolean isReduced(int maxExhaustive) {
+        return spaceSize() > maxExhaustive;
+    }
+
+    /**
+     * 按组合渲染 SQL（#{...} 替换为 ?，${...} 保持原样，空白合并）
+     */
+    public String render(int[] choices) {
+        return render(choices, foreachItems);
+    }
+
+    /**
+     * 按组合渲染 SQL，foreach 取"多个元素"时展开 items 个元素（用于 IN 列表规模分析）
+     */
+    public String render(int[] choices, int items) {
+        StringBuilder sql = new StringBuilder();
+        renderAll(parts, choices, Math.max(1, items), sql);
+        return WHITESPACE.matcher(sql).replaceAll(" ").trim();
+    }
+
+    /**
+     * 全部条件都生效的组合：if 满足、choose 取第一个 when、foreach 取多个元素
+     */
+    public int[] allConditions() {
+        int[] choices = new int[decisions.size()];
+        for (Decision decision : decisions) {
+            choices[decision.index()] = decision.kind() == DecisionKind.CHOOSE ? 0 : 1;
+        }
+        return choices;
+    }
+
+    /**
+     * 组合的可读描述：决策点描述 -> 取值描述
+     */
+    public Map<String, String> describe(int[] choices) {
+        Map<String, String> description = new LinkedHashMap<>();
+        for (Decision decision : decisions) {
+            String key = decision.kind() + " " + decision.label();
+            if (description.containsKey(key)) {
+                key = key + " #" + (decision.index() + 1);
+            }
+            description.put(key, decision.options().get(choices[decision.index()]));
+        }
+        return description;
+    }
+
+    /**
+     * 全部组合
+     */
+    public static List<int[]> cartesian(List<Integer> counts) {
+        List<int[]> result = new ArrayList<>();
+        int[] current = new int[counts.size()];
+        while (true) {
+            result.add(current.clone());
+            int position = counts.size() - 1;
+            while (position >= 0 && ++current[position] >= counts.get(position)) {
+                current[position] = 0;
+                position--;
+            }
+            if (position < 0) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * 两两组合覆盖（贪心构造）：每一轮从一个尚未覆盖的取值对出发，
+     * 其余决策点依次选择能覆盖最多未覆盖取值对的值，直到所有取值对都被覆盖
+     */
+    public static List<int[]> pairwise(List<Integer> counts) {
+        int n = counts.size();
+        List<int[]> result = new ArrayList<>();
+        int[] allFirst = new int[n];
+        int[] allLast = new int[n];
+        for (int i = 0; i < n; i++) {
+            allLast[i] = counts.get(i) - 1;
+        }
+        result.add(allFirst);
+        if (!Arrays.equals(allFirst, allLast)) {
+            result.add(allLast);
+        }
+        if (n < 2) {
+            for (int value = 1; n == 1 && value < counts.get(0) - 1; value++) {
+                result.add(new int[]{value});
+            }
+            return result;
+        }
+
+        // uncovered[i][j] 记录决策点 i、j 之间尚未覆盖的取值对
+        Set<Long> uncovered = new LinkedHashSet<>();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                for (int a = 0; a < counts.get(i); a++) {
+                    for (int b = 0; b < counts.get(j); b++) {
+                        uncovered.add(pairKey(i, a, j, b));
+                    }
+                }
+            }
+        }
+        result.forEach(test -> cover(test, uncovered));
+
+        while (!uncovered.isEmpty()) {
+            long seed = uncovered.iterator().next();
+            int[] test = new int[n];
+            Arrays.fill(test, -1);
+            test[(int) (seed >>> 48)] = (int) ((seed >>> 32) & 0xFFFF);
+            test[(int) ((seed >>> 16) & 0xFFFF)] = (int) (seed & 0xFFFF);
+            for (int k = 0; k < n; k++) {
+                if (test[k] >= 0) {
+                    continue;
+                }
+                int bestValue = 0;
+                int bestGain = -1;
+                for (int value = 0; value < counts.get(k); value++) {
+                    int gain = 0;
+                    for (int other = 0; other < n; other++) {
+                        if (other != k && test[other] >= 0 && uncovered.contains(orderedKey(k, value, other, test[other]))) {
+                            gain++;
+                        }
+                    }
+                    if (gain > bestGain) {
+                        bestGain = gain;
+                        bestValue = value;
+                    }
+                }
+                test[k] = bestValue;
+            }
+            cover(test, uncovered);
+            result.add(test);
+        }
+        return result;
+    }
+
+    private static void cover(int[] test, Set<Long> uncovered) {
+        for (int i = 0; i < test.length; i++) {
+            for (int j = i + 1; j < test.length; j++) {
+                uncovered.remove(pairKey(i, test[i], j, test[j]));
+            }
+        }
+    }
+
+    private static long orderedKey(int p, int a, int q, int b) {
+        return p < q ? pairKey(p, a, q, b) : pairKey(q, b, p, a);
+    }
+
+    private static long pairKey(int i, int a, int j, int b) {
+        return ((long) i << 48) | ((long) a << 32) | ((long) j << 16) | b;
+    }
+
+    // ========== 编译 ==========
+
+    private List<Part> compile(Node node, Function<String, Element> includeResolver, Set<String> including) {
+        List<Part> result = new ArrayList<>();
+        NodeList children = node.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() == Node.TEXT_NODE || child.getNodeType() == Node.CDATA_SECTION_NODE) {
+                result.add(new Text(HASH_PLACEHOLDER.matcher(child.getNodeValue()).replaceAll("?")));
+            } else if (child.getNodeType() == Node.ELEMENT_NODE) {
+                Part part = compileElement((Element) child, includeResolver, including);
+                if (part != null) {
+                    result.add(part);
+                }
+            }
+        }
+        return result;
+    }
+
+    private Part compileElement(Element element, Function<String, Element> includeResolver, Set<String> including) {
+        switch (element.getTagName()) {
+            case "if": {
+                int decision = addDecision(DecisionKind.IF, element.getAttribute("test"), List.of("不满足", "满足"));
+                return new IfPart(decision, compile(element, includeResolver, including));
+            }
+            case "choose": {
+                List<String> options = new ArrayList<>();
+                List<Element> branches = new ArrayList<>();
+                Element otherwise = null;
+                for (Element child : childElements(element)) {
+                    if ("when".equals(child.getTagName())) {
+                        options.add("when " + child.getAttribute("test"));
+                        branches.add(child);
+                    } else if ("otherwise".equals(child.getTagName())) {
+                        otherwise = child;
+                    }
+                }
+                options.add(otherwise != null ? "otherwise" : "都不满足");
+                String label = options.size() > 1 ? options.get(0).substring("when ".length()) : "choose";
+                int decision = addDecision(DecisionKind.CHOOSE, label, options);
+                List<List<Part>> compiled = new ArrayList<>();
+                for (Element branch : branches) {
+                    compiled.add(compile(branch, includeResolver, including));
+                }
+                compiled.add(otherwise != null ? compile(otherwise, includeResolver, including) : List.of());
+                return new ChoosePart(decision, compiled);
+            }
+            case "where":
+                return new TrimPart("WHERE", "", List.of("AND ", "OR "), List.of(), compile(element, includeResolver, including));
+            case "set":
+                return new TrimPart("SET", "", List.of(","), List.of(","), compile(element, includeResolver, including));
+            case "trim":
+                return new TrimPart(element.getAttribute("prefix"), element.getAttribute("suffix"),
+                    overrides(element.getAttribute("prefixOverrides")), overrides(element.getAttribute("suffixOverrides")),
+                    compile(element, includeResolver, including));
+            case "foreach": {
+                int decision = addDecision(DecisionKind.FOREACH, element.getAttribute("collection"),
+                    List.of("1 个元素", foreachItems + " 个元素"));
+                String separator = element.hasAttribute("separator") ? element.getAttribute("separator") : "";
+                return new ForeachPart(decision, element.getAttribute("open"), element.getAttribute("close"), separator,
+                    compile(element, includeResolver, including));
+            }
+            case "include": {
+                String refid = element.getAttribute("refid");
+                Element fragment = includeResolver.apply(refid);
+                if (fragment == null || !including.add(refid)) {
+                    return new Text(" /* include " + refid + " */ ");
+                }
+                List<Part> children = compile(fragment, includeResolver, including);
+                including.remove(refid);
+                return new TrimPart("", "", List.of(), List.of(), children);
+            }
+            default:
+                // bind、selectKey 等不产生 SQL 文本
+                return null;
+        }
+    }
+
+    private int addDecision(DecisionKind kind, String label, List<String> options) {
+        int index = decisions.size();
+        decisions.add(new Decision(index, kind, label, List.copyOf(options)));
+        return index;
+    }
+
+    private static List<Element> childElements(Element element) {
+        List<Element> result = new ArrayList<>();
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i).getNodeType() == Node.ELEMENT_NODE) {
+                result.add((Element) children.item(i));
+            }
+        }
+        return result;
+    }
+
+    private static List<String> overrides(String value) {
+        if (value == null || value.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split("\\|")).map(s -> s.toUpperCase(Locale.ENGLISH)).toList();
+    }
+
+    // ========== 渲染 ==========
+
+    private void renderAll(List<Part> parts, int[] choices, int items, StringBuilder sql) {
+        for (Part part : parts) {
+            render(part, choices, items, sql);
+        }
+    }
+
+    private void render(Part part, int[] choices, int items, StringBuilder sql) {
+        if (part instanceof Text text) {
+            sql.append(text.text());
+        } else if (part instanceof IfPart ifPart) {
+            if (choices[ifPart.decision()] == 1) {
+                renderAll(ifPart.children(), choices, items, sql);
+            }
+        } else if (part instanceof ChoosePart choose) {
+            renderAll(choose.branches().get(choices[choose.decision()]), choices, items, sql);
+        } else if (part instanceof ForeachPart foreach) {
+            int count = choices[foreach.decision()] == 0 ? 1 : items;
+            sql.append(' ').append(foreach.open());
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    sql.append(foreach.separator());
+                }
+                renderAll(foreach.children(), choices, items, sql);
+            }
+            sql.append(foreach.close()).append(' ');
+        } else if (part instanceof TrimPart trim) {
+            StringBuilder inner = new StringBuilder();
+            renderAll(trim.children(), choices, items, inner);
+            sql.append(' ').append(applyTrim(trim, WHITESPACE.matcher(inner).replaceAll(" ").trim())).append(' ');
+        }
+    }
+
+    /**
+     * 与 MyBatis TrimSqlNode 相同：内容为空时不输出前后缀，去掉开头/结尾的覆盖词（不区分大小写）
+     */
+    private static String applyTrim(TrimPart trim, String content) {
+        if (content.isEmpty()) {
+            return "";
+        }
+        String upper = content.toUpperCase(Locale.ENGLISH);
+        for (String override : trim.prefixOverrides()) {
+            if (upper.startsWith(override)) {
+                content = content.substring(override.length()).trim();
+                break;
+            }
+        }
+        upper = content.toUpperCase(Locale.ENGLISH);
+        for (String override : trim.suffixOverrides()) {
+            if (upper.endsWith(override)) {
+                content = content.substring(0, content.length() - override.length()).trim();
+                break;
+            }
+        }
+        StringBuilder result = new StringBuilder();
+        if (!trim.prefix().isEmpty()) {
+            result.append(trim.prefix()).append(' ');
+        }
+        result.append(content);
+        if (!trim.suffix().isEmpty()) {
+            result.append(' ').append(trim.suffix());
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,300 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.ExecutionPlan;
+import com.biz.sccba.sqlanalyzer.model.MapperParameter;
+import com.biz.sccba.sqlanalyzer.model.PlanShape;
+import com.biz.sccba.sqlanalyzer.util.SqlDigestUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.builder.xml.XMLMapperEntityResolver;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.w3c.dom.Element;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 动态 SQL 场景枚举与最坏计划定位
+ *
+ * 对 Mapper 中每个语句枚举 if/choose/where/foreach 的分支组合（组合过多时两两组合覆盖），
+ * 按 SQL 指纹去重后并行 EXPLAIN，找出每个语句成本最高的分支组合。
+ * 最坏的计划往往藏在"只传了状态、没传租户"这类组合里，只看全部条件或单一条件无法发现
+ */
+@Service
+public class DynamicSqlScenarioService {
+
+    private static final Pattern DOLLAR_PLACEHOLDER = Pattern.compile("\\$\\{\\s*([^}]+?)\\s*}");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private SqlExecutionPlanService sqlExecutionPlanService;
+
+    @Autowired
+    private SqlFillerService sqlFillerService;
+
+    @Autowired
+    private MapperParameterIndex parameterIndex;
+
+    @Autowired
+    private AnalyzerConfig.DynamicSqlScenarioProperties properties;
+
+    /**
+     * 一个场景（一组 SQL 指纹相同的分支组合）及其执行计划
+     *
+     * @param digest SQL 指纹
+     * @param branches 代表组合的分支取值：决策点 -> 取值
+     * @param combinations 产生该 SQL 的组合数
+     * @param sql 渲染后的 SQL（占位符为 ?）
+     * @param filledSql 填充参数后用于 EXPLAIN 的 SQL
+     * @param queryCost 优化器估算的总成本
+     * @param estimatedRows 各表估算扫描行数之和
+     * @param planSignature 计划结构签名
+     * @param fullScanTables 全表扫描的表
+     * @param error EXPLAIN 失败原因
+     */
+    public record ScenarioResult(
+        String digest,
+        Map<String, String> branches,
+        int combinations,
+        String sql,
+        String filledSql,
+        Double queryCost,
+        Long estimatedRows,
+        String planSignature,
+        List<String> fullScanTables,
+        String error
+    ) {}
+
+    /**
+     * 一个语句的场景枚举结果
+     *
+     * @param statementId 语句 ID
+     * @param statementType SELECT/UPDATE/INSERT/DELETE
+     * @param decisions 决策点
+     * @param spaceSize 组合空间大小
+     * @param strategy EXHAUSTIVE（全部枚举）或 PAIRWISE（两两组合覆盖）
+     * @param combinationsEvaluated 渲染的组合数
+     * @param distinctScenarios 按指纹去重后的场景数
+     * @param scenarios 已 EXPLAIN 的场景，按成本从高到低
+     * @param worstCase 成本最高的场景
+     * @param planCount 不同计划结构数
+     */
+    public record StatementScenarios(
+        String statementId,
+        String statementType,
+        List<DynamicSqlEnumerator.Decision> decisions,
+        long spaceSize,
+        String strategy,
+        int combinationsEvaluated,
+        int distinctScenarios,
+        List<ScenarioResult> scenarios,
+        ScenarioResult worstCase,
+        int planCount
+    ) {}
+
+    /**
+     * 场景枚举报告
+     *
+     * @param namespace Mapper 命名空间
+     * @param datasourceName 数据源（为空时只枚举不 EXPLAIN）
+     * @param statements 各语句的结果
+     * @param warnings 警告
+     */
+    public record ScenarioReport(
+        String namespace,
+        String datasourceName,
+        List<StatementScenarios> statements,
+        List<String> warnings
+    ) {}
+
+    /**
+     * 枚举 Mapper XML 中语句的分支组合并定位最坏计划
+     *
+     * @param xmlContent Mapper XML
+     * @param statementId 只分析该语句（为空时分析全部语句）
+     * @param datasourceName 用于 EXPLAIN 的数据源（为空时只枚举）
+     */
+    public ScenarioReport analyze(String xmlContent, String statementId, String datasourceName) {
+        System.out.println("[DynamicSqlScenarioService] 开始枚举动态 SQL 场景，statement=" + statementId + ", datasource=" + datasourceName);
+        List<String> warnings = new ArrayList<>();
+        XPathParser parser = new XPathParser(xmlContent, false, null, new XMLMapperEntityResolver());
+        XNode mapper = parser.evalNode("/mapper");
+        if (mapper == null) {
+            throw new IllegalArgumentException("无效的 MyBatis XML，未找到 mapper 节点");
+        }
+        String namespace = mapper.getStringAttribute("namespace");
+
+        Map<String, Element> fragments = new HashMap<>();
+        for (XNode fragment : mapper.evalNodes("sql")) {
+            String id = fragment.getStringAttribute("id");
+            fragments.put(id, (Element) fragment.getNode());
+            fragments.put(namespace + "." + id, (Element) fragment.getNode());
+        }
+
+        JdbcTemplate jdbcTemplate = datasourceName == null || datasourceName.isBlank()
+            ? null : testEnvironmentService.getJdbcTemplate(datasourceName);
+        List<StatementScenarios> statements = new ArrayList<>();
+        for (XNode node : mapper.evalNodes("select|update|insert|delete")) {
+            String id = node.getStringAttribute("id");
+            if (statementId != null && !statementId.isBlank() && !statementId.equals(id)) {
+                continue;
+            }
+            statements.add(analyzeStatement(namespace, node, fragments, datasourceName, jdbcTemplate, warnings));
+        }
+        if (statements.isEmpty()) {
+            warnings.add(statementId != null ? "未找到语句：" + statementId : "Mapper 中没有语句");
+        }
+        System.out.println("[DynamicSqlScenarioService] 枚举完成，语句数：" + statements.size());
+        return new ScenarioReport(namespace, datasourceName, statements, warnings);
+    }
+
+    private StatementScenarios analyzeStatement(String namespace, XNode node, Map<String, Element> fragments,
+                                                String datasourceName, JdbcTemplate jdbcTemplate, List<String> warnings) {
+        String statementId = node.getStringAttribute("id");
+        DynamicSqlEnumerator enumerator = DynamicSqlEnumerator.compile((Element) node.getNode(), fragments::get,
+            properties.getForeachItems());
+        int maxExhaustive = properties.getMaxExhaustive();
+        List<int[]> combinations = enumerator.plan(maxExhaustive);
+
+        // 按 SQL 指纹去重，保留第一个组合作为代表
+        Map<String, String> dollarValues = dollarValues(namespace + "." + statementId);
+        Map<String, ScenarioResult> byDigest = new LinkedHashMap<>();
+        for (int[] choices : combinations) {
+            String sql = substituteDollars(enumerator.render(choices), dollarValues);
+            String digest = SqlDigestUtils.digest(sql);
+            ScenarioResult existing = byDigest.get(digest);
+            if (existing != null) {
+                byDigest.put(digest, new ScenarioResult(digest, existing.branches(), existing.combinations() + 1,
+                    existing.sql(), null, null, null, null, List.of(), null));
+            } else {
+                byDigest.put(digest, new ScenarioResult(digest, enumerator.describe(choices), 1,
+                    sql, null, null, null, null, List.of(), null));
+            }
+        }
+
+        List<ScenarioResult> pending = new ArrayList<>(byDigest.values());
+        if (pending.size() > properties.getMaxScenarios()) {
+            warnings.add(String.format("%s 去重后有 %d 个场景，只 EXPLAIN 前 %d 个", statementId, pending.size(), properties.getMaxScenarios()));
+            pending = pending.subList(0, properties.getMaxScenarios());
+        }
+        List<ScenarioResult> scenarios = jdbcTemplate == null
+            ? pending : explainAll(datasourceName, jdbcTemplate, statementId, pending, warnings);
+
+        List<ScenarioResult> sorted = new ArrayList<>(scenarios);
+        sorted.sort(Comparator.comparing((ScenarioResult r) -> r.queryCost() != null ? r.queryCost() : -1.0)
+            .thenComparing(r -> r.estimatedRows() != null ? r.estimatedRows() : -1L)
+            .reversed());
+        ScenarioResult worst = jdbcTemplate == null || sorted.isEmpty() || sorted.get(0).queryCost() == null
+            ? null : sorted.get(0);
+        long planCount = sorted.stream().map(ScenarioResult::planSignature).filter(Objects::nonNull).distinct().count();
+
+        return new StatementScenarios(statementId, node.getName().toUpperCase(Locale.ENGLISH), enumerator.getDecisions(),
+            enumerator.spaceSize(), enumerator.isReduced(maxExhaustive) ? "PAIRWISE" : "EXHAUSTIVE",
+            combinations.size(), byDigest.size(), sorted, worst, (int) planCount);
+    }
+
+    /**
+     * ${...} 是文本替换，不能用 ? 代替，从已保存的 Mapper 参数中取值
+     */
+    private Map<String, String> dollarValues(String mapperId) {
+        Map<String, String> values = new HashMap<>();
+        for (MapperParameter parameter : parameterIndex.lookup(mapperId)) {
+            if (parameter.getParameterValue() != null && !"?".equals(parameter.getParameterValue())) {
+                values.put(parameter.getParameterName(), parameter.getParameterValue());
+            }
+        }
+        return values;
+    }
+
+    private static String substituteDollars(String sql, Map<String, String> values) {
+        Matcher matcher = DOLLAR_PLACEHOLDER.matcher(sql);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String value = values.get(matcher.group(1));
+            matcher.appendReplacement(result, Matcher.quoteReplacement(value != null ? value : matcher.group()));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    /**
+     * 并行填充参数并 EXPLAIN
+     */
+    private List<ScenarioResult> explainAll(String datasourceName, JdbcTemplate jdbcTemplate, String statementId,
+                                            List<ScenarioResult> pending, List<String> warnings) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(properties.getParallelism(), pending.size())));
+        try {
+            List<Future<ScenarioResult>> futures = new ArrayList<>();
+            for (ScenarioResult scenario : pending) {
+                futures.add(executor.submit(() -> explain(datasourceName, jdbcTemplate, statementId, scenario)));
+            }
+            List<ScenarioResult> results = new ArrayList<>();
+            for (Future<ScenarioResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            warnings.add("场景 EXPLAIN 被中断");
+            return pending;
+        } catch (ExecutionException e) {
+            warnings.add("场景 EXPLAIN 失败：" + e.getCause().getMessage());
+            return pending;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ScenarioResult explain(String datasourceName, JdbcTemplate jdbcTemplate, String statementId, ScenarioResult scenario) {
+        String filledSql = scenario.sql();
+        try {
+            if (filledSql.contains("${")) {
+                throw new IllegalStateException("存在未提供取值的 ${} 参数，请先保存 Mapper 参数");
+            }
+            if (filledSql.indexOf('?') >= 0) {
+                filledSql = sqlFillerService.fillSql(datasourceName, scenario.sql(),
+                    sqlExecutionPlanService.parseTableNames(scenario.sql()), statementId).filledSql();
+            }
+            ExecutionPlan plan = sqlExecutionPlanService.getExecutionPlanUncached(filledSql, jdbcTemplate);
+            String rawJson = plan != null ? plan.getRawJson() : null;
+            PlanShape shape = PlanShape.fromRawJson(rawJson);
+            long rows = shape.getTables().stream()
+                .map(PlanShape.TableAccess::getRowsExaminedPerScan)
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .sum();
+            List<String> fullScans = shape.getTables().stream()
+                .filter(t -> "ALL".equalsIgnoreCase(t.getAccessType()))
+                .map(PlanShape.TableAccess::getTableName)
+                .toList();
+            return new ScenarioResult(scenario.digest(), scenario.branches(), scenario.combinations(), scenario.sql(),
+                filledSql, queryCost(rawJson), rows, shape.getSignature(), fullScans, null);
+        } catch (Exception e) {
+            return new ScenarioResult(scenario.digest(), scenario.branches(), scenario.combinations(), scenario.sql(),
+                filledSql, null, null, null, List.of(), e.getMessage());
+        }
+    }
+
+    private Double queryCost(String rawJson) {
+        if (rawJson == null) {
+            return null;
+        }
+        try {
+            JsonNode cost = objectMapper.readTree(rawJson).path("query_block").path("cost_info").path("query_cost");
+            return cost.isMissingNode() ? null : Double.parseDouble(cost.asText());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.ExecutionPlan;
+import com.biz.sccba.sqlanalyzer.model.ExecutionPlanBlob;
+import com.biz.sccba.sqlanalyzer.model.ExecutionPlanCacheEntry;
+import com.biz.sccba.sqlanalyzer.repository.ExecutionPlanBlobRepository;
+import com.biz.sccba.sqlanalyzer.repository.ExecutionPlanCacheRepository;
+import com.biz.sccba.sqlanalyzer.util.SqlDigestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 执行计划缓存服务
+ *
+ * 缓存键为 (SQL 文本摘要, 数据源, Schema 版本)：
+ * - Schema 版本是涉及表的列、索引定义和统计信息更新时间（mysql.innodb_table_stats.last_update）的摘要，
+ *   表结构变化或 ANALYZE / 自动重新统计后自然失效，不会在统计信息漂移后继续返回旧计划
+ * - 相同的计划 JSON 只保存一份（按内容摘要去重），并以 GZIP 压缩存储
+ * - 定时清理：条目按创建时间过期（热点语句也会定期重新 EXPLAIN），超出容量时淘汰最久未访问的条目
+ */
+@Service
+public class ExecutionPlanCacheService {
+
+    private static final String DEFAULT_DATASOURCE_KEY = "default";
+
+    @Autowired
+    private ExecutionPlanCacheRepository cacheRepository;
+
+    @Autowired
+    private ExecutionPlanBlobRepository blobRepository;
+
+    @Autowired
+    private AnalyzerConfig.PlanCacheProperties properties;
+
+    /**
+     * Schema 版本内存缓存（键：数据源 + 表名列表）
+     */
+    private final Map<String, SchemaVersion> schemaVersions = new ConcurrentHashMap<>();
+
+    /**
+     * 从缓存获取执行计划，未命中时通过 loader 执行 EXPLAIN 并写入缓存
+     *
+     * @param sql 完整 SQL
+     * @param datasourceName 数据源名称
+     * @param jdbcTemplate 目标数据源的 JdbcTemplate（用于读取 Schema 版本）
+     * @param tableNames SQL 涉及的表
+     * @param loader 实际获取执行计划的方法
+     */
+    public ExecutionPlan getOrLoad(String sql, String datasourceName, JdbcTemplate jdbcTemplate,
+                                   List<String> tableNames, Supplier<ExecutionPlan> loader) {
+        if (!Boolean.TRUE.equals(properties.getEnabled())) {
+            return loader.get();
+        }
+
+        String datasourceKey = datasourceKey(datasourceName);
+        String sqlHash = SqlDigestUtils.textHash(sql);
+        String schemaVersion;
+        try {
+            schemaVersion = resolveSchemaVersion(datasourceKey, jdbcTemplate, tableNames);
+        } catch (DataAccessException e) {
+            System.err.println("[ExecutionPlanCacheService] 读取 Schema 版本失败，跳过缓存：" + e.getMessage());
+            return loader.get();
+        }
+
+        Optional<ExecutionPlanCacheEntry> cached =
+            cacheRepository.findBySqlHashAndDatasourceNameAndSchemaVersion(sqlHash, datasourceKey, schemaVersion);
+        if (cached.isPresent()) {
+            ExecutionPlan plan = loadPlan(cached.get().getPlanContentHash());
+            if (plan != null) {
+                cacheRepository.recordHit(cached.get().getId(), LocalDateTime.now());
+                return plan;
+            }
+        }
+
+        ExecutionPlan plan = loader.get();
+        if (plan != null && plan.getRawJson() != null) {
+            store(sql, sqlHash, datasourceKey, schemaVersion, plan.getRawJson(), cached.orElse(null));
+        }
+        return plan;
+    }
+
+    /**
+     * 使指定数据源的 Schema 版本内存缓存失效（执行 DDL 后调用）
+     */
+    public void invalidateSchemaVersion(String datasourceName) {
+        String prefix = datasourceKey(datasourceName) + "|";
+        schemaVersions.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * 清除指定数据源的全部缓存条目
+     */
+    @Transactional
+    public int evictDatasource(String datasourceName) {
+        invalidateSchemaVersion(datasourceName);
+        int deleted = cacheRepository.deleteByDatasourceName(datasourceKey(datasourceName));
+        blobRepository.deleteOrphans();
+        return deleted;
+    }
+
+    /**
+     * 清除指定 SQL 指纹的全部缓存条目（Mapper 中的 SQL 被修改后调用）
+     */
+    @Transactional
+    public int evictDigests(Collection<String> sqlDigests) {
+        if (sqlDigests.isEmpty()) {
+            return 0;
+        }
+        int deleted = cacheRepository.deleteBySqlDigestIn(sqlDigests);
+        blobRepository.deleteOrphans();
+        return deleted;
+    }
+
+    /**
+     * 保留策略：删除创建时间超期的条目、淘汰超出容量的最久未访问条目、清理无引用的计划内容
+     */
+    @Scheduled(fixedDelayString = "${spring.analyzer.plan-cache.retention-interval-ms:3600000}",
+        initialDelayString = "${spring.analyzer.plan-cache.retention-interval-ms:3600000}")
+    @Transactional
+    public void applyRetention() {
+        int expired = 0;
+        if (properties.getMaxAgeDays() != null && properties.getMaxAgeDays() > 0) {
+            expired = cacheRepository.deleteByCreatedAtBefore(
+                LocalDateTime.now().minusDays(properties.getMaxAgeDays()));
+        }
+
+        int evicted = 0;
+        if (properties.getMaxEntries() != null && properties.getMaxEntries() > 0) {
+            long overflow = cacheRepository.count() - properties.getMaxEntries();
+            if (overflow > 0) {
+                List<Long> ids = cacheRepository.findIdsOrderByLastAccessedAtAsc(
+                    PageRequest.of(0, (int) Math.min(overflow, Integer.MAX_VALUE)));
+                cacheRepository.deleteAllByIdInBatch(ids);
+                evicted = ids.size();
+            }
+        }
+
+        int orphans = blobRepository.deleteOrphans();
+        if (expired + evicted + orphans > 0) {
+            System.out.println("[ExecutionPlanCacheService] 缓存清理完成 - 过期: " + expired
+                + ", 容量淘汰: " + evicted + ", 无引用计划: " + orphans);
+        }
+    }
+
+    /**
+     * 计算涉及表的 Schema 版本（列定义 + 索引定义 + 统计信息更新时间的摘要），结果在内存中缓存一段时间
+     */
+    private String resolveSchemaVersion(String datasourceKey, JdbcTemplate jdbcTemplate, List<String> tableNames) {
+        List<String> tables = tableNames == null ? List.of() : tableNames.stream()
+            .map(name -> name.toLowerCase(Locale.ROOT))
+            .distinct()
+            .sorted()
+            .toList();
+        String key = datasourceKey + "|" + String.join(",", tables);
+        long now = System.currentTimeMillis();
+        long ttl = properties.getSchemaVersionTtlMs() != null ? properties.getSchemaVersionTtlMs() : 0L;
+
+        SchemaVersion current = schemaVersions.get(key);
+        if (current != null && now - current.resolvedAt() < ttl) {
+            return current.version();
+        }
+
+        String version = SqlDigestUtils.sha256Hex(readSchemaDefinition(jdbcTemplate, tables));
+        schemaVersions.put(key, new SchemaVersion(version, now));
+        return version;
+    }
+
+    /**
+     * 读取表的列、索引定义和统计信息更新时间，拼成稳定排序的文本
+     */
+    private String readSchemaDefinition(JdbcTemplate jdbcTemplate, List<String> tables) {
+        if (tables.isEmpty()) {
+            return "";
+        }
+        String placeholders = tables.stream().map(t -> "?").collect(Collectors.joining(","));
+        Object[] args = tables.toArray();
+
+        List<String> columns = jdbcTemplate.query(
+            "SELECT LOWER(TABLE_NAME), COLUMN_NAME, COLUMN_TYPE, IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND LOWER(TABLE_NAME) IN (" + placeholders + ") " +
+            "ORDER BY 1, ORDINAL_POSITION",
+            (rs, rowNum) -> "C:" + rs.getString(1) + "." + rs.getString(2) + ":" + rs.getString(3) + ":" + rs.getString(4),
+            args);
+        List<String> indexes = jdbcTemplate.query(
+            "SELECT LOWER(TABLE_NAME), INDEX_NAME, SEQ_IN_INDEX, COLUMN_NAME, NON_UNIQUE FROM INFORMATION_SCHEMA.STATISTICS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND LOWER(TABLE_NAME) IN (" + placeholders + ") " +
+            "ORDER BY 1, INDEX_NAME, SEQ_IN_INDEX",
+            (rs, rowNum) -> "I:" + rs.getString(1) + "." + rs.getString(2) + ":" + rs.getInt(3) + ":" + rs.getString(4) + ":" + rs.getInt(5),
+            args);
+
+        List<String> stats;
+        try {
+            stats = jdbcTemplate.query(
+                "SELECT LOWER(table_name), last_update FROM mysql.innodb_table_stats " +
+                "WHERE database_name = DATABASE() AND LOWER(table_name) IN (" + placeholders + ") ORDER BY 1",
+                (rs, rowNum) -> "S:" + rs.getString(1) + ":" + rs.getString(2),
+                args);
+        } catch (DataAccessException e) {
+            // 没有 mysql 库的读权限时只按表结构区分，依靠按创建时间过期刷新
+            stats = List.of();
+        }
+
+        StringBuilder definition = new StringBuilder();
+        columns.forEach(line -> definition.append(line).append('\n'));
+        indexes.forEach(line -> definition.append(line).append('\n'));
+        stats.forEach(line -> definition.append(line).append('\n'));
+        return definition.toString();
+    }
+
+    /**
+     * 写入缓存：计划内容按摘要去重，缓存条目指向内容摘要
+     */
+    private void store(String sql, String sqlHash, String datasourceKey, String schemaVersion,
+                       String rawJson, ExecutionPlanCacheEntry existing) {
+        try {
+            String contentHash = storePlanContent(rawJson);
+
+            ExecutionPlanCacheEntry entry = existing != null ? existing : new ExecutionPlanCacheEntry();
+            entry.setSqlHash(sqlHash);
+            entry.setSqlDigest(SqlDigestUtils.digest(sql));
+            entry.setDatasourceName(datasourceKey);
+            entry.setSchemaVersion(schemaVersion);
+            entry.setPlanContentHash(contentHash);
+            entry.setSqlText(sql);
+            entry.setLastAccessedAt(LocalDateTime.now());
+            cacheRepository.save(entry);
+        } catch (DataIntegrityViolationException e) {
+            // 并发写入了相同的缓存键，忽略
+        } catch (Exception e) {
+            System.err.println("[ExecutionPlanCacheService] 写入执行计划缓存失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 保存执行计划 JSON（按内容摘要去重，GZIP 压缩）
+     *
+     * @return 内容摘要
+     */
+    public String storePlanContent(String rawJson) throws IOException {
+        byte[] raw = rawJson.getBytes(StandardCharsets.UTF_8);
+        String contentHash = SqlDigestUtils.sha256Hex(raw);
+
+        if (blobRepository.findByContentHash(contentHash).isEmpty()) {
+            ExecutionPlanBlob blob = new ExecutionPlanBlob();
+            blob.setContentHash(contentHash);
+            blob.setCompressedJson(compress(raw));
+            blob.setRawSize(raw.length);
+            blob.setCompressedSize(blob.getCompressedJson().length);
+            try {
+                blobRepository.save(blob);
+            } catch (DataIntegrityViolationException e) {
+                // 并发写入了相同内容，直接复用
+            }
+        }
+        return contentHash;
+    }
+
+    /**
+     * 按内容摘要读取并解压执行计划 JSON，不存在时返回 null
+     */
+    public String loadPlanContent(String contentHash) {
+        Optional<ExecutionPlanBlob> blob = blobRepository.findByContentHash(contentHash);
+        if (blob.isEmpty()) {
+            return null;
+        }
+        try {
+            return new String(decompress(blob.get().getCompressedJson()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("[ExecutionPlanCacheService] 解压执行计划失败：" + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 按内容摘要读取执行计划
+     */
+    private ExecutionPlan loadPlan(String contentHash) {
+        String rawJson = loadPlanContent(contentHash);
+        if (rawJson == null) {
+            return null;
+        }
+        ExecutionPlan plan = new ExecutionPlan();
+        plan.setRawJson(rawJson);
+        plan.parseFromRawJson();
+        return plan;
+    }
+
+    private String datasourceKey(String datasourceName) {
+        return datasourceName == null || datasourceName.trim().isEmpty() ? DEFAULT_DATASOURCE_KEY : datasourceName;
+    }
+
+    static byte[] compress(byte[] raw) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(raw);
+        }
+        return output.toByteArray();
+    }
+
+    static byte[] decompress(byte[] compressed) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return gzip.readAllBytes();
+        }
+    }
+
+    /**
+     * Schema 版本及其读取时间
+     */
+    private record SchemaVersion(String version, long resolvedAt) {
+    }
+}
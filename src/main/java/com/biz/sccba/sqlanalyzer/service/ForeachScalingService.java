@@ -0,0 +1,395 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.ExecutionPlan;
+import com.biz.sccba.sqlanalyzer.model.PlanShape;
+import com.biz.sccba.sqlanalyzer.util.InListScalingModel;
+import com.biz.sccba.sqlanalyzer.util.InListScalingModel.Degradation;
+import com.biz.sccba.sqlanalyzer.util.InListScalingModel.Point;
+import com.biz.sccba.sqlanalyzer.util.InListScalingModel.Recommendation;
+import com.biz.sccba.sqlanalyzer.util.SqlPlaceholderBinder;
+import com.biz.sccba.sqlanalyzer.util.SqlStatementClassifier;
+import org.apache.ibatis.builder.xml.XMLMapperEntityResolver;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.w3c.dom.Element;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * foreach 展开与 IN 列表规模分析
+ *
+ * &lt;foreach&gt; 的集合大小决定了 IN 列表的长度（或多行 VALUES 的行数）：
+ * 超过 eq_range_index_dive_limit 后优化器不再逐个 index dive，改用索引统计估算行数，可能换成全表扫描；
+ * 列表过长时语句本身的解析和传输开销也会超过省下的往返，甚至超过 max_allowed_packet。
+ * 本服务把含 foreach 的语句按多个元素个数渲染，用真实的不同取值填充后 EXPLAIN（可选基准测试），
+ * 找出计划或耗时开始退化的规模，推荐调用方的分批大小
+ */
+@Service
+public class ForeachScalingService {
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private SqlExecutionPlanService sqlExecutionPlanService;
+
+    @Autowired
+    private BenchmarkService benchmarkService;
+
+    @Autowired
+    private AnalyzerConfig.ForeachScalingProperties properties;
+
+    /**
+     * 一个规模的结果
+     *
+     * @param size foreach 元素个数
+     * @param sqlBytes 填充后 SQL 的字节数
+     * @param planSignature 计划结构签名
+     * @param accessTypes 各表访问方式：表 -> 访问类型(索引)
+     * @param estimatedRows 各表估算扫描行数之和
+     * @param aboveDiveLimit 元素个数是否达到 eq_range_index_dive_limit（改用索引统计估算）
+     * @param p50Ms 基准测试中位耗时
+     * @param p99Ms 基准测试 P99 耗时
+     * @param error EXPLAIN 或基准测试失败原因
+     */
+    public record SizeResult(
+        int size,
+        long sqlBytes,
+        String planSignature,
+        Map<String, String> accessTypes,
+        Long estimatedRows,
+        Boolean aboveDiveLimit,
+        Double p50Ms,
+        Double p99Ms,
+        String error
+    ) {}
+
+    /**
+     * 一个语句的规模分析
+     *
+     * @param statementId 语句 ID
+     * @param statementType SELECT/UPDATE/INSERT/DELETE
+     * @param collections foreach 的集合名
+     * @param inColumns IN 列表比较的列
+     * @param sizes 各规模的结果
+     * @param degradation 第一个退化的规模（没有退化时为 null）
+     * @param recommendation 分批大小推荐
+     * @param findings 结论
+     */
+    public record StatementScaling(
+        String statementId,
+        String statementType,
+        List<String> collections,
+        List<String> inColumns,
+        List<SizeResult> sizes,
+        Degradation degradation,
+        Recommendation recommendation,
+        List<String> findings
+    ) {}
+
+    /**
+     * 规模分析报告
+     *
+     * @param namespace Mapper 命名空间
+     * @param datasourceName 数据源
+     * @param eqRangeIndexDiveLimit 数据源的 eq_range_index_dive_limit
+     * @param maxAllowedPacket 数据源的 max_allowed_packet
+     * @param statements 含 foreach 的语句
+     * @param warnings 警告
+     */
+    public record ScalingReport(
+        String namespace,
+        String datasourceName,
+        Integer eqRangeIndexDiveLimit,
+        Long maxAllowedPacket,
+        List<StatementScaling> statements,
+        List<String> warnings
+    ) {}
+
+    /**
+     * 分析 Mapper XML 中含 foreach 的语句
+     *
+     * @param xmlContent Mapper XML
+     * @param statementId 只分析该语句（为空时分析全部含 foreach 的语句）
+     * @param datasourceName 数据源（为空时只渲染并估算语句大小）
+     * @param sizes 元素个数（为空时使用 spring.analyzer.foreach-scaling.sizes）
+     * @param benchmark 是否对每个规模执行基准测试（只对查询语句）
+     */
+    public ScalingReport analyze(String xmlContent, String statementId, String datasourceName,
+                                 List<Integer> sizes, boolean benchmark) {
+        System.out.println("[ForeachScalingService] 开始 IN 列表规模分析，statement=" + statementId + ", datasource=" + datasourceName);
+        List<String> warnings = new ArrayList<>();
+        XPathParser parser = new XPathParser(xmlContent, false, null, new XMLMapperEntityResolver());
+        XNode mapper = parser.evalNode("/mapper");
+        if (mapper == null) {
+            throw new IllegalArgumentException("无效的 MyBatis XML，未找到 mapper 节点");
+        }
+        String namespace = mapper.getStringAttribute("namespace");
+        Map<String, Element> fragments = new HashMap<>();
+        for (XNode fragment : mapper.evalNodes("sql")) {
+            String id = fragment.getStringAttribute("id");
+            fragments.put(id, (Element) fragment.getNode());
+            fragments.put(namespace + "." + id, (Element) fragment.getNode());
+        }
+
+        JdbcTemplate jdbcTemplate = datasourceName == null || datasourceName.isBlank()
+            ? null : testEnvironmentService.getJdbcTemplate(datasourceName);
+        Integer diveLimit = null;
+        Long maxAllowedPacket = null;
+        if (jdbcTemplate != null) {
+            try {
+                Map<String, Object> variables = jdbcTemplate.queryForMap(
+                    "SELECT @@eq_range_index_dive_limit AS dive_limit, @@max_allowed_packet AS max_packet");
+                diveLimit = ((Number) variables.get("dive_limit")).intValue();
+                maxAllowedPacket = ((Number) variables.get("max_packet")).longValue();
+            } catch (Exception e) {
+                warnings.add("读取 eq_range_index_dive_limit / max_allowed_packet 失败：" + e.getMessage());
+            }
+        }
+        List<Integer> plannedSizes = plannedSizes(sizes, diveLimit);
+
+        List<StatementScaling> statements = new ArrayList<>();
+        for (XNode node : mapper.evalNodes("select|update|insert|delete")) {
+            String id = node.getStringAttribute("id");
+            if (statementId != null && !statementId.isBlank() && !statementId.equals(id)) {
+                continue;
+            }
+            DynamicSqlEnumerator enumerator = DynamicSqlEnumerator.compile((Element) node.getNode(), fragments::get, 2);
+            List<String> collections = enumerator.getDecisions().stream()
+                .filter(d -> d.kind() == DynamicSqlEnumerator.DecisionKind.FOREACH)
+                .map(DynamicSqlEnumerator.Decision::label)
+                .toList();
+            if (collections.isEmpty()) {
+                continue;
+            }
+            statements.add(analyzeStatement(id, node.getName().toUpperCase(Locale.ENGLISH), enumerator, collections,
+                plannedSizes, datasourceName, jdbcTemplate, diveLimit, maxAllowedPacket, benchmark, warnings));
+        }
+        if (statements.isEmpty()) {
+            warnings.add(statementId != null && !statementId.isBlank()
+                ? "未找到含 foreach 的语句：" + statementId : "Mapper 中没有含 foreach 的语句");
+        }
+        System.out.println("[ForeachScalingService] 分析完成，语句数：" + statements.size());
+        return new ScalingReport(namespace, datasourceName, diveLimit, maxAllowedPacket, statements, warnings);
+    }
+
+    /**
+     * 规模列表：去重排序，并加入 dive 限制两侧的规模以精确定位切换点
+     */
+    private List<Integer> plannedSizes(List<Integer> sizes, Integer diveLimit) {
+        TreeSet<Integer> planned = new TreeSet<>();
+        for (Integer size : sizes != null && !sizes.isEmpty() ? sizes : properties.getSizes()) {
+            if (size != null && size > 0) {
+                planned.add(size);
+            }
+        }
+        if (planned.isEmpty()) {
+            planned.add(1);
+        }
+        if (diveLimit != null && diveLimit > 1 && diveLimit <= planned.last()) {
+            planned.add(diveLimit - 1);
+            planned.add(diveLimit);
+        }
+        return new ArrayList<>(planned);
+    }
+
+    private StatementScaling analyzeStatement(String statementId, String statementType, DynamicSqlEnumerator enumerator,
+                                              List<String> collections, List<Integer> sizes, String datasourceName,
+                                              JdbcTemplate jdbcTemplate, Integer diveLimit, Long maxAllowedPacket,
+                                              boolean benchmark, List<String> warnings) {
+        int[] choices = enumerator.allConditions();
+        int largest = sizes.get(sizes.size() - 1);
+
+        // 以最大规模渲染一次识别 IN 列表的列，并为每列采样足够多的不同取值
+        String largestSql = enumerator.render(choices, largest);
+        List<SqlPlaceholderBinder.Binding> largestBindings = SqlPlaceholderBinder.bind(largestSql);
+        Map<String, Long> occurrences = largestBindings.stream()
+            .filter(b -> b.column() != null)
+            .collect(Collectors.groupingBy(SqlPlaceholderBinder.Binding::column, LinkedHashMap::new, Collectors.counting()));
+        List<String> inColumns = occurrences.entrySet().stream()
+            .filter(e -> e.getValue() >= largest)
+            .map(Map.Entry::getKey)
+            .toList();
+        Map<String, List<Object>> values = jdbcTemplate != null && !largestSql.contains("${")
+            ? sampleValues(jdbcTemplate, sqlExecutionPlanService.parseTableNames(largestSql), occurrences.keySet(), largest, statementId, warnings)
+            : Map.of();
+        for (String column : inColumns) {
+            List<Object> sampled = values.get(column);
+            if (sampled != null && sampled.size() < largest) {
+                warnings.add(String.format("%s：列 %s 只有 %d 个不同取值，更大规模的 IN 列表会重复取值", statementId, column, sampled.size()));
+            }
+        }
+
+        // <select> 中也可能是 WITH ... UPDATE/DELETE，按 SQL 的主语句判断
+        boolean read = "SELECT".equals(statementType) && SqlStatementClassifier.isReadOnly(largestSql);
+        boolean canBenchmark = benchmark && jdbcTemplate != null && read;
+        if (benchmark && !read) {
+            warnings.add(statementId + " 是写语句，只 EXPLAIN 不做基准测试");
+        }
+        List<SizeResult> results = new ArrayList<>();
+        List<Point> points = new ArrayList<>();
+        for (int size : sizes) {
+            String sql = enumerator.render(choices, size);
+            String filledSql = fill(sql, SqlPlaceholderBinder.bind(sql), values);
+            long bytes = filledSql.getBytes(StandardCharsets.UTF_8).length;
+            if (jdbcTemplate == null || sql.contains("${")) {
+                results.add(new SizeResult(size, bytes, null, Map.of(), null, null, null, null,
+                    jdbcTemplate == null ? null : "存在 ${} 文本替换参数，无法 EXPLAIN"));
+                points.add(new Point(size, null, false, null, null, bytes));
+                continue;
+            }
+            if (maxAllowedPacket != null && bytes > maxAllowedPacket) {
+                results.add(new SizeResult(size, bytes, null, Map.of(), null, null, null, null,
+                    "语句超过 max_allowed_packet=" + maxAllowedPacket + "，执行会失败"));
+                points.add(new Point(size, "PACKET_TOO_LARGE", false, null, null, bytes));
+                continue;
+            }
+            try {
+                ExecutionPlan plan = sqlExecutionPlanService.getExecutionPlanUncached(filledSql, jdbcTemplate);
+                PlanShape shape = PlanShape.fromRawJson(plan != null ? plan.getRawJson() : null);
+                Map<String, String> accessTypes = new LinkedHashMap<>();
+                long rows = 0;
+                boolean fullScan = false;
+                for (PlanShape.TableAccess table : shape.getTables()) {
+                    accessTypes.put(table.getTableName(), table.getAccessType()
+                        + (table.getKey() != null ? "(" + table.getKey() + ")" : ""));
+                    rows += table.getRowsExaminedPerScan() != null ? table.getRowsExaminedPerScan() : 0;
+                    fullScan |= "ALL".equalsIgnoreCase(table.getAccessType());
+                }
+                Double p50 = null;
+                Double p99 = null;
+                String error = null;
+                if (canBenchmark) {
+                    try {
+                        var report = benchmarkService.benchmarkSql(filledSql, datasourceName, new BenchmarkService.BenchmarkOptions(
+                            1, properties.getBenchmarkWarmup(), properties.getBenchmarkIterations(), 1));
+                        p50 = report.result().getP50Ms();
+                        p99 = report.result().getP99Ms();
+                    } catch (Exception e) {
+                        error = "基准测试失败：" + e.getMessage();
+                        canBenchmark = false;
+                    }
+                }
+                Boolean aboveDiveLimit = diveLimit == null || diveLimit == 0 ? null : size >= diveLimit;
+                results.add(new SizeResult(size, bytes, shape.getSignature(), accessTypes, rows, aboveDiveLimit, p50, p99, error));
+                points.add(new Point(size, shape.getSignature(), fullScan, rows, p50, bytes));
+            } catch (Exception e) {
+                results.add(new SizeResult(size, bytes, null, Map.of(), null, null, null, null, e.getMessage()));
+                points.add(new Point(size, null, false, null, null, bytes));
+            }
+        }
+
+        Degradation degradation = InListScalingModel.firstDegradation(points,
+            properties.getRowsDegradationFactor(), properties.getLatencyDegradationFactor());
+        Recommendation recommendation = InListScalingModel.recommend(points, degradation, maxAllowedPacket);
+        List<String> findings = findings(statementType, results, degradation, recommendation, diveLimit);
+        return new StatementScaling(statementId, statementType, collections, inColumns, results, degradation,
+            recommendation, findings);
+    }
+
+    private List<String> findings(String statementType, List<SizeResult> results, Degradation degradation,
+                                  Recommendation recommendation, Integer diveLimit) {
+        List<String> findings = new ArrayList<>();
+        if (degradation != null) {
+            findings.add(String.format("%d 个元素时开始退化：%s", degradation.size(), String.join("；", degradation.reasons())));
+            if (diveLimit != null && diveLimit > 0 && degradation.size() >= diveLimit) {
+                findings.add(String.format("元素个数达到 eq_range_index_dive_limit=%d 后优化器按索引统计（records_per_key）估算每个值的行数，"
+                    + "数据倾斜时估算失真，可能放弃索引", diveLimit));
+            }
+        }
+        results.stream().filter(r -> r.error() != null && r.error().contains("max_allowed_packet")).findFirst()
+            .ifPresent(r -> findings.add(r.size() + " 个元素的语句超过 max_allowed_packet，执行会直接失败"));
+        if ("INSERT".equals(statementType)) {
+            findings.add(String.format("多行 VALUES 的批量插入建议每批 %d 行；更大的批次可改用 ExecutorType.BATCH 并开启 rewriteBatchedStatements",
+                recommendation.chunkSize()));
+        } else {
+            findings.add(String.format("调用方应把集合按每批 %d 个元素拆分后多次调用（%s）",
+                recommendation.chunkSize(), recommendation.reason()));
+        }
+        return findings;
+    }
+
+    /**
+     * 为每个被比较的列采样不同的真实取值，IN 列表用不同的值才能反映实际的范围个数
+     */
+    private Map<String, List<Object>> sampleValues(JdbcTemplate jdbcTemplate, List<String> tables, Set<String> columns,
+                                                   int limit, String statementId, List<String> warnings) {
+        Map<String, List<Object>> values = new HashMap<>();
+        if (tables.isEmpty() || columns.isEmpty()) {
+            return values;
+        }
+        String placeholders = tables.stream().map(t -> "?").collect(Collectors.joining(","));
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT TABLE_NAME, COLUMN_NAME FROM information_schema.COLUMNS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME IN (" + placeholders + ")",
+            tables.toArray());
+        for (String column : columns) {
+            for (Map<String, Object> row : rows) {
+                if (column.equalsIgnoreCase((String) row.get("COLUMN_NAME"))) {
+                    try {
+                        values.put(column, jdbcTemplate.queryForList(String.format(
+                            "SELECT DISTINCT `%1$s` FROM `%2$s` WHERE `%1$s` IS NOT NULL LIMIT %3$d",
+                            row.get("COLUMN_NAME"), row.get("TABLE_NAME"), limit), Object.class));
+                    } catch (Exception e) {
+                        warnings.add(statementId + "：采样列 " + column + " 的取值失败：" + e.getMessage());
+                    }
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 按出现顺序填充占位符：同一列第 k 次出现取第 k 个采样值（IN 列表因此是不同的值），
+     * LIMIT 取 10，无法识别的占位符取 1
+     */
+    private String fill(String sql, List<SqlPlaceholderBinder.Binding> bindings, Map<String, List<Object>> values) {
+        Map<String, Integer> used = new HashMap<>();
+        List<String> literals = new ArrayList<>(bindings.size());
+        for (SqlPlaceholderBinder.Binding binding : bindings) {
+            List<Object> candidates = binding.column() != null ? values.get(binding.column()) : null;
+            Object value;
+            if (binding.role() == SqlPlaceholderBinder.Role.LIMIT) {
+                value = 10;
+            } else if (candidates == null || candidates.isEmpty()) {
+                value = 1;
+            } else {
+                int k = used.merge(binding.column(), 1, Integer::sum) - 1;
+                value = candidates.get(k % candidates.size());
+            }
+            literals.add(SqlFillerService.formatValue(value));
+        }
+
+        StringBuilder result = new StringBuilder(sql.length() + literals.size() * 8);
+        boolean inString = false;
+        char quote = 0;
+        int next = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (inString) {
+                if (c == '\\' && i + 1 < sql.length()) {
+                    result.append(c).append(sql.charAt(++i));
+                    continue;
+                }
+                if (c == quote) {
+                    inString = false;
+                }
+            } else if (c == '\'' || c == '"') {
+                inString = true;
+                quote = c;
+            } else if (c == '?' && next < literals.size()) {
+                result.append(literals.get(next++));
+                continue;
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+}
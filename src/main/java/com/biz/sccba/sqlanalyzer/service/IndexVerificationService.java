@@ -0,0 +1,297 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.data.DataSourceConfigModel;
+import com.biz.sccba.sqlanalyzer.model.BenchmarkResult;
+import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.model.agent.IndexVerificationReport;
+import com.biz.sccba.sqlanalyzer.model.agent.IndexVerificationReport.StatementComparison;
+import com.biz.sccba.sqlanalyzer.model.agent.IndexVerificationReport.Verdict;
+import com.biz.sccba.sqlanalyzer.util.DmlWriteModel;
+import com.biz.sccba.sqlanalyzer.util.IndexVerificationDecision;
+import com.biz.sccba.sqlanalyzer.util.SqlStatementClassifier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 索引变更前后对比验证服务
+ *
+ * 在用户确认 CREATE INDEX 之前，在测试环境上：
+ * 1. 对涉及该表的读语句做基准测试
+ * 2. 创建索引
+ * 3. 重新测量读语句，以及同表的写语句（INSERT/UPDATE/DELETE，执行后回滚）
+ * 4. 根据实测的读收益和写代价给出结论，无收益时自动删除索引
+ *
+ * 写语句在创建索引前也会测量一次作为基线。
+ * 测试环境必须开启 safety.allow-execution；读语句的基线全部测量失败时不创建索引
+ */
+@Service
+public class IndexVerificationService {
+
+    @Autowired
+    private BenchmarkService benchmarkService;
+
+    @Autowired
+    private StatementTableIndex statementTableIndex;
+
+    @Autowired
+    private DmlAnalysisService dmlAnalysisService;
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private ExecutionPlanCacheService executionPlanCacheService;
+
+    @Autowired
+    private AnalyzerConfig.IndexVerificationProperties properties;
+
+    /**
+     * 验证创建索引的效果
+     *
+     * @param verifyDatasource 执行验证的测试环境（需开启 safety.allow-execution）
+     * @param targetDatasource 最终要执行 DDL 的数据源；与测试环境相同时验证后总是回滚，由用户确认后再正式创建
+     * @param tableName 表名
+     * @param indexName 索引名
+     * @param ddl CREATE INDEX 语句
+     * @param rollbackDdl 回滚语句
+     * @return 验证报告
+     * @throws IllegalStateException 测试环境未开启 safety.allow-execution
+     */
+    public IndexVerificationReport verifyCreateIndex(String verifyDatasource, String targetDatasource,
+                                                     String tableName, String indexName,
+                                                     String ddl, String rollbackDdl) {
+        System.out.println("[IndexVerificationService] 开始验证索引：" + indexName + "，测试环境：" + verifyDatasource);
+        IndexVerificationReport report = new IndexVerificationReport();
+        report.setDatasourceName(verifyDatasource);
+        report.setDdl(ddl);
+
+        DataSourceConfigModel.SafetyConfig safety = testEnvironmentService.getSafetyConfig(verifyDatasource);
+        if (!Boolean.TRUE.equals(safety.getAllowExecution())) {
+            throw new IllegalStateException("数据源 '" + verifyDatasource + "' 未开启 safety.allow-execution，不允许在其上验证索引");
+        }
+
+        if (indexExists(verifyDatasource, tableName, indexName)) {
+            report.setVerdict(Verdict.INCONCLUSIVE);
+            report.getWarnings().add("测试环境上已存在索引 " + indexName + "，无法测量创建前的基线");
+            report.setSummary("未验证：测试环境上已存在同名索引");
+            return report;
+        }
+
+        List<ParsedSqlQuery> reads = new ArrayList<>();
+        List<ParsedSqlQuery> writes = new ArrayList<>();
+        collectStatements(tableName, reads, writes);
+        if (reads.isEmpty()) {
+            report.setVerdict(Verdict.INCONCLUSIVE);
+            report.getWarnings().add("没有找到涉及表 " + tableName + " 的已解析查询，请先解析 Mapper");
+            report.setSummary("未验证：没有涉及该表的已解析查询");
+            return report;
+        }
+
+        estimateWriteCost(verifyDatasource, tableName, ddl, report);
+
+        BenchmarkService.BenchmarkOptions options = new BenchmarkService.BenchmarkOptions(
+            properties.getParameterSets(), properties.getWarmupIterations(),
+            properties.getIterations(), properties.getConcurrency());
+
+        // 1. 基线
+        Map<Long, BenchmarkResult> readsBefore = measure(reads, verifyDatasource, options, report.getWarnings());
+        if (readsBefore.isEmpty()) {
+            report.setVerdict(Verdict.INCONCLUSIVE);
+            report.setSummary("未验证：创建索引前的读语句基线全部测量失败，未创建索引");
+            return report;
+        }
+        Map<Long, BenchmarkResult> writesBefore = measure(writes, verifyDatasource, options, report.getWarnings());
+
+        // 2. 创建索引
+        boolean applied = false;
+        try {
+            testEnvironmentService.executeDdl(verifyDatasource, ddl);
+            applied = true;
+            executionPlanCacheService.invalidateSchemaVersion(verifyDatasource);
+
+            // 3. 创建后重新测量
+            Map<Long, BenchmarkResult> readsAfter = measure(reads, verifyDatasource, options, report.getWarnings());
+            Map<Long, BenchmarkResult> writesAfter = measure(writes, verifyDatasource, options, report.getWarnings());
+            report.setReads(compare(reads, readsBefore, readsAfter));
+            report.setWrites(compare(writes, writesBefore, writesAfter));
+        } catch (Exception e) {
+            report.getWarnings().add("验证过程失败：" + e.getMessage());
+        }
+
+        // 4. 结论与回滚
+        decide(report);
+        if (IndexVerificationDecision.shouldRollback(applied, report.getVerdict(), verifyDatasource, targetDatasource)) {
+            try {
+                testEnvironmentService.executeDdl(verifyDatasource, rollbackDdl);
+                executionPlanCacheService.invalidateSchemaVersion(verifyDatasource);
+                report.setRolledBack(true);
+            } catch (Exception e) {
+                report.getWarnings().add("回滚测试环境索引失败，请手动执行：" + rollbackDdl + "（" + e.getMessage() + "）");
+            }
+        }
+        report.setSummary(buildSummary(report));
+
+        System.out.println("[IndexVerificationService] 验证完成：" + report.getVerdict() + "，已回滚：" + report.isRolledBack());
+        return report;
+    }
+
+    /**
+     * 用写放大模型估算新索引给同表写语句带来的额外写入，与读语句的实测收益放在一起
+     */
+    private void estimateWriteCost(String datasourceName, String tableName, String ddl, IndexVerificationReport report) {
+        List<String> columns = DmlWriteModel.indexColumns(ddl);
+        if (columns.isEmpty()) {
+            return;
+        }
+        try {
+            DmlAnalysisService.IndexWriteCost cost = dmlAnalysisService.proposedIndexCost(datasourceName, tableName, columns);
+            report.setEstimatedExtraIndexWrites(cost.extraIndexWrites());
+            report.setWriteCostEstimate(cost.summary());
+        } catch (Exception e) {
+            report.getWarnings().add("写放大估算失败：" + e.getMessage());
+        }
+    }
+
+    private boolean indexExists(String datasourceName, String tableName, String indexName) {
+        JdbcTemplate jdbcTemplate = testEnvironmentService.getJdbcTemplate(datasourceName);
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.STATISTICS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?",
+            Integer.class, tableName, indexName);
+        return count != null && count > 0;
+    }
+
+    /**
+     * 按读写拆分涉及该表的语句（语句-表倒排索引按表名精确匹配）
+     */
+    private void collectStatements(String tableName, List<ParsedSqlQuery> reads, List<ParsedSqlQuery> writes) {
+        int max = Math.max(1, properties.getMaxStatements());
+        for (ParsedSqlQuery query : statementTableIndex.findQueries(tableName)) {
+            boolean write;
+            try {
+                write = SqlStatementClassifier.isWriteStatement(query.getSql());
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            List<ParsedSqlQuery> target = write ? writes : reads;
+            if (target.size() < max) {
+                target.add(query);
+            }
+        }
+    }
+
+    private Map<Long, BenchmarkResult> measure(List<ParsedSqlQuery> queries, String datasourceName,
+                                               BenchmarkService.BenchmarkOptions options, List<String> warnings) {
+        Map<Long, BenchmarkResult> results = new HashMap<>();
+        for (ParsedSqlQuery query : queries) {
+            try {
+                BenchmarkService.BenchmarkReport report = benchmarkService.benchmarkQuery(query.getId(), datasourceName, options);
+                results.put(query.getId(), report.result());
+            } catch (Exception e) {
+                String warning = "语句 " + query.getStatementId() + " 测量失败：" + e.getMessage();
+                if (!warnings.contains(warning)) {
+                    warnings.add(warning);
+                }
+            }
+        }
+        return results;
+    }
+
+    private List<StatementComparison> compare(List<ParsedSqlQuery> queries,
+                                              Map<Long, BenchmarkResult> before,
+                                              Map<Long, BenchmarkResult> after) {
+        List<StatementComparison> comparisons = new ArrayList<>();
+        for (ParsedSqlQuery query : queries) {
+            BenchmarkResult b = before.get(query.getId());
+            BenchmarkResult a = after.get(query.getId());
+            if (b == null || a == null) {
+                continue;
+            }
+            StatementComparison comparison = new StatementComparison();
+            comparison.setQueryId(query.getId());
+            comparison.setMapperId(query.getMapperNamespace() + "." + query.getStatementId());
+            comparison.setBeforeP50Ms(b.getP50Ms());
+            comparison.setAfterP50Ms(a.getP50Ms());
+            comparison.setBeforeP95Ms(b.getP95Ms());
+            comparison.setAfterP95Ms(a.getP95Ms());
+            comparison.setBeforeRowsExamined(b.getAvgRowsExamined());
+            comparison.setAfterRowsExamined(a.getAvgRowsExamined());
+            if (b.getP95Ms() != null && b.getP95Ms() > 0 && a.getP95Ms() != null) {
+                comparison.setP95ChangePct((a.getP95Ms() - b.getP95Ms()) * 100.0 / b.getP95Ms());
+            }
+            comparisons.add(comparison);
+        }
+        return comparisons;
+    }
+
+    private void decide(IndexVerificationReport report) {
+        OptionalDouble bestRead = report.getReads().stream()
+            .filter(c -> c.getP95ChangePct() != null)
+            .mapToDouble(c -> -c.getP95ChangePct())
+            .max();
+        OptionalDouble worstRead = report.getReads().stream()
+            .filter(c -> c.getP95ChangePct() != null)
+            .mapToDouble(StatementComparison::getP95ChangePct)
+            .max();
+        OptionalDouble worstWrite = report.getWrites().stream()
+            .filter(c -> c.getP95ChangePct() != null)
+            .mapToDouble(StatementComparison::getP95ChangePct)
+            .max();
+        report.setBestReadImprovementPct(bestRead.isPresent() ? bestRead.getAsDouble() : null);
+        report.setWorstReadRegressionPct(worstRead.isPresent() ? worstRead.getAsDouble() : null);
+        report.setWorstWriteRegressionPct(worstWrite.isPresent() ? worstWrite.getAsDouble() : null);
+
+        report.setVerdict(IndexVerificationDecision.verdict(report.getBestReadImprovementPct(),
+            report.getWorstReadRegressionPct(), report.getWorstWriteRegressionPct(),
+            properties.getMinReadImprovementPct(), properties.getMaxReadRegressionPct(), properties.getMaxWriteRegressionPct()));
+    }
+
+    private String buildSummary(IndexVerificationReport report) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("测试环境 ").append(report.getDatasourceName()).append(" 实测：");
+        if (report.getReads().isEmpty()) {
+            sb.append("没有成功测量的读语句");
+        } else {
+            StatementComparison best = report.getReads().stream()
+                .filter(c -> c.getP95ChangePct() != null)
+                .min(Comparator.comparing(StatementComparison::getP95ChangePct))
+                .orElse(report.getReads().get(0));
+            sb.append(String.format("读语句 %d 条，p95 最大改善 %.1f%%（%s：%.2fms → %.2fms）",
+                report.getReads().size(),
+                report.getBestReadImprovementPct() != null ? report.getBestReadImprovementPct() : 0.0,
+                best.getMapperId(), best.getBeforeP95Ms(), best.getAfterP95Ms()));
+            if (report.getWorstReadRegressionPct() != null && report.getWorstReadRegressionPct() > 0) {
+                StatementComparison worst = report.getReads().stream()
+                    .filter(c -> c.getP95ChangePct() != null)
+                    .max(Comparator.comparing(StatementComparison::getP95ChangePct))
+                    .orElse(best);
+                sb.append(String.format("，p95 最大恶化 %.1f%%（%s：%.2fms → %.2fms）",
+                    report.getWorstReadRegressionPct(), worst.getMapperId(), worst.getBeforeP95Ms(), worst.getAfterP95Ms()));
+            }
+        }
+        if (report.getWrites().isEmpty()) {
+            sb.append("；没有测量到同表写语句");
+        } else {
+            sb.append(String.format("；写语句 %d 条，p95 最大恶化 %.1f%%",
+                report.getWrites().size(),
+                report.getWorstWriteRegressionPct() != null ? report.getWorstWriteRegressionPct() : 0.0));
+        }
+        if (report.getWriteCostEstimate() != null) {
+            sb.append("；模型估算：").append(report.getWriteCostEstimate());
+        }
+        sb.append("。结论：").append(switch (report.getVerdict()) {
+            case BENEFICIAL -> "有效";
+            case NOT_BENEFICIAL -> "收益不足或写代价过高";
+            case HARMFUL -> "有读语句明显变慢";
+            case INCONCLUSIVE -> "无法判断";
+        });
+        if (report.isRolledBack()) {
+            sb.append("，测试环境上的索引已回滚");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,141 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * jar 条目的读取结果缓存，按条目 CRC 和大小判断是否变化
+ *
+ * jar 的中央目录记录了每个条目的 CRC，不解压就能拿到。重新扫描新构建的 jar 时，
+ * CRC 未变化的 XML 条目和嵌套 jar（如 BOOT-INF/lib/*.jar）直接复用上次识别出的 Mapper，
+ * 只读取变化的条目。
+ * 按位置未命中时再按（条目名, CRC, 大小）查找，带版本号的 jar 改名后（如 app-1.0.jar → app-1.1.jar）
+ * 未变化的条目同样命中，缓存项随之移到新位置。线程安全
+ */
+public final class JarEntryCache {
+
+    /**
+     * 缓存项
+     *
+     * @param location 条目位置
+     * @param crc 条目 CRC
+     * @param size 条目解压后的大小
+     * @param sources 条目中的 Mapper（不是 Mapper 时为空）
+     */
+    private record Entry(String location, long crc, long size, List<MapperSource> sources) {
+    }
+
+    /**
+     * 与 jar 路径无关的条目内容标识
+     *
+     * @param entryName jar 内的条目名
+     * @param crc 条目 CRC
+     * @param size 条目解压后的大小
+     */
+    private record ContentKey(String entryName, long crc, long size) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Map<ContentKey, Entry> byContent = new ConcurrentHashMap<>();
+
+    /**
+     * 查找缓存，CRC 或大小不同时视为未命中
+     *
+     * @param location 条目位置（jar!/条目名）
+     * @return 缓存的 Mapper，未命中时返回 null
+     */
+    public List<MapperSource> get(String location, long crc, long size) {
+        if (crc < 0) {
+            return null;
+        }
+        Entry entry = entries.get(location);
+        if (entry != null && entry.crc() == crc && entry.size() == size) {
+            return entry.sources();
+        }
+        Entry moved = byContent.get(new ContentKey(entryName(location), crc, size));
+        if (moved == null) {
+            return null;
+        }
+        // jar 改名：把缓存项移到新位置，Mapper 的位置同样换成新位置
+        List<MapperSource> sources = moved.sources().stream()
+            .map(source -> relocate(source, moved.location(), location))
+            .toList();
+        entries.remove(moved.location(), moved);
+        put(location, crc, size, sources);
+        return sources;
+    }
+
+    /**
+     * 记录条目的读取结果（CRC 未知时不缓存）
+     */
+    public void put(String location, long crc, long size, List<MapperSource> sources) {
+        if (crc >= 0) {
+            Entry entry = new Entry(location, crc, size, List.copyOf(sources));
+            entries.put(location, entry);
+            byContent.put(new ContentKey(entryName(location), crc, size), entry);
+        }
+    }
+
+    /**
+     * 清理本次没有出现的条目
+     *
+     * 本次遍历到的 jar 或扫描根路径下的 jar 中已删除的条目，以及 jar 文件已不存在（已删除或改名）的全部条目；
+     * 其他仍然存在、只是本次没有扫描的 jar 保留缓存
+     *
+     * @param roots 本次扫描的根路径
+     * @param seen 本次遍历到的条目位置
+     */
+    public void retain(Collection<Path> roots, Set<String> seen) {
+        Set<String> seenJars = seen.stream().map(JarEntryCache::jarPath).collect(Collectors.toSet());
+        entries.keySet().removeIf(location -> {
+            if (seen.contains(location)) {
+                return false;
+            }
+            String jar = jarPath(location);
+            return seenJars.contains(jar)
+                || roots.stream().anyMatch(root -> MapperSourceWalker.isUnder(location, root))
+                || !Files.exists(Path.of(jar));
+        });
+        byContent.values().removeIf(entry -> !entry.equals(entries.get(entry.location())));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        byContent.clear();
+    }
+
+    /**
+     * 位置中第一个 "!/" 之前的外层 jar 路径
+     */
+    private static String jarPath(String location) {
+        int separator = location.indexOf("!/");
+        return separator >= 0 ? location.substring(0, separator) : location;
+    }
+
+    /**
+     * 位置中 jar 路径之后的条目名
+     */
+    private static String entryName(String location) {
+        int separator = location.indexOf("!/");
+        return separator >= 0 ? location.substring(separator + 2) : location;
+    }
+
+    private static MapperSource relocate(MapperSource source, String from, String to) {
+        if (!source.location().startsWith(from)) {
+            return source;
+        }
+        return new MapperSource(to + source.location().substring(from.length()), source.namespace(), source.content(),
+            source.hash(), source.referencedNamespaces());
+    }
+}
@@ -0,0 +1,552 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.MapperParameter;
+import com.biz.sccba.sqlanalyzer.model.MapperSourceHash;
+import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.repository.MapperSourceHashRepository;
+import com.biz.sccba.sqlanalyzer.util.SqlDigestUtils;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.builder.xml.XMLMapperEntityResolver;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeAliasRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mapper 批量扫描
+ *
+ * 遍历目录和 jar，并行解析其中的 Mapper XML，写入 ParsedSqlQuery：
+ * - 按内容哈希增量扫描：内容未变化、引用的片段也未变化的 Mapper 直接跳过
+ * - 跨文件的 &lt;sql&gt;/&lt;include&gt; 片段：每个 Mapper 使用独立的 Configuration，
+ *   预先加载它直接或间接引用的其他命名空间的片段；片段被修改时，引用方一并重新解析
+ * - 参数一次性加载到内存，解析过程不访问数据库；结果在一个事务中按 JDBC 批量写入
+ * - 已有语句原地更新，ID 保持不变
+ * - jar（含 Spring Boot fat jar 中的嵌套 jar）直接流式读取，不解压到磁盘；条目按 CRC 缓存，
+ *   重新扫描新构建时只读取变化的条目
+ * 扫描到的 Mapper 保留在内存中，不在本应用 Spring 上下文中的命名空间也能通过 {@link #configurationFor} 分析
+ */
+@Service
+public class MapperBulkScanService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MapperBulkScanService.class);
+
+    /**
+     * 需要解析为 Java 类型的属性，被扫描的工程的类不在本应用的类路径上
+     */
+    private static final Pattern TYPE_ATTRIBUTE = Pattern.compile("\\b(?:resultType|parameterType|ofType|javaType|type)\\s*=\\s*\"([^\"]+)\"");
+
+    private static final Pattern CACHE_TYPE = Pattern.compile("<cache\\b[^>]*?\\btype\\s*=\\s*\"([^\"]+)\"");
+
+    private static final String INSERT_QUERY_SQL = """
+        INSERT INTO parsed_sql_query (mapper_namespace, statement_id, query_type, sql, original_sql_fragment,
+            table_name, dynamic_conditions, created_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String UPDATE_QUERY_SQL = """
+        UPDATE parsed_sql_query SET query_type = ?, sql = ?, original_sql_fragment = ?, table_name = ?, dynamic_conditions = ?
+        WHERE id = ?
+        """;
+
+    private static final String INSERT_HASH_SQL = """
+        INSERT INTO mapper_source_hash (mapper_namespace, location, content_hash, statement_count, scanned_at)
+        VALUES (?, ?, ?, ?, ?)
+        """;
+
+    @Autowired
+    private MyBatisConfigurationParserService parserService;
+
+    @Autowired
+    private MapperParameterIndex parameterIndex;
+
+    @Autowired
+    private StatementTableIndex statementTableIndex;
+
+    @Autowired
+    private MapperSourceHashRepository mapperSourceHashRepository;
+
+    @Autowired
+    private ExecutionPlanCacheService executionPlanCacheService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AnalyzerConfig.MapperScanProperties properties;
+
+    /**
+     * jar 条目缓存，跨次扫描复用
+     */
+    private final JarEntryCache jarEntryCache = new JarEntryCache();
+
+    /**
+     * 最近扫描到的 Mapper：命名空间 -> 源文件
+     */
+    private final Map<String, MapperSource> scannedSources = new ConcurrentHashMap<>();
+
+    /**
+     * 扫描报告
+     *
+     * @param roots 扫描的根路径
+     * @param filesRead 读取的 XML 文件和 jar 条目数
+     * @param cachedEntries CRC 未变化而复用缓存的 jar 条目数
+     * @param mappers 找到的 Mapper 数
+     * @param unchanged 内容未变化而跳过的 Mapper 数
+     * @param changed 内容变化（或新增）的 Mapper 数
+     * @param dependents 因引用的片段变化而重新解析的 Mapper 数
+     * @param removed 源文件已删除而清理的 Mapper 数
+     * @param duplicates 被忽略的重复命名空间：位置 -> 命名空间
+     * @param walkMs 遍历和读取耗时（毫秒）
+     * @param sync 解析和写入结果
+     */
+    public record ScanReport(
+        List<String> roots,
+        int filesRead,
+        int cachedEntries,
+        int mappers,
+        int unchanged,
+        int changed,
+        int dependents,
+        int removed,
+        Map<String, String> duplicates,
+        long walkMs,
+        SyncResult sync
+    ) {}
+
+    /**
+     * 重新解析并同步到 ParsedSqlQuery 的结果
+     *
+     * @param parsed 成功解析的 Mapper 数
+     * @param inserted 新增的语句数
+     * @param updated SQL 变化而原地更新的语句数
+     * @param unchanged 重新解析后没有变化的语句数
+     * @param deleted 删除的语句数（Mapper 中已不存在或源文件已删除）
+     * @param parametersAdded 新增的参数记录数
+     * @param digestChanges SQL 指纹发生变化的语句（已清除对应的执行计划缓存和计划快照）
+     * @param errors 失败的位置 -> 原因（失败的 Mapper 保留旧的解析结果）
+     * @param parseMs 解析耗时（毫秒）
+     * @param writeMs 写入耗时（毫秒）
+     */
+    public record SyncResult(
+        int parsed,
+        int inserted,
+        int updated,
+        int unchanged,
+        int deleted,
+        int parametersAdded,
+        List<DigestChange> digestChanges,
+        Map<String, String> errors,
+        long parseMs,
+        long writeMs
+    ) {}
+
+    /**
+     * 一个语句的 SQL 指纹变化
+     *
+     * @param queryId ParsedSqlQuery ID（原地更新，ID 不变）
+     * @param mapperId namespace.statementId
+     * @param oldDigest 原 SQL 指纹
+     * @param newDigest 新 SQL 指纹
+     */
+    public record DigestChange(
+        Long queryId,
+        String mapperId,
+        String oldDigest,
+        String newDigest
+    ) {}
+
+    /**
+     * 一个 Mapper 的解析结果
+     */
+    private record ParsedMapper(
+        MapperSource source,
+        List<ParsedSqlQuery> queries,
+        Map<String, Set<String>> testExpressions
+    ) {}
+
+    /**
+     * 数据库中已有的语句
+     */
+    private record ExistingQuery(
+        long id,
+        String sql,
+        String originalSqlFragment,
+        String tableName,
+        String dynamicConditions
+    ) {}
+
+    /**
+     * 写入计数
+     */
+    private record WriteResult(
+        int inserted,
+        int updated,
+        int unchanged,
+        int deleted,
+        List<DigestChange> digestChanges
+    ) {}
+
+    /**
+     * 扫描目录和 jar
+     *
+     * @param paths 目录、Mapper XML 或 jar 路径
+     * @param force 是否忽略内容哈希，全部重新解析
+     */
+    public ScanReport scan(List<String> paths, boolean force) throws IOException, InterruptedException {
+        List<Path> roots = resolveRoots(paths);
+
+        long start = System.nanoTime();
+        MapperSourceWalker.WalkResult walk = MapperSourceWalker.walk(roots, parallelism(), jarEntryCache);
+        Map<String, MapperSource> sources = new LinkedHashMap<>();
+        walk.sources().forEach(source -> sources.put(source.namespace(), source));
+        scannedSources.putAll(sources);
+        long walkMs = (System.nanoTime() - start) / 1_000_000;
+
+        // 找出内容变化的命名空间，再加上引用了它们的片段的命名空间
+        Map<String, MapperSourceHash> hashes = new HashMap<>();
+        mapperSourceHashRepository.findAll().forEach(hash -> hashes.put(hash.getMapperNamespace(), hash));
+        Set<String> changed = new TreeSet<>();
+        for (MapperSource source : sources.values()) {
+            MapperSourceHash previous = hashes.get(source.namespace());
+            if (force || previous == null || !previous.getContentHash().equals(source.hash())) {
+                changed.add(source.namespace());
+            }
+        }
+        Set<String> dirty = MapperSource.dirtyClosure(sources, changed);
+        dirty.retainAll(sources.keySet());
+
+        List<String> removed = hashes.values().stream()
+            .filter(hash -> !sources.containsKey(hash.getMapperNamespace()))
+            .filter(hash -> roots.stream().anyMatch(root -> MapperSourceWalker.isUnder(hash.getLocation(), root)))
+            .map(MapperSourceHash::getMapperNamespace)
+            .toList();
+
+        removed.forEach(scannedSources::remove);
+
+        SyncResult sync = sync(sources, dirty, removed);
+        sync.errors().putAll(walk.errors());
+
+        ScanReport report = new ScanReport(roots.stream().map(Path::toString).toList(), walk.filesRead(), walk.cachedEntries(),
+            sources.size(),
+            sources.size() - dirty.size(), changed.size(), dirty.size() - changed.size(), removed.size(),
+            walk.duplicates(), walkMs, sync);
+        logger.info("Mapper 批量扫描完成: mappers={}, 重新解析={}, 跳过={}, 新增={}, 更新={}, 删除={}, 失败={}, 耗时={}ms",
+            report.mappers(), dirty.size(), report.unchanged(), sync.inserted(), sync.updated(), sync.deleted(),
+            sync.errors().size(), walkMs + sync.parseMs() + sync.writeMs());
+        return report;
+    }
+
+    /**
+     * 重新解析指定命名空间，并原地同步到 ParsedSqlQuery（批量扫描和文件监听共用）
+     *
+     * 已有语句按 (namespace, statementId) 匹配并原地更新，ID 保持不变，计划快照等按 ID 关联的数据不会丢失；
+     * SQL 指纹变化的语句清除执行计划缓存和计划快照，避免拿旧 SQL 的计划做对比
+     *
+     * @param sources 命名空间 -> 源文件（需包含被引用片段所在的 Mapper）
+     * @param dirty 需要重新解析的命名空间
+     * @param removed 源文件已删除的命名空间
+     */
+    public SyncResult sync(Map<String, MapperSource> sources, Set<String> dirty, Collection<String> removed)
+            throws InterruptedException {
+        Function<String, Map<String, Object>> parameterLookup = parserService.parameterLookup();
+
+        long start = System.nanoTime();
+        Map<String, String> errors = new TreeMap<>();
+        List<ParsedMapper> parsed = parseAll(dirty, sources, parameterLookup, parallelism(), errors);
+        long parsedAt = System.nanoTime();
+
+        Set<String> existingKeys = parameterIndex.keys();
+        List<MapperParameter> newParameters = new ArrayList<>();
+        for (ParsedMapper mapper : parsed) {
+            for (Map.Entry<String, Set<String>> entry : mapper.testExpressions().entrySet()) {
+                newParameters.addAll(parserService.buildTestExpressionParameters(entry.getKey(), entry.getValue(), existingKeys));
+            }
+        }
+        WriteResult written = write(parsed, removed, newParameters);
+
+        Set<String> staleDigests = new HashSet<>();
+        written.digestChanges().forEach(change -> staleDigests.add(change.oldDigest()));
+        if (!staleDigests.isEmpty()) {
+            executionPlanCacheService.evictDigests(staleDigests);
+        }
+        return new SyncResult(parsed.size(), written.inserted(), written.updated(), written.unchanged(), written.deleted(),
+            newParameters.size(), written.digestChanges(), errors,
+            (parsedAt - start) / 1_000_000, (System.nanoTime() - parsedAt) / 1_000_000);
+    }
+
+    /**
+     * 并行解析需要重新解析的 Mapper
+     */
+    private List<ParsedMapper> parseAll(Set<String> dirty, Map<String, MapperSource> sources,
+                                        Function<String, Map<String, Object>> parameterLookup,
+                                        int parallelism, Map<String, String> errors) throws InterruptedException {
+        // DOM 节点不是线程安全的，每个线程各自解析并缓存片段提供方的 <sql> 节点
+        ThreadLocal<Map<String, List<XNode>>> fragmentCache = ThreadLocal.withInitial(HashMap::new);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            Map<String, Future<ParsedMapper>> futures = new LinkedHashMap<>();
+            for (String namespace : dirty) {
+                MapperSource source = sources.get(namespace);
+                futures.put(source.location(), executor.submit(() -> parse(source, sources, fragmentCache, parameterLookup)));
+            }
+            List<ParsedMapper> parsed = new ArrayList<>();
+            for (Map.Entry<String, Future<ParsedMapper>> entry : futures.entrySet()) {
+                try {
+                    parsed.add(entry.getValue().get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause().getCause() != null ? e.getCause().getCause() : e.getCause();
+                    errors.put(entry.getKey(), cause.getMessage());
+                }
+            }
+            return parsed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 为批量扫描到的命名空间构建 Configuration，用于分析不在本应用 Spring 上下文中的 Mapper
+     *
+     * @param namespace Mapper 命名空间
+     * @return 解析后的 Configuration，未扫描到该命名空间时返回 null
+     * @throws IllegalArgumentException 源文件无法解析，或有语句引用的 SQL 片段、结果映射未找到
+     */
+    public Configuration configurationFor(String namespace) {
+        MapperSource source = scannedSources.get(namespace);
+        if (source == null) {
+            return null;
+        }
+        try {
+            return configure(source, Map.copyOf(scannedSources), new HashMap<>());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("批量扫描到的 Mapper " + namespace + "（" + source.location() + "）无法解析："
+                + e.getMessage(), e);
+        }
+    }
+
+    private ParsedMapper parse(MapperSource source, Map<String, MapperSource> sources,
+                               ThreadLocal<Map<String, List<XNode>>> fragmentCache,
+                               Function<String, Map<String, Object>> parameterLookup) {
+        Configuration configuration = configure(source, sources, fragmentCache.get());
+        Map<String, Object> extraction = parserService.extractQueriesFromConfiguration(configuration, source.namespace(), parameterLookup);
+        @SuppressWarnings("unchecked")
+        List<ParsedSqlQuery> queries = (List<ParsedSqlQuery>) extraction.get("queries");
+        @SuppressWarnings("unchecked")
+        Map<String, Set<String>> testExpressions = (Map<String, Set<String>>) extraction.get("testExpressionsMap");
+        return new ParsedMapper(source, queries, testExpressions);
+    }
+
+    /**
+     * 解析一个 Mapper，预先加载它引用的其他命名空间的片段
+     *
+     * @param fragmentCache 片段提供方命名空间 -> &lt;sql&gt; 节点（同一线程内复用）
+     */
+    private Configuration configure(MapperSource source, Map<String, MapperSource> sources,
+                                    Map<String, List<XNode>> fragmentCache) {
+        Configuration configuration = parserService.createMyBatisConfiguration();
+        registerPlaceholderTypes(configuration, new String(source.content(), StandardCharsets.UTF_8));
+
+        for (String provider : MapperSource.fragmentProviders(sources, source.namespace())) {
+            MapperSource providerSource = sources.get(provider);
+            if (providerSource == null) {
+                continue;
+            }
+            List<XNode> fragments = fragmentCache.computeIfAbsent(provider,
+                k -> new XPathParser(new ByteArrayInputStream(providerSource.content()), false,
+                    configuration.getVariables(), new XMLMapperEntityResolver()).evalNodes("/mapper/sql"));
+            for (XNode fragment : fragments) {
+                configuration.getSqlFragments().put(provider + "." + fragment.getStringAttribute("id"), fragment);
+            }
+        }
+
+        XMLMapperBuilder builder = new XMLMapperBuilder(new ByteArrayInputStream(source.content()), configuration,
+            source.location(), configuration.getSqlFragments());
+        builder.parse();
+        if (!configuration.getIncompleteStatements().isEmpty()) {
+            throw new IllegalStateException(configuration.getIncompleteStatements().size()
+                + " 个语句引用的 SQL 片段或结果映射未找到");
+        }
+        return configuration;
+    }
+
+    /**
+     * 被扫描工程中的实体类不在本应用的类路径上，把无法加载的类型注册为占位别名，
+     * 结果类型按 Map 处理，自定义缓存按 PerpetualCache 处理
+     */
+    static void registerPlaceholderTypes(Configuration configuration, String xml) {
+        TypeAliasRegistry registry = configuration.getTypeAliasRegistry();
+        Matcher cacheMatcher = CACHE_TYPE.matcher(xml);
+        while (cacheMatcher.find()) {
+            registerIfUnresolvable(registry, cacheMatcher.group(1), PerpetualCache.class);
+        }
+        Matcher typeMatcher = TYPE_ATTRIBUTE.matcher(xml);
+        while (typeMatcher.find()) {
+            registerIfUnresolvable(registry, typeMatcher.group(1), HashMap.class);
+        }
+    }
+
+    private static void registerIfUnresolvable(TypeAliasRegistry registry, String type, Class<?> placeholder) {
+        String alias = type.trim();
+        if (alias.isEmpty() || alias.contains("${") || registry.getTypeAliases().containsKey(alias.toLowerCase(Locale.ENGLISH))) {
+            return;
+        }
+        try {
+            Resources.classForName(alias);
+        } catch (ClassNotFoundException e) {
+            registry.registerAlias(alias, placeholder);
+        }
+    }
+
+    /**
+     * 在一个事务中批量写入：按 (namespace, statementId) 与已有语句比对，只插入新增、更新变化、删除消失的语句
+     */
+    private WriteResult write(List<ParsedMapper> parsed, Collection<String> removed, List<MapperParameter> newParameters) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Set<String> namespaces = new LinkedHashSet<>(removed);
+        parsed.forEach(mapper -> namespaces.add(mapper.source().namespace()));
+
+        return transactionTemplate.execute(status -> {
+            Map<String, List<ExistingQuery>> existing = loadExisting(namespaces);
+
+            List<Object[]> insertRows = new ArrayList<>();
+            List<Object[]> updateRows = new ArrayList<>();
+            List<Object[]> deleteIds = new ArrayList<>();
+            List<Object[]> staleSnapshotIds = new ArrayList<>();
+            List<DigestChange> digestChanges = new ArrayList<>();
+            int unchanged = 0;
+            for (ParsedMapper mapper : parsed) {
+                for (ParsedSqlQuery query : mapper.queries()) {
+                    List<ExistingQuery> matches = existing.remove(key(query.getMapperNamespace(), query.getStatementId()));
+                    if (matches == null) {
+                        insertRows.add(new Object[]{query.getMapperNamespace(), query.getStatementId(), query.getQueryType(),
+                            query.getSql(), query.getOriginalSqlFragment(), query.getTableName(), query.getDynamicConditions(), now});
+                        continue;
+                    }
+                    ExistingQuery current = matches.get(0);
+                    // 旧版本逐条解析可能留下重复行，只保留一行
+                    matches.subList(1, matches.size()).forEach(duplicate -> deleteIds.add(new Object[]{duplicate.id()}));
+                    if (Objects.equals(current.sql(), query.getSql())
+                        && Objects.equals(current.originalSqlFragment(), query.getOriginalSqlFragment())
+                        && Objects.equals(current.tableName(), query.getTableName())
+                        && Objects.equals(current.dynamicConditions(), query.getDynamicConditions())) {
+                        unchanged++;
+                        continue;
+                    }
+                    updateRows.add(new Object[]{query.getQueryType(), query.getSql(), query.getOriginalSqlFragment(),
+                        query.getTableName(), query.getDynamicConditions(), current.id()});
+                    String oldDigest = SqlDigestUtils.digest(current.sql());
+                    String newDigest = SqlDigestUtils.digest(query.getSql());
+                    if (!oldDigest.equals(newDigest)) {
+                        digestChanges.add(new DigestChange(current.id(),
+                            query.getMapperNamespace() + "." + query.getStatementId(), oldDigest, newDigest));
+                        staleSnapshotIds.add(new Object[]{current.id()});
+                    }
+                }
+            }
+            existing.values().forEach(rows -> rows.forEach(row -> {
+                deleteIds.add(new Object[]{row.id()});
+                staleSnapshotIds.add(new Object[]{row.id()});
+            }));
+
+            List<Object[]> namespaceRows = namespaces.stream().map(namespace -> new Object[]{namespace}).toList();
+            List<Object[]> hashRows = parsed.stream()
+                .map(mapper -> new Object[]{mapper.source().namespace(), mapper.source().location(), mapper.source().hash(),
+                    mapper.queries().size(), now})
+                .toList();
+
+            batchUpdate("DELETE FROM sql_plan_snapshot WHERE query_id = ?", staleSnapshotIds);
+            batchUpdate("DELETE FROM parsed_sql_query WHERE id = ?", deleteIds);
+            batchUpdate(UPDATE_QUERY_SQL, updateRows);
+            batchUpdate(INSERT_QUERY_SQL, insertRows);
+            // 新插入的语句没有回填 ID，按命名空间从库中重新读取后建立语句-表关联
+            statementTableIndex.reindexNamespaces(namespaces);
+            parameterIndex.insertAll(newParameters);
+            batchUpdate("DELETE FROM mapper_source_hash WHERE mapper_namespace = ?", namespaceRows);
+            batchUpdate(INSERT_HASH_SQL, hashRows);
+            return new WriteResult(insertRows.size(), updateRows.size(), unchanged, deleteIds.size(), digestChanges);
+        });
+    }
+
+    /**
+     * 读取命名空间下已有的语句：namespace + statementId -> 行（按 ID 排序）
+     */
+    private Map<String, List<ExistingQuery>> loadExisting(Collection<String> namespaces) {
+        Map<String, List<ExistingQuery>> existing = new HashMap<>();
+        List<String> list = new ArrayList<>(namespaces);
+        int batchSize = Math.max(1, properties.getBatchSize());
+        for (int from = 0; from < list.size(); from += batchSize) {
+            List<String> chunk = list.subList(from, Math.min(list.size(), from + batchSize));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("SELECT id, mapper_namespace, statement_id, sql, original_sql_fragment, table_name, dynamic_conditions"
+                    + " FROM parsed_sql_query WHERE mapper_namespace IN (" + placeholders + ") ORDER BY id",
+                rs -> {
+                    existing.computeIfAbsent(key(rs.getString("mapper_namespace"), rs.getString("statement_id")),
+                        k -> new ArrayList<>()).add(new ExistingQuery(rs.getLong("id"), rs.getString("sql"),
+                        rs.getString("original_sql_fragment"), rs.getString("table_name"), rs.getString("dynamic_conditions")));
+                }, chunk.toArray());
+        }
+        return existing;
+    }
+
+    private static String key(String namespace, String statementId) {
+        return namespace + "." + statementId;
+    }
+
+    private void batchUpdate(String sql, List<Object[]> rows) {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + batchSize)));
+        }
+    }
+
+    private int parallelism() {
+        return properties.getParallelism() != null && properties.getParallelism() > 0
+            ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * 解析根路径，必须位于允许的目录下
+     */
+    private List<Path> resolveRoots(List<String> paths) throws IOException {
+        List<Path> allowed = new ArrayList<>();
+        for (String directory : properties.getAllowedDirectories()) {
+            Path path = Path.of(directory);
+            allowed.add(Files.exists(path) ? path.toRealPath() : path.toAbsolutePath().normalize());
+        }
+
+        List<Path> roots = new ArrayList<>();
+        for (String value : paths) {
+            Path path = Path.of(value.trim()).toRealPath();
+            if (allowed.stream().noneMatch(path::startsWith)) {
+                throw new IllegalArgumentException("不允许扫描该路径: " + value + "，允许的目录: " + properties.getAllowedDirectories());
+            }
+            roots.add(path);
+        }
+        return roots;
+    }
+}
@@ -0,0 +1,184 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.model.MapperParameter;
+import com.biz.sccba.sqlanalyzer.repository.MapperParameterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Mapper 参数的内存索引
+ *
+ * 首次使用时一次性加载全部参数到 {@link MapperParameterTrie}，之后的层级查找不再访问数据库；
+ * 参数的新增、修改和删除都经由本类以 JDBC 批量写入，内存同步时机见 {@link TransactionalIndex}
+ */
+@Service
+public class MapperParameterIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(MapperParameterIndex.class);
+
+    private static final String INSERT_SQL = """
+        INSERT INTO mapper_parameter (mapper_id, parameter_name, parameter_value, test_expression, created_at, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private MapperParameterRepository mapperParameterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TransactionalIndex<MapperParameterTrie> index = new TransactionalIndex<>(this::load);
+
+    /**
+     * 最长前缀查找（见 {@link MapperParameterTrie#lookup(String)}）
+     */
+    public List<MapperParameter> lookup(String mapperId) {
+        return index.read(trie -> trie.lookup(mapperId));
+    }
+
+    /**
+     * mapperId 上的参数（精确匹配）
+     */
+    public List<MapperParameter> get(String mapperId) {
+        return index.read(trie -> trie.get(mapperId));
+    }
+
+    /**
+     * 命名空间及其下全部语句的参数
+     */
+    public List<MapperParameter> underNamespace(String namespace) {
+        return index.read(trie -> trie.subtree(namespace));
+    }
+
+    /**
+     * 全部参数
+     */
+    public List<MapperParameter> all() {
+        return index.read(MapperParameterTrie::all);
+    }
+
+    /**
+     * 全部参数的唯一键（见 {@link MyBatisConfigurationParserService#parameterKey(MapperParameter)}）
+     */
+    public Set<String> keys() {
+        Set<String> keys = new HashSet<>();
+        all().forEach(param -> keys.add(MyBatisConfigurationParserService.parameterKey(param)));
+        return keys;
+    }
+
+    /**
+     * 批量插入参数（一次 JDBC 批量写入），回填生成的 ID
+     */
+    public void insertAll(List<MapperParameter> parameters) {
+        if (parameters.isEmpty()) {
+            return;
+        }
+        index.ensureLoaded();
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < parameters.size(); from += BATCH_SIZE) {
+            List<MapperParameter> chunk = parameters.subList(from, Math.min(parameters.size(), from + BATCH_SIZE));
+            GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        MapperParameter param = chunk.get(i);
+                        ps.setString(1, param.getMapperId());
+                        ps.setString(2, param.getParameterName());
+                        ps.setString(3, param.getParameterValue());
+                        ps.setString(4, param.getTestExpression());
+                        ps.setTimestamp(5, Timestamp.valueOf(now));
+                        ps.setTimestamp(6, Timestamp.valueOf(now));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return chunk.size();
+                    }
+                }, keyHolder);
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < chunk.size() && i < keys.size(); i++) {
+                Object id = keys.get(i).values().iterator().next();
+                chunk.get(i).setId(((Number) id).longValue());
+                chunk.get(i).setCreatedAt(now);
+                chunk.get(i).setUpdatedAt(now);
+            }
+        }
+        List<MapperParameter> inserted = List.copyOf(parameters);
+        index.afterCommit(trie -> inserted.forEach(trie::add));
+    }
+
+    /**
+     * 替换 mapperId 上的全部参数
+     */
+    public void replace(String mapperId, List<MapperParameter> parameters) {
+        deleteByMapperId(mapperId);
+        insertAll(parameters);
+    }
+
+    /**
+     * 保存单个参数的修改
+     */
+    public MapperParameter update(MapperParameter parameter) {
+        index.ensureLoaded();
+        MapperParameter saved = mapperParameterRepository.save(parameter);
+        index.afterCommit(trie -> {
+            // mapperId 可能被修改，按 ID 在整棵树中移除旧节点
+            trie.all().stream().filter(p -> Objects.equals(p.getId(), saved.getId())).toList().forEach(trie::remove);
+            trie.add(saved);
+        });
+        return saved;
+    }
+
+    /**
+     * 删除 mapperId 上的全部参数
+     */
+    public void deleteByMapperId(String mapperId) {
+        index.ensureLoaded();
+        jdbcTemplate.update("DELETE FROM mapper_parameter WHERE mapper_id = ?", mapperId);
+        index.afterCommit(trie -> trie.removeAll(mapperId));
+    }
+
+    /**
+     * 按 ID 批量删除参数
+     */
+    public void deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        index.ensureLoaded();
+        List<Object[]> rows = ids.stream().map(id -> new Object[]{id}).toList();
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("DELETE FROM mapper_parameter WHERE id = ?",
+                rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+        Set<Long> removed = new HashSet<>(ids);
+        index.afterCommit(trie -> trie.all().stream().filter(p -> removed.contains(p.getId())).toList().forEach(trie::remove));
+    }
+
+    /**
+     * 从数据库重新加载（其他途径直接修改了 mapper_parameter 表时调用）
+     */
+    public void reload() {
+        index.reload();
+    }
+
+    private MapperParameterTrie load() {
+        MapperParameterTrie trie = MapperParameterTrie.of(mapperParameterRepository.findAll());
+        logger.info("Mapper 参数索引已加载: {} 个参数", trie.size());
+        return trie;
+    }
+}
@@ -0,0 +1,447 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.ExecutionPlan;
+import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.model.StatementDigestStat;
+import com.biz.sccba.sqlanalyzer.repository.ParsedSqlQueryRepository;
+import com.biz.sccba.sqlanalyzer.repository.StatementDigestStatRepository;
+import com.biz.sccba.sqlanalyzer.util.DmlWriteModel;
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Mapper 运行时设置性能审计
+ *
+ * 检查 Configuration 的全局设置（defaultExecutorType、defaultFetchSize、cacheEnabled、lazyLoadingEnabled 等）
+ * 和每个语句的 fetchSize、resultSetType、statementType、useCache/flushCache、&lt;cache&gt;，
+ * 结合表统计（行数、平均行长）和 performance_schema 语句摘要的执行频率估算影响：
+ * - 大结果集查询没有 fetchSize：MySQL 驱动默认把整个结果集读入内存
+ * - 高频查询 flushCache=true：每次执行都清空一级缓存和命名空间的二级缓存
+ * - 高频单行插入没有使用 BATCH 执行器：每行一次往返
+ */
+@Service
+public class MapperSettingsAuditService {
+
+    private static final Pattern LIMIT = Pattern.compile("(?is)\\bLIMIT\\s+(\\?|\\d+)");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private MyBatisConfigurationParserService parserService;
+
+    @Autowired
+    private MapperBulkScanService mapperBulkScanService;
+
+    @Autowired
+    private ParsedSqlQueryRepository parsedSqlQueryRepository;
+
+    @Autowired
+    private StatementDigestStatRepository statementDigestStatRepository;
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private DataSourceManagerService dataSourceManagerService;
+
+    @Autowired
+    private SqlExecutionPlanService sqlExecutionPlanService;
+
+    @Autowired
+    private SqlFillerService sqlFillerService;
+
+    @Autowired
+    private AnalyzerConfig.MapperAuditProperties properties;
+
+    /**
+     * 审计问题
+     *
+     * @param severity HIGH / MEDIUM / LOW
+     * @param code 问题类型：LARGE_SELECT_WITHOUT_FETCH_SIZE、FETCH_SIZE_IGNORED、SCROLLABLE_RESULT_SET、
+     *             FLUSH_CACHE_ON_SELECT、CACHE_FLUSHED_BY_WRITES、CACHE_DISABLED_GLOBALLY、
+     *             BULK_INSERT_WITHOUT_BATCH、BATCH_WITHOUT_REWRITE、NON_PREPARED_STATEMENT、
+     *             EAGER_NESTED_SELECT、AGGRESSIVE_LAZY_LOADING
+     * @param statementId 相关语句（全局设置问题为 null）
+     * @param detail 说明
+     * @param impact 估算影响（无法估算时为 null）
+     */
+    public record Finding(String severity, String code, String statementId, String detail, String impact) {
+    }
+
+    /**
+     * 语句的设置与估算
+     *
+     * @param statementId 语句 ID
+     * @param commandType SELECT/INSERT/UPDATE/DELETE
+     * @param statementType STATEMENT/PREPARED/CALLABLE
+     * @param fetchSize 生效的 fetchSize（语句级或全局默认）
+     * @param resultSetType 结果集类型
+     * @param useCache 是否使用二级缓存
+     * @param flushCache 执行时是否清空缓存
+     * @param table 主表
+     * @param estimatedRows 估算返回/修改的行数
+     * @param avgRowBytes 主表平均行长
+     * @param executionsPerHour 实际负载中的每小时执行次数（没有摘要数据时为 null）
+     */
+    public record StatementSettings(String statementId, String commandType, String statementType, Integer fetchSize,
+                                    String resultSetType, boolean useCache, boolean flushCache, String table,
+                                    Long estimatedRows, Long avgRowBytes, Double executionsPerHour) {
+    }
+
+    /**
+     * 审计报告
+     *
+     * @param source Configuration 来源
+     * @param datasourceName 用于统计的数据源
+     * @param settings 全局设置
+     * @param namespaceCache 命名空间的二级缓存配置（没有 &lt;cache&gt; 时为 null）
+     * @param statements 各语句的设置
+     * @param findings 问题（按严重程度排序）
+     * @param warnings 警告
+     */
+    public record AuditReport(String source, String datasourceName, Map<String, Object> settings,
+                              Map<String, Object> namespaceCache, List<StatementSettings> statements,
+                              List<Finding> findings, List<String> warnings) {
+    }
+
+    /**
+     * 表统计
+     */
+    private record TableStats(long rows, long avgRowBytes) {
+    }
+
+    /**
+     * 审计应用中已加载的 Mapper（全局设置为应用的实际配置）；不在本应用中时使用批量扫描到的源文件
+     */
+    public AuditReport auditNamespace(String namespace, String datasourceName) {
+        Configuration configuration = parserService.findConfigurationByNamespace(namespace);
+        String source = "Configuration：" + namespace;
+        if (configuration == null) {
+            // 不在本应用上下文中的 Mapper，使用批量扫描（目录或 jar）得到的源文件
+            configuration = mapperBulkScanService.configurationFor(namespace);
+            source = "批量扫描：" + namespace;
+        }
+        if (configuration == null) {
+            throw new IllegalArgumentException("未找到包含该 namespace 的 MyBatis Configuration，也未在批量扫描中找到: " + namespace);
+        }
+        return audit(configuration, namespace, datasourceName, source, List.of());
+    }
+
+    /**
+     * 审计 Mapper XML（全局设置为本应用的默认配置，只作参考）
+     */
+    public AuditReport auditXml(String xmlContent, String datasourceName) {
+        MapperSource source = MapperSource.of("xml", xmlContent.getBytes(StandardCharsets.UTF_8));
+        if (source == null) {
+            throw new IllegalArgumentException("不是 Mapper XML：缺少 <mapper namespace=\"...\">");
+        }
+        Configuration configuration = parserService.createMyBatisConfiguration();
+        MapperBulkScanService.registerPlaceholderTypes(configuration, xmlContent);
+        new XMLMapperBuilder(new ByteArrayInputStream(xmlContent.getBytes(StandardCharsets.UTF_8)),
+            configuration, "mapper-settings-audit", configuration.getSqlFragments()).parse();
+        return audit(configuration, source.namespace(), datasourceName, "XML：" + source.namespace(),
+            List.of("审计的是单独的 Mapper XML，全局设置取本应用的默认值，与被分析应用的 mybatis-config 可能不同"));
+    }
+
+    private AuditReport audit(Configuration configuration, String namespace, String datasourceName, String source,
+                              List<String> initialWarnings) {
+        System.out.println("[MapperSettingsAuditService] 开始审计：" + source + "，datasource=" + datasourceName);
+        List<String> warnings = new ArrayList<>(initialWarnings);
+        JdbcTemplate jdbcTemplate = datasourceName != null && !datasourceName.isBlank()
+            ? testEnvironmentService.getJdbcTemplate(datasourceName) : null;
+        if (jdbcTemplate == null) {
+            warnings.add("未指定数据源，不估算结果集大小和执行频率");
+        }
+        Map<String, Double> frequencies = jdbcTemplate != null ? executionsPerHour(datasourceName) : Map.of();
+        if (jdbcTemplate != null && frequencies.isEmpty()) {
+            warnings.add("没有最近 " + properties.getDigestWindowHours() + " 小时的语句摘要数据，无法判断高频语句（先执行 collect_statement_digests）");
+        }
+        String url = datasourceName == null ? null : dataSourceManagerService.getAllDataSources().stream()
+            .filter(info -> datasourceName.equals(info.getName()))
+            .map(DataSourceManagerService.DataSourceInfo::getUrl)
+            .findFirst().orElse(null);
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("defaultExecutorType", configuration.getDefaultExecutorType().name());
+        settings.put("defaultFetchSize", configuration.getDefaultFetchSize());
+        settings.put("defaultResultSetType", configuration.getDefaultResultSetType() != null
+            ? configuration.getDefaultResultSetType().name() : null);
+        settings.put("defaultStatementTimeout", configuration.getDefaultStatementTimeout());
+        settings.put("cacheEnabled", configuration.isCacheEnabled());
+        settings.put("localCacheScope", configuration.getLocalCacheScope().name());
+        settings.put("lazyLoadingEnabled", configuration.isLazyLoadingEnabled());
+        settings.put("aggressiveLazyLoading", configuration.isAggressiveLazyLoading());
+
+        List<MappedStatement> statements = new ArrayList<>();
+        // StrictMap 中短 ID 冲突时值是 Ambiguity 而不是 MappedStatement，只按完整 ID 遍历
+        for (String name : new ArrayList<>(configuration.getMappedStatementNames())) {
+            if (name.startsWith(namespace + ".")) {
+                statements.add(configuration.getMappedStatement(name, false));
+            }
+        }
+        statements.sort(Comparator.comparing(MappedStatement::getId));
+
+        Map<String, TableStats> statsCache = new HashMap<>();
+        List<StatementSettings> statementSettings = new ArrayList<>();
+        List<Finding> findings = new ArrayList<>();
+        Cache cache = null;
+        double cacheReads = 0;
+        double cacheFlushes = 0;
+        for (MappedStatement statement : statements) {
+            cache = cache != null ? cache : statement.getCache();
+            StatementSettings entry = inspect(configuration, statement, jdbcTemplate, datasourceName, frequencies,
+                statsCache, warnings);
+            statementSettings.add(entry);
+            auditStatement(configuration, statement, entry, url, findings);
+            if (entry.executionsPerHour() != null) {
+                if (entry.useCache() && statement.getSqlCommandType() == SqlCommandType.SELECT) {
+                    cacheReads += entry.executionsPerHour();
+                }
+                if (entry.flushCache()) {
+                    cacheFlushes += entry.executionsPerHour();
+                }
+            }
+        }
+        auditGlobal(configuration, statements, cache, cacheReads, cacheFlushes, findings);
+
+        Map<String, Object> namespaceCache = null;
+        if (cache != null) {
+            namespaceCache = new LinkedHashMap<>();
+            namespaceCache.put("id", cache.getId());
+            namespaceCache.put("implementation", cache.getClass().getName());
+            if (cacheReads > 0) {
+                namespaceCache.put("readsPerHour", cacheReads);
+                namespaceCache.put("flushesPerHour", cacheFlushes);
+            }
+        }
+
+        findings.sort(Comparator.comparingInt((Finding f) -> List.of("HIGH", "MEDIUM", "LOW").indexOf(f.severity())));
+        System.out.println("[MapperSettingsAuditService] 审计完成，语句数：" + statementSettings.size() + "，问题数：" + findings.size());
+        return new AuditReport(source, datasourceName, settings, namespaceCache, statementSettings, findings, warnings);
+    }
+
+    private StatementSettings inspect(Configuration configuration, MappedStatement statement, JdbcTemplate jdbcTemplate,
+                                      String datasourceName, Map<String, Double> frequencies,
+                                      Map<String, TableStats> statsCache, List<String> warnings) {
+        String sql = statementSql(statement);
+        String table = sql != null ? SqlTableUsageExtractor.tables(sql).stream().findFirst().orElse(null) : null;
+        Integer fetchSize = statement.getFetchSize() != null ? statement.getFetchSize() : configuration.getDefaultFetchSize();
+        Long rows = null;
+        Long avgRowBytes = null;
+        if (jdbcTemplate != null && table != null) {
+            TableStats stats = tableStats(jdbcTemplate, table, statsCache, warnings);
+            avgRowBytes = stats.avgRowBytes();
+            if (statement.getSqlCommandType() == SqlCommandType.SELECT && sql != null && !LIMIT.matcher(sql).find()) {
+                rows = estimateRows(datasourceName, jdbcTemplate, statement.getId(), sql, warnings);
+                // EXPLAIN 失败且主表没有过滤条件时按全表行数估算
+                if (rows == null && SqlTableUsageExtractor.extract(sql).stream()
+                    .noneMatch(u -> u.table().equals(table) && u.role() == SqlTableUsageExtractor.Role.FILTER)) {
+                    rows = stats.rows();
+                }
+            }
+        }
+        ResultSetType resultSetType = statement.getResultSetType();
+        return new StatementSettings(statement.getId(), statement.getSqlCommandType().name(),
+            statement.getStatementType().name(), fetchSize, resultSetType != null ? resultSetType.name() : null,
+            statement.isUseCache(), statement.isFlushCacheRequired(), table, rows, avgRowBytes,
+            frequencies.get(statement.getId()));
+    }
+
+    private void auditStatement(Configuration configuration, MappedStatement statement, StatementSettings entry,
+                                String url, List<Finding> findings) {
+        String id = statement.getId();
+        boolean select = statement.getSqlCommandType() == SqlCommandType.SELECT;
+        boolean hot = entry.executionsPerHour() != null && entry.executionsPerHour() >= properties.getHotExecutionsPerHour();
+        boolean cursorFetch = url != null && url.contains("useCursorFetch=true");
+
+        if (select && entry.estimatedRows() != null && entry.estimatedRows() >= properties.getLargeResultRows()) {
+            String memory = entry.avgRowBytes() != null && entry.avgRowBytes() > 0
+                ? String.format("，约 %.1f MB", entry.estimatedRows() * entry.avgRowBytes() / 1024.0 / 1024.0) : "";
+            String impact = String.format("每次执行约 %d 行%s 一次性读入 JVM 内存", entry.estimatedRows(), memory);
+            if (entry.fetchSize() == null) {
+                findings.add(new Finding("HIGH", "LARGE_SELECT_WITHOUT_FETCH_SIZE", id,
+                    "大结果集查询没有设置 fetchSize，MySQL Connector/J 默认缓冲整个结果集；流式处理请设置 "
+                        + "fetchSize=\"-2147483648\"（Integer.MIN_VALUE）并用 Cursor/ResultHandler 逐行处理，"
+                        + "或在连接串开启 useCursorFetch=true 后设置正数 fetchSize", impact));
+            } else if (entry.fetchSize() > 0 && !cursorFetch) {
+                findings.add(new Finding("MEDIUM", "FETCH_SIZE_IGNORED", id,
+                    "fetchSize=" + entry.fetchSize() + "，但数据源连接串没有 useCursorFetch=true，MySQL 驱动会忽略正数 fetchSize，仍然缓冲整个结果集",
+                    impact));
+            }
+        }
+        if (select && entry.resultSetType() != null && entry.resultSetType().startsWith("SCROLL")) {
+            findings.add(new Finding("MEDIUM", "SCROLLABLE_RESULT_SET", id,
+                "resultSetType=" + entry.resultSetType() + "：可滚动结果集无法流式读取，驱动必须缓冲全部结果，改为 FORWARD_ONLY",
+                entry.estimatedRows() != null ? "每次执行缓冲约 " + entry.estimatedRows() + " 行" : null));
+        }
+        if (select && entry.flushCache()) {
+            findings.add(new Finding(hot ? "HIGH" : "MEDIUM", "FLUSH_CACHE_ON_SELECT", id,
+                "查询设置了 flushCache=true，每次执行都会清空一级缓存" + (statement.getCache() != null ? "和命名空间的二级缓存" : "")
+                    + "，同一会话内的重复查询和其他语句的缓存全部失效",
+                entry.executionsPerHour() != null
+                    ? String.format("每小时清空缓存约 %.0f 次", entry.executionsPerHour()) : null));
+        }
+        if (statement.getStatementType() == StatementType.STATEMENT) {
+            findings.add(new Finding(hot ? "MEDIUM" : "LOW", "NON_PREPARED_STATEMENT", id,
+                "statementType=STATEMENT 不使用预编译，每次执行都要完整解析，也无法利用服务端预处理语句",
+                entry.executionsPerHour() != null ? String.format("每小时硬解析约 %.0f 次", entry.executionsPerHour()) : null));
+        }
+        if (statement.getSqlCommandType() == SqlCommandType.INSERT
+            && configuration.getDefaultExecutorType() != ExecutorType.BATCH) {
+            String sql = statementSql(statement);
+            DmlWriteModel.DmlShape shape = sql != null ? DmlWriteModel.parse(sql) : null;
+            boolean multiRow = shape != null && (shape.valueRows() > 1 || shape.insertSelect());
+            if (!multiRow && hot) {
+                double perHour = entry.executionsPerHour();
+                double savedMs = perHour * properties.getRoundTripMs() * (1 - 1.0 / properties.getBatchSize());
+                findings.add(new Finding("HIGH", "BULK_INSERT_WITHOUT_BATCH", id,
+                    "高频单行插入且 defaultExecutorType=" + configuration.getDefaultExecutorType()
+                        + "，每行一次往返；批量写入时用 SqlSession(ExecutorType.BATCH) 或 <foreach> 多行 VALUES",
+                    String.format("每小时 %.0f 次插入，按每批 %d 行估算每小时节省约 %.0f ms 往返时间",
+                        perHour, properties.getBatchSize(), savedMs)));
+            }
+        }
+        if (configuration.getDefaultExecutorType() == ExecutorType.BATCH && url != null
+            && !url.contains("rewriteBatchedStatements=true")
+            && statement.getSqlCommandType() == SqlCommandType.INSERT) {
+            findings.add(new Finding("MEDIUM", "BATCH_WITHOUT_REWRITE", id,
+                "使用 BATCH 执行器但数据源连接串没有 rewriteBatchedStatements=true，MySQL 驱动仍逐条发送 INSERT", null));
+        }
+    }
+
+    private void auditGlobal(Configuration configuration, List<MappedStatement> statements, Cache cache,
+                             double cacheReads, double cacheFlushes, List<Finding> findings) {
+        if (cache != null && !configuration.isCacheEnabled()) {
+            findings.add(new Finding("LOW", "CACHE_DISABLED_GLOBALLY", null,
+                "命名空间配置了 <cache>，但全局 cacheEnabled=false，二级缓存不会生效", null));
+        }
+        if (cache != null && cacheReads > 0 && cacheFlushes > 0) {
+            double hitRateBound = cacheReads / (cacheReads + cacheFlushes);
+            findings.add(new Finding(hitRateBound < 0.5 ? "MEDIUM" : "LOW", "CACHE_FLUSHED_BY_WRITES", null,
+                "命名空间的二级缓存会被本命名空间的写语句（flushCache 默认 true）清空",
+                String.format("每小时缓存读取 %.0f 次、清空 %.0f 次，命中率上限约 %.0f%%",
+                    cacheReads, cacheFlushes, hitRateBound * 100)));
+        }
+        long nestedEager = 0;
+        for (MappedStatement statement : statements) {
+            for (ResultMap resultMap : statement.getResultMaps()) {
+                nestedEager += resultMap.getResultMappings().stream()
+                    .filter(m -> m.getNestedQueryId() != null && !m.isLazy())
+                    .count();
+            }
+        }
+        if (nestedEager > 0) {
+            findings.add(new Finding("MEDIUM", "EAGER_NESTED_SELECT", null,
+                "有 " + nestedEager + " 个 association/collection 嵌套查询立即加载（lazyLoadingEnabled="
+                    + configuration.isLazyLoadingEnabled() + "），每条父记录都会额外查询，用 detect_n_plus_one 估算往返次数", null));
+        }
+        if (configuration.isLazyLoadingEnabled() && configuration.isAggressiveLazyLoading()) {
+            findings.add(new Finding("MEDIUM", "AGGRESSIVE_LAZY_LOADING", null,
+                "aggressiveLazyLoading=true：访问对象的任一属性都会加载全部懒加载属性，懒加载基本失效", null));
+        }
+    }
+
+    /**
+     * 从语句摘要统计每个 Mapper 语句的每小时执行次数
+     */
+    private Map<String, Double> executionsPerHour(String datasourceName) {
+        LocalDateTime after = LocalDateTime.now().minusHours(properties.getDigestWindowHours());
+        List<StatementDigestStat> stats = statementDigestStatRepository.findByDatasourceNameAndIntervalEndAfter(datasourceName, after);
+        Map<String, Long> counts = new HashMap<>();
+        LocalDateTime start = null;
+        LocalDateTime end = null;
+        for (StatementDigestStat stat : stats) {
+            if (stat.getMapperId() == null || stat.getExecCount() == null || stat.getIntervalStart() == null) {
+                continue;
+            }
+            counts.merge(stat.getMapperId(), stat.getExecCount(), Long::sum);
+            start = start == null || stat.getIntervalStart().isBefore(start) ? stat.getIntervalStart() : start;
+            end = end == null || stat.getIntervalEnd().isAfter(end) ? stat.getIntervalEnd() : end;
+        }
+        Map<String, Double> perHour = new HashMap<>();
+        if (start == null) {
+            return perHour;
+        }
+        double hours = Math.max(1.0 / 60, Duration.between(start, end).toSeconds() / 3600.0);
+        counts.forEach((mapperId, count) -> perHour.put(mapperId, count / hours));
+        return perHour;
+    }
+
+    /**
+     * 语句的 SQL：优先取已解析的 SQL，否则用空参数渲染
+     */
+    private String statementSql(MappedStatement statement) {
+        String id = statement.getId();
+        int dot = id.lastIndexOf('.');
+        ParsedSqlQuery query = dot > 0
+            ? parsedSqlQueryRepository.findByMapperNamespaceAndStatementId(id.substring(0, dot), id.substring(dot + 1)) : null;
+        if (query != null && query.getSql() != null) {
+            return query.getSql();
+        }
+        try {
+            return statement.getBoundSql(new HashMap<>()).getSql();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 估算查询返回的行数：取执行计划中最后一张表的 rows_produced_per_join
+     */
+    private Long estimateRows(String datasourceName, JdbcTemplate jdbcTemplate, String statementId, String sql,
+                              List<String> warnings) {
+        try {
+            String filled = sql.indexOf('?') >= 0
+                ? sqlFillerService.fillSql(datasourceName, sql, sqlExecutionPlanService.parseTableNames(sql), statementId).filledSql()
+                : sql;
+            ExecutionPlan plan = sqlExecutionPlanService.getExecutionPlanUncached(filled, jdbcTemplate);
+            if (plan == null || plan.getRawJson() == null) {
+                return null;
+            }
+            List<JsonNode> tables = objectMapper.readTree(plan.getRawJson()).findValues("table");
+            if (tables.isEmpty()) {
+                return null;
+            }
+            JsonNode last = tables.get(tables.size() - 1);
+            JsonNode produced = last.has("rows_produced_per_join") ? last.get("rows_produced_per_join") : last.get("rows_examined_per_scan");
+            return produced != null ? produced.asLong() : null;
+        } catch (Exception e) {
+            warnings.add("语句 " + statementId + " 的结果行数估算失败：" + e.getMessage());
+            return null;
+        }
+    }
+
+    private TableStats tableStats(JdbcTemplate jdbcTemplate, String table, Map<String, TableStats> cache, List<String> warnings) {
+        return cache.computeIfAbsent(table, t -> {
+            try {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT TABLE_ROWS, AVG_ROW_LENGTH FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?", t);
+                if (rows.isEmpty()) {
+                    return new TableStats(0, 0);
+                }
+                Number tableRows = (Number) rows.get(0).get("TABLE_ROWS");
+                Number avgRowLength = (Number) rows.get(0).get("AVG_ROW_LENGTH");
+                return new TableStats(tableRows != null ? tableRows.longValue() : 0, avgRowLength != null ? avgRowLength.longValue() : 0);
+            } catch (Exception e) {
+                warnings.add("读取表 " + t + " 的统计信息失败：" + e.getMessage());
+                return new TableStats(0, 0);
+            }
+        });
+    }
+}
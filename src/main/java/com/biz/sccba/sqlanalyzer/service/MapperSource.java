@@ -0,0 +1,119 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 一个 Mapper XML 源文件（目录中的文件或 jar 中的条目）
+ *
+ * @param location 位置：文件路径，或 "jar路径!/条目名"
+ * @param namespace Mapper 命名空间
+ * @param content 文件内容
+ * @param hash 内容的 SHA-256（十六进制）
+ * @param referencedNamespaces 通过 &lt;include refid="其他命名空间.片段"&gt; 引用的其他命名空间
+ */
+public record MapperSource(
+    String location,
+    String namespace,
+    byte[] content,
+    String hash,
+    Set<String> referencedNamespaces
+) {
+
+    private static final Pattern NAMESPACE_PATTERN = Pattern.compile("<mapper\\b[^>]*?\\bnamespace\\s*=\\s*[\"']([^\"']+)[\"']");
+
+    private static final Pattern INCLUDE_PATTERN = Pattern.compile("<include\\b[^>]*?\\brefid\\s*=\\s*[\"']([^\"']+)[\"']");
+
+    /**
+     * 识别 Mapper XML，不是 Mapper 时返回 null
+     *
+     * @param location 位置
+     * @param content 文件内容
+     */
+    public static MapperSource of(String location, byte[] content) {
+        String text = new String(content, StandardCharsets.UTF_8);
+        Matcher namespaceMatcher = NAMESPACE_PATTERN.matcher(text);
+        if (!namespaceMatcher.find()) {
+            return null;
+        }
+        String namespace = namespaceMatcher.group(1).trim();
+
+        Set<String> referenced = new TreeSet<>();
+        Matcher includeMatcher = INCLUDE_PATTERN.matcher(text);
+        while (includeMatcher.find()) {
+            String refid = includeMatcher.group(1).trim();
+            int dot = refid.lastIndexOf('.');
+            // ${...} 形式的 refid 在解析时才能确定，无法预先分析
+            if (dot > 0 && !refid.contains("${")) {
+                String referencedNamespace = refid.substring(0, dot);
+                if (!referencedNamespace.equals(namespace)) {
+                    referenced.add(referencedNamespace);
+                }
+            }
+        }
+        return new MapperSource(location, namespace, content, sha256(content), referenced);
+    }
+
+    /**
+     * 计算需要重新解析的命名空间：内容变化的命名空间，以及直接或间接引用了它们的片段的命名空间
+     *
+     * @param sources 命名空间 -> 源文件
+     * @param changed 内容变化的命名空间
+     */
+    public static Set<String> dirtyClosure(Map<String, MapperSource> sources, Set<String> changed) {
+        Map<String, Set<String>> dependents = new HashMap<>();
+        for (MapperSource source : sources.values()) {
+            for (String referenced : source.referencedNamespaces()) {
+                dependents.computeIfAbsent(referenced, k -> new HashSet<>()).add(source.namespace());
+            }
+        }
+        Set<String> dirty = new TreeSet<>(changed);
+        Deque<String> queue = new ArrayDeque<>(changed);
+        while (!queue.isEmpty()) {
+            for (String dependent : dependents.getOrDefault(queue.poll(), Set.of())) {
+                if (dirty.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        return dirty;
+    }
+
+    /**
+     * 解析某个命名空间需要加载片段的其他命名空间（包括片段中再次引用的命名空间）
+     *
+     * @param sources 命名空间 -> 源文件
+     * @param namespace 命名空间
+     */
+    public static Set<String> fragmentProviders(Map<String, MapperSource> sources, String namespace) {
+        Set<String> providers = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        MapperSource root = sources.get(namespace);
+        if (root != null) {
+            queue.addAll(root.referencedNamespaces());
+        }
+        while (!queue.isEmpty()) {
+            String next = queue.poll();
+            if (next.equals(namespace) || !providers.add(next)) {
+                continue;
+            }
+            MapperSource source = sources.get(next);
+            if (source != null) {
+                queue.addAll(source.referencedNamespaces());
+            }
+        }
+        return providers;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
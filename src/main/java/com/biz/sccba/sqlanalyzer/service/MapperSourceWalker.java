@@ -0,0 +1,301 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 遍历目录和 jar，并行读取其中的 Mapper XML
+ *
+ * 目录递归查找 *.xml（跳过隐藏目录和 node_modules）；jar 只在作为根路径显式给出时读取，
+ * 避免目录中构建产物里的 jar 与源码目录重复。非 Mapper 的 XML 会被忽略。
+ * jar 中的嵌套 jar（Spring Boot 的 BOOT-INF/lib、war 的 WEB-INF/lib）用 JarInputStream 直接从外层条目流式读取，
+ * 不解压到磁盘；外层 jar 的 XML 条目和每个嵌套 jar 各自作为一个任务并行读取。
+ * 给出 {@link JarEntryCache} 时，CRC 未变化的条目直接复用上次的结果
+ */
+public final class MapperSourceWalker {
+
+    private static final Set<String> SKIPPED_DIRECTORIES = Set.of("node_modules");
+
+    private MapperSourceWalker() {
+    }
+
+    /**
+     * 遍历结果
+     *
+     * @param sources 找到的 Mapper（同一命名空间只保留位置排序最靠前的一个）
+     * @param duplicates 被忽略的重复命名空间：位置 -> 命名空间
+     * @param errors 读取失败的位置 -> 原因
+     * @param filesRead 读取的 XML 文件和 jar 条目数
+     * @param cachedEntries CRC 未变化而复用缓存的 jar 条目数（嵌套 jar 整体计 1 个）
+     */
+    public record WalkResult(
+        List<MapperSource> sources,
+        Map<String, String> duplicates,
+        Map<String, String> errors,
+        int filesRead,
+        int cachedEntries
+    ) {}
+
+    /**
+     * 遍历根路径
+     *
+     * @param roots 目录、XML 文件或 jar
+     * @param parallelism 并行度
+     */
+    public static WalkResult walk(List<Path> roots, int parallelism) throws IOException, InterruptedException {
+        return walk(roots, parallelism, null);
+    }
+
+    /**
+     * 遍历根路径，jar 条目按 CRC 复用缓存
+     *
+     * @param roots 目录、XML 文件或 jar
+     * @param parallelism 并行度
+     * @param cache jar 条目缓存（为 null 时不缓存）
+     */
+    public static WalkResult walk(List<Path> roots, int parallelism, JarEntryCache cache) throws IOException, InterruptedException {
+        List<Path> files = new ArrayList<>();
+        for (Path root : roots) {
+            if (Files.isDirectory(root)) {
+                collectXmlFiles(root, files);
+            } else if (Files.isRegularFile(root)) {
+                files.add(root);
+            } else {
+                throw new IOException("路径不存在: " + root);
+            }
+        }
+
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        JarReadContext context = new JarReadContext(cache, ConcurrentHashMap.newKeySet(), errors, new AtomicInteger(), new AtomicInteger());
+        AtomicInteger filesRead = context.filesRead();
+        List<ZipFile> jars = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            List<Future<List<MapperSource>>> futures = new ArrayList<>();
+            for (Path file : files) {
+                if (!isJar(file)) {
+                    futures.add(executor.submit(() -> readXml(file, errors, filesRead)));
+                    continue;
+                }
+                ZipFile zip = openJar(file, errors);
+                if (zip == null) {
+                    continue;
+                }
+                jars.add(zip);
+                // ZipFile 支持并发读取不同条目：外层的 XML 条目一个任务，每个嵌套 jar 一个任务
+                List<ZipEntry> xmlEntries = new ArrayList<>();
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    String name = entry.getName().toLowerCase();
+                    if (entry.isDirectory()) {
+                        continue;
+                    }
+                    if (name.endsWith(".xml")) {
+                        xmlEntries.add(entry);
+                    } else if (name.endsWith(".jar")) {
+                        futures.add(executor.submit(() -> readNestedJar(zip, entry, file + "!/" + entry.getName(), context)));
+                    }
+                }
+                futures.add(executor.submit(() -> readJarEntries(zip, file.toString(), xmlEntries, context)));
+            }
+
+            List<MapperSource> all = new ArrayList<>();
+            for (Future<List<MapperSource>> future : futures) {
+                try {
+                    all.addAll(future.get());
+                } catch (ExecutionException e) {
+                    throw new IOException("读取 Mapper 失败：" + e.getCause().getMessage(), e.getCause());
+                }
+            }
+            all.sort(Comparator.comparing(MapperSource::location));
+            Map<String, MapperSource> byNamespace = new LinkedHashMap<>();
+            Map<String, String> duplicates = new TreeMap<>();
+            for (MapperSource source : all) {
+                if (byNamespace.putIfAbsent(source.namespace(), source) != null) {
+                    duplicates.put(source.location(), source.namespace());
+                }
+            }
+            if (cache != null) {
+                cache.retain(roots, context.seen());
+            }
+            return new WalkResult(new ArrayList<>(byNamespace.values()), duplicates, new TreeMap<>(errors), filesRead.get(),
+                context.cachedEntries().get());
+        } finally {
+            executor.shutdownNow();
+            for (ZipFile jar : jars) {
+                try {
+                    jar.close();
+                } catch (IOException e) {
+                    // 忽略关闭失败
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取 jar 时共享的状态
+     *
+     * @param cache 条目缓存（可为 null）
+     * @param seen 本次遍历到的条目位置
+     * @param errors 读取失败的位置 -> 原因
+     * @param filesRead 实际读取的条目数
+     * @param cachedEntries 复用缓存的条目数
+     */
+    private record JarReadContext(
+        JarEntryCache cache,
+        Set<String> seen,
+        Map<String, String> errors,
+        AtomicInteger filesRead,
+        AtomicInteger cachedEntries
+    ) {
+
+        List<MapperSource> cached(String location, ZipEntry entry) {
+            seen.add(location);
+            List<MapperSource> sources = cache != null ? cache.get(location, entry.getCrc(), entry.getSize()) : null;
+            if (sources != null) {
+                cachedEntries.incrementAndGet();
+            }
+            return sources;
+        }
+
+        void remember(String location, ZipEntry entry, List<MapperSource> sources) {
+            if (cache != null) {
+                cache.put(location, entry.getCrc(), entry.getSize(), sources);
+            }
+        }
+    }
+
+    private static void collectXmlFiles(Path root, List<Path> files) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return isSkipped(root, dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && file.getFileName().toString().toLowerCase().endsWith(".xml")) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 遍历目录时是否跳过该子目录（隐藏目录和 node_modules）
+     */
+    static boolean isSkipped(Path root, Path dir) {
+        String name = dir.getFileName() != null ? dir.getFileName().toString() : "";
+        return !dir.equals(root) && (name.startsWith(".") || SKIPPED_DIRECTORIES.contains(name));
+    }
+
+    /**
+     * 位置（文件路径或 jar!/条目）是否位于根路径之下：按路径分隔符或 "!/" 边界匹配，
+     * 避免 /data/mappers 误匹配 /data/mappers-old 下的文件
+     */
+    static boolean isUnder(String location, Path root) {
+        String prefix = root.toString();
+        if (location.equals(prefix) || location.startsWith(prefix + "!/")) {
+            return true;
+        }
+        return location.startsWith(prefix.endsWith(File.separator) ? prefix : prefix + File.separator);
+    }
+
+    private static List<MapperSource> readXml(Path file, Map<String, String> errors, AtomicInteger filesRead) {
+        filesRead.incrementAndGet();
+        try {
+            MapperSource source = MapperSource.of(file.toString(), Files.readAllBytes(file));
+            return source != null ? List.of(source) : List.of();
+        } catch (IOException e) {
+            errors.put(file.toString(), e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static ZipFile openJar(Path jar, Map<String, String> errors) {
+        try {
+            return new ZipFile(jar.toFile());
+        } catch (IOException e) {
+            errors.put(jar.toString(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 读取外层 jar 中的 XML 条目
+     */
+    private static List<MapperSource> readJarEntries(ZipFile zip, String jar, List<ZipEntry> entries, JarReadContext context) {
+        List<MapperSource> sources = new ArrayList<>();
+        for (ZipEntry entry : entries) {
+            String location = jar + "!/" + entry.getName();
+            List<MapperSource> cached = context.cached(location, entry);
+            if (cached != null) {
+                sources.addAll(cached);
+                continue;
+            }
+            context.filesRead().incrementAndGet();
+            try (InputStream in = zip.getInputStream(entry)) {
+                MapperSource source = MapperSource.of(location, in.readAllBytes());
+                List<MapperSource> found = source != null ? List.of(source) : List.of();
+                context.remember(location, entry, found);
+                sources.addAll(found);
+            } catch (IOException e) {
+                context.errors().put(location, e.getMessage());
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * 从外层条目流式读取嵌套 jar 中的 XML，不解压到磁盘
+     */
+    private static List<MapperSource> readNestedJar(ZipFile zip, ZipEntry nested, String location, JarReadContext context) {
+        List<MapperSource> cached = context.cached(location, nested);
+        if (cached != null) {
+            return cached;
+        }
+        List<MapperSource> sources = new ArrayList<>();
+        try (JarInputStream in = new JarInputStream(zip.getInputStream(nested))) {
+            JarEntry entry;
+            while ((entry = in.getNextJarEntry()) != null) {
+                if (entry.isDirectory() || !entry.getName().toLowerCase().endsWith(".xml")) {
+                    continue;
+                }
+                context.filesRead().incrementAndGet();
+                MapperSource source = MapperSource.of(location + "!/" + entry.getName(), in.readAllBytes());
+                if (source != null) {
+                    sources.add(source);
+                }
+            }
+            context.remember(location, nested, sources);
+        } catch (IOException e) {
+            context.errors().put(location, e.getMessage());
+        }
+        return sources;
+    }
+
+    private static boolean isJar(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        return name.endsWith(".jar") || name.endsWith(".war");
+    }
+}
@@ -0,0 +1,373 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.MapperSourceHash;
+import com.biz.sccba.sqlanalyzer.repository.MapperSourceHashRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapper 文件监听：保持 ParsedSqlQuery 与磁盘上的 Mapper XML 同步
+ *
+ * 启动时遍历监听目录建立内存索引，与上次记录的内容哈希比对后同步一次；之后通过 WatchService
+ * 监听文件变更，去抖后只重新解析内容变化的命名空间（以及引用了其片段的命名空间），
+ * 语句原地更新，SQL 指纹变化的语句清除执行计划缓存和计划快照
+ */
+@Service
+public class MapperWatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MapperWatchService.class);
+
+    @Autowired
+    private MapperBulkScanService mapperBulkScanService;
+
+    @Autowired
+    private MapperSourceHashRepository mapperSourceHashRepository;
+
+    @Autowired
+    private AnalyzerConfig.MapperWatchProperties properties;
+
+    @Autowired
+    private AnalyzerConfig.MapperScanProperties scanProperties;
+
+    /**
+     * 命名空间 -> 当前生效的源文件
+     */
+    private final Map<String, MapperSource> sources = new HashMap<>();
+
+    /**
+     * 文件位置 -> 命名空间（用于处理删除和命名空间改名）
+     */
+    private final Map<String, String> namespacesByLocation = new HashMap<>();
+
+    /**
+     * 等待处理的变更文件
+     */
+    private final Set<Path> pendingPaths = new HashSet<>();
+
+    private final Map<WatchKey, Path> watchKeys = new HashMap<>();
+
+    private List<Path> roots = List.of();
+
+    private boolean rescanPending;
+
+    private WatchService watchService;
+
+    private Thread watchThread;
+
+    private ScheduledExecutorService scheduler;
+
+    private ScheduledFuture<?> scheduledFlush;
+
+    @PostConstruct
+    public void start() {
+        if (!Boolean.TRUE.equals(properties.getEnabled())) {
+            return;
+        }
+        try {
+            List<Path> resolved = new ArrayList<>();
+            for (String root : properties.getRoots()) {
+                Path path = Path.of(root.trim());
+                if (!Files.isDirectory(path)) {
+                    logger.warn("Mapper 监听目录不存在，已忽略: {}", root);
+                    continue;
+                }
+                resolved.add(path.toRealPath());
+            }
+            if (resolved.isEmpty()) {
+                return;
+            }
+            roots = resolved;
+            watchService = FileSystems.getDefault().newWatchService();
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "mapper-watch-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // 初始索引在监听线程中建立，不阻塞应用启动
+            watchThread = new Thread(this::run, "mapper-watch");
+            watchThread.setDaemon(true);
+            watchThread.start();
+        } catch (IOException e) {
+            logger.error("启动 Mapper 文件监听失败", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn("关闭 Mapper 文件监听失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 当前索引的 Mapper 数
+     */
+    public synchronized int indexedMappers() {
+        return sources.size();
+    }
+
+    private void run() {
+        try {
+            for (Path root : roots) {
+                register(root, root);
+            }
+            synchronized (this) {
+                rebuildIndex();
+            }
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                Path dir = watchKeys.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        synchronized (this) {
+                            rescanPending = true;
+                        }
+                        continue;
+                    }
+                    if (dir != null) {
+                        onEvent(dir.resolve((Path) event.context()), event.kind());
+                    }
+                }
+                if (!key.reset()) {
+                    watchKeys.remove(key);
+                }
+                scheduleFlush();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Mapper 文件监听异常终止", e);
+        }
+    }
+
+    private void onEvent(Path path, WatchEvent.Kind<?> kind) throws IOException {
+        if (kind == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            Path root = roots.stream().filter(path::startsWith).findFirst().orElse(path);
+            if (!MapperSourceWalker.isSkipped(root, path)) {
+                // 新目录（包括整个目录被移入）中已有的文件不会再产生事件，需要主动补登记
+                register(root, path);
+                synchronized (this) {
+                    rescanPending = true;
+                }
+            }
+            return;
+        }
+        if (path.getFileName().toString().toLowerCase().endsWith(".xml")) {
+            synchronized (this) {
+                pendingPaths.add(path);
+            }
+        } else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+            // 删除的可能是目录，按位置前缀找出其下已索引的文件
+            synchronized (this) {
+                String prefix = path + path.getFileSystem().getSeparator();
+                namespacesByLocation.keySet().stream()
+                    .filter(location -> location.startsWith(prefix))
+                    .forEach(location -> pendingPaths.add(Path.of(location)));
+            }
+        }
+    }
+
+    private void register(Path root, Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (MapperSourceWalker.isSkipped(root, dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                watchKeys.put(dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 去抖：每个事件都把刷新推迟到最后一个事件之后 debounceMs
+     */
+    private synchronized void scheduleFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+        }
+        long delay = Math.max(0L, properties.getDebounceMs() != null ? properties.getDebounceMs() : 500L);
+        scheduledFlush = scheduler.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void flush() {
+        try {
+            if (rescanPending) {
+                rescanPending = false;
+                pendingPaths.clear();
+                rescan();
+                return;
+            }
+            if (pendingPaths.isEmpty()) {
+                return;
+            }
+            Set<String> changed = new TreeSet<>();
+            Set<String> removed = new TreeSet<>();
+            for (Path path : pendingPaths) {
+                applyFileChange(path, changed, removed);
+            }
+            pendingPaths.clear();
+            if (removed.stream().anyMatch(namespacesByLocation::containsValue)) {
+                // 被删除的文件还有同命名空间的重复文件，重新遍历以确定生效的文件
+                rescan();
+                return;
+            }
+            syncChanges(changed, removed);
+        } catch (Exception e) {
+            logger.error("同步 Mapper 变更失败", e);
+        }
+    }
+
+    /**
+     * 重新读取一个文件，更新索引并记录变化的命名空间
+     */
+    private void applyFileChange(Path path, Set<String> changed, Set<String> removed) {
+        String location = path.toString();
+        MapperSource source = null;
+        if (Files.isRegularFile(path)) {
+            try {
+                source = MapperSource.of(location, Files.readAllBytes(path));
+            } catch (IOException e) {
+                // 文件可能正在写入，保留旧的索引，等待下一次事件
+                logger.warn("读取 Mapper 失败: {}, {}", location, e.getMessage());
+                return;
+            }
+        }
+
+        String previousNamespace = namespacesByLocation.remove(location);
+        if (previousNamespace != null && (source == null || !previousNamespace.equals(source.namespace()))) {
+            MapperSource previous = sources.get(previousNamespace);
+            if (previous != null && previous.location().equals(location)) {
+                sources.remove(previousNamespace);
+                removed.add(previousNamespace);
+            }
+        }
+        if (source == null) {
+            return;
+        }
+
+        namespacesByLocation.put(location, source.namespace());
+        MapperSource current = sources.get(source.namespace());
+        if (current != null && !current.location().equals(location)
+            && Files.isRegularFile(Path.of(current.location())) && current.location().compareTo(location) < 0) {
+            // 与全量扫描一致：同一命名空间只保留位置排序最靠前的文件
+            logger.warn("重复的 Mapper 命名空间 {}，已忽略: {}", source.namespace(), location);
+            return;
+        }
+        if (current == null || !current.hash().equals(source.hash()) || !current.location().equals(location)) {
+            sources.put(source.namespace(), source);
+            changed.add(source.namespace());
+            removed.remove(source.namespace());
+        }
+    }
+
+    /**
+     * 重新遍历全部监听目录（启动时和事件溢出时），按内容哈希找出变化
+     */
+    private void rebuildIndex() throws IOException, InterruptedException {
+        MapperSourceWalker.WalkResult walk = MapperSourceWalker.walk(roots, parallelism());
+        walk.errors().forEach((location, error) -> logger.warn("读取 Mapper 失败: {}, {}", location, error));
+
+        Map<String, String> storedHashes = new HashMap<>();
+        Set<String> removed = new TreeSet<>();
+        for (MapperSourceHash hash : mapperSourceHashRepository.findAll()) {
+            storedHashes.put(hash.getMapperNamespace(), hash.getContentHash());
+            if (roots.stream().anyMatch(root -> MapperSourceWalker.isUnder(hash.getLocation(), root))) {
+                removed.add(hash.getMapperNamespace());
+            }
+        }
+
+        sources.clear();
+        namespacesByLocation.clear();
+        Set<String> changed = new TreeSet<>();
+        for (MapperSource source : walk.sources()) {
+            sources.put(source.namespace(), source);
+            namespacesByLocation.put(source.location(), source.namespace());
+            removed.remove(source.namespace());
+            if (!source.hash().equals(storedHashes.get(source.namespace()))) {
+                changed.add(source.namespace());
+            }
+        }
+        walk.duplicates().forEach(namespacesByLocation::put);
+        syncChanges(changed, removed);
+        logger.info("Mapper 监听索引已建立: roots={}, mappers={}", roots, sources.size());
+    }
+
+    private void rescan() throws IOException, InterruptedException {
+        Map<String, String> previousHashes = new HashMap<>();
+        sources.forEach((namespace, source) -> previousHashes.put(namespace, source.hash()));
+
+        MapperSourceWalker.WalkResult walk = MapperSourceWalker.walk(roots, parallelism());
+        sources.clear();
+        namespacesByLocation.clear();
+        Set<String> changed = new TreeSet<>();
+        for (MapperSource source : walk.sources()) {
+            sources.put(source.namespace(), source);
+            namespacesByLocation.put(source.location(), source.namespace());
+            if (!source.hash().equals(previousHashes.get(source.namespace()))) {
+                changed.add(source.namespace());
+            }
+        }
+        walk.duplicates().forEach(namespacesByLocation::put);
+        Set<String> removed = new TreeSet<>(previousHashes.keySet());
+        removed.removeAll(sources.keySet());
+        syncChanges(changed, removed);
+    }
+
+    private void syncChanges(Set<String> changed, Set<String> removed) throws InterruptedException {
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        // 被删除的命名空间提供的片段不再可用，引用方也需要重新解析
+        Set<String> seeds = new TreeSet<>(changed);
+        seeds.addAll(removed);
+        Set<String> dirty = MapperSource.dirtyClosure(sources, seeds);
+        dirty.retainAll(sources.keySet());
+
+        MapperBulkScanService.SyncResult result = mapperBulkScanService.sync(sources, dirty, removed);
+        logger.info("Mapper 变更已同步: 重新解析={}, 删除命名空间={}, 新增={}, 更新={}, 删除={}, 耗时={}ms",
+            dirty.size(), removed.size(), result.inserted(), result.updated(), result.deleted(),
+            result.parseMs() + result.writeMs());
+        for (MapperBulkScanService.DigestChange change : result.digestChanges()) {
+            logger.info("SQL 指纹变化，已清除执行计划缓存和计划快照: {} ({} -> {})",
+                change.mapperId(), change.oldDigest(), change.newDigest());
+        }
+        result.errors().forEach((location, error) -> logger.warn("解析 Mapper 失败，保留旧的解析结果: {}, {}", location, error));
+    }
+
+    private int parallelism() {
+        return scanProperties.getParallelism() != null && scanProperties.getParallelism() > 0
+            ? scanProperties.getParallelism() : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -34,6 +34,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -46,12 +47,24 @@ public class MyBatisConfigurationParserService {
 
     private static final Logger logger = LoggerFactory.getLogger(MyBatisConfigurationParserService.class);
 
+    /**
+     * 解析并保存的语句类型
+     */
+    private static final Set<SqlCommandType> PARSED_COMMAND_TYPES = EnumSet.of(
+        SqlCommandType.SELECT, SqlCommandType.INSERT, SqlCommandType.UPDATE, SqlCommandType.DELETE);
+
     @Autowired
     private ParsedSqlQueryRepository parsedSqlQueryRepository;
 
     @Autowired
     private MapperParameterRepository mapperParameterRepository;
 
+    @Autowired
+    private MapperParameterIndex parameterIndex;
+
+    @Autowired
+    private StatementTableIndex statementTableIndex;
+
     @Autowired(required = false)
     private ApplicationContext applicationContext;
 
@@ -85,17 +98,12 @@ public class MyBatisConfigurationParserService {
             @SuppressWarnings("unchecked")
             Map<String, Set<String>> testExpressionsMap = (Map<String, Set<String>>) extractionResult.get("testExpressionsMap");
 
-            // 保存所有查询
+            // 保存所有查询，并建立语句与表（列）的关联
             parsedSqlQueryRepository.saveAll(queries);
+            statementTableIndex.replaceNamespace(mapperNamespace, queries);
 
-            // 保存 test 表达式作为参数（同时保存到 statementId 和 namespace 两个层级）
-            for (Map.Entry<String, Set<String>> entry : testExpressionsMap.entrySet()) {
-                String statementId = entry.getKey();
-                Set<String> testExpressions = entry.getValue();
-                
-                // 保存到完整路径（namespace.statementId）
-                saveTestExpressionsAsParameters(statementId, testExpressions);
-            }
+            // 保存 test 表达式作为参数（全部语句一次批量写入）
+            saveTestExpressionsAsParameters(testExpressionsMap);
 
             logger.info("解析完成，共解析出 {} 个SQL查询", queries.size());
 
@@ -114,7 +122,7 @@ public class MyBatisConfigurationParserService {
     /**
      * 创建MyBatis Configuration
      */
-    private Configuration createMyBatisConfiguration() {
+    public Configuration createMyBatisConfiguration() {
         Configuration configuration = new Configuration();
         // 设置一些基本配置
         configuration.setMapUnderscoreToCamelCase(true);
@@ -137,13 +145,27 @@ public class MyBatisConfigurationParserService {
 
     /**
      * 从Configuration中提取所有MappedStatement并转换为ParsedSqlQuery
-     * 只解析查询SQL（SELECT语句）
+     * 解析 SELECT / INSERT / UPDATE / DELETE 语句
      * 
      * @param configuration MyBatis Configuration
      * @param mapperNamespace Mapper命名空间
      * @return 包含查询列表和 test 表达式的映射（key: statementId, value: test 表达式集合）
      */
     private Map<String, Object> extractQueriesFromConfiguration(Configuration configuration, String mapperNamespace) {
+        return extractQueriesFromConfiguration(configuration, mapperNamespace, this::getStoredParameters);
+    }
+
+    /**
+     * 从Configuration中提取所有MappedStatement并转换为ParsedSqlQuery，使用指定的参数查找方式
+     * 批量解析时传入 {@link #parameterLookup(List)} 构建的查找函数，避免每个语句逐级查询数据库
+     *
+     * @param configuration MyBatis Configuration
+     * @param mapperNamespace Mapper命名空间
+     * @param parameterLookup mapperId -> 参数Map（找不到时返回null）
+     * @return 包含查询列表和 test 表达式的映射（key: statementId, value: test 表达式集合）
+     */
+    public Map<String, Object> extractQueriesFromConfiguration(Configuration configuration, String mapperNamespace,
+                                                               Function<String, Map<String, Object>> parameterLookup) {
         List<ParsedSqlQuery> queries = new ArrayList<>();
         Map<String, Set<String>> testExpressionsMap = new HashMap<>();
         
@@ -157,8 +179,8 @@ public class MyBatisConfigurationParserService {
             
             MappedStatement mappedStatement = configuration.getMappedStatement(statementId);
             
-            // 只处理SELECT查询
-            if (mappedStatement.getSqlCommandType() != SqlCommandType.SELECT) {
+            // 处理 SELECT 和 INSERT / UPDATE / DELETE（写语句用于写放大分析）
+            if (!PARSED_COMMAND_TYPES.contains(mappedStatement.getSqlCommandType())) {
                 continue;
             }
             
@@ -169,12 +191,12 @@ public class MyBatisConfigurationParserService {
             }
             
             // 提取SQL（使用存储的参数）
-            String sql = extractSqlFromMappedStatement(mappedStatement, statementId);
+            String sql = extractSqlFromMappedStatement(mappedStatement, statementId, parameterLookup);
             
             ParsedSqlQuery query = new ParsedSqlQuery();
             query.setMapperNamespace(mapperNamespace);  
             query.setStatementId(statementId.substring(mapperNamespace.length() + 1));
-            query.setQueryType("select");
+            query.setQueryType(mappedStatement.getSqlCommandType().name().toLowerCase(Locale.ROOT));
             query.setSql(sql);
             query.setOriginalSqlFragment(sql);
             query.setTableName(extractTableName(sql));
@@ -558,71 +580,87 @@ public class MyBatisConfigurationParserService {
     /**
      * 保存 test 表达式作为 MapperParameter（append_only 模式）
      * 同时保存原始 test 表达式和从表达式中提取的参数
-     * 
-     * @param mapperId Mapper ID（格式：namespace.statementId 或 namespace）
-     * @param testExpressions test 表达式集合
+     * 已存在的参数从内存索引判断，多个 Mapper ID 的新参数一次批量写入
+     *
+     * @param testExpressionsMap Mapper ID（格式：namespace.statementId 或 namespace）-> test 表达式集合
+     * @return 本次新写入的参数（内存索引在事务提交后才包含它们）
      */
-    @Transactional
-    private void saveTestExpressionsAsParameters(String mapperId, Set<String> testExpressions) {
-        if (testExpressions == null || testExpressions.isEmpty()) {
-            return;
+    private List<MapperParameter> saveTestExpressionsAsParameters(Map<String, Set<String>> testExpressionsMap) {
+        if (testExpressionsMap == null || testExpressionsMap.isEmpty()) {
+            return List.of();
         }
 
         try {
-            // 获取现有的参数，用于检查是否已存在
             // 检查时需要考虑 parameterName 和 testExpression 的组合
-            List<MapperParameter> existingParameters = mapperParameterRepository.findAllByMapperId(mapperId);
-            Set<String> existingKeys = new HashSet<>();
-            for (MapperParameter param : existingParameters) {
-                // 使用 parameterName + testExpression 作为唯一键
-                String key = param.getParameterName() + "|" + 
-                    (param.getTestExpression() != null ? param.getTestExpression() : "");
-                existingKeys.add(key);
-            }
-
-            int savedCount = 0;
-            
-            // 对每个 test 表达式，提取参数并保存
-            for (String testExpression : testExpressions) {
-                // 从 test 表达式中提取参数名
-                Set<String> parameters = extractParametersFromOgnlExpression(testExpression);
-                
-                if (parameters.isEmpty()) {
-                    // 如果没有提取到参数，仍然保存 test 表达式本身作为参数名
-                    parameters.add(testExpression);
-                }
-                
-                // 为每个提取出的参数创建一条记录
-                for (String parameterName : parameters) {
-                    String key = parameterName + "|" + testExpression;
-                    
-                    // 检查是否已存在（根据 parameterName 和 testExpression 的组合）
-                    if (!existingKeys.contains(key)) {
-                        MapperParameter parameter = new MapperParameter();
-                        parameter.setMapperId(mapperId);
-                        parameter.setParameterName(parameterName);
-                        parameter.setParameterValue("?");
-                        parameter.setTestExpression(testExpression);
-                        
-                        mapperParameterRepository.save(parameter);
-                        savedCount++;
-                        existingKeys.add(key); // 添加到已存在集合，避免重复保存
-                        
-                        logger.debug("保存 test 表达式和参数: mapperId={}, parameterName={}, testExpression={}", 
-                            mapperId, parameterName, testExpression);
-                    } else {
-                        logger.debug("跳过已存在的参数: mapperId={}, parameterName={}, testExpression={}", 
-                            mapperId, parameterName, testExpression);
-                    }
+            Set<String> existingKeys = parameterIndex.keys();
+            List<MapperParameter> newParameters = new ArrayList<>();
+            for (Map.Entry<String, Set<String>> entry : testExpressionsMap.entrySet()) {
+                if (entry.getValue() != null && !entry.getValue().isEmpty()) {
+                    newParameters.addAll(buildTestExpressionParameters(entry.getKey(), entry.getValue(), existingKeys));
                 }
             }
+            parameterIndex.insertAll(newParameters);
 
-            if (savedCount > 0) {
-                logger.info("保存了 {} 个参数记录（包含 test 表达式）: mapperId={}", savedCount, mapperId);
+            if (!newParameters.isEmpty()) {
+                logger.info("保存了 {} 个参数记录（包含 test 表达式）: mapperIds={}", newParameters.size(), testExpressionsMap.keySet());
             }
+            return newParameters;
         } catch (Exception e) {
-            logger.error("保存 test 表达式作为参数失败: mapperId={}", mapperId, e);
+            logger.error("保存 test 表达式作为参数失败: mapperIds={}", testExpressionsMap.keySet(), e);
+            return List.of();
+        }
+    }
+
+    /**
+     * 为 test 表达式中尚不存在的参数创建记录（不保存）
+     *
+     * @param mapperId Mapper ID
+     * @param testExpressions test 表达式集合
+     * @param existingKeys 已存在的参数键（见 {@link #parameterKey(MapperParameter)}），新建的键会加入其中
+     * @return 需要新增的参数记录
+     */
+    public List<MapperParameter> buildTestExpressionParameters(String mapperId, Set<String> testExpressions,
+                                                               Set<String> existingKeys) {
+        List<MapperParameter> newParameters = new ArrayList<>();
+
+        // 对每个 test 表达式，提取参数并保存
+        for (String testExpression : testExpressions) {
+            // 从 test 表达式中提取参数名
+            Set<String> parameters = extractParametersFromOgnlExpression(testExpression);
+
+            if (parameters.isEmpty()) {
+                // 如果没有提取到参数，仍然保存 test 表达式本身作为参数名
+                parameters.add(testExpression);
+            }
+
+            // 为每个提取出的参数创建一条记录
+            for (String parameterName : parameters) {
+                // 检查是否已存在（根据 mapperId、parameterName 和 testExpression 的组合）
+                if (existingKeys.add(mapperId + "|" + parameterName + "|" + testExpression)) {
+                    MapperParameter parameter = new MapperParameter();
+                    parameter.setMapperId(mapperId);
+                    parameter.setParameterName(parameterName);
+                    parameter.setParameterValue("?");
+                    parameter.setTestExpression(testExpression);
+                    newParameters.add(parameter);
+
+                    logger.debug("保存 test 表达式和参数: mapperId={}, parameterName={}, testExpression={}",
+                        mapperId, parameterName, testExpression);
+                } else {
+                    logger.debug("跳过已存在的参数: mapperId={}, parameterName={}, testExpression={}",
+                        mapperId, parameterName, testExpression);
+                }
+            }
         }
+        return newParameters;
+    }
+
+    /**
+     * 参数记录的唯一键：mapperId + parameterName + testExpression
+     */
+    public static String parameterKey(MapperParameter param) {
+        return param.getMapperId() + "|" + param.getParameterName() + "|"
+            + (param.getTestExpression() != null ? param.getTestExpression() : "");
     }
 
     /**
@@ -633,10 +671,11 @@ public class MyBatisConfigurationParserService {
      * @param statementId 完整的statement ID（格式：namespace.statementId）
      * @return 解析后的SQL
      */
-    private String extractSqlFromMappedStatement(MappedStatement mappedStatement, String statementId) {
+    private String extractSqlFromMappedStatement(MappedStatement mappedStatement, String statementId,
+                                                 Function<String, Map<String, Object>> parameterLookup) {
         try {
             // 尝试从数据库获取存储的参数
-            Map<String, Object> parameters = getStoredParameters(statementId);
+            Map<String, Object> parameters = parameterLookup.apply(statementId);
             
             // 使用参数获取BoundSql（如果有参数则使用参数，否则使用null）
             Object parameterObject = parameters != null && !parameters.isEmpty() ? parameters : null;
@@ -656,9 +695,10 @@ public class MyBatisConfigurationParserService {
     }
 
     /**
-     * 从H2数据库获取存储的参数
+     * 获取存储的参数
      * 支持层级查找：从最具体到最外层逐级查找
      * 例如：com.example.demo.selectByKey -> com.example.demo -> com.example -> com
+     * 查找走内存中的参数前缀树（{@link MapperParameterIndex}），不访问数据库
      * 
      * @param mapperId Mapper ID（格式：namespace.statementId 或 namespace）
      * @return 参数Map，如果不存在则返回null
@@ -667,42 +707,51 @@ public class MyBatisConfigurationParserService {
         if (mapperId == null || mapperId.trim().isEmpty()) {
             return null;
         }
-        
-        // 生成所有可能的层级路径（从最具体到最外层）
-        List<String> searchPaths = generateHierarchyPaths(mapperId);
-        
-        // 按顺序查找，找到第一个匹配的就返回
-        for (String path : searchPaths) {
-            try {
-                List<MapperParameter> parameters = mapperParameterRepository.findAllByMapperId(path);
-                if (parameters != null && !parameters.isEmpty()) {
-                    logger.debug("找到参数: mapperId={}, 匹配路径={}, 参数数量={}", mapperId, path, parameters.size());
-                    // 将多个参数记录转换为Map<String,Object>
-                    Map<String, Object> result = new HashMap<>();
-                    for (MapperParameter param : parameters) {
-                        try {
-                            // 尝试将参数值解析为对象（可能是JSON字符串）
-                            Object value = parseParameterValue(param.getParameterValue());
-                            result.put(param.getParameterName(), value);
-                        } catch (Exception e) {
-                            logger.warn("解析参数值失败: mapperId={}, parameterName={}, error={}", 
-                                path, param.getParameterName(), e.getMessage());
-                            // 如果解析失败，直接使用字符串值
-                            result.put(param.getParameterName(), param.getParameterValue());
-                        }
-                    }
-                    return result;
-                }
-            } catch (Exception e) {
-                logger.debug("获取存储的参数失败: mapperId={}, path={}, error={}", mapperId, path, e.getMessage());
-                // 继续查找下一个层级
-            }
+
+        List<MapperParameter> parameters = parameterIndex.lookup(mapperId);
+        if (parameters.isEmpty()) {
+            logger.debug("未找到参数: mapperId={}", mapperId);
+            return null;
         }
-        
-        logger.debug("未找到参数: mapperId={}, 已搜索路径={}", mapperId, searchPaths);
-        return null;
+        logger.debug("找到参数: mapperId={}, 匹配路径={}, 参数数量={}", mapperId, parameters.get(0).getMapperId(), parameters.size());
+        return toParameterMap(parameters);
     }
-    
+
+    /**
+     * 基于内存参数索引的查找函数，供批量解析使用
+     *
+     * @return mapperId -> 参数Map（找不到时返回null）
+     */
+    public Function<String, Map<String, Object>> parameterLookup() {
+        return this::getStoredParameters;
+    }
+
+    /**
+     * 基于给定的参数构建查找函数，查找规则与 {@link #getStoredParameters(String)} 相同
+     *
+     * @param parameters 参数记录
+     * @return mapperId -> 参数Map（找不到时返回null）
+     */
+    public Function<String, Map<String, Object>> parameterLookup(List<MapperParameter> parameters) {
+        MapperParameterTrie trie = MapperParameterTrie.of(parameters);
+        return mapperId -> {
+            List<MapperParameter> found = trie.lookup(mapperId);
+            return found.isEmpty() ? null : toParameterMap(found);
+        };
+    }
+
+    /**
+     * 将多个参数记录转换为Map<String,Object>
+     */
+    private Map<String, Object> toParameterMap(List<MapperParameter> parameters) {
+        Map<String, Object> result = new HashMap<>();
+        for (MapperParameter param : parameters) {
+            // 尝试将参数值解析为对象（可能是JSON字符串），失败时直接使用字符串值
+            result.put(param.getParameterName(), parseParameterValue(param.getParameterValue()));
+        }
+        return result;
+    }
+
     /**
      * 解析参数值
      * 如果值是JSON字符串，则解析为对象；否则返回原值
@@ -720,39 +769,6 @@ public class MyBatisConfigurationParserService {
         }
     }
 
-    /**
-     * 生成层级查找路径列表
-     * 从最具体到最外层
-     * 例如：com.example.demo.selectByKey -> [com.example.demo.selectByKey, com.example.demo, com.example, com]
-     * 
-     * @param mapperId 完整的Mapper ID
-     * @return 层级路径列表
-     */
-    private List<String> generateHierarchyPaths(String mapperId) {
-        List<String> paths = new ArrayList<>();
-        
-        if (mapperId == null || mapperId.trim().isEmpty()) {
-            return paths;
-        }
-        
-        // 先添加完整路径
-        paths.add(mapperId.trim());
-        
-        // 如果包含句号，则逐级向上查找
-        String current = mapperId.trim();
-        while (current.contains(".")) {
-            // 找到最后一个句号的位置
-            int lastDotIndex = current.lastIndexOf(".");
-            // 截取到最后一个句号之前的部分
-            current = current.substring(0, lastDotIndex);
-            if (!current.isEmpty()) {
-                paths.add(current);
-            }
-        }
-        
-        return paths;
-    }
-
     /**
      * 从SQL中提取表名
      */
@@ -785,7 +801,7 @@ public class MyBatisConfigurationParserService {
      * 根据表名获取相关查询
      */
     public List<Map<String, Object>> getQueriesByTable(String tableName) {
-        List<ParsedSqlQuery> queries = parsedSqlQueryRepository.findByTableName(tableName);
+        List<ParsedSqlQuery> queries = statementTableIndex.findQueries(tableName);
         
         List<Map<String, Object>> result = new ArrayList<>();
         for (ParsedSqlQuery query : queries) {
@@ -813,11 +829,8 @@ public class MyBatisConfigurationParserService {
     @Transactional
     public MapperParameter saveMapperParameter(String mapperId, Map<String, Object> parameters) {
         try {
-            // 先删除该mapperId的所有现有参数
-            mapperParameterRepository.deleteAllByMapperId(mapperId);
-            
             // 将参数Map拆分为多个MapperParameter记录
-            MapperParameter firstParameter = null;
+            List<MapperParameter> newParameters = new ArrayList<>();
             for (Map.Entry<String, Object> entry : parameters.entrySet()) {
                 MapperParameter parameter = new MapperParameter();
                 parameter.setMapperId(mapperId);
@@ -836,18 +849,16 @@ public class MyBatisConfigurationParserService {
                     parameterValue = objectMapper.writeValueAsString(value);
                 }
                 parameter.setParameterValue(parameterValue);
-                
-                MapperParameter saved = mapperParameterRepository.save(parameter);
-                if (firstParameter == null) {
-                    firstParameter = saved;
-                }
+                newParameters.add(parameter);
             }
             
-            if (firstParameter == null) {
+            if (newParameters.isEmpty()) {
                 throw new RuntimeException("参数Map为空，无法保存");
             }
             
-            return firstParameter;
+            // 替换该mapperId的所有现有参数（一次删除 + 一次批量写入）
+            parameterIndex.replace(mapperId, newParameters);
+            return newParameters.get(0);
         } catch (Exception e) {
             logger.error("保存Mapper参数失败: mapperId={}", mapperId, e);
             throw new RuntimeException("保存Mapper参数失败: " + e.getMessage(), e);
@@ -860,7 +871,7 @@ public class MyBatisConfigurationParserService {
      * @return 所有Mapper参数列表
      */
     public List<MapperParameter> getAllMapperParameters() {
-        return mapperParameterRepository.findAll();
+        return parameterIndex.all();
     }
 
     /**
@@ -880,7 +891,7 @@ public class MyBatisConfigurationParserService {
      */
     @Transactional
     public void deleteMapperParameter(String mapperId) {
-        mapperParameterRepository.deleteAllByMapperId(mapperId);
+        parameterIndex.deleteByMapperId(mapperId);
     }
 
     /**
@@ -925,18 +936,8 @@ public class MyBatisConfigurationParserService {
      * @return 参数列表
      */
     public List<MapperParameter> getParametersByNamespace(String namespace) {
-        List<MapperParameter> allParameters = mapperParameterRepository.findAll();
-        
-        // 过滤出以指定namespace开头的参数（mapperId格式：namespace.statementId）
-        List<MapperParameter> result = new ArrayList<>();
-        String namespacePrefix = namespace + ".";
-        for (MapperParameter param : allParameters) {
-            if (param.getMapperId().startsWith(namespacePrefix) || param.getMapperId().equals(namespace)) {
-                result.add(param);
-            }
-        }
-        
-        return result;
+        // 命名空间节点及其下级节点上的参数（mapperId格式：namespace.statementId）
+        return parameterIndex.underNamespace(namespace);
     }
 
     /**
@@ -974,7 +975,9 @@ public class MyBatisConfigurationParserService {
             query.setDynamicConditions((String) queryData.get("dynamicConditions"));
         }
         
-        return parsedSqlQueryRepository.save(query);
+        ParsedSqlQuery saved = parsedSqlQueryRepository.save(query);
+        statementTableIndex.reindex(List.of(saved));
+        return saved;
     }
 
     /**
@@ -988,6 +991,7 @@ public class MyBatisConfigurationParserService {
             throw new RuntimeException("查询不存在: id=" + id);
         }
         parsedSqlQueryRepository.deleteById(id);
+        statementTableIndex.remove(List.of(id));
     }
 
     /**
@@ -998,6 +1002,7 @@ public class MyBatisConfigurationParserService {
     @Transactional
     public void deleteQueries(List<Long> ids) {
         parsedSqlQueryRepository.deleteAllById(ids);
+        statementTableIndex.remove(ids);
     }
 
     /**
@@ -1026,7 +1031,7 @@ public class MyBatisConfigurationParserService {
             parameter.setTestExpression((String) parameterData.get("testExpression"));
         }
         
-        return mapperParameterRepository.save(parameter);
+        return parameterIndex.update(parameter);
     }
 
     /**
@@ -1039,7 +1044,7 @@ public class MyBatisConfigurationParserService {
         if (!mapperParameterRepository.existsById(id)) {
             throw new RuntimeException("参数不存在: id=" + id);
         }
-        mapperParameterRepository.deleteById(id);
+        parameterIndex.deleteByIds(List.of(id));
     }
 
     /**
@@ -1049,7 +1054,7 @@ public class MyBatisConfigurationParserService {
      */
     @Transactional
     public void deleteParameters(List<Long> ids) {
-        mapperParameterRepository.deleteAllById(ids);
+        parameterIndex.deleteByIds(ids);
     }
 
     /**
@@ -1088,7 +1093,7 @@ public class MyBatisConfigurationParserService {
      * @param namespace 命名空间
      * @return Configuration，如果不存在则返回null
      */
-    private Configuration findConfigurationByNamespace(String namespace) {
+    public Configuration findConfigurationByNamespace(String namespace) {
         Configuration config = getConfigurationFromApplicationContext();
         if (config == null) {
             return null;
@@ -1121,6 +1126,8 @@ public class MyBatisConfigurationParserService {
         List<MapperParameter> extractedParameters = new ArrayList<>();
         Collection<String> statementIds = configuration.getMappedStatementNames();
 
+        // 先收集全部语句的 test 表达式，再一次批量保存
+        Map<String, Set<String>> testExpressionsMap = new LinkedHashMap<>();
         for (String statementId : statementIds) {
             // 只处理当前命名空间的语句
             if (!statementId.startsWith(namespace + ".")) {
@@ -1129,8 +1136,7 @@ public class MyBatisConfigurationParserService {
 
             MappedStatement mappedStatement = configuration.getMappedStatement(statementId);
             
-            // 只处理SELECT查询
-            if (mappedStatement.getSqlCommandType() != SqlCommandType.SELECT) {
+            if (!PARSED_COMMAND_TYPES.contains(mappedStatement.getSqlCommandType())) {
                 continue;
             }
 
@@ -1138,24 +1144,28 @@ public class MyBatisConfigurationParserService {
             Set<String> testExpressions = extractTestExpressionsFromSqlSource(mappedStatement, statementId);
             
             if (!testExpressions.isEmpty()) {
-                // 保存到完整路径（namespace.statementId）
-                saveTestExpressionsAsParameters(statementId, testExpressions);
-                
-                // 保存到命名空间层级（namespace）
-                saveTestExpressionsAsParameters(namespace, testExpressions);
-                
-                // 收集参数用于返回
-                List<MapperParameter> statementParams = mapperParameterRepository.findAllByMapperId(statementId);
-                extractedParameters.addAll(statementParams);
-                
-                List<MapperParameter> namespaceParams = mapperParameterRepository.findAllByMapperId(namespace);
-                for (MapperParameter param : namespaceParams) {
-                    // 避免重复添加
-                    if (extractedParameters.stream().noneMatch(p -> 
-                        p.getParameterName().equals(param.getParameterName()) && 
-                        Objects.equals(p.getTestExpression(), param.getTestExpression()))) {
-                        extractedParameters.add(param);
-                    }
+                // 保存到完整路径（namespace.statementId）和命名空间层级（namespace）
+                testExpressionsMap.put(statementId, testExpressions);
+                testExpressionsMap.computeIfAbsent(namespace, k -> new LinkedHashSet<>()).addAll(testExpressions);
+            }
+        }
+        List<MapperParameter> created = saveTestExpressionsAsParameters(testExpressionsMap);
+
+        // 收集参数用于返回：内存索引中已有的参数加上本次新写入的参数
+        // （处于事务中时，新写入的参数要等提交后才进入内存索引）
+        for (String mapperId : testExpressionsMap.keySet()) {
+            if (mapperId.equals(namespace)) {
+                continue;
+            }
+            extractedParameters.addAll(parametersOf(mapperId, created));
+        }
+        if (testExpressionsMap.containsKey(namespace)) {
+            for (MapperParameter param : parametersOf(namespace, created)) {
+                // 避免重复添加
+                if (extractedParameters.stream().noneMatch(p -> 
+                    p.getParameterName().equals(param.getParameterName()) && 
+                    Objects.equals(p.getTestExpression(), param.getTestExpression()))) {
+                    extractedParameters.add(param);
                 }
             }
         }
@@ -1164,6 +1174,21 @@ public class MyBatisConfigurationParserService {
         return extractedParameters;
     }
 
+    /**
+     * mapperId 上的参数：内存索引中已有的参数，加上本次新写入但尚未提交到索引的参数
+     */
+    private List<MapperParameter> parametersOf(String mapperId, List<MapperParameter> created) {
+        List<MapperParameter> parameters = new ArrayList<>(parameterIndex.get(mapperId));
+        Set<Long> ids = new HashSet<>();
+        parameters.forEach(param -> ids.add(param.getId()));
+        for (MapperParameter param : created) {
+            if (mapperId.equals(param.getMapperId()) && (param.getId() == null || !ids.contains(param.getId()))) {
+                parameters.add(param);
+            }
+        }
+        return parameters;
+    }
+
     /**
      * 基于namespace解析Mapper（从应用上下文获取Configuration）
      * 
@@ -1185,7 +1210,7 @@ public class MyBatisConfigurationParserService {
         }
 
         // 2. 检查MapperParameter是否存在
-        List<MapperParameter> existingParameters = mapperParameterRepository.findAllByMapperId(namespace);
+        List<MapperParameter> existingParameters = parameterIndex.get(namespace);
         
         // 也检查statement级别的参数
         Collection<String> statementIds = configuration.getMappedStatementNames();
@@ -1193,7 +1218,7 @@ public class MyBatisConfigurationParserService {
         if (!hasAnyParameters) {
             for (String statementId : statementIds) {
                 if (statementId.startsWith(namespace + ".")) {
-                    List<MapperParameter> statementParams = mapperParameterRepository.findAllByMapperId(statementId);
+                    List<MapperParameter> statementParams = parameterIndex.get(statementId);
                     if (!statementParams.isEmpty()) {
                         hasAnyParameters = true;
                         break;
@@ -1225,8 +1250,9 @@ public class MyBatisConfigurationParserService {
         @SuppressWarnings("unchecked")
         List<ParsedSqlQuery> queries = (List<ParsedSqlQuery>) extractionResult.get("queries");
 
-        // 保存所有查询
+        // 保存所有查询，并建立语句与表（列）的关联
         parsedSqlQueryRepository.saveAll(queries);
+        statementTableIndex.replaceNamespace(namespace, queries);
 
         result.put("success", true);
         result.put("needEdit", false);
@@ -1266,8 +1292,9 @@ public class MyBatisConfigurationParserService {
         @SuppressWarnings("unchecked")
         List<ParsedSqlQuery> queries = (List<ParsedSqlQuery>) extractionResult.get("queries");
 
-        // 4. 保存所有查询
+        // 4. 保存所有查询，并建立语句与表（列）的关联
         parsedSqlQueryRepository.saveAll(queries);
+        statementTableIndex.replaceNamespace(namespace, queries);
 
         result.put("success", true);
         result.put("queryCount", queries.size());
@@ -1,8 +1,12 @@
 package com.biz.sccba.sqlanalyzer.service;
 
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.util.SqlDigestUtils;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.parsing.XPathParser;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.w3c.dom.Element;
 
 import java.util.*;
 import java.util.regex.Matcher;
@@ -15,11 +19,14 @@ import java.util.regex.Pattern;
  * 1. 解析 XML 中的 SQL 语句
  * 2. 提取动态标签（if, where, foreach, choose 等）
  * 3. 解析 test 条件表达式
- * 4. 生成多场景 SQL
+ * 4. 生成多场景 SQL（枚举分支组合，按 SQL 指纹去重）
  */
 @Service
 public class MyBatisXmlParserService {
 
+    @Autowired(required = false)
+    private AnalyzerConfig.DynamicSqlScenarioProperties properties;
+
     /**
      * 解析结果
      */
@@ -94,7 +101,7 @@ public class MyBatisXmlParserService {
             List<TestCondition> testConditions = extractTestConditions(statementNode);
 
             // 6. 生成多场景 SQL
-            List<String> dynamicSqls = generateSqlScenarios(sqlContent, testConditions);
+            List<String> dynamicSqls = generateSqlScenarios(statementNode, mapperNode, namespace);
 
             return new ParseResult(
                 namespace,
@@ -245,47 +252,29 @@ public class MyBatisXmlParserService {
     }
 
     /**
-     * 根据 test 条件生成多场景 SQL
+     * 生成多场景 SQL
      *
-     * 策略：业务常见场景
-     * 1. 全条件满足：所有 if 条件都为 true
-     * 2. 最小条件：仅必填条件满足
-     * 3. 常见组合：根据业务经验最常见的 2-3 种组合
+     * 枚举 if/choose/foreach 的分支组合（组合过多时两两组合覆盖），按 SQL 指纹去重，
+     * 第一个场景为全部条件不满足，第二个为全部条件满足
      */
-    private List<String> generateSqlScenarios(String sqlContent, List<TestCondition> conditions) {
-        List<String> scenarios = new ArrayList<>();
-
-        if (conditions.isEmpty()) {
-            // 没有动态条件，直接返回原始 SQL
-            scenarios.add(replacePlaceholders(sqlContent));
-            return scenarios;
+    private List<String> generateSqlScenarios(XNode statementNode, XNode mapperNode, String namespace) {
+        Map<String, Element> fragments = new HashMap<>();
+        for (XNode fragment : mapperNode.evalNodes("sql")) {
+            String id = fragment.getStringAttribute("id");
+            fragments.put(id, (Element) fragment.getNode());
+            fragments.put(namespace + "." + id, (Element) fragment.getNode());
         }
 
-        // 场景 1: 全条件满足 - 保留所有 if 内容
-        StringBuilder allConditionsSql = new StringBuilder(sqlContent);
-        for (TestCondition condition : conditions) {
-            // 模拟条件为 true，移除注释标记
-            allConditionsSql = new StringBuilder(
-                allConditionsSql.toString()
-                    .replace("/* IF: " + condition.testExpression() + " */", "")
-            );
+        AnalyzerConfig.DynamicSqlScenarioProperties config = properties != null
+            ? properties : new AnalyzerConfig.DynamicSqlScenarioProperties();
+        DynamicSqlEnumerator enumerator = DynamicSqlEnumerator.compile((Element) statementNode.getNode(), fragments::get,
+            config.getForeachItems());
+        Map<String, String> scenarios = new LinkedHashMap<>();
+        for (int[] choices : enumerator.plan(config.getMaxExhaustive())) {
+            String sql = replacePlaceholders(enumerator.render(choices));
+            scenarios.putIfAbsent(SqlDigestUtils.digest(sql), sql);
         }
-        scenarios.add(replacePlaceholders(allConditionsSql.toString()));
-
-        // 场景 2: 最小条件 - 只保留第一个条件（通常是主要过滤条件）
-        if (conditions.size() > 1) {
-            StringBuilder minSql = new StringBuilder(sqlContent);
-            for (int i = 1; i < conditions.size(); i++) {
-                // 移除后续条件
-                minSql = new StringBuilder(
-                    minSql.toString()
-                        .replaceAll("/\\* IF: " + Pattern.quote(conditions.get(i).testExpression()) + " \\*/[^/]*", "")
-                );
-            }
-            scenarios.add(replacePlaceholders(minSql.toString()));
-        }
-
-        return scenarios;
+        return new ArrayList<>(scenarios.values());
     }
 
     /**
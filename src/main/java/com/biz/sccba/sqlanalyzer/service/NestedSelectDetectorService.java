@@ -0,0 +1,476 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.ExecutionPlan;
+import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.repository.ParsedSqlQueryRepository;
+import com.biz.sccba.sqlanalyzer.util.NestedSelectModel;
+import com.biz.sccba.sqlanalyzer.util.NestedSelectModel.Edge;
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor;
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor.Role;
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor.Usage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * MyBatis N+1 与懒加载检测
+ *
+ * 遍历 Configuration 中各查询语句的 resultMap（含嵌套 resultMap 和 discriminator 分支），
+ * 找出 association / collection 的 select 嵌套查询，构建语句 → 嵌套查询的图；
+ * 用表统计信息（行数、关联列索引的基数）估算每条父记录触发的往返次数，
+ * 再按 {@link NestedSelectModel} 估算改为 JOIN 或两步批量加载后节省的往返次数和时间。
+ * 单条语句的 EXPLAIN 看不到这类问题
+ */
+@Service
+public class NestedSelectDetectorService {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private MyBatisConfigurationParserService parserService;
+
+    @Autowired
+    private MapperBulkScanService mapperBulkScanService;
+
+    @Autowired
+    private ParsedSqlQueryRepository parsedSqlQueryRepository;
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private SqlExecutionPlanService sqlExecutionPlanService;
+
+    @Autowired
+    private SqlFillerService sqlFillerService;
+
+    @Autowired
+    private AnalyzerConfig.NestedSelectProperties properties;
+
+    /**
+     * 一条嵌套查询边
+     *
+     * @param path 属性路径（如 listPosts.comments.user）
+     * @param resultMapId 所在的 resultMap
+     * @param property 属性名
+     * @param column 传给嵌套查询的列
+     * @param nestedStatementId 嵌套查询的语句 ID
+     * @param resolved 嵌套查询是否在当前 Configuration 中
+     * @param lazy 是否懒加载
+     * @param collection 是否为集合属性
+     * @param childTable 嵌套查询的表
+     * @param lookupColumn 嵌套查询的条件列
+     * @param lookupIndexed 条件列是否有索引（未知时为 null）
+     * @param rowsPerExecution 嵌套查询每次返回的行数
+     * @param parentDistinct 父记录中关联列的不同值个数（未知时为 null）
+     * @param executionsPerParentRow 每条父记录触发的执行次数（已按一级缓存去重）
+     */
+    public record EdgeReport(String path, String resultMapId, String property, String column, String nestedStatementId,
+                             boolean resolved, boolean lazy, boolean collection, String childTable, String lookupColumn,
+                             Boolean lookupIndexed, double rowsPerExecution, Double parentDistinct,
+                             double executionsPerParentRow) {
+    }
+
+    /**
+     * 一条带嵌套查询的语句
+     *
+     * @param statementId 语句 ID
+     * @param table 主表
+     * @param parentRows 估算返回的父记录数
+     * @param parentRowsSource 父记录数的来源：EXPLAIN / DEFAULT
+     * @param edges 嵌套查询（含多层）
+     * @param eagerRoundTrips 加载时的往返次数（不含懒加载属性）
+     * @param worstCaseRoundTrips 访问全部懒加载属性后的往返次数
+     * @param roundTripsPerParentRow 每条父记录触发的往返次数（最坏情况）
+     * @param joinedRows 改为 JOIN 后一次返回的行数
+     * @param batchedRoundTrips 改为两步批量加载后的往返次数
+     * @param joinSavingsMs 改为 JOIN 估算节省的往返时间
+     * @param batchSavingsMs 改为两步批量加载估算节省的往返时间
+     * @param recommendations 建议
+     */
+    public record StatementReport(String statementId, String table, double parentRows, String parentRowsSource,
+                                  List<EdgeReport> edges, double eagerRoundTrips, double worstCaseRoundTrips,
+                                  double roundTripsPerParentRow, double joinedRows, double batchedRoundTrips,
+                                  double joinSavingsMs, double batchSavingsMs, List<String> recommendations) {
+    }
+
+    /**
+     * 检测报告（按最坏情况往返次数降序）
+     *
+     * @param settings 影响嵌套查询的全局设置
+     * @param statements 带嵌套查询的语句
+     * @param warnings 警告
+     */
+    public record DetectionReport(String source, String datasourceName, Map<String, Object> settings,
+                                  List<StatementReport> statements, List<String> warnings) {
+    }
+
+    /**
+     * 表统计：行数与各列作为索引最左列时的最大基数、是否唯一
+     *
+     * @param known 是否成功读到统计信息且表存在
+     */
+    private record TableStats(boolean known, double rows, Map<String, Double> cardinality, Set<String> uniqueColumns) {
+
+        /**
+         * 列是否是某个索引的最左列；统计读取失败或表没有数据时无法判断，返回 null
+         */
+        Boolean indexed(String column) {
+            if (cardinality.containsKey(column)) {
+                return true;
+            }
+            return known && rows > 0 ? false : null;
+        }
+    }
+
+    /**
+     * 检测 Mapper XML 内容
+     */
+    public DetectionReport analyzeXml(String xmlContent, String datasourceName) {
+        MapperSource source = MapperSource.of("xml", xmlContent.getBytes(StandardCharsets.UTF_8));
+        if (source == null) {
+            throw new IllegalArgumentException("不是 Mapper XML：缺少 <mapper namespace=\"...\">");
+        }
+        Configuration configuration = parserService.createMyBatisConfiguration();
+        MapperBulkScanService.registerPlaceholderTypes(configuration, xmlContent);
+        XMLMapperBuilder builder = new XMLMapperBuilder(new ByteArrayInputStream(xmlContent.getBytes(StandardCharsets.UTF_8)),
+            configuration, "nested-select-detector", configuration.getSqlFragments());
+        builder.parse();
+        return analyze(configuration, source.namespace(), datasourceName, "XML：" + source.namespace());
+    }
+
+    /**
+     * 检测应用中已加载的 Mapper（SqlSessionFactory 的 Configuration，全局设置为实际值）；不在本应用中时使用批量扫描到的源文件
+     */
+    public DetectionReport analyzeNamespace(String namespace, String datasourceName) {
+        Configuration configuration = parserService.findConfigurationByNamespace(namespace);
+        String source = "Configuration：" + namespace;
+        if (configuration == null) {
+            // 不在本应用上下文中的 Mapper，使用批量扫描（目录或 jar）得到的源文件
+            configuration = mapperBulkScanService.configurationFor(namespace);
+            source = "批量扫描：" + namespace;
+        }
+        if (configuration == null) {
+            throw new IllegalArgumentException("未找到包含该 namespace 的 MyBatis Configuration，也未在批量扫描中找到: " + namespace);
+        }
+        return analyze(configuration, namespace, datasourceName, source);
+    }
+
+    private DetectionReport analyze(Configuration configuration, String namespace, String datasourceName, String source) {
+        List<String> warnings = new ArrayList<>();
+        JdbcTemplate jdbcTemplate = datasourceName != null && !datasourceName.isBlank()
+            ? testEnvironmentService.getJdbcTemplate(datasourceName) : null;
+        if (jdbcTemplate == null) {
+            warnings.add("未指定数据源，父记录数和子查询行数使用默认值");
+        }
+        Map<String, TableStats> statsCache = new HashMap<>();
+        Map<String, String> sqlCache = new HashMap<>();
+
+        // 1. 语句 → 嵌套查询的图（整个 Configuration，嵌套查询可以跨命名空间）
+        Map<String, List<EdgeReport>> graph = new LinkedHashMap<>();
+        // StrictMap 中短 ID 冲突时值是 Ambiguity 而不是 MappedStatement，只按完整 ID 遍历
+        for (String name : new ArrayList<>(configuration.getMappedStatementNames())) {
+            if (!name.contains(".")) {
+                continue;
+            }
+            MappedStatement statement = configuration.getMappedStatement(name, false);
+            if (statement.getSqlCommandType() != SqlCommandType.SELECT) {
+                continue;
+            }
+            List<EdgeReport> edges = new ArrayList<>();
+            Set<String> visitedMaps = new HashSet<>();
+            for (ResultMap resultMap : statement.getResultMaps()) {
+                collectEdges(configuration, statement.getId(), resultMap, visitedMaps, edges, jdbcTemplate, statsCache,
+                    sqlCache, warnings);
+            }
+            if (!edges.isEmpty()) {
+                graph.put(statement.getId(), edges);
+            }
+        }
+        Map<String, List<Edge>> modelEdges = new HashMap<>();
+        graph.forEach((id, edges) -> modelEdges.put(id, edges.stream()
+            .map(e -> new Edge(e.nestedStatementId(), e.lazy(), e.rowsPerExecution(), e.parentDistinct()))
+            .toList()));
+
+        // 2. 逐个根语句估算
+        List<StatementReport> reports = new ArrayList<>();
+        for (Map.Entry<String, List<EdgeReport>> entry : graph.entrySet()) {
+            String statementId = entry.getKey();
+            if (!statementId.startsWith(namespace + ".")) {
+                continue;
+            }
+            reports.add(report(configuration, statementId, graph, modelEdges, jdbcTemplate, datasourceName,
+                sqlCache, warnings));
+        }
+        reports.sort(Comparator.comparingDouble(StatementReport::worstCaseRoundTrips).reversed());
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("lazyLoadingEnabled", configuration.isLazyLoadingEnabled());
+        settings.put("aggressiveLazyLoading", configuration.isAggressiveLazyLoading());
+        settings.put("lazyLoadTriggerMethods", configuration.getLazyLoadTriggerMethods());
+        settings.put("localCacheScope", configuration.getLocalCacheScope().name());
+        settings.put("defaultExecutorType", configuration.getDefaultExecutorType().name());
+        System.out.println("[NestedSelectDetectorService] 检测完成：" + source + "，带嵌套查询的语句：" + reports.size());
+        return new DetectionReport(source, datasourceName, settings, reports, warnings);
+    }
+
+    /**
+     * 收集 resultMap 中的嵌套查询；嵌套 resultMap（JOIN 映射）和 discriminator 分支继续向下找
+     */
+    private void collectEdges(Configuration configuration, String statementId, ResultMap resultMap, Set<String> visitedMaps,
+                              List<EdgeReport> edges, JdbcTemplate jdbcTemplate, Map<String, TableStats> statsCache,
+                              Map<String, String> sqlCache, List<String> warnings) {
+        if (!visitedMaps.add(resultMap.getId())) {
+            return;
+        }
+        for (ResultMapping mapping : resultMap.getResultMappings()) {
+            if (mapping.getNestedQueryId() != null) {
+                edges.add(edge(configuration, statementId, resultMap, mapping, jdbcTemplate, statsCache, sqlCache, warnings));
+            } else if (mapping.getNestedResultMapId() != null && configuration.hasResultMap(mapping.getNestedResultMapId())) {
+                collectEdges(configuration, statementId, configuration.getResultMap(mapping.getNestedResultMapId()),
+                    visitedMaps, edges, jdbcTemplate, statsCache, sqlCache, warnings);
+            }
+        }
+        Discriminator discriminator = resultMap.getDiscriminator();
+        if (discriminator != null) {
+            for (String caseMapId : discriminator.getDiscriminatorMap().values()) {
+                if (configuration.hasResultMap(caseMapId)) {
+                    collectEdges(configuration, statementId, configuration.getResultMap(caseMapId), visitedMaps, edges,
+                        jdbcTemplate, statsCache, sqlCache, warnings);
+                }
+            }
+        }
+    }
+
+    private EdgeReport edge(Configuration configuration, String statementId, ResultMap resultMap, ResultMapping mapping,
+                            JdbcTemplate jdbcTemplate, Map<String, TableStats> statsCache, Map<String, String> sqlCache,
+                            List<String> warnings) {
+        String nestedId = mapping.getNestedQueryId();
+        boolean resolved = configuration.hasStatement(nestedId, false);
+        boolean collection = mapping.getJavaType() != null && Collection.class.isAssignableFrom(mapping.getJavaType());
+        String column = mapping.getColumn();
+        if (column == null && !mapping.getComposites().isEmpty()) {
+            column = mapping.getComposites().stream().map(ResultMapping::getColumn).reduce((a, b) -> a + "," + b).orElse(null);
+        }
+
+        String childSql = statementSql(configuration, nestedId, sqlCache);
+        String childTable = null;
+        String lookupColumn = null;
+        if (childSql != null) {
+            List<Usage> usages = SqlTableUsageExtractor.extract(childSql);
+            childTable = usages.stream().filter(u -> u.role() == Role.REFERENCE).map(Usage::table).findFirst().orElse(null);
+            String table = childTable;
+            lookupColumn = usages.stream().filter(u -> u.role() == Role.FILTER && u.table().equals(table))
+                .map(Usage::column).findFirst().orElse(null);
+        }
+        if (!resolved && childSql == null) {
+            warnings.add("嵌套查询 " + nestedId + " 不在当前 Configuration 中，也没有已解析的 SQL，按默认值估算");
+        }
+
+        Boolean lookupIndexed = null;
+        double rowsPerExecution = collection ? properties.getDefaultCollectionSize() : 1;
+        Double parentDistinct = null;
+        if (jdbcTemplate != null) {
+            if (childTable != null && lookupColumn != null) {
+                TableStats child = tableStats(jdbcTemplate, childTable, statsCache, warnings);
+                lookupIndexed = child.indexed(lookupColumn);
+                if (child.uniqueColumns().contains(lookupColumn)) {
+                    rowsPerExecution = 1;
+                } else if (Boolean.TRUE.equals(lookupIndexed) && child.cardinality().get(lookupColumn) > 0) {
+                    rowsPerExecution = Math.max(1, child.rows() / child.cardinality().get(lookupColumn));
+                }
+            }
+            String parentSql = statementSql(configuration, statementId, sqlCache);
+            String parentTable = parentSql != null ? SqlTableUsageExtractor.tables(parentSql).stream().findFirst().orElse(null) : null;
+            if (parentTable != null && column != null && !column.contains(",")) {
+                Double distinct = tableStats(jdbcTemplate, parentTable, statsCache, warnings).cardinality()
+                    .get(column.toLowerCase(Locale.ROOT));
+                parentDistinct = distinct != null && distinct > 0 ? distinct : null;
+            }
+        }
+        String path = statementId.substring(statementId.lastIndexOf('.') + 1) + "." + mapping.getProperty();
+        return new EdgeReport(path, resultMap.getId(), mapping.getProperty(), column, nestedId, resolved, mapping.isLazy(),
+            collection, childTable, lookupColumn, lookupIndexed, rowsPerExecution, parentDistinct, 1.0);
+    }
+
+    private StatementReport report(Configuration configuration, String statementId, Map<String, List<EdgeReport>> graph,
+                                   Map<String, List<Edge>> modelEdges, JdbcTemplate jdbcTemplate, String datasourceName,
+                                   Map<String, String> sqlCache, List<String> warnings) {
+        String sql = statementSql(configuration, statementId, sqlCache);
+        String table = sql != null ? SqlTableUsageExtractor.tables(sql).stream().findFirst().orElse(null) : null;
+        double parentRows = properties.getDefaultParentRows();
+        String parentRowsSource = "DEFAULT";
+        if (jdbcTemplate != null && sql != null) {
+            Double estimated = estimateRows(datasourceName, jdbcTemplate, statementId, sql, warnings);
+            if (estimated != null) {
+                parentRows = Math.max(1, estimated);
+                parentRowsSource = "EXPLAIN";
+            }
+        }
+
+        // 展开多层嵌套，计算每条边在根语句下的执行次数
+        List<EdgeReport> edges = new ArrayList<>();
+        expand(statementId, statementId.substring(statementId.lastIndexOf('.') + 1), parentRows, 1, graph, edges,
+            new HashSet<>(), parentRows);
+
+        double eager = NestedSelectModel.roundTrips(statementId, parentRows, modelEdges, false);
+        double worst = NestedSelectModel.roundTrips(statementId, parentRows, modelEdges, true);
+        double joinedRows = NestedSelectModel.joinedRows(statementId, parentRows, modelEdges, true);
+        double batched = NestedSelectModel.batchedRoundTrips(statementId, parentRows, modelEdges, true, properties.getBatchSize());
+        double roundTripMs = properties.getRoundTripMs();
+        double joinSavings = (worst - 1) * roundTripMs;
+        double batchSavings = (worst - batched) * roundTripMs;
+
+        List<String> recommendations = new ArrayList<>();
+        for (EdgeReport edge : edges) {
+            if (Boolean.FALSE.equals(edge.lookupIndexed())) {
+                recommendations.add(String.format("嵌套查询 %s 的条件列 %s.%s 没有索引，每次往返都会全表扫描，先为该列建索引",
+                    edge.nestedStatementId(), edge.childTable(), edge.lookupColumn()));
+            }
+        }
+        boolean joinable = joinedRows <= parentRows * properties.getJoinRowAmplificationLimit();
+        if (joinable) {
+            recommendations.add(String.format("把 %s 改为 JOIN + 嵌套 resultMap（<association>/<collection> 用 resultMap 代替 select），"
+                    + "往返从 %.0f 次降为 1 次、结果约 %.0f 行，估算节省 %.1f ms",
+                edges.stream().map(EdgeReport::path).toList(), worst, joinedRows, joinSavings));
+        } else {
+            recommendations.add(String.format("JOIN 后结果会膨胀到约 %.0f 行（父记录 %.0f 行），建议两步批量加载："
+                    + "先查父记录，再按 <foreach> IN 列表每批 %d 个键查询子记录，往返从 %.0f 次降为 %.0f 次，估算节省 %.1f ms",
+                joinedRows, parentRows, properties.getBatchSize(), worst, batched, batchSavings));
+        }
+        if (worst > eager) {
+            recommendations.add(String.format("懒加载属性全部被访问时往返从 %.0f 次增加到 %.0f 次；"
+                + "序列化（JSON 输出）或 toString/equals 会触发全部懒加载，确认调用方确实只访问部分属性", eager, worst));
+            if (configuration.isAggressiveLazyLoading()) {
+                recommendations.add("aggressiveLazyLoading=true：访问任一属性就会加载全部懒加载属性，懒加载形同虚设，建议关闭");
+            }
+        }
+        if (edges.stream().anyMatch(e -> !e.lazy()) && !configuration.isLazyLoadingEnabled()) {
+            recommendations.add("嵌套查询为立即加载（lazyLoadingEnabled=false 且未设置 fetchType=\"lazy\"），"
+                + "即使调用方不使用这些属性也会产生全部往返");
+        }
+        return new StatementReport(statementId, table, parentRows, parentRowsSource, edges, eager, worst,
+            (worst - 1) / parentRows, joinedRows, batched, joinSavings, batchSavings, recommendations);
+    }
+
+    /**
+     * 深度优先展开嵌套查询，按路径记录每条边相对根语句每条父记录的执行次数
+     */
+    private void expand(String statementId, String path, double rows, double calls, Map<String, List<EdgeReport>> graph,
+                        List<EdgeReport> out, Set<String> visiting, double rootRows) {
+        if (!visiting.add(statementId)) {
+            return;
+        }
+        for (EdgeReport edge : graph.getOrDefault(statementId, List.of())) {
+            double executions = calls * (edge.parentDistinct() != null ? Math.min(rows, edge.parentDistinct()) : rows);
+            String edgePath = path + "." + edge.property();
+            out.add(new EdgeReport(edgePath, edge.resultMapId(), edge.property(), edge.column(), edge.nestedStatementId(),
+                edge.resolved(), edge.lazy(), edge.collection(), edge.childTable(), edge.lookupColumn(), edge.lookupIndexed(),
+                edge.rowsPerExecution(), edge.parentDistinct(), executions / rootRows));
+            expand(edge.nestedStatementId(), edgePath, edge.rowsPerExecution(), executions, graph, out, visiting, rootRows);
+        }
+        visiting.remove(statementId);
+    }
+
+    /**
+     * 语句的 SQL：优先取已解析的 SQL（参数已按 Mapper 参数填充），否则用空参数渲染
+     */
+    private String statementSql(Configuration configuration, String statementId, Map<String, String> cache) {
+        if (cache.containsKey(statementId)) {
+            return cache.get(statementId);
+        }
+        String sql = null;
+        int dot = statementId.lastIndexOf('.');
+        if (dot > 0) {
+            ParsedSqlQuery query = parsedSqlQueryRepository.findByMapperNamespaceAndStatementId(
+                statementId.substring(0, dot), statementId.substring(dot + 1));
+            sql = query != null ? query.getSql() : null;
+        }
+        if (sql == null && configuration.hasStatement(statementId, false)) {
+            try {
+                sql = configuration.getMappedStatement(statementId, false).getBoundSql(new HashMap<>()).getSql();
+            } catch (Exception e) {
+                // 动态 SQL 在空参数下无法渲染时放弃
+            }
+        }
+        cache.put(statementId, sql);
+        return sql;
+    }
+
+    private Double estimateRows(String datasourceName, JdbcTemplate jdbcTemplate, String statementId, String sql,
+                                List<String> warnings) {
+        try {
+            String filled = sql.indexOf('?') >= 0
+                ? sqlFillerService.fillSql(datasourceName, sql, sqlExecutionPlanService.parseTableNames(sql), statementId).filledSql()
+                : sql;
+            ExecutionPlan plan = sqlExecutionPlanService.getExecutionPlanUncached(filled, jdbcTemplate);
+            if (plan == null || plan.getRawJson() == null) {
+                return null;
+            }
+            JsonNode root = objectMapper.readTree(plan.getRawJson());
+            JsonNode table = root.findValue("table");
+            if (table == null || !table.has("rows_examined_per_scan")) {
+                return null;
+            }
+            double rows = table.path("rows_examined_per_scan").asDouble();
+            double filtered = table.has("filtered") ? table.path("filtered").asDouble(100) : 100;
+            JsonNode limit = root.findValue("limit");
+            double estimated = rows * filtered / 100;
+            return limit != null && limit.isNumber() ? Math.min(estimated, limit.asDouble()) : estimated;
+        } catch (Exception e) {
+            warnings.add("语句 " + statementId + " 的父记录数估算失败：" + e.getMessage());
+            return null;
+        }
+    }
+
+    private TableStats tableStats(JdbcTemplate jdbcTemplate, String table, Map<String, TableStats> cache, List<String> warnings) {
+        return cache.computeIfAbsent(table, t -> {
+            try {
+                List<Long> rows = jdbcTemplate.queryForList(
+                    "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                    Long.class, t);
+                Map<String, Double> cardinality = new HashMap<>();
+                Set<String> unique = new HashSet<>();
+                Map<String, Integer> indexSizes = new HashMap<>();
+                jdbcTemplate.query("""
+                        SELECT INDEX_NAME, COLUMN_NAME, NON_UNIQUE, SEQ_IN_INDEX, CARDINALITY
+                        FROM information_schema.STATISTICS
+                        WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?
+                        """,
+                    rs -> {
+                        indexSizes.merge(rs.getString("INDEX_NAME"), 1, Integer::sum);
+                        if (rs.getInt("SEQ_IN_INDEX") == 1 && rs.getString("COLUMN_NAME") != null) {
+                            String column = rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT);
+                            cardinality.merge(column, (double) rs.getLong("CARDINALITY"), Math::max);
+                            if (rs.getInt("NON_UNIQUE") == 0) {
+                                unique.add(column + "\t" + rs.getString("INDEX_NAME"));
+                            }
+                        }
+                    }, t);
+                // 只有单列唯一索引才能保证按该列查询最多返回一行
+                Set<String> uniqueColumns = new HashSet<>();
+                for (String entry : unique) {
+                    String[] parts = entry.split("\t");
+                    if (indexSizes.getOrDefault(parts[1], 0) == 1) {
+                        uniqueColumns.add(parts[0]);
+                    }
+                }
+                double tableRows = rows.isEmpty() || rows.get(0) == null ? 0 : rows.get(0);
+                return new TableStats(!rows.isEmpty(), tableRows, cardinality, uniqueColumns);
+            } catch (Exception e) {
+                warnings.add("读取表 " + t + " 的统计信息失败：" + e.getMessage());
+                return new TableStats(false, 0, Map.of(), Set.of());
+            }
+        });
+    }
+}
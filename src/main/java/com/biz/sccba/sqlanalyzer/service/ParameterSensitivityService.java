@@ -0,0 +1,421 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.model.ExecutionPlan;
+import com.biz.sccba.sqlanalyzer.model.PlanShape;
+import com.biz.sccba.sqlanalyzer.util.SqlPlaceholderBinder;
+import com.biz.sccba.sqlanalyzer.util.ValueDistribution;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * 参数敏感执行计划检测服务
+ *
+ * SqlFillerService 每个占位符只从随机采样中取一个值，只能看到参数空间中的一个点。
+ * 本服务按列的取值分布（最高频、低频、最小/最大、分位点、NULL）生成多组参数，
+ * 并行 EXPLAIN，找出计划随参数值变化的查询以及触发每种计划的取值范围
+ */
+@Service
+public class ParameterSensitivityService {
+
+    /**
+     * 没有直方图时采样的最大行数
+     */
+    private static final int SAMPLE_ROWS = 20000;
+
+    /**
+     * 默认并行 EXPLAIN 数
+     */
+    private static final int DEFAULT_PARALLELISM = 4;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private SqlExecutionPlanService sqlExecutionPlanService;
+
+    /**
+     * 一组参数取值及其执行计划
+     *
+     * @param column 本组变化的列
+     * @param label 取值类别（MOST_FREQUENT、RARE、MIN、MAX、P50 等）
+     * @param value 取值
+     * @param frequency 取值占比（未知时为 null）
+     * @param filledSql 填充后的 SQL
+     * @param signature 计划结构签名
+     * @param estimatedRows 各表估算扫描行数之和
+     */
+    public record Variant(
+        String column,
+        String label,
+        Object value,
+        Double frequency,
+        String filledSql,
+        String signature,
+        Long estimatedRows
+    ) {}
+
+    /**
+     * 同一执行计划及触发它的取值
+     *
+     * @param signature 计划结构签名
+     * @param shape 计划结构
+     * @param variants 产生该计划的参数组
+     * @param valueRanges 每列触发该计划的取值范围
+     */
+    public record PlanGroup(
+        String signature,
+        PlanShape shape,
+        List<Variant> variants,
+        Map<String, String> valueRanges
+    ) {}
+
+    /**
+     * 参数敏感性检测报告
+     *
+     * @param sql 原始 SQL（占位符为 ?）
+     * @param planSensitive 计划是否随参数变化
+     * @param variantCount EXPLAIN 的参数组数
+     * @param distributionSources 每列分布来源（HISTOGRAM / SAMPLE）
+     * @param plans 按计划分组的结果
+     * @param findings 结论
+     * @param warnings 警告
+     */
+    public record SensitivityReport(
+        String sql,
+        boolean planSensitive,
+        int variantCount,
+        Map<String, String> distributionSources,
+        List<PlanGroup> plans,
+        List<String> findings,
+        List<String> warnings
+    ) {}
+
+    /**
+     * 检测参数敏感执行计划
+     *
+     * @param datasourceName 数据源名称
+     * @param sql 待检测的 SQL（占位符为 ?）
+     * @param tables 涉及的表（为空时从 SQL 中解析）
+     */
+    public SensitivityReport analyze(String datasourceName, String sql, List<String> tables) {
+        System.out.println("[ParameterSensitivityService] 开始参数敏感性检测，datasource=" + datasourceName);
+        List<String> warnings = new ArrayList<>();
+        JdbcTemplate jdbcTemplate = testEnvironmentService.getJdbcTemplate(datasourceName);
+        List<String> involvedTables = tables == null || tables.isEmpty()
+            ? sqlExecutionPlanService.parseTableNames(sql) : tables;
+
+        List<SqlPlaceholderBinder.Binding> bindings = SqlPlaceholderBinder.bind(sql);
+        if (bindings.isEmpty()) {
+            warnings.add("SQL 中没有占位符，无需检测");
+            return new SensitivityReport(sql, false, 0, Map.of(), List.of(), List.of(), warnings);
+        }
+
+        // 1. 收集每个被比较列的取值分布
+        Map<String, String> columnTables = resolveColumnTables(jdbcTemplate, bindings, involvedTables);
+        Map<String, ValueDistribution> distributions = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : columnTables.entrySet()) {
+            try {
+                distributions.put(entry.getKey(), collectDistribution(jdbcTemplate, entry.getValue(), entry.getKey()));
+            } catch (Exception e) {
+                warnings.add("收集列 " + entry.getKey() + " 的分布失败：" + e.getMessage());
+            }
+        }
+        for (SqlPlaceholderBinder.Binding binding : bindings) {
+            if (binding.column() == null && binding.role() != SqlPlaceholderBinder.Role.LIMIT) {
+                warnings.add("第 " + (binding.index() + 1) + " 个占位符无法识别对应的列，使用默认值 1");
+            } else if (binding.column() != null && !distributions.containsKey(binding.column())) {
+                warnings.add("列 " + binding.column() + " 不在涉及的表中，使用默认值 1");
+            }
+        }
+
+        // 2. 每次只改变一列，其余列保持基准值
+        Map<String, Object> baseline = new HashMap<>();
+        distributions.forEach((column, distribution) -> baseline.put(column, distribution.representative()));
+        List<Variant> pending = new ArrayList<>();
+        for (Map.Entry<String, ValueDistribution> entry : distributions.entrySet()) {
+            for (ValueDistribution.Candidate candidate : entry.getValue().getCandidates()) {
+                Map<String, Object> values = new HashMap<>(baseline);
+                values.put(entry.getKey(), candidate.value());
+                String filledSql = fill(sql, bindings, values, distributions);
+                if (filledSql == null) {
+                    // NULL 只能用于等值比较（改写为 IS NULL），IN、LIKE、范围比较中跳过
+                    continue;
+                }
+                pending.add(new Variant(entry.getKey(), candidate.label(), candidate.value(),
+                    candidate.frequency(), filledSql, null, null));
+            }
+        }
+
+        // 3. 并行 EXPLAIN
+        Map<String, PlanShape> shapes = new ConcurrentHashMap<>();
+        List<Variant> variants = explainAll(jdbcTemplate, pending, shapes, warnings);
+
+        // 4. 按计划分组并计算触发每种计划的取值范围
+        Map<String, List<Variant>> bySignature = variants.stream()
+            .collect(Collectors.groupingBy(Variant::signature, LinkedHashMap::new, Collectors.toList()));
+        List<PlanGroup> plans = new ArrayList<>();
+        for (Map.Entry<String, List<Variant>> entry : bySignature.entrySet()) {
+            plans.add(new PlanGroup(entry.getKey(), shapes.get(entry.getKey()),
+                entry.getValue(), valueRanges(entry.getValue())));
+        }
+        plans.sort(Comparator.comparing((PlanGroup g) -> g.variants().size()).reversed());
+
+        boolean sensitive = plans.size() > 1;
+        List<String> findings = buildFindings(plans, sensitive);
+        Map<String, String> sources = new LinkedHashMap<>();
+        distributions.forEach((column, distribution) -> sources.put(column, distribution.getSource()));
+
+        System.out.println("[ParameterSensitivityService] 检测完成，参数组：" + variants.size() + "，不同计划：" + plans.size());
+        return new SensitivityReport(sql, sensitive, variants.size(), sources, plans, findings, warnings);
+    }
+
+    /**
+     * 找出每个被比较的列属于哪张表
+     */
+    private Map<String, String> resolveColumnTables(JdbcTemplate jdbcTemplate,
+                                                    List<SqlPlaceholderBinder.Binding> bindings,
+                                                    List<String> tables) {
+        Set<String> columns = bindings.stream()
+            .map(SqlPlaceholderBinder.Binding::column)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<String, String> result = new LinkedHashMap<>();
+        if (columns.isEmpty() || tables.isEmpty()) {
+            return result;
+        }
+        String placeholders = tables.stream().map(t -> "?").collect(Collectors.joining(","));
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT TABLE_NAME, COLUMN_NAME FROM information_schema.COLUMNS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME IN (" + placeholders + ")",
+            tables.toArray());
+        for (String column : columns) {
+            for (Map<String, Object> row : rows) {
+                if (column.equalsIgnoreCase((String) row.get("COLUMN_NAME"))) {
+                    result.put(column, (String) row.get("TABLE_NAME"));
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 收集列的取值分布：优先使用直方图，没有直方图时对前 SAMPLE_ROWS 行做计数
+     */
+    private ValueDistribution collectDistribution(JdbcTemplate jdbcTemplate, String table, String column) throws Exception {
+        List<String> histograms = jdbcTemplate.queryForList(
+            "SELECT HISTOGRAM FROM information_schema.COLUMN_STATISTICS " +
+            "WHERE SCHEMA_NAME = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?",
+            String.class, table, column);
+        if (!histograms.isEmpty() && histograms.get(0) != null) {
+            JsonNode histogram = objectMapper.readTree(histograms.get(0));
+            return ValueDistribution.fromHistogram(histogram);
+        }
+
+        String countSql = String.format("""
+            SELECT v, COUNT(*) AS cnt
+            FROM (SELECT `%1$s` AS v FROM `%2$s` WHERE `%1$s` IS NOT NULL LIMIT %3$d) s
+            GROUP BY v
+            ORDER BY v
+            """, column, table, SAMPLE_ROWS);
+        List<Object> values = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        jdbcTemplate.query(countSql, rs -> {
+            values.add(rs.getObject("v"));
+            counts.add(rs.getLong("cnt"));
+        });
+        boolean hasNulls = !jdbcTemplate.queryForList(
+            String.format("SELECT 1 FROM `%2$s` WHERE `%1$s` IS NULL LIMIT 1", column, table)).isEmpty();
+        return ValueDistribution.fromCounts(values, counts, hasNulls);
+    }
+
+    /**
+     * 按绑定关系填充占位符
+     * 范围查询的下界取候选值、上界取最大值，使候选值决定范围的选择性
+     * NULL 值的等值比较改写为 IS NULL / IS NOT NULL
+     *
+     * @return 填充后的 SQL，NULL 值落在无法与 NULL 比较的位置时返回 null
+     */
+    private String fill(String sql, List<SqlPlaceholderBinder.Binding> bindings,
+                        Map<String, Object> values, Map<String, ValueDistribution> distributions) {
+        List<Object> literals = new ArrayList<>();
+        Map<String, Boolean> hasLower = new HashMap<>();
+        for (SqlPlaceholderBinder.Binding binding : bindings) {
+            if (binding.role() == SqlPlaceholderBinder.Role.LOWER && binding.column() != null) {
+                hasLower.put(binding.column(), true);
+            }
+        }
+        for (SqlPlaceholderBinder.Binding binding : bindings) {
+            Object value;
+            if (binding.role() == SqlPlaceholderBinder.Role.LIMIT) {
+                value = 10;
+            } else if (binding.column() == null || !values.containsKey(binding.column())) {
+                value = 1;
+            } else if (binding.role() == SqlPlaceholderBinder.Role.UPPER && hasLower.containsKey(binding.column())) {
+                value = maxValue(distributions.get(binding.column()), values.get(binding.column()));
+            } else {
+                value = values.get(binding.column());
+            }
+            literals.add(value);
+        }
+
+        StringBuilder result = new StringBuilder();
+        boolean inString = false;
+        char quote = 0;
+        int next = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (inString) {
+                if (c == '\\' && i + 1 < sql.length()) {
+                    result.append(c).append(sql.charAt(++i));
+                    continue;
+                }
+                if (c == quote) {
+                    inString = false;
+                }
+            } else if (c == '\'' || c == '"') {
+                inString = true;
+                quote = c;
+            } else if (c == '?' && next < literals.size()) {
+                Object value = literals.get(next++);
+                if (value == null) {
+                    String prefix = SqlPlaceholderBinder.nullComparisonPrefix(result.toString());
+                    if (prefix == null) {
+                        return null;
+                    }
+                    result.setLength(0);
+                    result.append(prefix);
+                }
+                result.append(SqlFillerService.formatValue(value));
+                continue;
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+
+    private Object maxValue(ValueDistribution distribution, Object fallback) {
+        if (distribution == null) {
+            return fallback;
+        }
+        for (ValueDistribution.Candidate candidate : distribution.getCandidates()) {
+            if (candidate.label().contains("MAX")) {
+                return candidate.value();
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * 并行 EXPLAIN 所有参数组
+     */
+    private List<Variant> explainAll(JdbcTemplate jdbcTemplate, List<Variant> pending,
+                                     Map<String, PlanShape> shapes, List<String> warnings) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(DEFAULT_PARALLELISM, pending.size())));
+        try {
+            List<Future<Variant>> futures = new ArrayList<>();
+            for (Variant variant : pending) {
+                futures.add(executor.submit(() -> {
+                    ExecutionPlan plan = sqlExecutionPlanService.getExecutionPlanUncached(variant.filledSql(), jdbcTemplate);
+                    PlanShape shape = PlanShape.fromRawJson(plan != null ? plan.getRawJson() : null);
+                    long rows = shape.getTables().stream()
+                        .map(PlanShape.TableAccess::getRowsExaminedPerScan)
+                        .filter(Objects::nonNull)
+                        .mapToLong(Long::longValue)
+                        .sum();
+                    shapes.putIfAbsent(shape.getSignature(), shape);
+                    return new Variant(variant.column(), variant.label(), variant.value(), variant.frequency(),
+                        variant.filledSql(), shape.getSignature(), rows);
+                }));
+            }
+            List<Variant> results = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    Variant variant = pending.get(i);
+                    warnings.add("EXPLAIN 失败（" + variant.column() + "=" + variant.value() + "）：" + e.getCause().getMessage());
+                }
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            warnings.add("检测被中断");
+            return List.of();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 计算每列触发该计划的取值范围
+     */
+    private Map<String, String> valueRanges(List<Variant> variants) {
+        Map<String, List<Variant>> byColumn = variants.stream()
+            .collect(Collectors.groupingBy(Variant::column, LinkedHashMap::new, Collectors.toList()));
+        Map<String, String> ranges = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Variant>> entry : byColumn.entrySet()) {
+            List<Object> values = entry.getValue().stream().map(Variant::value).filter(Objects::nonNull).toList();
+            boolean includesNull = entry.getValue().stream().anyMatch(v -> v.value() == null);
+            String labels = entry.getValue().stream().map(Variant::label).collect(Collectors.joining(", "));
+            String range;
+            if (values.isEmpty()) {
+                range = "NULL";
+            } else {
+                Object min = values.stream().min(this::compareValues).orElse(null);
+                Object max = values.stream().max(this::compareValues).orElse(null);
+                range = Objects.equals(min, max) ? String.valueOf(min) : "[" + min + " ~ " + max + "]";
+                if (includesNull) {
+                    range += " 或 NULL";
+                }
+            }
+            ranges.put(entry.getKey(), range + "（" + labels + "）");
+        }
+        return ranges;
+    }
+
+    private int compareValues(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString()));
+        }
+        return String.valueOf(a).compareTo(String.valueOf(b));
+    }
+
+    /**
+     * 生成结论
+     */
+    private List<String> buildFindings(List<PlanGroup> plans, boolean sensitive) {
+        List<String> findings = new ArrayList<>();
+        if (!sensitive) {
+            findings.add("所有参数组的执行计划一致，未发现参数敏感问题");
+            return findings;
+        }
+        findings.add(String.format("执行计划随参数值变化，共出现 %d 种计划", plans.size()));
+        for (int i = 0; i < plans.size(); i++) {
+            PlanGroup group = plans.get(i);
+            long maxRows = group.variants().stream().mapToLong(v -> v.estimatedRows() != null ? v.estimatedRows() : 0).max().orElse(0);
+            String triggers = group.valueRanges().entrySet().stream()
+                .map(e -> e.getKey() + " = " + e.getValue())
+                .collect(Collectors.joining("；"));
+            findings.add(String.format("计划 #%d [%s]，最多估算扫描 %d 行，触发取值：%s",
+                i + 1, group.signature(), maxRows, triggers));
+        }
+        Set<String> sensitiveColumns = new LinkedHashSet<>();
+        for (PlanGroup group : plans.subList(1, plans.size())) {
+            group.variants().forEach(v -> sensitiveColumns.add(v.column()));
+        }
+        findings.add("参数敏感的列：" + String.join(", ", sensitiveColumns)
+            + "。高频值（大租户、热门状态）可能需要单独的索引或查询提示，避免为多数取值优化的计划被用于少数大取值");
+        return findings;
+    }
+}
@@ -0,0 +1,279 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.model.ExecutionPlan;
+import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.model.PlanChange;
+import com.biz.sccba.sqlanalyzer.model.PlanRegression;
+import com.biz.sccba.sqlanalyzer.model.PlanShape;
+import com.biz.sccba.sqlanalyzer.model.PlanSnapshot;
+import com.biz.sccba.sqlanalyzer.repository.ParsedSqlQueryRepository;
+import com.biz.sccba.sqlanalyzer.repository.PlanRegressionRepository;
+import com.biz.sccba.sqlanalyzer.repository.PlanSnapshotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 执行计划回退检测服务
+ *
+ * - 定时以及分析器执行 DDL 后，为每条已解析的查询拍摄执行计划快照
+ * - 与上一次快照做结构对比（访问类型、索引选择、估算行数），按严重程度记录回退
+ * - 用同一条填充后的 SQL 对比两个环境（如 mysql-primary 与 mysql-secondary / GoldenDB 测试环境）
+ */
+@Service
+public class PlanRegressionService {
+
+    public static final String TRIGGER_SCHEDULED = "SCHEDULED";
+    public static final String TRIGGER_DDL = "DDL";
+    public static final String TRIGGER_MANUAL = "MANUAL";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private ParsedSqlQueryRepository parsedSqlQueryRepository;
+
+    @Autowired
+    private StatementTableIndex statementTableIndex;
+
+    @Autowired
+    private PlanSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private PlanRegressionRepository regressionRepository;
+
+    @Autowired
+    private SqlExecutionPlanService sqlExecutionPlanService;
+
+    @Autowired
+    private ExecutionPlanCacheService executionPlanCacheService;
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private SqlFillerService sqlFillerService;
+
+    @Autowired
+    private AnalyzerConfig.PlanRegressionProperties properties;
+
+    /**
+     * 定时快照和跨环境对比
+     */
+    @Scheduled(fixedDelayString = "${spring.analyzer.plan-regression.interval-ms:86400000}",
+        initialDelayString = "${spring.analyzer.plan-regression.interval-ms:86400000}")
+    public void scheduledSnapshot() {
+        if (!Boolean.TRUE.equals(properties.getEnabled())) {
+            return;
+        }
+        for (String datasourceName : properties.getDatasources()) {
+            try {
+                snapshotAll(datasourceName, TRIGGER_SCHEDULED);
+            } catch (Exception e) {
+                System.err.println("[PlanRegressionService] 定时快照失败，数据源：" + datasourceName + "，错误：" + e.getMessage());
+            }
+        }
+        for (String pair : properties.getComparePairs()) {
+            String[] parts = pair.split(":");
+            if (parts.length != 2) {
+                System.err.println("[PlanRegressionService] 无效的对比配置：" + pair);
+                continue;
+            }
+            try {
+                compareEnvironments(parts[0].trim(), parts[1].trim(), null);
+            } catch (Exception e) {
+                System.err.println("[PlanRegressionService] 跨环境对比失败：" + pair + "，错误：" + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 分析器执行 DDL 后，为涉及该表的查询异步拍摄快照
+     */
+    @Async
+    public void snapshotAfterDdl(String datasourceName, String tableName) {
+        executionPlanCacheService.invalidateSchemaVersion(datasourceName);
+        List<ParsedSqlQuery> queries = statementTableIndex.findQueries(tableName);
+        System.out.println("[PlanRegressionService] DDL 后快照，表：" + tableName + "，涉及查询：" + queries.size());
+        for (ParsedSqlQuery query : queries) {
+            try {
+                snapshotQuery(query, datasourceName, TRIGGER_DDL);
+            } catch (Exception e) {
+                System.err.println("[PlanRegressionService] 快照失败：" + mapperId(query) + "，错误：" + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 为所有已解析的查询拍摄快照
+     *
+     * @return 本次检测到的回退
+     */
+    public List<PlanRegression> snapshotAll(String datasourceName, String triggerType) {
+        List<PlanRegression> regressions = new ArrayList<>();
+        List<ParsedSqlQuery> queries = parsedSqlQueryRepository.findAll();
+        System.out.println("[PlanRegressionService] 开始计划快照，数据源：" + datasourceName + "，查询数：" + queries.size());
+        for (ParsedSqlQuery query : queries) {
+            try {
+                regressions.addAll(snapshotQuery(query, datasourceName, triggerType));
+            } catch (Exception e) {
+                System.err.println("[PlanRegressionService] 快照失败：" + mapperId(query) + "，错误：" + e.getMessage());
+            }
+        }
+        long high = regressions.stream().filter(r -> PlanChange.Severity.HIGH.name().equals(r.getSeverity())).count();
+        System.out.println("[PlanRegressionService] 计划快照完成，回退：" + regressions.size() + "（高：" + high + "）");
+        return regressions;
+    }
+
+    /**
+     * 为单条查询拍摄快照，并与上一次快照对比
+     *
+     * @return 检测到的变化（无变化时为空）
+     */
+    public List<PlanRegression> snapshotQuery(ParsedSqlQuery query, String datasourceName, String triggerType) throws Exception {
+        Optional<PlanSnapshot> previous =
+            snapshotRepository.findFirstByQueryIdAndDatasourceNameOrderByCreatedAtDesc(query.getId(), datasourceName);
+        String filledSql = previous.map(PlanSnapshot::getFilledSql)
+            .orElseGet(() -> fillSql(query, datasourceName));
+
+        ExecutionPlan plan = explain(filledSql, datasourceName);
+        if (plan == null || plan.getRawJson() == null) {
+            return List.of();
+        }
+        PlanShape shape = PlanShape.fromRawJson(plan.getRawJson());
+
+        PlanSnapshot snapshot = new PlanSnapshot();
+        snapshot.setQueryId(query.getId());
+        snapshot.setMapperId(mapperId(query));
+        snapshot.setDatasourceName(datasourceName);
+        snapshot.setFilledSql(filledSql);
+        snapshot.setPlanContentHash(executionPlanCacheService.storePlanContent(plan.getRawJson()));
+        snapshot.setShapeSignature(truncate(shape.getSignature(), 2000));
+        snapshot.setShapeJson(objectMapper.writeValueAsString(shape));
+        snapshot.setTriggerType(triggerType);
+        snapshot = snapshotRepository.save(snapshot);
+
+        if (previous.isEmpty()) {
+            return List.of();
+        }
+        PlanShape previousShape = objectMapper.readValue(previous.get().getShapeJson(), PlanShape.class);
+        List<PlanChange> changes = shape.diff(previousShape, properties.getRowJumpRatio());
+
+        List<PlanRegression> regressions = new ArrayList<>();
+        for (PlanChange change : changes) {
+            PlanRegression regression = toRegression(query, change, "TIME", datasourceName, datasourceName);
+            regression.setBaselineSnapshotId(previous.get().getId());
+            regression.setCurrentSnapshotId(snapshot.getId());
+            regressions.add(regression);
+        }
+        return regressionRepository.saveAll(regressions);
+    }
+
+    /**
+     * 用同一条填充后的 SQL 对比两个环境的执行计划
+     *
+     * @param baselineDatasource 基准环境（如 mysql-primary）
+     * @param targetDatasource 对比环境（如 mysql-secondary 或 GoldenDB 测试环境）
+     * @param queryId 只对比指定查询，为 null 时对比全部已解析查询
+     */
+    public List<PlanRegression> compareEnvironments(String baselineDatasource, String targetDatasource, Long queryId) {
+        List<ParsedSqlQuery> queries = queryId != null
+            ? parsedSqlQueryRepository.findById(queryId).map(List::of).orElse(List.of())
+            : parsedSqlQueryRepository.findAll();
+
+        List<PlanRegression> regressions = new ArrayList<>();
+        for (ParsedSqlQuery query : queries) {
+            try {
+                String filledSql = snapshotRepository
+                    .findFirstByQueryIdAndDatasourceNameOrderByCreatedAtDesc(query.getId(), baselineDatasource)
+                    .map(PlanSnapshot::getFilledSql)
+                    .orElseGet(() -> fillSql(query, baselineDatasource));
+
+                ExecutionPlan baselinePlan = explain(filledSql, baselineDatasource);
+                ExecutionPlan targetPlan = explain(filledSql, targetDatasource);
+                if (baselinePlan == null || targetPlan == null) {
+                    continue;
+                }
+
+                List<PlanChange> changes = PlanShape.fromRawJson(targetPlan.getRawJson())
+                    .diff(PlanShape.fromRawJson(baselinePlan.getRawJson()), properties.getRowJumpRatio());
+                for (PlanChange change : changes) {
+                    regressions.add(toRegression(query, change, "ENVIRONMENT", baselineDatasource, targetDatasource));
+                }
+            } catch (Exception e) {
+                System.err.println("[PlanRegressionService] 跨环境对比失败：" + mapperId(query) + "，错误：" + e.getMessage());
+            }
+        }
+        System.out.println("[PlanRegressionService] 跨环境对比完成：" + baselineDatasource + " vs " + targetDatasource
+            + "，差异：" + regressions.size());
+        return regressionRepository.saveAll(regressions);
+    }
+
+    /**
+     * 查询最近的回退记录
+     *
+     * @param hours 最近多少小时
+     * @param severity 严重程度过滤（可选）
+     */
+    public List<PlanRegression> getRecentRegressions(int hours, String severity) {
+        LocalDateTime since = LocalDateTime.now().minusHours(hours);
+        if (severity == null || severity.isBlank()) {
+            return regressionRepository.findByCreatedAtAfterOrderByCreatedAtDesc(since);
+        }
+        return regressionRepository.findBySeverityAndCreatedAtAfterOrderByCreatedAtDesc(
+            severity.toUpperCase(Locale.ROOT), since);
+    }
+
+    /**
+     * 在指定环境上获取执行计划（支持配置数据源和动态注册的测试环境）
+     */
+    private ExecutionPlan explain(String sql, String datasourceName) {
+        JdbcTemplate jdbcTemplate = testEnvironmentService.getJdbcTemplate(datasourceName);
+        return sqlExecutionPlanService.getExecutionPlanUncached(sql, jdbcTemplate);
+    }
+
+    /**
+     * 填充查询的占位符（首次快照时执行一次，之后复用，保证多次快照参数一致）
+     */
+    private String fillSql(ParsedSqlQuery query, String datasourceName) {
+        String sql = query.getSql();
+        if (!sql.contains("?")) {
+            return sql;
+        }
+        List<String> tables = query.getTableName() == null ? List.of()
+            : Arrays.stream(query.getTableName().split(",")).map(String::trim).filter(t -> !t.isEmpty()).toList();
+        return sqlFillerService.fillSql(datasourceName, sql, tables, "计划快照").filledSql();
+    }
+
+    private PlanRegression toRegression(ParsedSqlQuery query, PlanChange change, String comparisonType,
+                                        String baselineDatasource, String currentDatasource) {
+        PlanRegression regression = new PlanRegression();
+        regression.setQueryId(query.getId());
+        regression.setMapperId(mapperId(query));
+        regression.setComparisonType(comparisonType);
+        regression.setBaselineDatasource(baselineDatasource);
+        regression.setCurrentDatasource(currentDatasource);
+        regression.setSeverity(change.severity().name());
+        regression.setChangeType(change.changeType());
+        regression.setTableName(change.tableName());
+        regression.setBeforeValue(truncate(change.before(), 1000));
+        regression.setAfterValue(truncate(change.after(), 1000));
+        regression.setDescription(truncate(change.description(), 2000));
+        return regression;
+    }
+
+    private String mapperId(ParsedSqlQuery query) {
+        return query.getMapperNamespace() + "." + query.getStatementId();
+    }
+
+    private String truncate(String str, int maxLength) {
+        if (str == null) return null;
+        return str.length() > maxLength ? str.substring(0, maxLength) : str;
+    }
+}
@@ -1,7 +1,10 @@
 package com.biz.sccba.sqlanalyzer.service;
 
+import com.biz.sccba.sqlanalyzer.data.DataSourceConfigModel;
 import com.biz.sccba.sqlanalyzer.model.ExecutionPlan;
+import com.biz.sccba.sqlanalyzer.model.PlanTreeNode;
 import com.biz.sccba.sqlanalyzer.data.TableStructure;
+import com.biz.sccba.sqlanalyzer.util.SqlStatementClassifier;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,19 +18,111 @@ import java.util.regex.Pattern;
 @Service
 public class SqlExecutionPlanService {
 
+    /**
+     * 紧跟在表名后面但不是别名的关键字
+     */
+    private static final Set<String> NOT_ALIASES = Set.of("where", "on", "join", "inner", "left", "right", "cross",
+        "set", "using", "group", "order", "limit", "values", "straight_join", "force", "use", "ignore", "natural");
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Autowired
     private DataSourceManagerService dataSourceManagerService;
 
+    @Autowired
+    private ExecutionPlanCacheService executionPlanCacheService;
+
     /**
      * 获取 SQL 执行计划（JSON 格式）
+     * 表结构未变化时，重复的 EXPLAIN 请求直接从执行计划缓存返回
      */
     public ExecutionPlan getExecutionPlan(String sql, String datasourceName) {
+        JdbcTemplate jdbcTemplate = dataSourceManagerService.getJdbcTemplate(datasourceName);
+        return executionPlanCacheService.getOrLoad(sql, datasourceName, jdbcTemplate, parseTableNames(sql),
+            () -> getExecutionPlanInternal(sql, jdbcTemplate));
+    }
+
+    /**
+     * 获取 SQL 执行计划（跳过缓存，直接执行 EXPLAIN）
+     */
+    public ExecutionPlan getExecutionPlanUncached(String sql, String datasourceName) {
         JdbcTemplate jdbcTemplate = dataSourceManagerService.getJdbcTemplate(datasourceName);
         return getExecutionPlanInternal(sql, jdbcTemplate);
     }
 
+    /**
+     * 使用指定的 JdbcTemplate 获取执行计划（跳过缓存，直接执行 EXPLAIN，用于测试环境等非配置数据源）
+     */
+    public ExecutionPlan getExecutionPlanUncached(String sql, JdbcTemplate jdbcTemplate) {
+        return getExecutionPlanInternal(sql, jdbcTemplate);
+    }
+
+    /**
+     * 获取 SQL 执行计划，并通过 EXPLAIN ANALYZE 附加实际执行信息
+     *
+     * EXPLAIN ANALYZE 会真实执行语句，仅允许在开启了 safety.allow-execution 的数据源上使用，
+     * 且只支持查询语句（MySQL 8.0.18+），执行受 safety.statement-timeout-ms 限制
+     */
+    public ExecutionPlan getExecutionPlanWithAnalyze(String sql, String datasourceName) {
+        DataSourceConfigModel.SafetyConfig safety = dataSourceManagerService.getSafetyConfig(datasourceName);
+        if (!Boolean.TRUE.equals(safety.getAllowExecution())) {
+            throw new IllegalStateException("数据源 '" + datasourceName + "' 未开启 safety.allow-execution，不允许执行 EXPLAIN ANALYZE");
+        }
+        if (!SqlStatementClassifier.isReadOnly(sql)) {
+            throw new IllegalArgumentException("EXPLAIN ANALYZE 会真实执行语句，只支持 SELECT 查询");
+        }
+
+        JdbcTemplate jdbcTemplate = dataSourceManagerService.getJdbcTemplate(datasourceName);
+        String version = jdbcTemplate.queryForObject("SELECT VERSION()", String.class);
+        if (!supportsExplainAnalyze(version)) {
+            throw new IllegalStateException("EXPLAIN ANALYZE 需要 MySQL 8.0.18 及以上版本，当前版本：" + version);
+        }
+
+        ExecutionPlan plan = getExecutionPlanInternal(sql, jdbcTemplate);
+        if (plan == null) {
+            plan = new ExecutionPlan();
+        }
+
+        // 使用独立的 JdbcTemplate 设置超时，避免影响共享实例
+        JdbcTemplate analyzeTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        long timeoutMs = safety.getStatementTimeoutMs() != null ? safety.getStatementTimeoutMs() : 30000L;
+        analyzeTemplate.setQueryTimeout((int) Math.max(1, (timeoutMs + 999) / 1000));
+
+        try {
+            List<String> results = analyzeTemplate.query("EXPLAIN ANALYZE " + sql,
+                (rs, rowNum) -> rs.getString(1));
+            if (!results.isEmpty()) {
+                String treeText = results.get(0);
+                plan.setAnalyzeTreeText(treeText);
+                plan.setAnalyzeTree(PlanTreeNode.parse(treeText));
+            }
+        } catch (DataAccessException e) {
+            throw new RuntimeException("执行 EXPLAIN ANALYZE 失败：" + e.getMessage(), e);
+        }
+
+        return plan;
+    }
+
+    /**
+     * 判断 MySQL 版本是否支持 EXPLAIN ANALYZE（8.0.18+）
+     */
+    private boolean supportsExplainAnalyze(String version) {
+        if (version == null) {
+            return false;
+        }
+        Matcher matcher = Pattern.compile("^(\\d+)\\.(\\d+)\\.(\\d+)").matcher(version);
+        if (!matcher.find()) {
+            return false;
+        }
+        int major = Integer.parseInt(matcher.group(1));
+        int minor = Integer.parseInt(matcher.group(2));
+        int patch = Integer.parseInt(matcher.group(3));
+        if (major != 8) {
+            return major > 8;
+        }
+        return minor > 0 || patch >= 18;
+    }
+
     /**
      * 内部方法：使用指定的 JdbcTemplate 获取执行计划
      */
@@ -115,6 +210,27 @@ public class SqlExecutionPlanService {
         return tableNames;
     }
 
+    /**
+     * 解析 SQL 语句中的表别名
+     *
+     * @return 别名（小写）-> 表名（小写），表名本身也作为一个键
+     */
+    public Map<String, String> resolveTableAliases(String sql) {
+        Map<String, String> aliases = new HashMap<>();
+        for (String table : parseTableNames(sql)) {
+            aliases.put(table.toLowerCase(), table.toLowerCase());
+            Matcher matcher = Pattern.compile(
+                "(?i)\\b(?:\\w+\\.)?`?" + Pattern.quote(table) + "`?\\s+(?:AS\\s+)?`?(\\w+)`?").matcher(sql);
+            while (matcher.find()) {
+                String alias = matcher.group(1).toLowerCase();
+                if (!NOT_ALIASES.contains(alias)) {
+                    aliases.put(alias, table.toLowerCase());
+                }
+            }
+        }
+        return aliases;
+    }
+
     /**
      * 获取表的列信息
      */
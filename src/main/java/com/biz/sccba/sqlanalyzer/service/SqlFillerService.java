@@ -481,7 +481,7 @@ public class SqlFillerService {
     /**
      * 格式化参数值为 SQL 字面量
      */
-    private String formatValue(Object value) {
+    static String formatValue(Object value) {
         if (value == null) {
             return "NULL";
         }
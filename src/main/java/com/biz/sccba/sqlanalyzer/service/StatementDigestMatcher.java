@@ -0,0 +1,66 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.util.SqlDigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 把运行时采集到的 SQL 文本关联到已解析的 Mapper 语句
+ *
+ * 语句摘要采集、慢日志导入和锁等待采样都按 {@link SqlDigestUtils#matchKey} 匹配。
+ * 全部已解析语句的匹配键只在首次使用时计算一次并缓存在内存中；语句保存、修改或删除后
+ * 由 {@link StatementTableIndex} 在事务提交时使缓存失效，下次匹配时重新加载
+ */
+@Service
+public class StatementDigestMatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementDigestMatcher.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TransactionalIndex<Map<String, ParsedSqlQuery>> index = new TransactionalIndex<>(this::load);
+
+    /**
+     * 查找与 SQL 匹配的已解析语句（同一匹配键有多条语句时取 ID 最小的一条）
+     *
+     * @param sql 原始 SQL、慢日志样例或 performance_schema 的 DIGEST_TEXT
+     * @return 匹配的语句（只包含 ID、命名空间、语句 ID 和 SQL），未匹配时返回 null
+     */
+    public ParsedSqlQuery match(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        String key = SqlDigestUtils.matchKey(sql);
+        return index.read(queries -> queries.get(key));
+    }
+
+    /**
+     * 语句变化后调用：事务提交后丢弃缓存
+     */
+    public void invalidate() {
+        index.invalidateAfterCommit();
+    }
+
+    private Map<String, ParsedSqlQuery> load() {
+        Map<String, ParsedSqlQuery> loaded = new HashMap<>();
+        jdbcTemplate.query("SELECT id, mapper_namespace, statement_id, sql FROM parsed_sql_query"
+            + " WHERE sql IS NOT NULL ORDER BY id", rs -> {
+            ParsedSqlQuery query = new ParsedSqlQuery();
+            query.setId(rs.getLong("id"));
+            query.setMapperNamespace(rs.getString("mapper_namespace"));
+            query.setStatementId(rs.getString("statement_id"));
+            query.setSql(rs.getString("sql"));
+            loaded.putIfAbsent(SqlDigestUtils.matchKey(query.getSql()), query);
+        });
+        logger.info("语句匹配键已加载: {} 个", loaded.size());
+        return loaded;
+    }
+}
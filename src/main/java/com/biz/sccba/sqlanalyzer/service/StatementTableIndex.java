@@ -0,0 +1,360 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.model.StatementTableUsage;
+import com.biz.sccba.sqlanalyzer.repository.ParsedSqlQueryRepository;
+import com.biz.sccba.sqlanalyzer.repository.StatementTableUsageRepository;
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor;
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor.Role;
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor.Usage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 语句与表（列）关联的倒排索引
+ *
+ * 关联记录持久化在 statement_table_usage 表，解析 Mapper 时写入；内存中维护
+ * 表 → 列 → 使用方式 → 语句ID 的倒排索引，"按 create_time 过滤 t_order 的全部语句"
+ * 这类工作负载查询直接命中内存，不再对 parsed_sql_query 做 LIKE 全表扫描。
+ * 写入与 {@link MapperParameterIndex} 一致：JDBC 批量写库，经 {@link TransactionalIndex} 在事务提交后同步到内存。
+ * 所有保存、修改、删除语句的路径都经过这里，同时使 {@link StatementDigestMatcher} 的匹配键缓存失效
+ */
+@Service
+public class StatementTableIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementTableIndex.class);
+
+    private static final String INSERT_SQL = """
+        INSERT INTO statement_table_usage (query_id, mapper_namespace, statement_id, table_name, column_name, role)
+        VALUES (?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * REFERENCE 记录在倒排索引中的列键
+     */
+    private static final String NO_COLUMN = "";
+
+    @Autowired
+    private StatementTableUsageRepository usageRepository;
+
+    @Autowired
+    private ParsedSqlQueryRepository parsedSqlQueryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementDigestMatcher statementDigestMatcher;
+
+    private final TransactionalIndex<Inverted> index = new TransactionalIndex<>(this::load);
+
+    /**
+     * 一条语句的全部关联
+     */
+    private record QueryUsages(String namespace, String statementId, List<Usage> usages) {
+    }
+
+    /**
+     * 表上某列的使用统计
+     *
+     * @param column 列名
+     * @param statements 各使用方式下的语句数
+     */
+    public record ColumnUsage(String column, Map<Role, Integer> statements) {
+    }
+
+    /**
+     * 倒排索引本体（非线程安全，由外层读写锁保护）
+     */
+    private static final class Inverted {
+        private final Map<Long, QueryUsages> byQuery = new HashMap<>();
+        private final Map<String, Map<String, Map<Role, Set<Long>>>> byTable = new HashMap<>();
+
+        void put(long queryId, QueryUsages entry) {
+            remove(queryId);
+            byQuery.put(queryId, entry);
+            for (Usage usage : entry.usages()) {
+                byTable.computeIfAbsent(usage.table(), t -> new HashMap<>())
+                    .computeIfAbsent(usage.column() == null ? NO_COLUMN : usage.column(), c -> new EnumMap<>(Role.class))
+                    .computeIfAbsent(usage.role(), r -> new HashSet<>())
+                    .add(queryId);
+            }
+        }
+
+        void remove(long queryId) {
+            QueryUsages entry = byQuery.remove(queryId);
+            if (entry == null) {
+                return;
+            }
+            for (Usage usage : entry.usages()) {
+                Map<String, Map<Role, Set<Long>>> columns = byTable.get(usage.table());
+                if (columns == null) {
+                    continue;
+                }
+                String column = usage.column() == null ? NO_COLUMN : usage.column();
+                Map<Role, Set<Long>> roles = columns.get(column);
+                if (roles == null) {
+                    continue;
+                }
+                Set<Long> ids = roles.get(usage.role());
+                if (ids != null && ids.remove(queryId) && ids.isEmpty()) {
+                    roles.remove(usage.role());
+                    if (roles.isEmpty()) {
+                        columns.remove(column);
+                        if (columns.isEmpty()) {
+                            byTable.remove(usage.table());
+                        }
+                    }
+                }
+            }
+        }
+
+        void removeNamespace(String namespace) {
+            byQuery.entrySet().stream()
+                .filter(e -> e.getValue().namespace().equals(namespace))
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(this::remove);
+        }
+
+        Set<Long> lookup(String table, String column, Role role) {
+            Map<String, Map<Role, Set<Long>>> columns = byTable.getOrDefault(table, Map.of());
+            Set<Long> ids = new TreeSet<>();
+            if (column == null && role == null) {
+                columns.getOrDefault(NO_COLUMN, Map.of()).values().forEach(ids::addAll);
+                return ids;
+            }
+            Collection<Map<Role, Set<Long>>> candidates = column == null ? columns.values()
+                : Optional.ofNullable(columns.get(column)).map(List::of).orElse(List.of());
+            for (Map<Role, Set<Long>> roles : candidates) {
+                if (role == null) {
+                    roles.forEach((r, set) -> {
+                        if (r != Role.REFERENCE) {
+                            ids.addAll(set);
+                        }
+                    });
+                } else {
+                    ids.addAll(roles.getOrDefault(role, Set.of()));
+                }
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * 引用了表的语句ID
+     */
+    public Set<Long> queryIds(String table) {
+        return queryIds(table, null, null);
+    }
+
+    /**
+     * 按表、列、使用方式查找语句ID
+     *
+     * @param table 表名（大小写不敏感，可带库名）
+     * @param column 列名，为空时不限列
+     * @param role 使用方式，为空时不限（列也为空时等同于引用了该表）
+     */
+    public Set<Long> queryIds(String table, String column, Role role) {
+        String t = SqlTableUsageExtractor.normalizeName(table);
+        String c = column == null || column.isBlank() ? null : SqlTableUsageExtractor.normalizeName(column);
+        return index.read(inverted -> inverted.lookup(t, c, role));
+    }
+
+    /**
+     * 按表、列、使用方式查找语句（参数含义同 {@link #queryIds(String, String, Role)}）
+     */
+    public List<ParsedSqlQuery> findQueries(String table, String column, Role role) {
+        Set<Long> ids = queryIds(table, column, role);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<ParsedSqlQuery> queries = new ArrayList<>(parsedSqlQueryRepository.findAllById(ids));
+        queries.sort(Comparator.comparing(ParsedSqlQuery::getId));
+        return queries;
+    }
+
+    /**
+     * 引用了表的语句
+     */
+    public List<ParsedSqlQuery> findQueries(String table) {
+        return findQueries(table, null, null);
+    }
+
+    /**
+     * 表上各列被多少条语句用于过滤、连接、排序、分组（按语句总数降序）
+     */
+    public List<ColumnUsage> columnUsage(String table) {
+        String t = SqlTableUsageExtractor.normalizeName(table);
+        return index.read(inverted -> {
+            List<ColumnUsage> result = new ArrayList<>();
+            inverted.byTable.getOrDefault(t, Map.of()).forEach((column, roles) -> {
+                if (column.equals(NO_COLUMN)) {
+                    return;
+                }
+                Map<Role, Integer> counts = new EnumMap<>(Role.class);
+                roles.forEach((role, ids) -> counts.put(role, ids.size()));
+                result.add(new ColumnUsage(column, counts));
+            });
+            result.sort(Comparator.comparingInt((ColumnUsage usage) ->
+                usage.statements().values().stream().mapToInt(Integer::intValue).sum()).reversed()
+                .thenComparing(ColumnUsage::column));
+            return result;
+        });
+    }
+
+    /**
+     * 语句的关联记录
+     */
+    public List<Usage> usagesOf(long queryId) {
+        return index.read(inverted -> Optional.ofNullable(inverted.byQuery.get(queryId)).map(QueryUsages::usages).orElse(List.of()));
+    }
+
+    /**
+     * 替换命名空间下全部语句的关联（语句需已保存、带 ID）
+     */
+    public void replaceNamespace(String namespace, Collection<ParsedSqlQuery> queries) {
+        index.ensureLoaded();
+        jdbcTemplate.update("DELETE FROM statement_table_usage WHERE mapper_namespace = ?", namespace);
+        Map<Long, QueryUsages> entries = insert(queries);
+        index.afterCommit(inverted -> {
+            inverted.removeNamespace(namespace);
+            entries.forEach(inverted::put);
+        });
+        statementDigestMatcher.invalidate();
+    }
+
+    /**
+     * 重新建立若干语句的关联（语句的 SQL 被修改后调用）
+     */
+    public void reindex(Collection<ParsedSqlQuery> queries) {
+        if (queries.isEmpty()) {
+            return;
+        }
+        index.ensureLoaded();
+        deleteRows(queries.stream().map(ParsedSqlQuery::getId).toList());
+        Map<Long, QueryUsages> entries = insert(queries);
+        index.afterCommit(inverted -> entries.forEach(inverted::put));
+        statementDigestMatcher.invalidate();
+    }
+
+    /**
+     * 从 parsed_sql_query 重新读取并建立命名空间下全部语句的关联（批量扫描用 JDBC 写入语句后调用）
+     */
+    public void reindexNamespaces(Collection<String> namespaces) {
+        if (namespaces.isEmpty()) {
+            return;
+        }
+        index.ensureLoaded();
+        List<String> list = new ArrayList<>(namespaces);
+        List<ParsedSqlQuery> queries = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += BATCH_SIZE) {
+            List<String> chunk = list.subList(from, Math.min(list.size(), from + BATCH_SIZE));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.update("DELETE FROM statement_table_usage WHERE mapper_namespace IN (" + placeholders + ")",
+                chunk.toArray());
+            queries.addAll(jdbcTemplate.query("SELECT id, mapper_namespace, statement_id, sql FROM parsed_sql_query"
+                + " WHERE mapper_namespace IN (" + placeholders + ")", (rs, i) -> {
+                ParsedSqlQuery query = new ParsedSqlQuery();
+                query.setId(rs.getLong("id"));
+                query.setMapperNamespace(rs.getString("mapper_namespace"));
+                query.setStatementId(rs.getString("statement_id"));
+                query.setSql(rs.getString("sql"));
+                return query;
+            }, chunk.toArray()));
+        }
+        Map<Long, QueryUsages> entries = insert(queries);
+        Set<String> removed = new HashSet<>(namespaces);
+        index.afterCommit(inverted -> {
+            removed.forEach(inverted::removeNamespace);
+            entries.forEach(inverted::put);
+        });
+        statementDigestMatcher.invalidate();
+    }
+
+    /**
+     * 删除语句的关联
+     */
+    public void remove(Collection<Long> queryIds) {
+        if (queryIds.isEmpty()) {
+            return;
+        }
+        index.ensureLoaded();
+        deleteRows(queryIds);
+        List<Long> ids = List.copyOf(queryIds);
+        index.afterCommit(inverted -> ids.forEach(inverted::remove));
+        statementDigestMatcher.invalidate();
+    }
+
+    /**
+     * 从数据库重新加载（其他途径直接修改了 statement_table_usage 表时调用）
+     */
+    public void reload() {
+        index.reload();
+    }
+
+    private Map<Long, QueryUsages> insert(Collection<ParsedSqlQuery> queries) {
+        Map<Long, QueryUsages> entries = new LinkedHashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (ParsedSqlQuery query : queries) {
+            if (query.getId() == null) {
+                continue;
+            }
+            List<Usage> usages = SqlTableUsageExtractor.extract(query.getSql());
+            entries.put(query.getId(), new QueryUsages(query.getMapperNamespace(), query.getStatementId(), usages));
+            for (Usage usage : usages) {
+                rows.add(new Object[]{query.getId(), query.getMapperNamespace(), query.getStatementId(),
+                    usage.table(), usage.column(), usage.role().name()});
+            }
+        }
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+        return entries;
+    }
+
+    private void deleteRows(Collection<Long> queryIds) {
+        List<Object[]> rows = queryIds.stream().map(id -> new Object[]{id}).toList();
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("DELETE FROM statement_table_usage WHERE query_id = ?",
+                rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+    }
+
+    /**
+     * 加载全部关联；升级前解析、尚无关联记录的语句在这里补建
+     */
+    private Inverted load() {
+        Inverted loaded = new Inverted();
+        Map<Long, List<Usage>> usages = new HashMap<>();
+        Map<Long, StatementTableUsage> owners = new HashMap<>();
+        for (StatementTableUsage row : usageRepository.findAll()) {
+            usages.computeIfAbsent(row.getQueryId(), id -> new ArrayList<>())
+                .add(new Usage(row.getTableName(), row.getColumnName(), Role.valueOf(row.getRole())));
+            owners.putIfAbsent(row.getQueryId(), row);
+        }
+        usages.forEach((id, list) -> loaded.put(id,
+            new QueryUsages(owners.get(id).getMapperNamespace(), owners.get(id).getStatementId(), list)));
+
+        List<ParsedSqlQuery> missing = jdbcTemplate.query("SELECT id, mapper_namespace, statement_id, sql FROM parsed_sql_query"
+            + " WHERE id NOT IN (SELECT DISTINCT query_id FROM statement_table_usage)", (rs, i) -> {
+            ParsedSqlQuery query = new ParsedSqlQuery();
+            query.setId(rs.getLong("id"));
+            query.setMapperNamespace(rs.getString("mapper_namespace"));
+            query.setStatementId(rs.getString("statement_id"));
+            query.setSql(rs.getString("sql"));
+            return query;
+        });
+        insert(missing).forEach(loaded::put);
+        logger.info("语句-表倒排索引已加载: {} 条语句, {} 张表（补建 {} 条）",
+            loaded.byQuery.size(), loaded.byTable.size(), missing.size());
+        return loaded;
+    }
+}
@@ -193,6 +193,46 @@ public class TestEnvironmentService {
         throw new IllegalArgumentException("未找到数据源：" + datasourceName);
     }
 
+    /**
+     * 获取数据源的执行安全配置，与 {@link #getJdbcTemplate(String)} 按同样的顺序解析数据源：
+     * 先查动态注册的测试环境，再查配置中的数据源
+     *
+     * 与配置中的数据源一样默认不允许执行：通过接口注册的连接必须在 metadata 中显式设置 allowExecution=true
+     * 才能做基准测试、负载回放和索引验证；statementTimeoutMs、maxQps、maxConcurrency 同样从 metadata 读取
+     */
+    public DataSourceConfigModel.SafetyConfig getSafetyConfig(String datasourceName) {
+        if (datasourceName == null || datasourceName.isBlank()) {
+            throw new IllegalArgumentException("数据源名称不能为空");
+        }
+
+        TestEnvironment env = dynamicEnvironments.get(datasourceName);
+        if (env != null) {
+            DataSourceConfigModel.SafetyConfig safety = new DataSourceConfigModel.SafetyConfig();
+            Map<String, Object> metadata = env.metadata() != null ? env.metadata() : Map.of();
+            safety.setAllowExecution("true".equalsIgnoreCase(String.valueOf(metadata.get("allowExecution"))));
+            if (metadata.get("statementTimeoutMs") != null) {
+                safety.setStatementTimeoutMs(Long.valueOf(String.valueOf(metadata.get("statementTimeoutMs"))));
+            }
+            if (metadata.get("maxQps") != null) {
+                safety.setMaxQps(Integer.valueOf(String.valueOf(metadata.get("maxQps"))));
+            }
+            if (metadata.get("maxConcurrency") != null) {
+                safety.setMaxConcurrency(Integer.valueOf(String.valueOf(metadata.get("maxConcurrency"))));
+            }
+            return safety;
+        }
+
+        if (configProperties.getConfigs() != null) {
+            for (var config : configProperties.getConfigs()) {
+                if (config.getName().equals(datasourceName)) {
+                    return config.getSafety() != null ? config.getSafety() : new DataSourceConfigModel.SafetyConfig();
+                }
+            }
+        }
+
+        throw new IllegalArgumentException("未找到数据源：" + datasourceName);
+    }
+
     /**
      * 创建 JdbcTemplate
      */
@@ -0,0 +1,129 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 与数据库写入保持一致的内存索引容器
+ *
+ * 首次使用时通过 loader 从数据库加载，读取在读锁下进行；修改在当前事务提交后才应用到内存
+ * （没有事务时立即应用），回滚的写入不会进入索引。
+ * 同一事务内的读取看不到尚未提交的修改，调用方需要时应自行合并刚写入的数据
+ *
+ * @param <T> 索引本体类型（本身非线程安全，由本类的读写锁保护）
+ */
+final class TransactionalIndex<T> {
+
+    private final Supplier<T> loader;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private T index;
+
+    TransactionalIndex(Supplier<T> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * 在读锁下读取索引
+     */
+    <R> R read(Function<T, R> reader) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return reader.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 确保索引已加载（写库前调用，保证提交后的修改作用在完整的索引上）
+     */
+    void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (index != null) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (index == null) {
+                index = loader.get();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 事务提交后再修改内存索引，没有事务时立即修改
+     */
+    void afterCommit(Consumer<T> change) {
+        Runnable apply = () -> {
+            lock.writeLock().lock();
+            try {
+                change.accept(index);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * 事务提交后丢弃内存索引，下次读取时重新加载；没有事务时立即丢弃
+     * （派生数据无法增量维护时使用）
+     */
+    void invalidateAfterCommit() {
+        Runnable invalidate = () -> {
+            lock.writeLock().lock();
+            try {
+                index = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate.run();
+                }
+            });
+        } else {
+            invalidate.run();
+        }
+    }
+
+    /**
+     * 重新加载（加载在锁外进行，完成后替换）
+     */
+    void reload() {
+        T loaded = loader.get();
+        lock.writeLock().lock();
+        try {
+            index = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
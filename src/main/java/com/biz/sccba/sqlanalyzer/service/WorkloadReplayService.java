@@ -0,0 +1,444 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.data.DataSourceConfigModel;
+import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.repository.ParsedSqlQueryRepository;
+import com.biz.sccba.sqlanalyzer.util.WeightedSampler;
+import com.biz.sccba.sqlanalyzer.util.SqlStatementClassifier;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 负载回放服务
+ *
+ * 在索引变更上线前，按权重混合某个 Mapper 命名空间下的语句，在测试环境上以开环方式回放：
+ * - 请求按目标 QPS 的固定间隔发出，不等待前一个请求完成，每个请求在独立的虚拟线程中执行
+ * - 延迟从计划发出时间开始计算，请求排队造成的等待同样计入（避免 coordinated omission）
+ * - 目标 QPS 逐级提高，报告每一级的吞吐和延迟，找出延迟陡增或吞吐跟不上的拐点
+ *
+ * 目标 QPS 不超过 safety.max-qps，同时执行的请求数不超过 safety.max-concurrency，
+ * 超出并发限制的请求记为丢弃而不是阻塞发送线程，丢弃的请求按失败计入该级结果
+ *
+ * 每级的实际 QPS 只统计在本级时间窗口内完成的请求，窗口结束后才完成的请求单独计数，
+ * 不会抬高本级吞吐，也不会混入下一级
+ */
+@Service
+public class WorkloadReplayService {
+
+    private static final int HISTOGRAM_PRECISION = 3;
+
+    /**
+     * 丢弃或失败比例超过该值时停止继续加压
+     */
+    private static final double ABORT_RATIO = 0.5;
+
+    @Autowired
+    private ParsedSqlQueryRepository parsedSqlQueryRepository;
+
+    @Autowired
+    private TestEnvironmentService testEnvironmentService;
+
+    @Autowired
+    private SqlFillerService sqlFillerService;
+
+    @Autowired
+    private SqlExecutionPlanService sqlExecutionPlanService;
+
+    @Autowired
+    private AnalyzerConfig.ReplayProperties properties;
+
+    /**
+     * 回放参数，为 null 的项使用 spring.analyzer.replay 中的默认值
+     *
+     * @param startQps 起始目标 QPS
+     * @param stepQps 每级增加的 QPS
+     * @param maxSteps 最多级数
+     * @param stepDurationSeconds 每级持续时间（秒）
+     * @param weights statementId 到权重的映射（未列出的语句权重为 1）
+     * @param includeWrites 是否包含写语句（写语句在事务中执行后回滚）
+     */
+    public record ReplayOptions(
+        Integer startQps,
+        Integer stepQps,
+        Integer maxSteps,
+        Integer stepDurationSeconds,
+        Map<String, Double> weights,
+        Boolean includeWrites
+    ) {}
+
+    /**
+     * 负载中的一条语句
+     *
+     * @param queryId ParsedSqlQuery ID
+     * @param mapperId Mapper ID
+     * @param share 请求占比
+     * @param parameterSets 可用的参数组数
+     * @param write 是否为写语句
+     */
+    public record WorkloadItem(
+        Long queryId,
+        String mapperId,
+        double share,
+        int parameterSets,
+        boolean write
+    ) {}
+
+    /**
+     * 一级目标 QPS 的结果
+     *
+     * @param step 级数（从 1 开始）
+     * @param targetQps 目标 QPS
+     * @param achievedQps 实际完成的 QPS（只统计本级时间窗口内完成的请求）
+     * @param issued 发出的请求数
+     * @param completed 成功完成数
+     * @param lateCompleted 成功完成但晚于本级结束时间的请求数（不计入 achievedQps）
+     * @param errors 失败数（包含因并发限制丢弃的请求）
+     * @param dropped 因并发限制丢弃的请求数
+     * @param p50Ms 延迟中位数（毫秒，从计划发出时间算起，只包含成功完成的请求）
+     * @param p95Ms 95 分位延迟
+     * @param p99Ms 99 分位延迟
+     * @param maxMs 最大延迟
+     */
+    public record StepResult(
+        int step,
+        int targetQps,
+        double achievedQps,
+        long issued,
+        long completed,
+        long lateCompleted,
+        long errors,
+        long dropped,
+        double p50Ms,
+        double p95Ms,
+        double p99Ms,
+        double maxMs
+    ) {}
+
+    /**
+     * 回放报告
+     *
+     * @param namespace Mapper 命名空间
+     * @param datasourceName 数据源名称
+     * @param workload 负载组成
+     * @param steps 各级结果（吞吐/延迟曲线）
+     * @param kneeQps 拐点前最后一个健康的目标 QPS（未出现拐点时为最高一级）
+     * @param kneeReason 拐点原因
+     * @param findings 结论
+     * @param warnings 警告
+     */
+    public record ReplayReport(
+        String namespace,
+        String datasourceName,
+        List<WorkloadItem> workload,
+        List<StepResult> steps,
+        Integer kneeQps,
+        String kneeReason,
+        List<String> findings,
+        List<String> warnings
+    ) {}
+
+    /**
+     * 负载中的语句及预先填充好的 SQL
+     */
+    private record WorkloadStatement(ParsedSqlQuery query, List<String> filledSqls, boolean write) {}
+
+    /**
+     * 一级的实时统计（由多个虚拟线程并发写入）
+     */
+    private static class StepStats {
+        final int targetQps;
+        final ConcurrentHistogram histogram = new ConcurrentHistogram(HISTOGRAM_PRECISION);
+        final LongAdder completed = new LongAdder();
+        final LongAdder completedInStep = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        long endNanos;
+        long issued;
+        long dropped;
+        volatile String firstError;
+
+        StepStats(int targetQps) {
+            this.targetQps = targetQps;
+        }
+    }
+
+    /**
+     * 回放命名空间下的语句
+     */
+    public ReplayReport replay(String namespace, String datasourceName, ReplayOptions options) {
+        DataSourceConfigModel.SafetyConfig safety = testEnvironmentService.getSafetyConfig(datasourceName);
+        if (!Boolean.TRUE.equals(safety.getAllowExecution())) {
+            throw new IllegalStateException("数据源 '" + datasourceName + "' 未开启 safety.allow-execution，不允许负载回放");
+        }
+        List<String> warnings = new ArrayList<>();
+
+        int startQps = positive(options != null ? options.startQps() : null, properties.getStartQps());
+        int stepQps = positive(options != null ? options.stepQps() : null, properties.getStepQps());
+        int maxSteps = positive(options != null ? options.maxSteps() : null, properties.getMaxSteps());
+        int stepSeconds = positive(options != null ? options.stepDurationSeconds() : null, properties.getStepDurationSeconds());
+        boolean includeWrites = options != null && Boolean.TRUE.equals(options.includeWrites());
+        int maxQps = safety.getMaxQps() != null ? safety.getMaxQps() : Integer.MAX_VALUE;
+        int maxConcurrency = safety.getMaxConcurrency() != null ? Math.max(1, safety.getMaxConcurrency()) : 16;
+        if (startQps > maxQps) {
+            throw new IllegalArgumentException("起始 QPS " + startQps + " 超过数据源限制 safety.max-qps=" + maxQps);
+        }
+
+        // 1. 构建带权重的负载
+        Map<WorkloadStatement, Double> weights = new LinkedHashMap<>();
+        List<WorkloadItem> workload = new ArrayList<>();
+        for (ParsedSqlQuery query : parsedSqlQueryRepository.findByMapperNamespace(namespace)) {
+            boolean write;
+            try {
+                write = SqlStatementClassifier.isWriteStatement(query.getSql());
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            if (write && !includeWrites) {
+                continue;
+            }
+            Double weight = options != null && options.weights() != null
+                ? options.weights().getOrDefault(query.getStatementId(), 1.0) : 1.0;
+            List<String> filled = fillParameters(query, datasourceName, warnings);
+            if (filled.isEmpty() || weight == null || weight <= 0) {
+                continue;
+            }
+            weights.put(new WorkloadStatement(query, filled, write), weight);
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalStateException("命名空间 " + namespace + " 下没有可回放的语句");
+        }
+        WeightedSampler<WorkloadStatement> sampler = WeightedSampler.of(weights);
+        for (WorkloadStatement statement : sampler.getItems()) {
+            ParsedSqlQuery query = statement.query();
+            workload.add(new WorkloadItem(query.getId(), query.getMapperNamespace() + "." + query.getStatementId(),
+                sampler.share(statement), statement.filledSqls().size(), statement.write()));
+        }
+
+        System.out.println("[WorkloadReplayService] 开始负载回放，namespace=" + namespace + ", datasource=" + datasourceName
+            + ", 语句数=" + workload.size() + ", 起始 QPS=" + startQps);
+
+        // 2. 开环逐级加压
+        DataSource dataSource = testEnvironmentService.getJdbcTemplate(datasourceName).getDataSource();
+        int timeoutSeconds = (int) Math.max(1, ((safety.getStatementTimeoutMs() != null ? safety.getStatementTimeoutMs() : 30000L) + 999) / 1000);
+        Semaphore inFlight = new Semaphore(maxConcurrency);
+        List<StepStats> stepStats = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int step = 0; step < maxSteps; step++) {
+                int targetQps = startQps + step * stepQps;
+                if (targetQps > maxQps) {
+                    warnings.add("目标 QPS 达到数据源限制 safety.max-qps=" + maxQps + "，停止加压");
+                    break;
+                }
+                StepStats stats = new StepStats(targetQps);
+                stepStats.add(stats);
+                runStep(executor, dataSource, sampler, stats, stepSeconds, timeoutSeconds, inFlight);
+
+                long finished = stats.completed.sum() + stats.errors.sum();
+                if (stats.dropped > stats.issued * ABORT_RATIO
+                    || (finished > 0 && stats.errors.sum() > finished * ABORT_RATIO)) {
+                    warnings.add(String.format("目标 QPS %d 时超过一半请求被丢弃或失败，停止加压", targetQps));
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            warnings.add("负载回放被中断");
+        }
+
+        // 3. 汇总曲线与拐点（关闭执行器时已等待所有请求完成）
+        List<StepResult> steps = new ArrayList<>();
+        for (int i = 0; i < stepStats.size(); i++) {
+            steps.add(toResult(i + 1, stepStats.get(i), stepSeconds));
+            if (stepStats.get(i).firstError != null && warnings.stream().noneMatch(w -> w.startsWith("执行失败"))) {
+                warnings.add("执行失败，首个错误：" + stepStats.get(i).firstError);
+            }
+        }
+        int kneeIndex = detectKnee(steps, properties.getKneeLatencyFactor(), properties.getKneeThroughputRatio());
+        Integer kneeQps = null;
+        String kneeReason = null;
+        if (kneeIndex >= 0) {
+            kneeQps = kneeIndex > 0 ? steps.get(kneeIndex - 1).targetQps() : null;
+            kneeReason = describeKnee(steps, kneeIndex);
+        } else if (!steps.isEmpty()) {
+            kneeQps = steps.get(steps.size() - 1).targetQps();
+        }
+
+        List<String> findings = new ArrayList<>();
+        if (kneeIndex >= 0) {
+            findings.add(String.format("目标 QPS 达到 %d 时出现拐点：%s", steps.get(kneeIndex).targetQps(), kneeReason));
+            findings.add(kneeQps != null
+                ? "可持续的最高目标 QPS 约为 " + kneeQps
+                : "第一级即出现拐点，请降低起始 QPS 重新回放");
+        } else if (!steps.isEmpty()) {
+            findings.add("在测试的最高目标 QPS " + kneeQps + " 内未出现拐点，可提高 max-steps 或 safety.max-qps 继续加压");
+        }
+
+        System.out.println("[WorkloadReplayService] 负载回放完成，级数=" + steps.size() + ", 拐点 QPS=" + kneeQps);
+        return new ReplayReport(namespace, datasourceName, workload, steps, kneeQps, kneeReason, findings, warnings);
+    }
+
+    /**
+     * 以固定间隔发出一级请求：第 i 个请求的计划发出时间为 起始时间 + i / QPS，
+     * 本级结束时间为 起始时间 + 持续时间，晚于该时间完成的请求不计入本级吞吐
+     */
+    private void runStep(ExecutorService executor, DataSource dataSource, WeightedSampler<WorkloadStatement> sampler,
+                         StepStats stats, int stepSeconds, int timeoutSeconds, Semaphore inFlight) throws InterruptedException {
+        long total = (long) stats.targetQps * stepSeconds;
+        double intervalNanos = 1_000_000_000.0 / stats.targetQps;
+        long stepStart = System.nanoTime();
+        stats.endNanos = stepStart + stepSeconds * 1_000_000_000L;
+        for (long i = 0; i < total; i++) {
+            long intended = stepStart + (long) (i * intervalNanos);
+            long delay;
+            while ((delay = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            stats.issued++;
+            if (!inFlight.tryAcquire()) {
+                stats.dropped++;
+                continue;
+            }
+            WorkloadStatement statement = sampler.next();
+            String sql = statement.filledSqls().get(ThreadLocalRandom.current().nextInt(statement.filledSqls().size()));
+            executor.execute(() -> {
+                try {
+                    execute(dataSource, sql, statement.write(), timeoutSeconds);
+                    long finishedAt = System.nanoTime();
+                    stats.histogram.recordValue(Math.max(1, (finishedAt - intended) / 1000));
+                    stats.completed.increment();
+                    if (finishedAt - stats.endNanos <= 0) {
+                        stats.completedInStep.increment();
+                    }
+                } catch (Exception e) {
+                    stats.errors.increment();
+                    if (stats.firstError == null) {
+                        stats.firstError = e.getMessage();
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    private void execute(DataSource dataSource, String sql, boolean write, int timeoutSeconds) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (write) {
+                connection.setAutoCommit(false);
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(timeoutSeconds);
+                if (statement.execute(sql)) {
+                    try (ResultSet rs = statement.getResultSet()) {
+                        while (rs.next()) {
+                            // 读取全部结果，计入传输耗时
+                        }
+                    }
+                }
+            } finally {
+                if (write) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * 为语句预先生成参数，避免回放时调用 SqlFillerService
+     */
+    private List<String> fillParameters(ParsedSqlQuery query, String datasourceName, List<String> warnings) {
+        String sql = query.getSql();
+        if (!sql.contains("?")) {
+            return List.of(sql);
+        }
+        List<String> tables = sqlExecutionPlanService.parseTableNames(sql);
+        Set<String> filled = new LinkedHashSet<>();
+        for (int i = 0; i < Math.max(1, properties.getParameterSetsPerQuery()); i++) {
+            SqlFillerService.FillResult result = sqlFillerService.fillSql(datasourceName, sql, tables, "负载回放");
+            if (result.filledSql() != null && !result.filledSql().equals(sql)) {
+                filled.add(result.filledSql());
+            }
+        }
+        if (filled.isEmpty()) {
+            warnings.add("语句 " + query.getStatementId() + " 无法生成参数，已跳过");
+        }
+        return new ArrayList<>(filled);
+    }
+
+    private StepResult toResult(int step, StepStats stats, int stepSeconds) {
+        Histogram histogram = stats.histogram;
+        boolean empty = histogram.getTotalCount() == 0;
+        long completed = stats.completed.sum();
+        long completedInStep = stats.completedInStep.sum();
+        return new StepResult(
+            step,
+            stats.targetQps,
+            (double) completedInStep / stepSeconds,
+            stats.issued,
+            completed,
+            completed - completedInStep,
+            stats.errors.sum() + stats.dropped,
+            stats.dropped,
+            empty ? 0 : histogram.getValueAtPercentile(50.0) / 1000.0,
+            empty ? 0 : histogram.getValueAtPercentile(95.0) / 1000.0,
+            empty ? 0 : histogram.getValueAtPercentile(99.0) / 1000.0,
+            empty ? 0 : histogram.getMaxValue() / 1000.0
+        );
+    }
+
+    /**
+     * 找出第一个不健康的级：p99 超过第一级的 latencyFactor 倍，或实际吞吐低于目标的 throughputRatio
+     *
+     * @return 拐点所在下标，未出现拐点时返回 -1
+     */
+    static int detectKnee(List<StepResult> steps, double latencyFactor, double throughputRatio) {
+        if (steps.isEmpty()) {
+            return -1;
+        }
+        double baselineP99 = Math.max(steps.get(0).p99Ms(), 0.001);
+        for (int i = 0; i < steps.size(); i++) {
+            StepResult step = steps.get(i);
+            if (step.achievedQps() < step.targetQps() * throughputRatio) {
+                return i;
+            }
+            if (i > 0 && step.p99Ms() > baselineP99 * latencyFactor) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String describeKnee(List<StepResult> steps, int index) {
+        StepResult step = steps.get(index);
+        StepResult baseline = steps.get(0);
+        if (step.achievedQps() < step.targetQps() * properties.getKneeThroughputRatio()) {
+            return String.format("实际吞吐 %.1f QPS 低于目标 %d QPS（失败 %d，其中丢弃 %d；超出本级时间才完成 %d）",
+                step.achievedQps(), step.targetQps(), step.errors(), step.dropped(), step.lateCompleted());
+        }
+        return String.format("p99 延迟从 %.2fms 升至 %.2fms", baseline.p99Ms(), step.p99Ms());
+    }
+
+    private int positive(Integer requested, Integer configured) {
+        int value = requested != null ? requested : (configured != null ? configured : 1);
+        return Math.max(1, value);
+    }
+}
@@ -8,6 +8,7 @@ import com.biz.sccba.sqlanalyzer.model.agent.DdlConfirmationRequest;
 import com.biz.sccba.sqlanalyzer.model.agent.DdlConfirmationRequest.DdlOperationType;
 import com.biz.sccba.sqlanalyzer.model.agent.DdlConfirmationResponse;
 import com.biz.sccba.sqlanalyzer.service.DataSourceManagerService;
+import com.biz.sccba.sqlanalyzer.service.PlanRegressionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.agentscope.core.tool.Tool;
 import io.agentscope.core.tool.ToolParam;
@@ -31,14 +32,17 @@ public class AlterTableTool {
     private final DataSourceManagerService dataSourceService;
     private final DdlConfirmationManager confirmationManager;
     private final TransactionLogManager transactionLogManager;
+    private final PlanRegressionService planRegressionService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public AlterTableTool(DataSourceManagerService dataSourceService,
                           DdlConfirmationManager confirmationManager,
-                          TransactionLogManager transactionLogManager) {
+                          TransactionLogManager transactionLogManager,
+                          PlanRegressionService planRegressionService) {
         this.dataSourceService = dataSourceService;
         this.confirmationManager = confirmationManager;
         this.transactionLogManager = transactionLogManager;
+        this.planRegressionService = planRegressionService;
     }
 
     /**
@@ -117,6 +121,9 @@ public class AlterTableTool {
 
             executeDdl(datasourceName, ddl);
 
+            // 表结构已变化，异步为涉及该表的查询拍摄计划快照
+            planRegressionService.snapshotAfterDdl(datasourceName, tableName);
+
             System.out.println("[AlterTableTool] 表结构修改成功：" + alterClause);
 
             return objectMapper.writeValueAsString(Map.of(
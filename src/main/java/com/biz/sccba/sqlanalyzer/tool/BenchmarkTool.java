@@ -0,0 +1,92 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.model.BenchmarkResult;
+import com.biz.sccba.sqlanalyzer.service.BenchmarkService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试工具
+ * 真实执行语句，测量延迟分位数、扫描行数和错误率
+ */
+@Component
+public class BenchmarkTool {
+
+    private final BenchmarkService benchmarkService;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    public BenchmarkTool(BenchmarkService benchmarkService) {
+        this.benchmarkService = benchmarkService;
+    }
+
+    /**
+     * 执行基准测试
+     *
+     * @param sql 带 ? 占位符的 SQL（与 queryId 二选一）
+     * @param queryId 已解析查询的 ID（与 sql 二选一）
+     * @param datasourceName 数据源名称
+     * @param iterations 计入统计的执行次数
+     * @param concurrency 并发数
+     * @param warmupIterations 预热次数
+     * @param parameterSets 参数组数
+     * @return 基准测试结果 JSON
+     */
+    @Tool(name = "run_benchmark", description = "在开启执行权限的测试环境上真实执行语句，统计延迟 p50/p95/p99/max、扫描行数和错误率，写语句每次执行后回滚")
+    public String runBenchmark(
+            @ToolParam(name = "sql", description = "带 ? 占位符的 SQL 语句 (与 queryId 二选一)", required = false) String sql,
+            @ToolParam(name = "queryId", description = "已解析查询的 ID (与 sql 二选一)", required = false) Long queryId,
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName,
+            @ToolParam(name = "iterations", description = "计入统计的执行次数 (可选)", required = false) Integer iterations,
+            @ToolParam(name = "concurrency", description = "并发数 (可选)", required = false) Integer concurrency,
+            @ToolParam(name = "warmupIterations", description = "预热次数 (可选)", required = false) Integer warmupIterations,
+            @ToolParam(name = "parameterSets", description = "参数组数 (可选)", required = false) Integer parameterSets) {
+        System.out.println("[BenchmarkTool] 执行基准测试 (数据源：" + datasourceName + ", queryId=" + queryId + ")");
+        try {
+            BenchmarkService.BenchmarkOptions options =
+                new BenchmarkService.BenchmarkOptions(parameterSets, warmupIterations, iterations, concurrency);
+            BenchmarkService.BenchmarkReport report;
+            if (queryId != null) {
+                report = benchmarkService.benchmarkQuery(queryId, datasourceName, options);
+            } else if (sql != null && !sql.isBlank()) {
+                report = benchmarkService.benchmarkSql(sql, datasourceName, options);
+            } else {
+                return "{\"success\": false, \"error\": \"sql 和 queryId 至少提供一个\"}";
+            }
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "result", report.result(),
+                "warnings", report.warnings()
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+
+    /**
+     * 查询语句的基准测试历史
+     *
+     * @param sql SQL 语句（按摘要匹配，参数不同的同一语句视为相同）
+     * @return 历史结果 JSON
+     */
+    @Tool(name = "get_benchmark_results", description = "查询语句的历史基准测试结果（实测延迟），用于在优化建议中引用实测数据")
+    public String getBenchmarkResults(
+            @ToolParam(name = "sql", description = "SQL 语句", required = true) String sql) {
+        System.out.println("[BenchmarkTool] 查询基准测试历史");
+        try {
+            List<BenchmarkResult> results = benchmarkService.getResults(sql);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "count", results.size(),
+                "results", results
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
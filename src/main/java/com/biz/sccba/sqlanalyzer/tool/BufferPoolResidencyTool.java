@@ -0,0 +1,81 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.monitor.BufferPoolResidencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓冲池驻留工具
+ * 判断大表索引的工作集是否装得进内存，以及语句所选索引是否大部分不在内存中
+ */
+@Component
+public class BufferPoolResidencyTool {
+
+    private final BufferPoolResidencyService bufferPoolResidencyService;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    public BufferPoolResidencyTool(BufferPoolResidencyService bufferPoolResidencyService) {
+        this.bufferPoolResidencyService = bufferPoolResidencyService;
+    }
+
+    /**
+     * 查询索引的缓冲池驻留情况
+     *
+     * @param datasourceName 数据源名称
+     * @param schemaName 库名
+     * @param tables 表名，逗号分隔
+     * @param refresh 是否忽略缓存
+     * @return 驻留情况 JSON
+     */
+    @Tool(name = "get_index_buffer_residency", description = "查询每个索引驻留在 InnoDB 缓冲池中的页数与索引总页数之比，判断大表索引的工作集是否装得进内存")
+    public String getIndexBufferResidency(
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName,
+            @ToolParam(name = "schemaName", description = "库名（默认当前库）", required = false) String schemaName,
+            @ToolParam(name = "tables", description = "表名，多个用逗号分隔（可选）", required = false) String tables,
+            @ToolParam(name = "refresh", description = "是否忽略缓存重新采样 (默认 false)", required = false) Boolean refresh) {
+        System.out.println("[BufferPoolResidencyTool] 查询索引驻留 (数据源：" + datasourceName + ", 表：" + tables + ")");
+        try {
+            List<String> tableList = tables != null && !tables.isBlank()
+                ? Arrays.stream(tables.split(",")).map(String::trim).filter(t -> !t.isEmpty()).toList()
+                : List.of();
+            BufferPoolResidencyService.ResidencyReport report = bufferPoolResidencyService.getResidency(
+                datasourceName, schemaName, tableList, Boolean.TRUE.equals(refresh));
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "report", report
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+
+    /**
+     * 检查语句所选索引的驻留情况
+     *
+     * @param datasourceName 数据源名称
+     * @param sql SQL 语句
+     * @return 检查结果 JSON
+     */
+    @Tool(name = "check_statement_residency", description = "检查语句执行计划所选索引在缓冲池中的驻留比例，标记大部分不在内存中的冷索引并估算物理读")
+    public String checkStatementResidency(
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName,
+            @ToolParam(name = "sql", description = "SQL 语句", required = true) String sql) {
+        System.out.println("[BufferPoolResidencyTool] 检查语句索引驻留 (数据源：" + datasourceName + ")");
+        try {
+            BufferPoolResidencyService.StatementResidency result = bufferPoolResidencyService.checkStatement(datasourceName, sql);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "result", result
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
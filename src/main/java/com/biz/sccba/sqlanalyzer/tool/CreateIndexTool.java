@@ -7,7 +7,11 @@ import com.biz.sccba.sqlanalyzer.model.TransactionLogEntry.ActionType;
 import com.biz.sccba.sqlanalyzer.model.agent.DdlConfirmationRequest;
 import com.biz.sccba.sqlanalyzer.model.agent.DdlConfirmationRequest.DdlOperationType;
 import com.biz.sccba.sqlanalyzer.model.agent.DdlConfirmationResponse;
+import com.biz.sccba.sqlanalyzer.model.agent.IndexVerificationReport;
 import com.biz.sccba.sqlanalyzer.service.DataSourceManagerService;
+import com.biz.sccba.sqlanalyzer.service.IndexVerificationService;
+import com.biz.sccba.sqlanalyzer.service.PlanRegressionService;
+import com.biz.sccba.sqlanalyzer.util.IndexDdl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.agentscope.core.tool.Tool;
 import io.agentscope.core.tool.ToolParam;
@@ -24,6 +28,7 @@ import java.util.Map;
  * 创建索引工具
  *
  * 执行 CREATE INDEX 语句，需要用户确认
+ * 指定测试环境时，确认前先在测试环境上做前后对比验证，并把实测结果附在确认请求中
  */
 @Component
 public class CreateIndexTool {
@@ -31,14 +36,20 @@ public class CreateIndexTool {
     private final DataSourceManagerService dataSourceService;
     private final DdlConfirmationManager confirmationManager;
     private final TransactionLogManager transactionLogManager;
+    private final PlanRegressionService planRegressionService;
+    private final IndexVerificationService indexVerificationService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public CreateIndexTool(DataSourceManagerService dataSourceService,
                            DdlConfirmationManager confirmationManager,
-                           TransactionLogManager transactionLogManager) {
+                           TransactionLogManager transactionLogManager,
+                           PlanRegressionService planRegressionService,
+                           IndexVerificationService indexVerificationService) {
         this.dataSourceService = dataSourceService;
         this.confirmationManager = confirmationManager;
         this.transactionLogManager = transactionLogManager;
+        this.planRegressionService = planRegressionService;
+        this.indexVerificationService = indexVerificationService;
     }
 
     /**
@@ -51,6 +62,7 @@ public class CreateIndexTool {
      * @param columns        列（逗号分隔）
      * @param unique         是否唯一索引
      * @param sessionId      会话 ID
+     * @param verifyDatasource 执行前后对比验证的测试环境（可选）
      * @return 执行结果 JSON
      */
     @Tool(name = "create_index", description = "创建数据库索引（需要用户确认）")
@@ -61,12 +73,21 @@ public class CreateIndexTool {
             @ToolParam(name = "indexName", description = "索引名", required = true) String indexName,
             @ToolParam(name = "columns", description = "列（逗号分隔）", required = true) String columns,
             @ToolParam(name = "unique", description = "是否唯一索引", required = false) Boolean unique,
-            @ToolParam(name = "sessionId", description = "会话 ID", required = true) String sessionId) {
+            @ToolParam(name = "sessionId", description = "会话 ID", required = true) String sessionId,
+            @ToolParam(name = "verifyDatasource", description = "确认前做前后对比验证的测试环境 (可选，需开启执行权限)", required = false) String verifyDatasource) {
         System.out.println("[CreateIndexTool] 收到创建索引请求：" + datasourceName + "." + schema + "." + tableName);
 
         try {
             // 构建 DDL 语句
-            String ddl = buildCreateIndexSql(indexName, tableName, columns, unique != null && unique, schema);
+            String ddl = IndexDdl.createIndex(schema, tableName, indexName, columns, unique != null && unique);
+            String rollbackDdl = IndexDdl.dropIndex(schema, tableName, indexName);
+
+            // 在测试环境上验证实际收益
+            IndexVerificationReport verification = null;
+            if (verifyDatasource != null && !verifyDatasource.isBlank()) {
+                verification = indexVerificationService.verifyCreateIndex(
+                    verifyDatasource, datasourceName, tableName, indexName, ddl, rollbackDdl);
+            }
 
             // 创建确认请求
             DdlConfirmationRequest request = DdlConfirmationRequest.builder()
@@ -75,8 +96,10 @@ public class CreateIndexTool {
                 .ddlStatement(ddl)
                 .description(String.format("在表 %s 上创建%s索引：%s (%s)",
                     tableName, unique != null && unique ? "唯一" : "", indexName, columns))
-                .impactAnalysis(String.format("可能影响：1. INSERT/UPDATE 性能可能下降 2. SELECT 性能提升 3. 存储空间增加"))
-                .rollbackStatement(buildDropIndexSql(indexName, schema))
+                .impactAnalysis(verification != null ? verification.getSummary()
+                    : "未经测试环境验证，可能影响：1. INSERT/UPDATE 性能可能下降 2. SELECT 性能可能提升 3. 存储空间增加")
+                .rollbackStatement(rollbackDdl)
+                .verification(verification)
                 .metadata(Map.of(
                     "tableName", tableName,
                     "indexName", indexName,
@@ -126,6 +149,9 @@ public class CreateIndexTool {
 
             executeDdl(datasourceName, ddl);
 
+            // 表结构已变化，异步为涉及该表的查询拍摄计划快照
+            planRegressionService.snapshotAfterDdl(datasourceName, tableName);
+
             System.out.println("[CreateIndexTool] 索引创建成功：" + indexName);
 
             return objectMapper.writeValueAsString(Map.of(
@@ -160,46 +186,6 @@ public class CreateIndexTool {
         }
     }
 
-    /**
-     * 构建 CREATE INDEX SQL
-     */
-    private String buildCreateIndexSql(String indexName, String tableName, String columns,
-                                        boolean unique, String schema) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("CREATE ");
-        if (unique) {
-            sb.append("UNIQUE ");
-        }
-        sb.append("INDEX ");
-
-        if (schema != null && !schema.isEmpty()) {
-            sb.append(schema).append(".");
-        }
-        sb.append(indexName);
-
-        sb.append(" ON ");
-        if (schema != null && !schema.isEmpty()) {
-            sb.append(schema).append(".");
-        }
-        sb.append(tableName);
-
-        sb.append(" (").append(columns).append(")");
-
-        return sb.toString();
-    }
-
-    /**
-     * 构建 DROP INDEX SQL（用于回滚）
-     */
-    private String buildDropIndexSql(String indexName, String schema) {
-        StringBuilder sb = new StringBuilder("DROP INDEX ");
-        if (schema != null && !schema.isEmpty()) {
-            sb.append(schema).append(".");
-        }
-        sb.append(indexName);
-        return sb.toString();
-    }
-
     /**
      * 执行 DDL 语句
      */
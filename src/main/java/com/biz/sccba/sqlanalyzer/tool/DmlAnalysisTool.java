@@ -0,0 +1,85 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.service.DmlAnalysisService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DML 写放大分析工具
+ */
+@Component
+public class DmlAnalysisTool {
+
+    private final DmlAnalysisService dmlAnalysisService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public DmlAnalysisTool(DmlAnalysisService dmlAnalysisService) {
+        this.dmlAnalysisService = dmlAnalysisService;
+    }
+
+    /**
+     * 分析写语句的写放大
+     *
+     * @param datasourceName 数据源名称
+     * @param sql 写语句（与 queryId、namespace 三选一）
+     * @param queryId 已解析语句 ID
+     * @param namespace Mapper 命名空间（分析其下全部写语句）
+     * @return 分析结果 JSON
+     */
+    @Tool(name = "analyze_dml_write_amplification", description = "分析 INSERT/UPDATE/DELETE 语句的写放大：EXPLAIN 估算扫描和修改的行数，统计每行维护的二级索引记录数，识别更新索引列、更新主键、WHERE 无索引、大批量修改等问题")
+    public String analyzeDml(
+            @ToolParam(name = "datasourceName", description = "数据源名称") String datasourceName,
+            @ToolParam(name = "sql", description = "写语句 (与 queryId、namespace 三选一)", required = false) String sql,
+            @ToolParam(name = "queryId", description = "已解析语句 ID (可选)", required = false) Long queryId,
+            @ToolParam(name = "namespace", description = "Mapper 命名空间，分析其下全部写语句 (可选)", required = false) String namespace) {
+        System.out.println("[DmlAnalysisTool] 写放大分析，datasource=" + datasourceName + ", queryId=" + queryId + ", namespace=" + namespace);
+        try {
+            Object result;
+            if (sql != null && !sql.isBlank()) {
+                result = dmlAnalysisService.analyzeSql(datasourceName, sql);
+            } else if (queryId != null) {
+                result = dmlAnalysisService.analyzeQuery(datasourceName, queryId);
+            } else if (namespace != null && !namespace.isBlank()) {
+                result = dmlAnalysisService.analyzeNamespace(datasourceName, namespace);
+            } else {
+                throw new IllegalArgumentException("sql、queryId、namespace 至少提供一个");
+            }
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "report", result
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+
+    /**
+     * 估算新增索引的写代价
+     *
+     * @param datasourceName 数据源名称
+     * @param tableName 表名
+     * @param columns 新索引的列
+     * @return 写代价 JSON
+     */
+    @Tool(name = "estimate_index_write_cost", description = "估算新增索引给同表已解析写语句带来的额外索引写入（INSERT/DELETE 每行多 1 条，更新到索引列的 UPDATE 每行多 2 条），用于与该索引对读语句的收益对比")
+    public String estimateIndexWriteCost(
+            @ToolParam(name = "datasourceName", description = "数据源名称") String datasourceName,
+            @ToolParam(name = "tableName", description = "表名") String tableName,
+            @ToolParam(name = "columns", description = "新索引的列（按顺序）") List<String> columns) {
+        System.out.println("[DmlAnalysisTool] 估算索引写代价，table=" + tableName + ", columns=" + columns);
+        try {
+            DmlAnalysisService.IndexWriteCost cost = dmlAnalysisService.proposedIndexCost(datasourceName, tableName, columns);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "cost", cost
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
@@ -8,6 +8,8 @@ import com.biz.sccba.sqlanalyzer.model.agent.DdlConfirmationRequest;
 import com.biz.sccba.sqlanalyzer.model.agent.DdlConfirmationRequest.DdlOperationType;
 import com.biz.sccba.sqlanalyzer.model.agent.DdlConfirmationResponse;
 import com.biz.sccba.sqlanalyzer.service.DataSourceManagerService;
+import com.biz.sccba.sqlanalyzer.service.PlanRegressionService;
+import com.biz.sccba.sqlanalyzer.util.IndexDdl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.agentscope.core.tool.Tool;
 import io.agentscope.core.tool.ToolParam;
@@ -31,14 +33,17 @@ public class DropIndexTool {
     private final DataSourceManagerService dataSourceService;
     private final DdlConfirmationManager confirmationManager;
     private final TransactionLogManager transactionLogManager;
+    private final PlanRegressionService planRegressionService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public DropIndexTool(DataSourceManagerService dataSourceService,
                          DdlConfirmationManager confirmationManager,
-                         TransactionLogManager transactionLogManager) {
+                         TransactionLogManager transactionLogManager,
+                         PlanRegressionService planRegressionService) {
         this.dataSourceService = dataSourceService;
         this.confirmationManager = confirmationManager;
         this.transactionLogManager = transactionLogManager;
+        this.planRegressionService = planRegressionService;
     }
 
     /**
@@ -62,7 +67,7 @@ public class DropIndexTool {
 
         try {
             // 构建 DDL 语句
-            String ddl = buildDropIndexSql(indexName, schema);
+            String ddl = IndexDdl.dropIndex(schema, tableName, indexName);
 
             // 创建确认请求
             DdlConfirmationRequest request = DdlConfirmationRequest.builder()
@@ -71,8 +76,7 @@ public class DropIndexTool {
                 .ddlStatement(ddl)
                 .description(String.format("删除表 %s 上的索引：%s", tableName, indexName))
                 .impactAnalysis(String.format("可能影响：1. 依赖此索引的查询性能可能下降 2. 存储空间释放"))
-                .rollbackStatement(String.format("-- 需要重新创建索引：CREATE INDEX %s ON %s.%s (需要指定列)",
-                    indexName, schema != null ? schema + "." : "", tableName))
+                .rollbackStatement("-- 需要重新创建索引：" + IndexDdl.createIndex(schema, tableName, indexName, "需要指定列", false))
                 .metadata(Map.of(
                     "tableName", tableName,
                     "indexName", indexName,
@@ -118,6 +122,9 @@ public class DropIndexTool {
 
             executeDdl(datasourceName, ddl);
 
+            // 表结构已变化，异步为涉及该表的查询拍摄计划快照
+            planRegressionService.snapshotAfterDdl(datasourceName, tableName);
+
             System.out.println("[DropIndexTool] 索引删除成功：" + indexName);
 
             return objectMapper.writeValueAsString(Map.of(
@@ -152,18 +159,6 @@ public class DropIndexTool {
         }
     }
 
-    /**
-     * 构建 DROP INDEX SQL
-     */
-    private String buildDropIndexSql(String indexName, String schema) {
-        StringBuilder sb = new StringBuilder("DROP INDEX ");
-        if (schema != null && !schema.isEmpty()) {
-            sb.append(schema).append(".");
-        }
-        sb.append(indexName);
-        return sb.toString();
-    }
-
     /**
      * 执行 DDL 语句
      */
@@ -0,0 +1,53 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.service.DynamicSqlScenarioService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * 动态 SQL 场景枚举工具
+ */
+@Component
+public class DynamicSqlScenarioTool {
+
+    private final DynamicSqlScenarioService dynamicSqlScenarioService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public DynamicSqlScenarioTool(DynamicSqlScenarioService dynamicSqlScenarioService) {
+        this.dynamicSqlScenarioService = dynamicSqlScenarioService;
+    }
+
+    /**
+     * 枚举动态 SQL 的分支组合并定位最坏执行计划
+     *
+     * @param xmlContent Mapper XML 内容（与 filePath 二选一）
+     * @param filePath Mapper XML 文件路径
+     * @param statementId 语句 ID（可选）
+     * @param datasourceName 数据源名称（可选，为空时只枚举）
+     * @return 枚举结果 JSON
+     */
+    @Tool(name = "enumerate_dynamic_sql_scenarios", description = "枚举 MyBatis 语句中 if/choose/where/foreach 的分支组合（组合过多时两两覆盖），按 SQL 指纹去重后并行 EXPLAIN，报告每个语句成本最高的分支组合")
+    public String enumerateScenarios(
+            @ToolParam(name = "xmlContent", description = "Mapper XML 内容（与 filePath 二选一）", required = false) String xmlContent,
+            @ToolParam(name = "filePath", description = "Mapper XML 文件路径", required = false) String filePath,
+            @ToolParam(name = "statementId", description = "只分析该语句 (可选)", required = false) String statementId,
+            @ToolParam(name = "datasourceName", description = "用于 EXPLAIN 的数据源名称 (可选，为空时只枚举)", required = false) String datasourceName) {
+        System.out.println("[DynamicSqlScenarioTool] 枚举动态 SQL 场景，statement=" + statementId + ", datasource=" + datasourceName);
+        try {
+            String xml = xmlContent != null && !xmlContent.isBlank() ? xmlContent : Files.readString(Path.of(filePath));
+            DynamicSqlScenarioService.ScenarioReport report = dynamicSqlScenarioService.analyze(xml, statementId, datasourceName);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "report", report
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
@@ -32,15 +32,19 @@ public class ExecutionPlanTool {
      *
      * @param sql            SQL 语句
      * @param datasourceName 数据源名称 (可选)
+     * @param analyze        是否使用 EXPLAIN ANALYZE 获取实际执行信息 (可选，仅测试环境)
      * @return 执行计划 JSON
      */
     @Tool(name = "get_execution_plan", description = "获取 SQL 执行计划，分析查询性能和优化空间")
     public String getExecutionPlan(
             @ToolParam(name = "sql", description = "SQL 语句", required = true) String sql,
-            @ToolParam(name = "datasourceName", description = "数据源名称 (可选)", required = false) String datasourceName) {
-        System.out.println("[ExecutionPlanTool] 获取执行计划 (数据源：" + datasourceName + ")");
+            @ToolParam(name = "datasourceName", description = "数据源名称 (可选)", required = false) String datasourceName,
+            @ToolParam(name = "analyze", description = "是否执行 EXPLAIN ANALYZE 获取实际行数和耗时 (可选，仅限开启执行权限的测试环境)", required = false) Boolean analyze) {
+        System.out.println("[ExecutionPlanTool] 获取执行计划 (数据源：" + datasourceName + ", analyze=" + analyze + ")");
         try {
-            ExecutionPlan plan = executionPlanService.getExecutionPlan(sql, datasourceName);
+            ExecutionPlan plan = Boolean.TRUE.equals(analyze)
+                ? executionPlanService.getExecutionPlanWithAnalyze(sql, datasourceName)
+                : executionPlanService.getExecutionPlan(sql, datasourceName);
             return objectMapper.writeValueAsString(plan);
         } catch (Exception e) {
             return "{\"error\": \"" + e.getMessage() + "\"}";
@@ -67,7 +71,8 @@ public class ExecutionPlanTool {
             "description", "获取 SQL 执行计划，分析查询性能和优化空间",
             "parameters", Map.of(
                 "sql", Map.of("type", "string", "description", "SQL 语句", "required", true),
-                "datasourceName", Map.of("type", "string", "description", "数据源名称 (可选)", "required", false)
+                "datasourceName", Map.of("type", "string", "description", "数据源名称 (可选)", "required", false),
+                "analyze", Map.of("type", "boolean", "description", "是否执行 EXPLAIN ANALYZE (可选)", "required", false)
             )
         );
     }
@@ -0,0 +1,60 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.service.ForeachScalingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * foreach IN 列表规模分析工具
+ */
+@Component
+public class ForeachScalingTool {
+
+    private final ForeachScalingService foreachScalingService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ForeachScalingTool(ForeachScalingService foreachScalingService) {
+        this.foreachScalingService = foreachScalingService;
+    }
+
+    /**
+     * 按多个集合大小渲染含 foreach 的语句，找出计划或耗时退化的规模
+     *
+     * @param xmlContent Mapper XML 内容（与 filePath 二选一）
+     * @param filePath Mapper XML 文件路径
+     * @param statementId 语句 ID（可选）
+     * @param datasourceName 数据源名称（可选，为空时只估算语句大小）
+     * @param sizes foreach 元素个数（可选）
+     * @param benchmark 是否对每个规模执行基准测试
+     * @return 分析结果 JSON
+     */
+    @Tool(name = "analyze_foreach_scaling", description = "把含 <foreach> 的语句按多个集合大小（默认 1/10/200/5000，并加入 eq_range_index_dive_limit 两侧）渲染，用真实的不同取值填充后 EXPLAIN（可选基准测试），找出执行计划或每元素耗时开始退化的规模、是否超过 max_allowed_packet，推荐调用方的分批大小")
+    public String analyzeForeachScaling(
+            @ToolParam(name = "xmlContent", description = "Mapper XML 内容（与 filePath 二选一）", required = false) String xmlContent,
+            @ToolParam(name = "filePath", description = "Mapper XML 文件路径", required = false) String filePath,
+            @ToolParam(name = "statementId", description = "只分析该语句 (可选)", required = false) String statementId,
+            @ToolParam(name = "datasourceName", description = "数据源名称 (可选，为空时只估算语句大小)", required = false) String datasourceName,
+            @ToolParam(name = "sizes", description = "foreach 元素个数 (可选，默认 1,10,200,5000)", required = false) List<Integer> sizes,
+            @ToolParam(name = "benchmark", description = "是否对每个规模执行基准测试，只对查询语句 (默认 false)", required = false) Boolean benchmark) {
+        System.out.println("[ForeachScalingTool] IN 列表规模分析，statement=" + statementId + ", datasource=" + datasourceName
+            + ", sizes=" + sizes + ", benchmark=" + benchmark);
+        try {
+            String xml = xmlContent != null && !xmlContent.isBlank() ? xmlContent : Files.readString(Path.of(filePath));
+            ForeachScalingService.ScalingReport report = foreachScalingService.analyze(xml, statementId, datasourceName,
+                sizes, Boolean.TRUE.equals(benchmark));
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "report", report
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.biz.sccba.sqlanalyzer.tool;
 
+import com.biz.sccba.sqlanalyzer.monitor.IndexUsageProvider;
+import com.biz.sccba.sqlanalyzer.monitor.IndexUsageStatus;
 import com.biz.sccba.sqlanalyzer.service.TestEnvironmentService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.agentscope.core.tool.Tool;
 import io.agentscope.core.tool.ToolParam;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -18,10 +21,12 @@ import java.util.regex.Pattern;
 public class IndexUsageAnalyzer {
 
     private final TestEnvironmentService testEnvironmentService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final IndexUsageProvider indexUsageProvider;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
 
-    public IndexUsageAnalyzer(TestEnvironmentService testEnvironmentService) {
+    public IndexUsageAnalyzer(TestEnvironmentService testEnvironmentService, IndexUsageProvider indexUsageProvider) {
         this.testEnvironmentService = testEnvironmentService;
+        this.indexUsageProvider = indexUsageProvider;
     }
 
     @Tool(name = "analyze_index_usage", description = "分析 SQL 查询中的索引使用情况，识别索引缺失和使用不当的问题")
@@ -89,7 +94,7 @@ public class IndexUsageAnalyzer {
             List<Map<String, Object>> indexes = getTableIndexes(jdbcTemplate, tableName);
             List<IndexUsageInfo> indexUsage = analyzeIndexUsageInQuery(sql, tableName, indexes);
             List<String> missingIndexes = identifyMissingIndexes(sql, tableName, indexes, indexUsage);
-            List<String> unusedIndexes = findUnusedIndexes(indexes, indexUsage);
+            List<String> unusedIndexes = findUnusedIndexes(datasourceName, tableName);
             List<String> potentialIssues = identifyPotentialIssues(sql, tableName, indexUsage);
             
             analysis = new TableIndexAnalysis(
@@ -281,23 +286,24 @@ public class IndexUsageAnalyzer {
         return missing;
     }
 
-    private List<String> findUnusedIndexes(List<Map<String, Object>> indexes, List<IndexUsageInfo> indexUsage) {
+    /**
+     * 未使用的索引以整个负载的实际读写计数为依据（见 IndexUsageProvider），
+     * 一条 SQL 没有用到某个索引并不说明它没有被其他语句使用；
+     * 读取计数失败（performance_schema/sys 不可用等）时返回空列表，不影响其他分析
+     */
+    private List<String> findUnusedIndexes(String datasourceName, String tableName) {
         List<String> unused = new ArrayList<>();
-        
-        Set<String> usedIndexNames = new HashSet<>();
-        for (IndexUsageInfo usage : indexUsage) {
-            if (usage.usedInWhere || usage.usedInJoin) {
-                usedIndexNames.add(usage.indexName);
-            }
-        }
-        
-        for (Map<String, Object> index : indexes) {
-            String indexName = (String) index.get("INDEX_NAME");
-            if (((Number) index.get("SEQ_IN_INDEX")).intValue() == 1 && !usedIndexNames.contains(indexName)) {
-                unused.add("Index '" + indexName + "' may be unused");
+
+        try {
+            for (IndexUsageProvider.IndexUsage usage : indexUsageProvider.getTableUsage(datasourceName, tableName)) {
+                if (usage.status() == IndexUsageStatus.UNUSED) {
+                    unused.add("Index '" + usage.indexName() + "' is unused across the workload: " + usage.evidence());
+                }
             }
+        } catch (Exception e) {
+            System.err.println("[IndexUsageAnalyzer] 读取索引使用计数失败：" + e.getMessage());
         }
-        
+
         return unused;
     }
 
@@ -402,6 +408,32 @@ public class IndexUsageAnalyzer {
         }
     }
 
+    /**
+     * 查询基于实际计数的索引使用情况
+     */
+    @Tool(name = "get_index_usage", description = "基于 performance_schema 跨快照、跨重启累计的读写计数，列出真正未使用的索引和热点索引")
+    public String getIndexUsage(
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName,
+            @ToolParam(name = "schemaName", description = "库名（可选）", required = false) String schemaName,
+            @ToolParam(name = "tableName", description = "表名（可选）", required = false) String tableName,
+            @ToolParam(name = "refresh", description = "是否先做一次快照 (默认 false)", required = false) Boolean refresh) {
+        System.out.println("[IndexUsageAnalyzer] 查询索引使用计数 (数据源：" + datasourceName + ")");
+        try {
+            if (Boolean.TRUE.equals(refresh)) {
+                indexUsageProvider.snapshot(datasourceName);
+            }
+            List<IndexUsageProvider.IndexUsage> usage = indexUsageProvider.getUsage(datasourceName, schemaName, tableName);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "count", usage.size(),
+                "unused", usage.stream().filter(u -> u.status() == IndexUsageStatus.UNUSED).count(),
+                "indexes", usage
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+
     public Map<String, Object> getMetadata() {
         Map<String, Object> metadata = new HashMap<>();
         metadata.put("name", "analyze_index_usage");
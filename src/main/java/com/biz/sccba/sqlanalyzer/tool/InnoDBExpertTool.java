@@ -1,7 +1,14 @@
 package com.biz.sccba.sqlanalyzer.tool;
 
+import com.biz.sccba.sqlanalyzer.monitor.EngineMetric;
+import com.biz.sccba.sqlanalyzer.monitor.InnoDBMetricsSampler;
+import com.biz.sccba.sqlanalyzer.monitor.OptimizerStatsHealthService;
+import com.biz.sccba.sqlanalyzer.monitor.StatsHealthEvaluator;
+import com.biz.sccba.sqlanalyzer.service.DmlAnalysisService;
 import com.biz.sccba.sqlanalyzer.service.TestEnvironmentService;
+import com.biz.sccba.sqlanalyzer.util.DmlWriteModel;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.agentscope.core.tool.Tool;
 import io.agentscope.core.tool.ToolParam;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -17,18 +24,33 @@ import java.util.*;
  * - 锁竞争分析
  * - 缓冲池使用分析
  * - 查询执行计划分析（从 InnoDB 角度）
+ * - 结合引擎指标采样，把执行计划与当前引擎压力关联
+ * - 检查统计信息健康度，统计信息失真时降低对执行计划估算的信任
+ * - 写语句估算写放大（每行维护的索引记录数、扫描并加锁的行数）
  */
 @Component
 public class InnoDBExpertTool {
 
+    /**
+     * 估算扫描行数超过该值时视为大范围扫描
+     */
+    private static final long LARGE_SCAN_ROWS = 10000;
+
     private final TestEnvironmentService testEnvironmentService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InnoDBMetricsSampler innoDBMetricsSampler;
+    private final OptimizerStatsHealthService optimizerStatsHealthService;
+    private final DmlAnalysisService dmlAnalysisService;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
 
     /**
      * 构造函数
      */
-    public InnoDBExpertTool(TestEnvironmentService testEnvironmentService) {
+    public InnoDBExpertTool(TestEnvironmentService testEnvironmentService, InnoDBMetricsSampler innoDBMetricsSampler,
+                            OptimizerStatsHealthService optimizerStatsHealthService, DmlAnalysisService dmlAnalysisService) {
         this.testEnvironmentService = testEnvironmentService;
+        this.innoDBMetricsSampler = innoDBMetricsSampler;
+        this.optimizerStatsHealthService = optimizerStatsHealthService;
+        this.dmlAnalysisService = dmlAnalysisService;
     }
 
     /**
@@ -63,18 +85,36 @@ public class InnoDBExpertTool {
             // 2. 分析表统计信息
             Map<String, Object> tableStats = analyzeTableStats(jdbcTemplate, tableName);
 
-            // 3. 如果提供了 SQL，分析执行计划
+            // 3. 检查统计信息健康度：统计信息失真时执行计划的估算不可信
+            OptimizerStatsHealthService.TableHealth statsHealth = checkStatsHealth(datasourceName, tableName);
+
+            // 4. 如果提供了 SQL，分析执行计划，并与当前引擎压力关联
             List<String> suggestions = new ArrayList<>();
+            if (statsHealth != null) {
+                for (StatsHealthEvaluator.Issue issue : statsHealth.issues()) {
+                    suggestions.add((issue.severity() == StatsHealthEvaluator.Severity.LOW ? "📊" : "⚠️")
+                        + " 统计信息：" + issue.detail() + "，建议执行 " + issue.recommendation());
+                }
+            }
+            InnoDBMetricsSampler.EnginePressure pressure = innoDBMetricsSampler.getPressure(datasourceName);
             if (sql != null && !sql.trim().isEmpty()) {
-                suggestions.addAll(analyzeExecutionPlan(jdbcTemplate, sql, indexAnalysis));
+                suggestions.addAll(analyzeExecutionPlan(jdbcTemplate, sql, indexAnalysis, pressure));
+            }
+
+            // 5. 写语句估算写放大
+            DmlAnalysisService.DmlReport dmlReport = analyzeWriteAmplification(datasourceName, sql);
+            if (dmlReport != null) {
+                for (DmlAnalysisService.Finding finding : dmlReport.findings()) {
+                    suggestions.add("⚠️ 写放大：" + finding.detail());
+                }
             }
 
-            // 4. 生成 InnoDB 角度的建议
+            // 6. 生成 InnoDB 角度的建议
             suggestions.addAll(generateInnodbSuggestions(indexAnalysis, tableStats));
 
-            // 5. 确定优先级和置信度
+            // 7. 确定优先级和置信度
             int priority = determinePriority(suggestions);
-            double confidence = determineConfidence(indexAnalysis, tableStats);
+            double confidence = determineConfidence(indexAnalysis, tableStats, statsHealth);
 
             InnoDBAnalysisResult result = new InnoDBAnalysisResult(
                 tableName,
@@ -84,13 +124,22 @@ public class InnoDBExpertTool {
                 confidence
             );
 
-            return objectMapper.writeValueAsString(Map.of(
-                "success", true,
-                "result", result,
-                "expertType", "InnoDB",
-                "priority", priority,
-                "confidence", confidence
-            ));
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("success", true);
+            response.put("result", result);
+            response.put("expertType", "InnoDB");
+            response.put("priority", priority);
+            response.put("confidence", confidence);
+            if (pressure != null) {
+                response.put("enginePressure", pressure);
+            }
+            if (statsHealth != null) {
+                response.put("statsHealth", statsHealth);
+            }
+            if (dmlReport != null) {
+                response.put("dmlWriteAmplification", dmlReport);
+            }
+            return objectMapper.writeValueAsString(response);
 
         } catch (Exception e) {
             System.out.println("InnoDB 专家分析失败：" + e.getMessage());
@@ -198,12 +247,45 @@ public class InnoDBExpertTool {
         return stats;
     }
 
+    /**
+     * 检查表的统计信息健康度，失败时返回 null
+     */
+    private OptimizerStatsHealthService.TableHealth checkStatsHealth(String datasourceName, String tableName) {
+        try {
+            OptimizerStatsHealthService.HealthReport report =
+                optimizerStatsHealthService.check(datasourceName, null, List.of(tableName));
+            return report.tables().isEmpty() ? null : report.tables().get(0);
+        } catch (Exception e) {
+            System.out.println("检查统计信息失败：" + tableName + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 写语句的写放大分析；不是写语句或分析失败时返回 null
+     */
+    private DmlAnalysisService.DmlReport analyzeWriteAmplification(String datasourceName, String sql) {
+        if (sql == null || DmlWriteModel.parse(sql) == null) {
+            return null;
+        }
+        try {
+            DmlAnalysisService.DmlReport report = dmlAnalysisService.analyzeSql(datasourceName, sql);
+            return report.error() == null ? report : null;
+        } catch (Exception e) {
+            System.out.println("写放大分析失败：" + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * 分析执行计划
      */
     private List<String> analyzeExecutionPlan(JdbcTemplate jdbcTemplate, String sql,
-                                               List<IndexAnalysis> indexAnalysis) {
+                                               List<IndexAnalysis> indexAnalysis,
+                                               InnoDBMetricsSampler.EnginePressure pressure) {
         List<String> suggestions = new ArrayList<>();
+        long estimatedRows = 0;
+        boolean fullScan = false;
 
         try {
             // 执行 EXPLAIN
@@ -217,8 +299,13 @@ public class InnoDBExpertTool {
                 Long rows = (Long) row.get("rows");
                 String extra = (String) row.get("Extra");
 
+                if (rows != null) {
+                    estimatedRows += rows;
+                }
+
                 // 检查是否是全表扫描
                 if ("ALL".equals(accessType)) {
+                    fullScan = true;
                     suggestions.add("⚠️ 检测到全表扫描 (type=ALL)，建议添加索引");
                 }
 
@@ -241,6 +328,10 @@ public class InnoDBExpertTool {
                 }
             }
 
+            if (pressure != null) {
+                suggestions.addAll(correlateWithEnginePressure(sql, estimatedRows, fullScan, pressure));
+            }
+
         } catch (Exception e) {
             System.out.println("分析执行计划失败：" + e.getMessage());
             suggestions.add("执行计划分析失败：" + e.getMessage());
@@ -249,6 +340,70 @@ public class InnoDBExpertTool {
         return suggestions;
     }
 
+    /**
+     * 把执行计划的代价与当前引擎压力关联：同样的计划在引擎空闲和繁忙时的实际影响差别很大
+     */
+    private List<String> correlateWithEnginePressure(String sql, long estimatedRows, boolean fullScan,
+                                                     InnoDBMetricsSampler.EnginePressure pressure) {
+        List<String> suggestions = new ArrayList<>();
+        boolean largeScan = fullScan || estimatedRows > LARGE_SCAN_ROWS;
+        boolean write = sql.trim().toUpperCase().matches("(?s)^(UPDATE|DELETE|INSERT|REPLACE)\\b.*");
+
+        Double hitRatio = pressure.avg(EngineMetric.BUFFER_POOL_HIT_RATIO);
+        Double pagesRead = pressure.avg(EngineMetric.PAGES_READ_PER_SEC);
+        if (largeScan && hitRatio != null && hitRatio < 0.99) {
+            suggestions.add(String.format("⚠️ 当前缓冲池命中率 %.2f%%（每秒读盘 %.0f 页），该语句估算扫描 %d 行，"
+                + "会产生大量物理读并挤出其他热点页", hitRatio * 100, pagesRead != null ? pagesRead : 0.0, estimatedRows));
+        }
+        Double history = pressure.latest(EngineMetric.HISTORY_LIST_LENGTH);
+        if (largeScan && history != null && history > 100000) {
+            suggestions.add(String.format("⚠️ 历史链表长度 %.0f，大范围一致性读需要回溯更多 undo 版本，耗时会明显高于测试环境", history));
+        }
+        if (write) {
+            Double lockWaits = pressure.avg(EngineMetric.ROW_LOCK_WAITS_PER_SEC);
+            if (lockWaits != null && lockWaits > 0) {
+                suggestions.add(String.format("⚠️ 当前每秒 %.1f 次行锁等待，该写语句%s会加剧锁争用",
+                    lockWaits, largeScan ? "扫描范围大，锁定的记录和间隙多，" : ""));
+            }
+            Double logWaits = pressure.avg(EngineMetric.LOG_WAITS_PER_SEC);
+            Double checkpointAge = pressure.latest(EngineMetric.CHECKPOINT_AGE_RATIO);
+            if ((logWaits != null && logWaits > 0) || (checkpointAge != null && checkpointAge > 0.75)) {
+                suggestions.add("⚠️ 当前 redo 写入压力大，批量写入建议分批提交并避开高峰");
+            }
+        }
+        for (String signal : pressure.signals()) {
+            suggestions.add("📊 引擎压力：" + signal);
+        }
+        return suggestions;
+    }
+
+    /**
+     * 查询引擎指标时间序列和当前压力
+     */
+    @Tool(name = "get_innodb_engine_metrics", description = "查询 InnoDB 引擎指标时间序列（缓冲池命中率、页读写速率、行锁等待、历史链表长度、redo 写入压力）和当前压力信号")
+    public String getEngineMetrics(
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName,
+            @ToolParam(name = "minutes", description = "返回最近多少分钟的时间序列 (默认 30)", required = false) Integer minutes) {
+        System.out.println("[InnoDBExpertTool] 查询引擎指标 (数据源：" + datasourceName + ")");
+        try {
+            // 尚未开启定时采样时现场采样一次，至少建立基线
+            if (innoDBMetricsSampler.getPressure(datasourceName) == null) {
+                innoDBMetricsSampler.sample(datasourceName);
+            }
+            InnoDBMetricsSampler.EnginePressure pressure = innoDBMetricsSampler.getPressure(datasourceName);
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("success", true);
+            response.put("pressure", pressure);
+            response.put("series", innoDBMetricsSampler.getSeries(datasourceName, minutes != null ? minutes : 30));
+            if (pressure == null) {
+                response.put("message", "已建立基线，下一次采样后才有速率数据");
+            }
+            return objectMapper.writeValueAsString(response);
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+
     /**
      * 生成索引建议
      */
@@ -325,7 +480,8 @@ public class InnoDBExpertTool {
      * 确定置信度
      */
     private double determineConfidence(List<IndexAnalysis> indexAnalysis,
-                                        Map<String, Object> tableStats) {
+                                        Map<String, Object> tableStats,
+                                        OptimizerStatsHealthService.TableHealth statsHealth) {
         // 有足够的统计信息时置信度高
         double confidence = 0.7;
 
@@ -335,6 +491,11 @@ public class InnoDBExpertTool {
         if (tableStats.get("tableRows") != null) {
             confidence += 0.15;
         }
+        // 统计信息严重失真时，基于估算行数的判断都打折扣
+        if (statsHealth != null && statsHealth.issues().stream()
+                .anyMatch(i -> i.severity() == StatsHealthEvaluator.Severity.HIGH)) {
+            confidence -= 0.2;
+        }
 
         return Math.min(confidence, 1.0);
     }
@@ -0,0 +1,72 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.monitor.LockContentionSampler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 锁争用工具
+ * 基于 performance_schema 的锁等待采样定位热点行、表、索引和阻塞语句
+ */
+@Component
+public class LockContentionTool {
+
+    private final LockContentionSampler lockContentionSampler;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    public LockContentionTool(LockContentionSampler lockContentionSampler) {
+        this.lockContentionSampler = lockContentionSampler;
+    }
+
+    /**
+     * 立即采样一次锁等待
+     *
+     * @param datasourceName 数据源名称
+     * @return 采样结果 JSON
+     */
+    @Tool(name = "sample_lock_waits", description = "立即采样当前的 InnoDB 锁等待，返回等待关系、阻塞链源头、等待环（死锁）以及阻塞语句")
+    public String sampleLockWaits(
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName) {
+        System.out.println("[LockContentionTool] 采样锁等待 (数据源：" + datasourceName + ")");
+        try {
+            LockContentionSampler.SampleResult result = lockContentionSampler.sample(datasourceName);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "result", result
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+
+    /**
+     * 汇总最近的锁争用
+     *
+     * @param datasourceName 数据源名称
+     * @param hours 最近多少小时
+     * @param limit 每类热点返回条数
+     * @return 锁争用汇总 JSON
+     */
+    @Tool(name = "get_lock_contention_report", description = "汇总最近的锁等待采样：热点行、热点表、热点索引，以及关联到 Mapper 语句的阻塞语句")
+    public String getLockContentionReport(
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName,
+            @ToolParam(name = "hours", description = "最近多少小时 (默认 24)", required = false) Integer hours,
+            @ToolParam(name = "limit", description = "每类热点返回条数 (可选)", required = false) Integer limit) {
+        System.out.println("[LockContentionTool] 汇总锁争用 (数据源：" + datasourceName + ")");
+        try {
+            LockContentionSampler.ContentionReport report =
+                lockContentionSampler.getContentionReport(datasourceName, hours != null ? hours : 24, limit);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "report", report
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
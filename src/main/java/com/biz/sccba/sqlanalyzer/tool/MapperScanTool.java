@@ -0,0 +1,49 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.service.MapperBulkScanService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mapper 批量扫描工具
+ */
+@Component
+public class MapperScanTool {
+
+    private final MapperBulkScanService mapperBulkScanService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public MapperScanTool(MapperBulkScanService mapperBulkScanService) {
+        this.mapperBulkScanService = mapperBulkScanService;
+    }
+
+    /**
+     * 批量扫描目录和 jar 中的 Mapper
+     *
+     * @param paths 路径，逗号分隔
+     * @param force 是否全部重新解析
+     * @return 扫描报告 JSON
+     */
+    @Tool(name = "scan_mapper_directories", description = "并行扫描目录和 jar 中的全部 MyBatis Mapper XML，支持跨文件 SQL 片段，只重新解析内容变化的 Mapper")
+    public String scanMapperDirectories(
+            @ToolParam(name = "paths", description = "目录、Mapper XML 或 jar 路径，多个用逗号分隔（必须位于 mapper-scan.allowed-directories 下）", required = true) String paths,
+            @ToolParam(name = "force", description = "是否忽略内容哈希全部重新解析 (默认 false)", required = false) Boolean force) {
+        System.out.println("[MapperScanTool] 批量扫描 Mapper：" + paths);
+        try {
+            List<String> pathList = Arrays.stream(paths.split(",")).map(String::trim).filter(p -> !p.isEmpty()).toList();
+            MapperBulkScanService.ScanReport report = mapperBulkScanService.scan(pathList, Boolean.TRUE.equals(force));
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "report", report
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
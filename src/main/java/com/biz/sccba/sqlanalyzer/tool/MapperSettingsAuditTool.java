@@ -0,0 +1,61 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.service.MapperSettingsAuditService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Mapper 运行时设置审计工具
+ */
+@Component
+public class MapperSettingsAuditTool {
+
+    private final MapperSettingsAuditService mapperSettingsAuditService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public MapperSettingsAuditTool(MapperSettingsAuditService mapperSettingsAuditService) {
+        this.mapperSettingsAuditService = mapperSettingsAuditService;
+    }
+
+    /**
+     * 审计 Mapper 的运行时设置
+     *
+     * @param namespace 应用中已加载的 Mapper 命名空间（与 xmlContent、filePath 三选一）
+     * @param xmlContent Mapper XML 内容
+     * @param filePath Mapper XML 文件路径
+     * @param datasourceName 用于表统计、EXPLAIN 和语句摘要的数据源名称
+     * @return 审计结果 JSON
+     */
+    @Tool(name = "audit_mapper_settings", description = "审计 MyBatis 运行时设置：defaultExecutorType、defaultFetchSize、cacheEnabled、lazyLoadingEnabled 以及语句的 fetchSize、resultSetType、statementType、useCache/flushCache、<cache>；结合表统计和语句摘要的执行频率，标出没有 fetchSize 的大结果集查询、高频查询上的 flushCache=true、没有使用 BATCH 执行器的高频单行插入并估算影响")
+    public String auditMapperSettings(
+            @ToolParam(name = "namespace", description = "应用中已加载的 Mapper 命名空间 (与 xmlContent、filePath 三选一)", required = false) String namespace,
+            @ToolParam(name = "xmlContent", description = "Mapper XML 内容", required = false) String xmlContent,
+            @ToolParam(name = "filePath", description = "Mapper XML 文件路径", required = false) String filePath,
+            @ToolParam(name = "datasourceName", description = "数据源名称 (可选，为空时只检查设置)", required = false) String datasourceName) {
+        System.out.println("[MapperSettingsAuditTool] 审计 Mapper 设置，namespace=" + namespace + ", filePath=" + filePath + ", datasource=" + datasourceName);
+        try {
+            MapperSettingsAuditService.AuditReport report;
+            if (namespace != null && !namespace.isBlank()) {
+                report = mapperSettingsAuditService.auditNamespace(namespace, datasourceName);
+            } else if (xmlContent != null && !xmlContent.isBlank()) {
+                report = mapperSettingsAuditService.auditXml(xmlContent, datasourceName);
+            } else if (filePath != null && !filePath.isBlank()) {
+                report = mapperSettingsAuditService.auditXml(Files.readString(Path.of(filePath)), datasourceName);
+            } else {
+                throw new IllegalArgumentException("namespace、xmlContent、filePath 至少提供一个");
+            }
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "report", report
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.service.NestedSelectDetectorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * MyBatis N+1 嵌套查询检测工具
+ */
+@Component
+public class NestedSelectTool {
+
+    private final NestedSelectDetectorService nestedSelectDetectorService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public NestedSelectTool(NestedSelectDetectorService nestedSelectDetectorService) {
+        this.nestedSelectDetectorService = nestedSelectDetectorService;
+    }
+
+    /**
+     * 检测嵌套查询引起的 N+1 往返
+     *
+     * @param namespace 应用中已加载的 Mapper 命名空间（与 xmlContent、filePath 三选一）
+     * @param xmlContent Mapper XML 内容
+     * @param filePath Mapper XML 文件路径
+     * @param datasourceName 用于读取表统计和 EXPLAIN 的数据源名称
+     * @return 检测结果 JSON
+     */
+    @Tool(name = "detect_n_plus_one", description = "检测 MyBatis resultMap 中 association/collection 的 select 嵌套查询（N+1）：构建嵌套查询图，结合懒加载设置和表统计估算每条父记录的往返次数，给出改为 JOIN + 嵌套 resultMap 或两步批量加载的建议和估算节省")
+    public String detectNPlusOne(
+            @ToolParam(name = "namespace", description = "应用中已加载的 Mapper 命名空间 (与 xmlContent、filePath 三选一)", required = false) String namespace,
+            @ToolParam(name = "xmlContent", description = "Mapper XML 内容", required = false) String xmlContent,
+            @ToolParam(name = "filePath", description = "Mapper XML 文件路径", required = false) String filePath,
+            @ToolParam(name = "datasourceName", description = "数据源名称 (可选，为空时按默认行数估算)", required = false) String datasourceName) {
+        System.out.println("[NestedSelectTool] 检测 N+1，namespace=" + namespace + ", filePath=" + filePath + ", datasource=" + datasourceName);
+        try {
+            NestedSelectDetectorService.DetectionReport report;
+            if (namespace != null && !namespace.isBlank()) {
+                report = nestedSelectDetectorService.analyzeNamespace(namespace, datasourceName);
+            } else if (xmlContent != null && !xmlContent.isBlank()) {
+                report = nestedSelectDetectorService.analyzeXml(xmlContent, datasourceName);
+            } else if (filePath != null && !filePath.isBlank()) {
+                report = nestedSelectDetectorService.analyzeXml(Files.readString(Path.of(filePath)), datasourceName);
+            } else {
+                throw new IllegalArgumentException("namespace、xmlContent、filePath 至少提供一个");
+            }
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "report", report
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.monitor.OptimizerStatsHealthService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 优化器统计信息工具
+ * 找出过期或偏差过大的持久化统计信息，并给出 ANALYZE TABLE / STATS_SAMPLE_PAGES 建议
+ */
+@Component
+public class OptimizerStatsTool {
+
+    private final OptimizerStatsHealthService optimizerStatsHealthService;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    public OptimizerStatsTool(OptimizerStatsHealthService optimizerStatsHealthService) {
+        this.optimizerStatsHealthService = optimizerStatsHealthService;
+    }
+
+    /**
+     * 检查表的统计信息健康度
+     *
+     * @param datasourceName 数据源名称
+     * @param schemaName 库名
+     * @param tables 表名，逗号分隔
+     * @return 检查报告 JSON
+     */
+    @Tool(name = "check_optimizer_stats", description = "检查 InnoDB 持久化统计信息（n_rows、n_diff_pfx、last_update）是否过期或与实测值偏差过大，给出 ANALYZE TABLE 或调整 STATS_SAMPLE_PAGES 的建议")
+    public String checkOptimizerStats(
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName,
+            @ToolParam(name = "schemaName", description = "库名（默认当前库）", required = false) String schemaName,
+            @ToolParam(name = "tables", description = "表名，多个用逗号分隔（默认检查估算行数最大的表）", required = false) String tables) {
+        System.out.println("[OptimizerStatsTool] 检查统计信息 (数据源：" + datasourceName + ", 表：" + tables + ")");
+        try {
+            List<String> tableList = tables != null && !tables.isBlank()
+                ? Arrays.stream(tables.split(",")).map(String::trim).filter(t -> !t.isEmpty()).toList()
+                : List.of();
+            OptimizerStatsHealthService.HealthReport report = optimizerStatsHealthService.check(datasourceName, schemaName, tableList);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "report", report
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+
+    /**
+     * 检查语句的估算行数偏差是否来自统计信息
+     *
+     * @param datasourceName 数据源名称
+     * @param sql SQL 语句
+     * @return 检查结果 JSON
+     */
+    @Tool(name = "check_statement_stats", description = "对比语句执行计划的估算行数与实际行数，判断偏差来自过期的统计信息还是数据倾斜，并检查涉及表的统计信息")
+    public String checkStatementStats(
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName,
+            @ToolParam(name = "sql", description = "SQL 语句", required = true) String sql) {
+        System.out.println("[OptimizerStatsTool] 检查语句估算偏差 (数据源：" + datasourceName + ")");
+        try {
+            OptimizerStatsHealthService.StatementHealth result = optimizerStatsHealthService.checkStatement(datasourceName, sql);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "result", result
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
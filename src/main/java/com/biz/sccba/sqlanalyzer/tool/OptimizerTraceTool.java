@@ -0,0 +1,113 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.model.OptimizerTrace;
+import com.biz.sccba.sqlanalyzer.service.TestEnvironmentService;
+import com.biz.sccba.sqlanalyzer.util.OptimizerTraceParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * 优化器跟踪工具
+ *
+ * 在独立会话中开启 optimizer_trace 后对语句执行 EXPLAIN（不会真正执行语句），
+ * 读取 information_schema.OPTIMIZER_TRACE 并解析出范围分析成本、候选访问路径和连接顺序搜索，
+ * 用于回答"优化器为什么没有选这个索引"
+ */
+@Component
+public class OptimizerTraceTool {
+
+    /**
+     * 跟踪内存上限（16MB），默认 1MB 对多表连接经常不够
+     */
+    private static final long TRACE_MAX_MEM_SIZE = 16L * 1024 * 1024;
+
+    private final TestEnvironmentService testEnvironmentService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public OptimizerTraceTool(TestEnvironmentService testEnvironmentService) {
+        this.testEnvironmentService = testEnvironmentService;
+    }
+
+    /**
+     * 获取并解析优化器跟踪
+     *
+     * @param sql            SQL 语句
+     * @param datasourceName 数据源名称
+     * @return 跟踪解析结果 JSON
+     */
+    @Tool(name = "get_optimizer_trace", description = "获取优化器跟踪，解析候选索引的成本比较，说明索引被放弃的原因")
+    public String getOptimizerTrace(
+            @ToolParam(name = "sql", description = "SQL 语句", required = true) String sql,
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName) {
+        System.out.println("[OptimizerTraceTool] 获取优化器跟踪 (数据源：" + datasourceName + ")");
+        try {
+            OptimizerTrace trace = captureTrace(sql, datasourceName);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "summary", trace.getSummary(),
+                "trace", trace
+            ));
+        } catch (Exception e) {
+            System.err.println("[OptimizerTraceTool] 获取优化器跟踪失败：" + e.getMessage());
+            try {
+                return objectMapper.writeValueAsString(Map.of(
+                    "success", false,
+                    "error", "获取优化器跟踪失败：" + e.getMessage()
+                ));
+            } catch (Exception ex) {
+                return "{\"error\": \"获取优化器跟踪失败\"}";
+            }
+        }
+    }
+
+    /**
+     * 在同一连接上开启跟踪、EXPLAIN 语句、读取跟踪，最后关闭跟踪并恢复原来的跟踪内存上限再归还连接
+     */
+    public OptimizerTrace captureTrace(String sql, String datasourceName) {
+        JdbcTemplate jdbcTemplate = testEnvironmentService.getJdbcTemplate(datasourceName);
+        return jdbcTemplate.execute((ConnectionCallback<OptimizerTrace>) conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                Long previousMaxMemSize = null;
+                try (ResultSet rs = stmt.executeQuery("SELECT @@SESSION.optimizer_trace_max_mem_size")) {
+                    if (rs.next()) {
+                        previousMaxMemSize = rs.getLong(1);
+                    }
+                }
+                stmt.execute("SET SESSION optimizer_trace = 'enabled=on,one_line=on'");
+                try {
+                    stmt.execute("SET SESSION optimizer_trace_max_mem_size = " + TRACE_MAX_MEM_SIZE);
+                    stmt.execute("EXPLAIN " + sql);
+                    try (ResultSet rs = stmt.executeQuery(
+                            "SELECT TRACE, MISSING_BYTES_BEYOND_MAX_MEM_SIZE FROM information_schema.OPTIMIZER_TRACE")) {
+                        if (!rs.next()) {
+                            throw new SQLException("OPTIMIZER_TRACE 中没有跟踪记录");
+                        }
+                        long missingBytes = rs.getLong(2);
+                        try (Reader reader = rs.getCharacterStream(1)) {
+                            return OptimizerTraceParser.parse(reader, missingBytes);
+                        } catch (IOException e) {
+                            throw new SQLException("解析优化器跟踪失败：" + e.getMessage(), e);
+                        }
+                    }
+                } finally {
+                    // 连接会归还到连接池，必须关闭跟踪并恢复会话变量
+                    stmt.execute("SET SESSION optimizer_trace = 'enabled=off'");
+                    if (previousMaxMemSize != null) {
+                        stmt.execute("SET SESSION optimizer_trace_max_mem_size = " + previousMaxMemSize);
+                    }
+                }
+            }
+        });
+    }
+}
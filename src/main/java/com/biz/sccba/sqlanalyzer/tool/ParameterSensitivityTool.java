@@ -0,0 +1,48 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.service.ParameterSensitivityService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 参数敏感执行计划检测工具
+ * 按列取值分布生成多组参数并对比执行计划
+ */
+@Component
+public class ParameterSensitivityTool {
+
+    private final ParameterSensitivityService parameterSensitivityService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ParameterSensitivityTool(ParameterSensitivityService parameterSensitivityService) {
+        this.parameterSensitivityService = parameterSensitivityService;
+    }
+
+    /**
+     * 检测执行计划是否随参数值变化
+     *
+     * @param sql 带 ? 占位符的 SQL
+     * @param datasourceName 数据源名称
+     * @return 检测报告 JSON
+     */
+    @Tool(name = "detect_parameter_sensitive_plan", description = "按列取值分布（高频值、低频值、最小/最大值、分位点、NULL）生成多组参数并行 EXPLAIN，检测执行计划是否随参数值变化以及触发每种计划的取值范围")
+    public String detectParameterSensitivePlan(
+            @ToolParam(name = "sql", description = "带 ? 占位符的 SQL 语句", required = true) String sql,
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName) {
+        System.out.println("[ParameterSensitivityTool] 检测参数敏感计划 (数据源：" + datasourceName + ")");
+        try {
+            ParameterSensitivityService.SensitivityReport report =
+                parameterSensitivityService.analyze(datasourceName, sql, null);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "report", report
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.model.PlanRegression;
+import com.biz.sccba.sqlanalyzer.service.PlanRegressionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 执行计划回退检测工具
+ * 拍摄计划快照、对比历史与跨环境执行计划
+ */
+@Component
+public class PlanRegressionTool {
+
+    private final PlanRegressionService planRegressionService;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    public PlanRegressionTool(PlanRegressionService planRegressionService) {
+        this.planRegressionService = planRegressionService;
+    }
+
+    /**
+     * 立即为所有已解析查询拍摄计划快照，并可选地与另一个环境对比
+     *
+     * @param datasourceName 数据源名称
+     * @param compareDatasourceName 对比数据源（可选，如 mysql-secondary 或 GoldenDB 测试环境）
+     * @return 检测到的回退 JSON
+     */
+    @Tool(name = "detect_plan_regression", description = "为已解析的查询拍摄执行计划快照，检测与上次快照或其他环境相比的计划回退")
+    public String detectPlanRegression(
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName,
+            @ToolParam(name = "compareDatasourceName", description = "对比的数据源或测试环境名称 (可选)", required = false) String compareDatasourceName) {
+        System.out.println("[PlanRegressionTool] 检测计划回退 (数据源：" + datasourceName + ", 对比：" + compareDatasourceName + ")");
+        try {
+            List<PlanRegression> regressions = new ArrayList<>(
+                planRegressionService.snapshotAll(datasourceName, PlanRegressionService.TRIGGER_MANUAL));
+            if (compareDatasourceName != null && !compareDatasourceName.isBlank()) {
+                regressions.addAll(planRegressionService.compareEnvironments(datasourceName, compareDatasourceName, null));
+            }
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "count", regressions.size(),
+                "regressions", regressions
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+
+    /**
+     * 查询最近的计划回退记录
+     *
+     * @param hours 最近多少小时（默认 24）
+     * @param severity 严重程度过滤（HIGH/MEDIUM/LOW，可选）
+     * @return 回退记录 JSON
+     */
+    @Tool(name = "get_plan_regressions", description = "查询最近检测到的执行计划回退记录")
+    public String getPlanRegressions(
+            @ToolParam(name = "hours", description = "最近多少小时 (默认 24)", required = false) Integer hours,
+            @ToolParam(name = "severity", description = "严重程度：HIGH/MEDIUM/LOW (可选)", required = false) String severity) {
+        System.out.println("[PlanRegressionTool] 查询计划回退记录 (hours=" + hours + ", severity=" + severity + ")");
+        try {
+            List<PlanRegression> regressions =
+                planRegressionService.getRecentRegressions(hours != null ? hours : 24, severity);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "count", regressions.size(),
+                "regressions", regressions
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.model.SlowQueryFingerprint;
+import com.biz.sccba.sqlanalyzer.monitor.SlowLogIngestionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 慢查询日志工具
+ * 解析 MySQL 慢查询日志，把最耗时的语句指纹放入待分析队列
+ */
+@Component
+public class SlowLogTool {
+
+    private final SlowLogIngestionService slowLogIngestionService;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    public SlowLogTool(SlowLogIngestionService slowLogIngestionService) {
+        this.slowLogIngestionService = slowLogIngestionService;
+    }
+
+    /**
+     * 解析慢查询日志
+     *
+     * @param paths 慢日志文件或目录，逗号分隔
+     * @param sourceName 日志来源
+     * @param topN 写入队列的指纹数
+     * @return 导入结果 JSON
+     */
+    @Tool(name = "ingest_slow_log", description = "并行解析 MySQL 慢查询日志（支持 GB 级文件），按语句指纹统计次数、Query_time/Lock_time 分位数和扫描行数，并把总耗时最高的指纹放入待分析队列")
+    public String ingestSlowLog(
+            @ToolParam(name = "paths", description = "慢日志文件或目录，多个用逗号分隔（必须位于允许的目录下）", required = true) String paths,
+            @ToolParam(name = "sourceName", description = "日志来源，如实例名", required = true) String sourceName,
+            @ToolParam(name = "topN", description = "写入队列的指纹数 (可选)", required = false) Integer topN) {
+        System.out.println("[SlowLogTool] 解析慢查询日志 (来源：" + sourceName + ", 路径：" + paths + ")");
+        try {
+            List<String> pathList = Arrays.stream(paths.split(",")).map(String::trim).filter(p -> !p.isEmpty()).toList();
+            SlowLogIngestionService.IngestionReport report = slowLogIngestionService.ingest(pathList, sourceName, topN);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "report", report
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+
+    /**
+     * 查询慢查询待分析队列
+     *
+     * @param status 状态
+     * @param limit 返回条数
+     * @return 队列 JSON
+     */
+    @Tool(name = "get_slow_query_queue", description = "按累计耗时列出慢查询待分析队列中的语句指纹")
+    public String getSlowQueryQueue(
+            @ToolParam(name = "status", description = "状态：PENDING/ANALYZED/IGNORED (默认 PENDING)", required = false) String status,
+            @ToolParam(name = "limit", description = "返回条数 (默认 20)", required = false) Integer limit) {
+        System.out.println("[SlowLogTool] 查询慢查询队列 (status=" + status + ")");
+        try {
+            SlowQueryFingerprint.Status queueStatus = status != null && !status.isBlank()
+                ? SlowQueryFingerprint.Status.valueOf(status.trim().toUpperCase()) : null;
+            List<SlowQueryFingerprint> queue = slowLogIngestionService.getQueue(queueStatus, limit != null ? limit : 20);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "count", queue.size(),
+                "fingerprints", queue
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+
+    /**
+     * 更新队列中指纹的状态
+     *
+     * @param id 指纹 ID
+     * @param status 新状态
+     * @return 更新结果 JSON
+     */
+    @Tool(name = "update_slow_query_status", description = "把慢查询队列中的指纹标记为 ANALYZED（已分析）、IGNORED（忽略）或重新置为 PENDING")
+    public String updateSlowQueryStatus(
+            @ToolParam(name = "id", description = "指纹 ID", required = true) Long id,
+            @ToolParam(name = "status", description = "状态：PENDING/ANALYZED/IGNORED", required = true) String status) {
+        System.out.println("[SlowLogTool] 更新慢查询状态 (id=" + id + ", status=" + status + ")");
+        try {
+            SlowQueryFingerprint fingerprint = slowLogIngestionService.updateStatus(id,
+                SlowQueryFingerprint.Status.valueOf(status.trim().toUpperCase()));
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "fingerprint", fingerprint
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
@@ -73,6 +73,57 @@ public class SqlAnalyzerTools {
     @Autowired(required = false)
     private IndexUsageAnalyzer indexUsageAnalyzer;
 
+    @Autowired(required = false)
+    private PlanRegressionTool planRegressionTool;
+
+    @Autowired(required = false)
+    private OptimizerTraceTool optimizerTraceTool;
+
+    @Autowired(required = false)
+    private ParameterSensitivityTool parameterSensitivityTool;
+
+    @Autowired(required = false)
+    private BenchmarkTool benchmarkTool;
+
+    @Autowired(required = false)
+    private WorkloadReplayTool workloadReplayTool;
+
+    @Autowired(required = false)
+    private StatementDigestTool statementDigestTool;
+
+    @Autowired(required = false)
+    private SlowLogTool slowLogTool;
+
+    @Autowired(required = false)
+    private LockContentionTool lockContentionTool;
+
+    @Autowired(required = false)
+    private BufferPoolResidencyTool bufferPoolResidencyTool;
+
+    @Autowired(required = false)
+    private OptimizerStatsTool optimizerStatsTool;
+
+    @Autowired(required = false)
+    private MapperScanTool mapperScanTool;
+
+    @Autowired(required = false)
+    private DynamicSqlScenarioTool dynamicSqlScenarioTool;
+
+    @Autowired(required = false)
+    private StatementTableTool statementTableTool;
+
+    @Autowired(required = false)
+    private DmlAnalysisTool dmlAnalysisTool;
+
+    @Autowired(required = false)
+    private NestedSelectTool nestedSelectTool;
+
+    @Autowired(required = false)
+    private ForeachScalingTool foreachScalingTool;
+
+    @Autowired(required = false)
+    private MapperSettingsAuditTool mapperSettingsAuditTool;
+
     @Autowired(required = false)
     private SessionMemoryService sessionMemoryService;
 
@@ -123,10 +174,38 @@ public class SqlAnalyzerTools {
             "drop_index",
             "alter_table",
             "innodb_expert_analyze",
+            "get_innodb_engine_metrics",
             "distributed_db_expert_analyze",
             "sql_optimizer_analyze",
             "analyze_sql_complexity",
-            "analyze_index_usage"
+            "analyze_index_usage",
+            "get_index_usage",
+            "detect_plan_regression",
+            "get_plan_regressions",
+            "get_optimizer_trace",
+            "detect_parameter_sensitive_plan",
+            "run_benchmark",
+            "get_benchmark_results",
+            "replay_workload",
+            "collect_statement_digests",
+            "get_top_statements",
+            "ingest_slow_log",
+            "get_slow_query_queue",
+            "update_slow_query_status",
+            "sample_lock_waits",
+            "get_lock_contention_report",
+            "get_index_buffer_residency",
+            "check_statement_residency",
+            "check_optimizer_stats",
+            "check_statement_stats",
+            "scan_mapper_directories",
+            "enumerate_dynamic_sql_scenarios",
+            "find_statements_by_table",
+            "analyze_dml_write_amplification",
+            "estimate_index_write_cost",
+            "detect_n_plus_one",
+            "analyze_foreach_scaling",
+            "audit_mapper_settings"
         );
     }
 
@@ -185,7 +264,8 @@ public class SqlAnalyzerTools {
                 case "get_execution_plan" -> {
                     String sql = (String) parameters.get("sql");
                     String datasource = (String) parameters.get("datasourceName");
-                    yield executionPlanTool.getExecutionPlan(sql, datasource);
+                    Boolean analyze = (Boolean) parameters.get("analyze");
+                    yield executionPlanTool.getExecutionPlan(sql, datasource, analyze);
                 }
                 case "fill_test_conditions" -> {
                     String sql = (String) parameters.get("sql");
@@ -218,9 +298,10 @@ public class SqlAnalyzerTools {
                     String columns = (String) parameters.get("columns");
                     Boolean unique = (Boolean) parameters.get("unique");
                     String reqSessionId = (String) parameters.get("sessionId");
+                    String verifyDatasource = (String) parameters.get("verifyDatasource");
                     yield createIndexTool.createIndex(
                         datasource, schema, tableName, indexName, columns,
-                        unique != null && unique, reqSessionId
+                        unique != null && unique, reqSessionId, verifyDatasource
                     );
                 }
                 case "drop_index" -> {
@@ -245,6 +326,11 @@ public class SqlAnalyzerTools {
                     List<String> tables = (List<String>) parameters.get("tables");
                     yield innoDBExpertTool.execute(datasource, sql, tables);
                 }
+                case "get_innodb_engine_metrics" -> {
+                    String datasource = (String) parameters.get("datasourceName");
+                    Integer minutes = (Integer) parameters.get("minutes");
+                    yield innoDBExpertTool.getEngineMetrics(datasource, minutes);
+                }
                 case "distributed_db_expert_analyze" -> {
                     String datasource = (String) parameters.get("datasourceName");
                     String sql = (String) parameters.get("sql");
@@ -268,6 +354,175 @@ public class SqlAnalyzerTools {
                     String tableName = (String) parameters.get("tableName");
                     yield indexUsageAnalyzer.analyzeIndexUsage(sql, datasource, tableName);
                 }
+                case "get_index_usage" -> {
+                    String datasource = (String) parameters.get("datasourceName");
+                    String schemaName = (String) parameters.get("schemaName");
+                    String tableName = (String) parameters.get("tableName");
+                    Boolean refresh = (Boolean) parameters.get("refresh");
+                    yield indexUsageAnalyzer.getIndexUsage(datasource, schemaName, tableName, refresh);
+                }
+                case "detect_plan_regression" -> {
+                    String datasource = (String) parameters.get("datasourceName");
+                    String compareDatasource = (String) parameters.get("compareDatasourceName");
+                    yield planRegressionTool.detectPlanRegression(datasource, compareDatasource);
+                }
+                case "get_plan_regressions" -> {
+                    Integer hours = (Integer) parameters.get("hours");
+                    String severity = (String) parameters.get("severity");
+                    yield planRegressionTool.getPlanRegressions(hours, severity);
+                }
+                case "get_optimizer_trace" -> {
+                    String sql = (String) parameters.get("sql");
+                    String datasource = (String) parameters.get("datasourceName");
+                    yield optimizerTraceTool.getOptimizerTrace(sql, datasource);
+                }
+                case "detect_parameter_sensitive_plan" -> {
+                    String sql = (String) parameters.get("sql");
+                    String datasource = (String) parameters.get("datasourceName");
+                    yield parameterSensitivityTool.detectParameterSensitivePlan(sql, datasource);
+                }
+                case "run_benchmark" -> {
+                    String sql = (String) parameters.get("sql");
+                    Object queryIdValue = parameters.get("queryId");
+                    Long queryId = queryIdValue != null ? ((Number) queryIdValue).longValue() : null;
+                    String datasource = (String) parameters.get("datasourceName");
+                    Integer iterations = (Integer) parameters.get("iterations");
+                    Integer concurrency = (Integer) parameters.get("concurrency");
+                    Integer warmupIterations = (Integer) parameters.get("warmupIterations");
+                    Integer parameterSets = (Integer) parameters.get("parameterSets");
+                    yield benchmarkTool.runBenchmark(sql, queryId, datasource, iterations, concurrency, warmupIterations, parameterSets);
+                }
+                case "get_benchmark_results" -> {
+                    String sql = (String) parameters.get("sql");
+                    yield benchmarkTool.getBenchmarkResults(sql);
+                }
+                case "replay_workload" -> {
+                    String namespace = (String) parameters.get("namespace");
+                    String datasource = (String) parameters.get("datasourceName");
+                    Integer startQps = (Integer) parameters.get("startQps");
+                    Integer stepQps = (Integer) parameters.get("stepQps");
+                    Integer maxSteps = (Integer) parameters.get("maxSteps");
+                    Integer stepDurationSeconds = (Integer) parameters.get("stepDurationSeconds");
+                    String weights = (String) parameters.get("weights");
+                    Boolean includeWrites = (Boolean) parameters.get("includeWrites");
+                    yield workloadReplayTool.replayWorkload(namespace, datasource, startQps, stepQps, maxSteps, stepDurationSeconds, weights, includeWrites);
+                }
+                case "collect_statement_digests" -> {
+                    String datasource = (String) parameters.get("datasourceName");
+                    yield statementDigestTool.collectStatementDigests(datasource);
+                }
+                case "get_top_statements" -> {
+                    String datasource = (String) parameters.get("datasourceName");
+                    Integer hours = (Integer) parameters.get("hours");
+                    String orderBy = (String) parameters.get("orderBy");
+                    Integer limit = (Integer) parameters.get("limit");
+                    yield statementDigestTool.getTopStatements(datasource, hours, orderBy, limit);
+                }
+                case "ingest_slow_log" -> {
+                    String paths = (String) parameters.get("paths");
+                    String sourceName = (String) parameters.get("sourceName");
+                    Integer topN = (Integer) parameters.get("topN");
+                    yield slowLogTool.ingestSlowLog(paths, sourceName, topN);
+                }
+                case "get_slow_query_queue" -> {
+                    String status = (String) parameters.get("status");
+                    Integer limit = (Integer) parameters.get("limit");
+                    yield slowLogTool.getSlowQueryQueue(status, limit);
+                }
+                case "update_slow_query_status" -> {
+                    Object idValue = parameters.get("id");
+                    Long id = idValue != null ? ((Number) idValue).longValue() : null;
+                    String status = (String) parameters.get("status");
+                    yield slowLogTool.updateSlowQueryStatus(id, status);
+                }
+                case "sample_lock_waits" -> {
+                    String datasource = (String) parameters.get("datasourceName");
+                    yield lockContentionTool.sampleLockWaits(datasource);
+                }
+                case "get_lock_contention_report" -> {
+                    String datasource = (String) parameters.get("datasourceName");
+                    Integer hours = (Integer) parameters.get("hours");
+                    Integer limit = (Integer) parameters.get("limit");
+                    yield lockContentionTool.getLockContentionReport(datasource, hours, limit);
+                }
+                case "get_index_buffer_residency" -> {
+                    String datasource = (String) parameters.get("datasourceName");
+                    String schemaName = (String) parameters.get("schemaName");
+                    String tables = (String) parameters.get("tables");
+                    Boolean refresh = (Boolean) parameters.get("refresh");
+                    yield bufferPoolResidencyTool.getIndexBufferResidency(datasource, schemaName, tables, refresh);
+                }
+                case "check_statement_residency" -> {
+                    String datasource = (String) parameters.get("datasourceName");
+                    String sql = (String) parameters.get("sql");
+                    yield bufferPoolResidencyTool.checkStatementResidency(datasource, sql);
+                }
+                case "check_optimizer_stats" -> {
+                    String datasource = (String) parameters.get("datasourceName");
+                    String schemaName = (String) parameters.get("schemaName");
+                    String tables = (String) parameters.get("tables");
+                    yield optimizerStatsTool.checkOptimizerStats(datasource, schemaName, tables);
+                }
+                case "check_statement_stats" -> {
+                    String datasource = (String) parameters.get("datasourceName");
+                    String sql = (String) parameters.get("sql");
+                    yield optimizerStatsTool.checkStatementStats(datasource, sql);
+                }
+                case "scan_mapper_directories" -> {
+                    String paths = (String) parameters.get("paths");
+                    Boolean force = (Boolean) parameters.get("force");
+                    yield mapperScanTool.scanMapperDirectories(paths, force);
+                }
+                case "enumerate_dynamic_sql_scenarios" -> {
+                    String xmlContent = (String) parameters.get("xmlContent");
+                    String filePath = (String) parameters.get("filePath");
+                    String statementId = (String) parameters.get("statementId");
+                    String datasource = (String) parameters.get("datasourceName");
+                    yield dynamicSqlScenarioTool.enumerateScenarios(xmlContent, filePath, statementId, datasource);
+                }
+                case "find_statements_by_table" -> {
+                    String tableName = (String) parameters.get("tableName");
+                    String columnName = (String) parameters.get("columnName");
+                    String role = (String) parameters.get("role");
+                    yield statementTableTool.findStatementsByTable(tableName, columnName, role);
+                }
+                case "analyze_dml_write_amplification" -> {
+                    String datasource = (String) parameters.get("datasourceName");
+                    String sql = (String) parameters.get("sql");
+                    Object queryIdValue = parameters.get("queryId");
+                    Long queryId = queryIdValue != null ? ((Number) queryIdValue).longValue() : null;
+                    String namespace = (String) parameters.get("namespace");
+                    yield dmlAnalysisTool.analyzeDml(datasource, sql, queryId, namespace);
+                }
+                case "estimate_index_write_cost" -> {
+                    String datasource = (String) parameters.get("datasourceName");
+                    String tableName = (String) parameters.get("tableName");
+                    List<String> columns = (List<String>) parameters.get("columns");
+                    yield dmlAnalysisTool.estimateIndexWriteCost(datasource, tableName, columns);
+                }
+                case "detect_n_plus_one" -> {
+                    String namespace = (String) parameters.get("namespace");
+                    String xmlContent = (String) parameters.get("xmlContent");
+                    String filePath = (String) parameters.get("filePath");
+                    String datasource = (String) parameters.get("datasourceName");
+                    yield nestedSelectTool.detectNPlusOne(namespace, xmlContent, filePath, datasource);
+                }
+                case "analyze_foreach_scaling" -> {
+                    String xmlContent = (String) parameters.get("xmlContent");
+                    String filePath = (String) parameters.get("filePath");
+                    String statementId = (String) parameters.get("statementId");
+                    String datasource = (String) parameters.get("datasourceName");
+                    List<Integer> sizes = (List<Integer>) parameters.get("sizes");
+                    Boolean benchmark = (Boolean) parameters.get("benchmark");
+                    yield foreachScalingTool.analyzeForeachScaling(xmlContent, filePath, statementId, datasource, sizes, benchmark);
+                }
+                case "audit_mapper_settings" -> {
+                    String namespace = (String) parameters.get("namespace");
+                    String xmlContent = (String) parameters.get("xmlContent");
+                    String filePath = (String) parameters.get("filePath");
+                    String datasource = (String) parameters.get("datasourceName");
+                    yield mapperSettingsAuditTool.auditMapperSettings(namespace, xmlContent, filePath, datasource);
+                }
                 default -> throw new IllegalArgumentException("未知的工具：" + toolName);
             };
 
@@ -343,14 +598,42 @@ public class SqlAnalyzerTools {
         descriptions.put("get_business_semantics", "获取表的业务语义");
         descriptions.put("enrich_business_semantics", "补充表的业务语义");
         descriptions.put("query_knowledge", "查询技术知识库");
-        descriptions.put("create_index", "创建数据库索引（需要用户确认）");
+        descriptions.put("create_index", "创建数据库索引（需要用户确认，可先在测试环境上做前后对比验证）");
         descriptions.put("drop_index", "删除数据库索引（需要用户确认）");
         descriptions.put("alter_table", "修改表结构（需要用户确认）");
         descriptions.put("innodb_expert_analyze", "InnoDB 存储引擎专家分析表结构、索引和锁");
+        descriptions.put("get_innodb_engine_metrics", "查询 InnoDB 引擎指标时间序列和当前压力信号");
         descriptions.put("distributed_db_expert_analyze", "分布式数据库专家分析分片分布和跨分片查询");
         descriptions.put("sql_optimizer_analyze", "SQL 优化专家分析查询语句，提供查询重写和索引覆盖建议");
         descriptions.put("analyze_sql_complexity", "分析 SQL 查询的复杂度，提供复杂度评分和优化建议");
         descriptions.put("analyze_index_usage", "分析 SQL 查询中的索引使用情况，识别索引缺失和使用不当的问题");
+        descriptions.put("get_index_usage", "基于实际读写计数列出真正未使用的索引和热点索引");
+        descriptions.put("detect_plan_regression", "拍摄执行计划快照，检测与上次快照或其他环境相比的计划回退");
+        descriptions.put("get_plan_regressions", "查询最近检测到的执行计划回退记录");
+        descriptions.put("get_optimizer_trace", "获取优化器跟踪，说明候选索引因成本被放弃的原因");
+        descriptions.put("detect_parameter_sensitive_plan", "按列取值分布生成多组参数，检测执行计划是否随参数值变化");
+        descriptions.put("run_benchmark", "真实执行语句，统计延迟分位数、扫描行数和错误率");
+        descriptions.put("get_benchmark_results", "查询语句的历史基准测试结果");
+        descriptions.put("replay_workload", "按权重混合回放命名空间下的语句，逐级加压寻找吞吐/延迟拐点");
+        descriptions.put("collect_statement_digests", "立即采集 performance_schema 语句摘要增量");
+        descriptions.put("get_top_statements", "列出实际负载中最耗资源的语句并关联 Mapper 语句");
+        descriptions.put("ingest_slow_log", "解析 MySQL 慢查询日志并把最耗时的语句指纹放入待分析队列");
+        descriptions.put("get_slow_query_queue", "查询慢查询待分析队列");
+        descriptions.put("update_slow_query_status", "更新慢查询待分析队列中指纹的状态");
+        descriptions.put("sample_lock_waits", "采样当前的 InnoDB 锁等待并构建等待图");
+        descriptions.put("get_lock_contention_report", "汇总热点行、表、索引和阻塞语句");
+        descriptions.put("get_index_buffer_residency", "查询索引在缓冲池中的驻留比例");
+        descriptions.put("check_statement_residency", "检查语句所选索引是否大部分不在内存中");
+        descriptions.put("check_optimizer_stats", "检查统计信息是否过期或偏差过大");
+        descriptions.put("check_statement_stats", "判断语句估算偏差是否来自统计信息");
+        descriptions.put("scan_mapper_directories", "并行增量扫描目录和 jar 中的 Mapper");
+        descriptions.put("enumerate_dynamic_sql_scenarios", "枚举动态 SQL 分支组合，按指纹去重后并行 EXPLAIN，报告每个语句的最坏分支组合");
+        descriptions.put("find_statements_by_table", "按表名精确查找语句，可按列和使用方式（FILTER/JOIN/ORDER/GROUP）筛选，并返回各列的使用统计");
+        descriptions.put("analyze_dml_write_amplification", "分析写语句的写放大：扫描/修改行数、每行维护的索引记录数、更新索引列和 WHERE 无索引等问题");
+        descriptions.put("estimate_index_write_cost", "估算新增索引给同表写语句带来的额外索引写入，与读语句收益对比");
+        descriptions.put("detect_n_plus_one", "检测 resultMap 嵌套查询引起的 N+1 往返，估算改为 JOIN 或批量加载的节省");
+        descriptions.put("analyze_foreach_scaling", "按多个 foreach 集合大小 EXPLAIN/基准测试，找出 IN 列表退化的规模并推荐分批大小");
+        descriptions.put("audit_mapper_settings", "审计 fetchSize、flushCache、<cache>、执行器类型等 MyBatis 运行时设置并估算影响");
         return descriptions;
     }
 
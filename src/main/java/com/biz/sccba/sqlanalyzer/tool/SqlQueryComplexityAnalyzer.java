@@ -1,5 +1,6 @@
 package com.biz.sccba.sqlanalyzer.tool;
 
+import com.biz.sccba.sqlanalyzer.monitor.LockContentionSampler;
 import com.biz.sccba.sqlanalyzer.service.TestEnvironmentService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.agentscope.core.tool.Tool;
@@ -17,11 +18,19 @@ import java.util.regex.Pattern;
 @Component
 public class SqlQueryComplexityAnalyzer {
 
+    /**
+     * 查找实际锁等待记录的时间窗口（小时）
+     */
+    private static final int OBSERVED_LOCK_WINDOW_HOURS = 24;
+
     private final TestEnvironmentService testEnvironmentService;
+    private final LockContentionSampler lockContentionSampler;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public SqlQueryComplexityAnalyzer(TestEnvironmentService testEnvironmentService) {
+    public SqlQueryComplexityAnalyzer(TestEnvironmentService testEnvironmentService,
+                                      LockContentionSampler lockContentionSampler) {
         this.testEnvironmentService = testEnvironmentService;
+        this.lockContentionSampler = lockContentionSampler;
     }
 
     /**
@@ -47,7 +56,7 @@ public class SqlQueryComplexityAnalyzer {
 
         String normalizedSql = normalizeSql(sql);
         ComplexityMetrics metrics = calculateComplexityMetrics(normalizedSql);
-        DeepAnalysis deepAnalysis = performDeepAnalysis(normalizedSql, datasourceName);
+        DeepAnalysis deepAnalysis = performDeepAnalysis(sql, normalizedSql, datasourceName);
         double overallScore = calculateOverallScore(metrics);
         List<String> recommendations = generateRecommendations(metrics, deepAnalysis);
         String priority = determinePriority(overallScore);
@@ -392,11 +401,11 @@ public class SqlQueryComplexityAnalyzer {
     /**
      * 执行深度分析
      */
-    private DeepAnalysis performDeepAnalysis(String sql, String datasourceName) {
+    private DeepAnalysis performDeepAnalysis(String originalSql, String sql, String datasourceName) {
         return new DeepAnalysis(
             detectFullScanRisk(sql),
             analyzeIndexUsagePotential(sql),
-            analyzeLockContention(sql),
+            analyzeLockContention(originalSql, sql, datasourceName),
             analyzeTempTableUsage(sql),
             analyzeFileSortRisk(sql)
         );
@@ -419,7 +428,20 @@ public class SqlQueryComplexityAnalyzer {
         return "MEDIUM";
     }
 
-    private String analyzeLockContention(String sql) {
+    /**
+     * 锁争用风险：优先使用锁等待采样中实际观察到的结果，没有观察记录时按语句文本估计
+     */
+    private String analyzeLockContention(String originalSql, String sql, String datasourceName) {
+        if (datasourceName != null && !datasourceName.isBlank()) {
+            try {
+                String observed = lockContentionSampler.observedLockRisk(datasourceName, originalSql, OBSERVED_LOCK_WINDOW_HOURS);
+                if (observed != null) {
+                    return observed;
+                }
+            } catch (Exception e) {
+                System.err.println("[SqlQueryComplexityAnalyzer] 查询锁等待记录失败：" + e.getMessage());
+            }
+        }
         String upperSql = sql.toUpperCase();
         if (upperSql.contains("FOR UPDATE") || upperSql.contains("LOCK")) {
             return "HIGH";
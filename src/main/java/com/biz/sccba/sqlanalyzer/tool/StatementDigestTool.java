@@ -0,0 +1,79 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.monitor.StatementDigestCollector;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 语句摘要工具
+ * 基于 performance_schema 的区间增量找出实际负载中最耗资源的语句
+ */
+@Component
+public class StatementDigestTool {
+
+    private final StatementDigestCollector statementDigestCollector;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public StatementDigestTool(StatementDigestCollector statementDigestCollector) {
+        this.statementDigestCollector = statementDigestCollector;
+    }
+
+    /**
+     * 立即采集一次语句摘要
+     *
+     * @param datasourceName 数据源名称
+     * @return 采集结果 JSON
+     */
+    @Tool(name = "collect_statement_digests", description = "立即采集 performance_schema 语句摘要并保存与上一次采集的增量（首次采集只建立基线）")
+    public String collectStatementDigests(
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName) {
+        System.out.println("[StatementDigestTool] 采集语句摘要 (数据源：" + datasourceName + ")");
+        try {
+            int count = statementDigestCollector.collect(datasourceName);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "intervalStats", count,
+                "baselineOnly", count == 0
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+
+    /**
+     * 查询最近的问题语句
+     *
+     * @param datasourceName 数据源名称
+     * @param hours 最近多少小时
+     * @param orderBy 排序方式
+     * @param limit 返回条数
+     * @return 问题语句 JSON
+     */
+    @Tool(name = "get_top_statements", description = "按总耗时、执行次数、扫描行数、磁盘临时表或未使用索引次数列出实际负载中的问题语句，并关联到 Mapper 语句")
+    public String getTopStatements(
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName,
+            @ToolParam(name = "hours", description = "最近多少小时 (默认 24)", required = false) Integer hours,
+            @ToolParam(name = "orderBy", description = "排序：TOTAL_LATENCY/EXEC_COUNT/ROWS_EXAMINED/TMP_DISK_TABLES/NO_INDEX_USED (默认 TOTAL_LATENCY)", required = false) String orderBy,
+            @ToolParam(name = "limit", description = "返回条数 (可选)", required = false) Integer limit) {
+        System.out.println("[StatementDigestTool] 查询问题语句 (数据源：" + datasourceName + ", orderBy=" + orderBy + ")");
+        try {
+            StatementDigestCollector.OrderBy order = orderBy != null && !orderBy.isBlank()
+                ? StatementDigestCollector.OrderBy.valueOf(orderBy.trim().toUpperCase())
+                : StatementDigestCollector.OrderBy.TOTAL_LATENCY;
+            List<StatementDigestCollector.TopStatement> statements =
+                statementDigestCollector.getTopStatements(datasourceName, hours != null ? hours : 24, order, limit);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "count", statements.size(),
+                "statements", statements
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
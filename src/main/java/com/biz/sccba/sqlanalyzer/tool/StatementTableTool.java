@@ -0,0 +1,62 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.model.ParsedSqlQuery;
+import com.biz.sccba.sqlanalyzer.service.StatementTableIndex;
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor.Role;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 语句-表倒排索引查询工具
+ */
+@Component
+public class StatementTableTool {
+
+    private final StatementTableIndex statementTableIndex;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public StatementTableTool(StatementTableIndex statementTableIndex) {
+        this.statementTableIndex = statementTableIndex;
+    }
+
+    /**
+     * 按表、列、使用方式查找语句
+     *
+     * @param tableName 表名
+     * @param columnName 列名（可选）
+     * @param role 使用方式（可选）：FILTER / JOIN / ORDER / GROUP
+     * @return 匹配的语句及该表各列的使用统计 JSON
+     */
+    @Tool(name = "find_statements_by_table", description = "按表名精确查找引用该表的已解析语句，可进一步按列和使用方式（FILTER 过滤、JOIN 连接、ORDER 排序、GROUP 分组）筛选，例如“所有按 create_time 过滤 t_order 的语句”；同时返回该表各列被多少语句使用")
+    public String findStatementsByTable(
+            @ToolParam(name = "tableName", description = "表名") String tableName,
+            @ToolParam(name = "columnName", description = "列名 (可选)", required = false) String columnName,
+            @ToolParam(name = "role", description = "使用方式 (可选)：FILTER、JOIN、ORDER、GROUP", required = false) String role) {
+        System.out.println("[StatementTableTool] 查找语句，table=" + tableName + ", column=" + columnName + ", role=" + role);
+        try {
+            Role parsedRole = role == null || role.isBlank() ? null : Role.valueOf(role.trim().toUpperCase(Locale.ROOT));
+            List<ParsedSqlQuery> queries = statementTableIndex.findQueries(tableName, columnName, parsedRole);
+            List<Map<String, Object>> statements = new ArrayList<>();
+            for (ParsedSqlQuery query : queries) {
+                Map<String, Object> statement = new LinkedHashMap<>();
+                statement.put("id", query.getId());
+                statement.put("mapperId", query.getMapperNamespace() + "." + query.getStatementId());
+                statement.put("queryType", query.getQueryType());
+                statement.put("sql", query.getSql());
+                statements.add(statement);
+            }
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "count", statements.size(),
+                "statements", statements,
+                "columnUsage", statementTableIndex.columnUsage(tableName)
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+}
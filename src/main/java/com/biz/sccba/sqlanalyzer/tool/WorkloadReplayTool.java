@@ -0,0 +1,76 @@
+package com.biz.sccba.sqlanalyzer.tool;
+
+import com.biz.sccba.sqlanalyzer.service.WorkloadReplayService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.agentscope.core.tool.Tool;
+import io.agentscope.core.tool.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 负载回放工具
+ * 按权重混合命名空间下的语句逐级加压，寻找吞吐/延迟拐点
+ */
+@Component
+public class WorkloadReplayTool {
+
+    private final WorkloadReplayService workloadReplayService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public WorkloadReplayTool(WorkloadReplayService workloadReplayService) {
+        this.workloadReplayService = workloadReplayService;
+    }
+
+    /**
+     * 回放命名空间的负载
+     *
+     * @param namespace Mapper 命名空间
+     * @param datasourceName 数据源名称
+     * @param startQps 起始目标 QPS
+     * @param stepQps 每级增加的 QPS
+     * @param maxSteps 最多级数
+     * @param stepDurationSeconds 每级持续时间（秒）
+     * @param weights 语句权重，格式 "statementId:权重,statementId:权重"
+     * @param includeWrites 是否包含写语句
+     * @return 回放报告 JSON
+     */
+    @Tool(name = "replay_workload", description = "在开启执行权限的测试环境上按权重混合回放 Mapper 命名空间下的语句，开环逐级提高目标 QPS，报告吞吐和延迟曲线及拐点")
+    public String replayWorkload(
+            @ToolParam(name = "namespace", description = "Mapper 命名空间", required = true) String namespace,
+            @ToolParam(name = "datasourceName", description = "数据源名称", required = true) String datasourceName,
+            @ToolParam(name = "startQps", description = "起始目标 QPS (可选)", required = false) Integer startQps,
+            @ToolParam(name = "stepQps", description = "每级增加的 QPS (可选)", required = false) Integer stepQps,
+            @ToolParam(name = "maxSteps", description = "最多级数 (可选)", required = false) Integer maxSteps,
+            @ToolParam(name = "stepDurationSeconds", description = "每级持续秒数 (可选)", required = false) Integer stepDurationSeconds,
+            @ToolParam(name = "weights", description = "语句权重，格式 statementId:权重,... (可选，默认等权重)", required = false) String weights,
+            @ToolParam(name = "includeWrites", description = "是否包含写语句，写语句执行后回滚 (可选，默认 false)", required = false) Boolean includeWrites) {
+        System.out.println("[WorkloadReplayTool] 负载回放 (命名空间：" + namespace + ", 数据源：" + datasourceName + ")");
+        try {
+            WorkloadReplayService.ReplayOptions options = new WorkloadReplayService.ReplayOptions(
+                startQps, stepQps, maxSteps, stepDurationSeconds, parseWeights(weights), includeWrites);
+            WorkloadReplayService.ReplayReport report = workloadReplayService.replay(namespace, datasourceName, options);
+            return objectMapper.writeValueAsString(Map.of(
+                "success", true,
+                "report", report
+            ));
+        } catch (Exception e) {
+            return "{\"success\": false, \"error\": \"" + e.getMessage() + "\"}";
+        }
+    }
+
+    private Map<String, Double> parseWeights(String weights) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        if (weights == null || weights.isBlank()) {
+            return result;
+        }
+        for (String part : weights.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length == 2) {
+                result.put(pair[0].trim(), Double.parseDouble(pair[1].trim()));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,428 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor.Role;
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor.Usage;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DML 语句的写放大模型
+ *
+ * 按 InnoDB 的索引维护方式估算每修改一行需要写入的索引记录数：
+ * - INSERT / REPLACE：聚簇索引 1 条 + 每个二级索引 1 条
+ * - 唯一键冲突时：REPLACE 先删除旧行再插入新行（每个索引各 2 条）；
+ *   INSERT ... ON DUPLICATE KEY UPDATE 按 UPDATE 规则维护包含被更新列的索引
+ * - DELETE：聚簇索引和每个二级索引各标记删除 1 条
+ * - UPDATE：聚簇索引 1 条；二级索引只有包含被更新列时才维护，且是"删除旧记录 + 插入新记录"共 2 条；
+ *   更新主键时行在聚簇索引中移动（2 条），所有二级索引都要重写（各 2 条）
+ * 唯一二级索引不能使用 change buffer，插入和修改唯一列时每行还需要一次唯一性检查读
+ */
+public final class DmlWriteModel {
+
+    /**
+     * 语句类型
+     */
+    public enum Kind {
+        INSERT, REPLACE, UPDATE, DELETE
+    }
+
+    /**
+     * DML 语句结构
+     *
+     * @param kind 语句类型
+     * @param table 目标表（小写）
+     * @param setColumns UPDATE 的 SET 列，或 INSERT 的列清单
+     * @param upsertColumns ON DUPLICATE KEY UPDATE 更新的列
+     * @param whereColumns 目标表上出现在 WHERE / JOIN 条件中的列
+     * @param hasWhere 是否带 WHERE 条件
+     * @param valueRows INSERT ... VALUES 的行数，INSERT ... SELECT 为 0
+     * @param insertSelect 是否为 INSERT ... SELECT
+     */
+    public record DmlShape(Kind kind, String table, List<String> setColumns, List<String> upsertColumns,
+                           List<String> whereColumns, boolean hasWhere, int valueRows, boolean insertSelect) {
+    }
+
+    /**
+     * 表上的索引
+     *
+     * @param name 索引名
+     * @param unique 是否唯一
+     * @param columns 索引列（小写，按顺序）
+     */
+    public record IndexDef(String name, boolean unique, List<String> columns) {
+
+        public boolean primary() {
+            return "PRIMARY".equalsIgnoreCase(name);
+        }
+    }
+
+    /**
+     * 每行的写代价估算
+     *
+     * @param secondaryIndexes 二级索引数
+     * @param maintainedIndexes 每修改一行需要维护的索引（含 PRIMARY）
+     * @param updatedIndexedColumns UPDATE 修改到的索引列
+     * @param primaryKeyUpdated 是否更新了主键列
+     * @param indexWritesPerRow 每修改一行写入的索引记录数
+     * @param uniqueChecksPerRow 每修改一行的唯一性检查次数
+     * @param whereUsesIndex WHERE 条件是否命中某个索引的最左列（INSERT 恒为 true）
+     * @param conflictWritesPerRow 唯一键冲突时每行写入的索引记录数（只有 REPLACE 和 ON DUPLICATE KEY UPDATE 有值）
+     */
+    public record Estimate(int secondaryIndexes, List<String> maintainedIndexes, List<String> updatedIndexedColumns,
+                           boolean primaryKeyUpdated, int indexWritesPerRow, int uniqueChecksPerRow,
+                           boolean whereUsesIndex, Integer conflictWritesPerRow) {
+
+        /**
+         * 不冲突与冲突两种情况中较大的每行写入数
+         */
+        public int worstWritesPerRow() {
+            return conflictWritesPerRow != null ? Math.max(indexWritesPerRow, conflictWritesPerRow) : indexWritesPerRow;
+        }
+    }
+
+    private static final Pattern LEADING_KEYWORD = Pattern.compile("(?is)^\\s*(?:/\\*.*?\\*/\\s*)*(\\w+)");
+    private static final Pattern INDEX_DDL = Pattern.compile(
+        "(?is)\\b(?:INDEX|KEY)\\s+`?[\\w$]+`?\\s*(?:USING\\s+\\w+\\s*)?(?:ON\\s+[`\\w$.]+\\s*)?\\(");
+
+    private DmlWriteModel() {
+    }
+
+    /**
+     * 解析 DML 语句结构，不是 INSERT / REPLACE / UPDATE / DELETE 时返回 null
+     */
+    public static DmlShape parse(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        Matcher leading = LEADING_KEYWORD.matcher(sql);
+        if (!leading.find()) {
+            return null;
+        }
+        Kind kind;
+        try {
+            kind = Kind.valueOf(leading.group(1).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        List<Usage> usages = SqlTableUsageExtractor.extract(sql);
+        String table = usages.stream().filter(u -> u.role() == Role.REFERENCE).map(Usage::table).findFirst().orElse(null);
+        if (table == null) {
+            return null;
+        }
+        String masked = mask(sql);
+        String upper = masked.toUpperCase(Locale.ROOT);
+
+        List<String> setColumns = new ArrayList<>();
+        List<String> upsertColumns = new ArrayList<>();
+        int valueRows = 0;
+        boolean insertSelect = false;
+        int duplicate = indexOfKeyword(upper, "ON DUPLICATE KEY UPDATE", 0);
+        if (kind == Kind.UPDATE) {
+            int set = indexOfKeyword(upper, "SET", 0);
+            if (set >= 0) {
+                int end = firstKeyword(upper, set, "WHERE", "ORDER BY", "LIMIT");
+                setColumns.addAll(assignedColumns(sql.substring(set + 3, end), masked.substring(set + 3, end)));
+            }
+        } else if (kind == Kind.INSERT || kind == Kind.REPLACE) {
+            int values = firstKeyword(upper, 0, "VALUES", "VALUE", "SELECT", "SET");
+            int open = masked.indexOf('(');
+            if (open >= 0 && open < values) {
+                int close = matching(masked, open);
+                for (String column : splitTopLevel(sql.substring(open + 1, close), masked.substring(open + 1, close))) {
+                    setColumns.add(columnName(column));
+                }
+            }
+            int valuesEnd = duplicate >= 0 ? duplicate : masked.length();
+            if (values < masked.length() && upper.startsWith("SET", values)) {
+                setColumns.addAll(assignedColumns(sql.substring(values + 3, valuesEnd), masked.substring(values + 3, valuesEnd)));
+                valueRows = 1;
+            } else if (values < masked.length() && upper.startsWith("SELECT", values)) {
+                insertSelect = true;
+            } else if (values < masked.length()) {
+                valueRows = countTuples(masked.substring(values, valuesEnd));
+            }
+            if (duplicate >= 0) {
+                int start = duplicate + "ON DUPLICATE KEY UPDATE".length();
+                upsertColumns.addAll(assignedColumns(sql.substring(start), masked.substring(start)));
+            }
+        }
+
+        boolean hasWhere = indexOfKeyword(upper, "WHERE", 0) >= 0;
+        List<String> whereColumns = usages.stream()
+            .filter(u -> u.table().equals(table) && (u.role() == Role.FILTER || u.role() == Role.JOIN))
+            .map(Usage::column)
+            .distinct()
+            .toList();
+        return new DmlShape(kind, table, setColumns, upsertColumns, whereColumns, hasWhere, valueRows, insertSelect);
+    }
+
+    /**
+     * 按表上的索引估算每行写代价
+     */
+    public static Estimate estimate(DmlShape shape, List<IndexDef> indexes) {
+        List<IndexDef> secondary = indexes.stream().filter(index -> !index.primary()).toList();
+        Set<String> primaryColumns = new HashSet<>();
+        indexes.stream().filter(IndexDef::primary).forEach(index -> primaryColumns.addAll(index.columns()));
+
+        List<String> maintained = new ArrayList<>();
+        List<String> updatedIndexed = new ArrayList<>();
+        boolean primaryKeyUpdated = false;
+        int writes;
+        int uniqueChecks = 0;
+        boolean whereUsesIndex = true;
+        Integer conflictWrites = null;
+        switch (shape.kind()) {
+            case INSERT, REPLACE -> {
+                maintained.add("PRIMARY");
+                secondary.forEach(index -> maintained.add(index.name()));
+                writes = 1 + secondary.size();
+                uniqueChecks = (int) secondary.stream().filter(IndexDef::unique).count();
+                if (shape.kind() == Kind.REPLACE) {
+                    conflictWrites = 2 * writes;
+                } else if (!shape.upsertColumns().isEmpty()) {
+                    conflictWrites = updateWrites(new HashSet<>(shape.upsertColumns()), primaryColumns, secondary);
+                }
+            }
+            case DELETE -> {
+                maintained.add("PRIMARY");
+                secondary.forEach(index -> maintained.add(index.name()));
+                writes = 1 + secondary.size();
+                whereUsesIndex = usesIndex(shape.whereColumns(), indexes);
+            }
+            default -> {
+                Set<String> updated = new HashSet<>(shape.setColumns());
+                primaryKeyUpdated = updated.stream().anyMatch(primaryColumns::contains);
+                maintained.add("PRIMARY");
+                writes = primaryKeyUpdated ? 2 : 1;
+                for (IndexDef index : secondary) {
+                    List<String> touched = index.columns().stream().filter(updated::contains).toList();
+                    if (primaryKeyUpdated || !touched.isEmpty()) {
+                        maintained.add(index.name());
+                        writes += 2;
+                        if (index.unique()) {
+                            uniqueChecks++;
+                        }
+                    }
+                    touched.stream().filter(column -> !updatedIndexed.contains(column)).forEach(updatedIndexed::add);
+                }
+                if (primaryKeyUpdated) {
+                    uniqueChecks++;
+                    primaryColumns.stream().filter(updated::contains)
+                        .filter(column -> !updatedIndexed.contains(column)).forEach(updatedIndexed::add);
+                }
+                whereUsesIndex = usesIndex(shape.whereColumns(), indexes);
+            }
+        }
+        return new Estimate(secondary.size(), maintained, updatedIndexed, primaryKeyUpdated, writes, uniqueChecks,
+            whereUsesIndex, conflictWrites);
+    }
+
+    /**
+     * 更新给定列时每行写入的索引记录数
+     */
+    private static int updateWrites(Set<String> updated, Set<String> primaryColumns, List<IndexDef> secondary) {
+        boolean primaryKeyUpdated = updated.stream().anyMatch(primaryColumns::contains);
+        int writes = primaryKeyUpdated ? 2 : 1;
+        for (IndexDef index : secondary) {
+            if (primaryKeyUpdated || index.columns().stream().anyMatch(updated::contains)) {
+                writes += 2;
+            }
+        }
+        return writes;
+    }
+
+    /**
+     * 新增一个索引后该语句每修改一行多写入的索引记录数
+     * REPLACE 和 ON DUPLICATE KEY UPDATE 取不冲突与冲突两种情况中较大的值
+     */
+    public static int extraWritesPerRow(DmlShape shape, List<String> indexColumns, List<IndexDef> existing) {
+        return switch (shape.kind()) {
+            case INSERT -> shape.upsertColumns().isEmpty()
+                ? 1 : Math.max(1, updateExtraWrites(shape.upsertColumns(), indexColumns, existing));
+            case REPLACE -> 2;
+            case DELETE -> 1;
+            case UPDATE -> updateExtraWrites(shape.setColumns(), indexColumns, existing);
+        };
+    }
+
+    private static int updateExtraWrites(List<String> updatedColumns, List<String> indexColumns, List<IndexDef> existing) {
+        Set<String> updated = new HashSet<>(updatedColumns);
+        boolean primaryKeyUpdated = existing.stream().filter(IndexDef::primary)
+            .anyMatch(index -> index.columns().stream().anyMatch(updated::contains));
+        return primaryKeyUpdated || indexColumns.stream().anyMatch(updated::contains) ? 2 : 0;
+    }
+
+    /**
+     * 从 CREATE INDEX / ALTER TABLE ... ADD INDEX 语句中提取索引列（小写，去掉前缀长度和排序方向）
+     */
+    public static List<String> indexColumns(String ddl) {
+        if (ddl == null) {
+            return List.of();
+        }
+        String masked = mask(ddl);
+        Matcher matcher = INDEX_DDL.matcher(masked);
+        if (!matcher.find()) {
+            return List.of();
+        }
+        int open = matcher.end() - 1;
+        int close = matching(masked, open);
+        List<String> columns = new ArrayList<>();
+        for (String part : splitTopLevel(ddl.substring(open + 1, close), masked.substring(open + 1, close))) {
+            String column = part.trim().replaceAll("(?is)\\s+(ASC|DESC)$", "").replaceAll("\\(.*$", "");
+            if (!column.isBlank()) {
+                columns.add(columnName(column));
+            }
+        }
+        return columns;
+    }
+
+    private static boolean usesIndex(List<String> whereColumns, List<IndexDef> indexes) {
+        return indexes.stream().anyMatch(index -> !index.columns().isEmpty() && whereColumns.contains(index.columns().get(0)));
+    }
+
+    /**
+     * "a = ?, t.b = b + 1" 形式的赋值列表中被赋值的列
+     */
+    private static List<String> assignedColumns(String text, String masked) {
+        List<String> columns = new ArrayList<>();
+        for (String assignment : splitTopLevel(text, masked)) {
+            int eq = assignment.indexOf('=');
+            if (eq > 0) {
+                columns.add(columnName(assignment.substring(0, eq)));
+            }
+        }
+        return columns;
+    }
+
+    private static String columnName(String expression) {
+        String name = expression.trim().replace("`", "");
+        return name.substring(name.lastIndexOf('.') + 1).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 统计 VALUES 后顶层的括号组数
+     */
+    private static int countTuples(String masked) {
+        int tuples = 0;
+        int depth = 0;
+        for (int i = 0; i < masked.length(); i++) {
+            char c = masked.charAt(i);
+            if (c == '(') {
+                if (depth == 0) {
+                    tuples++;
+                }
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            }
+        }
+        return tuples;
+    }
+
+    /**
+     * 按顶层逗号切分（括号和字符串内的逗号不切分）；masked 与 text 等长，用于判断位置
+     */
+    private static List<String> splitTopLevel(String text, String masked) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < masked.length(); i++) {
+            char c = masked.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(text.substring(start, i));
+                start = i + 1;
+            }
+        }
+        if (!text.substring(start).isBlank()) {
+            parts.add(text.substring(start));
+        }
+        return parts;
+    }
+
+    private static int matching(String masked, int open) {
+        int depth = 0;
+        for (int i = open; i < masked.length(); i++) {
+            if (masked.charAt(i) == '(') {
+                depth++;
+            } else if (masked.charAt(i) == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        return masked.length();
+    }
+
+    /**
+     * 顶层（不在括号内）的关键字位置
+     */
+    private static int indexOfKeyword(String upper, String keyword, int from) {
+        Pattern pattern = Pattern.compile("\\b" + keyword.replace(" ", "\\s+") + "\\b");
+        Matcher matcher = pattern.matcher(upper);
+        while (matcher.find(from)) {
+            if (depthAt(upper, matcher.start()) == 0) {
+                return matcher.start();
+            }
+            from = matcher.end();
+        }
+        return -1;
+    }
+
+    private static int firstKeyword(String upper, int from, String... keywords) {
+        int first = upper.length();
+        for (String keyword : keywords) {
+            int index = indexOfKeyword(upper, keyword, from);
+            if (index >= 0 && index < first) {
+                first = index;
+            }
+        }
+        return first;
+    }
+
+    private static int depthAt(String masked, int position) {
+        int depth = 0;
+        for (int i = 0; i < position; i++) {
+            if (masked.charAt(i) == '(') {
+                depth++;
+            } else if (masked.charAt(i) == ')') {
+                depth--;
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * 把字符串字面量和注释替换为等长空格，便于按位置识别关键字、括号和逗号
+     */
+    private static String mask(String sql) {
+        StringBuilder masked = new StringBuilder(sql);
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"') {
+                int j = i + 1;
+                while (j < sql.length() && sql.charAt(j) != c) {
+                    j += sql.charAt(j) == '\\' ? 2 : 1;
+                }
+                for (int k = i; k <= Math.min(j, sql.length() - 1); k++) {
+                    masked.setCharAt(k, ' ');
+                }
+                i = j + 1;
+            } else if (c == '/' && i + 1 < sql.length() && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                end = end < 0 ? sql.length() : end + 2;
+                for (int k = i; k < end; k++) {
+                    masked.setCharAt(k, ' ');
+                }
+                i = end;
+            } else {
+                i++;
+            }
+        }
+        return masked.toString();
+    }
+}
@@ -0,0 +1,174 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * IN 列表 / 多行 VALUES 规模的退化判定与分批大小推荐
+ *
+ * 同一语句按不同的 foreach 元素个数渲染后得到一组测量点，以元素个数最少的点为基准：
+ * - 计划结构变化或出现全表扫描：优化器放弃了原来的索引访问
+ * - 每元素扫描行数明显上升：超过 eq_range_index_dive_limit 后改用索引统计估算，估算失真
+ * - 每元素耗时明显上升：单条语句过大，解析、范围构造或排序的开销超过节省的往返
+ * 推荐分批大小取第一个退化点之前最大的测量点，并且不超过 max_allowed_packet 能容纳的元素个数
+ *
+ * MySQL 把只有一个元素的 IN (?) 当作等值条件（const/eq_ref/ref），两个及以上元素才是 range，
+ * 所以同一索引上单点访问变为 range 不算计划变化
+ */
+public final class InListScalingModel {
+
+    /**
+     * 单点访问类型，比较计划结构时与 range 视为相同
+     */
+    private static final Pattern POINT_ACCESS = Pattern.compile("\\b(?:system|const|eq_ref|ref)\\b");
+
+    /**
+     * 一个规模下的测量结果
+     *
+     * @param size foreach 元素个数
+     * @param signature 计划结构签名（未 EXPLAIN 时为 null）
+     * @param fullScan 是否有全表扫描
+     * @param estimatedRows 各表估算扫描行数之和（未知时为 null）
+     * @param p50Ms 基准测试的中位耗时（未测试时为 null）
+     * @param sqlBytes 渲染后 SQL 的字节数
+     */
+    public record Point(int size, String signature, boolean fullScan, Long estimatedRows, Double p50Ms, long sqlBytes) {
+
+        double rowsPerItem() {
+            return estimatedRows != null ? (double) estimatedRows / size : Double.NaN;
+        }
+
+        double msPerItem() {
+            return p50Ms != null ? p50Ms / size : Double.NaN;
+        }
+    }
+
+    /**
+     * 退化点
+     *
+     * @param size 第一个退化的规模
+     * @param reasons 退化原因
+     */
+    public record Degradation(int size, List<String> reasons) {
+    }
+
+    /**
+     * 分批大小推荐
+     *
+     * @param chunkSize 推荐的每批元素个数
+     * @param maxItemsForPacket max_allowed_packet 能容纳的最大元素个数（未知时为 null）
+     * @param reason 推荐依据
+     */
+    public record Recommendation(int chunkSize, Long maxItemsForPacket, String reason) {
+    }
+
+    private InListScalingModel() {
+    }
+
+    /**
+     * 找出第一个退化的规模，没有退化时返回 null
+     *
+     * @param points 各规模的测量点
+     * @param rowsFactor 每元素扫描行数超过基准的倍数视为退化
+     * @param latencyFactor 每元素耗时超过已测最小值的倍数视为退化
+     */
+    public static Degradation firstDegradation(List<Point> points, double rowsFactor, double latencyFactor) {
+        List<Point> sorted = sorted(points);
+        if (sorted.size() < 2) {
+            return null;
+        }
+        Point base = sorted.get(0);
+        double bestMsPerItem = Double.NaN;
+        for (Point point : sorted) {
+            List<String> reasons = new ArrayList<>();
+            if (point != base) {
+                if (base.signature() != null && point.signature() != null && !samePlan(base.signature(), point.signature())) {
+                    reasons.add("执行计划结构与 " + base.size() + " 个元素时不同");
+                }
+                if (point.fullScan() && !base.fullScan()) {
+                    reasons.add("出现全表扫描");
+                }
+                double baseRows = base.rowsPerItem();
+                if (!Double.isNaN(baseRows) && !Double.isNaN(point.rowsPerItem())
+                    && point.rowsPerItem() > Math.max(1, baseRows) * rowsFactor) {
+                    reasons.add(String.format("每元素估算扫描行数 %.1f，是基准的 %.1f 倍",
+                        point.rowsPerItem(), point.rowsPerItem() / Math.max(1, baseRows)));
+                }
+                if (!Double.isNaN(bestMsPerItem) && !Double.isNaN(point.msPerItem())
+                    && point.msPerItem() > bestMsPerItem * latencyFactor) {
+                    reasons.add(String.format("每元素耗时 %.4f ms，是最优规模的 %.1f 倍",
+                        point.msPerItem(), point.msPerItem() / bestMsPerItem));
+                }
+            }
+            if (!reasons.isEmpty()) {
+                return new Degradation(point.size(), reasons);
+            }
+            if (!Double.isNaN(point.msPerItem())) {
+                bestMsPerItem = Double.isNaN(bestMsPerItem) ? point.msPerItem() : Math.min(bestMsPerItem, point.msPerItem());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按线性拟合估算 max_allowed_packet 能容纳的元素个数：字节数 = 固定部分 + 每元素字节数 × 元素个数
+     */
+    public static Long maxItemsForPacket(List<Point> points, Long maxAllowedPacket) {
+        List<Point> sorted = sorted(points);
+        if (maxAllowedPacket == null || sorted.size() < 2) {
+            return null;
+        }
+        Point first = sorted.get(0);
+        Point last = sorted.get(sorted.size() - 1);
+        double perItem = (double) (last.sqlBytes() - first.sqlBytes()) / (last.size() - first.size());
+        if (perItem <= 0) {
+            return null;
+        }
+        double fixed = first.sqlBytes() - perItem * first.size();
+        return (long) Math.max(1, Math.floor((maxAllowedPacket - fixed) / perItem));
+    }
+
+    /**
+     * 推荐分批大小
+     *
+     * @param points 各规模的测量点
+     * @param degradation 第一个退化点（可为 null）
+     * @param maxAllowedPacket max_allowed_packet（未知时为 null）
+     */
+    public static Recommendation recommend(List<Point> points, Degradation degradation, Long maxAllowedPacket) {
+        List<Point> sorted = sorted(points);
+        Long packetItems = maxItemsForPacket(sorted, maxAllowedPacket);
+        int chunk = sorted.isEmpty() ? 1 : sorted.get(0).size();
+        String reason;
+        if (degradation != null) {
+            for (Point point : sorted) {
+                if (point.size() < degradation.size()) {
+                    chunk = Math.max(chunk, point.size());
+                }
+            }
+            reason = String.format("%d 个元素时开始退化（%s），取此前最大的已测规模",
+                degradation.size(), String.join("；", degradation.reasons()));
+        } else {
+            chunk = sorted.isEmpty() ? 1 : sorted.get(sorted.size() - 1).size();
+            reason = "所有已测规模的计划和每元素开销都稳定，取最大的已测规模";
+        }
+        if (packetItems != null && chunk > packetItems / 2) {
+            chunk = (int) Math.max(1, packetItems / 2);
+            reason += String.format("；max_allowed_packet 最多容纳约 %d 个元素，留一半余量取 %d", packetItems, chunk);
+        }
+        return new Recommendation(chunk, packetItems, reason);
+    }
+
+    /**
+     * 计划结构是否相同：同一索引上的单点访问与 range 视为相同
+     */
+    static boolean samePlan(String baseline, String signature) {
+        return POINT_ACCESS.matcher(baseline).replaceAll("range").equals(POINT_ACCESS.matcher(signature).replaceAll("range"));
+    }
+
+    private static List<Point> sorted(List<Point> points) {
+        List<Point> sorted = new ArrayList<>(points);
+        sorted.sort(Comparator.comparingInt(Point::size));
+        return sorted;
+    }
+}
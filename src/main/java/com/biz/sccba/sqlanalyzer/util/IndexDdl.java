@@ -0,0 +1,43 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+/**
+ * 索引 DDL 构建
+ *
+ * MySQL 的索引属于表，索引名不能带库名前缀：
+ *   CREATE [UNIQUE] INDEX idx ON [schema.]table (cols)
+ *   DROP INDEX idx ON [schema.]table
+ */
+public final class IndexDdl {
+
+    private IndexDdl() {
+    }
+
+    /**
+     * 构建 CREATE INDEX 语句
+     *
+     * @param schema 库名（可为空）
+     * @param tableName 表名
+     * @param indexName 索引名
+     * @param columns 列（逗号分隔）
+     * @param unique 是否唯一索引
+     */
+    public static String createIndex(String schema, String tableName, String indexName, String columns, boolean unique) {
+        return "CREATE " + (unique ? "UNIQUE " : "") + "INDEX " + indexName
+            + " ON " + qualifiedTable(schema, tableName) + " (" + columns + ")";
+    }
+
+    /**
+     * 构建 DROP INDEX 语句
+     *
+     * @param schema 库名（可为空）
+     * @param tableName 表名
+     * @param indexName 索引名
+     */
+    public static String dropIndex(String schema, String tableName, String indexName) {
+        return "DROP INDEX " + indexName + " ON " + qualifiedTable(schema, tableName);
+    }
+
+    private static String qualifiedTable(String schema, String tableName) {
+        return schema != null && !schema.isBlank() ? schema + "." + tableName : tableName;
+    }
+}
@@ -0,0 +1,53 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import com.biz.sccba.sqlanalyzer.model.agent.IndexVerificationReport.Verdict;
+
+import java.util.Objects;
+
+/**
+ * 索引前后对比验证的结论与回滚判定
+ */
+public final class IndexVerificationDecision {
+
+    private IndexVerificationDecision() {
+    }
+
+    /**
+     * 根据实测的读收益和写代价给出结论
+     *
+     * 任何一条读语句恶化超过允许范围时为 HARMFUL，即使另一条读语句明显变快
+     *
+     * @param bestReadImprovementPct 读语句 p95 最大改善百分比（没有成功测量的读语句时为 null）
+     * @param worstReadRegressionPct 读语句 p95 最大恶化百分比（没有成功测量的读语句时为 null）
+     * @param worstWriteRegressionPct 写语句 p95 最大恶化百分比（没有写语句时为 null）
+     * @param minReadImprovementPct 读语句至少改善的百分比
+     * @param maxReadRegressionPct 读语句允许恶化的百分比
+     * @param maxWriteRegressionPct 写语句允许恶化的百分比
+     */
+    public static Verdict verdict(Double bestReadImprovementPct, Double worstReadRegressionPct, Double worstWriteRegressionPct,
+                                  double minReadImprovementPct, double maxReadRegressionPct, double maxWriteRegressionPct) {
+        if (bestReadImprovementPct == null) {
+            return Verdict.INCONCLUSIVE;
+        }
+        if (worstReadRegressionPct != null && worstReadRegressionPct > maxReadRegressionPct) {
+            return Verdict.HARMFUL;
+        }
+        if (bestReadImprovementPct >= minReadImprovementPct
+            && (worstWriteRegressionPct == null || worstWriteRegressionPct <= maxWriteRegressionPct)) {
+            return Verdict.BENEFICIAL;
+        }
+        return Verdict.NOT_BENEFICIAL;
+    }
+
+    /**
+     * 是否回滚测试环境上创建的索引：无收益时回滚；测试环境就是目标数据源时总是回滚，由用户确认后再正式创建
+     *
+     * @param applied 索引是否已在测试环境上创建
+     * @param verdict 验证结论
+     * @param verifyDatasource 测试环境
+     * @param targetDatasource 最终执行 DDL 的数据源
+     */
+    public static boolean shouldRollback(boolean applied, Verdict verdict, String verifyDatasource, String targetDatasource) {
+        return applied && (verdict != Verdict.BENEFICIAL || Objects.equals(verifyDatasource, targetDatasource));
+    }
+}
@@ -0,0 +1,89 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+/**
+ * 紧凑的对数分桶直方图
+ *
+ * 第 i 个桶覆盖 (1.1^(i-1), 1.1^i]，分位数的相对误差不超过 10%。
+ * 记录 1 ~ 10^10 范围的值最多约 240 个 int 桶（不到 1KB），且按需增长，
+ * 适合需要为成千上万个语句指纹分别统计分位数的场景
+ */
+public final class LogHistogram {
+
+    private static final double BASE = 1.1;
+    private static final double LOG_BASE = Math.log(BASE);
+
+    private int[] counts = new int[16];
+    private long totalCount;
+    private long maxValue;
+
+    /**
+     * 记录一个值（小于 1 的值按 1 记录）
+     */
+    public void record(long value) {
+        int index = bucketIndex(value);
+        if (index >= counts.length) {
+            int[] grown = new int[Math.max(index + 1, counts.length * 2)];
+            System.arraycopy(counts, 0, grown, 0, counts.length);
+            counts = grown;
+        }
+        counts[index]++;
+        totalCount++;
+        maxValue = Math.max(maxValue, value);
+    }
+
+    /**
+     * 合并另一个直方图
+     */
+    public void add(LogHistogram other) {
+        if (other.counts.length > counts.length) {
+            int[] grown = new int[other.counts.length];
+            System.arraycopy(counts, 0, grown, 0, counts.length);
+            counts = grown;
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    /**
+     * 计算分位数（返回所在桶的上界，不超过实际最大值）
+     *
+     * @param percentile 0 ~ 100
+     */
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                return Math.min(maxValue, Math.round(Math.pow(BASE, i)));
+            }
+        }
+        return maxValue;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    private static int bucketIndex(long value) {
+        if (value <= 1) {
+            return 0;
+        }
+        int index = (int) Math.ceil(Math.log(value) / LOG_BASE);
+        // 浮点误差可能让恰好等于上界的值落入下一个桶
+        if (index > 0 && Math.round(Math.pow(BASE, index - 1)) >= value) {
+            index--;
+        }
+        return index;
+    }
+}
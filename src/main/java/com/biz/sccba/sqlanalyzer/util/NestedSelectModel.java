@@ -0,0 +1,116 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import java.util.*;
+
+/**
+ * 嵌套查询（resultMap 中 association / collection 的 select 属性）的往返次数模型
+ *
+ * 每个父查询返回的行都会对每个嵌套查询执行一次（同一 SqlSession 内参数相同的调用命中一级缓存，
+ * 所以执行次数不超过父记录中关联列的不同值个数），嵌套查询返回的行又会触发下一层嵌套查询：
+ *   trips(语句, 行数) = 1 + Σ 边 [执行次数(边, 行数) × trips(子语句, 子查询每次返回的行数)]
+ * 改为 JOIN + 嵌套 resultMap 时一次往返即可，代价是结果行按一对多关系膨胀；
+ * 改为两步批量加载（先查父记录，再按 IN 批量查子记录）时每层每批一次往返
+ */
+public final class NestedSelectModel {
+
+    /**
+     * 嵌套查询边
+     *
+     * @param statementId 嵌套查询的语句 ID
+     * @param lazy 是否懒加载
+     * @param rowsPerExecution 嵌套查询每次执行返回的行数
+     * @param parentDistinct 父记录中关联列的不同值个数（未知时为 null）
+     */
+    public record Edge(String statementId, boolean lazy, double rowsPerExecution, Double parentDistinct) {
+
+        /**
+         * 父查询返回 rows 行时该嵌套查询的执行次数
+         */
+        public double executions(double rows) {
+            return parentDistinct != null ? Math.min(rows, parentDistinct) : rows;
+        }
+    }
+
+    private NestedSelectModel() {
+    }
+
+    /**
+     * 不做任何改写时的往返次数
+     *
+     * @param statementId 根语句
+     * @param rows 根语句返回的行数
+     * @param edges 语句 ID → 其结果映射中的嵌套查询
+     * @param includeLazy 是否计入懒加载的嵌套查询（访问了全部懒加载属性的最坏情况）
+     */
+    public static double roundTrips(String statementId, double rows, Map<String, List<Edge>> edges, boolean includeLazy) {
+        return roundTrips(statementId, rows, edges, includeLazy, new HashSet<>());
+    }
+
+    private static double roundTrips(String statementId, double rows, Map<String, List<Edge>> edges,
+                                     boolean includeLazy, Set<String> path) {
+        double trips = 1;
+        if (!path.add(statementId)) {
+            // 循环引用（如 parent → children → parent），实际深度取决于数据，这里只计一层
+            return trips;
+        }
+        for (Edge edge : edges.getOrDefault(statementId, List.of())) {
+            if (edge.lazy() && !includeLazy) {
+                continue;
+            }
+            trips += edge.executions(rows) * roundTrips(edge.statementId(), edge.rowsPerExecution(), edges, includeLazy, path);
+        }
+        path.remove(statementId);
+        return trips;
+    }
+
+    /**
+     * 两步批量加载的往返次数：每层按 IN 列表每 batchSize 个键一次往返
+     */
+    public static double batchedRoundTrips(String statementId, double rows, Map<String, List<Edge>> edges,
+                                           boolean includeLazy, int batchSize) {
+        return batched(statementId, rows, 1, edges, includeLazy, Math.max(1, batchSize), new HashSet<>());
+    }
+
+    private static double batched(String statementId, double rows, double calls, Map<String, List<Edge>> edges,
+                                  boolean includeLazy, int batchSize, Set<String> path) {
+        double trips = calls;
+        if (!path.add(statementId)) {
+            return trips;
+        }
+        for (Edge edge : edges.getOrDefault(statementId, List.of())) {
+            if (edge.lazy() && !includeLazy) {
+                continue;
+            }
+            double keys = edge.executions(rows);
+            if (keys <= 0) {
+                continue;
+            }
+            trips += batched(edge.statementId(), keys * edge.rowsPerExecution(), Math.ceil(keys / batchSize),
+                edges, includeLazy, batchSize, path);
+        }
+        path.remove(statementId);
+        return trips;
+    }
+
+    /**
+     * 改为 JOIN 后一次查询返回的行数（一对多关系按子查询行数膨胀，同一层的多个集合相乘）
+     */
+    public static double joinedRows(String statementId, double rows, Map<String, List<Edge>> edges, boolean includeLazy) {
+        return rows * fanOut(statementId, edges, includeLazy, new HashSet<>());
+    }
+
+    private static double fanOut(String statementId, Map<String, List<Edge>> edges, boolean includeLazy, Set<String> path) {
+        if (!path.add(statementId)) {
+            return 1;
+        }
+        double factor = 1;
+        for (Edge edge : edges.getOrDefault(statementId, List.of())) {
+            if (edge.lazy() && !includeLazy) {
+                continue;
+            }
+            factor *= Math.max(1, edge.rowsPerExecution() * fanOut(edge.statementId(), edges, includeLazy, path));
+        }
+        path.remove(statementId);
+        return factor;
+    }
+}
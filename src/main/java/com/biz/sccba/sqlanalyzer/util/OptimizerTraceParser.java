@@ -0,0 +1,308 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import com.biz.sccba.sqlanalyzer.model.OptimizerTrace;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * OPTIMIZER_TRACE 流式解析器
+ *
+ * 跟踪 JSON 可达数 MB，解析时按 token 流式遍历：
+ * - 只把 range_analysis、best_access_path 这类体积小的片段读成树
+ * - join_preparation、condition_processing 等无关片段直接 skipChildren 跳过
+ * - rest_of_plan 递归展开，记录连接顺序搜索过程
+ */
+public final class OptimizerTraceParser {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * 与索引选择无关、直接跳过的片段
+     */
+    private static final Set<String> SKIPPED_SECTIONS = Set.of(
+        "join_preparation", "condition_processing", "substitute_generated_columns",
+        "table_dependencies", "ref_optimizer_key_uses", "attaching_conditions_to_tables",
+        "finalizing_table_conditions", "refine_plan", "join_execution", "transformations_to_nested_joins",
+        "expanded_query", "condition_filtering_pct_for_index"
+    );
+
+    private OptimizerTraceParser() {
+    }
+
+    /**
+     * 解析跟踪 JSON
+     *
+     * @param reader TRACE 列的字符流
+     * @return 解析结果（包含摘要）
+     */
+    public static OptimizerTrace parse(Reader reader) throws IOException {
+        return parse(reader, null);
+    }
+
+    /**
+     * 解析跟踪 JSON
+     *
+     * @param reader TRACE 列的字符流
+     * @param missingBytes MISSING_BYTES_BEYOND_MAX_MEM_SIZE 列的值
+     * @return 解析结果（包含摘要）
+     */
+    public static OptimizerTrace parse(Reader reader, Long missingBytes) throws IOException {
+        OptimizerTrace trace = new OptimizerTrace();
+        trace.setMissingBytesBeyondMaxMemSize(missingBytes);
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(reader)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                walkObject(parser, null, trace);
+            } else if (token == JsonToken.START_ARRAY) {
+                walkArray(parser, null, trace);
+            }
+        }
+        trace.setSummary(summarize(trace));
+        return trace;
+    }
+
+    private static void walkArray(JsonParser parser, String table, OptimizerTrace trace) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                walkObject(parser, table, trace);
+            } else if (token == JsonToken.START_ARRAY) {
+                walkArray(parser, table, trace);
+            }
+        }
+    }
+
+    private static void walkObject(JsonParser parser, String table, OptimizerTrace trace) throws IOException {
+        String currentTable = table;
+        OptimizerTrace.JoinStep step = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            if (SKIPPED_SECTIONS.contains(field)) {
+                parser.skipChildren();
+                continue;
+            }
+
+            switch (field) {
+                case "table" -> {
+                    if (value.isScalarValue()) {
+                        currentTable = parser.getText();
+                        if (step != null) {
+                            step.setTable(currentTable);
+                        }
+                    } else {
+                        walkContainer(parser, value, currentTable, trace);
+                    }
+                }
+                case "plan_prefix" -> {
+                    // 连接顺序搜索中的部分计划，先占位保证按搜索顺序记录
+                    OptimizerTrace.JoinStep newStep = new OptimizerTrace.JoinStep();
+                    JsonNode prefix = parser.readValueAsTree();
+                    if (prefix != null && prefix.isArray()) {
+                        prefix.forEach(node -> newStep.getPlanPrefix().add(node.asText()));
+                    }
+                    trace.getJoinSteps().add(newStep);
+                    step = newStep;
+                }
+                case "range_analysis" -> handleRangeAnalysis(currentTable, parser.readValueAsTree(), trace);
+                case "best_access_path" -> handleBestAccessPath(currentTable,
+                    step != null ? step.getPlanPrefix() : List.of(), parser.readValueAsTree(), trace);
+                case "rows_for_plan" -> {
+                    if (step != null && value.isNumeric()) {
+                        step.setRowsForPlan(parser.getDoubleValue());
+                    }
+                }
+                case "cost_for_plan" -> {
+                    if (step != null && value.isNumeric()) {
+                        step.setCostForPlan(parser.getDoubleValue());
+                    }
+                }
+                case "chosen" -> {
+                    if (step != null && value.isBoolean()) {
+                        step.setChosen(parser.getBooleanValue());
+                    }
+                }
+                case "pruned_by_heuristic", "pruned_by_cost", "cause" -> {
+                    if (step != null && value.isScalarValue()) {
+                        step.setPrunedReason(field.equals("cause") ? parser.getText() : field);
+                    }
+                }
+                default -> walkContainer(parser, value, currentTable, trace);
+            }
+        }
+    }
+
+    private static void walkContainer(JsonParser parser, JsonToken value, String table, OptimizerTrace trace) throws IOException {
+        if (value == JsonToken.START_OBJECT) {
+            walkObject(parser, table, trace);
+        } else if (value == JsonToken.START_ARRAY) {
+            walkArray(parser, table, trace);
+        }
+    }
+
+    /**
+     * 解析 range_analysis：全表扫描成本、不可用的索引和范围扫描候选
+     */
+    private static void handleRangeAnalysis(String table, JsonNode node, OptimizerTrace trace) {
+        if (node == null) {
+            return;
+        }
+        JsonNode tableScan = node.path("table_scan");
+        if (tableScan.isObject()) {
+            OptimizerTrace.TableScan scan = new OptimizerTrace.TableScan();
+            scan.setTable(table);
+            scan.setRows(number(tableScan, "rows"));
+            scan.setCost(number(tableScan, "cost"));
+            trace.getTableScans().add(scan);
+        }
+
+        for (JsonNode index : node.path("potential_range_indexes")) {
+            if (index.path("usable").asBoolean(true)) {
+                continue;
+            }
+            OptimizerTrace.RangeAlternative alternative = new OptimizerTrace.RangeAlternative();
+            alternative.setTable(table);
+            alternative.setIndex(index.path("index").asText(null));
+            alternative.setUsable(false);
+            alternative.setCause(index.path("cause").asText(null));
+            trace.getRangeAlternatives().add(alternative);
+        }
+
+        for (JsonNode candidate : node.path("analyzing_range_alternatives").path("range_scan_alternatives")) {
+            OptimizerTrace.RangeAlternative alternative = new OptimizerTrace.RangeAlternative();
+            alternative.setTable(table);
+            alternative.setIndex(candidate.path("index").asText(null));
+            candidate.path("ranges").forEach(range -> alternative.getRanges().add(range.asText()));
+            alternative.setRows(number(candidate, "rows"));
+            alternative.setCost(number(candidate, "cost"));
+            alternative.setChosen(candidate.path("chosen").asBoolean(false));
+            alternative.setCause(candidate.path("cause").asText(null));
+            trace.getRangeAlternatives().add(alternative);
+        }
+    }
+
+    /**
+     * 解析 best_access_path.considered_access_paths
+     */
+    private static void handleBestAccessPath(String table, List<String> planPrefix, JsonNode node, OptimizerTrace trace) {
+        if (node == null) {
+            return;
+        }
+        for (JsonNode path : node.path("considered_access_paths")) {
+            OptimizerTrace.AccessPath accessPath = new OptimizerTrace.AccessPath();
+            accessPath.setTable(table);
+            accessPath.setPlanPrefix(new ArrayList<>(planPrefix));
+            accessPath.setAccessType(path.path("access_type").asText(null));
+            accessPath.setIndex(path.has("index")
+                ? path.path("index").asText(null)
+                : path.path("range_details").path("used_index").asText(null));
+            accessPath.setRows(number(path, path.has("rows_to_scan") ? "rows_to_scan" : "rows"));
+            accessPath.setCost(number(path, "cost"));
+            accessPath.setChosen(path.path("chosen").asBoolean(false));
+            accessPath.setCause(path.path("cause").asText(null));
+            trace.getAccessPaths().add(accessPath);
+        }
+    }
+
+    /**
+     * 生成摘要："表 t：索引 X 被放弃，因为成本 A > B（所选：...）"
+     */
+    static List<String> summarize(OptimizerTrace trace) {
+        List<String> summary = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        // 范围分析：与同表的全表扫描及被选中的范围扫描比较
+        Map<String, Double> tableScanCost = new HashMap<>();
+        for (OptimizerTrace.TableScan scan : trace.getTableScans()) {
+            if (scan.getCost() != null) {
+                tableScanCost.put(scan.getTable(), scan.getCost());
+            }
+        }
+        for (OptimizerTrace.RangeAlternative alternative : trace.getRangeAlternatives()) {
+            if (alternative.isChosen() || !alternative.isUsable()) {
+                continue;
+            }
+            String line;
+            OptimizerTrace.RangeAlternative chosen = trace.getRangeAlternatives().stream()
+                .filter(a -> a.isChosen() && Objects.equals(a.getTable(), alternative.getTable()))
+                .min(Comparator.comparing(a -> a.getCost() != null ? a.getCost() : Double.MAX_VALUE))
+                .orElse(null);
+            Double bestCost = chosen != null ? chosen.getCost() : tableScanCost.get(alternative.getTable());
+            String bestName = chosen != null ? "范围扫描 " + chosen.getIndex() : "全表扫描";
+            if ("cost".equals(alternative.getCause()) && alternative.getCost() != null && bestCost != null) {
+                line = String.format("表 %s：索引 %s 的范围扫描被放弃，因为成本 %.2f > %.2f（%s）",
+                    alternative.getTable(), alternative.getIndex(), alternative.getCost(), bestCost, bestName);
+            } else {
+                line = String.format("表 %s：索引 %s 的范围扫描被放弃，原因：%s",
+                    alternative.getTable(), alternative.getIndex(), alternative.getCause());
+            }
+            if (seen.add(line)) {
+                summary.add(line);
+            }
+        }
+
+        // 访问路径：与同一部分计划中同表被选中的访问路径比较
+        Map<String, OptimizerTrace.AccessPath> chosenPaths = new HashMap<>();
+        for (OptimizerTrace.AccessPath path : trace.getAccessPaths()) {
+            if (path.isChosen() && path.getCost() != null) {
+                chosenPaths.merge(accessPathGroup(path), path,
+                    (a, b) -> a.getCost() <= b.getCost() ? a : b);
+            }
+        }
+        for (OptimizerTrace.AccessPath path : trace.getAccessPaths()) {
+            if (path.isChosen()) {
+                continue;
+            }
+            OptimizerTrace.AccessPath chosen = chosenPaths.get(accessPathGroup(path));
+            String candidate = describe(path);
+            String line;
+            if (chosen != null && path.getCost() != null && path.getCost() > chosen.getCost()) {
+                line = String.format("表 %s：%s 被放弃，因为成本 %.2f > %.2f（所选：%s）",
+                    path.getTable(), candidate, path.getCost(), chosen.getCost(), describe(chosen));
+            } else if (path.getCause() != null) {
+                line = String.format("表 %s：%s 被放弃，原因：%s", path.getTable(), candidate, path.getCause());
+            } else {
+                continue;
+            }
+            if (seen.add(line)) {
+                summary.add(line);
+            }
+        }
+
+        // 连接顺序搜索
+        if (!trace.getJoinSteps().isEmpty()) {
+            long pruned = trace.getJoinSteps().stream().filter(s -> s.getPrunedReason() != null).count();
+            summary.add(String.format("连接顺序搜索：共评估 %d 个部分计划，其中 %d 个被剪枝",
+                trace.getJoinSteps().size(), pruned));
+        }
+
+        if (trace.getMissingBytesBeyondMaxMemSize() != null && trace.getMissingBytesBeyondMaxMemSize() > 0) {
+            summary.add("跟踪被截断 " + trace.getMissingBytesBeyondMaxMemSize() + " 字节，可增大 optimizer_trace_max_mem_size");
+        }
+        return summary;
+    }
+
+    private static String accessPathGroup(OptimizerTrace.AccessPath path) {
+        return path.getTable() + "|" + String.join(",", path.getPlanPrefix());
+    }
+
+    private static String describe(OptimizerTrace.AccessPath path) {
+        if (path.getIndex() != null) {
+            return "索引 " + path.getIndex() + "（" + path.getAccessType() + "）";
+        }
+        return path.getAccessType() != null ? path.getAccessType() + " 访问" : "未知访问方式";
+    }
+
+    private static Double number(JsonNode node, String field) {
+        JsonNode value = node.path(field);
+        return value.isNumber() ? value.asDouble() : null;
+    }
+}
@@ -0,0 +1,125 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 摘要工具
+ *
+ * - 规范化：去掉注释和字面量、合并 IN 列表、统一大小写和空白，得到语句"指纹"
+ * - 摘要：对规范化后的 SQL 计算 SHA-256，用于按语句形态聚合和建立索引
+ */
+public final class SqlDigestUtils {
+
+    private static final Pattern BLOCK_COMMENT = Pattern.compile("(?s)/\\*.*?\\*/");
+    private static final Pattern LINE_COMMENT = Pattern.compile("(?m)(--|#)[^\\n]*$");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'|\"(?:[^\"\\\\]|\\\\.)*\"");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.`])-?\\d+(?:\\.\\d+)?(?:[eE][+-]?\\d+)?\\b");
+    private static final Pattern MYBATIS_PLACEHOLDER = Pattern.compile("[#$]\\{[^}]*}");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern VALUES_LIST = Pattern.compile("(?i)\\bvalues\\s*\\(([^()]*)\\)(?:\\s*,\\s*\\([^()]*\\))*");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern DIGEST_IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\.\\.\\.\\s*\\)");
+    private static final Pattern SPACE_AROUND_SYMBOL = Pattern.compile("\\s*([^\\w\\s?])\\s*");
+    private static final Pattern COMPACT_IN_LIST = Pattern.compile("\\bin\\(\\?(?:,\\?)*\\)");
+
+    private SqlDigestUtils() {
+    }
+
+    /**
+     * 规范化 SQL（用于生成语句指纹）
+     * 例如：SELECT * FROM t WHERE id IN (1, 2, 3) AND name = 'a' → select * from t where id in (?) and name = ?
+     */
+    public static String normalize(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        // MyBatis 占位符需先于行注释处理，避免 #{...} 被当作 # 注释
+        String result = MYBATIS_PLACEHOLDER.matcher(sql).replaceAll("?");
+        result = BLOCK_COMMENT.matcher(result).replaceAll(" ");
+        result = LINE_COMMENT.matcher(result).replaceAll(" ");
+        result = STRING_LITERAL.matcher(result).replaceAll("?");
+        result = NUMBER_LITERAL.matcher(result).replaceAll("?");
+        result = WHITESPACE.matcher(result).replaceAll(" ").trim().toLowerCase();
+        result = IN_LIST.matcher(result).replaceAll("in (?)");
+        result = VALUES_LIST.matcher(result).replaceAll("values ($1)");
+        return result;
+    }
+
+    /**
+     * 生成跨来源匹配用的键
+     * performance_schema 的 DIGEST_TEXT 会给标识符加反引号、在符号两侧加空格并把 IN 列表写成 IN (...)，
+     * 这里在 normalize 的基础上去掉这些差异，使 Mapper 中的 SQL 与 DIGEST_TEXT 得到相同的键
+     */
+    public static String matchKey(String sql) {
+        String result = DIGEST_IN_LIST.matcher(sql == null ? "" : sql).replaceAll("IN (?)");
+        result = normalize(result).replace("`", "");
+        result = SPACE_AROUND_SYMBOL.matcher(result).replaceAll("$1");
+        return COMPACT_IN_LIST.matcher(result).replaceAll("in(?)");
+    }
+
+    /**
+     * 计算 SQL 指纹摘要（规范化后的 SHA-256）
+     */
+    public static String digest(String sql) {
+        return sha256Hex(normalize(sql));
+    }
+
+    /**
+     * 计算 SQL 文本摘要（只统一引号外的空白，保留字面量，用于区分同一形态的不同具体语句）
+     * 字符串和带反引号的标识符中的空白原样保留，'a  b' 与 'a b' 是不同的语句
+     */
+    public static String textHash(String sql) {
+        if (sql == null) {
+            return sha256Hex("");
+        }
+        StringBuilder text = new StringBuilder(sql.length());
+        char quote = 0;
+        boolean space = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                text.append(c);
+                if (c == '\\' && quote != '`' && i + 1 < sql.length()) {
+                    text.append(sql.charAt(++i));
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (Character.isWhitespace(c)) {
+                space = true;
+            } else {
+                if (space && !text.isEmpty()) {
+                    text.append(' ');
+                }
+                space = false;
+                if (c == '\'' || c == '"' || c == '`') {
+                    quote = c;
+                }
+                text.append(c);
+            }
+        }
+        return sha256Hex(text.toString());
+    }
+
+    /**
+     * 计算字符串的 SHA-256 十六进制摘要
+     */
+    public static String sha256Hex(String text) {
+        return sha256Hex(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 计算字节数组的 SHA-256 十六进制摘要
+     */
+    public static String sha256Hex(byte[] bytes) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 占位符与列的绑定
+ *
+ * 按出现顺序识别每个 ? 占位符所比较的列和比较方式，例如：
+ * WHERE o.tenant_id = ? AND o.created_at BETWEEN ? AND ? AND status IN (?, ?)
+ * → tenant_id(EQ)、created_at(LOWER)、created_at(UPPER)、status(EQ)、status(EQ)
+ */
+public final class SqlPlaceholderBinder {
+
+    private static final String COLUMN = "([`\\w.]+)";
+
+    private static final Pattern BETWEEN_UPPER = Pattern.compile(
+        "(?is)" + COLUMN + "\\s+(?:NOT\\s+)?BETWEEN\\s+\\S+\\s+AND\\s*$");
+    private static final Pattern BETWEEN_LOWER = Pattern.compile(
+        "(?is)" + COLUMN + "\\s+(?:NOT\\s+)?BETWEEN\\s*$");
+    private static final Pattern IN_LIST = Pattern.compile(
+        "(?is)" + COLUMN + "\\s+(?:NOT\\s+)?IN\\s*\\((?:\\s*\\S+\\s*,)*\\s*$");
+    private static final Pattern IN_LIST_OPEN = Pattern.compile(
+        "(?is)\\bIN\\s*\\(\\s*$");
+    private static final Pattern LIKE = Pattern.compile(
+        "(?is)" + COLUMN + "\\s+(?:NOT\\s+)?LIKE\\s*$");
+    private static final Pattern COMPARISON = Pattern.compile(
+        "(?is)" + COLUMN + "\\s*(<=>|!=|<>|>=|<=|=|>|<)\\s*$");
+    private static final Pattern LIMIT = Pattern.compile(
+        "(?is)\\b(?:LIMIT|OFFSET)\\s*(?:\\S+\\s*,\\s*)?$");
+
+    /**
+     * 比较方式
+     */
+    public enum Role {
+        /**
+         * 等值类比较（=、<=>、!=、IN、LIKE）
+         */
+        EQ,
+        /**
+         * 范围下界（>、>=、BETWEEN 的第一个值）
+         */
+        LOWER,
+        /**
+         * 范围上界（<、<=、BETWEEN 的第二个值）
+         */
+        UPPER,
+        /**
+         * LIMIT / OFFSET
+         */
+        LIMIT,
+        /**
+         * 无法识别
+         */
+        UNKNOWN
+    }
+
+    /**
+     * 占位符绑定
+     *
+     * @param index 占位符序号（从 0 开始）
+     * @param column 比较的列名（去掉表别名和反引号），无法识别时为 null
+     * @param role 比较方式
+     */
+    public record Binding(int index, String column, Role role) {
+    }
+
+    private SqlPlaceholderBinder() {
+    }
+
+    /**
+     * 识别 SQL 中所有占位符绑定的列
+     */
+    public static List<Binding> bind(String sql) {
+        List<Binding> bindings = new ArrayList<>();
+        if (sql == null) {
+            return bindings;
+        }
+        boolean inString = false;
+        char quote = 0;
+        int index = 0;
+        // IN 列表中紧跟在前一个占位符和逗号之后的占位符沿用同一列（长列表超出回看窗口时仍能识别）
+        boolean inList = false;
+        int previous = -1;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (inString) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    inString = false;
+                }
+            } else if (c == '\'' || c == '"') {
+                inString = true;
+                quote = c;
+            } else if (c == '?') {
+                if (inList && sql.substring(previous + 1, i).trim().equals(",")) {
+                    Binding last = bindings.get(bindings.size() - 1);
+                    bindings.add(new Binding(index++, last.column(), last.role()));
+                } else {
+                    String before = sql.substring(Math.max(0, i - 300), i);
+                    Binding binding = bindOne(index++, before);
+                    inList = binding.column() != null && IN_LIST_OPEN.matcher(before).find();
+                    bindings.add(binding);
+                }
+                previous = i;
+            }
+        }
+        return bindings;
+    }
+
+    /**
+     * 把占位符前的等值比较改写为可以与 NULL 比较的形式，调用方在返回值后拼接 NULL：
+     * "col = " → "col IS "，"col != " / "col <> " → "col IS NOT "，"col <=> " 不变
+     *
+     * @param before 占位符之前的 SQL
+     * @return 改写后的 SQL，比较方式无法与 NULL 比较（IN、LIKE、范围比较）时返回 null
+     */
+    public static String nullComparisonPrefix(String before) {
+        String head = before.stripTrailing();
+        if (head.endsWith("<=>")) {
+            return before;
+        }
+        if (head.endsWith("!=") || head.endsWith("<>")) {
+            return head.substring(0, head.length() - 2).stripTrailing() + " IS NOT ";
+        }
+        if (head.endsWith("=") && !head.endsWith(">=") && !head.endsWith("<=")) {
+            return head.substring(0, head.length() - 1).stripTrailing() + " IS ";
+        }
+        return null;
+    }
+
+    private static Binding bindOne(int index, String before) {
+        Matcher matcher;
+        if ((matcher = BETWEEN_UPPER.matcher(before)).find()) {
+            return new Binding(index, columnName(matcher.group(1)), Role.UPPER);
+        }
+        if ((matcher = BETWEEN_LOWER.matcher(before)).find()) {
+            return new Binding(index, columnName(matcher.group(1)), Role.LOWER);
+        }
+        if ((matcher = IN_LIST.matcher(before)).find()) {
+            return new Binding(index, columnName(matcher.group(1)), Role.EQ);
+        }
+        if ((matcher = LIKE.matcher(before)).find()) {
+            return new Binding(index, columnName(matcher.group(1)), Role.EQ);
+        }
+        if ((matcher = COMPARISON.matcher(before)).find()) {
+            Role role = switch (matcher.group(2)) {
+                case ">", ">=" -> Role.LOWER;
+                case "<", "<=" -> Role.UPPER;
+                default -> Role.EQ;
+            };
+            return new Binding(index, columnName(matcher.group(1)), role);
+        }
+        if (LIMIT.matcher(before).find()) {
+            return new Binding(index, null, Role.LIMIT);
+        }
+        return new Binding(index, null, Role.UNKNOWN);
+    }
+
+    private static String columnName(String reference) {
+        String name = reference.replace("`", "");
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1) : name;
+    }
+}
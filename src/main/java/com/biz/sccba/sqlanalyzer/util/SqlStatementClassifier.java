@@ -0,0 +1,115 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 按顶层关键字判断 SQL 语句类型
+ *
+ * WITH 语句的类型由 CTE 定义之后的主语句决定：MySQL 8 允许 WITH ... UPDATE / DELETE，
+ * 只看开头的 WITH 会把它们当成查询，在自动提交下真实修改数据
+ */
+public final class SqlStatementClassifier {
+
+    private static final Set<String> STATEMENT_KEYWORDS = Set.of("SELECT", "INSERT", "UPDATE", "DELETE", "REPLACE");
+
+    private static final Set<String> WRITE_KEYWORDS = Set.of("INSERT", "UPDATE", "DELETE", "REPLACE");
+
+    private SqlStatementClassifier() {
+    }
+
+    /**
+     * 主语句关键字（SELECT/INSERT/UPDATE/DELETE/REPLACE），其他语句返回首个单词，无法识别时返回 null
+     *
+     * 去掉注释和开头的括号；WITH 语句跳过 CTE 定义（括号内）和字符串，取第一个顶层的语句关键字
+     */
+    public static String mainKeyword(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        String stripped = strip(sql);
+        int start = 0;
+        while (start < stripped.length() && (stripped.charAt(start) == '(' || Character.isWhitespace(stripped.charAt(start)))) {
+            start++;
+        }
+        String first = wordAt(stripped, start);
+        if (!"WITH".equals(first)) {
+            return first.isEmpty() ? null : first;
+        }
+        int depth = 0;
+        char quote = 0;
+        for (int i = start + first.length(); i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && isWordStart(stripped, i)) {
+                String word = wordAt(stripped, i);
+                if (STATEMENT_KEYWORDS.contains(word)) {
+                    return word;
+                }
+                i += word.length() - 1;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 是否为只读查询（主语句为 SELECT，且不带 FOR UPDATE / INTO）
+     */
+    public static boolean isReadOnly(String sql) {
+        if (!"SELECT".equals(mainKeyword(sql))) {
+            return false;
+        }
+        String stripped = strip(sql);
+        return !stripped.contains(" FOR UPDATE") && !stripped.contains(" INTO ");
+    }
+
+    /**
+     * 是否为写语句（主语句为 INSERT/UPDATE/DELETE/REPLACE）
+     *
+     * @throws IllegalArgumentException 不是 SELECT/INSERT/UPDATE/DELETE/REPLACE 语句（如 DDL）
+     */
+    public static boolean isWriteStatement(String sql) {
+        String keyword = mainKeyword(sql);
+        if ("SELECT".equals(keyword)) {
+            return false;
+        }
+        if (keyword != null && WRITE_KEYWORDS.contains(keyword)) {
+            return true;
+        }
+        throw new IllegalArgumentException("只支持 SELECT/INSERT/UPDATE/DELETE/REPLACE 语句");
+    }
+
+    private static String strip(String sql) {
+        return sql.replaceAll("(?s)/\\*.*?\\*/", " ")
+            .replaceAll("--[^\\n]*", " ")
+            .trim()
+            .toUpperCase(Locale.ROOT);
+    }
+
+    private static boolean isWordStart(String sql, int i) {
+        return Character.isLetter(sql.charAt(i)) && (i == 0 || !isWordChar(sql.charAt(i - 1)));
+    }
+
+    private static String wordAt(String sql, int start) {
+        int end = start;
+        while (end < sql.length() && isWordChar(sql.charAt(end))) {
+            end++;
+        }
+        return sql.substring(start, end);
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
@@ -0,0 +1,433 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import java.util.*;
+
+/**
+ * SQL 表与列的使用方式提取
+ *
+ * 识别语句引用了哪些表，以及每张表的哪些列出现在过滤、连接、排序、分组位置，例如：
+ * SELECT * FROM t_order o JOIN t_user u ON o.user_id = u.id WHERE o.create_time > ? ORDER BY o.id
+ * → t_order(REFERENCE)、t_user(REFERENCE)、t_order.user_id(JOIN)、t_user.id(JOIN)、
+ *   t_order.create_time(FILTER)、t_order.id(ORDER)
+ *
+ * 不带表别名的列只在语句（子查询内）只有一张表时才归属到该表；
+ * 同一谓词中比较了两张不同表的列时记为 JOIN，否则记为 FILTER
+ */
+public final class SqlTableUsageExtractor {
+
+    /**
+     * 使用方式
+     */
+    public enum Role {
+        /**
+         * 语句引用了该表（列为空）
+         */
+        REFERENCE,
+        /**
+         * WHERE / HAVING / ON 中与常量或参数比较的列
+         */
+        FILTER,
+        /**
+         * 与另一张表的列比较的列（连接条件）
+         */
+        JOIN,
+        /**
+         * ORDER BY 中的列
+         */
+        ORDER,
+        /**
+         * GROUP BY 中的列
+         */
+        GROUP
+    }
+
+    /**
+     * 一条使用记录
+     *
+     * @param table 表名（小写、去掉库名和反引号）
+     * @param column 列名（小写），REFERENCE 时为 null
+     * @param role 使用方式
+     */
+    public record Usage(String table, String column, Role role) {
+    }
+
+    private enum Clause {
+        OTHER, TABLES, PREDICATE, ON, ORDER, GROUP
+    }
+
+    private static final Set<String> KEYWORDS = Set.of(
+        "select", "from", "where", "and", "or", "not", "in", "is", "null", "like", "between", "exists",
+        "as", "on", "using", "join", "inner", "left", "right", "outer", "cross", "full", "straight_join",
+        "natural", "group", "order", "by", "having", "limit", "offset", "union", "all", "distinct",
+        "asc", "desc", "case", "when", "then", "else", "end", "interval", "true", "false", "escape",
+        "regexp", "rlike", "div", "mod", "xor", "any", "some", "binary", "collate", "with", "rollup",
+        "for", "update", "share", "lock", "mode", "set", "values", "value", "into", "insert", "delete",
+        "replace", "ignore", "low_priority", "high_priority", "duplicate", "key", "force", "use", "index",
+        "second", "minute", "hour", "day", "week", "month", "quarter", "year", "microsecond",
+        "current_date", "current_time", "current_timestamp", "unknown", "sounds", "separator");
+
+    private static final Set<String> CLAUSE_END = Set.of(
+        "where", "group", "order", "having", "limit", "union", "on", "using", "set", "values", "for",
+        "join", "inner", "left", "right", "cross", "full", "straight_join", "natural", "select", "window");
+
+    private SqlTableUsageExtractor() {
+    }
+
+    /**
+     * 提取 SQL 中的表和列使用方式（已去重，保持出现顺序）
+     */
+    public static List<Usage> extract(String sql) {
+        if (sql == null || sql.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = tokenize(sql);
+        Scope root = new Scope(null);
+        collectTables(tokens, root);
+
+        Set<Usage> usages = new LinkedHashSet<>();
+        root.allTables().forEach(table -> usages.add(new Usage(table, null, Role.REFERENCE)));
+        collectColumns(tokens, root, usages);
+        return new ArrayList<>(usages);
+    }
+
+    /**
+     * 语句涉及的表名（小写，按出现顺序）
+     */
+    public static List<String> tables(String sql) {
+        return extract(sql).stream()
+            .filter(usage -> usage.role() == Role.REFERENCE)
+            .map(Usage::table)
+            .toList();
+    }
+
+    /**
+     * 一层 SELECT（子查询各自一层）的表和别名
+     */
+    private static final class Scope {
+        private final Scope parent;
+        private final Map<String, String> aliases = new LinkedHashMap<>();
+        private final List<String> tables = new ArrayList<>();
+        private final List<Scope> children = new ArrayList<>();
+        private final Map<Integer, Scope> childByStart = new HashMap<>();
+
+        Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        void addTable(String table, String alias) {
+            if (!tables.contains(table)) {
+                tables.add(table);
+            }
+            aliases.put(table, table);
+            if (alias != null) {
+                aliases.put(alias, table);
+            }
+        }
+
+        String resolve(String qualifier) {
+            for (Scope scope = this; scope != null; scope = scope.parent) {
+                String table = scope.aliases.get(qualifier);
+                if (table != null) {
+                    return table;
+                }
+            }
+            return null;
+        }
+
+        String single() {
+            return tables.size() == 1 ? tables.get(0) : null;
+        }
+
+        Set<String> allTables() {
+            Set<String> all = new LinkedHashSet<>(tables);
+            children.forEach(child -> all.addAll(child.allTables()));
+            return all;
+        }
+    }
+
+    /**
+     * 第一遍：按括号层级划分作用域，收集 FROM / JOIN / UPDATE / INTO 后面的表和别名
+     */
+    private static void collectTables(List<String> tokens, Scope root) {
+        Deque<Scope> scopes = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        scopes.push(root);
+        depths.push(0);
+        int depth = 0;
+        Clause clause = Clause.OTHER;
+        int tablesDepth = 0;
+        boolean expectTable = false;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            String lower = token.toLowerCase(Locale.ROOT);
+            if (token.equals("(")) {
+                depth++;
+                if (i + 1 < tokens.size() && tokens.get(i + 1).equalsIgnoreCase("select") && i > 0) {
+                    Scope child = new Scope(scopes.peek());
+                    scopes.peek().children.add(child);
+                    root.childByStart.put(i, child);
+                    scopes.push(child);
+                    depths.push(depth);
+                }
+                expectTable = false;
+                continue;
+            }
+            if (token.equals(")")) {
+                if (depths.size() > 1 && depths.peek() == depth) {
+                    scopes.pop();
+                    depths.pop();
+                    clause = Clause.OTHER;
+                }
+                depth--;
+                continue;
+            }
+            if (lower.equals("from") || lower.equals("join") || lower.equals("straight_join")
+                || lower.equals("into") || (lower.equals("update") && !isForUpdate(tokens, i))) {
+                clause = Clause.TABLES;
+                tablesDepth = depth;
+                expectTable = true;
+                continue;
+            }
+            if (clause == Clause.TABLES && depth == tablesDepth && token.equals(",")) {
+                expectTable = true;
+                continue;
+            }
+            if (CLAUSE_END.contains(lower)) {
+                clause = Clause.OTHER;
+                expectTable = false;
+                continue;
+            }
+            if (expectTable && isIdentifier(token)) {
+                String table = tableName(token);
+                String alias = null;
+                int next = i + 1;
+                if (next < tokens.size() && tokens.get(next).equalsIgnoreCase("as")) {
+                    next++;
+                }
+                if (next < tokens.size() && isIdentifier(tokens.get(next))
+                    && !KEYWORDS.contains(tokens.get(next).toLowerCase(Locale.ROOT))
+                    && !CLAUSE_END.contains(tokens.get(next).toLowerCase(Locale.ROOT))) {
+                    alias = unquote(tokens.get(next)).toLowerCase(Locale.ROOT);
+                    i = next;
+                }
+                scopes.peek().addTable(table, alias);
+                expectTable = false;
+            } else if (expectTable) {
+                expectTable = false;
+            }
+        }
+    }
+
+    /**
+     * 第二遍：按子句把列归类，谓词按 AND / OR 切分后判断是否为连接条件
+     */
+    private static void collectColumns(List<String> tokens, Scope root, Set<Usage> usages) {
+        Deque<Scope> scopes = new ArrayDeque<>();
+        Deque<Clause> clauses = new ArrayDeque<>();
+        Deque<Boolean> scopeFrames = new ArrayDeque<>();
+        scopes.push(root);
+        Clause clause = Clause.OTHER;
+        List<String[]> predicate = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            String lower = token.toLowerCase(Locale.ROOT);
+            if (token.equals("(")) {
+                Scope child = root.childByStart.get(i);
+                clauses.push(clause);
+                scopeFrames.push(child != null);
+                if (child != null) {
+                    flushPredicate(predicate, clause, usages);
+                    scopes.push(child);
+                    clause = Clause.OTHER;
+                }
+                continue;
+            }
+            if (token.equals(")")) {
+                if (!scopeFrames.isEmpty()) {
+                    boolean wasScope = scopeFrames.pop();
+                    if (wasScope) {
+                        flushPredicate(predicate, clause, usages);
+                        scopes.pop();
+                    }
+                    clause = clauses.pop();
+                }
+                continue;
+            }
+            Clause next = switch (lower) {
+                case "where", "having" -> Clause.PREDICATE;
+                case "on" -> Clause.ON;
+                case "group" -> followedByBy(tokens, i) ? Clause.GROUP : null;
+                case "order" -> followedByBy(tokens, i) ? Clause.ORDER : null;
+                default -> CLAUSE_END.contains(lower) || lower.equals("from") || lower.equals("into")
+                    || lower.equals("update") ? Clause.OTHER : null;
+            };
+            if (next != null) {
+                flushPredicate(predicate, clause, usages);
+                clause = next;
+                continue;
+            }
+            if ((clause == Clause.PREDICATE || clause == Clause.ON) && (lower.equals("and") || lower.equals("or"))) {
+                if (!isBetweenAnd(tokens, i)) {
+                    flushPredicate(predicate, clause, usages);
+                }
+                continue;
+            }
+            if (clause == Clause.OTHER || clause == Clause.TABLES || !isIdentifier(token)) {
+                continue;
+            }
+            if (i + 1 < tokens.size() && tokens.get(i + 1).equals("(")) {
+                // 函数名
+                continue;
+            }
+            String[] column = resolveColumn(token, scopes.peek());
+            if (column == null) {
+                continue;
+            }
+            switch (clause) {
+                case ORDER -> usages.add(new Usage(column[0], column[1], Role.ORDER));
+                case GROUP -> usages.add(new Usage(column[0], column[1], Role.GROUP));
+                default -> predicate.add(column);
+            }
+        }
+        flushPredicate(predicate, clause, usages);
+    }
+
+    private static void flushPredicate(List<String[]> predicate, Clause clause, Set<Usage> usages) {
+        if (predicate.isEmpty()) {
+            return;
+        }
+        long tables = predicate.stream().map(column -> column[0]).distinct().count();
+        Role role = tables > 1 ? Role.JOIN : Role.FILTER;
+        predicate.forEach(column -> usages.add(new Usage(column[0], column[1], role)));
+        predicate.clear();
+    }
+
+    /**
+     * 把列引用解析为 {表, 列}，无法确定所属表时返回 null
+     */
+    private static String[] resolveColumn(String token, Scope scope) {
+        String lower = token.toLowerCase(Locale.ROOT);
+        if (KEYWORDS.contains(lower) || CLAUSE_END.contains(lower)) {
+            return null;
+        }
+        String[] parts = token.split("\\.");
+        String column = unquote(parts[parts.length - 1]).toLowerCase(Locale.ROOT);
+        if (column.isEmpty() || column.equals("*")) {
+            return null;
+        }
+        String table;
+        if (parts.length >= 2) {
+            table = scope.resolve(unquote(parts[parts.length - 2]).toLowerCase(Locale.ROOT));
+        } else {
+            table = scope.single();
+        }
+        return table == null ? null : new String[]{table, column};
+    }
+
+    private static boolean followedByBy(List<String> tokens, int i) {
+        return i + 1 < tokens.size() && tokens.get(i + 1).equalsIgnoreCase("by");
+    }
+
+    private static boolean isForUpdate(List<String> tokens, int i) {
+        if (i == 0) {
+            return false;
+        }
+        String previous = tokens.get(i - 1).toLowerCase(Locale.ROOT);
+        return previous.equals("for") || previous.equals("key") || previous.equals("duplicate");
+    }
+
+    /**
+     * BETWEEN x AND y 中的 AND 不是谓词分隔符
+     */
+    private static boolean isBetweenAnd(List<String> tokens, int i) {
+        for (int j = i - 1; j >= 0 && j >= i - 4; j--) {
+            String token = tokens.get(j).toLowerCase(Locale.ROOT);
+            if (token.equals("between")) {
+                return true;
+            }
+            if (token.equals("and") || token.equals("or")) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 规范化调用方给出的表名或列名：去掉库名（表别名）前缀和反引号并转小写，与提取结果中的名称一致
+     */
+    public static String normalizeName(String identifier) {
+        String name = identifier == null ? "" : identifier.trim().replace("`", "");
+        return name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isIdentifier(String token) {
+        char first = token.charAt(0);
+        return first == '`' || Character.isLetter(first) || first == '_';
+    }
+
+    private static String tableName(String token) {
+        String[] parts = token.split("\\.");
+        return unquote(parts[parts.length - 1]).toLowerCase(Locale.ROOT);
+    }
+
+    private static String unquote(String identifier) {
+        return identifier.replace("`", "");
+    }
+
+    /**
+     * 词法切分：标识符（可带 . 和反引号）、数字、括号、逗号和其他符号；去掉注释，字符串字面量替换为 ?
+     */
+    private static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-' || c == '#') {
+                while (i < length && sql.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == '\'' || c == '"') {
+                i++;
+                while (i < length && sql.charAt(i) != c) {
+                    if (sql.charAt(i) == '\\') {
+                        i++;
+                    }
+                    i++;
+                }
+                i++;
+                tokens.add("?");
+            } else if (c == '`' || Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < length) {
+                    char ch = sql.charAt(i);
+                    if (ch == '`') {
+                        int end = sql.indexOf('`', i + 1);
+                        i = end < 0 ? length : end + 1;
+                    } else if (Character.isLetterOrDigit(ch) || ch == '_' || ch == '$'
+                        || (ch == '.' && i + 1 < length && sql.charAt(i + 1) != '.')) {
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                tokens.add(sql.substring(start, i));
+            } else if (Character.isDigit(c)) {
+                int start = i;
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add(sql.substring(start, i));
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,221 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 列取值分布
+ *
+ * 从 MySQL 8 直方图（information_schema.COLUMN_STATISTICS）或采样计数中
+ * 选出覆盖整个分布的代表值：最高频值、低频值、最小/最大值、分位点和 NULL
+ */
+public final class ValueDistribution {
+
+    public static final String SOURCE_HISTOGRAM = "HISTOGRAM";
+    public static final String SOURCE_SAMPLE = "SAMPLE";
+
+    /**
+     * 代表值
+     *
+     * @param label 取值类别（MOST_FREQUENT、RARE、MIN、MAX、P25、P50、P75、NULL，重复的值合并为 "MIN/RARE"）
+     * @param value 取值
+     * @param frequency 该值（或所在桶）占比，未知时为 null
+     */
+    public record Candidate(String label, Object value, Double frequency) {
+    }
+
+    private static final double[] PERCENTILES = {0.25, 0.5, 0.75};
+
+    private final String source;
+    private final List<Candidate> candidates;
+
+    private ValueDistribution(String source, List<Candidate> candidates) {
+        this.source = source;
+        this.candidates = candidates;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public List<Candidate> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * 基准值：其他列变化时该列保持的取值（优先中位数）
+     */
+    public Object representative() {
+        for (Candidate candidate : candidates) {
+            if (candidate.label().contains("P50")) {
+                return candidate.value();
+            }
+        }
+        return candidates.stream().map(Candidate::value).filter(Objects::nonNull).findFirst().orElse(null);
+    }
+
+    /**
+     * 从按值排序的采样计数构建分布
+     *
+     * @param sortedValues 按值升序排列的不同取值
+     * @param counts 每个取值的出现次数
+     * @param hasNulls 列中是否存在 NULL
+     */
+    public static ValueDistribution fromCounts(List<Object> sortedValues, List<Long> counts, boolean hasNulls) {
+        List<Double> weights = counts.stream().map(Long::doubleValue).toList();
+        return fromWeights(sortedValues, weights, hasNulls, SOURCE_SAMPLE);
+    }
+
+    /**
+     * 从 COLUMN_STATISTICS.HISTOGRAM JSON 构建分布（支持 singleton 和 equi-height）
+     */
+    public static ValueDistribution fromHistogram(JsonNode histogram) {
+        String type = histogram.path("histogram-type").asText();
+        boolean hasNulls = histogram.path("null-values").asDouble(0) > 0;
+        JsonNode buckets = histogram.path("buckets");
+
+        if ("singleton".equals(type)) {
+            List<Object> values = new ArrayList<>();
+            List<Double> weights = new ArrayList<>();
+            double previous = 0;
+            for (JsonNode bucket : buckets) {
+                double cumulative = bucket.get(1).asDouble();
+                values.add(decode(bucket.get(0)));
+                weights.add(cumulative - previous);
+                previous = cumulative;
+            }
+            return fromWeights(values, weights, hasNulls, SOURCE_HISTOGRAM);
+        }
+
+        // equi-height：[下界, 上界, 累计频率, 不同值个数]
+        Map<String, Candidate> result = new LinkedHashMap<>();
+        if (buckets.isEmpty()) {
+            return new ValueDistribution(SOURCE_HISTOGRAM, List.of());
+        }
+        double previous = 0;
+        JsonNode frequentBucket = null;
+        JsonNode rareBucket = null;
+        double frequentDensity = -1;
+        double rareDensity = Double.MAX_VALUE;
+        List<Double> bucketFrequencies = new ArrayList<>();
+        for (JsonNode bucket : buckets) {
+            double frequency = bucket.get(2).asDouble() - previous;
+            previous = bucket.get(2).asDouble();
+            bucketFrequencies.add(frequency);
+            double density = frequency / Math.max(1, bucket.get(3).asLong(1));
+            if (density > frequentDensity) {
+                frequentDensity = density;
+                frequentBucket = bucket;
+            }
+            if (density < rareDensity) {
+                rareDensity = density;
+                rareBucket = bucket;
+            }
+        }
+        add(result, "MOST_FREQUENT", decode(frequentBucket.get(0)), frequentDensity);
+        add(result, "RARE", decode(rareBucket.get(0)), rareDensity);
+        add(result, "MIN", decode(buckets.get(0).get(0)), null);
+        add(result, "MAX", decode(buckets.get(buckets.size() - 1).get(1)), null);
+        for (double percentile : PERCENTILES) {
+            for (JsonNode bucket : buckets) {
+                if (bucket.get(2).asDouble() >= percentile) {
+                    add(result, "P" + Math.round(percentile * 100), decode(bucket.get(1)), null);
+                    break;
+                }
+            }
+        }
+        if (hasNulls) {
+            add(result, "NULL", null, histogram.path("null-values").asDouble());
+        }
+        return new ValueDistribution(SOURCE_HISTOGRAM, new ArrayList<>(result.values()));
+    }
+
+    private static ValueDistribution fromWeights(List<Object> sortedValues, List<Double> weights,
+                                                 boolean hasNulls, String source) {
+        Map<String, Candidate> result = new LinkedHashMap<>();
+        if (sortedValues.isEmpty()) {
+            if (hasNulls) {
+                add(result, "NULL", null, null);
+            }
+            return new ValueDistribution(source, new ArrayList<>(result.values()));
+        }
+        double total = weights.stream().mapToDouble(Double::doubleValue).sum();
+        if (total <= 0) {
+            total = 1;
+        }
+
+        // 按频率排序的下标
+        List<Integer> byFrequency = new ArrayList<>();
+        for (int i = 0; i < sortedValues.size(); i++) {
+            byFrequency.add(i);
+        }
+        byFrequency.sort(Comparator.comparing(weights::get));
+
+        // 最高频和最低频各取 1 个，第 2 个只在明显高于（低于）平均频率时才取
+        double average = total / sortedValues.size();
+        for (int i = 0; i < Math.min(2, byFrequency.size()); i++) {
+            int idx = byFrequency.get(byFrequency.size() - 1 - i);
+            if (i == 0 || weights.get(idx) > average) {
+                add(result, "MOST_FREQUENT", sortedValues.get(idx), weights.get(idx) / total);
+            }
+        }
+        for (int i = 0; i < Math.min(2, byFrequency.size()); i++) {
+            int idx = byFrequency.get(i);
+            if (i == 0 || weights.get(idx) < average) {
+                add(result, "RARE", sortedValues.get(idx), weights.get(idx) / total);
+            }
+        }
+        add(result, "MIN", sortedValues.get(0), weights.get(0) / total);
+        add(result, "MAX", sortedValues.get(sortedValues.size() - 1), weights.get(sortedValues.size() - 1) / total);
+
+        double cumulative = 0;
+        int next = 0;
+        for (int i = 0; i < sortedValues.size() && next < PERCENTILES.length; i++) {
+            cumulative += weights.get(i) / total;
+            while (next < PERCENTILES.length && cumulative >= PERCENTILES[next]) {
+                add(result, "P" + Math.round(PERCENTILES[next] * 100), sortedValues.get(i), weights.get(i) / total);
+                next++;
+            }
+        }
+        if (hasNulls) {
+            add(result, "NULL", null, null);
+        }
+        return new ValueDistribution(source, new ArrayList<>(result.values()));
+    }
+
+    /**
+     * 添加代表值，同一取值只保留一次并合并类别
+     */
+    private static void add(Map<String, Candidate> result, String label, Object value, Double frequency) {
+        String key = value == null ? "\u0000NULL" : String.valueOf(value);
+        Candidate existing = result.get(key);
+        if (existing == null) {
+            result.put(key, new Candidate(label, value, frequency));
+        } else if (!Arrays.asList(existing.label().split("/")).contains(label)) {
+            result.put(key, new Candidate(existing.label() + "/" + label, value,
+                existing.frequency() != null ? existing.frequency() : frequency));
+        }
+    }
+
+    /**
+     * 解码直方图中的值（字符串类型为 "base64:typeNNN:..." 格式）
+     */
+    private static Object decode(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (node.isNumber()) {
+            return node.numberValue();
+        }
+        String text = node.asText();
+        if (text.startsWith("base64:type")) {
+            int colon = text.indexOf(':', "base64:".length());
+            if (colon > 0) {
+                return new String(Base64.getDecoder().decode(text.substring(colon + 1)), StandardCharsets.UTF_8);
+            }
+        }
+        return text;
+    }
+}
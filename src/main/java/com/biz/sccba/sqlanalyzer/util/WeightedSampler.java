@@ -0,0 +1,80 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按权重随机抽取元素
+ * 预先计算累计权重，每次抽取为一次二分查找，可在多线程间共享
+ */
+public final class WeightedSampler<T> {
+
+    private final List<T> items;
+    private final double[] cumulative;
+    private final double total;
+
+    private WeightedSampler(List<T> items, double[] cumulative) {
+        this.items = items;
+        this.cumulative = cumulative;
+        this.total = cumulative.length > 0 ? cumulative[cumulative.length - 1] : 0;
+    }
+
+    /**
+     * 构建抽样器，忽略权重不大于 0 的元素
+     *
+     * @param weights 元素到权重的映射（迭代顺序决定相同随机数下的抽取结果）
+     */
+    public static <T> WeightedSampler<T> of(Map<T, Double> weights) {
+        List<T> items = new ArrayList<>();
+        double[] cumulative = new double[weights.size()];
+        double sum = 0;
+        for (Map.Entry<T, Double> entry : weights.entrySet()) {
+            if (entry.getValue() == null || entry.getValue() <= 0) {
+                continue;
+            }
+            sum += entry.getValue();
+            cumulative[items.size()] = sum;
+            items.add(entry.getKey());
+        }
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个权重大于 0 的元素");
+        }
+        return new WeightedSampler<>(items, Arrays.copyOf(cumulative, items.size()));
+    }
+
+    /**
+     * 随机抽取一个元素
+     */
+    public T next() {
+        return pick(ThreadLocalRandom.current().nextDouble() * total);
+    }
+
+    /**
+     * 按 [0, 总权重) 内的位置取元素
+     */
+    T pick(double point) {
+        int index = Arrays.binarySearch(cumulative, point);
+        // 命中边界时属于下一个区间；未命中时 binarySearch 返回 -(插入点) - 1
+        index = index >= 0 ? index + 1 : -index - 1;
+        return items.get(Math.min(index, items.size() - 1));
+    }
+
+    /**
+     * 元素所占比例
+     */
+    public double share(T item) {
+        int index = items.indexOf(item);
+        if (index < 0) {
+            return 0;
+        }
+        double previous = index == 0 ? 0 : cumulative[index - 1];
+        return (cumulative[index] - previous) / total;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+}
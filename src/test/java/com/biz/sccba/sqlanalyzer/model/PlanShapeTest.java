@@ -0,0 +1,87 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 执行计划结构摘要与对比单元测试
+ */
+class PlanShapeTest {
+
+    private static final String JOIN_PLAN = """
+        {"query_block": {"select_id": 1, "nested_loop": [
+          {"table": {"table_name": "o", "access_type": "ref", "key": "idx_status", "rows_examined_per_scan": 100}},
+          {"table": {"table_name": "u", "access_type": "eq_ref", "key": "PRIMARY", "rows_examined_per_scan": 1}}
+        ]}}
+        """;
+
+    private static final String REGRESSED_PLAN = """
+        {"query_block": {"select_id": 1, "nested_loop": [
+          {"table": {"table_name": "o", "access_type": "ALL", "rows_examined_per_scan": 500000}},
+          {"table": {"table_name": "u", "access_type": "eq_ref", "key": "PRIMARY", "rows_examined_per_scan": 1}}
+        ]}}
+        """;
+
+    @Test
+    @DisplayName("测试从 JSON 提取表访问信息（保持连接顺序）")
+    void testFromRawJson() {
+        PlanShape shape = PlanShape.fromRawJson(JOIN_PLAN);
+
+        assertEquals(2, shape.getTables().size());
+        assertEquals("o", shape.getTables().get(0).getTableName());
+        assertEquals("idx_status", shape.getTables().get(0).getKey());
+        assertEquals(100L, shape.getTables().get(0).getRowsExaminedPerScan());
+        assertEquals("u", shape.getTables().get(1).getTableName());
+    }
+
+    @Test
+    @DisplayName("测试相同计划无差异")
+    void testDiff_NoChange() {
+        PlanShape shape = PlanShape.fromRawJson(JOIN_PLAN);
+
+        assertTrue(shape.diff(PlanShape.fromRawJson(JOIN_PLAN), 10.0).isEmpty());
+        assertEquals(shape.getSignature(), PlanShape.fromRawJson(JOIN_PLAN).getSignature());
+    }
+
+    @Test
+    @DisplayName("测试退化为全表扫描")
+    void testDiff_Regression() {
+        List<PlanChange> changes = PlanShape.fromRawJson(REGRESSED_PLAN).diff(PlanShape.fromRawJson(JOIN_PLAN), 10.0);
+
+        assertEquals(3, changes.size());
+        assertTrue(changes.stream().allMatch(c -> c.severity() == PlanChange.Severity.HIGH));
+        assertTrue(changes.stream().anyMatch(c -> "ACCESS_TYPE_CHANGED".equals(c.changeType())));
+        assertTrue(changes.stream().anyMatch(c -> "INDEX_LOST".equals(c.changeType())));
+        assertTrue(changes.stream().anyMatch(c -> "ROWS_ESTIMATE_JUMP".equals(c.changeType())));
+    }
+
+    @Test
+    @DisplayName("测试计划改善为低严重度")
+    void testDiff_Improvement() {
+        List<PlanChange> changes = PlanShape.fromRawJson(JOIN_PLAN).diff(PlanShape.fromRawJson(REGRESSED_PLAN), 10.0);
+
+        assertFalse(changes.isEmpty());
+        assertTrue(changes.stream().allMatch(c -> c.severity() == PlanChange.Severity.LOW));
+    }
+
+    @Test
+    @DisplayName("测试连接顺序变化")
+    void testDiff_JoinOrder() {
+        String reordered = """
+            {"query_block": {"nested_loop": [
+              {"table": {"table_name": "u", "access_type": "eq_ref", "key": "PRIMARY", "rows_examined_per_scan": 1}},
+              {"table": {"table_name": "o", "access_type": "ref", "key": "idx_status", "rows_examined_per_scan": 100}}
+            ]}}
+            """;
+
+        List<PlanChange> changes = PlanShape.fromRawJson(reordered).diff(PlanShape.fromRawJson(JOIN_PLAN), 10.0);
+
+        assertEquals(1, changes.size());
+        assertEquals("JOIN_ORDER_CHANGED", changes.get(0).changeType());
+        assertEquals(PlanChange.Severity.MEDIUM, changes.get(0).severity());
+    }
+}
@@ -0,0 +1,78 @@
+package com.biz.sccba.sqlanalyzer.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EXPLAIN ANALYZE TREE 解析单元测试
+ */
+class PlanTreeNodeTest {
+
+    private static final String TREE = """
+        -> Nested loop inner join  (cost=4.95 rows=9) (actual time=0.153..0.200 rows=9 loops=1)
+            -> Filter: (o.status = 'PAID')  (cost=2.83..1.80 rows=9) (actual time=0.097..0.100 rows=9 loops=1)
+                -> Table scan on o  (cost=1.15 rows=9) (actual time=0.090..0.095 rows=9 loops=1)
+            -> Index lookup on u using idx_user (id=o.user_id)  (cost=0.35 rows=1) (actual time=0.010..0.011 rows=250 loops=9)
+                -> Single-row index lookup on x using PRIMARY (id=u.x_id)  (cost=0.25 rows=1) (never executed)
+        """;
+
+    @Test
+    @DisplayName("测试解析 TREE 输出 - 树结构")
+    void testParse_TreeStructure() {
+        PlanTreeNode root = PlanTreeNode.parse(TREE);
+
+        assertNotNull(root);
+        assertEquals("Nested loop inner join", root.getDescription());
+        assertEquals(2, root.getChildren().size());
+        assertEquals(5, root.flatten().size());
+        assertEquals(1, root.getChildren().get(0).getChildren().size());
+    }
+
+    @Test
+    @DisplayName("测试解析 TREE 输出 - 估算值与实际值")
+    void testParse_EstimatesAndActuals() {
+        PlanTreeNode filter = PlanTreeNode.parse(TREE).getChildren().get(0);
+
+        assertEquals("Filter: (o.status = 'PAID')", filter.getDescription());
+        assertEquals(1.80, filter.getEstimatedCost(), 0.0001);
+        assertEquals(9.0, filter.getEstimatedRows(), 0.0001);
+        assertEquals(0.097, filter.getActualFirstRowMs(), 0.0001);
+        assertEquals(0.100, filter.getActualLastRowMs(), 0.0001);
+        assertEquals(9.0, filter.getActualRows(), 0.0001);
+        assertEquals(1L, filter.getLoops());
+        assertFalse(filter.isMisestimated());
+    }
+
+    @Test
+    @DisplayName("测试估算失真节点识别")
+    void testFindMisestimatedNodes() {
+        PlanTreeNode root = PlanTreeNode.parse(TREE);
+
+        List<PlanTreeNode> misestimated = root.findMisestimatedNodes();
+        assertEquals(1, misestimated.size());
+        assertTrue(misestimated.get(0).getDescription().startsWith("Index lookup on u"));
+        assertEquals(250.0, misestimated.get(0).getRowEstimateRatio(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("测试未执行节点")
+    void testNeverExecutedNode() {
+        PlanTreeNode lookup = PlanTreeNode.parse(TREE).getChildren().get(1).getChildren().get(0);
+
+        assertTrue(lookup.isNeverExecuted());
+        assertNull(lookup.getActualRows());
+        assertNull(lookup.getRowEstimateRatio());
+        assertFalse(lookup.isMisestimated());
+    }
+
+    @Test
+    @DisplayName("测试空输入")
+    void testParse_Empty() {
+        assertNull(PlanTreeNode.parse(null));
+        assertNull(PlanTreeNode.parse("  "));
+    }
+}
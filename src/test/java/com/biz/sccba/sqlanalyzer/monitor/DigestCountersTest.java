@@ -0,0 +1,47 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 摘要计数器差值单元测试
+ */
+class DigestCountersTest {
+
+    private static DigestCounters counters(long exec, long latency, long examined) {
+        return new DigestCounters(exec, latency, examined, exec, 0, exec / 2, exec, 0, 0, 0);
+    }
+
+    @Test
+    @DisplayName("测试计算区间增量")
+    void testMinus() {
+        DigestCounters delta = counters(150, 9_000, 4_000).minus(counters(100, 5_000, 1_000));
+
+        assertEquals(50, delta.execCount());
+        assertEquals(4_000, delta.totalLatencyUs());
+        assertEquals(3_000, delta.rowsExamined());
+        assertEquals(25, delta.tmpDiskTables());
+        assertEquals(50, delta.noIndexUsed());
+    }
+
+    @Test
+    @DisplayName("测试计数器被重置时使用当前值")
+    void testMinus_Reset() {
+        DigestCounters current = counters(10, 800, 30);
+
+        assertSame(current, current.minus(counters(100, 5_000, 1_000)));
+        assertSame(current, current.minus(null));
+    }
+
+    @Test
+    @DisplayName("测试累加区间")
+    void testPlus() {
+        DigestCounters sum = counters(10, 100, 5).plus(counters(20, 300, 7));
+
+        assertEquals(30, sum.execCount());
+        assertEquals(400, sum.totalLatencyUs());
+        assertEquals(12, sum.rowsExamined());
+    }
+}
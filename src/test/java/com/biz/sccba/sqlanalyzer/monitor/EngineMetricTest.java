@@ -0,0 +1,86 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * InnoDB 引擎指标推导单元测试
+ */
+class EngineMetricTest {
+
+    private static final String ENGINE_STATUS = """
+        ------------
+        TRANSACTIONS
+        ------------
+        Trx id counter 1234567
+        Purge done for trx's n:o < 1234000 undo n:o < 0 state: running but idle
+        History list length 4821
+        ---
+        LOG
+        ---
+        Log sequence number          9000000
+        Log buffer assigned up to    9000000
+        Log flushed up to            9000000
+        Last checkpoint at           8000000
+        """;
+
+    @Test
+    @DisplayName("测试解析 SHOW ENGINE INNODB STATUS")
+    void testParseEngineStatus() {
+        Map<String, Long> values = InnoDBStatusParser.parse(ENGINE_STATUS);
+
+        assertEquals(Long.valueOf(4821), values.get(InnoDBStatusParser.HISTORY_LIST_LENGTH));
+        assertEquals(Long.valueOf(9000000), values.get(InnoDBStatusParser.LOG_SEQUENCE_NUMBER));
+        assertEquals(Long.valueOf(8000000), values.get(InnoDBStatusParser.LAST_CHECKPOINT));
+        assertTrue(InnoDBStatusParser.parse(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试由计数器推导速率和比例")
+    void testDeriveAll() {
+        Map<String, Long> previous = new HashMap<>(Map.of(
+            "Innodb_buffer_pool_read_requests", 10_000L,
+            "Innodb_buffer_pool_reads", 100L,
+            "Innodb_pages_read", 1_000L,
+            "Innodb_row_lock_waits", 10L,
+            "Innodb_row_lock_time", 100L,
+            "Innodb_os_log_written", 0L));
+        Map<String, Long> current = new HashMap<>(Map.of(
+            "Innodb_buffer_pool_read_requests", 20_000L,
+            "Innodb_buffer_pool_reads", 200L,
+            "Innodb_pages_read", 1_500L,
+            "Innodb_row_lock_waits", 14L,
+            "Innodb_row_lock_time", 300L,
+            "Innodb_os_log_written", 10_000_000L,
+            "Innodb_buffer_pool_pages_dirty", 250L,
+            "Innodb_buffer_pool_pages_total", 1000L,
+            EngineMetric.REDO_LOG_CAPACITY, 4_000_000L));
+        current.putAll(InnoDBStatusParser.parse(ENGINE_STATUS));
+
+        double[] values = EngineMetric.deriveAll(previous, current, 10);
+
+        assertEquals(0.99, values[EngineMetric.BUFFER_POOL_HIT_RATIO.ordinal()], 1e-9);
+        assertEquals(50.0, values[EngineMetric.PAGES_READ_PER_SEC.ordinal()], 1e-9);
+        assertEquals(0.25, values[EngineMetric.DIRTY_PAGES_RATIO.ordinal()], 1e-9);
+        assertEquals(0.4, values[EngineMetric.ROW_LOCK_WAITS_PER_SEC.ordinal()], 1e-9);
+        assertEquals(50.0, values[EngineMetric.ROW_LOCK_WAIT_AVG_MS.ordinal()], 1e-9);
+        assertEquals(4821.0, values[EngineMetric.HISTORY_LIST_LENGTH.ordinal()]);
+        assertEquals(1_000_000.0, values[EngineMetric.LOG_BYTES_WRITTEN_PER_SEC.ordinal()], 1e-9);
+        assertEquals(0.25, values[EngineMetric.CHECKPOINT_AGE_RATIO.ordinal()], 1e-9);
+        assertTrue(Double.isNaN(values[EngineMetric.PAGES_WRITTEN_PER_SEC.ordinal()]));
+    }
+
+    @Test
+    @DisplayName("测试计数器回退时按 0 计")
+    void testCounterReset() {
+        double[] values = EngineMetric.deriveAll(
+            Map.of("Innodb_pages_read", 5_000L), Map.of("Innodb_pages_read", 100L), 10);
+
+        assertEquals(0.0, values[EngineMetric.PAGES_READ_PER_SEC.ordinal()]);
+    }
+}
@@ -0,0 +1,41 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 索引读写计数器与使用状态判定单元测试
+ */
+class IndexIoCountersTest {
+
+    @Test
+    @DisplayName("测试计算区间增量")
+    void testSince() {
+        IndexIoCounters previous = new IndexIoCounters(100, 10, 1000);
+        IndexIoCounters current = new IndexIoCounters(150, 12, 1600);
+
+        assertEquals(new IndexIoCounters(50, 2, 600), current.since(previous, false));
+        assertEquals(current, current.since(null, false));
+    }
+
+    @Test
+    @DisplayName("测试实例重启或计数器清零后以当前值为增量")
+    void testSince_Reset() {
+        IndexIoCounters previous = new IndexIoCounters(100, 10, 1000);
+
+        assertEquals(new IndexIoCounters(5, 1, 50), new IndexIoCounters(5, 1, 50).since(previous, false));
+        assertEquals(new IndexIoCounters(200, 20, 2000), new IndexIoCounters(200, 20, 2000).since(previous, true));
+    }
+
+    @Test
+    @DisplayName("测试索引使用状态判定")
+    void testClassify() {
+        assertEquals(IndexUsageStatus.HOT, IndexUsageStatus.classify(false, 1000, 30, 0.2, 7, 0.1));
+        assertEquals(IndexUsageStatus.USED, IndexUsageStatus.classify(false, 1, 30, 0.0001, 7, 0.1));
+        assertEquals(IndexUsageStatus.UNUSED, IndexUsageStatus.classify(false, 0, 30, 0, 7, 0.1));
+        assertEquals(IndexUsageStatus.UNUSED_UNCONFIRMED, IndexUsageStatus.classify(false, 0, 2, 0, 7, 0.1));
+        assertEquals(IndexUsageStatus.CONSTRAINT, IndexUsageStatus.classify(true, 0, 30, 0, 7, 0.1));
+    }
+}
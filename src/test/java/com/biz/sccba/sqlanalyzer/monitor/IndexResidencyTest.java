@@ -0,0 +1,46 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 索引缓冲池驻留估算单元测试
+ */
+class IndexResidencyTest {
+
+    @Test
+    @DisplayName("测试驻留比例与冷热判定")
+    void testTemperature() {
+        assertEquals("HOT", new IndexResidency("t", "PRIMARY", 900, 1000, 950, 16384).temperature());
+        assertEquals("WARM", new IndexResidency("t", "idx_a", 500, 1000, 950, 16384).temperature());
+        assertEquals("COLD", new IndexResidency("t", "idx_b", 10, 1000, 950, 16384).temperature());
+        assertEquals("UNKNOWN", new IndexResidency("t", "idx_c", 10, 0, 0, 16384).temperature());
+        // 统计信息滞后时驻留页数可能超过总页数
+        assertEquals(1.0, new IndexResidency("t", "idx_d", 1200, 1000, 950, 16384).residentRatio());
+        assertEquals(15.625, new IndexResidency("t", "idx_e", 1000, 1000, 950, 16384).residentMb(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("测试估算访问页数与物理读")
+    void testEstimatePhysicalReads() {
+        // 100 万行、1000 个叶子页 → 每页 1000 行
+        IndexResidency residency = new IndexResidency("t", "idx_a", 250, 1000, 1000, 16384);
+
+        assertEquals(1, residency.estimatePagesTouched(10, 1_000_000));
+        assertEquals(50, residency.estimatePagesTouched(50_000, 1_000_000));
+        assertEquals(1000, residency.estimatePagesTouched(5_000_000, 1_000_000));
+        assertEquals(37.5, residency.estimatePhysicalReads(50_000, 1_000_000), 1e-9);
+    }
+
+    @Test
+    @DisplayName("测试统一表名格式")
+    void testNormalizeTableName() {
+        assertEquals("t_order", IndexResidency.normalizeTableName("shop/t_order"));
+        assertEquals("t_order", IndexResidency.normalizeTableName("shop/t_order#p#p0"));
+        assertEquals("t_order", IndexResidency.normalizeTableName("`shop`.`t_order`"));
+        assertEquals("t_order", IndexResidency.normalizeTableName("`shop`.`t_order` /* Partition `p1` */"));
+        assertEquals("t_order", IndexResidency.normalizeTableName("t_order"));
+    }
+}
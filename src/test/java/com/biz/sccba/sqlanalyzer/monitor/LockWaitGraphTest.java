@@ -0,0 +1,47 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 锁等待图单元测试
+ */
+class LockWaitGraphTest {
+
+    private static LockWaitGraph.Edge edge(String waiting, String blocking) {
+        return new LockWaitGraph.Edge(waiting, blocking);
+    }
+
+    @Test
+    @DisplayName("测试阻塞链源头与被阻塞数")
+    void testRootBlockers() {
+        // C、D 等 B，B 等 A；E 等 A
+        LockWaitGraph graph = LockWaitGraph.of(List.of(
+            edge("B", "A"), edge("C", "B"), edge("D", "B"), edge("E", "A")));
+
+        assertEquals(List.of("A"), graph.rootBlockers());
+        assertEquals(4, graph.blockedCount("A"));
+        assertEquals(2, graph.blockedCount("B"));
+        assertEquals(0, graph.blockedCount("C"));
+        assertEquals(2, graph.waitDepth("C"));
+        assertEquals(0, graph.waitDepth("A"));
+        assertTrue(graph.cycles().isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试等待环识别")
+    void testCycles() {
+        LockWaitGraph graph = LockWaitGraph.of(List.of(
+            edge("A", "B"), edge("B", "C"), edge("C", "A"), edge("D", "A")));
+
+        assertEquals(List.of(List.of("A", "B", "C")), graph.cycles());
+        assertEquals(Set.of("A", "B", "C"), graph.trxInCycles());
+        assertTrue(graph.rootBlockers().isEmpty());
+        assertEquals(3, graph.blockedCount("A"));
+    }
+}
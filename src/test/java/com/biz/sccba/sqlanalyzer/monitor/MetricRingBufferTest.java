@@ -0,0 +1,47 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 环形时间序列单元测试
+ */
+class MetricRingBufferTest {
+
+    @Test
+    @DisplayName("测试写满后覆盖最旧的采样点")
+    void testWrapAround() {
+        MetricRingBuffer buffer = new MetricRingBuffer(3, 2);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(i * 1000L, new double[]{i, i * 10});
+        }
+
+        assertEquals(3, buffer.size());
+        List<MetricRingBuffer.Point> points = buffer.since(0);
+        assertEquals(List.of(3000L, 4000L, 5000L), points.stream().map(MetricRingBuffer.Point::timestampMs).toList());
+        assertEquals(50.0, points.get(2).values()[1]);
+        assertEquals(2, buffer.since(4000).size());
+    }
+
+    @Test
+    @DisplayName("测试窗口统计忽略 NaN")
+    void testSummarize() {
+        MetricRingBuffer buffer = new MetricRingBuffer(10, 1);
+        buffer.add(1000, new double[]{1});
+        buffer.add(2000, new double[]{Double.NaN});
+        buffer.add(3000, new double[]{5});
+        buffer.add(4000, new double[]{3});
+
+        MetricRingBuffer.Summary summary = buffer.summarize(0, 2000);
+        assertEquals(3.0, summary.latest());
+        assertEquals(4.0, summary.avg(), 1e-9);
+        assertEquals(5.0, summary.max());
+        assertEquals(3.0, summary.min());
+        assertEquals(2, summary.points());
+        assertNull(buffer.summarize(0, 5000));
+    }
+}
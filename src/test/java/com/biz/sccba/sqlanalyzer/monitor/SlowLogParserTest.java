@@ -0,0 +1,152 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 慢查询日志解析单元测试
+ */
+class SlowLogParserTest {
+
+    private static final String HEADER = """
+        /usr/sbin/mysqld, Version: 8.0.36 (MySQL Community Server - GPL). started with:
+        Tcp port: 3306  Unix socket: /var/run/mysqld/mysqld.sock
+        Time                 Id Command    Argument
+        """;
+
+    private static String entry(int id, String queryTime, String sql) {
+        return "# Time: 2024-01-01T00:00:00.000000Z\n"
+            + "# User@Host: app[app] @ 10.0.0.1 []  Id: " + id + "\n"
+            + "# Query_time: " + queryTime + "  Lock_time: 0.000100 Rows_sent: 1  Rows_examined: 1000\n"
+            + "use shop;\n"
+            + "SET timestamp=1700000000;\n"
+            + sql + "\n";
+    }
+
+    private static List<SlowLogParser.SlowLogEntry> parse(String log) {
+        List<SlowLogParser.SlowLogEntry> entries = new ArrayList<>();
+        SlowLogParser.parse(ByteBuffer.wrap(log.getBytes(StandardCharsets.UTF_8)), entries::add);
+        return entries;
+    }
+
+    @Test
+    @DisplayName("测试解析记录字段与多行语句")
+    void testParse_Fields() {
+        String log = HEADER
+            + entry(1, "1.500000", "SELECT * FROM t_order WHERE id = 1;")
+            + entry(2, "0.250000", "SELECT name\nFROM t_user\nWHERE city = '成都';");
+
+        List<SlowLogParser.SlowLogEntry> entries = parse(log);
+
+        assertEquals(2, entries.size());
+        assertEquals(1.5, entries.get(0).queryTime(), 1e-9);
+        assertEquals(0.0001, entries.get(0).lockTime(), 1e-9);
+        assertEquals(1, entries.get(0).rowsSent());
+        assertEquals(1000, entries.get(0).rowsExamined());
+        assertEquals("SELECT * FROM t_order WHERE id = 1;", entries.get(0).sql());
+        assertEquals("SELECT name\nFROM t_user\nWHERE city = '成都';", entries.get(1).sql());
+    }
+
+    @Test
+    @DisplayName("测试按指纹聚合与指纹数上限")
+    void testAggregate() {
+        SlowLogAggregator aggregator = new SlowLogAggregator(2);
+        for (SlowLogParser.SlowLogEntry entry : parse(
+                entry(1, "1.0", "SELECT * FROM t_order WHERE id = 1;")
+                + entry(2, "3.0", "SELECT * FROM t_order WHERE id = 2;")
+                + entry(3, "0.5", "SELECT * FROM t_user WHERE id = 1;")
+                + entry(4, "9.0", "DELETE FROM t_log WHERE id = 1;"))) {
+            aggregator.add(entry);
+        }
+
+        assertEquals(4, aggregator.getEntries());
+        assertEquals(2, aggregator.getFingerprintCount());
+        assertEquals(1, aggregator.getOverflowEntries());
+
+        SlowLogAggregator.FingerprintStats top = aggregator.top(1).get(0);
+        assertEquals(2, top.getCount());
+        assertEquals(4.0, top.getTotalQueryTime(), 1e-9);
+        assertEquals(2000, top.getRowsExamined());
+        assertEquals(3000, top.queryTimeMs(100), 300);
+    }
+
+    @Test
+    @DisplayName("测试分块边界对齐到记录起点")
+    void testParseFiles_ChunkBoundaries() throws Exception {
+        Path file = Files.createTempFile("slow", ".log");
+        try {
+            StringBuilder log = new StringBuilder(HEADER);
+            for (int i = 0; i < 500; i++) {
+                log.append(entry(i, "0.00" + (i % 9 + 1), "SELECT * FROM t_" + (i % 7) + " WHERE id = " + i + ";"));
+            }
+            Files.writeString(file, log);
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                List<long[]> chunks = SlowLogParser.split(channel, channel.size(), 1000);
+                assertTrue(chunks.size() > 10);
+                for (int i = 1; i < chunks.size(); i++) {
+                    ByteBuffer head = ByteBuffer.allocate(12);
+                    channel.read(head, chunks.get(i)[0]);
+                    assertEquals("# User@Host:", new String(head.array(), StandardCharsets.US_ASCII));
+                    assertEquals(chunks.get(i - 1)[1], chunks.get(i)[0]);
+                }
+            }
+
+            SlowLogParser.ParseResult result = SlowLogParser.parseFiles(List.of(file), 1000, 4, 100);
+            assertEquals(500, result.aggregator().getEntries());
+            assertEquals(7, result.aggregator().getFingerprintCount());
+            assertEquals(0, result.aggregator().getOverflowEntries());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("测试解析吞吐")
+    void testParseFiles_Throughput() throws Exception {
+        Path file = Files.createTempFile("slow-bench", ".log");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                for (int i = 0; i < 200_000; i++) {
+                    writer.write(entry(i, "0.0" + (i % 90 + 10),
+                        "SELECT o.id, o.amount FROM t_order o WHERE o.user_id = " + i + " AND o.status = 'PAID';"));
+                }
+            }
+
+            int parallelism = Runtime.getRuntime().availableProcessors();
+            SlowLogParser.ParseResult result = SlowLogParser.parseFiles(List.of(file), 4 * 1024 * 1024, parallelism, 5000);
+
+            assertEquals(200_000, result.aggregator().getEntries());
+            assertEquals(1, result.aggregator().getFingerprintCount());
+            assertTrue(result.chunks() > 1);
+            assertEquals(Files.size(file), result.bytes());
+            assertTrue(result.elapsedNanos() > 0);
+            assertTrue(result.gigabytesPerSecond() > 0);
+            assertEquals(result.bytes() / (double) result.elapsedNanos(), result.gigabytesPerSecond(), 1e-9);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("测试形态键去掉字面量")
+    void testShapeKey() {
+        assertEquals("select * from t_order where id = ? and name = ? and t1.c2 = ?",
+            SlowLogAggregator.shapeKey("select * from t_order where id = 42 and name = 'O''Brien'\n and  t1.c2 = 3.5"));
+        assertEquals(SlowLogAggregator.shapeKey("SELECT 1st_col FROM t WHERE a = \"x\""),
+            SlowLogAggregator.shapeKey("SELECT 1st_col FROM t WHERE a = \"y\\\"z\""));
+        assertNotEquals(SlowLogAggregator.shapeKey("SELECT 1st_col FROM t"), SlowLogAggregator.shapeKey("SELECT 2nd_col FROM t"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.biz.sccba.sqlanalyzer.monitor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 优化器统计信息健康度判定单元测试
+ */
+class StatsHealthEvaluatorTest {
+
+    private static final StatsHealthEvaluator.Thresholds THRESHOLDS = new StatsHealthEvaluator.Thresholds(2.0, 0.1, 7, 3.0);
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private static StatsHealthEvaluator.TableStats table(Long statsRows, LocalDateTime lastUpdate, Long measured,
+                                                         boolean exact, Long modified, boolean autoRecalc) {
+        return new StatsHealthEvaluator.TableStats("t_order", statsRows, lastUpdate, measured, exact, modified, autoRecalc, 20);
+    }
+
+    @Test
+    @DisplayName("测试统计信息健康时无问题")
+    void testEvaluate_Healthy() {
+        List<StatsHealthEvaluator.Issue> issues = StatsHealthEvaluator.evaluate(
+            table(1000L, NOW.minusDays(1), 1100L, true, 10L, true),
+            List.of(new StatsHealthEvaluator.IndexStats("idx_status", "status", false, 1, 5, 20, 20, 5L)),
+            THRESHOLDS, NOW);
+
+        assertTrue(issues.isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试行数偏差与修改量超过阈值")
+    void testEvaluate_RowDriftAndModified() {
+        List<StatsHealthEvaluator.Issue> issues = StatsHealthEvaluator.evaluate(
+            table(1000L, NOW.minusDays(30), 50000L, true, 49000L, false), List.of(), THRESHOLDS, NOW);
+
+        assertEquals(2, issues.size());
+        assertEquals(StatsHealthEvaluator.Severity.HIGH, issues.get(0).severity());
+        assertTrue(issues.stream().anyMatch(i -> "ROW_COUNT_DRIFT".equals(i.kind())));
+        assertTrue(issues.stream().anyMatch(i -> "MODIFIED_SINCE_ANALYZE".equals(i.kind())
+            && i.recommendation().contains("STATS_AUTO_RECALC=1")));
+        // 行数已有问题时不再重复提示过期
+        assertTrue(issues.stream().noneMatch(i -> "STALE_STATS".equals(i.kind())));
+    }
+
+    @Test
+    @DisplayName("测试计数达到上限时只判断统计值偏小")
+    void testEvaluate_LowerBoundCount() {
+        assertTrue(StatsHealthEvaluator.evaluate(
+            table(5_000_000L, NOW.minusDays(1), 1_000_000L, false, null, true), List.of(), THRESHOLDS, NOW).isEmpty());
+
+        List<StatsHealthEvaluator.Issue> issues = StatsHealthEvaluator.evaluate(
+            table(100_000L, NOW.minusDays(1), 1_000_000L, false, null, true), List.of(), THRESHOLDS, NOW);
+        assertEquals(1, issues.size());
+        assertEquals("ROW_COUNT_DRIFT", issues.get(0).kind());
+        assertEquals(StatsHealthEvaluator.Severity.HIGH, issues.get(0).severity());
+    }
+
+    @Test
+    @DisplayName("测试首列不同值数偏差时建议调大采样页数")
+    void testEvaluate_NdvDriftSuggestsSamplePages() {
+        List<StatsHealthEvaluator.Issue> issues = StatsHealthEvaluator.evaluate(
+            table(1_000_000L, NOW.minusDays(1), 1_000_000L, true, 0L, true),
+            List.of(new StatsHealthEvaluator.IndexStats("idx_user", "user_id", false, 1, 800, 20, 5000, 90000L),
+                new StatsHealthEvaluator.IndexStats("uk_no", "order_no", true, 1, 200_000, 20, 4000, null)),
+            THRESHOLDS, NOW);
+
+        assertEquals(2, issues.size());
+        StatsHealthEvaluator.Issue userIssue = issues.stream()
+            .filter(i -> "idx_user".equals(i.indexName())).findFirst().orElseThrow();
+        assertEquals(StatsHealthEvaluator.Severity.HIGH, userIssue.severity());
+        assertTrue(userIssue.recommendation().contains("STATS_SAMPLE_PAGES=80"));
+        // 单列唯一索引用实测行数作为期望不同值数
+        assertTrue(issues.stream().anyMatch(i -> "uk_no".equals(i.indexName())));
+    }
+
+    @Test
+    @DisplayName("测试没有持久化统计信息")
+    void testEvaluate_NoPersistentStats() {
+        List<StatsHealthEvaluator.Issue> issues = StatsHealthEvaluator.evaluate(
+            table(null, null, 10L, true, null, true), List.of(), THRESHOLDS, NOW);
+
+        assertEquals(1, issues.size());
+        assertEquals("NO_PERSISTENT_STATS", issues.get(0).kind());
+    }
+
+    @Test
+    @DisplayName("测试偏差倍数")
+    void testDrift() {
+        assertEquals(10.0, StatsHealthEvaluator.drift(10, 100), 0.0001);
+        assertEquals(10.0, StatsHealthEvaluator.drift(100, 10), 0.0001);
+        assertEquals(5.0, StatsHealthEvaluator.drift(0, 5), 0.0001);
+    }
+}
@@ -0,0 +1,163 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 动态 SQL 分支组合枚举单元测试
+ */
+class DynamicSqlEnumeratorTest {
+
+    private static final String MAPPER = """
+        <mapper namespace="com.example.OrderMapper">
+            <sql id="columns">id, tenant_id, status</sql>
+            <select id="search">
+                SELECT <include refid="columns"/> FROM t_order
+                <where>
+                    <if test="tenantId != null">AND tenant_id = #{tenantId}</if>
+                    <if test="status != null">AND status = #{status}</if>
+                    <if test="ids != null">
+                        AND id IN
+                        <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+                    </if>
+                </where>
+                <choose>
+                    <when test="sort == 'amount'">ORDER BY amount DESC</when>
+                    <otherwise>ORDER BY id DESC</otherwise>
+                </choose>
+            </select>
+            <update id="update">
+                UPDATE t_order
+                <set>
+                    <if test="status != null">status = #{status},</if>
+                    <if test="amount != null">amount = #{amount},</if>
+                </set>
+                WHERE id = #{id}
+            </update>
+        </mapper>
+        """;
+
+    private static Map<String, Element> parse() throws Exception {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+            .parse(new ByteArrayInputStream(MAPPER.getBytes(StandardCharsets.UTF_8)));
+        Map<String, Element> elements = new HashMap<>();
+        for (String tag : List.of("select", "update", "sql")) {
+            Element element = (Element) document.getElementsByTagName(tag).item(0);
+            elements.put(element.getAttribute("id"), element);
+        }
+        return elements;
+    }
+
+    private static DynamicSqlEnumerator compile(String id) throws Exception {
+        Map<String, Element> elements = parse();
+        return DynamicSqlEnumerator.compile(elements.get(id), elements::get, 3);
+    }
+
+    @Test
+    @DisplayName("测试决策点识别")
+    void testDecisions() throws Exception {
+        DynamicSqlEnumerator enumerator = compile("search");
+
+        List<DynamicSqlEnumerator.Decision> decisions = enumerator.getDecisions();
+        assertEquals(5, decisions.size());
+        assertEquals(DynamicSqlEnumerator.DecisionKind.IF, decisions.get(0).kind());
+        assertEquals("tenantId != null", decisions.get(0).label());
+        assertEquals(DynamicSqlEnumerator.DecisionKind.FOREACH, decisions.get(3).kind());
+        assertEquals(DynamicSqlEnumerator.DecisionKind.CHOOSE, decisions.get(4).kind());
+        assertEquals(32, enumerator.spaceSize());
+    }
+
+    @Test
+    @DisplayName("测试渲染 - where 去掉开头的 AND，include 展开")
+    void testRender_Where() throws Exception {
+        DynamicSqlEnumerator enumerator = compile("search");
+
+        assertEquals("SELECT id, tenant_id, status FROM t_order ORDER BY id DESC",
+            enumerator.render(new int[]{0, 0, 0, 0, 1}));
+        assertEquals("SELECT id, tenant_id, status FROM t_order WHERE status = ? ORDER BY amount DESC",
+            enumerator.render(new int[]{0, 1, 0, 0, 0}));
+        assertEquals("SELECT id, tenant_id, status FROM t_order WHERE tenant_id = ? AND id IN (?,?,?) ORDER BY id DESC",
+            enumerator.render(new int[]{1, 0, 1, 1, 1}));
+    }
+
+    @Test
+    @DisplayName("测试渲染 - set 去掉结尾的逗号")
+    void testRender_Set() throws Exception {
+        DynamicSqlEnumerator enumerator = compile("update");
+
+        assertEquals("UPDATE t_order SET status = ?, amount = ? WHERE id = ?", enumerator.render(new int[]{1, 1}));
+        assertEquals("UPDATE t_order SET status = ? WHERE id = ?", enumerator.render(new int[]{1, 0}));
+    }
+
+    @Test
+    @DisplayName("测试按指定元素个数渲染 foreach")
+    void testRender_ForeachItems() throws Exception {
+        DynamicSqlEnumerator enumerator = compile("search");
+
+        int[] all = enumerator.allConditions();
+        assertArrayEquals(new int[]{1, 1, 1, 1, 0}, all);
+        assertEquals("SELECT id, tenant_id, status FROM t_order WHERE tenant_id = ? AND status = ? AND id IN (?) ORDER BY amount DESC",
+            enumerator.render(all, 1));
+        assertEquals(2 + 10, enumerator.render(all, 10).chars().filter(c -> c == '?').count());
+        assertEquals(enumerator.render(all, 3), enumerator.render(all));
+    }
+
+    @Test
+    @DisplayName("测试组合空间较小时全部枚举")
+    void testPlan_Exhaustive() throws Exception {
+        DynamicSqlEnumerator enumerator = compile("search");
+
+        assertFalse(enumerator.isReduced(64));
+        assertEquals(32, enumerator.plan(64).size());
+        assertTrue(enumerator.isReduced(16));
+    }
+
+    @Test
+    @DisplayName("测试两两组合覆盖 - 覆盖全部取值对且组合数远小于全量")
+    void testPairwise_CoversAllPairs() {
+        List<Integer> counts = Collections.nCopies(12, 2);
+        List<int[]> tests = DynamicSqlEnumerator.pairwise(counts);
+
+        assertTrue(tests.size() < 20, "组合数：" + tests.size());
+        for (int i = 0; i < counts.size(); i++) {
+            for (int j = i + 1; j < counts.size(); j++) {
+                for (int a = 0; a < 2; a++) {
+                    for (int b = 0; b < 2; b++) {
+                        final int fi = i, fj = j, fa = a, fb = b;
+                        assertTrue(tests.stream().anyMatch(t -> t[fi] == fa && t[fj] == fb),
+                            "未覆盖：" + i + "=" + a + ", " + j + "=" + b);
+                    }
+                }
+            }
+        }
+        assertArrayEquals(new int[12], tests.get(0));
+    }
+
+    @Test
+    @DisplayName("测试两两组合覆盖 - 多取值决策点")
+    void testPairwise_MixedOptions() {
+        List<Integer> counts = List.of(3, 2, 4, 2);
+        List<int[]> tests = DynamicSqlEnumerator.pairwise(counts);
+
+        Set<String> pairs = new HashSet<>();
+        for (int[] test : tests) {
+            for (int i = 0; i < test.length; i++) {
+                for (int j = i + 1; j < test.length; j++) {
+                    pairs.add(i + ":" + test[i] + "," + j + ":" + test[j]);
+                }
+            }
+        }
+        // 3*2 + 3*4 + 3*2 + 2*4 + 2*2 + 4*2
+        assertEquals(44, pairs.size());
+        assertTrue(tests.size() < 48);
+    }
+}
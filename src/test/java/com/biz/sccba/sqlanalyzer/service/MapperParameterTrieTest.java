@@ -0,0 +1,82 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.model.MapperParameter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mapper 参数前缀树单元测试
+ */
+class MapperParameterTrieTest {
+
+    private static MapperParameter param(long id, String mapperId, String name) {
+        MapperParameter parameter = new MapperParameter();
+        parameter.setId(id);
+        parameter.setMapperId(mapperId);
+        parameter.setParameterName(name);
+        parameter.setParameterValue("?");
+        return parameter;
+    }
+
+    private static MapperParameterTrie sample() {
+        return MapperParameterTrie.of(List.of(
+            param(1, "com", "tenantId"),
+            param(2, "com.example.UserMapper", "status"),
+            param(3, "com.example.UserMapper.selectById", "id"),
+            param(4, "com.example.UserMapper.selectById", "deleted"),
+            param(5, "com.example.OrderMapper.selectAll", "limit")
+        ));
+    }
+
+    @Test
+    @DisplayName("测试最长前缀查找 - 语句自身的参数优先")
+    void testLookup_ExactStatement() {
+        List<MapperParameter> found = sample().lookup("com.example.UserMapper.selectById");
+
+        assertEquals(2, found.size());
+        assertTrue(found.stream().allMatch(p -> p.getMapperId().equals("com.example.UserMapper.selectById")));
+    }
+
+    @Test
+    @DisplayName("测试最长前缀查找 - 回退到最近的上级层级")
+    void testLookup_FallbackToAncestor() {
+        MapperParameterTrie trie = sample();
+
+        assertEquals("status", trie.lookup("com.example.UserMapper.selectByName").get(0).getParameterName());
+        assertEquals("tenantId", trie.lookup("com.example.OrderMapper.count").get(0).getParameterName());
+        assertEquals("tenantId", trie.lookup("com.other.Mapper.select").get(0).getParameterName());
+        assertTrue(trie.lookup("org.example.Mapper.select").isEmpty());
+        assertTrue(trie.lookup(" ").isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试精确匹配与子树查询")
+    void testGetAndSubtree() {
+        MapperParameterTrie trie = sample();
+
+        assertTrue(trie.get("com.example").isEmpty());
+        assertEquals(1, trie.get("com.example.UserMapper").size());
+        assertEquals(3, trie.subtree("com.example.UserMapper").size());
+        assertEquals(5, trie.subtree("com").size());
+        assertEquals(5, trie.all().size());
+        assertEquals(5, trie.size());
+    }
+
+    @Test
+    @DisplayName("测试删除后查找回退")
+    void testRemove() {
+        MapperParameterTrie trie = sample();
+
+        assertEquals(2, trie.removeAll("com.example.UserMapper.selectById").size());
+        assertEquals("status", trie.lookup("com.example.UserMapper.selectById").get(0).getParameterName());
+
+        assertTrue(trie.remove(param(2, "com.example.UserMapper", "status")));
+        assertFalse(trie.remove(param(2, "com.example.UserMapper", "status")));
+        assertEquals("tenantId", trie.lookup("com.example.UserMapper.selectById").get(0).getParameterName());
+        assertEquals(2, trie.size());
+    }
+}
@@ -0,0 +1,120 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import com.biz.sccba.sqlanalyzer.config.AnalyzerConfig;
+import com.biz.sccba.sqlanalyzer.repository.ParsedSqlQueryRepository;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Mapper 运行时设置审计单元测试（不指定数据源，只检查静态设置）
+ */
+class MapperSettingsAuditServiceTest {
+
+    private static final String ORDER_MAPPER = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <!DOCTYPE mapper PUBLIC "-//mybatis.org//DTD Mapper 3.0//EN" "http://mybatis.org/dtd/mybatis-3-mapper.dtd">
+        <mapper namespace="com.demo.OrderMapper">
+          <resultMap id="orderWithUser" type="com.demo.Order">
+            <id property="id" column="id"/>
+            <association property="user" column="user_id" select="selectUser"/>
+          </resultMap>
+          <select id="selectById" resultMap="orderWithUser">SELECT id, user_id FROM t_order WHERE id = #{id}</select>
+          <select id="selectUser" resultType="com.demo.User">SELECT id, name FROM t_user WHERE id = #{id}</select>
+          <select id="listFresh" resultType="com.demo.Order" flushCache="true">SELECT id FROM t_order WHERE status = #{status}</select>
+          <select id="scrollAll" resultType="com.demo.Order" resultSetType="SCROLL_INSENSITIVE">SELECT id FROM t_order WHERE status = #{status}</select>
+          <select id="countRaw" resultType="long" statementType="STATEMENT">SELECT COUNT(*) FROM t_order</select>
+        </mapper>
+        """;
+
+    private static final String USER_MAPPER = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <!DOCTYPE mapper PUBLIC "-//mybatis.org//DTD Mapper 3.0//EN" "http://mybatis.org/dtd/mybatis-3-mapper.dtd">
+        <mapper namespace="com.demo.UserMapper">
+          <select id="selectById" resultType="com.demo.User">SELECT id, name FROM t_user WHERE id = #{id}</select>
+        </mapper>
+        """;
+
+    @Mock
+    private MyBatisConfigurationParserService parserService;
+
+    @Mock
+    private ParsedSqlQueryRepository parsedSqlQueryRepository;
+
+    @Spy
+    private AnalyzerConfig.MapperAuditProperties properties = new AnalyzerConfig.MapperAuditProperties();
+
+    @InjectMocks
+    private MapperSettingsAuditService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(parserService.createMyBatisConfiguration()).thenAnswer(invocation -> new Configuration());
+    }
+
+    @Test
+    @DisplayName("测试审计 Mapper XML - 语句级设置问题")
+    void testAuditXml_StatementFindings() {
+        MapperSettingsAuditService.AuditReport report = service.auditXml(ORDER_MAPPER, null);
+
+        assertEquals(5, report.statements().size());
+        assertTrue(report.warnings().stream().anyMatch(w -> w.contains("未指定数据源")));
+        assertEquals(Set.of("FLUSH_CACHE_ON_SELECT", "SCROLLABLE_RESULT_SET", "NON_PREPARED_STATEMENT", "EAGER_NESTED_SELECT"),
+            codes(report));
+        assertEquals("com.demo.OrderMapper.listFresh", finding(report, "FLUSH_CACHE_ON_SELECT").statementId());
+        assertEquals("MEDIUM", finding(report, "FLUSH_CACHE_ON_SELECT").severity());
+        assertEquals("com.demo.OrderMapper.scrollAll", finding(report, "SCROLLABLE_RESULT_SET").statementId());
+        assertEquals("com.demo.OrderMapper.countRaw", finding(report, "NON_PREPARED_STATEMENT").statementId());
+        // 没有执行频率数据时非预编译语句只是 LOW
+        assertEquals("LOW", finding(report, "NON_PREPARED_STATEMENT").severity());
+        assertTrue(finding(report, "EAGER_NESTED_SELECT").detail().contains("1 个"));
+    }
+
+    @Test
+    @DisplayName("测试审计命名空间 - 多个 Mapper 有相同的短语句 ID")
+    void testAuditNamespace_AmbiguousShortIds() {
+        Configuration configuration = new Configuration();
+        parse(configuration, ORDER_MAPPER, "OrderMapper.xml");
+        parse(configuration, USER_MAPPER, "UserMapper.xml");
+        when(parserService.findConfigurationByNamespace("com.demo.UserMapper")).thenReturn(configuration);
+
+        MapperSettingsAuditService.AuditReport report = service.auditNamespace("com.demo.UserMapper", null);
+
+        assertEquals(1, report.statements().size());
+        assertEquals("com.demo.UserMapper.selectById", report.statements().get(0).statementId());
+        assertTrue(report.findings().isEmpty());
+    }
+
+    private static void parse(Configuration configuration, String xml, String resource) {
+        MapperBulkScanService.registerPlaceholderTypes(configuration, xml);
+        new XMLMapperBuilder(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), configuration, resource,
+            configuration.getSqlFragments()).parse();
+    }
+
+    private static Set<String> codes(MapperSettingsAuditService.AuditReport report) {
+        return report.findings().stream().map(MapperSettingsAuditService.Finding::code).collect(Collectors.toSet());
+    }
+
+    private static MapperSettingsAuditService.Finding finding(MapperSettingsAuditService.AuditReport report, String code) {
+        List<MapperSettingsAuditService.Finding> matches = report.findings().stream()
+            .filter(f -> f.code().equals(code)).toList();
+        assertEquals(1, matches.size(), code);
+        return matches.get(0);
+    }
+}
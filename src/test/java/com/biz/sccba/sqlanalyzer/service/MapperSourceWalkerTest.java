@@ -0,0 +1,204 @@
+package com.biz.sccba.sqlanalyzer.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mapper 源文件遍历与依赖分析单元测试
+ */
+class MapperSourceWalkerTest {
+
+    private static final String COMMON = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <mapper namespace="com.demo.Common">
+          <sql id="tenant">tenant_id = #{tenantId}</sql>
+        </mapper>
+        """;
+
+    private static final String ORDER = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <mapper namespace="com.demo.OrderMapper">
+          <sql id="cols">id, status</sql>
+          <select id="list">SELECT <include refid="cols"/> FROM t_order WHERE <include refid="com.demo.Common.tenant"/></select>
+        </mapper>
+        """;
+
+    private static final String REPORT = """
+        <mapper namespace="com.demo.ReportMapper">
+          <select id="sum">SELECT 1 FROM t_order WHERE <include refid="com.demo.OrderMapper.cols"/></select>
+        </mapper>
+        """;
+
+    @Test
+    @DisplayName("测试识别命名空间和跨文件引用")
+    void testOf_NamespaceAndReferences() {
+        MapperSource order = MapperSource.of("OrderMapper.xml", ORDER.getBytes(StandardCharsets.UTF_8));
+
+        assertNotNull(order);
+        assertEquals("com.demo.OrderMapper", order.namespace());
+        assertEquals(Set.of("com.demo.Common"), order.referencedNamespaces());
+        assertEquals(64, order.hash().length());
+        assertNull(MapperSource.of("logback.xml", "<configuration/>".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("测试片段变化时引用方也需要重新解析")
+    void testDirtyClosure() {
+        Map<String, MapperSource> sources = Map.of(
+            "com.demo.Common", MapperSource.of("a", COMMON.getBytes(StandardCharsets.UTF_8)),
+            "com.demo.OrderMapper", MapperSource.of("b", ORDER.getBytes(StandardCharsets.UTF_8)),
+            "com.demo.ReportMapper", MapperSource.of("c", REPORT.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(Set.of("com.demo.Common", "com.demo.OrderMapper", "com.demo.ReportMapper"),
+            MapperSource.dirtyClosure(sources, Set.of("com.demo.Common")));
+        assertEquals(Set.of("com.demo.ReportMapper"), MapperSource.dirtyClosure(sources, Set.of("com.demo.ReportMapper")));
+        // 片段提供方包括间接引用
+        assertEquals(Set.of("com.demo.OrderMapper", "com.demo.Common"),
+            MapperSource.fragmentProviders(sources, "com.demo.ReportMapper"));
+    }
+
+    @Test
+    @DisplayName("测试遍历目录和 jar")
+    void testWalk_DirectoryAndJar() throws Exception {
+        Path dir = Files.createTempDirectory("mappers");
+        Files.createDirectories(dir.resolve("sub"));
+        Files.createDirectories(dir.resolve(".git"));
+        Files.writeString(dir.resolve("Common.xml"), COMMON);
+        Files.writeString(dir.resolve("sub/OrderMapper.xml"), ORDER);
+        Files.writeString(dir.resolve(".git/OrderMapper.xml"), ORDER);
+        Files.writeString(dir.resolve("sub/logback.xml"), "<configuration/>");
+
+        Path jar = Files.createTempFile("service", ".jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            writeEntry(out, "mapper/ReportMapper.xml", REPORT);
+            writeEntry(out, "mapper/OrderMapper.xml", ORDER);
+        }
+
+        MapperSourceWalker.WalkResult result = MapperSourceWalker.walk(List.of(dir, jar), 2);
+
+        assertEquals(3, result.sources().size());
+        assertEquals(5, result.filesRead());
+        assertEquals(1, result.duplicates().size());
+        assertTrue(result.errors().isEmpty());
+        assertTrue(result.sources().stream()
+            .anyMatch(s -> s.location().endsWith("!/mapper/ReportMapper.xml")));
+    }
+
+    @Test
+    @DisplayName("测试流式读取嵌套 jar 并按 CRC 复用缓存")
+    void testWalk_NestedJarCache() throws Exception {
+        ByteArrayOutputStream inner = new ByteArrayOutputStream();
+        try (JarOutputStream out = new JarOutputStream(inner)) {
+            writeEntry(out, "mapper/OrderMapper.xml", ORDER);
+            writeEntry(out, "mapper/ReportMapper.xml", REPORT);
+        }
+        Path jar = Files.createTempFile("app", ".jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            writeEntry(out, "BOOT-INF/classes/mapper/Common.xml", COMMON);
+            out.putNextEntry(new JarEntry("BOOT-INF/lib/order.jar"));
+            out.write(inner.toByteArray());
+            out.closeEntry();
+        }
+
+        JarEntryCache cache = new JarEntryCache();
+        MapperSourceWalker.WalkResult first = MapperSourceWalker.walk(List.of(jar), 2, cache);
+
+        assertEquals(3, first.sources().size());
+        assertEquals(3, first.filesRead());
+        assertEquals(0, first.cachedEntries());
+        assertTrue(first.errors().isEmpty());
+        assertTrue(first.sources().stream()
+            .anyMatch(s -> s.location().endsWith("!/BOOT-INF/lib/order.jar!/mapper/ReportMapper.xml")));
+
+        // 未变化的 jar 再次扫描时不读取任何条目
+        MapperSourceWalker.WalkResult second = MapperSourceWalker.walk(List.of(jar), 2, cache);
+        assertEquals(3, second.sources().size());
+        assertEquals(0, second.filesRead());
+        assertEquals(2, second.cachedEntries());
+
+        // 只有变化的条目被重新读取，已删除的条目从缓存中清理
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            writeEntry(out, "BOOT-INF/classes/mapper/Common.xml", COMMON.replace("tenant_id", "org_id"));
+            out.putNextEntry(new JarEntry("BOOT-INF/lib/order.jar"));
+            out.write(inner.toByteArray());
+            out.closeEntry();
+        }
+        MapperSourceWalker.WalkResult third = MapperSourceWalker.walk(List.of(jar), 2, cache);
+        assertEquals(3, third.sources().size());
+        assertEquals(1, third.filesRead());
+        assertEquals(1, third.cachedEntries());
+        assertEquals(2, cache.size());
+
+        // 新构建的 jar 改名后，未变化的条目按条目名和 CRC 命中，Mapper 位置指向新 jar
+        Path renamed = Files.move(jar, jar.resolveSibling("renamed-" + jar.getFileName()));
+        try {
+            MapperSourceWalker.WalkResult fourth = MapperSourceWalker.walk(List.of(renamed), 2, cache);
+            assertEquals(3, fourth.sources().size());
+            assertEquals(0, fourth.filesRead());
+            assertEquals(2, fourth.cachedEntries());
+            assertTrue(fourth.sources().stream().allMatch(s -> s.location().startsWith(renamed + "!/")));
+            assertEquals(2, cache.size());
+        } finally {
+            Files.deleteIfExists(renamed);
+        }
+    }
+
+    @Test
+    @DisplayName("测试改名前的旧 jar 中未被复用的条目从缓存中清理")
+    void testWalk_RenamedJarEvictsStaleEntries() throws Exception {
+        Path jar = Files.createTempFile("app-1.0", ".jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            writeEntry(out, "mapper/Common.xml", COMMON);
+            writeEntry(out, "mapper/OrderMapper.xml", ORDER);
+        }
+        JarEntryCache cache = new JarEntryCache();
+        MapperSourceWalker.walk(List.of(jar), 2, cache);
+        assertEquals(2, cache.size());
+
+        // 新版本只有 OrderMapper 未变化，旧 jar 删除后其 Common.xml 条目不应残留
+        Path renamed = jar.resolveSibling("app-1.1-" + jar.getFileName());
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(renamed))) {
+            writeEntry(out, "mapper/Common.xml", COMMON.replace("tenant_id", "org_id"));
+            writeEntry(out, "mapper/OrderMapper.xml", ORDER);
+        }
+        Files.delete(jar);
+        try {
+            MapperSourceWalker.WalkResult result = MapperSourceWalker.walk(List.of(renamed), 2, cache);
+            assertEquals(1, result.filesRead());
+            assertEquals(1, result.cachedEntries());
+            assertEquals(2, cache.size());
+        } finally {
+            Files.deleteIfExists(renamed);
+        }
+    }
+
+    @Test
+    @DisplayName("测试根路径按路径边界匹配")
+    void testIsUnder() {
+        Path root = Path.of("/data/mappers");
+
+        assertTrue(MapperSourceWalker.isUnder("/data/mappers/sub/OrderMapper.xml", root));
+        assertTrue(MapperSourceWalker.isUnder("/data/mappers", root));
+        assertFalse(MapperSourceWalker.isUnder("/data/mappers-old/OrderMapper.xml", root));
+        assertTrue(MapperSourceWalker.isUnder("/data/app.jar!/mapper/OrderMapper.xml", Path.of("/data/app.jar")));
+        assertFalse(MapperSourceWalker.isUnder("/data/app.jar.bak!/mapper/OrderMapper.xml", Path.of("/data/app.jar")));
+    }
+
+    private static void writeEntry(JarOutputStream out, String name, String content) throws Exception {
+        out.putNextEntry(new JarEntry(name));
+        out.write(content.getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+    }
+}
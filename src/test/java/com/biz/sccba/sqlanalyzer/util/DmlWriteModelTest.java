@@ -0,0 +1,115 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import com.biz.sccba.sqlanalyzer.util.DmlWriteModel.DmlShape;
+import com.biz.sccba.sqlanalyzer.util.DmlWriteModel.Estimate;
+import com.biz.sccba.sqlanalyzer.util.DmlWriteModel.IndexDef;
+import com.biz.sccba.sqlanalyzer.util.DmlWriteModel.Kind;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DML 写放大模型单元测试
+ */
+class DmlWriteModelTest {
+
+    private static final List<IndexDef> INDEXES = List.of(
+        new IndexDef("PRIMARY", true, List.of("id")),
+        new IndexDef("uk_order_no", true, List.of("order_no")),
+        new IndexDef("idx_user_status", false, List.of("user_id", "status")),
+        new IndexDef("idx_create_time", false, List.of("create_time"))
+    );
+
+    @Test
+    @DisplayName("测试 UPDATE 解析 - SET 列与 WHERE 列")
+    void testParse_Update() {
+        DmlShape shape = DmlWriteModel.parse(
+            "UPDATE t_order o SET o.status = ?, remark = CONCAT(remark, ',', ?) WHERE o.user_id = ? AND o.deleted = 0");
+
+        assertEquals(Kind.UPDATE, shape.kind());
+        assertEquals("t_order", shape.table());
+        assertEquals(List.of("status", "remark"), shape.setColumns());
+        assertEquals(List.of("user_id", "deleted"), shape.whereColumns());
+        assertTrue(shape.hasWhere());
+    }
+
+    @Test
+    @DisplayName("测试 INSERT 解析 - 列清单、多行 VALUES、ON DUPLICATE KEY UPDATE")
+    void testParse_Insert() {
+        DmlShape shape = DmlWriteModel.parse(
+            "INSERT INTO t_order (id, order_no, status) VALUES (?, ?, 'A'), (?, ?, '(x)'), (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE status = VALUES(status)");
+
+        assertEquals(Kind.INSERT, shape.kind());
+        assertEquals(List.of("id", "order_no", "status"), shape.setColumns());
+        assertEquals(3, shape.valueRows());
+        assertEquals(List.of("status"), shape.upsertColumns());
+        assertTrue(DmlWriteModel.parse("INSERT INTO t_order_bak SELECT * FROM t_order WHERE status = ?").insertSelect());
+        assertNull(DmlWriteModel.parse("SELECT * FROM t_order"));
+    }
+
+    @Test
+    @DisplayName("测试写放大估算 - 更新索引列、更新非索引列、插入、无索引的删除")
+    void testEstimate() {
+        Estimate indexed = DmlWriteModel.estimate(DmlWriteModel.parse("UPDATE t_order SET status = ? WHERE id = ?"), INDEXES);
+        assertEquals(List.of("PRIMARY", "idx_user_status"), indexed.maintainedIndexes());
+        assertEquals(List.of("status"), indexed.updatedIndexedColumns());
+        assertEquals(3, indexed.indexWritesPerRow());
+        assertTrue(indexed.whereUsesIndex());
+
+        Estimate plain = DmlWriteModel.estimate(DmlWriteModel.parse("UPDATE t_order SET remark = ? WHERE user_id = ?"), INDEXES);
+        assertEquals(1, plain.indexWritesPerRow());
+        assertTrue(plain.updatedIndexedColumns().isEmpty());
+
+        Estimate primary = DmlWriteModel.estimate(DmlWriteModel.parse("UPDATE t_order SET id = ? WHERE id = ?"), INDEXES);
+        assertTrue(primary.primaryKeyUpdated());
+        assertEquals(2 + 3 * 2, primary.indexWritesPerRow());
+
+        Estimate insert = DmlWriteModel.estimate(DmlWriteModel.parse("INSERT INTO t_order (id, order_no) VALUES (?, ?)"), INDEXES);
+        assertEquals(4, insert.indexWritesPerRow());
+        assertEquals(1, insert.uniqueChecksPerRow());
+
+        Estimate delete = DmlWriteModel.estimate(DmlWriteModel.parse("DELETE FROM t_order WHERE status = ?"), INDEXES);
+        assertEquals(4, delete.indexWritesPerRow());
+        assertFalse(delete.whereUsesIndex());
+    }
+
+    @Test
+    @DisplayName("测试新增索引的额外写入与 DDL 列解析")
+    void testExtraWritesAndIndexColumns() {
+        List<String> columns = DmlWriteModel.indexColumns("ALTER TABLE t_order ADD INDEX idx_status_time (`status`, create_time DESC, remark(20))");
+        assertEquals(List.of("status", "create_time", "remark"), columns);
+        assertEquals(List.of("tenant_id"), DmlWriteModel.indexColumns("CREATE UNIQUE INDEX uk_tenant ON t_order (tenant_id)"));
+
+        assertEquals(2, DmlWriteModel.extraWritesPerRow(DmlWriteModel.parse("UPDATE t_order SET status = ? WHERE id = ?"), columns, INDEXES));
+        assertEquals(0, DmlWriteModel.extraWritesPerRow(DmlWriteModel.parse("UPDATE t_order SET amount = ? WHERE id = ?"), columns, INDEXES));
+        assertEquals(1, DmlWriteModel.extraWritesPerRow(DmlWriteModel.parse("DELETE FROM t_order WHERE id = ?"), columns, INDEXES));
+    }
+
+    @Test
+    @DisplayName("测试唯一键冲突分支 - ON DUPLICATE KEY UPDATE 与 REPLACE")
+    void testConflictBranch() {
+        Estimate upsert = DmlWriteModel.estimate(DmlWriteModel.parse(
+            "INSERT INTO t_order (id, order_no, status) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE status = VALUES(status)"), INDEXES);
+        assertEquals(4, upsert.indexWritesPerRow());
+        assertEquals(Integer.valueOf(3), upsert.conflictWritesPerRow());
+        assertEquals(4, upsert.worstWritesPerRow());
+
+        Estimate replace = DmlWriteModel.estimate(DmlWriteModel.parse("REPLACE INTO t_order (id, order_no) VALUES (?, ?)"), INDEXES);
+        assertEquals(Integer.valueOf(8), replace.conflictWritesPerRow());
+        assertEquals(8, replace.worstWritesPerRow());
+        assertNull(DmlWriteModel.estimate(DmlWriteModel.parse("INSERT INTO t_order (id) VALUES (?)"), INDEXES).conflictWritesPerRow());
+
+        List<String> statusIndex = List.of("status");
+        List<String> remarkIndex = List.of("remark");
+        DmlShape upsertShape = DmlWriteModel.parse(
+            "INSERT INTO t_order (id, status) VALUES (?, ?) ON DUPLICATE KEY UPDATE status = VALUES(status)");
+        assertEquals(2, DmlWriteModel.extraWritesPerRow(upsertShape, statusIndex, INDEXES));
+        assertEquals(1, DmlWriteModel.extraWritesPerRow(upsertShape, remarkIndex, INDEXES));
+        assertEquals(2, DmlWriteModel.extraWritesPerRow(
+            DmlWriteModel.parse("REPLACE INTO t_order (id, remark) VALUES (?, ?)"), remarkIndex, INDEXES));
+    }
+}
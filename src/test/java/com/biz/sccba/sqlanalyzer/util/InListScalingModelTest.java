@@ -0,0 +1,88 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import com.biz.sccba.sqlanalyzer.util.InListScalingModel.Degradation;
+import com.biz.sccba.sqlanalyzer.util.InListScalingModel.Point;
+import com.biz.sccba.sqlanalyzer.util.InListScalingModel.Recommendation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IN 列表规模模型单元测试
+ */
+class InListScalingModelTest {
+
+    @Test
+    @DisplayName("测试退化判定 - 超过 dive 限制后估算行数失真")
+    void testFirstDegradation_Rows() {
+        List<Point> points = List.of(
+            new Point(200, "range(idx_user)", false, 400L, null, 2_000),
+            new Point(1, "range(idx_user)", false, 2L, null, 100),
+            new Point(10, "range(idx_user)", false, 20L, null, 190),
+            new Point(199, "range(idx_user)", false, 398L, null, 1_990));
+
+        Degradation degradation = InListScalingModel.firstDegradation(points, 3, 3);
+        assertNull(degradation);
+
+        List<Point> degraded = List.of(points.get(1), points.get(2), points.get(3),
+            new Point(200, "range(idx_user)", false, 30_000L, null, 2_000));
+        degradation = InListScalingModel.firstDegradation(degraded, 3, 3);
+        assertNotNull(degradation);
+        assertEquals(200, degradation.size());
+    }
+
+    @Test
+    @DisplayName("测试退化判定 - 计划变化与每元素耗时上升")
+    void testFirstDegradation_PlanAndLatency() {
+        Degradation plan = InListScalingModel.firstDegradation(List.of(
+            new Point(1, "ref(idx_user)", false, 1L, null, 100),
+            new Point(5000, "ALL", true, 100_000L, null, 50_000)), 3, 3);
+        assertEquals(5000, plan.size());
+        assertEquals(3, plan.reasons().size());
+
+        Degradation latency = InListScalingModel.firstDegradation(List.of(
+            new Point(1, null, false, null, 1.0, 100),
+            new Point(10, null, false, null, 1.5, 190),
+            new Point(200, null, false, null, 200.0, 2_000)), 3, 3);
+        assertEquals(200, latency.size());
+    }
+
+    @Test
+    @DisplayName("测试退化判定 - 单元素的 ref 变为多元素的 range 不算计划变化")
+    void testFirstDegradation_SingleItemRef() {
+        List<Point> points = List.of(
+            new Point(1, "ref(idx_user)", false, 1L, null, 100),
+            new Point(10, "range(idx_user)", false, 10L, null, 190),
+            new Point(200, "range(idx_user)", false, 200L, null, 2_000));
+
+        assertNull(InListScalingModel.firstDegradation(points, 3, 3));
+        assertEquals(200, InListScalingModel.recommend(points, null, null).chunkSize());
+
+        // PlanShape 签名格式：表:访问类型:索引;
+        assertTrue(InListScalingModel.samePlan("t_order:const:PRIMARY;", "t_order:range:PRIMARY;"));
+        assertFalse(InListScalingModel.samePlan("t_order:ref:idx_user;", "t_order:range:idx_status;"));
+        assertFalse(InListScalingModel.samePlan("t_order:ref_or_null:idx_user;", "t_order:range:idx_user;"));
+    }
+
+    @Test
+    @DisplayName("测试分批大小推荐 - 退化点之前的最大规模，受 max_allowed_packet 限制")
+    void testRecommend() {
+        List<Point> points = List.of(
+            new Point(1, "a", false, 1L, null, 110),
+            new Point(10, "a", false, 10L, null, 200),
+            new Point(200, "a", false, 200L, null, 2_100),
+            new Point(5000, "b", false, 5000L, null, 50_100));
+
+        Degradation degradation = InListScalingModel.firstDegradation(points, 3, 3);
+        Recommendation recommendation = InListScalingModel.recommend(points, degradation, null);
+        assertEquals(200, recommendation.chunkSize());
+        assertNull(recommendation.maxItemsForPacket());
+
+        // 每元素 10 字节，固定 100 字节
+        assertEquals(Long.valueOf(990), InListScalingModel.maxItemsForPacket(points, 10_000L));
+        assertEquals(495, InListScalingModel.recommend(points, null, 10_000L).chunkSize());
+    }
+}
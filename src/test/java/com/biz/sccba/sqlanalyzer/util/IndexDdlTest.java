@@ -0,0 +1,30 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 索引 DDL 构建单元测试
+ */
+class IndexDdlTest {
+
+    @Test
+    @DisplayName("测试 CREATE INDEX - 库名只加在表名上")
+    void testCreateIndex() {
+        assertEquals("CREATE INDEX idx_user ON shop.t_order (user_id, status)",
+            IndexDdl.createIndex("shop", "t_order", "idx_user", "user_id, status", false));
+        assertEquals("CREATE UNIQUE INDEX uk_no ON t_order (order_no)",
+            IndexDdl.createIndex(null, "t_order", "uk_no", "order_no", true));
+        assertEquals("CREATE INDEX idx_user ON t_order (user_id)",
+            IndexDdl.createIndex(" ", "t_order", "idx_user", "user_id", false));
+    }
+
+    @Test
+    @DisplayName("测试 DROP INDEX - 必须带 ON 表名")
+    void testDropIndex() {
+        assertEquals("DROP INDEX idx_user ON shop.t_order", IndexDdl.dropIndex("shop", "t_order", "idx_user"));
+        assertEquals("DROP INDEX idx_user ON t_order", IndexDdl.dropIndex("", "t_order", "idx_user"));
+    }
+}
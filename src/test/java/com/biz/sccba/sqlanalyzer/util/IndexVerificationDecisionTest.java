@@ -0,0 +1,43 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import com.biz.sccba.sqlanalyzer.model.agent.IndexVerificationReport.Verdict;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 索引验证结论与回滚判定单元测试
+ */
+class IndexVerificationDecisionTest {
+
+    @Test
+    @DisplayName("测试结论 - 读收益与写代价阈值")
+    void testVerdict() {
+        assertEquals(Verdict.INCONCLUSIVE, IndexVerificationDecision.verdict(null, null, 5.0, 20.0, 20.0, 30.0));
+        assertEquals(Verdict.BENEFICIAL, IndexVerificationDecision.verdict(45.0, -45.0, null, 20.0, 20.0, 30.0));
+        assertEquals(Verdict.BENEFICIAL, IndexVerificationDecision.verdict(20.0, -20.0, 30.0, 20.0, 20.0, 30.0));
+        assertEquals(Verdict.NOT_BENEFICIAL, IndexVerificationDecision.verdict(10.0, -10.0, null, 20.0, 20.0, 30.0));
+        assertEquals(Verdict.NOT_BENEFICIAL, IndexVerificationDecision.verdict(45.0, -45.0, 50.0, 20.0, 20.0, 30.0));
+    }
+
+    @Test
+    @DisplayName("测试结论 - 一条读语句变快、另一条明显变慢")
+    void testVerdict_ReadRegression() {
+        assertEquals(Verdict.HARMFUL, IndexVerificationDecision.verdict(60.0, 80.0, null, 20.0, 20.0, 30.0));
+        // 恶化在允许范围内仍看最大改善
+        assertEquals(Verdict.BENEFICIAL, IndexVerificationDecision.verdict(60.0, 15.0, null, 20.0, 20.0, 30.0));
+        assertTrue(IndexVerificationDecision.shouldRollback(true, Verdict.HARMFUL, "test", "prod"));
+    }
+
+    @Test
+    @DisplayName("测试回滚判定 - 有收益时保留，目标即测试环境时总是回滚")
+    void testShouldRollback() {
+        assertFalse(IndexVerificationDecision.shouldRollback(true, Verdict.BENEFICIAL, "test", "prod"));
+        assertTrue(IndexVerificationDecision.shouldRollback(true, Verdict.NOT_BENEFICIAL, "test", "prod"));
+        assertTrue(IndexVerificationDecision.shouldRollback(true, Verdict.INCONCLUSIVE, "test", "prod"));
+        assertTrue(IndexVerificationDecision.shouldRollback(true, Verdict.BENEFICIAL, "test", "test"));
+        // 索引没有创建成功时无需回滚
+        assertFalse(IndexVerificationDecision.shouldRollback(false, Verdict.NOT_BENEFICIAL, "test", "prod"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 对数分桶直方图单元测试
+ */
+class LogHistogramTest {
+
+    @Test
+    @DisplayName("测试分位数相对误差不超过 10%")
+    void testPercentiles() {
+        LogHistogram histogram = new LogHistogram();
+        for (long value = 1; value <= 10000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(10000, histogram.getTotalCount());
+        assertEquals(5000, histogram.valueAtPercentile(50), 500);
+        assertEquals(9900, histogram.valueAtPercentile(99), 990);
+        assertEquals(10000, histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    @DisplayName("测试合并直方图")
+    void testAdd() {
+        LogHistogram fast = new LogHistogram();
+        LogHistogram slow = new LogHistogram();
+        for (int i = 0; i < 90; i++) {
+            fast.record(10);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(1_000_000);
+        }
+
+        fast.add(slow);
+
+        assertEquals(100, fast.getTotalCount());
+        assertEquals(10, fast.valueAtPercentile(50), 1);
+        assertEquals(1_000_000, fast.valueAtPercentile(95));
+        assertEquals(1_000_000, fast.getMaxValue());
+    }
+
+    @Test
+    @DisplayName("测试空直方图与小于 1 的值")
+    void testEmptyAndSmallValues() {
+        LogHistogram histogram = new LogHistogram();
+        assertEquals(0, histogram.valueAtPercentile(99));
+
+        histogram.record(0);
+        assertEquals(0, histogram.valueAtPercentile(50));
+    }
+}
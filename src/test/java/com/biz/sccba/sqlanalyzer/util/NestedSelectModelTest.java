@@ -0,0 +1,56 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import com.biz.sccba.sqlanalyzer.util.NestedSelectModel.Edge;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 嵌套查询往返次数模型单元测试
+ */
+class NestedSelectModelTest {
+
+    /**
+     * 博客列表 → 每篇文章的作者（association）和评论（collection，每篇 5 条）→ 每条评论的用户（懒加载）
+     */
+    private static final Map<String, List<Edge>> GRAPH = Map.of(
+        "listPosts", List.of(
+            new Edge("findAuthor", false, 1, 10.0),
+            new Edge("listComments", false, 5, null)),
+        "listComments", List.of(
+            new Edge("findUser", true, 1, null))
+    );
+
+    @Test
+    @DisplayName("测试往返次数 - 一级缓存按不同值去重，懒加载单独计算")
+    void testRoundTrips() {
+        // 1 + min(100, 10) × 1 + 100 × 1
+        assertEquals(111.0, NestedSelectModel.roundTrips("listPosts", 100, GRAPH, false));
+        // 1 + 10 + 100 × (1 + 5 × 1)
+        assertEquals(611.0, NestedSelectModel.roundTrips("listPosts", 100, GRAPH, true));
+        assertEquals(1.0, NestedSelectModel.roundTrips("findAuthor", 1, GRAPH, true));
+    }
+
+    @Test
+    @DisplayName("测试两步批量加载与 JOIN 行数膨胀")
+    void testBatchedAndJoined() {
+        // 根 1 次 + 作者 ceil(10/50) + 评论 ceil(100/50) + 用户 ceil(500/50)
+        assertEquals(1 + 1 + 2 + 10.0, NestedSelectModel.batchedRoundTrips("listPosts", 100, GRAPH, true, 50));
+        assertEquals(100 * 5.0, NestedSelectModel.joinedRows("listPosts", 100, GRAPH, false));
+    }
+
+    @Test
+    @DisplayName("测试循环引用不会无限递归")
+    void testCycle() {
+        Map<String, List<Edge>> cyclic = Map.of(
+            "findDept", List.of(new Edge("findChildren", false, 3, null)),
+            "findChildren", List.of(new Edge("findDept", false, 1, null)));
+
+        // 1 + 2 × (1 + 3 × 1)
+        assertEquals(9.0, NestedSelectModel.roundTrips("findDept", 2, cyclic, false));
+    }
+}
@@ -0,0 +1,119 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import com.biz.sccba.sqlanalyzer.model.OptimizerTrace;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OPTIMIZER_TRACE 流式解析单元测试
+ */
+class OptimizerTraceParserTest {
+
+    private static final String TRACE = """
+        {
+          "steps": [
+            {"join_preparation": {"select#": 1, "steps": [{"expanded_query": "/* select#1 */ select ..."}]}},
+            {"join_optimization": {"select#": 1, "steps": [
+              {"condition_processing": {"condition": "WHERE", "original_condition": "x"}},
+              {"rows_estimation": [
+                {"table": "`t_order` `o`",
+                 "range_analysis": {
+                   "table_scan": {"rows": 100000, "cost": 10050.5},
+                   "potential_range_indexes": [
+                     {"index": "PRIMARY", "usable": false, "cause": "not_applicable"},
+                     {"index": "idx_status", "usable": true, "key_parts": ["status", "id"]},
+                     {"index": "idx_created", "usable": true, "key_parts": ["created_at", "id"]}
+                   ],
+                   "analyzing_range_alternatives": {
+                     "range_scan_alternatives": [
+                       {"index": "idx_status", "ranges": ["'PAID' <= status <= 'PAID'"], "rows": 60000, "cost": 21000.3, "chosen": false, "cause": "cost"},
+                       {"index": "idx_created", "ranges": ["'2024-01-01' <= created_at"], "rows": 500, "cost": 175.26, "chosen": true}
+                     ]
+                   },
+                   "chosen_range_access_summary": {"range_access_plan": {"type": "range_scan", "index": "idx_created", "rows": 500}, "rows_for_plan": 500, "cost_for_plan": 175.26, "chosen": true}
+                 }},
+                {"table": "`t_user` `u`", "table_scan": {"rows": 10, "cost": 0.25}}
+              ]},
+              {"considered_execution_plans": [
+                {"plan_prefix": [], "table": "`t_order` `o`",
+                 "best_access_path": {"considered_access_paths": [
+                   {"access_type": "ref", "index": "idx_status", "rows": 60000, "cost": 6500.0, "chosen": false, "cause": "heuristic_index_cheaper"},
+                   {"rows_to_scan": 500, "access_type": "range", "range_details": {"used_index": "idx_created"}, "resulting_rows": 500, "cost": 225.26, "chosen": true}
+                 ]},
+                 "condition_filtering_pct": 100, "rows_for_plan": 500, "cost_for_plan": 225.26,
+                 "rest_of_plan": [
+                   {"plan_prefix": ["`t_order` `o`"], "table": "`t_user` `u`",
+                    "best_access_path": {"considered_access_paths": [
+                      {"access_type": "eq_ref", "index": "PRIMARY", "rows": 1, "cost": 175, "chosen": true, "cause": "clustered_pk_chosen_by_heuristics"},
+                      {"access_type": "scan", "rows": 10, "cost": 600.5, "chosen": false}
+                    ]},
+                    "rows_for_plan": 500, "cost_for_plan": 400.26, "chosen": true}
+                 ]},
+                {"plan_prefix": [], "table": "`t_user` `u`", "best_access_path": {"considered_access_paths": [{"access_type": "scan", "rows": 10, "cost": 1.25, "chosen": true}]},
+                 "rows_for_plan": 10, "cost_for_plan": 1.25, "pruned_by_heuristic": true}
+              ]},
+              {"attaching_conditions_to_tables": {"original_condition": "x"}}
+            ]}},
+            {"join_execution": {"select#": 1, "steps": []}}
+          ]
+        }
+        """;
+
+    @Test
+    @DisplayName("测试解析范围分析")
+    void testParse_RangeAnalysis() throws Exception {
+        OptimizerTrace trace = OptimizerTraceParser.parse(new StringReader(TRACE));
+
+        assertEquals(1, trace.getTableScans().size());
+        assertEquals(10050.5, trace.getTableScans().get(0).getCost(), 0.0001);
+        assertEquals(3, trace.getRangeAlternatives().size());
+        assertFalse(trace.getRangeAlternatives().get(0).isUsable());
+        assertTrue(trace.getRangeAlternatives().get(2).isChosen());
+        assertEquals("idx_created", trace.getRangeAlternatives().get(2).getIndex());
+    }
+
+    @Test
+    @DisplayName("测试解析访问路径与连接顺序搜索")
+    void testParse_AccessPathsAndJoinOrder() throws Exception {
+        OptimizerTrace trace = OptimizerTraceParser.parse(new StringReader(TRACE));
+
+        assertEquals(5, trace.getAccessPaths().size());
+        assertEquals("idx_created", trace.getAccessPaths().get(1).getIndex());
+        assertEquals(List.of("`t_order` `o`"), trace.getAccessPaths().get(2).getPlanPrefix());
+
+        assertEquals(3, trace.getJoinSteps().size());
+        assertEquals("`t_order` `o`", trace.getJoinSteps().get(0).getTable());
+        assertEquals(400.26, trace.getJoinSteps().get(1).getCostForPlan(), 0.0001);
+        assertEquals("pruned_by_heuristic", trace.getJoinSteps().get(2).getPrunedReason());
+    }
+
+    @Test
+    @DisplayName("测试摘要 - 索引因成本被放弃")
+    void testSummary() throws Exception {
+        OptimizerTrace trace = OptimizerTraceParser.parse(new StringReader(TRACE), 128L);
+        List<String> summary = trace.getSummary();
+
+        assertTrue(summary.stream().anyMatch(s -> s.contains("idx_status") && s.contains("21000.30 > 175.26")));
+        assertTrue(summary.stream().anyMatch(s -> s.contains("idx_status") && s.contains("6500.00 > 225.26")));
+        // 只与同一部分计划中的所选路径比较
+        assertTrue(summary.stream().anyMatch(s -> s.contains("600.50 > 175.00")));
+        assertTrue(summary.stream().anyMatch(s -> s.contains("128")));
+    }
+
+    @Test
+    @DisplayName("测试跳过无关片段")
+    void testParse_SkipsIrrelevantSections() throws Exception {
+        String json = "{\"steps\": [{\"join_preparation\": {\"steps\": [{\"table\": \"x\", "
+            + "\"range_analysis\": {\"table_scan\": {\"rows\": 1, \"cost\": 1}}}]}}]}";
+
+        OptimizerTrace trace = OptimizerTraceParser.parse(new StringReader(json));
+
+        assertTrue(trace.getTableScans().isEmpty());
+        assertTrue(trace.getSummary().isEmpty());
+    }
+}
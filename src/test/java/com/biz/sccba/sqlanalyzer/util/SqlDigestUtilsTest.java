@@ -0,0 +1,74 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SQL 摘要工具单元测试
+ */
+class SqlDigestUtilsTest {
+
+    @Test
+    @DisplayName("测试规范化 - 字面量与 IN 列表")
+    void testNormalize_LiteralsAndInList() {
+        String normalized = SqlDigestUtils.normalize(
+            "SELECT * FROM t_order WHERE id IN (1, 2, 3) AND name = 'a''b' -- comment\n LIMIT 10");
+
+        assertEquals("select * from t_order where id in (?) and name = ? limit ?", normalized);
+    }
+
+    @Test
+    @DisplayName("测试规范化 - MyBatis 占位符与标识符中的数字")
+    void testNormalize_PlaceholdersAndIdentifiers() {
+        String normalized = SqlDigestUtils.normalize("select col1, t2.x from t2 where c = #{id} and d = ${x}");
+
+        assertEquals("select col1, t2.x from t2 where c = ? and d = ?", normalized);
+    }
+
+    @Test
+    @DisplayName("测试规范化 - 多行 VALUES")
+    void testNormalize_MultiRowValues() {
+        assertEquals("insert into t (a,b) values (?,?)",
+            SqlDigestUtils.normalize("insert into t (a,b) values (1,'x'),(2,'y')"));
+    }
+
+    @Test
+    @DisplayName("测试指纹摘要 - 同一形态的语句摘要相同")
+    void testDigest_SameShape() {
+        String first = SqlDigestUtils.digest("SELECT * FROM t WHERE id = 1");
+        String second = SqlDigestUtils.digest("select *  from t where id = 42");
+
+        assertEquals(first, second);
+        assertEquals(64, first.length());
+        assertNotEquals(SqlDigestUtils.textHash("SELECT * FROM t WHERE id = 1"),
+            SqlDigestUtils.textHash("SELECT * FROM t WHERE id = 42"));
+    }
+
+    @Test
+    @DisplayName("测试文本摘要 - 忽略空白差异")
+    void testTextHash_Whitespace() {
+        assertEquals(SqlDigestUtils.textHash("SELECT *\n  FROM t"), SqlDigestUtils.textHash(" SELECT * FROM t "));
+    }
+
+    @Test
+    @DisplayName("测试文本摘要 - 保留字符串字面量中的空白")
+    void testTextHash_LiteralWhitespace() {
+        assertNotEquals(SqlDigestUtils.textHash("SELECT * FROM t WHERE name = 'a  b'"),
+            SqlDigestUtils.textHash("SELECT * FROM t WHERE name = 'a b'"));
+        assertEquals(SqlDigestUtils.textHash("SELECT *  FROM t WHERE name = 'it\\'s  x'\n AND id = 1"),
+            SqlDigestUtils.textHash("SELECT * FROM t WHERE name = 'it\\'s  x' AND id = 1"));
+    }
+
+    @Test
+    @DisplayName("测试匹配键 - Mapper SQL 与 performance_schema DIGEST_TEXT 一致")
+    void testMatchKey_DigestText() {
+        String mapperSql = "SELECT o.id, COUNT(*) FROM t_order o WHERE o.user_id = #{userId} AND o.status IN (?, ?) LIMIT 10";
+        String digestText = "SELECT `o` . `id` , COUNT ( * ) FROM `t_order` `o` WHERE `o` . `user_id` = ? AND `o` . `status` IN (...) LIMIT ?";
+
+        assertEquals(SqlDigestUtils.matchKey(mapperSql), SqlDigestUtils.matchKey(digestText));
+        assertNotEquals(SqlDigestUtils.matchKey(mapperSql),
+            SqlDigestUtils.matchKey("SELECT `o` . `id` FROM `t_order` `o` WHERE `o` . `user_id` = ?"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 占位符与列绑定单元测试
+ */
+class SqlPlaceholderBinderTest {
+
+    @Test
+    @DisplayName("测试等值、范围和 LIMIT 占位符绑定")
+    void testBind_ComparisonAndLimit() {
+        List<SqlPlaceholderBinder.Binding> bindings = SqlPlaceholderBinder.bind(
+            "SELECT * FROM t_order o WHERE o.tenant_id = ? AND o.created_at >= ? AND o.created_at < ? LIMIT ?");
+
+        assertEquals(4, bindings.size());
+        assertEquals("tenant_id", bindings.get(0).column());
+        assertEquals(SqlPlaceholderBinder.Role.EQ, bindings.get(0).role());
+        assertEquals("created_at", bindings.get(1).column());
+        assertEquals(SqlPlaceholderBinder.Role.LOWER, bindings.get(1).role());
+        assertEquals(SqlPlaceholderBinder.Role.UPPER, bindings.get(2).role());
+        assertEquals(SqlPlaceholderBinder.Role.LIMIT, bindings.get(3).role());
+    }
+
+    @Test
+    @DisplayName("测试 BETWEEN、IN 和 LIKE 占位符绑定")
+    void testBind_BetweenInLike() {
+        List<SqlPlaceholderBinder.Binding> bindings = SqlPlaceholderBinder.bind(
+            "SELECT * FROM t WHERE amount BETWEEN ? AND ? AND status IN (?, ?) AND name LIKE ?");
+
+        assertEquals(5, bindings.size());
+        assertEquals(SqlPlaceholderBinder.Role.LOWER, bindings.get(0).role());
+        assertEquals(SqlPlaceholderBinder.Role.UPPER, bindings.get(1).role());
+        assertEquals("amount", bindings.get(1).column());
+        assertEquals("status", bindings.get(2).column());
+        assertEquals("status", bindings.get(3).column());
+        assertEquals(SqlPlaceholderBinder.Role.EQ, bindings.get(3).role());
+        assertEquals("name", bindings.get(4).column());
+    }
+
+    @Test
+    @DisplayName("测试忽略字符串中的问号")
+    void testBind_IgnoresQuotedQuestionMark() {
+        List<SqlPlaceholderBinder.Binding> bindings = SqlPlaceholderBinder.bind(
+            "SELECT * FROM t WHERE remark = 'why?' AND id = ?");
+
+        assertEquals(1, bindings.size());
+        assertEquals("id", bindings.get(0).column());
+        assertEquals(0, bindings.get(0).index());
+    }
+
+    @Test
+    @DisplayName("测试超长 IN 列表 - 超出回看窗口的占位符沿用同一列")
+    void testBind_LongInList() {
+        String items = String.join(", ", Collections.nCopies(500, "?"));
+        List<SqlPlaceholderBinder.Binding> bindings = SqlPlaceholderBinder.bind(
+            "SELECT * FROM t WHERE user_id IN (" + items + ") AND status = ? LIMIT ?");
+
+        assertEquals(502, bindings.size());
+        assertEquals("user_id", bindings.get(0).column());
+        assertEquals("user_id", bindings.get(499).column());
+        assertEquals(SqlPlaceholderBinder.Role.EQ, bindings.get(499).role());
+        assertEquals("status", bindings.get(500).column());
+        assertEquals(SqlPlaceholderBinder.Role.LIMIT, bindings.get(501).role());
+        assertNull(SqlPlaceholderBinder.bind("INSERT INTO t (a, b) VALUES (?, ?)").get(1).column());
+    }
+
+    @Test
+    @DisplayName("测试 NULL 参数改写为 IS NULL")
+    void testNullComparisonPrefix() {
+        assertEquals("WHERE status IS ", SqlPlaceholderBinder.nullComparisonPrefix("WHERE status = "));
+        assertEquals("WHERE status IS ", SqlPlaceholderBinder.nullComparisonPrefix("WHERE status="));
+        assertEquals("WHERE status IS NOT ", SqlPlaceholderBinder.nullComparisonPrefix("WHERE status <> "));
+        assertEquals("WHERE status IS NOT ", SqlPlaceholderBinder.nullComparisonPrefix("WHERE status != "));
+        assertEquals("WHERE status <=> ", SqlPlaceholderBinder.nullComparisonPrefix("WHERE status <=> "));
+        assertNull(SqlPlaceholderBinder.nullComparisonPrefix("WHERE amount >= "));
+        assertNull(SqlPlaceholderBinder.nullComparisonPrefix("WHERE status IN ("));
+        assertNull(SqlPlaceholderBinder.nullComparisonPrefix("WHERE name LIKE "));
+    }
+}
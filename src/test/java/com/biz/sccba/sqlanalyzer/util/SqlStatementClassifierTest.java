@@ -0,0 +1,50 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SQL 语句类型判断单元测试
+ */
+class SqlStatementClassifierTest {
+
+    @Test
+    @DisplayName("测试 WITH 语句按主语句判断 - CTE + DML 是写语句")
+    void testCteWithDml() {
+        String update = "WITH stale AS (SELECT id FROM t_order WHERE status = 'NEW') "
+            + "UPDATE t_order o JOIN stale s ON o.id = s.id SET o.status = 'CLOSED'";
+        String delete = "/* cleanup */ WITH RECURSIVE x AS (SELECT 1 AS n UNION ALL SELECT n + 1 FROM x WHERE n < 3) "
+            + "DELETE FROM t_log WHERE id IN (SELECT n FROM x)";
+
+        assertEquals("UPDATE", SqlStatementClassifier.mainKeyword(update));
+        assertEquals("DELETE", SqlStatementClassifier.mainKeyword(delete));
+        assertTrue(SqlStatementClassifier.isWriteStatement(update));
+        assertTrue(SqlStatementClassifier.isWriteStatement(delete));
+        assertFalse(SqlStatementClassifier.isReadOnly(update));
+        assertFalse(SqlStatementClassifier.isReadOnly(delete));
+    }
+
+    @Test
+    @DisplayName("测试查询语句 - WITH ... SELECT、括号开头的 UNION")
+    void testReadStatements() {
+        String cte = "with t as (select id, 'update' as tag from t_order) select * from t";
+        assertEquals("SELECT", SqlStatementClassifier.mainKeyword(cte));
+        assertFalse(SqlStatementClassifier.isWriteStatement(cte));
+        assertTrue(SqlStatementClassifier.isReadOnly(cte));
+        assertTrue(SqlStatementClassifier.isReadOnly("(SELECT id FROM a) UNION (SELECT id FROM b)"));
+        assertFalse(SqlStatementClassifier.isReadOnly("SELECT * FROM t_order WHERE id = 1 FOR UPDATE"));
+        assertTrue(SqlStatementClassifier.isWriteStatement("-- upsert\nREPLACE INTO t (id) VALUES (1)"));
+    }
+
+    @Test
+    @DisplayName("测试不支持的语句")
+    void testUnsupported() {
+        assertEquals("ALTER", SqlStatementClassifier.mainKeyword("ALTER TABLE t ADD INDEX idx_a (a)"));
+        assertThrows(IllegalArgumentException.class, () -> SqlStatementClassifier.isWriteStatement("DROP TABLE t"));
+        assertThrows(IllegalArgumentException.class, () -> SqlStatementClassifier.isWriteStatement("WITH x AS (SELECT 1)"));
+        assertNull(SqlStatementClassifier.mainKeyword(null));
+        assertFalse(SqlStatementClassifier.isReadOnly(""));
+    }
+}
@@ -0,0 +1,86 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor.Role;
+import com.biz.sccba.sqlanalyzer.util.SqlTableUsageExtractor.Usage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SQL 表与列使用方式提取单元测试
+ */
+class SqlTableUsageExtractorTest {
+
+    @Test
+    @DisplayName("测试连接、过滤、排序列的识别")
+    void testExtract_JoinFilterOrder() {
+        List<Usage> usages = SqlTableUsageExtractor.extract(
+            "SELECT o.id, u.name FROM `shop`.t_order o LEFT JOIN t_user AS u ON o.user_id = u.id AND u.deleted = 0 "
+                + "WHERE o.create_time > ? AND o.status IN (?, ?) ORDER BY o.create_time DESC LIMIT 10");
+
+        assertEquals(List.of("t_order", "t_user"), SqlTableUsageExtractor.tables(
+            "SELECT o.id FROM `shop`.t_order o LEFT JOIN t_user AS u ON o.user_id = u.id"));
+        assertTrue(usages.contains(new Usage("t_order", "user_id", Role.JOIN)));
+        assertTrue(usages.contains(new Usage("t_user", "id", Role.JOIN)));
+        assertTrue(usages.contains(new Usage("t_user", "deleted", Role.FILTER)));
+        assertTrue(usages.contains(new Usage("t_order", "create_time", Role.FILTER)));
+        assertTrue(usages.contains(new Usage("t_order", "status", Role.FILTER)));
+        assertTrue(usages.contains(new Usage("t_order", "create_time", Role.ORDER)));
+        assertFalse(usages.contains(new Usage("t_order", "id", Role.FILTER)));
+    }
+
+    @Test
+    @DisplayName("测试表名精确匹配 - order 不会匹配 order_item")
+    void testExtract_ExactTableNames() {
+        assertEquals(List.of("order_item"), SqlTableUsageExtractor.tables("SELECT * FROM order_item WHERE order_id = ?"));
+        assertEquals(List.of("t_order", "t_user"),
+            SqlTableUsageExtractor.tables("SELECT * FROM t_order, t_user WHERE t_order.user_id = t_user.id"));
+    }
+
+    @Test
+    @DisplayName("测试单表语句的无别名列与分组、函数、BETWEEN")
+    void testExtract_SingleTable() {
+        List<Usage> usages = SqlTableUsageExtractor.extract(
+            "SELECT status, COUNT(*) FROM t_order WHERE tenant_id = ? AND DATE(create_time) BETWEEN ? AND ? "
+                + "GROUP BY status HAVING COUNT(*) > 1");
+
+        assertTrue(usages.contains(new Usage("t_order", "tenant_id", Role.FILTER)));
+        assertTrue(usages.contains(new Usage("t_order", "create_time", Role.FILTER)));
+        assertTrue(usages.contains(new Usage("t_order", "status", Role.GROUP)));
+        assertFalse(usages.stream().anyMatch(u -> "date".equals(u.column()) || "count".equals(u.column())));
+    }
+
+    @Test
+    @DisplayName("测试子查询与 DML 语句")
+    void testExtract_SubqueryAndDml() {
+        List<Usage> usages = SqlTableUsageExtractor.extract(
+            "SELECT * FROM t_order o WHERE o.status = 'PAID' AND EXISTS "
+                + "(SELECT 1 FROM t_item i WHERE i.order_id = o.id AND sku = ?) ORDER BY o.id");
+
+        assertTrue(usages.contains(new Usage("t_item", null, Role.REFERENCE)));
+        assertTrue(usages.contains(new Usage("t_item", "order_id", Role.JOIN)));
+        assertTrue(usages.contains(new Usage("t_order", "id", Role.JOIN)));
+        assertTrue(usages.contains(new Usage("t_item", "sku", Role.FILTER)));
+        assertTrue(usages.contains(new Usage("t_order", "status", Role.FILTER)));
+        assertTrue(usages.contains(new Usage("t_order", "id", Role.ORDER)));
+
+        List<Usage> update = SqlTableUsageExtractor.extract("UPDATE t_order SET status = ? WHERE id = ?");
+        assertEquals(List.of(new Usage("t_order", null, Role.REFERENCE), new Usage("t_order", "id", Role.FILTER)), update);
+
+        assertEquals(List.of(new Usage("t_order", null, Role.REFERENCE)),
+            SqlTableUsageExtractor.extract("INSERT INTO t_order (id, status) VALUES (?, ?)"));
+    }
+
+    @Test
+    @DisplayName("测试表名规范化 - 与提取结果一致")
+    void testNormalizeName() {
+        assertEquals("t_order", SqlTableUsageExtractor.normalizeName("db.t_order"));
+        assertEquals("t_order", SqlTableUsageExtractor.normalizeName("`T_Order`"));
+        assertEquals("t_order", SqlTableUsageExtractor.normalizeName(" `shop`.`t_order` "));
+        assertEquals(SqlTableUsageExtractor.extract("SELECT 1 FROM `shop`.`T_ORDER`").get(0).table(),
+            SqlTableUsageExtractor.normalizeName("shop.T_ORDER"));
+    }
+}
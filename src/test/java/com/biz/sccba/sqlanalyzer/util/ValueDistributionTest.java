@@ -0,0 +1,89 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 列取值分布单元测试
+ */
+class ValueDistributionTest {
+
+    /**
+     * 按类别展开代表值（合并的类别如 "MIN/RARE" 拆开，同一类别取第一个）
+     */
+    private static Map<String, Object> byLabel(ValueDistribution distribution) {
+        return distribution.getCandidates().stream()
+            .flatMap(c -> Arrays.stream(c.label().split("/")).map(label -> Map.entry(label, c)))
+            .collect(Collectors.toMap(Map.Entry::getKey,
+                e -> e.getValue().value() == null ? "NULL" : e.getValue().value(), (a, b) -> a));
+    }
+
+    @Test
+    @DisplayName("测试采样计数 - 高频值、低频值与分位点")
+    void testFromCounts() {
+        ValueDistribution distribution = ValueDistribution.fromCounts(
+            List.of(1, 2, 3, 4, 5), List.of(10L, 900L, 30L, 40L, 20L), true);
+
+        Map<String, Object> labels = byLabel(distribution);
+        assertEquals(ValueDistribution.SOURCE_SAMPLE, distribution.getSource());
+        assertEquals("NULL", labels.get("NULL"));
+        assertEquals(5, labels.get("MAX"));
+        assertEquals(2, distribution.representative());
+        assertEquals(2, labels.get("MOST_FREQUENT"));
+        assertEquals(1, labels.get("RARE"));
+    }
+
+    @Test
+    @DisplayName("测试相同取值合并类别")
+    void testFromCounts_MergesLabels() {
+        ValueDistribution distribution = ValueDistribution.fromCounts(List.of("A"), List.of(5L), false);
+
+        assertEquals(1, distribution.getCandidates().size());
+        String label = distribution.getCandidates().get(0).label();
+        assertTrue(label.contains("MOST_FREQUENT"));
+        assertTrue(label.contains("MIN"));
+        assertTrue(label.contains("MAX"));
+    }
+
+    @Test
+    @DisplayName("测试 singleton 直方图与字符串解码")
+    void testFromHistogram_Singleton() throws Exception {
+        JsonNode histogram = new ObjectMapper().readTree("""
+            {"histogram-type": "singleton", "null-values": 0.0,
+             "buckets": [["base64:type254:QUNUSVZF", 0.95], ["base64:type254:Q0xPU0VE", 1.0]]}
+            """);
+
+        ValueDistribution distribution = ValueDistribution.fromHistogram(histogram);
+
+        assertEquals(ValueDistribution.SOURCE_HISTOGRAM, distribution.getSource());
+        assertEquals("ACTIVE", distribution.representative());
+        assertTrue(distribution.getCandidates().stream()
+            .anyMatch(c -> c.label().contains("RARE") && "CLOSED".equals(c.value())));
+    }
+
+    @Test
+    @DisplayName("测试 equi-height 直方图")
+    void testFromHistogram_EquiHeight() throws Exception {
+        JsonNode histogram = new ObjectMapper().readTree("""
+            {"histogram-type": "equi-height", "null-values": 0.1,
+             "buckets": [[1, 100, 0.3, 100], [101, 101, 0.6, 1], [102, 1000, 0.9, 899]]}
+            """);
+
+        ValueDistribution distribution = ValueDistribution.fromHistogram(histogram);
+        Map<String, Object> labels = byLabel(distribution);
+
+        assertEquals(101, ((Number) labels.get("MOST_FREQUENT")).intValue());
+        assertEquals(1, ((Number) labels.get("MIN")).intValue());
+        assertEquals(1000, ((Number) labels.get("MAX")).intValue());
+        assertEquals("NULL", labels.get("NULL"));
+    }
+}
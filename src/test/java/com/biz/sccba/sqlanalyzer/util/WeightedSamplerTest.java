@@ -0,0 +1,58 @@
+package com.biz.sccba.sqlanalyzer.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按权重抽样单元测试
+ */
+class WeightedSamplerTest {
+
+    @Test
+    @DisplayName("测试按累计权重取元素")
+    void testPick() {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        weights.put("a", 1.0);
+        weights.put("b", 3.0);
+        weights.put("c", 0.0);
+        weights.put("d", 6.0);
+        WeightedSampler<String> sampler = WeightedSampler.of(weights);
+
+        assertEquals(3, sampler.getItems().size());
+        assertEquals("a", sampler.pick(0.0));
+        assertEquals("a", sampler.pick(0.99));
+        assertEquals("b", sampler.pick(1.0));
+        assertEquals("b", sampler.pick(3.5));
+        assertEquals("d", sampler.pick(4.0));
+        assertEquals("d", sampler.pick(9.99));
+        assertEquals(0.3, sampler.share("b"), 0.0001);
+        assertEquals(0.0, sampler.share("c"), 0.0001);
+    }
+
+    @Test
+    @DisplayName("测试随机抽取比例接近权重")
+    void testNext_Distribution() {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        weights.put("hot", 9.0);
+        weights.put("cold", 1.0);
+        WeightedSampler<String> sampler = WeightedSampler.of(weights);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            counts.merge(sampler.next(), 1, Integer::sum);
+        }
+        assertEquals(0.9, counts.get("hot") / 20000.0, 0.02);
+    }
+
+    @Test
+    @DisplayName("测试没有有效权重时抛出异常")
+    void testOf_NoPositiveWeight() {
+        assertThrows(IllegalArgumentException.class, () -> WeightedSampler.of(Map.of("a", 0.0)));
+    }
+}